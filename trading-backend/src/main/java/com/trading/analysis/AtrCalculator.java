@@ -1,6 +1,7 @@
 package com.trading.analysis;
 
 import com.trading.api.model.Bar;
+import com.trading.api.model.BarSeries;
 
 import java.util.List;
 
@@ -26,17 +27,25 @@ public final class AtrCalculator {
         if (bars == null || period <= 0 || bars.size() < period + 1) {
             return 0.0;
         }
+        return atr(BarSeries.of(bars), period);
+    }
+
+    /** Same as {@link #atr(List, int)} over a primitive bar series. */
+    public static double atr(BarSeries bars, int period) {
+        if (bars == null || period <= 0 || bars.size() < period + 1) {
+            return 0.0;
+        }
 
         // Seed with simple average of first {period} TRs.
         double sumTr = 0.0;
         for (int i = 1; i <= period; i++) {
-            sumTr += trueRange(bars.get(i), bars.get(i - 1));
+            sumTr += trueRange(bars, i);
         }
         double atr = sumTr / period;
 
         // Wilder smoothing for the rest.
         for (int i = period + 1; i < bars.size(); i++) {
-            double tr = trueRange(bars.get(i), bars.get(i - 1));
+            double tr = trueRange(bars, i);
             atr = ((period - 1) * atr + tr) / period;
         }
         return atr;
@@ -44,18 +53,29 @@ public final class AtrCalculator {
 
     /** ATR expressed as a fraction of the latest close (e.g. 0.012 = 1.2%). */
     public static double atrPercent(List<Bar> bars, int period) {
+        if (bars == null || bars.isEmpty()) {
+            return 0.0;
+        }
+        return atrPercent(BarSeries.of(bars), period);
+    }
+
+    public static double atrPercent(BarSeries bars, int period) {
         double atr = atr(bars, period);
         if (atr <= 0.0 || bars == null || bars.isEmpty()) {
             return 0.0;
         }
-        double lastClose = bars.get(bars.size() - 1).close();
+        double lastClose = bars.lastClose();
         return lastClose > 0.0 ? atr / lastClose : 0.0;
     }
 
-    private static double trueRange(Bar current, Bar previous) {
-        double range = current.high() - current.low();
-        double upGap = Math.abs(current.high() - previous.close());
-        double downGap = Math.abs(current.low() - previous.close());
+    /** True range of bar {@code i} against bar {@code i - 1}. */
+    private static double trueRange(BarSeries bars, int i) {
+        double high = bars.high(i);
+        double low = bars.low(i);
+        double previousClose = bars.close(i - 1);
+        double range = high - low;
+        double upGap = Math.abs(high - previousClose);
+        double downGap = Math.abs(low - previousClose);
         return Math.max(range, Math.max(upGap, downGap));
     }
 }
@@ -24,7 +24,7 @@ public class CorrelationCalculator {
     private static final Logger logger = LoggerFactory.getLogger(CorrelationCalculator.class);
     
     private final BrokerClient client;
-    private static final int CORRELATION_PERIOD = 20; // 20 days for correlation
+    public static final int CORRELATION_PERIOD = 20; // 20 days for correlation
     private static final double HIGH_CORRELATION_THRESHOLD = 0.7; // 70% correlation
     
     public CorrelationCalculator(BrokerClient client) {
@@ -165,15 +165,32 @@ public class CorrelationCalculator {
      * Calculate Pearson correlation coefficient between two return series.
      */
     private double calculateCorrelation(List<Double> returns1, List<Double> returns2) {
-        if (returns1.size() != returns2.size() || returns1.isEmpty()) {
+        return correlation(
+            returns1.stream().mapToDouble(Double::doubleValue).toArray(),
+            returns2.stream().mapToDouble(Double::doubleValue).toArray()
+        );
+    }
+
+    /**
+     * Pearson correlation of two equally long return series; 0 when they differ in length, are
+     * empty or either is constant. Allocation-free, for callers that hold returns in arrays.
+     */
+    public static double correlation(double[] returns1, double[] returns2) {
+        if (returns1.length != returns2.length || returns1.length == 0) {
             return 0.0;
         }
         
-        int n = returns1.size();
+        int n = returns1.length;
         
         // Calculate means
-        double mean1 = returns1.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
-        double mean2 = returns2.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
+        double mean1 = 0.0;
+        double mean2 = 0.0;
+        for (int i = 0; i < n; i++) {
+            mean1 += returns1[i];
+            mean2 += returns2[i];
+        }
+        mean1 /= n;
+        mean2 /= n;
         
         // Calculate covariance and standard deviations
         double covariance = 0.0;
@@ -181,26 +198,19 @@ public class CorrelationCalculator {
         double variance2 = 0.0;
         
         for (int i = 0; i < n; i++) {
-            double diff1 = returns1.get(i) - mean1;
-            double diff2 = returns2.get(i) - mean2;
+            double diff1 = returns1[i] - mean1;
+            double diff2 = returns2[i] - mean2;
             
             covariance += diff1 * diff2;
             variance1 += diff1 * diff1;
             variance2 += diff2 * diff2;
         }
         
-        covariance /= n;
-        variance1 /= n;
-        variance2 /= n;
-        
-        double stdDev1 = Math.sqrt(variance1);
-        double stdDev2 = Math.sqrt(variance2);
-        
-        if (stdDev1 == 0.0 || stdDev2 == 0.0) {
+        if (variance1 == 0.0 || variance2 == 0.0) {
             return 0.0;
         }
         
-        return covariance / (stdDev1 * stdDev2);
+        return covariance / Math.sqrt(variance1 * variance2);
     }
     
     /**
@@ -202,7 +202,7 @@ public final class MarketAnalyzer {
                 return Math.max(0, Math.min(100, fallbackScore));
             }
             
-            var closes = bars.stream().map(com.trading.api.model.Bar::close).toList();
+            var closes = com.trading.api.model.BarSeries.of(bars);
             double rsi = calculateRSI(closes, 14);
             
             logger.debug("RSI for {}: {}", symbol, String.format("%.2f", rsi));
@@ -249,7 +249,7 @@ public final class MarketAnalyzer {
     /**
      * Calculate RSI (Relative Strength Index).
      */
-    private double calculateRSI(List<Double> prices, int period) {
+    private double calculateRSI(com.trading.api.model.BarSeries prices, int period) {
         if (prices.size() <= period) {
             return 50.0; // Neutral if not enough data
         }
@@ -259,7 +259,7 @@ public final class MarketAnalyzer {
         
         // Calculate initial average gain/loss
         for (int i = 1; i <= period; i++) {
-            double change = prices.get(i) - prices.get(i - 1);
+            double change = prices.close(i) - prices.close(i - 1);
             if (change > 0) {
                 avgGain += change;
             } else {
@@ -272,7 +272,7 @@ public final class MarketAnalyzer {
         
         // Calculate smoothed averages for remaining data
         for (int i = period + 1; i < prices.size(); i++) {
-            double change = prices.get(i) - prices.get(i - 1);
+            double change = prices.close(i) - prices.close(i - 1);
             double gain = change > 0 ? change : 0;
             double loss = change < 0 ? Math.abs(change) : 0;
             
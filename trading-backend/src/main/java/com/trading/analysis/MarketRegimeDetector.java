@@ -5,6 +5,7 @@ import com.trading.config.Config;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
@@ -29,8 +30,15 @@ public class MarketRegimeDetector {
     private MarketRegimeAnalysis cachedRegime;
     private Instant lastUpdate;
     private final Duration cacheExpiry;
+    private final Clock clock;
     
     public MarketRegimeDetector(BrokerClient client, Config config, MarketAnalyzer marketAnalyzer) {
+        this(client, config, marketAnalyzer, Clock.systemUTC());
+    }
+
+    /** The regime cache ages against {@code clock} — a backtest passes its virtual clock. */
+    public MarketRegimeDetector(BrokerClient client, Config config, MarketAnalyzer marketAnalyzer, Clock clock) {
+        this.clock = clock;
         this.client = client;
         this.config = config;
         this.marketAnalyzer = marketAnalyzer;
@@ -116,7 +124,7 @@ public class MarketRegimeDetector {
      */
     public MarketRegimeAnalysis getCurrentRegime() {
         if (cachedRegime != null && lastUpdate != null) {
-            Duration age = Duration.between(lastUpdate, Instant.now());
+            Duration age = Duration.between(lastUpdate, clock.instant());
             if (age.compareTo(cacheExpiry) < 0) {
                 logger.debug("Using cached regime: {} (age: {}s)", 
                     cachedRegime.regime, age.getSeconds());
@@ -126,7 +134,7 @@ public class MarketRegimeDetector {
         
         // Cache expired or not set, recalculate
         cachedRegime = detectRegime();
-        lastUpdate = Instant.now();
+        lastUpdate = clock.instant();
         
         logger.info("🎯 Market Regime: {}", cachedRegime.getSummary());
         return cachedRegime;
@@ -159,7 +167,7 @@ public class MarketRegimeDetector {
             double confidence = calculateConfidence(trend, volume, breadth, vix, regime);
             
             return new MarketRegimeAnalysis(
-                regime, confidence, trend, volume, breadth, vix, Instant.now()
+                regime, confidence, trend, volume, breadth, vix, clock.instant()
             );
             
         } catch (Exception e) {
@@ -170,7 +178,7 @@ public class MarketRegimeDetector {
                 new TrendAnalysis(TrendDirection.NEUTRAL, 0.5, 0, 0, 0, false, false),
                 new VolumeAnalysis(VolumeTrend.STABLE, 0, 0, 1.0),
                 new BreadthAnalysis(0.5, 0, 0, 1.0),
-                20.0, Instant.now()
+                20.0, clock.instant()
             );
         }
     }
@@ -191,13 +199,14 @@ public class MarketRegimeDetector {
         }
         
         // Calculate MAs
-        double ma50 = calculateMA(bars, shortPeriod);
-        double ma200 = calculateMA(bars, longPeriod);
-        double currentPrice = bars.get(bars.size() - 1).close();
+        var series = com.trading.api.model.BarSeries.of(bars);
+        double ma50 = calculateMA(series, shortPeriod);
+        double ma200 = calculateMA(series, longPeriod);
+        double currentPrice = series.lastClose();
         
         // Detect crossovers
-        double prevMA50 = calculateMA(bars.subList(0, bars.size() - 1), shortPeriod);
-        double prevMA200 = calculateMA(bars.subList(0, bars.size() - 1), longPeriod);
+        double prevMA50 = calculateMA(series.dropLast(1), shortPeriod);
+        double prevMA200 = calculateMA(series.dropLast(1), longPeriod);
         
         boolean goldenCross = ma50 > ma200 && prevMA50 <= prevMA200;
         boolean deathCross = ma50 < ma200 && prevMA50 >= prevMA200;
@@ -429,14 +438,12 @@ public class MarketRegimeDetector {
     /**
      * Calculate simple moving average
      */
-    private double calculateMA(List<com.trading.api.model.Bar> bars, int period) {
+    private double calculateMA(com.trading.api.model.BarSeries bars, int period) {
         if (bars.size() < period) {
             return 0;
         }
         
-        return bars.stream()
-            .skip(Math.max(0, bars.size() - period))
-            .mapToDouble(bar -> bar.close())
+        return bars.closes(Math.max(0, bars.size() - period), bars.size())
             .average()
             .orElse(0);
     }
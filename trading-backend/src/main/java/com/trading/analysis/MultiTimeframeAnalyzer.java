@@ -2,6 +2,7 @@ package com.trading.analysis;
 
 import com.trading.api.BrokerClient;
 import com.trading.api.model.Bar;
+import com.trading.api.model.BarSeries;
 import com.trading.config.Config;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -9,7 +10,6 @@ import org.slf4j.LoggerFactory;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Multi-timeframe analysis for improved entry/exit timing.
@@ -27,7 +27,7 @@ public class MultiTimeframeAnalyzer {
     private com.trading.autonomous.AdaptiveParameterManager adaptiveManager;
 
     // Cache for timeframe data
-    private final Map<String, TimeframeCache> cache = new HashMap<>();
+    private final Map<String, TimeframeCache> cache = new java.util.concurrent.ConcurrentHashMap<>();
     private static final Duration CACHE_EXPIRY = Duration.ofMinutes(1);
 
     public MultiTimeframeAnalyzer(BrokerClient client, Config config) {
@@ -200,8 +200,8 @@ public class MultiTimeframeAnalyzer {
             throw new Exception("Insufficient bars: " + bars.size());
         }
         
-        List<Double> closes = bars.stream().map(Bar::close).collect(Collectors.toList());
-        double currentPrice = closes.get(closes.size() - 1);
+        BarSeries closes = BarSeries.of(bars);
+        double currentPrice = closes.lastClose();
         
         // Calculate SMAs
         double sma20 = calculateSMA(closes, 20);
@@ -229,7 +229,7 @@ public class MultiTimeframeAnalyzer {
     /**
      * Determine trend direction
      */
-    private TrendDirection determineTrend(double price, double sma20, double sma50, List<Double> closes) {
+    private TrendDirection determineTrend(double price, double sma20, double sma50, BarSeries closes) {
         boolean priceAbove20 = price > sma20;
         boolean priceAbove50 = price > sma50;
         boolean sma20Above50 = sma20 > sma50;
@@ -237,8 +237,8 @@ public class MultiTimeframeAnalyzer {
         // Calculate momentum (last 10 bars)
         double momentum = 0;
         if (closes.size() >= 10) {
-            double recent = closes.get(closes.size() - 1);
-            double past = closes.get(closes.size() - 10);
+            double recent = closes.lastClose();
+            double past = closes.close(closes.size() - 10);
             momentum = (recent - past) / past;
         }
         
@@ -421,14 +421,12 @@ public class MultiTimeframeAnalyzer {
     /**
      * Calculate simple moving average
      */
-    private double calculateSMA(List<Double> prices, int period) {
+    private double calculateSMA(BarSeries prices, int period) {
         if (prices.size() < period) {
-            return prices.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
+            return prices.closes(0, prices.size()).average().orElse(0.0);
         }
         
-        return prices.stream()
-            .skip(Math.max(0, prices.size() - period))
-            .mapToDouble(Double::doubleValue)
+        return prices.closes(Math.max(0, prices.size() - period), prices.size())
             .average()
             .orElse(0.0);
     }
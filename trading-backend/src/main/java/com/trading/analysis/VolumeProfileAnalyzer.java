@@ -2,6 +2,7 @@ package com.trading.analysis;
 
 import com.trading.config.Config;
 import com.trading.api.model.Bar;
+import com.trading.api.model.BarSeries;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -15,6 +16,8 @@ import java.util.List;
 public class VolumeProfileAnalyzer {
     private static final Logger logger = LoggerFactory.getLogger(VolumeProfileAnalyzer.class);
     
+    private static final int TOP_NODES = 3;
+    
     private final Config config;
     
     public VolumeProfileAnalyzer(Config config) {
@@ -32,6 +35,14 @@ public class VolumeProfileAnalyzer {
         if (!config.isVolumeProfileEnabled() || bars.size() < 20) {
             return true; // Filter disabled or insufficient data
         }
+        return isGoodEntryPrice(symbol, currentPrice, BarSeries.of(bars));
+    }
+
+    /** Same check over a primitive bar series. */
+    public boolean isGoodEntryPrice(String symbol, double currentPrice, BarSeries bars) {
+        if (!config.isVolumeProfileEnabled() || bars.size() < 20) {
+            return true; // Filter disabled or insufficient data
+        }
         
         var volumeNodes = calculateVolumeNodes(bars);
         double threshold = config.getVolumeNodeThreshold();
@@ -54,15 +65,20 @@ public class VolumeProfileAnalyzer {
     /**
      * Calculate high-volume price nodes
      */
-    private List<VolumeNode> calculateVolumeNodes(List<Bar> bars) {
-        List<VolumeNode> nodes = new ArrayList<>();
+    private List<VolumeNode> calculateVolumeNodes(BarSeries bars) {
+        List<VolumeNode> nodes = new ArrayList<>(TOP_NODES + 1);
         
         // Group prices into buckets and sum volume
-        // Simplified: just find top 3 volume bars
-        bars.stream()
-            .sorted((a, b) -> Long.compare(b.volume(), a.volume()))
-            .limit(3)
-            .forEach(bar -> nodes.add(new VolumeNode(bar.close(), bar.volume())));
+        // Simplified: just find top 3 volume bars (earlier bar wins a tie, as a stable sort would)
+        for (int i = 0; i < bars.size(); i++) {
+            long volume = bars.volume(i);
+            int pos = nodes.size();
+            while (pos > 0 && volume > nodes.get(pos - 1).volume) pos--;
+            if (pos < TOP_NODES) {
+                nodes.add(pos, new VolumeNode(bars.close(i), volume));
+                if (nodes.size() > TOP_NODES) nodes.remove(TOP_NODES);
+            }
+        }
         
         return nodes;
     }
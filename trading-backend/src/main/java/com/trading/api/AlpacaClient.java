@@ -10,18 +10,31 @@ import com.trading.config.Config;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.InputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Modern HTTP client for Alpaca Markets API.
  * Uses Jackson for JSON parsing and proper logging.
+ *
+ * Every request goes out through {@code HttpClient.sendAsync} over HTTP/2 (one multiplexed
+ * connection per host; the client falls back to HTTP/1.1 where the server won't upgrade), paced
+ * by the rate limiter without parking a thread; the BrokerClient methods wait for the response.
  */
 public final class AlpacaClient implements BrokerClient {
     private static final Logger logger = LoggerFactory.getLogger(AlpacaClient.class);
@@ -31,11 +44,15 @@ public final class AlpacaClient implements BrokerClient {
     private final Config config;
     private final ObjectMapper objectMapper;
     private final RateLimiter rateLimiter;
+    private final Requests requests = new Requests();
 
     public AlpacaClient(Config config) {
         this.config = config;
+        // Response handling (including rate-limit backoff) runs on virtual threads, never on the selector
         this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
                 .connectTimeout(REQUEST_TIMEOUT)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
                 .build();
         this.objectMapper = new ObjectMapper()
                 .registerModule(new JavaTimeModule());
@@ -51,8 +68,7 @@ public final class AlpacaClient implements BrokerClient {
 
     public JsonNode getAccount() throws Exception {
         logger.debug("Fetching account information");
-        var response = sendRequest(config.baseUrl() + "/v2/account", "GET");
-        return objectMapper.readTree(response);
+        return await(requests.account());
     }
 
     /**
@@ -108,8 +124,7 @@ public final class AlpacaClient implements BrokerClient {
     }
 
     public JsonNode getClock() throws Exception {
-        var response = sendRequest(config.baseUrl() + "/v2/clock", "GET");
-        return objectMapper.readTree(response);
+        return await(requests.clock());
     }
 
     public Optional<Position> getPosition(String symbol) {
@@ -126,9 +141,11 @@ public final class AlpacaClient implements BrokerClient {
 
     public List<Position> getPositions() throws Exception {
         logger.debug("Fetching all open positions");
-        var response = sendRequest(config.baseUrl() + "/v2/positions", "GET");
+        return await(requests.positions());
+    }
+
+    private List<Position> parsePositions(String response) throws Exception {
         var root = objectMapper.readTree(response);
-        
         var positions = new ArrayList<Position>();
         if (root.isArray()) {
             for (var node : root) {
@@ -160,13 +177,22 @@ public final class AlpacaClient implements BrokerClient {
     
     public JsonNode getOpenOrders(String symbol) {
         try {
-            var url = config.baseUrl() + "/v2/orders?status=open&symbols=" + symbol;
-            return objectMapper.readTree(sendRequest(url, "GET"));
+            return await(requests.openOrders(symbol));
         } catch (Exception e) {
             logger.error("Failed to get open orders for {}", symbol, e);
             return objectMapper.createArrayNode();
         }
     }
+
+    @Override
+    public JsonNode getAllOpenOrders() {
+        try {
+            return await(requests.allOpenOrders());
+        } catch (Exception e) {
+            logger.error("Failed to get open orders", e);
+            return null;
+        }
+    }
     
     /**
      * Get recent news articles for a symbol.
@@ -230,7 +256,7 @@ public final class AlpacaClient implements BrokerClient {
     public void cancelOrder(String orderId) {
         try {
             logger.info("Canceling order {}", orderId);
-            sendRequest(config.baseUrl() + "/v2/orders/" + orderId, "DELETE");
+            await(requests.cancelOrder(orderId));
         } catch (Exception e) {
             logger.error("Failed to cancel order {}", orderId, e);
             throw new RuntimeException("Order cancellation failed", e);
@@ -252,31 +278,33 @@ public final class AlpacaClient implements BrokerClient {
 
     public void placeOrder(String symbol, double qty, String side, String type, String timeInForce, Double limitPrice) {
         try {
-            var order = objectMapper.createObjectNode()
-                .put("symbol", symbol)
-                .put("qty", String.format("%.9f", qty)) // Use 9 decimal places for fractional shares
-                .put("side", side)
-                .put("type", type)
-                .put("time_in_force", timeInForce);
-            
-            if (limitPrice != null) {
-                order.put("limit_price", String.format("%.2f", limitPrice));
-            }
-            
-            // Extended hours support (only for limit orders)
-            if (config.isExtendedHoursEnabled() && "limit".equals(type)) {
-                order.put("extended_hours", true);
-            }
-
-            var body = objectMapper.writeValueAsString(order);
-            logger.info("Placing order: {}", body);
-            sendRequest(config.baseUrl() + "/v2/orders", "POST", body);
+            await(requests.submitOrder(symbol, qty, side, type, timeInForce, limitPrice));
         } catch (Exception e) {
             logger.error("Failed to place order", e);
             throw new RuntimeException("Order placement failed", e);
         }
     }
 
+    private String orderBody(String symbol, double qty, String side, String type, String timeInForce,
+                             Double limitPrice) throws Exception {
+        var order = objectMapper.createObjectNode()
+            .put("symbol", symbol)
+            .put("qty", String.format("%.9f", qty)) // Use 9 decimal places for fractional shares
+            .put("side", side)
+            .put("type", type)
+            .put("time_in_force", timeInForce);
+
+        if (limitPrice != null) {
+            order.put("limit_price", String.format("%.2f", limitPrice));
+        }
+
+        // Extended hours support (only for limit orders)
+        if (config.isExtendedHoursEnabled() && "limit".equals(type)) {
+            order.put("extended_hours", true);
+        }
+        return objectMapper.writeValueAsString(order);
+    }
+
     /**
      * Replace an existing order with updated parameters.
      * Useful for trailing stops or adjusting limit prices.
@@ -496,10 +524,23 @@ public final class AlpacaClient implements BrokerClient {
      */
     public List<Bar> getBars(String symbol, String timeframe, int limit) throws Exception {
         logger.debug("Fetching {} {} bars for {}", limit, timeframe, symbol);
-        
-        // Calculate start time based on timeframe.
-        // Calendar days needed = (limit * bar_minutes / 390 trading_min_per_day) * 2 safety buffer + 3 for weekends.
-        // This ensures we always get enough bars even after a weekend or holiday.
+        var bars = await(requests.bars(symbol, timeframe, limit));
+        logger.debug("Retrieved {} {} bars for {}", bars.size(), timeframe, symbol);
+        return bars;
+    }
+
+    private static String barsUrl(String symbol, String timeframe, int limit) {
+        // sort=desc so `limit` keeps the newest bars in the window, not the oldest after start.
+        return String.format("https://data.alpaca.markets/v2/stocks/%s/bars?timeframe=%s&feed=iex&limit=%d&sort=desc&start=%s",
+                symbol, timeframe, limit, java.net.URLEncoder.encode(windowStart(timeframe, limit), java.nio.charset.StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Start of the lookback window for {@code limit} bars of {@code timeframe}.
+     * Calendar days needed = (limit * bar_minutes / 390 trading_min_per_day) * 2 safety buffer + 3 for weekends.
+     * This ensures we always get enough bars even after a weekend or holiday.
+     */
+    private static String windowStart(String timeframe, int limit) {
         var now = java.time.ZonedDateTime.now(java.time.ZoneId.of("America/New_York"));
         var start = switch (timeframe) {
             case "1Min"  -> now.minusDays((long)(limit /  390.0 * 2) + 3);
@@ -509,26 +550,26 @@ public final class AlpacaClient implements BrokerClient {
             case "1Day"  -> now.minusDays(limit * 2L);
             default      -> now.minusDays(limit / 6L + 3);
         };
-        
-        var startStr = start.format(java.time.format.DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+        return start.format(java.time.format.DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+    }
 
-        String url = String.format("https://data.alpaca.markets/v2/stocks/%s/bars?timeframe=%s&feed=iex&limit=%d&start=%s",
-                symbol, timeframe, limit, java.net.URLEncoder.encode(startStr, java.nio.charset.StandardCharsets.UTF_8));
+    /**
+     * Bars at or after {@code start}. With start set to the newest bar we already hold, the
+     * response is usually that bar (revised) plus at most one new one instead of the full window.
+     */
+    @Override
+    public List<Bar> getBarsSince(String symbol, String timeframe, java.time.Instant start, int limit) throws Exception {
+        logger.debug("Fetching {} bars for {} since {}", timeframe, symbol, start);
 
-        var response = sendRequest(url, "GET");
-        var root = objectMapper.readTree(response);
+        String url = String.format("https://data.alpaca.markets/v2/stocks/%s/bars?timeframe=%s&feed=iex&limit=%d&start=%s",
+                symbol, timeframe, limit, java.net.URLEncoder.encode(start.toString(), java.nio.charset.StandardCharsets.UTF_8));
 
-        var bars = new ArrayList<Bar>();
+        return fetchBars(url, false);
+    }
 
-        var barsArray = root.get("bars");
-        if (barsArray != null && barsArray.isArray()) {
-            for (var barNode : barsArray) {
-                bars.add(objectMapper.treeToValue(barNode, Bar.class));
-            }
-        }
-        
-        logger.debug("Retrieved {} {} bars for {}", bars.size(), timeframe, symbol);
-        return bars;
+    @Override
+    public boolean hasNativeBarsSince() {
+        return true;
     }
 
     public List<Bar> getMarketHistory(String symbol, int limit) throws Exception {
@@ -539,71 +580,315 @@ public final class AlpacaClient implements BrokerClient {
                 .minusDays(limit * 2L)
                 .format(java.time.format.DateTimeFormatter.ISO_OFFSET_DATE_TIME);
                 
-        var url = String.format("https://data.alpaca.markets/v2/stocks/%s/bars?timeframe=1Day&feed=iex&limit=%d&start=%s", 
+        var url = String.format("https://data.alpaca.markets/v2/stocks/%s/bars?timeframe=1Day&feed=iex&limit=%d&sort=desc&start=%s", 
                 symbol, limit, java.net.URLEncoder.encode(start, java.nio.charset.StandardCharsets.UTF_8));
-        var response = sendRequest(url, "GET");
-        var root = objectMapper.readTree(response);
-        
-        var bars = new ArrayList<Bar>();
-        var barsArray = root.get("bars");
-        
-        if (barsArray != null && barsArray.isArray()) {
-            for (var barNode : barsArray) {
-                bars.add(objectMapper.treeToValue(barNode, Bar.class));
-            }
-        }
-        
+        var bars = fetchBars(url, true);
         logger.debug("Retrieved {} bars for {}", bars.size(), symbol);
         return bars;
     }
 
+    /**
+     * Stream a single-symbol bars response through {@link BarDecoder} — no body String or
+     * JsonNode tree. {@code newestFirst} for sort=desc queries, returned oldest first.
+     */
+    private List<Bar> fetchBars(String url, boolean newestFirst) throws Exception {
+        return decodeBars(sendStreamingGet(url), newestFirst);
+    }
+
+    private static List<Bar> decodeBars(InputStream in, boolean newestFirst) throws Exception {
+        try (var body = in; var buffer = BarDecoder.Buffer.borrow()) {
+            BarDecoder.decodeAlpaca(body, buffer);
+            return newestFirst ? buffer.toBarsReversed() : buffer.toBars();
+        }
+    }
+
+    // ── Batched market data ───────────────────────────────────────────────────
+
+    /** Symbols per multi-symbol request — keeps URLs well under proxy limits. */
+    private static final int SYMBOLS_PER_REQUEST = 100;
+    /** Alpaca's maximum page size for multi-symbol bars. */
+    private static final int MULTI_BARS_PAGE_LIMIT = 10_000;
+
+    /** One /v2/stocks/bars/latest call per 100 symbols instead of one call per symbol. */
+    @Override
+    public java.util.Map<String, Bar> getLatestBars(java.util.Collection<String> symbols) throws Exception {
+        var result = new java.util.LinkedHashMap<String, Bar>();
+        for (var chunk : chunks(symbols)) {
+            String url = "https://data.alpaca.markets/v2/stocks/bars/latest?symbols=" + String.join(",", chunk);
+            var bars = objectMapper.readTree(sendRequest(url, "GET")).path("bars");
+            for (var it = bars.fields(); it.hasNext(); ) {
+                var entry = it.next();
+                try {
+                    result.put(entry.getKey(), objectMapper.treeToValue(entry.getValue(), Bar.class));
+                } catch (Exception e) {
+                    logger.debug("Skipping bad latest bar for {}: {}", entry.getKey(), e.getMessage());
+                }
+            }
+        }
+        logger.debug("Retrieved latest bars for {}/{} symbols", result.size(), symbols.size());
+        return result;
+    }
+
+    /**
+     * Multi-symbol /v2/stocks/bars. The page limit is shared by all symbols in the request, so
+     * this follows next_page_token until the window is complete and keeps the newest
+     * {@code limit} bars per symbol.
+     */
+    @Override
+    public java.util.Map<String, List<Bar>> getMultiBars(java.util.Collection<String> symbols, String timeframe,
+                                                          int limit) throws Exception {
+        var result = new java.util.LinkedHashMap<String, List<Bar>>();
+        String start = java.net.URLEncoder.encode(windowStart(timeframe, limit), java.nio.charset.StandardCharsets.UTF_8);
+        for (var chunk : chunks(symbols)) {
+            var collected = new java.util.HashMap<String, List<Bar>>();
+            String pageToken = null;
+            do {
+                String url = String.format("https://data.alpaca.markets/v2/stocks/bars?symbols=%s&timeframe=%s&feed=iex&limit=%d&start=%s",
+                        String.join(",", chunk), timeframe, MULTI_BARS_PAGE_LIMIT, start);
+                if (pageToken != null) {
+                    url += "&page_token=" + java.net.URLEncoder.encode(pageToken, java.nio.charset.StandardCharsets.UTF_8);
+                }
+                var root = objectMapper.readTree(sendRequest(url, "GET"));
+                for (var it = root.path("bars").fields(); it.hasNext(); ) {
+                    var entry = it.next();
+                    var list = collected.computeIfAbsent(entry.getKey(), k -> new ArrayList<>());
+                    for (var barNode : entry.getValue()) {
+                        list.add(objectMapper.treeToValue(barNode, Bar.class));
+                    }
+                }
+                var next = root.path("next_page_token");
+                pageToken = next.isTextual() && !next.asText().isEmpty() ? next.asText() : null;
+            } while (pageToken != null);
+
+            for (String symbol : chunk) {
+                var list = collected.get(symbol);
+                if (list != null) {
+                    int from = Math.max(0, list.size() - limit);
+                    result.put(symbol, List.copyOf(list.subList(from, list.size())));
+                }
+            }
+        }
+        logger.debug("Retrieved {} bars for {}/{} symbols", timeframe, result.size(), symbols.size());
+        return result;
+    }
+
+    /** Multi-symbol /v2/stocks/snapshots: last trade, quote and minute/daily/prev-daily bars. */
+    @Override
+    public java.util.Map<String, com.trading.api.model.Snapshot> getSnapshots(java.util.Collection<String> symbols)
+            throws Exception {
+        var result = new java.util.LinkedHashMap<String, com.trading.api.model.Snapshot>();
+        for (var chunk : chunks(symbols)) {
+            String url = "https://data.alpaca.markets/v2/stocks/snapshots?symbols=" + String.join(",", chunk);
+            var root = objectMapper.readTree(sendRequest(url, "GET"));
+            for (var it = root.fields(); it.hasNext(); ) {
+                var entry = it.next();
+                var node = entry.getValue();
+                if (node == null || node.isNull()) continue;
+                result.put(entry.getKey(), new com.trading.api.model.Snapshot(
+                    entry.getKey(),
+                    node.path("latestTrade").path("p").asDouble(Double.NaN),
+                    node.path("latestQuote").path("bp").asDouble(Double.NaN),
+                    node.path("latestQuote").path("ap").asDouble(Double.NaN),
+                    snapshotBar(node.path("minuteBar")),
+                    snapshotBar(node.path("dailyBar")),
+                    snapshotBar(node.path("prevDailyBar"))));
+            }
+        }
+        return result;
+    }
+
+    private Bar snapshotBar(JsonNode node) {
+        if (node == null || !node.isObject()) return null;
+        try {
+            return objectMapper.treeToValue(node, Bar.class);
+        } catch (Exception e) {
+            return null; // e.g. zero close on a halted symbol
+        }
+    }
+
+    private static List<List<String>> chunks(java.util.Collection<String> symbols) {
+        var all = new ArrayList<>(symbols);
+        var chunks = new ArrayList<List<String>>();
+        for (int i = 0; i < all.size(); i += SYMBOLS_PER_REQUEST) {
+            chunks.add(all.subList(i, Math.min(i + SYMBOLS_PER_REQUEST, all.size())));
+        }
+        return chunks;
+    }
+
     private String sendRequest(String url, String method) throws Exception {
         return sendRequest(url, method, null);
     }
 
     private String sendRequest(String url, String method, String body) throws Exception {
-        // Apply rate limiting before making request
-        rateLimiter.waitIfNeeded();
-        
-        var builder = HttpRequest.newBuilder()
-                .uri(URI.create(url))
-                .header("APCA-API-KEY-ID", config.apiKey())
-                .header("APCA-API-SECRET-KEY", config.apiSecret())
-                .header("Content-Type", "application/json")
-                .timeout(REQUEST_TIMEOUT);
+        return await(sendRequestAsync(url, method, body));
+    }
+
+    /**
+     * GET whose body is handed back unread, for responses decoded while they stream in.
+     * Error bodies are read in full and go through the same handling as {@link #sendRequest}.
+     */
+    private InputStream sendStreamingGet(String url) throws Exception {
+        return await(sendStreamingGetAsync(url));
+    }
+
+    // ── Async transport ───────────────────────────────────────────────────────
+
+    private CompletableFuture<String> sendRequestAsync(String url, String method, String body) {
+        var builder = requestBuilder(url);
 
         var request = switch (method.toUpperCase()) {
             case "GET" -> builder.GET().build();
             case "POST" -> builder.POST(HttpRequest.BodyPublishers.ofString(body != null ? body : "{}")).build();
+            case "PATCH" -> builder.method("PATCH", HttpRequest.BodyPublishers.ofString(body != null ? body : "{}")).build();
             case "DELETE" -> builder.DELETE().build();
             default -> throw new IllegalArgumentException(String.format("Unsupported HTTP method: %s", method));
         };
 
-        var response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        return paced(() -> httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString()))
+            .thenApply(response -> {
+                if (response.statusCode() >= 200 && response.statusCode() < 300) {
+                    // Success - record for adaptive rate limiting
+                    rateLimiter.recordSuccess();
+                    return response.body();
+                }
+                throw failure(response.statusCode(), response.body());
+            });
+    }
+
+    private CompletableFuture<InputStream> sendStreamingGetAsync(String url) {
+        return paced(() -> httpClient.sendAsync(requestBuilder(url).GET().build(), HttpResponse.BodyHandlers.ofInputStream()))
+            .thenApply(unchecked(response -> {
+                if (response.statusCode() >= 200 && response.statusCode() < 300) {
+                    rateLimiter.recordSuccess();
+                    return response.body();
+                }
+                String body;
+                try (var in = response.body()) {
+                    body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                }
+                throw failure(response.statusCode(), body);
+            }));
+    }
+
+    /** Send once the rate limiter's slot comes up, scheduling the send rather than parking a thread. */
+    private <T> CompletableFuture<HttpResponse<T>> paced(Supplier<CompletableFuture<HttpResponse<T>>> send) {
+        long waitMs = rateLimiter.reserve();
+        if (waitMs <= 0) {
+            return send.get();
+        }
+        return CompletableFuture.runAsync(() -> {}, CompletableFuture.delayedExecutor(waitMs, TimeUnit.MILLISECONDS))
+            .thenCompose(ignored -> send.get());
+    }
+
+    /** Wait for an async call, rethrowing what it failed with as the blocking methods always have. */
+    private static <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
 
-        if (response.statusCode() >= 200 && response.statusCode() < 300) {
-            // Success - record for adaptive rate limiting
-            rateLimiter.recordSuccess();
-            return response.body();
-        } else if (response.statusCode() == 429) {
+    @FunctionalInterface
+    private interface CheckedFunction<T, R> {
+        R apply(T t) throws Exception;
+    }
+
+    private static <T, R> Function<T, R> unchecked(CheckedFunction<T, R> fn) {
+        return t -> {
+            try {
+                return fn.apply(t);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        };
+    }
+
+    /** The requests behind the BrokerClient methods: sent at once, parsed on completion. */
+    private final class Requests {
+
+        private CompletableFuture<JsonNode> getJson(String url) {
+            return sendRequestAsync(url, "GET", null).thenApply(unchecked(objectMapper::readTree));
+        }
+
+        CompletableFuture<JsonNode> account() {
+            return getJson(config.baseUrl() + "/v2/account");
+        }
+
+        CompletableFuture<List<Position>> positions() {
+            return sendRequestAsync(config.baseUrl() + "/v2/positions", "GET", null)
+                .thenApply(unchecked(AlpacaClient.this::parsePositions));
+        }
+
+        CompletableFuture<JsonNode> clock() {
+            return getJson(config.baseUrl() + "/v2/clock");
+        }
+
+        CompletableFuture<JsonNode> openOrders(String symbol) {
+            return getJson(config.baseUrl() + "/v2/orders?status=open&symbols=" + symbol);
+        }
+
+        CompletableFuture<JsonNode> allOpenOrders() {
+            // Alpaca orders already carry "symbol"; 500 is the endpoint's maximum page
+            return getJson(config.baseUrl() + "/v2/orders?status=open&limit=500");
+        }
+
+        CompletableFuture<List<Bar>> bars(String symbol, String timeframe, int limit) {
+            return sendStreamingGetAsync(barsUrl(symbol, timeframe, limit))
+                .thenApply(unchecked(in -> decodeBars(in, true)));
+        }
+
+        CompletableFuture<JsonNode> submitOrder(String symbol, double qty, String side, String type,
+                                                       String timeInForce, Double limitPrice) {
+            String body;
+            try {
+                body = orderBody(symbol, qty, side, type, timeInForce, limitPrice);
+            } catch (Exception e) {
+                return CompletableFuture.failedFuture(e);
+            }
+            logger.info("Placing order: {}", body);
+            return sendRequestAsync(config.baseUrl() + "/v2/orders", "POST", body)
+                .thenApply(unchecked(objectMapper::readTree));
+        }
+
+        CompletableFuture<Void> cancelOrder(String orderId) {
+            return sendRequestAsync(config.baseUrl() + "/v2/orders/" + orderId, "DELETE", null)
+                .thenApply(ignored -> null);
+        }
+    }
+
+    private HttpRequest.Builder requestBuilder(String url) {
+        return HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .header("APCA-API-KEY-ID", config.apiKey())
+                .header("APCA-API-SECRET-KEY", config.apiSecret())
+                .header("Content-Type", "application/json")
+                .timeout(REQUEST_TIMEOUT);
+    }
+
+    private RuntimeException failure(int statusCode, String body) {
+        if (statusCode == 429) {
             // Rate limit hit - record and back off
             rateLimiter.recordRateLimit();
             var errorMsg = String.format("API Rate Limit (429) - backing off. Current delay: %dms", 
                 rateLimiter.getCurrentDelay());
             logger.warn(errorMsg);
-            throw new RuntimeException(errorMsg);
+            return new RateLimitedException(errorMsg);
+        }
+        var errorMsg = String.format("API Request failed: %d - %s", statusCode, body);
+        if (statusCode == 404) {
+            logger.debug(errorMsg);
+        } else if (statusCode == 403 && body != null && body.contains("pattern day trading")) {
+            logger.warn("PDT REJECTED: {}", errorMsg);
+            return new PDTRejectedException(errorMsg);
         } else {
-            var errorMsg = String.format("API Request failed: %d - %s", response.statusCode(), response.body());
-            if (response.statusCode() == 404) {
-                logger.debug(errorMsg);
-            } else if (response.statusCode() == 403 && response.body() != null
-                       && response.body().contains("pattern day trading")) {
-                logger.warn("PDT REJECTED: {}", errorMsg);
-                throw new PDTRejectedException(errorMsg);
-            } else {
-                logger.error(errorMsg);
-            }
-            throw new RuntimeException(errorMsg);
+            logger.error(errorMsg);
         }
+        return new RuntimeException(errorMsg);
     }
 }
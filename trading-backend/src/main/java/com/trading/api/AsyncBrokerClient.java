@@ -0,0 +1,183 @@
+package com.trading.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.trading.api.model.Bar;
+import com.trading.api.model.Position;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Future-returning view of a broker: each call returns at once and completes when the response
+ * arrives, so independent requests can be in flight together instead of paying each round trip
+ * in turn.
+ *
+ * Futures complete exceptionally with the same exceptions the blocking client throws
+ * ({@link RateLimitedException}, {@link PDTRejectedException}, ...).
+ *
+ * Every call runs the broker's blocking method on its own virtual thread. The trading cycle
+ * fans out through {@link #of(ResilientBrokerClient)} — account, positions and open orders, see
+ * {@code BrokerSnapshot} — so each request keeps its retry, circuit breaker and scheduling, which
+ * are blocking. The market clock is not fetched per cycle (it comes from the local
+ * {@link ExchangeCalendar}), and bars are read per symbol by the evaluations.
+ */
+public interface AsyncBrokerClient {
+
+    CompletableFuture<JsonNode> account();
+
+    CompletableFuture<List<Position>> positions();
+
+    CompletableFuture<JsonNode> clock();
+
+    CompletableFuture<JsonNode> openOrders(String symbol);
+
+    /** All open orders, each carrying a {@code symbol} field; completes with null when the broker can't list them. */
+    CompletableFuture<JsonNode> allOpenOrders();
+
+    CompletableFuture<List<Bar>> bars(String symbol, String timeframe, int limit);
+
+    /** Submit a simple order; completes with the broker's order record, or null when the client doesn't return one. */
+    CompletableFuture<JsonNode> submitOrder(String symbol, double qty, String side, String type,
+                                            String timeInForce, Double limitPrice);
+
+    CompletableFuture<Void> cancelOrder(String orderId);
+
+    /** The async view of {@code client}: each call runs the blocking method on its own virtual thread. */
+    static AsyncBrokerClient of(BrokerClient client) {
+        return new Blocking(client);
+    }
+
+    /** The async view of {@code client}: each call goes through its resilience on a virtual thread. */
+    static AsyncBrokerClient of(ResilientBrokerClient client) {
+        return new Resilient(client);
+    }
+
+    /** Adapter running a blocking BrokerClient on virtual threads. */
+    final class Blocking implements AsyncBrokerClient {
+        private static final Executor VIRTUAL = task -> Thread.ofVirtual().name("broker-async").start(task);
+
+        private final BrokerClient client;
+
+        private Blocking(BrokerClient client) {
+            this.client = client;
+        }
+
+        private static <T> CompletableFuture<T> call(Callable<T> call) {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return call.call();
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, VIRTUAL);
+        }
+
+        @Override
+        public CompletableFuture<JsonNode> account() {
+            return call(client::getAccount);
+        }
+
+        @Override
+        public CompletableFuture<List<Position>> positions() {
+            return call(client::getPositions);
+        }
+
+        @Override
+        public CompletableFuture<JsonNode> clock() {
+            return call(client::getClock);
+        }
+
+        @Override
+        public CompletableFuture<JsonNode> openOrders(String symbol) {
+            return call(() -> client.getOpenOrders(symbol));
+        }
+
+        @Override
+        public CompletableFuture<JsonNode> allOpenOrders() {
+            return call(client::getAllOpenOrders);
+        }
+
+        @Override
+        public CompletableFuture<List<Bar>> bars(String symbol, String timeframe, int limit) {
+            return call(() -> client.getBars(symbol, timeframe, limit));
+        }
+
+        @Override
+        public CompletableFuture<JsonNode> submitOrder(String symbol, double qty, String side, String type,
+                                                       String timeInForce, Double limitPrice) {
+            return call(() -> {
+                client.placeOrder(symbol, qty, side, type, timeInForce, limitPrice);
+                return null;
+            });
+        }
+
+        @Override
+        public CompletableFuture<Void> cancelOrder(String orderId) {
+            return call(() -> {
+                client.cancelOrder(orderId);
+                return null;
+            });
+        }
+    }
+
+    /** Adapter running a ResilientBrokerClient's calls on virtual threads. */
+    final class Resilient implements AsyncBrokerClient {
+        private final ResilientBrokerClient client;
+
+        private Resilient(ResilientBrokerClient client) {
+            this.client = client;
+        }
+
+        @Override
+        public CompletableFuture<JsonNode> account() {
+            return Blocking.call(client::getAccount);
+        }
+
+        @Override
+        public CompletableFuture<List<Position>> positions() {
+            return Blocking.call(client::getPositions);
+        }
+
+        @Override
+        public CompletableFuture<JsonNode> clock() {
+            return Blocking.call(client::getClock);
+        }
+
+        @Override
+        public CompletableFuture<JsonNode> openOrders(String symbol) {
+            return Blocking.call(() -> client.getOpenOrders(symbol));
+        }
+
+        @Override
+        public CompletableFuture<JsonNode> allOpenOrders() {
+            return Blocking.call(client::getAllOpenOrders);
+        }
+
+        @Override
+        public CompletableFuture<List<Bar>> bars(String symbol, String timeframe, int limit) {
+            return Blocking.call(() -> client.getBars(symbol, timeframe, limit));
+        }
+
+        @Override
+        public CompletableFuture<JsonNode> submitOrder(String symbol, double qty, String side, String type,
+                                                       String timeInForce, Double limitPrice) {
+            return Blocking.call(() -> {
+                client.placeOrder(symbol, qty, side, type, timeInForce, limitPrice);
+                return null;
+            });
+        }
+
+        @Override
+        public CompletableFuture<Void> cancelOrder(String orderId) {
+            return Blocking.call(() -> {
+                client.cancelOrder(orderId);
+                return null;
+            });
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.trading.api;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.trading.api.model.Bar;
+import com.trading.api.model.BarSeries;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Streaming decoder for broker bar responses.
+ *
+ * Reads the HTTP body as it arrives with Jackson's {@link JsonParser} and writes each bar's
+ * t/o/h/l/c/v straight into a pooled columnar {@link Buffer} — no response String, no JsonNode
+ * tree and no per-field nodes. Callers turn the buffer into the {@code List<Bar>} the
+ * BrokerClient contract returns, or a {@link BarSeries}.
+ *
+ * Each format keeps the validation its tree-based parser had: Alpaca and Tradier daily bars
+ * with a non-positive close fail the whole response (as the Bar constructor did), Tradier
+ * timesales and IBKR rows with a non-positive close are skipped.
+ */
+public final class BarDecoder {
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final ZoneId ET = ZoneId.of("America/New_York");
+    private static final int POOL_SIZE = 32;
+    private static final ConcurrentLinkedQueue<Buffer> POOL = new ConcurrentLinkedQueue<>();
+
+    private BarDecoder() {}
+
+    /**
+     * Growable primitive columns for one decoded response. Borrow with {@link #borrow()} and
+     * close to hand it back; the arrays are kept for the next response.
+     */
+    public static final class Buffer implements AutoCloseable {
+        private static final int INITIAL_CAPACITY = 256;
+
+        private long[] timestamps = new long[INITIAL_CAPACITY];
+        private double[] opens = new double[INITIAL_CAPACITY];
+        private double[] highs = new double[INITIAL_CAPACITY];
+        private double[] lows = new double[INITIAL_CAPACITY];
+        private double[] closes = new double[INITIAL_CAPACITY];
+        private long[] volumes = new long[INITIAL_CAPACITY];
+        private int size;
+
+        public static Buffer borrow() {
+            var buffer = POOL.poll();
+            if (buffer == null) return new Buffer();
+            buffer.size = 0;
+            return buffer;
+        }
+
+        void add(long epochMillis, double open, double high, double low, double close, long volume) {
+            if (size == closes.length) grow();
+            timestamps[size] = epochMillis;
+            opens[size] = open;
+            highs[size] = high;
+            lows[size] = low;
+            closes[size] = close;
+            volumes[size] = volume;
+            size++;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public long timestampMillis(int i) {
+            return timestamps[i];
+        }
+
+        public double close(int i) {
+            return closes[i];
+        }
+
+        /** The last {@code limit} rows in response order. */
+        public List<Bar> toBars(int limit) {
+            int from = Math.max(0, size - limit);
+            var bars = new ArrayList<Bar>(size - from);
+            for (int i = from; i < size; i++) bars.add(bar(i));
+            return bars;
+        }
+
+        public List<Bar> toBars() {
+            return toBars(size);
+        }
+
+        /** Rows in reverse response order — for endpoints queried newest-first. */
+        public List<Bar> toBarsReversed() {
+            var bars = new ArrayList<Bar>(size);
+            for (int i = size - 1; i >= 0; i--) bars.add(bar(i));
+            return bars;
+        }
+
+        /** Copy the rows (response order) into a series with room for {@code capacity} bars. */
+        public BarSeries toSeries(int capacity) {
+            var series = new BarSeries(Math.max(1, capacity));
+            for (int i = 0; i < size; i++) {
+                series.append(timestamps[i], opens[i], highs[i], lows[i], closes[i], volumes[i]);
+            }
+            return series;
+        }
+
+        private Bar bar(int i) {
+            return new Bar(Instant.ofEpochMilli(timestamps[i]), opens[i], highs[i], lows[i], closes[i], volumes[i]);
+        }
+
+        private void grow() {
+            int capacity = closes.length * 2;
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            opens = Arrays.copyOf(opens, capacity);
+            highs = Arrays.copyOf(highs, capacity);
+            lows = Arrays.copyOf(lows, capacity);
+            closes = Arrays.copyOf(closes, capacity);
+            volumes = Arrays.copyOf(volumes, capacity);
+        }
+
+        @Override
+        public void close() {
+            if (POOL.size() < POOL_SIZE) POOL.offer(this);
+        }
+    }
+
+    // ── Formats ───────────────────────────────────────────────────────────────
+
+    /** Alpaca {@code {"bars":[{"t":"…Z","o":…,"h":…,"l":…,"c":…,"v":…}, …]}}. */
+    public static void decodeAlpaca(InputStream body, Buffer out) throws IOException {
+        try (var p = JSON.createParser(body)) {
+            if (!moveTo(p, "bars") || p.currentToken() != JsonToken.START_ARRAY) return;
+            while (p.nextToken() == JsonToken.START_OBJECT) {
+                long t = Long.MIN_VALUE;
+                double o = 0, h = 0, l = 0, c = 0;
+                long v = 0;
+                while (p.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = p.currentName();
+                    JsonToken value = p.nextToken();
+                    switch (field) {
+                        case "t" -> t = instantMillis(p, value);
+                        case "o" -> o = p.getValueAsDouble();
+                        case "h" -> h = p.getValueAsDouble();
+                        case "l" -> l = p.getValueAsDouble();
+                        case "c" -> c = p.getValueAsDouble();
+                        case "v" -> v = p.getValueAsLong();
+                        default -> p.skipChildren();
+                    }
+                }
+                if (t == Long.MIN_VALUE) {
+                    throw new JsonParseException(p, "Bar without timestamp");
+                }
+                requirePositiveClose(c);
+                out.add(t, o, h, l, c, v);
+            }
+        }
+    }
+
+    /** Tradier {@code /markets/history}: {@code {"history":{"day":[…]}}}, or a single object for one day. */
+    public static void decodeTradierDaily(InputStream body, Buffer out) throws IOException {
+        try (var p = JSON.createParser(body)) {
+            if (!moveTo(p, "history", "day")) return;
+            if (p.currentToken() == JsonToken.START_OBJECT) {
+                tradierDay(p, out);
+            } else if (p.currentToken() == JsonToken.START_ARRAY) {
+                while (p.nextToken() == JsonToken.START_OBJECT) {
+                    tradierDay(p, out);
+                }
+            }
+        }
+    }
+
+    /** Tradier {@code /markets/timesales}: {@code {"series":{"data":[{"time":"2024-01-02T09:30:00",…}]}}}, ET local times. */
+    public static void decodeTradierTimesales(InputStream body, Buffer out) throws IOException {
+        try (var p = JSON.createParser(body)) {
+            if (!moveTo(p, "series", "data") || p.currentToken() != JsonToken.START_ARRAY) return;
+            while (p.nextToken() == JsonToken.START_OBJECT) {
+                String time = "";
+                double o = Double.NaN, h = Double.NaN, l = Double.NaN, c = 0;
+                long v = 0;
+                while (p.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = p.currentName();
+                    JsonToken value = p.nextToken();
+                    switch (field) {
+                        case "time" -> time = value == JsonToken.VALUE_NULL ? "" : p.getValueAsString("");
+                        case "open" -> o = orNaN(p, value);
+                        case "high" -> h = orNaN(p, value);
+                        case "low" -> l = orNaN(p, value);
+                        case "close" -> c = p.getValueAsDouble();
+                        case "volume" -> v = p.getValueAsLong(0);
+                        default -> p.skipChildren();
+                    }
+                }
+                if (c > 0) {
+                    long t = LocalDateTime.parse(time.replace(" ", "T")).atZone(ET).toInstant().toEpochMilli();
+                    out.add(t, Double.isNaN(o) ? c : o, Double.isNaN(h) ? c : h, Double.isNaN(l) ? c : l, c, v);
+                }
+            }
+        }
+    }
+
+    /** IBKR {@code /iserver/marketdata/history}: {@code {"data":[{"t":epochMillis,"o":…,…}]}}. */
+    public static void decodeIbkr(InputStream body, Buffer out) throws IOException {
+        try (var p = JSON.createParser(body)) {
+            if (!moveTo(p, "data") || p.currentToken() != JsonToken.START_ARRAY) return;
+            while (p.nextToken() == JsonToken.START_OBJECT) {
+                double o = 0, h = 0, l = 0, c = 0;
+                long v = 0, t = 0;
+                while (p.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = p.currentName();
+                    p.nextToken();
+                    switch (field) {
+                        case "o" -> o = p.getValueAsDouble(0);
+                        case "h" -> h = p.getValueAsDouble(0);
+                        case "l" -> l = p.getValueAsDouble(0);
+                        case "c" -> c = p.getValueAsDouble(0);
+                        case "v" -> v = p.getValueAsLong(0);
+                        case "t" -> t = p.getValueAsLong(0);
+                        default -> p.skipChildren();
+                    }
+                }
+                if (c > 0) {
+                    out.add(t > 0 ? t : System.currentTimeMillis(), o, h, l, c, v);
+                }
+            }
+        }
+    }
+
+    // ── Parsing helpers ───────────────────────────────────────────────────────
+
+    private static void tradierDay(JsonParser p, Buffer out) throws IOException {
+        String date = "1970-01-01";
+        double o = 0, h = 0, l = 0, c = 0;
+        long v = 0;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken value = p.nextToken();
+            switch (field) {
+                case "date" -> date = value == JsonToken.VALUE_NULL ? date : p.getValueAsString(date);
+                case "open" -> o = p.getValueAsDouble();
+                case "high" -> h = p.getValueAsDouble();
+                case "low" -> l = p.getValueAsDouble();
+                case "close" -> c = p.getValueAsDouble();
+                case "volume" -> v = p.getValueAsLong(0);
+                default -> p.skipChildren();
+            }
+        }
+        requirePositiveClose(c);
+        out.add(Instant.parse(date + "T00:00:00Z").toEpochMilli(), o, h, l, c, v);
+    }
+
+    /**
+     * Advance to the value of {@code root.path[0].path[1]…}, skipping every other field without
+     * materialising it. Returns false if the path is absent or an intermediate is not an object.
+     */
+    private static boolean moveTo(JsonParser p, String... path) throws IOException {
+        if (p.nextToken() != JsonToken.START_OBJECT) return false;
+        for (int depth = 0; depth < path.length; depth++) {
+            boolean found = false;
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                JsonToken value = p.nextToken();
+                if (field.equals(path[depth])) {
+                    if (depth < path.length - 1 && value != JsonToken.START_OBJECT) return false;
+                    found = true;
+                    break;
+                }
+                p.skipChildren();
+            }
+            if (!found) return false;
+        }
+        return true;
+    }
+
+    /** ISO-8601 string, or epoch seconds as Jackson's Instant deserializer reads numbers. */
+    private static long instantMillis(JsonParser p, JsonToken value) throws IOException {
+        return switch (value) {
+            case VALUE_STRING -> Instant.parse(p.getText()).toEpochMilli();
+            case VALUE_NUMBER_INT -> p.getLongValue() * 1000L;
+            case VALUE_NUMBER_FLOAT -> (long) (p.getDoubleValue() * 1000.0);
+            default -> Long.MIN_VALUE;
+        };
+    }
+
+    private static double orNaN(JsonParser p, JsonToken value) throws IOException {
+        return value == JsonToken.VALUE_NULL ? Double.NaN : p.getValueAsDouble();
+    }
+
+    /** Same rule and message as the Bar record's constructor. */
+    private static void requirePositiveClose(double close) {
+        if (close <= 0) {
+            throw new IllegalArgumentException("Close price must be positive");
+        }
+    }
+}
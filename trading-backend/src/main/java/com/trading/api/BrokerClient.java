@@ -4,8 +4,13 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.trading.api.model.Bar;
 import com.trading.api.model.BracketOrderResult;
 import com.trading.api.model.Position;
+import com.trading.api.model.Snapshot;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -29,6 +34,15 @@ public interface BrokerClient {
 
     JsonNode getOpenOrders(String symbol);
 
+    /**
+     * Every open order on the account in one call, each in the {@link #getOpenOrders} shape plus a
+     * {@code symbol} field. Null when the broker cannot list them that way — callers then ask per
+     * symbol with {@link #getOpenOrders}.
+     */
+    default JsonNode getAllOpenOrders() {
+        return null;
+    }
+
     JsonNode getNews(String symbol, int limit);
 
     JsonNode getRecentOrders(String symbol);
@@ -61,4 +75,71 @@ public interface BrokerClient {
     List<Bar> getBars(String symbol, String timeframe, int limit) throws Exception;
 
     List<Bar> getMarketHistory(String symbol, int limit) throws Exception;
+
+    /**
+     * Bars whose timestamp is at or after {@code start}, oldest first, at most {@code limit}.
+     * Used by incremental bar history to pull only what is new since the last known bar.
+     *
+     * The default filters a regular {@link #getBars} window of {@code limit} bars, so it is
+     * correct for every broker but downloads the whole window; brokers whose API accepts a start
+     * time override it and {@link #hasNativeBarsSince}.
+     */
+    default List<Bar> getBarsSince(String symbol, String timeframe, Instant start, int limit) throws Exception {
+        return getBars(symbol, timeframe, limit).stream()
+            .filter(bar -> !bar.timestamp().isBefore(start))
+            .toList();
+    }
+
+    /** True when {@link #getBarsSince} asks the broker for a start time instead of filtering a window. */
+    default boolean hasNativeBarsSince() {
+        return false;
+    }
+
+    // ── Batched market data ───────────────────────────────────────────────────
+    //
+    // One call for a whole watchlist. The defaults loop over the per-symbol methods so every
+    // broker works unchanged; brokers with multi-symbol endpoints override them. Symbols the
+    // broker has no data for (or that fail individually) are simply absent from the result —
+    // callers fall back to the per-symbol method for those.
+
+    /** Latest bar per symbol. */
+    default Map<String, Bar> getLatestBars(Collection<String> symbols) throws Exception {
+        var result = new LinkedHashMap<String, Bar>();
+        for (String symbol : symbols) {
+            getLatestBar(symbol).ifPresent(bar -> result.put(symbol, bar));
+        }
+        return result;
+    }
+
+    /** Newest {@code limit} bars per symbol, oldest first — same contract as {@link #getBars}. */
+    default Map<String, List<Bar>> getMultiBars(Collection<String> symbols, String timeframe, int limit)
+            throws Exception {
+        var result = new LinkedHashMap<String, List<Bar>>();
+        for (String symbol : symbols) {
+            try {
+                result.put(symbol, getBars(symbol, timeframe, limit));
+            } catch (Exception e) {
+                // leave the symbol out; the caller's per-symbol path reports the error
+            }
+        }
+        return result;
+    }
+
+    /** Snapshot per symbol. The default builds one from the latest bar and the last two daily bars. */
+    default Map<String, Snapshot> getSnapshots(Collection<String> symbols) throws Exception {
+        var result = new LinkedHashMap<String, Snapshot>();
+        for (String symbol : symbols) {
+            try {
+                var latest = getLatestBar(symbol).orElse(null);
+                var daily = getMarketHistory(symbol, 2);
+                Bar today = daily.isEmpty() ? null : daily.get(daily.size() - 1);
+                Bar prev = daily.size() < 2 ? null : daily.get(daily.size() - 2);
+                double last = latest != null ? latest.close() : today != null ? today.close() : Double.NaN;
+                result.put(symbol, new Snapshot(symbol, last, Double.NaN, Double.NaN, latest, today, prev));
+            } catch (Exception e) {
+                // leave the symbol out
+            }
+        }
+        return result;
+    }
 }
@@ -0,0 +1,431 @@
+package com.trading.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Local exchange session calendar: every regular NYSE session, and every CME Globex
+ * equity-index futures session, from {@value #FIRST_YEAR} through {@value #LAST_YEAR}, precomputed
+ * into sorted epoch-millisecond arrays. "Is it open", "when does it close" and "when does it open
+ * next" are binary searches over those arrays: no I/O and no date arithmetic per call.
+ *
+ * Sessions come from the exchanges' published rules:
+ * <ul>
+ *   <li><b>NYSE</b> — 9:30–16:00 ET on weekdays. Closed for New Year's Day, MLK Day, Presidents'
+ *       Day, Good Friday, Memorial Day, Juneteenth (from 2022), Independence Day, Labor Day,
+ *       Thanksgiving and Christmas, moved to the nearest weekday when they fall on a weekend.
+ *       New Year's Day on a Saturday is not observed. The session closes at 13:00 on July 3,
+ *       the day after Thanksgiving and Christmas Eve when those are ordinary weekdays.</li>
+ *   <li><b>CME</b> — the session for trade date D opens at 18:00 CT the evening before and
+ *       closes at 17:00 CT on D (Sunday evening opens Monday's session), the same hours as
+ *       {@link FuturesMarketHours}. No session on New Year's Day, Good Friday or Christmas.
+ *       On the other NYSE holidays trading halts at 12:00 CT. On the day after Thanksgiving and
+ *       on Christmas Eve it halts at 12:15 CT.</li>
+ * </ul>
+ * One-off closures (national days of mourning, weather) are not in the rules. The daily
+ * {@link #startDailyClockCheck clock check} catches them: when the broker's clock disagrees,
+ * the broker's answer is used until the calendar's and the broker's next transitions have both
+ * passed.
+ */
+public final class ExchangeCalendar {
+    private static final Logger logger = LoggerFactory.getLogger(ExchangeCalendar.class);
+
+    public static final ZoneId NY = ZoneId.of("America/New_York");
+    public static final ZoneId CT = ZoneId.of("America/Chicago");
+
+    static final int FIRST_YEAR = 2000;
+    static final int LAST_YEAR = 2060;
+
+    public static final LocalTime NYSE_OPEN = LocalTime.of(9, 30);
+    public static final LocalTime NYSE_CLOSE = LocalTime.of(16, 0);
+    private static final LocalTime NYSE_EARLY_CLOSE = LocalTime.of(13, 0);
+
+    private static final LocalTime CME_OPEN = LocalTime.of(18, 0);       // evening before the trade date
+    private static final LocalTime CME_CLOSE = LocalTime.of(17, 0);
+    private static final LocalTime CME_HOLIDAY_HALT = LocalTime.of(12, 0);
+    private static final LocalTime CME_EARLY_HALT = LocalTime.of(12, 15);
+
+    /** Daily check time: just after the open, when the broker's clock reports today's close. */
+    private static final LocalTime CLOCK_CHECK_TIME = LocalTime.of(9, 35);
+    private static final Duration CLOCK_CHECK_RETRY = Duration.ofMinutes(5);
+
+    private static final class Holder {
+        static final ExchangeCalendar NYSE = nyseCalendar();
+        static final ExchangeCalendar CME = cmeCalendar();
+    }
+
+    /** Regular NYSE sessions (US equities and ETFs). */
+    public static ExchangeCalendar nyse() {
+        return Holder.NYSE;
+    }
+
+    /** CME Globex equity-index futures sessions. */
+    public static ExchangeCalendar cme() {
+        return Holder.CME;
+    }
+
+    private final String name;
+    private final ZoneId zone;
+    private final LocalTime regularClose;
+    private final Map<LocalDate, String> holidays;
+    private final Map<LocalDate, LocalTime> earlyCloses;
+    private final long[] opens;
+    private final long[] closes;
+    private final AtomicBoolean clockCheckStarted = new AtomicBoolean(false);
+
+    private volatile BrokerOverride override;
+    private volatile ClockCheck lastClockCheck;
+
+    /**
+     * The broker's clock, used instead of the schedule over {@code [from, until)} — from when the
+     * mismatch was seen; the state flips at {@code flipAt}.
+     */
+    private record BrokerOverride(long from, long flipAt, long until, boolean openBefore) {
+        boolean covers(long epochMillis) {
+            return epochMillis >= from && epochMillis < until;
+        }
+
+        boolean isOpen(long epochMillis) {
+            return epochMillis < flipAt ? openBefore : !openBefore;
+        }
+    }
+
+    /** Outcome of the last comparison with the broker's clock. */
+    public record ClockCheck(Instant at, boolean consistent, String detail) {}
+
+    private ExchangeCalendar(String name, ZoneId zone, LocalTime regularClose, Map<LocalDate, String> holidays,
+                             Map<LocalDate, LocalTime> earlyCloses, long[] opens, long[] closes) {
+        this.name = name;
+        this.zone = zone;
+        this.regularClose = regularClose;
+        this.holidays = holidays;
+        this.earlyCloses = earlyCloses;
+        this.opens = opens;
+        this.closes = closes;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public ZoneId zone() {
+        return zone;
+    }
+
+    // ── Session queries ───────────────────────────────────────────────────────
+
+    public boolean isOpen() {
+        return isOpen(System.currentTimeMillis());
+    }
+
+    public boolean isOpen(long epochMillis) {
+        var o = override;
+        if (o != null && o.covers(epochMillis)) {
+            return o.isOpen(epochMillis);
+        }
+        return isScheduledOpen(epochMillis);
+    }
+
+    /** Open according to the schedule alone, ignoring any broker clock override. */
+    public boolean isScheduledOpen(long epochMillis) {
+        int i = sessionAtOrBefore(epochMillis);
+        return i >= 0 && epochMillis < closes[i];
+    }
+
+    /** Epoch millis of the next session open strictly after {@code epochMillis}, or Long.MAX_VALUE past the calendar. */
+    public long nextOpen(long epochMillis) {
+        int i = sessionAtOrBefore(epochMillis) + 1;
+        return i < opens.length ? opens[i] : Long.MAX_VALUE;
+    }
+
+    /** Epoch millis at which the current session closes, or the next session's close when closed now. */
+    public long nextClose(long epochMillis) {
+        var o = override;
+        if (o != null && o.covers(epochMillis) && o.openBefore() && epochMillis < o.flipAt()) {
+            return o.flipAt();
+        }
+        int i = sessionAtOrBefore(epochMillis);
+        if (i >= 0 && epochMillis < closes[i]) return closes[i];
+        return i + 1 < closes.length ? closes[i + 1] : Long.MAX_VALUE;
+    }
+
+    /** Milliseconds until the current session closes; 0 when the market is closed. */
+    public long millisUntilClose(long epochMillis) {
+        return isOpen(epochMillis) ? nextClose(epochMillis) - epochMillis : 0;
+    }
+
+    private int sessionAtOrBefore(long epochMillis) {
+        int i = Arrays.binarySearch(opens, epochMillis);
+        return i >= 0 ? i : -i - 2;
+    }
+
+    // ── Trade dates ───────────────────────────────────────────────────────────
+
+    /** True when {@code date} is a weekday on which the exchange is closed all day. */
+    public boolean isHoliday(LocalDate date) {
+        return holidays.containsKey(date);
+    }
+
+    /** The holiday's name, when {@code date} is one. */
+    public Optional<String> holidayName(LocalDate date) {
+        return Optional.ofNullable(holidays.get(date));
+    }
+
+    /** True when there is a session for trade date {@code date}. */
+    public boolean isSessionDay(LocalDate date) {
+        return !isWeekend(date) && !isHoliday(date);
+    }
+
+    /** The early close (local exchange time) for trade date {@code date}, when it has one. */
+    public Optional<LocalTime> earlyClose(LocalDate date) {
+        return Optional.ofNullable(earlyCloses.get(date));
+    }
+
+    /** Close of the session for trade date {@code date} in exchange time; empty when there is no session. */
+    public Optional<LocalTime> closeTime(LocalDate date) {
+        if (!isSessionDay(date)) return Optional.empty();
+        return Optional.of(earlyCloses.getOrDefault(date, regularClose));
+    }
+
+    /** Epoch millis of the close of the session for trade date {@code date}; empty when there is no session. */
+    public OptionalLong sessionClose(LocalDate date) {
+        return closeTime(date)
+            .map(close -> OptionalLong.of(date.atTime(close).atZone(zone).toInstant().toEpochMilli()))
+            .orElse(OptionalLong.empty());
+    }
+
+    /** Close of a full session, in exchange time. */
+    public LocalTime regularClose() {
+        return regularClose;
+    }
+
+    // ── Broker clock check ────────────────────────────────────────────────────
+
+    /**
+     * Compare the schedule with a broker clock ({@code is_open}, {@code next_open},
+     * {@code next_close}; Alpaca's format). A disagreement is logged and the broker's answer
+     * is used from {@code epochMillis} until both sides' next transitions have passed; earlier
+     * times (a backtest, a stamp from yesterday) still follow the schedule.
+     *
+     * @return true when the calendar agrees with the broker
+     */
+    public boolean verify(JsonNode clock, long epochMillis) {
+        boolean brokerOpen = clock.path("is_open").asBoolean();
+        long brokerNext = parseTime(clock.path(brokerOpen ? "next_close" : "next_open").asText(""));
+        boolean scheduledOpen = isScheduledOpen(epochMillis);
+        // Schedule against broker, never the current override against broker
+        long scheduledNext = scheduledOpen ? closes[sessionAtOrBefore(epochMillis)] : nextOpen(epochMillis);
+
+        boolean consistent = brokerOpen == scheduledOpen
+            && (brokerNext < 0 || Math.abs(brokerNext - scheduledNext) < 1_000);
+        String detail = String.format("broker %s (next %s), calendar %s (next %s)",
+            brokerOpen ? "open" : "closed", brokerNext < 0 ? "?" : Instant.ofEpochMilli(brokerNext),
+            scheduledOpen ? "open" : "closed", scheduledNext == Long.MAX_VALUE ? "?" : Instant.ofEpochMilli(scheduledNext));
+        lastClockCheck = new ClockCheck(Instant.ofEpochMilli(epochMillis), consistent, detail);
+
+        if (consistent) {
+            override = null;
+            logger.debug("{} calendar matches broker clock: {}", name, detail);
+            return true;
+        }
+        long flipAt = brokerNext > epochMillis ? brokerNext : scheduledNext;
+        override = new BrokerOverride(epochMillis, flipAt, Math.max(flipAt, scheduledNext), brokerOpen);
+        logger.warn("⚠️ {} calendar disagrees with the broker clock — following the broker until {}: {}",
+            name, Instant.ofEpochMilli(Math.max(flipAt, scheduledNext)), detail);
+        return false;
+    }
+
+    public ClockCheck lastClockCheck() {
+        return lastClockCheck;
+    }
+
+    /**
+     * Check the calendar against {@code clock} now and then every trading day just after the
+     * open, on a virtual thread. Only the first call per calendar starts a checker.
+     */
+    public void startDailyClockCheck(Supplier<JsonNode> clock) {
+        if (!clockCheckStarted.compareAndSet(false, true)) return;
+        Thread.ofVirtual().name(name.toLowerCase() + "-clock-check").start(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                Duration wait;
+                try {
+                    JsonNode node = clock.get();
+                    if (node == null || !node.has("is_open")) throw new IllegalStateException("no clock");
+                    verify(node, System.currentTimeMillis());
+                    wait = untilNextCheck(ZonedDateTime.now(zone));
+                } catch (Exception e) {
+                    logger.debug("{} clock check failed, retrying in {}: {}", name, CLOCK_CHECK_RETRY, e.getMessage());
+                    wait = CLOCK_CHECK_RETRY;
+                }
+                try {
+                    Thread.sleep(wait);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        logger.info("{} calendar: daily broker clock check at {} {}", name, CLOCK_CHECK_TIME, zone.getId());
+    }
+
+    private Duration untilNextCheck(ZonedDateTime now) {
+        var next = now.toLocalDate().atTime(CLOCK_CHECK_TIME).atZone(zone);
+        if (!next.isAfter(now)) next = next.plusDays(1);
+        return Duration.between(now, next);
+    }
+
+    private static long parseTime(String text) {
+        if (text == null || text.isBlank()) return -1;
+        try {
+            return OffsetDateTime.parse(text).toInstant().toEpochMilli();
+        } catch (Exception e) {
+            try {
+                return Instant.parse(text).toEpochMilli();
+            } catch (Exception ignored) {
+                return -1;
+            }
+        }
+    }
+
+    // ── Construction ──────────────────────────────────────────────────────────
+
+    private static ExchangeCalendar nyseCalendar() {
+        var holidays = new HashMap<LocalDate, String>();
+        var earlyCloses = new HashMap<LocalDate, LocalTime>();
+        for (int year = FIRST_YEAR; year <= LAST_YEAR; year++) {
+            holidays.putAll(nyseHolidays(year));
+        }
+        for (int year = FIRST_YEAR; year <= LAST_YEAR; year++) {
+            for (LocalDate date : earlyCloseDates(year)) {
+                if (!isWeekend(date) && !holidays.containsKey(date)) earlyCloses.put(date, NYSE_EARLY_CLOSE);
+            }
+        }
+
+        int days = (int) LocalDate.of(FIRST_YEAR, 1, 1).until(LocalDate.of(LAST_YEAR + 1, 1, 1), ChronoUnit.DAYS);
+        long[] opens = new long[days];
+        long[] closes = new long[days];
+        int n = 0;
+        for (var date = LocalDate.of(FIRST_YEAR, 1, 1); date.getYear() <= LAST_YEAR; date = date.plusDays(1)) {
+            if (isWeekend(date) || holidays.containsKey(date)) continue;
+            opens[n] = date.atTime(NYSE_OPEN).atZone(NY).toInstant().toEpochMilli();
+            closes[n] = date.atTime(earlyCloses.getOrDefault(date, NYSE_CLOSE)).atZone(NY).toInstant().toEpochMilli();
+            n++;
+        }
+        return new ExchangeCalendar("NYSE", NY, NYSE_CLOSE, Map.copyOf(holidays), Map.copyOf(earlyCloses),
+            Arrays.copyOf(opens, n), Arrays.copyOf(closes, n));
+    }
+
+    private static ExchangeCalendar cmeCalendar() {
+        var closed = new HashMap<LocalDate, String>();
+        var earlyCloses = new HashMap<LocalDate, LocalTime>();
+        for (int year = FIRST_YEAR; year <= LAST_YEAR; year++) {
+            nyseHolidays(year).forEach((date, holiday) -> {
+                if (holiday.equals("New Year's Day") || holiday.equals("Good Friday") || holiday.equals("Christmas")) {
+                    closed.put(date, holiday);
+                } else {
+                    earlyCloses.put(date, CME_HOLIDAY_HALT);
+                }
+            });
+        }
+        for (int year = FIRST_YEAR; year <= LAST_YEAR; year++) {
+            var dayAfterThanksgiving = thanksgiving(year).plusDays(1);
+            earlyCloses.put(dayAfterThanksgiving, CME_EARLY_HALT);
+            var christmasEve = LocalDate.of(year, 12, 24);
+            if (!isWeekend(christmasEve) && !closed.containsKey(christmasEve)) earlyCloses.put(christmasEve, CME_EARLY_HALT);
+        }
+
+        int days = (int) LocalDate.of(FIRST_YEAR, 1, 1).until(LocalDate.of(LAST_YEAR + 1, 1, 1), ChronoUnit.DAYS);
+        long[] opens = new long[days];
+        long[] closes = new long[days];
+        int n = 0;
+        for (var date = LocalDate.of(FIRST_YEAR, 1, 1); date.getYear() <= LAST_YEAR; date = date.plusDays(1)) {
+            if (isWeekend(date) || closed.containsKey(date)) continue;
+            opens[n] = date.minusDays(1).atTime(CME_OPEN).atZone(CT).toInstant().toEpochMilli();
+            closes[n] = date.atTime(earlyCloses.getOrDefault(date, CME_CLOSE)).atZone(CT).toInstant().toEpochMilli();
+            n++;
+        }
+        return new ExchangeCalendar("CME", CT, CME_CLOSE, Map.copyOf(closed), Map.copyOf(earlyCloses),
+            Arrays.copyOf(opens, n), Arrays.copyOf(closes, n));
+    }
+
+    /** NYSE full-day closures in {@code year}, by observed date. */
+    static Map<LocalDate, String> nyseHolidays(int year) {
+        var holidays = new HashMap<LocalDate, String>();
+        var newYear = LocalDate.of(year, 1, 1);
+        // NYSE Rule 7.2: New Year's Day on a Saturday is not moved back into the prior year
+        if (newYear.getDayOfWeek() != DayOfWeek.SATURDAY) holidays.put(observed(newYear), "New Year's Day");
+        holidays.put(nth(year, 1, DayOfWeek.MONDAY, 3), "MLK Day");
+        holidays.put(nth(year, 2, DayOfWeek.MONDAY, 3), "Presidents' Day");
+        holidays.put(easter(year).minusDays(2), "Good Friday");
+        holidays.put(LocalDate.of(year, 5, 31).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)), "Memorial Day");
+        if (year >= 2022) holidays.put(observed(LocalDate.of(year, 6, 19)), "Juneteenth");
+        holidays.put(observed(LocalDate.of(year, 7, 4)), "Independence Day");
+        holidays.put(nth(year, 9, DayOfWeek.MONDAY, 1), "Labor Day");
+        holidays.put(thanksgiving(year), "Thanksgiving");
+        holidays.put(observed(LocalDate.of(year, 12, 25)), "Christmas");
+        return holidays;
+    }
+
+    /** Candidate 13:00 closes; dropped when they fall on a weekend or a holiday. */
+    private static LocalDate[] earlyCloseDates(int year) {
+        var julyThird = LocalDate.of(year, 7, 3);
+        var candidates = new ArrayList<LocalDate>();
+        // Only when the 4th itself is the holiday (Tue–Fri): a Friday 3rd is the observed holiday
+        if (julyThird.getDayOfWeek().getValue() <= DayOfWeek.THURSDAY.getValue()) candidates.add(julyThird);
+        candidates.add(thanksgiving(year).plusDays(1));
+        candidates.add(LocalDate.of(year, 12, 24));
+        return candidates.toArray(LocalDate[]::new);
+    }
+
+    private static LocalDate thanksgiving(int year) {
+        return nth(year, 11, DayOfWeek.THURSDAY, 4);
+    }
+
+    private static LocalDate observed(LocalDate date) {
+        return switch (date.getDayOfWeek()) {
+            case SATURDAY -> date.minusDays(1);
+            case SUNDAY -> date.plusDays(1);
+            default -> date;
+        };
+    }
+
+    private static LocalDate nth(int year, int month, DayOfWeek day, int n) {
+        return LocalDate.of(year, month, 1).with(TemporalAdjusters.dayOfWeekInMonth(n, day));
+    }
+
+    /** Western (Gregorian) Easter Sunday — anonymous Gregorian algorithm. */
+    static LocalDate easter(int year) {
+        int a = year % 19, b = year / 100, c = year % 100;
+        int d = b / 4, e = b % 4, f = (b + 8) / 25, g = (b - f + 1) / 3;
+        int h = (19 * a + b - d - g + 15) % 30;
+        int i = c / 4, k = c % 4;
+        int l = (32 + 2 * e + 2 * i - h - k) % 7;
+        int m = (a + 11 * h + 22 * l) / 451;
+        int month = (h + l - 7 * m + 114) / 31;
+        int day = (h + l - 7 * m + 114) % 31 + 1;
+        return LocalDate.of(year, month, day);
+    }
+
+    private static boolean isWeekend(LocalDate date) {
+        return date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY;
+    }
+}
@@ -12,10 +12,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.Closeable;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -105,7 +107,26 @@ public final class IBKRClient implements BrokerClient, Closeable {
             .build();
         var resp = httpClient.send(req, HttpResponse.BodyHandlers.ofString());
         if (resp.statusCode() >= 400) {
-            throw new RuntimeException("IBKR GET failed [" + resp.statusCode() + "]: " + resp.body());
+            throw failure("GET", resp.statusCode(), resp.body());
+        }
+        return resp.body();
+    }
+
+    /** GET with the body left unread, for responses decoded as they stream in. */
+    private InputStream sendGetStream(String url) throws Exception {
+        var req = HttpRequest.newBuilder(URI.create(url))
+            .header("Authorization", "Bearer " + accessToken)
+            .header("Accept", "application/json")
+            .timeout(REQUEST_TIMEOUT)
+            .GET()
+            .build();
+        var resp = httpClient.send(req, HttpResponse.BodyHandlers.ofInputStream());
+        if (resp.statusCode() >= 400) {
+            String body;
+            try (var in = resp.body()) {
+                body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            throw failure("GET", resp.statusCode(), body);
         }
         return resp.body();
     }
@@ -120,7 +141,7 @@ public final class IBKRClient implements BrokerClient, Closeable {
             .build();
         var resp = httpClient.send(req, HttpResponse.BodyHandlers.ofString());
         if (resp.statusCode() >= 400) {
-            throw new RuntimeException("IBKR POST failed [" + resp.statusCode() + "]: " + resp.body());
+            throw failure("POST", resp.statusCode(), resp.body());
         }
         return resp.body();
     }
@@ -134,11 +155,17 @@ public final class IBKRClient implements BrokerClient, Closeable {
             .build();
         var resp = httpClient.send(req, HttpResponse.BodyHandlers.ofString());
         if (resp.statusCode() >= 400) {
-            throw new RuntimeException("IBKR DELETE failed [" + resp.statusCode() + "]: " + resp.body());
+            throw failure("DELETE", resp.statusCode(), resp.body());
         }
         return resp.body();
     }
 
+    /** HTTP error as an exception; 429 becomes {@link RateLimitedException} so the scheduler backs off. */
+    private static RuntimeException failure(String method, int status, String body) {
+        String message = "IBKR " + method + " failed [" + status + "]: " + body;
+        return status == 429 ? new RateLimitedException(message) : new RuntimeException(message);
+    }
+
     // ── Symbol → conid resolution ─────────────────────────────────────────────
 
     /**
@@ -238,32 +265,15 @@ public final class IBKRClient implements BrokerClient, Closeable {
     }
 
     static boolean isMarketOpen(ZonedDateTime now) {
-        DayOfWeek day = now.getDayOfWeek();
-        if (day == DayOfWeek.SATURDAY || day == DayOfWeek.SUNDAY) return false;
-        LocalTime time = now.toLocalTime();
-        LocalTime marketOpen  = LocalTime.of(9, 30);
-        LocalTime marketClose = LocalTime.of(16, 0);
-        return !time.isBefore(marketOpen) && time.isBefore(marketClose);
+        return ExchangeCalendar.nyse().isOpen(now.toInstant().toEpochMilli());
     }
 
     private static ZonedDateTime nextOpenTime(ZonedDateTime from) {
-        ZonedDateTime candidate = from.toLocalDate().atTime(9, 30).atZone(ET);
-        if (!candidate.isAfter(from)) candidate = candidate.plusDays(1);
-        while (candidate.getDayOfWeek() == DayOfWeek.SATURDAY
-            || candidate.getDayOfWeek() == DayOfWeek.SUNDAY) {
-            candidate = candidate.plusDays(1);
-        }
-        return candidate;
+        return Instant.ofEpochMilli(ExchangeCalendar.nyse().nextOpen(from.toInstant().toEpochMilli())).atZone(ET);
     }
 
     private static ZonedDateTime nextCloseTime(ZonedDateTime from) {
-        ZonedDateTime candidate = from.toLocalDate().atTime(16, 0).atZone(ET);
-        if (!candidate.isAfter(from)) candidate = candidate.plusDays(1);
-        while (candidate.getDayOfWeek() == DayOfWeek.SATURDAY
-            || candidate.getDayOfWeek() == DayOfWeek.SUNDAY) {
-            candidate = candidate.plusDays(1);
-        }
-        return candidate;
+        return Instant.ofEpochMilli(ExchangeCalendar.nyse().nextClose(from.toInstant().toEpochMilli())).atZone(ET);
     }
 
     // ── Positions ─────────────────────────────────────────────────────────────
@@ -365,25 +375,10 @@ public final class IBKRClient implements BrokerClient, Closeable {
 
         String url = baseUrl + "/iserver/marketdata/history?conid=" + conid
             + "&period=" + period + "&bar=" + barSize;
-        String json = sendGet(url);
-        JsonNode root = objectMapper.readTree(json);
-        JsonNode data = root.path("data");
-
-        List<Bar> bars = new ArrayList<>();
-        if (data.isArray()) {
-            for (JsonNode d : data) {
-                double o = d.path("o").asDouble(0);
-                double h = d.path("h").asDouble(0);
-                double l = d.path("l").asDouble(0);
-                double c = d.path("c").asDouble(0);
-                long   v = d.path("v").asLong(0);
-                long   t = d.path("t").asLong(0);
-                Instant ts = t > 0 ? Instant.ofEpochMilli(t) : Instant.now();
-                if (c > 0) bars.add(new Bar(ts, o, h, l, c, v));
-            }
+        try (var body = sendGetStream(url); var buffer = BarDecoder.Buffer.borrow()) {
+            BarDecoder.decodeIbkr(body, buffer);
+            return buffer.toBars(limit);
         }
-        int from = Math.max(0, bars.size() - limit);
-        return bars.subList(from, bars.size());
     }
 
     @Override
@@ -598,6 +593,28 @@ public final class IBKRClient implements BrokerClient, Closeable {
 
     // ── Open Orders / Order History ───────────────────────────────────────────
 
+    @Override
+    public JsonNode getAllOpenOrders() {
+        try {
+            JsonNode orders = objectMapper.readTree(sendGet(baseUrl + "/iserver/account/orders")).path("orders");
+            ArrayNode result = objectMapper.createArrayNode();
+            for (JsonNode o : orders) {
+                if (isOpenStatus(o.path("status").asText())) {
+                    ObjectNode normalized = objectMapper.createObjectNode();
+                    normalized.put("id",     o.path("orderId").asText());
+                    normalized.put("type",   translateIBKROrderType(o.path("orderType").asText()));
+                    normalized.put("side",   o.path("side").asText().toLowerCase());
+                    normalized.put("symbol", o.path("ticker").asText().toUpperCase());
+                    result.add(normalized);
+                }
+            }
+            return result;
+        } catch (Exception e) {
+            logger.error("Failed to get open orders from IBKR", e);
+            return null;
+        }
+    }
+
     @Override
     public JsonNode getOpenOrders(String symbol) {
         try {
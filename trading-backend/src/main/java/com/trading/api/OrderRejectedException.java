@@ -0,0 +1,19 @@
+package com.trading.api;
+
+/**
+ * Thrown when the broker refuses an order on its merits — insufficient buying power or
+ * quantity, an unknown asset, a bad size.
+ *
+ * Like {@link PDTRejectedException} this is a business-logic rejection, NOT an infrastructure
+ * failure: resending the same order gets the same answer, so it is neither retried nor counted
+ * by the circuit breaker.
+ */
+public class OrderRejectedException extends RuntimeException {
+    public OrderRejectedException(String message) {
+        super(message);
+    }
+
+    public OrderRejectedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
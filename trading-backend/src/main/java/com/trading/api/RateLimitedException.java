@@ -0,0 +1,13 @@
+package com.trading.api;
+
+/**
+ * Thrown when the broker answers HTTP 429 (too many requests).
+ *
+ * ResilientBrokerClient reports it to the account's {@link RequestScheduler}, which slows the
+ * request rate and sheds low-priority work until the broker recovers.
+ */
+public class RateLimitedException extends RuntimeException {
+    public RateLimitedException(String message) {
+        super(message);
+    }
+}
@@ -48,19 +48,27 @@ public class RateLimiter {
      * Thread-safe and virtual thread friendly - uses non-blocking parking.
      */
     public void waitIfNeeded() {
-        long now = System.currentTimeMillis();
-        long lastTime = lastRequestTime.get();
-        long delay = currentDelayMs.get();
-        long elapsed = now - lastTime;
-        
-        if (elapsed < delay) {
-            long sleepNanos = TimeUnit.MILLISECONDS.toNanos(delay - elapsed);
+        long waitMs = reserve();
+        if (waitMs > 0) {
             // LockSupport.parkNanos is virtual thread friendly - doesn't block carrier
-            LockSupport.parkNanos(sleepNanos);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(waitMs));
+        }
+    }
+
+    /**
+     * Claim the next request slot without waiting (lock-free CAS).
+     * Returns the milliseconds until that slot, 0 when it is free now. Concurrent callers get
+     * consecutive slots, so async senders can delay the request instead of parking a thread.
+     */
+    public long reserve() {
+        while (true) {
+            long now = System.currentTimeMillis();
+            long last = lastRequestTime.get();
+            long slot = Math.max(now, last + currentDelayMs.get());
+            if (lastRequestTime.compareAndSet(last, slot)) {
+                return slot - now;
+            }
         }
-        
-        // Update last request time atomically
-        lastRequestTime.set(System.currentTimeMillis());
     }
     
     /**
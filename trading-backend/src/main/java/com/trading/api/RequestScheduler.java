@@ -0,0 +1,324 @@
+package com.trading.api;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Hands out API request permits for one broker account, by priority class.
+ *
+ * Permits come from a token bucket refilled at {@code permitsPerMinute}. Waiting requests are
+ * served strictly by class — {@link Priority#EXIT} (protective exits, stops, cancels) before
+ * {@link Priority#ENTRY} (entries and the account/position/order reads a cycle needs) before
+ * {@link Priority#ANALYTICS} (market data and dashboard reads) — and round-robin between
+ * profiles within a class, so one busy profile cannot starve another.
+ *
+ * A 429 from the broker halves the refill rate, empties the bucket and opens a shed window:
+ * while it lasts, analytics requests fail at once with {@link RequestShedException} instead of
+ * queueing ahead of the next exit. The rate then recovers gradually. Analytics and entries give
+ * up after waiting {@code 5s}/{@code 30s}; exits wait as long as it takes.
+ *
+ * The calling profile comes from {@link #bindProfile}, and a thread can raise the class of every
+ * request it makes with {@link #runWithPriority}; both are inherited by child (virtual) threads.
+ */
+public final class RequestScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(RequestScheduler.class);
+
+    public enum Priority {
+        EXIT(Duration.ZERO), ENTRY(Duration.ofSeconds(30)), ANALYTICS(Duration.ofSeconds(5));
+
+        /** Longest wait before the request is shed; zero waits indefinitely. */
+        final Duration maxWait;
+
+        Priority(Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+    }
+
+    /** Thrown when a request is shed: its class is being dropped after a 429, or it waited too long. */
+    public static class RequestShedException extends RuntimeException {
+        public RequestShedException(String message) {
+            super(message);
+        }
+    }
+
+    public record SchedulerStats(String account, int availablePermits, double permitsPerMinute, boolean shedding,
+                                 Map<Priority, Integer> queued, long granted, long shed, long rateLimited) {}
+
+    private static final String DEFAULT_PROFILE = "default";
+    private static final double MIN_RATE_FACTOR = 0.25;
+    private static final double RECOVERY_PER_SECOND = 0.01;
+    private static final Map<String, RequestScheduler> ACCOUNTS = new ConcurrentHashMap<>();
+    private static final InheritableThreadLocal<String> PROFILE = new InheritableThreadLocal<>();
+    private static final InheritableThreadLocal<Priority> PRIORITY = new InheritableThreadLocal<>();
+
+    private static final class Waiter {
+        final Priority priority;
+        final String profile;
+
+        Waiter(Priority priority, String profile) {
+            this.priority = priority;
+            this.profile = profile;
+        }
+    }
+
+    private final String account;
+    private final double permitsPerMinute;
+    private final Duration shedWindow;
+    private final LongSupplier ticker;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Map<Priority, LinkedHashMap<String, ArrayDeque<Waiter>>> queues = new EnumMap<>(Priority.class);
+    private double tokens;
+    private double rateFactor = 1.0;
+    private long refilledAt;
+    private long shedUntil;
+
+    private final Map<Priority, AtomicInteger> depth = new EnumMap<>(Priority.class);
+    private final Map<Priority, Timer> waitTimers = new EnumMap<>(Priority.class);
+    private final AtomicLong granted = new AtomicLong();
+    private final AtomicLong shed = new AtomicLong();
+    private final AtomicLong rateLimited = new AtomicLong();
+
+    public RequestScheduler(String account, int permitsPerMinute, Duration shedWindow) {
+        this(account, permitsPerMinute, shedWindow, System::nanoTime);
+    }
+
+    RequestScheduler(String account, int permitsPerMinute, Duration shedWindow, LongSupplier ticker) {
+        this.account = account;
+        this.permitsPerMinute = Math.max(1, permitsPerMinute);
+        this.shedWindow = shedWindow;
+        this.ticker = ticker;
+        this.tokens = this.permitsPerMinute;
+        this.refilledAt = ticker.getAsLong();
+        this.shedUntil = refilledAt;
+        for (Priority priority : Priority.values()) {
+            queues.put(priority, new LinkedHashMap<>());
+            depth.put(priority, new AtomicInteger());
+        }
+    }
+
+    /** The scheduler shared by every client of {@code account}; the first caller's limits apply. */
+    public static RequestScheduler forAccount(String account, int permitsPerMinute, Duration shedWindow) {
+        return ACCOUNTS.computeIfAbsent(account, a -> {
+            logger.info("API request scheduler for {}: {} requests/min, {}s shed window",
+                a, permitsPerMinute, shedWindow.toSeconds());
+            return new RequestScheduler(a, permitsPerMinute, shedWindow);
+        });
+    }
+
+    /** Requests from this thread and its children are queued under {@code profile}. */
+    public static void bindProfile(String profile) {
+        PROFILE.set(profile);
+    }
+
+    /** Run {@code body} with every request it makes raised to at least {@code priority}. */
+    public static void runWithPriority(Priority priority, Runnable body) {
+        Priority previous = PRIORITY.get();
+        PRIORITY.set(previous != null && previous.compareTo(priority) < 0 ? previous : priority);
+        try {
+            body.run();
+        } finally {
+            PRIORITY.set(previous);
+        }
+    }
+
+    /** {@code requested}, raised by any {@link #runWithPriority} scope the thread is in. */
+    static Priority effective(Priority requested) {
+        Priority floor = PRIORITY.get();
+        return floor != null && floor.compareTo(requested) < 0 ? floor : requested;
+    }
+
+    /** Register queue depth, wait time, shed and 429 meters, tagged with the account. */
+    public void bindMetrics(MeterRegistry registry) {
+        for (Priority priority : Priority.values()) {
+            String tag = priority.name().toLowerCase();
+            Gauge.builder("api.scheduler.queue.depth", depth.get(priority), AtomicInteger::get)
+                .tag("account", account).tag("priority", tag).register(registry);
+            var timer = Timer.builder("api.scheduler.wait")
+                .tag("account", account).tag("priority", tag).register(registry);
+            lock.lock();
+            try {
+                waitTimers.put(priority, timer);
+            } finally {
+                lock.unlock();
+            }
+        }
+        Gauge.builder("api.scheduler.permits.available", this, RequestScheduler::availablePermits)
+            .tag("account", account).register(registry);
+        FunctionCounter.builder("api.scheduler.shed", shed, AtomicLong::get).tag("account", account).register(registry);
+        FunctionCounter.builder("api.scheduler.rate_limited", rateLimited, AtomicLong::get)
+            .tag("account", account).register(registry);
+    }
+
+    /**
+     * Block until a permit for a request of class {@code requested} (raised by any enclosing
+     * {@link #runWithPriority}) is granted.
+     *
+     * @throws RequestShedException when the request is shed instead
+     */
+    public void acquire(Priority requested) throws InterruptedException {
+        Priority priority = effective(requested);
+        String profile = PROFILE.get() != null ? PROFILE.get() : DEFAULT_PROFILE;
+        long start = ticker.getAsLong();
+        long deadline = priority.maxWait.isZero() ? Long.MAX_VALUE : start + priority.maxWait.toNanos();
+
+        lock.lock();
+        try {
+            refill(start);
+            if (priority == Priority.ANALYTICS && start - shedUntil < 0) {
+                throw shed(priority, "shedding after a 429");
+            }
+            var waiter = new Waiter(priority, profile);
+            enqueue(waiter);
+            try {
+                while (true) {
+                    long now = ticker.getAsLong();
+                    refill(now);
+                    if (priority == Priority.ANALYTICS && now - shedUntil < 0) {
+                        throw shed(priority, "shedding after a 429");
+                    }
+                    boolean first = head() == waiter;
+                    if (first && tokens >= 1) {
+                        tokens -= 1;
+                        dequeue(waiter, true);
+                        waiter = null;
+                        granted.incrementAndGet();
+                        var timer = waitTimers.get(priority);
+                        if (timer != null) timer.record(now - start, TimeUnit.NANOSECONDS);
+                        changed.signalAll();
+                        return;
+                    }
+                    if (now - deadline >= 0) {
+                        throw shed(priority, "no permit within " + priority.maxWait.toSeconds() + "s");
+                    }
+                    long wait = first ? nanosUntilToken() : TimeUnit.SECONDS.toNanos(1);
+                    if (deadline != Long.MAX_VALUE) wait = Math.min(wait, deadline - now);
+                    changed.awaitNanos(Math.max(wait, TimeUnit.MICROSECONDS.toNanos(100)));
+                }
+            } finally {
+                if (waiter != null) {
+                    dequeue(waiter, false);
+                    changed.signalAll();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** The broker answered 429: slow down and shed analytics for the shed window. */
+    public void onRateLimited() {
+        lock.lock();
+        try {
+            long now = ticker.getAsLong();
+            refill(now);
+            rateFactor = Math.max(MIN_RATE_FACTOR, rateFactor / 2);
+            tokens = 0;
+            shedUntil = now + shedWindow.toNanos();
+            rateLimited.incrementAndGet();
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        logger.warn("[{}] API rate limited (429) — rate cut to {}/min, shedding analytics for {}s",
+            account, Math.round(permitsPerMinute * rateFactor), shedWindow.toSeconds());
+    }
+
+    /** Permits that could be granted right now without waiting. */
+    public int availablePermits() {
+        lock.lock();
+        try {
+            refill(ticker.getAsLong());
+            return (int) tokens;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public SchedulerStats getStats() {
+        var queued = new EnumMap<Priority, Integer>(Priority.class);
+        depth.forEach((priority, count) -> queued.put(priority, count.get()));
+        lock.lock();
+        try {
+            long now = ticker.getAsLong();
+            refill(now);
+            return new SchedulerStats(account, (int) tokens, permitsPerMinute * rateFactor, now - shedUntil < 0,
+                Map.copyOf(queued), granted.get(), shed.get(), rateLimited.get());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ── Internals (hold lock) ─────────────────────────────────────────────────
+
+    private void refill(long now) {
+        long elapsed = now - refilledAt;
+        if (elapsed <= 0) return;
+        refilledAt = now;
+        if (now - shedUntil > 0 && rateFactor < 1.0) {
+            rateFactor = Math.min(1.0, rateFactor + RECOVERY_PER_SECOND * elapsed / 1e9);
+        }
+        double perMinute = permitsPerMinute * rateFactor;
+        double before = tokens;
+        tokens = Math.min(perMinute, tokens + perMinute * elapsed / 60e9);
+        // Whoever notices a new permit wakes the queue, so the head needn't sleep out its estimate
+        if (before < 1 && tokens >= 1) changed.signalAll();
+    }
+
+    private long nanosUntilToken() {
+        double perNano = permitsPerMinute * rateFactor / 60e9;
+        return (long) Math.ceil((1 - tokens) / perNano);
+    }
+
+    private void enqueue(Waiter waiter) {
+        queues.get(waiter.priority).computeIfAbsent(waiter.profile, p -> new ArrayDeque<>()).addLast(waiter);
+        depth.get(waiter.priority).incrementAndGet();
+    }
+
+    /** Remove {@code waiter}; when it was served, its profile moves to the back of the rotation. */
+    private void dequeue(Waiter waiter, boolean served) {
+        var byProfile = queues.get(waiter.priority);
+        var queue = byProfile.get(waiter.profile);
+        if (queue == null || !queue.remove(waiter)) return;
+        depth.get(waiter.priority).decrementAndGet();
+        if (queue.isEmpty()) {
+            byProfile.remove(waiter.profile);
+        } else if (served) {
+            byProfile.remove(waiter.profile);
+            byProfile.put(waiter.profile, queue);
+        }
+    }
+
+    /** The next waiter to serve: highest class first, then the profile whose turn it is. */
+    private Waiter head() {
+        for (Priority priority : Priority.values()) {
+            var byProfile = queues.get(priority);
+            if (!byProfile.isEmpty()) return byProfile.values().iterator().next().peekFirst();
+        }
+        return null;
+    }
+
+    private RequestShedException shed(Priority priority, String why) {
+        shed.incrementAndGet();
+        logger.debug("[{}] Shed {} request: {}", account, priority, why);
+        return new RequestShedException("[" + account + "] " + priority + " request shed: " + why);
+    }
+}
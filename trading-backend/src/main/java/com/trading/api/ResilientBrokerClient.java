@@ -1,13 +1,14 @@
 package com.trading.api;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.trading.api.RequestScheduler.Priority;
+import com.trading.api.RequestScheduler.RequestShedException;
 import com.trading.api.model.Bar;
 import com.trading.api.model.BracketOrderResult;
 import com.trading.api.model.Position;
+import com.trading.api.model.Snapshot;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
-import io.github.resilience4j.ratelimiter.RateLimiter;
-import io.github.resilience4j.ratelimiter.RateLimiterConfig;
 import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryConfig;
 import io.micrometer.core.instrument.MeterRegistry;
@@ -16,7 +17,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Supplier;
 
@@ -25,7 +28,7 @@ import java.util.function.Supplier;
  *
  * Features:
  * - Circuit Breaker: Prevents cascading failures
- * - Rate Limiter: Respects broker's request-per-minute limit
+ * - Request scheduling: permits from the account's {@link RequestScheduler}, by priority class
  * - Retry: Automatic retry on transient failures
  * - Metrics: Tracks latency and success/failure rates
  *
@@ -36,43 +39,51 @@ public class ResilientBrokerClient {
 
     private final BrokerClient delegate;
     private final CircuitBreaker circuitBreaker;
-    private final RateLimiter rateLimiter;
+    private final RequestScheduler scheduler;
+    private final Priority maxPriority;
     private final Retry retry;
     private final MeterRegistry meterRegistry;
+    private final Thread recoveryThread;
 
+    /** A client with its own scheduler: Alpaca allows 200 requests/minute, 150 leaves headroom. */
     public ResilientBrokerClient(BrokerClient delegate, MeterRegistry meterRegistry) {
+        this(delegate, meterRegistry, new RequestScheduler("alpaca", 150, Duration.ofSeconds(30)), Priority.EXIT);
+    }
+
+    /**
+     * A client drawing permits from {@code scheduler}, shared by every client of the same broker
+     * account. No request from this client is queued above {@code maxPriority} — the dashboard's
+     * client uses {@link Priority#ANALYTICS} so its reads never compete with trading.
+     */
+    public ResilientBrokerClient(BrokerClient delegate, MeterRegistry meterRegistry,
+                                 RequestScheduler scheduler, Priority maxPriority) {
         this.delegate = delegate;
         this.meterRegistry = meterRegistry;
+        this.scheduler = scheduler;
+        this.maxPriority = maxPriority;
+        scheduler.bindMetrics(meterRegistry);
 
         // Circuit Breaker: Open after 50% failures in 10 requests
         // AUTO-RECOVERY: Wait only 15 seconds before trying again (faster for trading)
-        // PDTRejectedException is a business-logic rejection, NOT an infrastructure failure
+        // PDT and other order rejections are business-logic rejections, NOT infrastructure failures.
+        // Clients may wrap them (AlpacaClient.placeOrder does), so match on the cause chain.
         var cbConfig = CircuitBreakerConfig.custom()
             .failureRateThreshold(50)
             .waitDurationInOpenState(Duration.ofSeconds(15))  // Faster recovery for trading
             .slidingWindowSize(10)
             .permittedNumberOfCallsInHalfOpenState(5)  // More test calls in half-open
             .automaticTransitionFromOpenToHalfOpenEnabled(true)  // Auto-transition!
-            .ignoreExceptions(PDTRejectedException.class)  // PDT is not an infra failure
+            .ignoreException(ResilientBrokerClient::isRejection)  // not infra failures
             .build();
         this.circuitBreaker = CircuitBreaker.of("alpaca-api", cbConfig);
 
-        // Rate Limiter: Alpaca allows 200 requests/minute
-        // Use 150 to leave headroom for both profiles sharing this limiter
-        var rlConfig = RateLimiterConfig.custom()
-            .limitForPeriod(150)  // Conservative: 2 profiles share this
-            .limitRefreshPeriod(Duration.ofMinutes(1))
-            .timeoutDuration(Duration.ofSeconds(5))
-            .build();
-        this.rateLimiter = RateLimiter.of("alpaca-api", rlConfig);
-
         // Retry: 3 attempts with exponential backoff
-        // Don't retry PDT rejections (business logic, retrying won't help)
+        // Don't retry PDT or order rejections (business logic, retrying won't help)
         var retryConfig = RetryConfig.custom()
             .maxAttempts(3)
             .waitDuration(Duration.ofMillis(500))
-            .retryExceptions(Exception.class)
-            .ignoreExceptions(PDTRejectedException.class)
+            .retryOnException(e -> e instanceof Exception && !isRejection(e))
+            .ignoreExceptions(RequestShedException.class)
             .build();
         this.retry = Retry.of("alpaca-api", retryConfig);
 
@@ -82,17 +93,17 @@ public class ResilientBrokerClient {
                 logger.warn("Circuit breaker state changed: {}", event.getStateTransition()));
 
         // Start background health checker for auto-recovery
-        startHealthBasedRecovery();
+        this.recoveryThread = startHealthBasedRecovery();
 
-        logger.info("ResilientBrokerClient initialized with circuit breaker, rate limiter, and retry");
+        logger.info("ResilientBrokerClient initialized with circuit breaker, request scheduler, and retry");
     }
 
     /**
      * Background thread that checks if API is healthy and resets circuit breaker.
      * This prevents the circuit breaker from being "stuck" in OPEN state.
      */
-    private void startHealthBasedRecovery() {
-        Thread.ofVirtual().name("circuit-breaker-recovery").start(() -> {
+    private Thread startHealthBasedRecovery() {
+        return Thread.ofVirtual().name("circuit-breaker-recovery").start(() -> {
             while (true) {
                 try {
                     Thread.sleep(45_000);  // Check every 45 seconds
@@ -121,6 +132,14 @@ public class ResilientBrokerClient {
         });
     }
 
+    /**
+     * Stop the background health checker. Only needed for short-lived clients (backtest replays);
+     * the live bot's clients live as long as the process.
+     */
+    public void close() {
+        recoveryThread.interrupt();
+    }
+
     /**
      * Manually reset the circuit breaker.
      * Call this when you know the API is healthy but circuit is stuck.
@@ -147,19 +166,29 @@ public class ResilientBrokerClient {
     }
 
     /**
-     * Execute a call with full resilience: rate limit -> retry -> circuit breaker -> metrics
+     * Execute a call with full resilience: retry -> (request permit -> circuit breaker) -> metrics.
+     * A permit is taken per attempt, so retries queue like any other request; a 429 tells the
+     * scheduler to back off.
      */
-    private <T> T executeResilient(String operation, Supplier<T> supplier) {
+    private <T> T executeResilient(String operation, Priority priority, Supplier<T> supplier) {
         var timer = Timer.builder("alpaca.api.call")
             .tag("operation", operation)
             .register(meterRegistry);
 
         return timer.record(() -> {
             try {
-                // Chain: RateLimiter -> Retry -> CircuitBreaker
-                var decoratedSupplier = RateLimiter.decorateSupplier(rateLimiter,
-                    Retry.decorateSupplier(retry,
-                        CircuitBreaker.decorateSupplier(circuitBreaker, supplier)));
+                var guarded = CircuitBreaker.decorateSupplier(circuitBreaker, () -> {
+                    try {
+                        return supplier.get();
+                    } catch (RuntimeException e) {
+                        if (causedBy(e, RateLimitedException.class) != null) scheduler.onRateLimited();
+                        throw e;
+                    }
+                });
+                var decoratedSupplier = Retry.decorateSupplier(retry, () -> {
+                    acquire(priority);
+                    return guarded.get();
+                });
 
                 T result = decoratedSupplier.get();
 
@@ -169,17 +198,21 @@ public class ResilientBrokerClient {
 
                 return result;
 
+            } catch (RequestShedException e) {
+                logger.debug("API call shed: {} ({})", operation, e.getMessage());
+                throw e;
             } catch (Exception e) {
                 // Let PDTRejectedException propagate directly (not an infra failure)
                 if (e instanceof PDTRejectedException) {
                     throw e;
                 }
-                Throwable cause = e.getCause();
-                while (cause != null) {
-                    if (cause instanceof PDTRejectedException) {
-                        throw (PDTRejectedException) cause;
-                    }
-                    cause = cause.getCause();
+                var pdt = causedBy(e, PDTRejectedException.class);
+                if (pdt != null) {
+                    throw pdt;
+                }
+                var rejected = causedBy(e, OrderRejectedException.class);
+                if (rejected != null) {
+                    throw rejected;
                 }
 
                 // Record failure
@@ -193,10 +226,33 @@ public class ResilientBrokerClient {
         });
     }
 
+    /** Wait for a permit at {@code priority}, capped at this client's {@code maxPriority}. */
+    private void acquire(Priority priority) {
+        try {
+            scheduler.acquire(priority.compareTo(maxPriority) < 0 ? maxPriority : priority);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RequestShedException("interrupted while waiting for a request permit");
+        }
+    }
+
+    /** A broker refusal somewhere in the cause chain: answered, not failed. */
+    private static boolean isRejection(Throwable error) {
+        return causedBy(error, PDTRejectedException.class) != null
+            || causedBy(error, OrderRejectedException.class) != null;
+    }
+
+    private static <E extends Throwable> E causedBy(Throwable error, Class<E> type) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (type.isInstance(cause)) return type.cast(cause);
+        }
+        return null;
+    }
+
     // Delegate methods with resilience
 
     public JsonNode getAccount() {
-        return executeResilient("getAccount", () -> {
+        return executeResilient("getAccount", Priority.ENTRY, () -> {
             try {
                 return delegate.getAccount();
             } catch (Exception e) {
@@ -205,8 +261,18 @@ public class ResilientBrokerClient {
         });
     }
 
+    public JsonNode getClock() {
+        return executeResilient("getClock", Priority.ENTRY, () -> {
+            try {
+                return delegate.getClock();
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
     public List<Bar> getMarketHistory(String symbol, int limit) {
-        return executeResilient("getMarketHistory", () -> {
+        return executeResilient("getMarketHistory", Priority.ANALYTICS, () -> {
             try {
                 return delegate.getMarketHistory(symbol, limit);
             } catch (Exception e) {
@@ -216,7 +282,7 @@ public class ResilientBrokerClient {
     }
 
     public List<Position> getPositions() {
-        return executeResilient("getPositions", () -> {
+        return executeResilient("getPositions", Priority.ENTRY, () -> {
             try {
                 return delegate.getPositions();
             } catch (Exception e) {
@@ -227,11 +293,11 @@ public class ResilientBrokerClient {
 
     public void placeOrder(String symbol, double qty, String side, String type,
                           String timeInForce, Double limitPrice) {
-        executeResilient("placeOrder", () -> {
+        executeResilient("placeOrder", exitOrEntry(side), () -> {
             try {
                 delegate.placeOrder(symbol, qty, side, type, timeInForce, limitPrice);
                 return null;
-            } catch (PDTRejectedException e) {
+            } catch (PDTRejectedException | OrderRejectedException e) {
                 throw e; // Propagate directly — not an infra failure
             } catch (Exception e) {
                 throw new RuntimeException(e);
@@ -249,14 +315,14 @@ public class ResilientBrokerClient {
     public BracketOrderResult placeBracketOrder(String symbol, double qty, String side,
                                  double takeProfitPrice, double stopLossPrice,
                                  Double stopLossLimitPrice, Double limitPrice) {
-        return executeResilient("placeBracketOrder", () ->
+        return executeResilient("placeBracketOrder", Priority.ENTRY, () ->
             delegate.placeBracketOrder(symbol, qty, side, takeProfitPrice,
                 stopLossPrice, stopLossLimitPrice, limitPrice)
         );
     }
 
     public void cancelAllOrders() {
-        executeResilient("cancelAllOrders", () -> {
+        executeResilient("cancelAllOrders", Priority.EXIT, () -> {
             try {
                 delegate.cancelAllOrders();
                 return null;
@@ -267,7 +333,7 @@ public class ResilientBrokerClient {
     }
 
     public Optional<Bar> getLatestBar(String symbol) {
-        return executeResilient("getLatestBar", () -> {
+        return executeResilient("getLatestBar", Priority.ANALYTICS, () -> {
             try {
                 return delegate.getLatestBar(symbol);
             } catch (Exception e) {
@@ -277,7 +343,7 @@ public class ResilientBrokerClient {
     }
 
     public List<Bar> getBars(String symbol, String timeframe, int limit) {
-        return executeResilient("getBars", () -> {
+        return executeResilient("getBars", Priority.ANALYTICS, () -> {
             try {
                 return delegate.getBars(symbol, timeframe, limit);
             } catch (Exception e) {
@@ -286,14 +352,51 @@ public class ResilientBrokerClient {
         });
     }
 
+    // Batched market data — one rate-limiter permit per call regardless of symbol count.
+
+    public Map<String, Bar> getLatestBars(Collection<String> symbols) {
+        return executeResilient("getLatestBars", Priority.ANALYTICS, () -> {
+            try {
+                return delegate.getLatestBars(symbols);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    public Map<String, List<Bar>> getMultiBars(Collection<String> symbols, String timeframe, int limit) {
+        return executeResilient("getMultiBars", Priority.ANALYTICS, () -> {
+            try {
+                return delegate.getMultiBars(symbols, timeframe, limit);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    public Map<String, Snapshot> getSnapshots(Collection<String> symbols) {
+        return executeResilient("getSnapshots", Priority.ANALYTICS, () -> {
+            try {
+                return delegate.getSnapshots(symbols);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
     public JsonNode getOpenOrders(String symbol) {
-        return executeResilient("getOpenOrders", () -> {
+        return executeResilient("getOpenOrders", Priority.ENTRY, () -> {
             return delegate.getOpenOrders(symbol);
         });
     }
 
+    /** Every open order in one call, or null when the broker only answers per symbol. */
+    public JsonNode getAllOpenOrders() {
+        return executeResilient("getAllOpenOrders", Priority.ENTRY, delegate::getAllOpenOrders);
+    }
+
     public void cancelOrder(String orderId) {
-        executeResilient("cancelOrder", () -> {
+        executeResilient("cancelOrder", Priority.EXIT, () -> {
             delegate.cancelOrder(orderId);
             return null;
         });
@@ -308,6 +411,7 @@ public class ResilientBrokerClient {
     public void placeOrderDirect(String symbol, double qty, String side, String type,
                                  String timeInForce, Double limitPrice) {
         logger.info("DIRECT ORDER (bypass circuit breaker): {} {} {} qty={}", side, type, symbol, qty);
+        acquire(Priority.EXIT);
         delegate.placeOrder(symbol, qty, side, type, timeInForce, limitPrice);
     }
 
@@ -316,16 +420,35 @@ public class ResilientBrokerClient {
      * Goes through the circuit breaker like normal orders.
      */
     public void placeNativeStopOrder(String symbol, double qty, double stopPrice) {
-        executeResilient("placeNativeStopOrder", () -> {
+        executeResilient("placeNativeStopOrder", Priority.EXIT, () -> {
             try {
                 delegate.placeNativeStopOrder(symbol, qty, stopPrice);
                 return null;
+            } catch (OrderRejectedException e) {
+                throw e; // Propagate directly — not an infra failure
             } catch (Exception e) {
                 throw new RuntimeException(e);
             }
         });
     }
 
+    /** Sells close or reduce positions (the bot only trades long), so they queue as exits. */
+    private static Priority exitOrEntry(String side) {
+        return "sell".equalsIgnoreCase(side) ? Priority.EXIT : Priority.ENTRY;
+    }
+
+    /**
+     * Requests that can be granted right now without waiting, so callers can size bursts of
+     * concurrent calls to what the scheduler will let through.
+     */
+    public int getAvailableRequests() {
+        return scheduler.availablePermits();
+    }
+
+    public RequestScheduler getScheduler() {
+        return scheduler;
+    }
+
     /**
      * Get metrics for monitoring
      */
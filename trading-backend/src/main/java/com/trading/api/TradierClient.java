@@ -11,6 +11,7 @@ import com.trading.config.Config;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.net.http.HttpClient;
@@ -80,7 +81,26 @@ public final class TradierClient implements BrokerClient {
             .build();
         var resp = httpClient.send(req, HttpResponse.BodyHandlers.ofString());
         if (resp.statusCode() >= 400) {
-            throw new RuntimeException("Tradier GET failed [" + resp.statusCode() + "]: " + resp.body());
+            throw failure("GET", resp.statusCode(), resp.body());
+        }
+        return resp.body();
+    }
+
+    /** GET with the body left unread, for responses decoded as they stream in. */
+    private InputStream sendGetStream(String url) throws Exception {
+        var req = HttpRequest.newBuilder(URI.create(url))
+            .header("Authorization", "Bearer " + accessToken)
+            .header("Accept", "application/json")
+            .timeout(REQUEST_TIMEOUT)
+            .GET()
+            .build();
+        var resp = httpClient.send(req, HttpResponse.BodyHandlers.ofInputStream());
+        if (resp.statusCode() >= 400) {
+            String body;
+            try (var in = resp.body()) {
+                body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            throw failure("GET", resp.statusCode(), body);
         }
         return resp.body();
     }
@@ -95,7 +115,7 @@ public final class TradierClient implements BrokerClient {
             .build();
         var resp = httpClient.send(req, HttpResponse.BodyHandlers.ofString());
         if (resp.statusCode() >= 400) {
-            throw new RuntimeException("Tradier POST failed [" + resp.statusCode() + "]: " + resp.body());
+            throw failure("POST", resp.statusCode(), resp.body());
         }
         return resp.body();
     }
@@ -109,11 +129,17 @@ public final class TradierClient implements BrokerClient {
             .build();
         var resp = httpClient.send(req, HttpResponse.BodyHandlers.ofString());
         if (resp.statusCode() >= 400) {
-            throw new RuntimeException("Tradier DELETE failed [" + resp.statusCode() + "]: " + resp.body());
+            throw failure("DELETE", resp.statusCode(), resp.body());
         }
         return resp.body();
     }
 
+    /** HTTP error as an exception; 429 becomes {@link RateLimitedException} so the scheduler backs off. */
+    private static RuntimeException failure(String method, int status, String body) {
+        String message = "Tradier " + method + " failed [" + status + "]: " + body;
+        return status == 429 ? new RateLimitedException(message) : new RuntimeException(message);
+    }
+
     /** Encode a form parameter value for application/x-www-form-urlencoded. */
     private static String enc(String value) {
         return URLEncoder.encode(value, StandardCharsets.UTF_8);
@@ -294,30 +320,11 @@ public final class TradierClient implements BrokerClient {
             + "&interval=daily"
             + "&start=" + start.format(DateTimeFormatter.ISO_DATE)
             + "&end="   + end.format(DateTimeFormatter.ISO_DATE);
-        String json = sendGet(url);
-        JsonNode root = objectMapper.readTree(json);
-        JsonNode days = root.path("history").path("day");
-        List<Bar> bars = new ArrayList<>();
-        if (days.isArray()) {
-            for (JsonNode d : days) {
-                bars.add(parseDailyBar(d));
-            }
-        } else if (days.isObject()) {
-            bars.add(parseDailyBar(days));
+        try (var body = sendGetStream(url); var buffer = BarDecoder.Buffer.borrow()) {
+            BarDecoder.decodeTradierDaily(body, buffer);
+            // Return last `limit` bars
+            return buffer.toBars(limit);
         }
-        // Return last `limit` bars
-        int from = Math.max(0, bars.size() - limit);
-        return bars.subList(from, bars.size());
-    }
-
-    private Bar parseDailyBar(JsonNode d) {
-        Instant ts    = Instant.parse(d.path("date").asText("1970-01-01") + "T00:00:00Z");
-        double  open  = d.path("open").asDouble();
-        double  high  = d.path("high").asDouble();
-        double  low   = d.path("low").asDouble();
-        double  close = d.path("close").asDouble();
-        long    vol   = d.path("volume").asLong(0);
-        return new Bar(ts, open, high, low, close, vol);
     }
 
     private List<Bar> getIntradayBars(String symbol, String timeframe, int limit) throws Exception {
@@ -344,28 +351,10 @@ public final class TradierClient implements BrokerClient {
             + "&start=" + start.format(java.time.format.DateTimeFormatter.ISO_DATE)
             + "&end="   + end.format(java.time.format.DateTimeFormatter.ISO_DATE)
             + "&session_filter=open";
-        String json = sendGet(url);
-        JsonNode root = objectMapper.readTree(json);
-        JsonNode series = root.path("series").path("data");
-        List<Bar> bars = new ArrayList<>();
-        if (series.isArray()) {
-            for (JsonNode d : series) {
-                double close = d.path("close").asDouble();
-                if (close > 0) {
-                    bars.add(new Bar(
-                        java.time.LocalDateTime.parse(d.path("time").asText().replace(" ", "T"))
-                            .atZone(java.time.ZoneId.of("America/New_York")).toInstant(),
-                        d.path("open").asDouble(close),
-                        d.path("high").asDouble(close),
-                        d.path("low").asDouble(close),
-                        close,
-                        d.path("volume").asLong(0)
-                    ));
-                }
-            }
+        try (var body = sendGetStream(url); var buffer = BarDecoder.Buffer.borrow()) {
+            BarDecoder.decodeTradierTimesales(body, buffer);
+            return buffer.toBars(limit);
         }
-        int from = Math.max(0, bars.size() - limit);
-        return bars.subList(from, bars.size());
     }
 
     @Override
@@ -413,6 +402,25 @@ public final class TradierClient implements BrokerClient {
             || "partially_filled".equalsIgnoreCase(status);
     }
 
+    @Override
+    public JsonNode getAllOpenOrders() {
+        try {
+            String json = sendGet(baseUrl + "/accounts/" + accountId + "/orders");
+            JsonNode orders = objectMapper.readTree(json).path("orders").path("order");
+            ArrayNode result = objectMapper.createArrayNode();
+            // A single order comes back as an object rather than a one-element array
+            for (JsonNode o : orders.isObject() ? List.of(orders) : orders) {
+                if (isOpenStatus(o.path("status").asText())) {
+                    result.add(normalizeOrder(o).put("symbol", o.path("symbol").asText().toUpperCase()));
+                }
+            }
+            return result;
+        } catch (Exception e) {
+            logger.error("Failed to get open orders from Tradier", e);
+            return null;
+        }
+    }
+
     private ObjectNode normalizeOrder(JsonNode o) {
         ObjectNode node = objectMapper.createObjectNode();
         node.put("id",   o.path("id").asText());
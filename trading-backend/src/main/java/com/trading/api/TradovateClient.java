@@ -8,6 +8,8 @@ import com.trading.api.model.Bar;
 import com.trading.api.model.BracketOrderResult;
 import com.trading.api.model.Position;
 import com.trading.config.Config;
+import com.trading.marketdata.LiveQuoteTable;
+import com.trading.marketdata.TradovateMarketDataClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,7 +42,9 @@ import java.util.concurrent.atomic.AtomicReference;
  *   Token lifetime: 90 minutes. Renewal: GET /auth/renewaccesstoken.
  *
  * Market data is WebSocket-only (wss://md.tradovateapi.com/v1/websocket).
- * getBars() / getLatestBar() throw UnsupportedOperationException — use Alpaca for signal data.
+ * getBars() / getLatestBar() are served by a {@link TradovateMarketDataClient} that streams the
+ * contract's own chart and quotes, authorized with the mdAccessToken from the same login.
+ * With TRADOVATE_MARKET_DATA_ENABLED=false they throw UnsupportedOperationException.
  *
  * All automated orders MUST include isAutomated=true per exchange requirements.
  * Bracket orders use POST /order/placeoso (OSO = Order Sends Order).
@@ -69,8 +73,10 @@ public final class TradovateClient implements BrokerClient {
     private final String cid;   // API Key ID (string) — distinct from appId
     private final String sec;   // API secret
     private final AtomicReference<String> accessToken = new AtomicReference<>("");
+    private final AtomicReference<String> mdAccessToken = new AtomicReference<>("");
     private final AtomicLong accountId = new AtomicLong(-1);
     private final ScheduledExecutorService renewalExecutor;
+    private final TradovateMarketDataClient marketData; // null when TRADOVATE_MARKET_DATA_ENABLED=false
 
     public TradovateClient(Config config) {
         this.username   = config.getTradovateUsername();
@@ -85,6 +91,12 @@ public final class TradovateClient implements BrokerClient {
             .build();
         this.objectMapper = new ObjectMapper();
 
+        // Connects lazily on the first bar request
+        this.marketData = config.isTradovateMarketDataEnabled()
+            ? new TradovateMarketDataClient(URI.create(config.getTradovateMarketDataUrl()),
+                mdAccessToken::get, this::resolveContractId, new LiveQuoteTable())
+            : null;
+
         logger.info("TradovateClient initialized — baseUrl={}, user={}",
             baseUrl, username.isBlank() ? "<not set>" : username);
 
@@ -121,6 +133,7 @@ public final class TradovateClient implements BrokerClient {
             throw new RuntimeException("Tradovate authentication failed — no accessToken in response: " + json);
         }
         accessToken.set(token);
+        mdAccessToken.set(resp.path("mdAccessToken").asText(token));
         logger.info("TradovateClient: authenticated successfully");
 
         // Cache account ID for order placement
@@ -151,6 +164,7 @@ public final class TradovateClient implements BrokerClient {
             String token = resp.path("accessToken").asText("");
             if (!token.isBlank()) {
                 accessToken.set(token);
+                mdAccessToken.set(resp.path("mdAccessToken").asText(token));
                 logger.debug("TradovateClient: access token renewed");
             } else {
                 logger.warn("TradovateClient: renewal returned no token — re-authenticating");
@@ -385,25 +399,40 @@ public final class TradovateClient implements BrokerClient {
     // ── Market Data ───────────────────────────────────────────────────────────
 
     /**
-     * Tradovate provides market data via WebSocket only (wss://md.tradovateapi.com/v1/websocket).
-     * There is NO REST endpoint for historical bars.
-     *
-     * Use Alpaca as the market data source when trading micro futures on Tradovate.
-     * Configure BROKER=tradovate for order execution while the signal engine
-     * continues to use Alpaca market data (already the default for signal generation).
+     * Latest one-minute bar of the front-month contract, from Tradovate's own market-data stream.
      */
     @Override
     public Optional<Bar> getLatestBar(String symbol) {
-        throw new UnsupportedOperationException(
-            "TradovateClient: market data is WebSocket-only. Use Alpaca for bar data. "
-            + "Symbol: " + symbol);
+        requireMarketData(symbol);
+        return marketData.getLatestBar(toFutures(symbol));
     }
 
+    /**
+     * Bars of the front-month contract built from the Tradovate chart stream. The first request
+     * per (contract, timeframe) subscribes and waits for the history; later ones read memory.
+     */
     @Override
     public List<Bar> getBars(String symbol, String timeframe, int limit) throws Exception {
-        throw new UnsupportedOperationException(
-            "TradovateClient: market data is WebSocket-only (no REST bar endpoint). "
-            + "Use Alpaca for historical bars. Symbol: " + symbol);
+        requireMarketData(symbol);
+        return marketData.getBars(toFutures(symbol), timeframe, limit);
+    }
+
+    private void requireMarketData(String symbol) {
+        if (marketData == null) {
+            throw new UnsupportedOperationException(
+                "TradovateClient: market data is WebSocket-only and TRADOVATE_MARKET_DATA_ENABLED=false. "
+                + "Use Alpaca for bar data. Symbol: " + symbol);
+        }
+    }
+
+    /** Contract id for a futures symbol (e.g. MESM26), used to attribute streamed quotes. */
+    private long resolveContractId(String futuresSymbol) throws Exception {
+        JsonNode contract = objectMapper.readTree(sendGet(baseUrl + "/contract/find?name=" + futuresSymbol));
+        long id = contract.path("id").asLong(-1);
+        if (id <= 0) {
+            throw new IllegalStateException("Tradovate contract not found: " + futuresSymbol);
+        }
+        return id;
     }
 
     @Override
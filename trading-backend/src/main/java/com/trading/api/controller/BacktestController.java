@@ -1,12 +1,27 @@
 package com.trading.api.controller;
 
+import com.trading.analysis.MarketRegimeDetector.MarketRegime;
+import com.trading.api.AlpacaClient;
+import com.trading.api.model.Bar;
+import com.trading.api.model.BarSeries;
+import com.trading.backtest.BacktestEngine.BacktestConfig;
+import com.trading.backtest.BacktestJobs;
+import com.trading.backtest.ParameterSpace;
+import com.trading.backtest.ParameterSpace.Parameter;
+import com.trading.backtest.ParameterSweep.Objective;
+import com.trading.backtest.WalkForwardOptimizer;
 import com.trading.backtesting.Backtester;
+import com.trading.config.Config;
+import com.trading.marketdata.BarArchive;
+import com.trading.marketdata.BarCache;
 import io.javalin.Javalin;
 import io.javalin.http.Context;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * REST API controller for running backtests.
@@ -14,10 +29,47 @@ import java.util.Map;
 public final class BacktestController {
     private static final Logger logger = LoggerFactory.getLogger(BacktestController.class);
 
+    private static final int MAX_WALK_FORWARD_BARS = 2_500;
+    private static final int MAX_WALK_FORWARD_SAMPLES = 5_000;
+
+    /** Swept when a walk-forward request names no parameters. */
+    private static final List<Parameter> DEFAULT_PARAMETERS = List.of(
+        new Parameter("takeProfitPercent", 0.5, 3.0, 0.25),
+        new Parameter("stopLossPercent", 0.5, 2.0, 0.25),
+        new Parameter("trailingStopPercent", 0.25, 1.0, 0.25));
+
+    /**
+     * Walk-forward request. Only {@code symbol} is required; windows are in daily bars and
+     * default to a year in sample and a quarter out of sample over three years of history.
+     */
+    public record WalkForwardRequest(
+        String symbol,
+        Integer bars,
+        Integer inSampleBars,
+        Integer outOfSampleBars,
+        Integer stepBars,
+        Double capital,
+        List<Parameter> parameters,
+        ParameterSpace.Sampling sampling,
+        Integer samples,
+        Long seed,
+        Objective objective
+    ) {
+        int barsOrDefault() { return bars != null ? bars : 756; }
+        int inSampleOrDefault() { return inSampleBars != null ? inSampleBars : 252; }
+        int outOfSampleOrDefault() { return outOfSampleBars != null ? outOfSampleBars : 63; }
+    }
+
+    private final BacktestJobs jobs = new BacktestJobs(20, new Config().getBacktestMaxQueuedJobs());
+
     public void registerRoutes(Javalin app) {
         app.post("/api/backtest", this::runBacktest);
+        app.post("/api/backtest/walk-forward", this::submitWalkForward);
+        app.get("/api/backtest/jobs", ctx -> ctx.json(jobs.list()));
+        app.get("/api/backtest/jobs/{id}", this::getJob);
+        app.delete("/api/backtest/jobs/{id}", this::cancelJob);
     }
-    
+
     private void runBacktest(Context ctx) {
         try {
             var request = ctx.bodyAsClass(Backtester.BacktestRequest.class);
@@ -42,4 +94,97 @@ public final class BacktestController {
             ctx.status(500).json(Map.of("error", e.getMessage()));
         }
     }
+
+    /**
+     * POST /api/backtest/walk-forward
+     * Queues a walk-forward optimization and answers 202 with the job id to poll.
+     */
+    private void submitWalkForward(Context ctx) {
+        WalkForwardRequest request;
+        try {
+            request = ctx.bodyAsClass(WalkForwardRequest.class);
+        } catch (Exception e) {
+            ctx.status(400).json(Map.of("error", "Invalid walk-forward request: " + e.getMessage()));
+            return;
+        }
+        if (request.symbol() == null || request.symbol().isBlank()) {
+            ctx.status(400).json(Map.of("error", "symbol is required"));
+            return;
+        }
+        if (request.barsOrDefault() > MAX_WALK_FORWARD_BARS) {
+            ctx.status(400).json(Map.of("error", "Max " + MAX_WALK_FORWARD_BARS + " bars allowed"));
+            return;
+        }
+        if (request.samples() != null && request.samples() > MAX_WALK_FORWARD_SAMPLES) {
+            ctx.status(400).json(Map.of("error", "Max " + MAX_WALK_FORWARD_SAMPLES + " samples allowed"));
+            return;
+        }
+
+        var config = new Config();
+        var symbol = request.symbol().toUpperCase();
+        var base = new BacktestConfig(symbol, request.capital() != null ? request.capital() : 10_000,
+            0.9, 0.8, 0.4, 0.02, MarketRegime.RANGE_BOUND, 50);
+        ParameterSpace space;
+        try {
+            space = new ParameterSpace(request.parameters() != null && !request.parameters().isEmpty()
+                ? request.parameters() : DEFAULT_PARAMETERS);
+        } catch (IllegalArgumentException e) {
+            ctx.status(400).json(Map.of("error", e.getMessage()));
+            return;
+        }
+        var plan = new WalkForwardOptimizer.Plan(request.inSampleOrDefault(), request.outOfSampleOrDefault(),
+            request.stepBars() != null ? request.stepBars() : 0,
+            request.sampling() != null ? request.sampling() : ParameterSpace.Sampling.LATIN_HYPERCUBE,
+            request.samples() != null ? request.samples() : 200,
+            request.seed() != null ? request.seed() : 42,
+            request.objective() != null ? request.objective() : Objective.SHARPE,
+            config.getBacktestParallelism());
+        if (request.barsOrDefault() < plan.inSampleBars() + plan.outOfSampleBars()) {
+            ctx.status(400).json(Map.of("error", "bars must cover at least one in-sample and out-of-sample window"));
+            return;
+        }
+
+        String id;
+        try {
+            id = jobs.submit("walk-forward " + symbol, job -> {
+                var bars = BarSeries.of(loadDailyBars(config, symbol, request.barsOrDefault()));
+                var optimizer = new WalkForwardOptimizer(config, base, bars, space, plan);
+                job.setTotal(optimizer.windowCount());
+                return optimizer.run(window -> job.step(), job::isCancelled);
+            });
+        } catch (RejectedExecutionException e) {
+            ctx.status(429).json(Map.of("error", e.getMessage()));
+            return;
+        }
+        ctx.status(202).json(Map.of("jobId", id, "status", BacktestJobs.Status.QUEUED));
+    }
+
+    /**
+     * GET /api/backtest/jobs/{id}
+     */
+    private void getJob(Context ctx) {
+        jobs.get(ctx.pathParam("id")).ifPresentOrElse(ctx::json,
+            () -> ctx.status(404).json(Map.of("error", "No such job")));
+    }
+
+    /**
+     * DELETE /api/backtest/jobs/{id}
+     */
+    private void cancelJob(Context ctx) {
+        if (jobs.cancel(ctx.pathParam("id"))) {
+            ctx.json(Map.of("cancelled", true));
+        } else {
+            ctx.status(404).json(Map.of("error", "No such running job"));
+        }
+    }
+
+    /** Daily bars from the archive when it is warm, from Alpaca otherwise (as Backtester does). */
+    private static List<Bar> loadDailyBars(Config config, String symbol, int limit)
+            throws Exception {
+        var archive = BarArchive.forSource(config, "alpaca");
+        BarCache.BarFetcher fetch = (s, tf, n) -> new AlpacaClient(config).getBars(s, tf, n);
+        return archive != null
+            ? archive.getOrFetch(symbol, "1Day", limit, BarArchive.DAILY_MAX_AGE, fetch)
+            : fetch.fetch(symbol, "1Day", limit);
+    }
 }
@@ -8,6 +8,7 @@ import com.trading.config.Config;
 import com.trading.filters.MarketHoursFilter;
 import com.trading.filters.VolatilityFilter;
 import com.trading.persistence.TradeDatabase;
+import com.trading.marketdata.BarArchive;
 import com.trading.autonomous.TradeAnalytics;
 import com.trading.portfolio.PortfolioManager;
 import com.trading.portfolio.ProfileManager;
@@ -1516,7 +1517,10 @@ public final class DashboardController {
             var strategyManager = new com.trading.strategy.StrategyManager(client, null, config);
             var engine = new BacktestEngine(strategyManager);
 
-            var bars = client.getBars(symbol, "1Day", days);
+            var archive = BarArchive.forSource(config, "alpaca");
+            var bars = archive != null
+                ? archive.getOrFetch(symbol, "1Day", days, BarArchive.DAILY_MAX_AGE, client::getBars)
+                : client.getBars(symbol, "1Day", days);
             if (bars.isEmpty()) {
                 ctx.status(400).json(Map.of("error", "No historical data for " + symbol));
                 return;
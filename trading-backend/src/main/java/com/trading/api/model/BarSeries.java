@@ -0,0 +1,235 @@
+package com.trading.api.model;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+
+/**
+ * Columnar OHLCV history backed by primitive arrays in a fixed-capacity ring buffer.
+ *
+ * Index 0 is the oldest bar and {@code size() - 1} the newest, exactly like the
+ * {@code List<Bar>} it replaces. Once full, {@link #append} overwrites the oldest slot, so a
+ * series kept per symbol never reallocates and never boxes a price.
+ *
+ * {@link #view}, {@link #last} and {@link #dropLast} return read-only windows over the same
+ * arrays — no copy is made. A view reflects its owner's storage, so take it, use it and drop it
+ * within one evaluation; appending to the owner past capacity shifts what an older view sees.
+ *
+ * Not thread-safe: one writer per series.
+ */
+public final class BarSeries {
+    private final long[] timestamps;
+    private final double[] opens;
+    private final double[] highs;
+    private final double[] lows;
+    private final double[] closes;
+    private final long[] volumes;
+    private final int capacity;
+    private final boolean readOnly;
+
+    private int start;
+    private int size;
+
+    public BarSeries(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.timestamps = new long[capacity];
+        this.opens = new double[capacity];
+        this.highs = new double[capacity];
+        this.lows = new double[capacity];
+        this.closes = new double[capacity];
+        this.volumes = new long[capacity];
+        this.readOnly = false;
+    }
+
+    private BarSeries(BarSeries owner, int start, int size) {
+        this.capacity = owner.capacity;
+        this.timestamps = owner.timestamps;
+        this.opens = owner.opens;
+        this.highs = owner.highs;
+        this.lows = owner.lows;
+        this.closes = owner.closes;
+        this.volumes = owner.volumes;
+        this.readOnly = true;
+        this.start = start;
+        this.size = size;
+    }
+
+    /** Copy {@code bars} (oldest → newest) into a new series sized to fit them exactly. */
+    public static BarSeries of(List<Bar> bars) {
+        var series = new BarSeries(Math.max(1, bars.size()));
+        for (Bar bar : bars) {
+            series.append(bar);
+        }
+        return series;
+    }
+
+    /**
+     * Close-only series for callers that still hold a {@code List<Double>}: open, high and low
+     * equal the close, timestamps and volumes are zero.
+     */
+    public static BarSeries ofCloses(List<Double> closes) {
+        var series = new BarSeries(Math.max(1, closes.size()));
+        for (double close : closes) {
+            series.append(0L, close, close, close, close, 0L);
+        }
+        return series;
+    }
+
+    // ── Writers ───────────────────────────────────────────────────────────────
+
+    public void append(Bar bar) {
+        append(bar.timestamp().toEpochMilli(), bar.open(), bar.high(), bar.low(), bar.close(), bar.volume());
+    }
+
+    public void append(long epochMillis, double open, double high, double low, double close, long volume) {
+        checkWritable();
+        int slot;
+        if (size < capacity) {
+            slot = physical(size);
+            size++;
+        } else {
+            slot = start;
+            start = start + 1 == capacity ? 0 : start + 1;
+        }
+        write(slot, epochMillis, open, high, low, close, volume);
+    }
+
+    /** Overwrite the newest bar in place — for a still-forming bar that was revised. */
+    public void replaceLast(Bar bar) {
+        checkWritable();
+        if (size == 0) {
+            throw new IllegalStateException("Series is empty");
+        }
+        write(physical(size - 1), bar.timestamp().toEpochMilli(), bar.open(), bar.high(), bar.low(),
+            bar.close(), bar.volume());
+    }
+
+    public void clear() {
+        checkWritable();
+        start = 0;
+        size = 0;
+    }
+
+    // ── Readers ───────────────────────────────────────────────────────────────
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public boolean isView() {
+        return readOnly;
+    }
+
+    public long timestampMillis(int index) {
+        return timestamps[slot(index)];
+    }
+
+    public Instant timestamp(int index) {
+        return Instant.ofEpochMilli(timestampMillis(index));
+    }
+
+    public double open(int index) {
+        return opens[slot(index)];
+    }
+
+    public double high(int index) {
+        return highs[slot(index)];
+    }
+
+    public double low(int index) {
+        return lows[slot(index)];
+    }
+
+    public double close(int index) {
+        return closes[slot(index)];
+    }
+
+    public long volume(int index) {
+        return volumes[slot(index)];
+    }
+
+    public double lastClose() {
+        return close(size - 1);
+    }
+
+    /** Closes in {@code [from, to)} as an unboxed stream. */
+    public DoubleStream closes(int from, int to) {
+        Objects.checkFromToIndex(from, to, size);
+        return IntStream.range(from, to).mapToDouble(this::close);
+    }
+
+    /** Materialise one bar; allocates, so keep it off per-bar loops. */
+    public Bar bar(int index) {
+        int slot = slot(index);
+        return new Bar(Instant.ofEpochMilli(timestamps[slot]), opens[slot], highs[slot], lows[slot],
+            closes[slot], volumes[slot]);
+    }
+
+    public List<Bar> toBars() {
+        var bars = new ArrayList<Bar>(size);
+        for (int i = 0; i < size; i++) {
+            bars.add(bar(i));
+        }
+        return bars;
+    }
+
+    // ── Zero-copy views ───────────────────────────────────────────────────────
+
+    /** Read-only window over bars {@code [from, to)} sharing this series' arrays. */
+    public BarSeries view(int from, int to) {
+        Objects.checkFromToIndex(from, to, size);
+        return new BarSeries(this, physical(from), to - from);
+    }
+
+    /** The newest {@code n} bars (all of them if fewer). */
+    public BarSeries last(int n) {
+        int count = Math.min(Math.max(n, 0), size);
+        return view(size - count, size);
+    }
+
+    /** Everything except the newest {@code n} bars. */
+    public BarSeries dropLast(int n) {
+        return view(0, Math.max(0, size - Math.max(n, 0)));
+    }
+
+    // ── Internals ─────────────────────────────────────────────────────────────
+
+    private int slot(int index) {
+        return physical(Objects.checkIndex(index, size));
+    }
+
+    private int physical(int index) {
+        int p = start + index;
+        return p >= capacity ? p - capacity : p;
+    }
+
+    private void write(int slot, long epochMillis, double open, double high, double low, double close,
+                       long volume) {
+        timestamps[slot] = epochMillis;
+        opens[slot] = open;
+        highs[slot] = high;
+        lows[slot] = low;
+        closes[slot] = close;
+        volumes[slot] = volume;
+    }
+
+    private void checkWritable() {
+        if (readOnly) {
+            throw new UnsupportedOperationException("BarSeries views are read-only");
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.trading.api.model;
+
+/**
+ * Point-in-time market picture for one symbol: last trade, top of book and the
+ * minute / daily / previous-daily bars. Mirrors Alpaca's snapshot endpoint.
+ *
+ * Brokers without a native snapshot fill what they can; missing prices are NaN and
+ * missing bars are null.
+ */
+public record Snapshot(
+    String symbol,
+    double lastPrice,
+    double bidPrice,
+    double askPrice,
+    Bar minuteBar,
+    Bar dailyBar,
+    Bar prevDailyBar
+) {
+
+    public boolean hasQuote() {
+        return !Double.isNaN(bidPrice) && !Double.isNaN(askPrice) && bidPrice > 0 && askPrice > 0;
+    }
+}
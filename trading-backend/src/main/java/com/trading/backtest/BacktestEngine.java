@@ -2,6 +2,7 @@ package com.trading.backtest;
 
 import com.trading.analysis.MarketRegimeDetector.MarketRegime;
 import com.trading.api.model.Bar;
+import com.trading.api.model.BarSeries;
 import com.trading.strategy.StrategyManager;
 import com.trading.strategy.TradingSignal;
 import org.slf4j.Logger;
@@ -114,6 +115,15 @@ public final class BacktestEngine {
      * Bars should be in chronological order (oldest first).
      */
     public BacktestResult run(BacktestConfig cfg, List<Bar> bars) {
+        return run(cfg, BarSeries.of(bars));
+    }
+
+    /**
+     * Run a backtest over a columnar series, oldest first. The series is only read — each
+     * evaluation sees a zero-copy view of the trailing 100 bars — so one series can back any
+     * number of concurrent runs.
+     */
+    public BacktestResult run(BacktestConfig cfg, BarSeries bars) {
         if (bars.size() < cfg.warmupBars() + 10) {
             logger.warn("Insufficient bars for backtest: {} (need at least {})",
                 bars.size(), cfg.warmupBars() + 10);
@@ -136,19 +146,18 @@ public final class BacktestEngine {
         Instant entryTime = null;
 
         for (int i = cfg.warmupBars(); i < bars.size(); i++) {
-            Bar bar = bars.get(i);
-            double price = bar.close();
+            double price = bars.close(i);
+            Instant barTime = bars.timestamp(i);
 
-            // Build price history window for strategy evaluation
-            List<Double> history = bars.subList(Math.max(0, i - 100), i + 1)
-                .stream().map(Bar::close).toList();
+            // Price history window for strategy evaluation
+            BarSeries history = bars.view(Math.max(0, i - 100), i + 1);
 
             if (inPosition) {
                 // Check stop-loss
                 if (price <= stopLoss) {
                     double pnl = (price - entryPrice) * quantity;
-                    capital += pnl;
-                    trades.add(new BacktestTrade(cfg.symbol(), entryTime, bar.timestamp(),
+                    capital += quantity * price; // proceeds: stake plus P&L
+                    trades.add(new BacktestTrade(cfg.symbol(), entryTime, barTime,
                         entryPrice, price, quantity, pnl, "STOP_LOSS"));
                     inPosition = false;
                     continue;
@@ -157,8 +166,8 @@ public final class BacktestEngine {
                 // Check take-profit
                 if (price >= takeProfit) {
                     double pnl = (price - entryPrice) * quantity;
-                    capital += pnl;
-                    trades.add(new BacktestTrade(cfg.symbol(), entryTime, bar.timestamp(),
+                    capital += quantity * price; // proceeds: stake plus P&L
+                    trades.add(new BacktestTrade(cfg.symbol(), entryTime, barTime,
                         entryPrice, price, quantity, pnl, "TAKE_PROFIT"));
                     inPosition = false;
                     continue;
@@ -178,8 +187,8 @@ public final class BacktestEngine {
                     cfg.symbol(), price, quantity, history, cfg.regime());
                 if (signal instanceof TradingSignal.Sell) {
                     double pnl = (price - entryPrice) * quantity;
-                    capital += pnl;
-                    trades.add(new BacktestTrade(cfg.symbol(), entryTime, bar.timestamp(),
+                    capital += quantity * price; // proceeds: stake plus P&L
+                    trades.add(new BacktestTrade(cfg.symbol(), entryTime, barTime,
                         entryPrice, price, quantity, pnl, "SIGNAL_SELL"));
                     inPosition = false;
                 }
@@ -200,7 +209,7 @@ public final class BacktestEngine {
                     if (quantity * price < 1.0) continue; // skip sub-$1 orders
 
                     entryPrice = price;
-                    entryTime = bar.timestamp();
+                    entryTime = barTime;
                     stopLoss = price * (1.0 - cfg.stopLossPercent() / 100.0);
                     takeProfit = price * (1.0 + cfg.takeProfitPercent() / 100.0);
                     trailingStop = stopLoss;
@@ -218,10 +227,10 @@ public final class BacktestEngine {
 
         // Close any open position at last bar price
         if (inPosition) {
-            double lastPrice = bars.getLast().close();
+            double lastPrice = bars.lastClose();
             double pnl = (lastPrice - entryPrice) * quantity;
-            capital += pnl;
-            trades.add(new BacktestTrade(cfg.symbol(), entryTime, bars.getLast().timestamp(),
+            capital += quantity * lastPrice;
+            trades.add(new BacktestTrade(cfg.symbol(), entryTime, bars.timestamp(bars.size() - 1),
                 entryPrice, lastPrice, quantity, pnl, "END_OF_DATA"));
         }
 
@@ -232,7 +241,7 @@ public final class BacktestEngine {
         var result = new BacktestResult(cfg.symbol(), cfg.initialCapital(), capital,
             trades.size(), wins, losses, totalPnL, maxDrawdown, trades);
 
-        logger.info("Backtest complete: {}", result.summary());
+        logger.debug("Backtest complete: {}", result.summary());
         return result;
     }
 }
@@ -0,0 +1,229 @@
+package com.trading.backtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Long-running backtests (walk-forward runs, large sweeps) executed off the request thread.
+ *
+ * Jobs run one at a time on a single runner thread — each already spreads its own work over
+ * the cores it is given, so running two at once would only make both slower. A caller submits a
+ * {@link Task}, gets an id back straight away and polls {@link #get} for progress and the result.
+ * Cancelling a queued job drops it; cancelling a running one sets the flag the task polls.
+ * At most {@code maxQueued} jobs wait behind the running one; further submissions are refused
+ * rather than piling up work nobody will see for hours.
+ * Only the newest {@code retained} jobs are kept; older finished ones are forgotten.
+ */
+public final class BacktestJobs implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(BacktestJobs.class);
+
+    public enum Status { QUEUED, RUNNING, DONE, FAILED, CANCELLED }
+
+    /** The work of a job. Report progress and check for cancellation through {@code job}. */
+    @FunctionalInterface
+    public interface Task {
+        Object run(Job job) throws Exception;
+    }
+
+    /** Point-in-time view of a job, safe to serialize. {@code result} is set once DONE. */
+    public record Snapshot(String id, String kind, Status status, int completed, int total,
+                           Instant submitted, Instant started, Instant finished,
+                           String error, Object result) {}
+
+    /** A job's mutable state; the task sees it to report progress and notice cancellation. */
+    public static final class Job {
+        private final String id;
+        private final String kind;
+        private final Instant submitted = Instant.now();
+        private final AtomicInteger completed = new AtomicInteger();
+        private volatile int total;
+        private volatile boolean cancelled;
+        private volatile Status status = Status.QUEUED;
+        private volatile Instant started;
+        private volatile Instant finished;
+        private volatile String error;
+        private volatile Object result;
+        private volatile Future<?> future;
+
+        Job(String id, String kind) {
+            this.id = id;
+            this.kind = kind;
+        }
+
+        public void setTotal(int total) {
+            this.total = total;
+        }
+
+        public void step() {
+            completed.incrementAndGet();
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        Snapshot snapshot() {
+            return new Snapshot(id, kind, status, completed.get(), total, submitted, started, finished, error,
+                result);
+        }
+    }
+
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(r -> {
+        var thread = new Thread(r, "backtest-jobs");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final int retained;
+    private final int maxQueued;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, Job> jobs = new LinkedHashMap<>();
+
+    public BacktestJobs(int retained, int maxQueued) {
+        this.retained = Math.max(1, retained);
+        this.maxQueued = Math.max(0, maxQueued);
+    }
+
+    /**
+     * Queue {@code task}; returns the job id.
+     *
+     * @throws RejectedExecutionException when {@code maxQueued} jobs are already waiting
+     */
+    public String submit(String kind, Task task) {
+        var job = new Job(UUID.randomUUID().toString(), kind);
+        lock.lock();
+        try {
+            long queued = jobs.values().stream().filter(j -> j.status == Status.QUEUED && j.finished == null).count();
+            if (queued >= maxQueued) {
+                throw new RejectedExecutionException(queued + " backtest jobs already queued; try again later");
+            }
+            jobs.put(job.id, job);
+            evict();
+            job.future = runner.submit(() -> execute(job, task));
+        } finally {
+            lock.unlock();
+        }
+        logger.info("Backtest job {} ({}) queued", job.id, kind);
+        return job.id;
+    }
+
+    public Optional<Snapshot> get(String id) {
+        lock.lock();
+        try {
+            var job = jobs.get(id);
+            return job == null ? Optional.empty() : Optional.of(job.snapshot());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Every retained job, newest first, without results. */
+    public List<Snapshot> list() {
+        lock.lock();
+        try {
+            var list = new ArrayList<Snapshot>(jobs.size());
+            for (var job : jobs.values()) {
+                var s = job.snapshot();
+                list.addFirst(new Snapshot(s.id(), s.kind(), s.status(), s.completed(), s.total(), s.submitted(),
+                    s.started(), s.finished(), s.error(), null));
+            }
+            return list;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Cancel a queued or running job; false when unknown or already finished. */
+    public boolean cancel(String id) {
+        lock.lock();
+        try {
+            var job = jobs.get(id);
+            if (job == null || job.finished != null) return false;
+            job.cancelled = true;
+            if (job.status == Status.QUEUED && job.future.cancel(false)) {
+                finish(job, Status.CANCELLED, null, null);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Starting and finishing are checked against {@link #cancel} under the lock, so a cancel is never lost. */
+    private void execute(Job job, Task task) {
+        lock.lock();
+        try {
+            if (job.cancelled) {
+                // Cancelled after the runner picked the job up but before it started
+                finish(job, Status.CANCELLED, null, null);
+                logger.info("Backtest job {} ({}) cancelled", job.id, job.kind);
+                return;
+            }
+            job.started = Instant.now();
+            job.status = Status.RUNNING;
+        } finally {
+            lock.unlock();
+        }
+        try {
+            var result = task.run(job);
+            lock.lock();
+            try {
+                if (job.cancelled) throw new CancellationException();
+                finish(job, Status.DONE, result, null);
+            } finally {
+                lock.unlock();
+            }
+            logger.info("Backtest job {} ({}) done in {} ms", job.id, job.kind,
+                job.finished.toEpochMilli() - job.started.toEpochMilli());
+        } catch (CancellationException e) {
+            finish(job, Status.CANCELLED, null, null);
+            logger.info("Backtest job {} ({}) cancelled", job.id, job.kind);
+        } catch (Exception e) {
+            finish(job, Status.FAILED, null, e.getMessage() != null ? e.getMessage() : e.toString());
+            logger.error("Backtest job {} ({}) failed", job.id, job.kind, e);
+        }
+    }
+
+    private static void finish(Job job, Status status, Object result, String error) {
+        job.result = result;
+        job.error = error;
+        job.finished = Instant.now();
+        job.status = status; // last, so a reader that sees DONE also sees the result
+    }
+
+    /** Drop the oldest finished jobs beyond {@code retained}; caller holds the lock. */
+    private void evict() {
+        var it = jobs.values().iterator();
+        int excess = jobs.size() - retained;
+        while (excess > 0 && it.hasNext()) {
+            if (it.next().finished != null) {
+                it.remove();
+                excess--;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            jobs.values().forEach(job -> job.cancelled = true);
+        } finally {
+            lock.unlock();
+        }
+        runner.shutdownNow();
+    }
+}
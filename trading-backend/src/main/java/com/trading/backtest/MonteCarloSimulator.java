@@ -0,0 +1,294 @@
+package com.trading.backtest;
+
+import com.trading.backtest.BacktestEngine.BacktestResult;
+import com.trading.backtest.BacktestEngine.BacktestTrade;
+import com.trading.persistence.TradeDatabase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Resamples a sequence of per-trade returns into many alternative orderings and reports how
+ * deep the drawdowns and how wide the terminal equity could have been — one backtest or one
+ * live track record is a single draw from that distribution.
+ *
+ * Returns are fractions of the equity at entry ({@link #equityReturns}), so each path compounds
+ * from the starting capital the way the account would have. {@link Method#IID} draws trades
+ * independently; {@link Method#BLOCK} draws runs of consecutive trades (circular block bootstrap)
+ * so streaks of losses that cluster in the original record cluster in the paths too.
+ *
+ * Paths are split recursively over a {@link ForkJoinPool}; every split hands one half a
+ * {@link SplittableRandom#split() split} generator, so the split tree — and therefore every path —
+ * depends only on the seed and the path count, not on the number of workers. Per-path results go
+ * into two primitive arrays; nothing is allocated per path.
+ *
+ * Usage:
+ * <pre>
+ *   var simulation = MonteCarloSimulator.fromTrades(db, "alpaca", 10_000)
+ *       .simulate(MonteCarloSimulator.Settings.defaults());
+ *   double breaker = simulation.drawdownPercentile(0.95); // a 1-in-20 drawdown
+ *   double ruin = simulation.report().riskOfRuin();
+ * </pre>
+ */
+public final class MonteCarloSimulator {
+    private static final Logger logger = LoggerFactory.getLogger(MonteCarloSimulator.class);
+
+    /** Paths a leaf task simulates on one generator before the range is split no further. */
+    private static final int LEAF_PATHS = 1024;
+
+    public enum Method { IID, BLOCK }
+
+    /**
+     * {@code tradesPerPath} 0 resamples as many trades as the sample has. A path counts as ruined
+     * once its drawdown from peak reaches {@code ruinDrawdownPercent}; {@code parallelism} 0 uses
+     * every core.
+     */
+    public record Settings(int paths, int tradesPerPath, Method method, int blockLength,
+                           double ruinDrawdownPercent, long seed, int parallelism) {
+        public Settings {
+            if (paths < 1) throw new IllegalArgumentException("paths must be positive");
+            if (tradesPerPath < 0) throw new IllegalArgumentException("tradesPerPath must not be negative");
+            if (method == null) throw new IllegalArgumentException("method is required");
+            if (blockLength < 1) throw new IllegalArgumentException("blockLength must be positive");
+            if (!(ruinDrawdownPercent > 0 && ruinDrawdownPercent <= 100)) {
+                throw new IllegalArgumentException("ruinDrawdownPercent must be in (0, 100]");
+            }
+        }
+
+        public static Settings defaults() {
+            return new Settings(100_000, 0, Method.IID, 5, 50.0, 42, 0);
+        }
+    }
+
+    /** Distribution summary; drawdowns in percent, terminal equity in account currency. */
+    public record Percentiles(double p1, double p5, double p25, double p50, double p75, double p95, double p99,
+                              double mean) {
+
+        static Percentiles of(double[] sorted) {
+            return new Percentiles(percentile(sorted, 0.01), percentile(sorted, 0.05), percentile(sorted, 0.25),
+                percentile(sorted, 0.50), percentile(sorted, 0.75), percentile(sorted, 0.95),
+                percentile(sorted, 0.99), Arrays.stream(sorted).average().orElse(0));
+        }
+    }
+
+    /**
+     * {@code riskOfRuin} is the share of paths whose drawdown reached the ruin threshold;
+     * {@code probabilityOfLoss} the share that ended below the starting capital.
+     */
+    public record Report(int paths, int tradesPerPath, Method method, double initialCapital,
+                         Percentiles maxDrawdownPercent, Percentiles terminalEquity,
+                         double riskOfRuin, double probabilityOfLoss, Duration wallTime) {}
+
+    /** Every path's outcome, sorted, for questions the {@link Report} doesn't answer. */
+    public static final class Simulation {
+        private final double[] drawdowns;
+        private final double[] terminals;
+        private final Report report;
+
+        private Simulation(double[] drawdowns, double[] terminals, Report report) {
+            this.drawdowns = drawdowns;
+            this.terminals = terminals;
+            this.report = report;
+        }
+
+        public Report report() {
+            return report;
+        }
+
+        /** Max drawdown (percent) that a share {@code q} of paths stayed within. */
+        public double drawdownPercentile(double q) {
+            return percentile(drawdowns, q);
+        }
+
+        /** Terminal equity that a share {@code q} of paths ended at or below. */
+        public double terminalPercentile(double q) {
+            return percentile(terminals, q);
+        }
+
+        /** Share of paths whose max drawdown reached {@code percent}. */
+        public double probabilityOfDrawdown(double percent) {
+            return (double) (drawdowns.length - lowerBound(drawdowns, percent)) / drawdowns.length;
+        }
+
+        /** Share of paths that ended below {@code equity}. */
+        public double probabilityOfEndingBelow(double equity) {
+            return (double) lowerBound(terminals, equity) / terminals.length;
+        }
+    }
+
+    private final double initialCapital;
+    private final double[] returns;
+
+    /**
+     * @param returns per-trade returns as fractions of the equity at entry; copied
+     */
+    public MonteCarloSimulator(double initialCapital, double[] returns) {
+        if (initialCapital <= 0) throw new IllegalArgumentException("initialCapital must be positive");
+        if (returns.length == 0) throw new IllegalArgumentException("no trades to resample");
+        this.initialCapital = initialCapital;
+        this.returns = returns.clone();
+    }
+
+    /** Resamples a backtest's trades, in exit order, against its starting capital. */
+    public static MonteCarloSimulator fromBacktest(BacktestResult result) {
+        double[] pnls = result.trades().stream()
+            .sorted(Comparator.comparing(BacktestTrade::exitTime))
+            .mapToDouble(BacktestTrade::pnl)
+            .toArray();
+        return new MonteCarloSimulator(result.initialCapital(), equityReturns(result.initialCapital(), pnls));
+    }
+
+    /**
+     * Resamples the closed trades in the trades table ({@code broker} null for all), treating
+     * {@code initialCapital} as the equity before the first of them.
+     */
+    public static MonteCarloSimulator fromTrades(TradeDatabase db, String broker, double initialCapital) {
+        return new MonteCarloSimulator(initialCapital, equityReturns(initialCapital, db.getClosedTradePnls(broker)));
+    }
+
+    /**
+     * Dollar P&L per trade to returns on the equity before each trade. Once equity is gone every
+     * remaining trade is a total loss.
+     */
+    public static double[] equityReturns(double initialCapital, double[] pnls) {
+        double[] returns = new double[pnls.length];
+        double equity = initialCapital;
+        for (int i = 0; i < pnls.length; i++) {
+            returns[i] = equity > 0 ? Math.max(-1.0, pnls[i] / equity) : -1.0;
+            equity += pnls[i];
+        }
+        return returns;
+    }
+
+    public Report run(Settings settings) {
+        return simulate(settings).report();
+    }
+
+    public Simulation simulate(Settings settings) {
+        long started = System.nanoTime();
+        int length = settings.tradesPerPath() > 0 ? settings.tradesPerPath() : returns.length;
+        var drawdowns = new double[settings.paths()];
+        var terminals = new double[settings.paths()];
+
+        int parallelism = settings.parallelism() > 0
+            ? settings.parallelism() : Runtime.getRuntime().availableProcessors();
+        var pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new Paths(settings, length, 0, settings.paths(), new SplittableRandom(settings.seed()),
+                drawdowns, terminals));
+        } finally {
+            pool.shutdown();
+        }
+
+        double ruinFraction = settings.ruinDrawdownPercent() / 100.0;
+        int ruined = 0;
+        int losing = 0;
+        for (int p = 0; p < settings.paths(); p++) {
+            if (drawdowns[p] >= ruinFraction) ruined++;
+            if (terminals[p] < 1.0) losing++;
+            drawdowns[p] *= 100;
+            terminals[p] *= initialCapital;
+        }
+        Arrays.parallelSort(drawdowns);
+        Arrays.parallelSort(terminals);
+
+        var wallTime = Duration.ofNanos(System.nanoTime() - started);
+        var report = new Report(settings.paths(), length, settings.method(), initialCapital,
+            Percentiles.of(drawdowns), Percentiles.of(terminals),
+            (double) ruined / settings.paths(), (double) losing / settings.paths(), wallTime);
+        logger.info("Monte Carlo: {} {} paths of {} trades on {} workers in {} ms — median DD {}%, ruin {}%",
+            settings.paths(), settings.method(), length, parallelism, wallTime.toMillis(),
+            String.format("%.1f", report.maxDrawdownPercent().p50()),
+            String.format("%.2f", report.riskOfRuin() * 100));
+        return new Simulation(drawdowns, terminals, report);
+    }
+
+    /**
+     * Paths {@code [from, to)}. Drawdowns are written as fractions and terminal equity as a
+     * multiple of the starting capital; {@link #simulate} scales them once every path is done.
+     */
+    private final class Paths extends RecursiveAction {
+        private final Settings settings;
+        private final int length;
+        private final int from;
+        private final int to;
+        private final SplittableRandom random;
+        private final double[] drawdowns;
+        private final double[] terminals;
+
+        Paths(Settings settings, int length, int from, int to, SplittableRandom random,
+              double[] drawdowns, double[] terminals) {
+            this.settings = settings;
+            this.length = length;
+            this.from = from;
+            this.to = to;
+            this.random = random;
+            this.drawdowns = drawdowns;
+            this.terminals = terminals;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > LEAF_PATHS) {
+                int mid = (from + to) >>> 1;
+                var right = random.split();
+                invokeAll(new Paths(settings, length, from, mid, random, drawdowns, terminals),
+                          new Paths(settings, length, mid, to, right, drawdowns, terminals));
+                return;
+            }
+            for (int p = from; p < to; p++) path(p);
+        }
+
+        private void path(int p) {
+            int n = returns.length;
+            int block = settings.method() == Method.BLOCK ? Math.min(settings.blockLength(), n) : 1;
+            double equity = 1.0;
+            double peak = 1.0;
+            double worst = 0;
+            int at = 0;
+            int left = 0;
+            for (int t = 0; t < length && equity > 0; t++) {
+                if (left == 0) {
+                    at = random.nextInt(n);
+                    left = block;
+                }
+                equity *= 1 + returns[at];
+                at = at + 1 == n ? 0 : at + 1;
+                left--;
+                if (equity > peak) {
+                    peak = equity;
+                } else {
+                    worst = Math.max(worst, (peak - equity) / peak);
+                }
+            }
+            drawdowns[p] = equity > 0 ? worst : 1.0;
+            terminals[p] = Math.max(0, equity);
+        }
+    }
+
+    /** Linearly interpolated quantile {@code q} of an ascending array. */
+    private static double percentile(double[] sorted, double q) {
+        if (sorted.length == 0) return 0;
+        double index = Math.clamp(q, 0.0, 1.0) * (sorted.length - 1);
+        int below = (int) Math.floor(index);
+        int above = Math.min(below + 1, sorted.length - 1);
+        return sorted[below] + (sorted[above] - sorted[below]) * (index - below);
+    }
+
+    /** First index whose value is {@code >= key}. */
+    private static int lowerBound(double[] sorted, double key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < key) low = mid + 1; else high = mid;
+        }
+        return low;
+    }
+}
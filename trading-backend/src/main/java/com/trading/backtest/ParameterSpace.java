@@ -0,0 +1,171 @@
+package com.trading.backtest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * The ranges a parameter sweep explores, and the three ways of sampling them.
+ *
+ * A parameter is named either after a {@link BacktestEngine.BacktestConfig} component
+ * ({@code takeProfitPercent}, {@code stopLossPercent}, {@code trailingStopPercent},
+ * {@code riskPerTrade}, {@code warmupBars}) or after a Config property key such as
+ * {@code MOMENTUM_RSI_BUY_MIN}; {@link ParameterSweep} applies each accordingly.
+ *
+ * <ul>
+ *   <li>{@link #grid()} — every combination of the stepped values; exhaustive but its size is
+ *       the product of the per-parameter counts.</li>
+ *   <li>{@link #random} — independent uniform draws, snapped to each parameter's step.</li>
+ *   <li>{@link #latinHypercube} — {@code n} points such that every parameter's range, cut into
+ *       {@code n} equal strata, has exactly one point per stratum; covers the space far more
+ *       evenly than random draws of the same size.</li>
+ * </ul>
+ * Samplers take a seed, so a sweep is reproducible.
+ */
+public final class ParameterSpace {
+
+    /**
+     * One swept parameter over {@code [min, max]}. {@code step > 0} restricts values to
+     * {@code min + k * step}; {@code step == 0} makes it continuous (not allowed in a grid).
+     */
+    public record Parameter(String name, double min, double max, double step) {
+        public Parameter {
+            if (name == null || name.isBlank()) throw new IllegalArgumentException("Parameter needs a name");
+            if (!(min <= max)) throw new IllegalArgumentException(name + ": min must not exceed max");
+            if (step < 0) throw new IllegalArgumentException(name + ": step must not be negative");
+        }
+
+        /** Number of grid values, or 0 for a continuous parameter. */
+        public int count() {
+            return step > 0 ? (int) Math.floor((max - min) / step + 1e-9) + 1 : 0;
+        }
+
+        double snap(double value) {
+            if (step <= 0) return value;
+            long k = Math.round((value - min) / step);
+            return Math.min(max, min + Math.max(0, k) * step);
+        }
+    }
+
+    /** How {@link #sample} draws variants. */
+    public enum Sampling { GRID, RANDOM, LATIN_HYPERCUBE }
+
+    /** One point in the space: values in the order of {@link #parameters()}. */
+    public record Variant(int id, double[] values) {
+        /** The value of parameter {@code index}. */
+        public double value(int index) {
+            return values[index];
+        }
+    }
+
+    private final List<Parameter> parameters;
+
+    public ParameterSpace(List<Parameter> parameters) {
+        if (parameters.isEmpty()) throw new IllegalArgumentException("Parameter space is empty");
+        var names = new java.util.HashSet<String>();
+        for (var p : parameters) {
+            if (!names.add(p.name())) throw new IllegalArgumentException("Duplicate parameter " + p.name());
+        }
+        this.parameters = List.copyOf(parameters);
+    }
+
+    public static ParameterSpace of(Parameter... parameters) {
+        return new ParameterSpace(Arrays.asList(parameters));
+    }
+
+    public List<Parameter> parameters() {
+        return parameters;
+    }
+
+    /** Parameter name to value for {@code variant}, in declaration order. */
+    public Map<String, Double> describe(Variant variant) {
+        var result = new LinkedHashMap<String, Double>();
+        for (int i = 0; i < parameters.size(); i++) result.put(parameters.get(i).name(), variant.value(i));
+        return result;
+    }
+
+    /** Size of the full grid; throws if a parameter is continuous or the product overflows. */
+    public long gridSize() {
+        long size = 1;
+        for (var p : parameters) {
+            if (p.count() == 0) throw new IllegalStateException(p.name() + " is continuous; a grid needs a step");
+            size = Math.multiplyExact(size, p.count());
+        }
+        return size;
+    }
+
+    /** Variants by {@code sampling}; {@code n} and {@code seed} are ignored for a grid. */
+    public List<Variant> sample(Sampling sampling, int n, long seed) {
+        return switch (sampling) {
+            case GRID -> grid();
+            case RANDOM -> random(n, seed);
+            case LATIN_HYPERCUBE -> latinHypercube(n, seed);
+        };
+    }
+
+    /** Every combination, the last parameter varying fastest. */
+    public List<Variant> grid() {
+        long size = gridSize();
+        if (size > Integer.MAX_VALUE) throw new IllegalStateException("Grid of " + size + " variants is too large");
+        int dims = parameters.size();
+        var variants = new ArrayList<Variant>((int) size);
+        for (int id = 0; id < size; id++) {
+            double[] values = new double[dims];
+            int rest = id;
+            for (int d = dims - 1; d >= 0; d--) {
+                var p = parameters.get(d);
+                values[d] = Math.min(p.max(), p.min() + (rest % p.count()) * p.step());
+                rest /= p.count();
+            }
+            variants.add(new Variant(id, values));
+        }
+        return variants;
+    }
+
+    /** {@code n} independent uniform draws. */
+    public List<Variant> random(int n, long seed) {
+        var rng = new SplittableRandom(seed);
+        var variants = new ArrayList<Variant>(n);
+        for (int id = 0; id < n; id++) {
+            double[] values = new double[parameters.size()];
+            for (int d = 0; d < values.length; d++) {
+                var p = parameters.get(d);
+                values[d] = p.snap(p.min() + rng.nextDouble() * (p.max() - p.min()));
+            }
+            variants.add(new Variant(id, values));
+        }
+        return variants;
+    }
+
+    /**
+     * {@code n} Latin hypercube samples: for each parameter, a random permutation assigns one
+     * of {@code n} equal strata to each sample, and the value is drawn uniformly within it.
+     * Snapping to a step can merge neighbouring strata when {@code n} exceeds the value count.
+     */
+    public List<Variant> latinHypercube(int n, long seed) {
+        var rng = new SplittableRandom(seed);
+        int dims = parameters.size();
+        double[][] values = new double[n][dims];
+        int[] strata = new int[n];
+        for (int d = 0; d < dims; d++) {
+            var p = parameters.get(d);
+            for (int i = 0; i < n; i++) strata[i] = i;
+            for (int i = n - 1; i > 0; i--) { // Fisher–Yates
+                int j = rng.nextInt(i + 1);
+                int t = strata[i];
+                strata[i] = strata[j];
+                strata[j] = t;
+            }
+            double width = (p.max() - p.min()) / n;
+            for (int i = 0; i < n; i++) {
+                values[i][d] = p.snap(p.min() + (strata[i] + rng.nextDouble()) * width);
+            }
+        }
+        var variants = new ArrayList<Variant>(n);
+        for (int id = 0; id < n; id++) variants.add(new Variant(id, values[id]));
+        return variants;
+    }
+}
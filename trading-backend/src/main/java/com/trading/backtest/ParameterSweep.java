@@ -0,0 +1,319 @@
+package com.trading.backtest;
+
+import com.trading.api.model.BarSeries;
+import com.trading.backtest.BacktestEngine.BacktestConfig;
+import com.trading.backtest.BacktestEngine.BacktestResult;
+import com.trading.backtest.BacktestEngine.BacktestTrade;
+import com.trading.backtest.ParameterSpace.Parameter;
+import com.trading.backtest.ParameterSpace.Variant;
+import com.trading.config.Config;
+import com.trading.strategy.StrategyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Runs one {@link BacktestEngine} backtest per {@link Variant} of a {@link ParameterSpace}, in
+ * parallel, and ranks the outcomes.
+ *
+ * Variants are split recursively over a {@link ForkJoinPool}, so idle workers steal the remaining
+ * halves from busy ones — variants with long holding periods or many trades don't leave cores
+ * idle at the tail of a sweep. Every worker reads the same {@link BarSeries}; nothing is copied
+ * per variant. Each variant gets its own StrategyManager built from
+ * {@link Config#withOverrides} so strategy state never leaks between runs.
+ *
+ * Outcomes stream to the caller's consumer as they complete (from worker threads, in completion
+ * order); {@link Leaderboard} keeps a ranked top-N while the sweep is still running.
+ *
+ * Usage:
+ * <pre>
+ *   var space = ParameterSpace.of(
+ *       new Parameter("takeProfitPercent", 0.5, 3.0, 0.25),
+ *       new Parameter("stopLossPercent", 0.5, 2.0, 0.25),
+ *       new Parameter("MOMENTUM_RSI_BUY_MIN", 35, 55, 5));
+ *   var sweep = new ParameterSweep(config, BacktestConfig.defaults("SPY", 1000), BarSeries.of(bars), space);
+ *   var board = new ParameterSweep.Leaderboard(Objective.SHARPE, 20);
+ *   var ranked = sweep.run(space.latinHypercube(2000, 42), Objective.SHARPE, board);
+ * </pre>
+ */
+public final class ParameterSweep {
+    private static final Logger logger = LoggerFactory.getLogger(ParameterSweep.class);
+
+    private static final double DAYS_PER_YEAR = 365.25;
+    /** Parameters set on the BacktestConfig; every other name is a Config property override. */
+    private static final Set<String> BACKTEST_FIELDS = Set.of(
+        "takeProfitPercent", "stopLossPercent", "trailingStopPercent", "riskPerTrade", "warmupBars");
+
+    /** What a sweep ranks by. Drawdown ranks lowest first; the others highest first. */
+    public enum Objective {
+        SHARPE(Comparator.comparingDouble(Metrics::sharpe).reversed()),
+        PROFIT_FACTOR(Comparator.comparingDouble(Metrics::profitFactor).reversed()),
+        MAX_DRAWDOWN(Comparator.comparingDouble(Metrics::maxDrawdownPercent)),
+        RETURN(Comparator.comparingDouble(Metrics::returnPercent).reversed());
+
+        private final Comparator<Outcome> order;
+
+        Objective(Comparator<Metrics> metrics) {
+            this.order = Comparator.comparing(Outcome::metrics, metrics)
+                .thenComparingInt(o -> o.variant().id());
+        }
+
+        public Comparator<Outcome> order() {
+            return order;
+        }
+    }
+
+    /**
+     * Scores of one backtest. {@code sharpe} is the mean over the standard deviation of per-trade
+     * returns, annualised by the number of trades per year of data; 0 with fewer than two trades.
+     */
+    public record Metrics(double sharpe, double profitFactor, double maxDrawdownPercent,
+                          double returnPercent, int trades) {
+
+        static Metrics of(BacktestResult result, double years) {
+            int n = result.trades().size();
+            double sharpe = 0;
+            if (n >= 2 && years > 0) {
+                double sum = 0;
+                double squares = 0;
+                for (BacktestTrade trade : result.trades()) {
+                    double stake = trade.entryPrice() * trade.quantity();
+                    double r = stake > 0 ? trade.pnl() / stake : 0;
+                    sum += r;
+                    squares += r * r;
+                }
+                double mean = sum / n;
+                double variance = (squares - sum * sum / n) / (n - 1);
+                if (variance > 0) sharpe = mean / Math.sqrt(variance) * Math.sqrt(n / years);
+            }
+            double profitFactor = Math.min(result.profitFactor(), 1e9); // BacktestResult caps "no losses" at MAX_VALUE
+            return new Metrics(sharpe, profitFactor, result.maxDrawdownPercent(), result.returnPercent(), n);
+        }
+    }
+
+    /** One variant's parameters, backtest result and scores. */
+    public record Outcome(Variant variant, Map<String, Double> parameters, BacktestResult result, Metrics metrics) {}
+
+    /** Thread-safe top-N by an objective, updated as outcomes stream in. */
+    public static final class Leaderboard implements Consumer<Outcome> {
+        private final Comparator<Outcome> order;
+        private final int size;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final List<Outcome> top = new ArrayList<>();
+
+        public Leaderboard(Objective objective, int size) {
+            this.order = objective.order();
+            this.size = size;
+        }
+
+        @Override
+        public void accept(Outcome outcome) {
+            lock.lock();
+            try {
+                if (top.size() == size && order.compare(outcome, top.getLast()) >= 0) return;
+                int at = 0;
+                while (at < top.size() && order.compare(top.get(at), outcome) <= 0) at++;
+                top.add(at, outcome);
+                if (top.size() > size) top.removeLast();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /** Current ranking, best first. */
+        public List<Outcome> snapshot() {
+            lock.lock();
+            try {
+                return List.copyOf(top);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private final Config baseConfig;
+    private final BacktestConfig base;
+    private final BarSeries bars;
+    private final ParameterSpace space;
+    private final double years;
+    private final Set<String> overridesRead = ConcurrentHashMap.newKeySet();
+
+    /** {@code bars} must not be written to while a sweep runs. */
+    public ParameterSweep(Config baseConfig, BacktestConfig base, BarSeries bars, ParameterSpace space) {
+        this.baseConfig = baseConfig;
+        this.base = base;
+        this.bars = bars;
+        this.space = space;
+        this.years = bars.size() < 2 ? 0
+            : (bars.timestampMillis(bars.size() - 1) - bars.timestampMillis(0)) / (DAYS_PER_YEAR * 86_400_000.0);
+    }
+
+    /** {@link #run(List, int, Objective, Consumer)} on every available core. */
+    public List<Outcome> run(List<Variant> variants, Objective objective, Consumer<Outcome> onResult) {
+        return run(variants, Runtime.getRuntime().availableProcessors(), objective, onResult);
+    }
+
+    /**
+     * Backtest every variant on {@code parallelism} workers and return the outcomes ranked by
+     * {@code objective}. A variant whose backtest throws is logged and left out.
+     */
+    public List<Outcome> run(List<Variant> variants, int parallelism, Objective objective,
+                             Consumer<Outcome> onResult) {
+        var pool = new ForkJoinPool(Math.max(1, parallelism));
+        try {
+            return run(variants, pool, objective, onResult);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Backtest every variant on {@code pool}. Called from a task already running in that pool
+     * (a walk-forward window, say), the variants are forked into it rather than queued behind it.
+     */
+    public List<Outcome> run(List<Variant> variants, ForkJoinPool pool, Objective objective,
+                             Consumer<Outcome> onResult) {
+        long started = System.nanoTime();
+        var outcomes = new Outcome[variants.size()];
+        var completed = new AtomicInteger();
+        var failed = new AtomicInteger();
+        var root = new Slice(variants, 0, variants.size(), outcomes, onResult, completed, failed);
+        if (ForkJoinTask.getPool() == pool) {
+            root.invoke();
+        } else {
+            pool.invoke(root);
+        }
+
+        var ranked = new ArrayList<Outcome>(variants.size());
+        for (Outcome outcome : outcomes) {
+            if (outcome != null) ranked.add(outcome);
+        }
+        ranked.sort(objective.order());
+        logger.info("Parameter sweep: {} variants on {} workers in {} ms ({} failed)",
+            variants.size(), pool.getParallelism(), Duration.ofNanos(System.nanoTime() - started).toMillis(),
+            failed.get());
+        var unread = unreadConfigKeys();
+        if (!unread.isEmpty() && failed.get() < variants.size()) {
+            logger.warn("Parameter sweep: no Config getter read {}, so every variant ran with the "
+                + "configured value; check the property names", unread);
+        }
+        return ranked;
+    }
+
+    /** Config-key parameters that no backtest of this sweep has read so far. */
+    Set<String> unreadConfigKeys() {
+        var unread = new TreeSet<String>();
+        for (Parameter parameter : space.parameters()) {
+            if (!BACKTEST_FIELDS.contains(parameter.name())) unread.add(parameter.name());
+        }
+        unread.removeAll(overridesRead);
+        return unread;
+    }
+
+    /** Backtest one variant on the calling thread. */
+    public Outcome evaluate(Variant variant) {
+        var overrides = new HashMap<String, String>();
+        var config = configFor(variant, overrides);
+        var variantConfig = overrides.isEmpty() ? baseConfig : baseConfig.withOverrides(overrides);
+        var engine = new BacktestEngine(new StrategyManager(null, null, variantConfig));
+        var result = engine.run(config, bars);
+        if (!overrides.isEmpty()) {
+            var unused = variantConfig.unusedOverrides();
+            for (String key : overrides.keySet()) {
+                if (!unused.contains(key)) overridesRead.add(key);
+            }
+        }
+        return new Outcome(variant, space.describe(variant), result, Metrics.of(result, years));
+    }
+
+    /** The BacktestConfig {@code variant} runs with; its Config keys go into {@code overrides}. */
+    BacktestConfig configFor(Variant variant, Map<String, String> overrides) {
+        var config = base;
+        var list = space.parameters();
+        for (int i = 0; i < list.size(); i++) {
+            config = apply(config, list.get(i), variant.value(i), overrides);
+        }
+        return config;
+    }
+
+    private static BacktestConfig apply(BacktestConfig c, Parameter parameter, double value,
+                                        Map<String, String> overrides) {
+        return switch (parameter.name()) {
+            case "takeProfitPercent" -> new BacktestConfig(c.symbol(), c.initialCapital(), value,
+                c.stopLossPercent(), c.trailingStopPercent(), c.riskPerTrade(), c.regime(), c.warmupBars());
+            case "stopLossPercent" -> new BacktestConfig(c.symbol(), c.initialCapital(), c.takeProfitPercent(),
+                value, c.trailingStopPercent(), c.riskPerTrade(), c.regime(), c.warmupBars());
+            case "trailingStopPercent" -> new BacktestConfig(c.symbol(), c.initialCapital(), c.takeProfitPercent(),
+                c.stopLossPercent(), value, c.riskPerTrade(), c.regime(), c.warmupBars());
+            case "riskPerTrade" -> new BacktestConfig(c.symbol(), c.initialCapital(), c.takeProfitPercent(),
+                c.stopLossPercent(), c.trailingStopPercent(), value, c.regime(), c.warmupBars());
+            case "warmupBars" -> new BacktestConfig(c.symbol(), c.initialCapital(), c.takeProfitPercent(),
+                c.stopLossPercent(), c.trailingStopPercent(), c.riskPerTrade(), c.regime(), (int) Math.round(value));
+            default -> {
+                // Integral values print without a fraction so int and long properties parse them
+                overrides.put(parameter.name(), value == Math.rint(value) && Math.abs(value) < 1e15
+                    ? Long.toString((long) value) : Double.toString(value));
+                yield c;
+            }
+        };
+    }
+
+    /** A range of variants; splits in half until one is left, so idle workers can steal. */
+    private final class Slice extends RecursiveAction {
+        private final List<Variant> variants;
+        private final int from;
+        private final int to;
+        private final Outcome[] outcomes;
+        private final Consumer<Outcome> onResult;
+        private final AtomicInteger completed;
+        private final AtomicInteger failed;
+
+        Slice(List<Variant> variants, int from, int to, Outcome[] outcomes, Consumer<Outcome> onResult,
+              AtomicInteger completed, AtomicInteger failed) {
+            this.variants = variants;
+            this.from = from;
+            this.to = to;
+            this.outcomes = outcomes;
+            this.onResult = onResult;
+            this.completed = completed;
+            this.failed = failed;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Slice(variants, from, mid, outcomes, onResult, completed, failed),
+                          new Slice(variants, mid, to, outcomes, onResult, completed, failed));
+                return;
+            }
+            if (from == to) return;
+            var variant = variants.get(from);
+            try {
+                var outcome = evaluate(variant);
+                outcomes[from] = outcome;
+                if (onResult != null) onResult.accept(outcome);
+            } catch (Exception e) {
+                failed.incrementAndGet();
+                logger.warn("Sweep variant {} {} failed: {}", variant.id(), space.describe(variant), e.getMessage());
+            }
+            int done = completed.incrementAndGet();
+            if (done % 500 == 0) logger.info("Parameter sweep: {}/{} variants done", done, variants.size());
+        }
+    }
+}
@@ -0,0 +1,450 @@
+package com.trading.backtest;
+
+import com.trading.analysis.CorrelationCalculator;
+import com.trading.analysis.MarketAnalyzer;
+import com.trading.analysis.MarketRegimeDetector;
+import com.trading.analysis.MarketRegimeDetector.MarketRegime;
+import com.trading.api.model.Bar;
+import com.trading.api.model.BarSeries;
+import com.trading.backtest.BacktestEngine.BacktestResult;
+import com.trading.backtest.BacktestEngine.BacktestTrade;
+import com.trading.config.Config;
+import com.trading.marketdata.BarArchive;
+import com.trading.risk.RiskManager;
+import com.trading.strategy.StrategyManager;
+import com.trading.strategy.SymbolSelector;
+import com.trading.strategy.TradingProfile;
+import com.trading.strategy.TradingSignal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Backtest of a whole profile universe sharing one pot of capital.
+ *
+ * {@link BacktestEngine} trades one symbol with all the capital, so it cannot show what happens
+ * when symbols compete for cash and position slots. Here every symbol's bars are merged into a
+ * single time-ordered stream — a k-way merge over per-symbol cursors in a priority queue — and
+ * each bar time is processed as one step: exits first (stop, target, trailing stop, strategy
+ * sell, with {@link BacktestEngine}'s rules and the profile's percentages), then entries, which
+ * must pass the same gates a live entry does:
+ * <ul>
+ *   <li>the profile's {@link SymbolSelector} must pick the symbol for the current regime;</li>
+ *   <li>{@code MAX_POSITIONS_AT_ONCE} and {@link RiskManager#canOpenPosition} tier limits;</li>
+ *   <li>no {@link RiskManager#shouldHaltTrading} drawdown halt;</li>
+ *   <li>the correlation cap ({@code CORRELATION_CAP_*}) against open positions, on the trailing
+ *       {@link CorrelationCalculator#CORRELATION_PERIOD} returns;</li>
+ *   <li>{@link RiskManager#calculatePositionSize} on 95% of cash, as ProfileManager sizes, and
+ *       no more than the cash left.</li>
+ * </ul>
+ *
+ * Bars are pulled from a {@link BarSource} in fixed-size chunks and the strategy sees a ring of
+ * the trailing bars per symbol, so memory is per symbol, not per bar: a hundred symbols over
+ * years of an archive never hold more than a few thousand bars at once, and no Bar objects.
+ *
+ * Usage:
+ * <pre>
+ *   var archive = BarArchive.forSource(config, "alpaca");
+ *   var run = new PortfolioBacktest(config, TradingProfile.main(config),
+ *           BarSource.archive(archive, "1Day"), RegimeSource.fixed(MarketRegime.RANGE_BOUND),
+ *           PortfolioBacktest.Settings.defaults(10_000))
+ *       .run();
+ *   run.attribution().values().forEach(System.out::println);
+ * </pre>
+ */
+public final class PortfolioBacktest {
+    private static final Logger logger = LoggerFactory.getLogger(PortfolioBacktest.class);
+
+    /** Share of cash a new entry may be sized from, as ProfileManager leaves headroom. */
+    private static final double BUYING_POWER_USE = 0.95;
+
+    /** Per-symbol bars, read in chunks. */
+    @FunctionalInterface
+    public interface BarSource {
+        /** Bars {@code [from, from + count)} of {@code symbol}, oldest first; fewer (or none) at the end. */
+        BarSeries read(String symbol, int from, int count);
+
+        /** Streams from an archive's files. */
+        static BarSource archive(BarArchive archive, String timeframe) {
+            return (symbol, from, count) -> archive.readSeries(symbol, timeframe, from, count);
+        }
+
+        /** Serves views of series already in memory. */
+        static BarSource of(Map<String, BarSeries> series) {
+            return (symbol, from, count) -> {
+                var s = series.get(symbol);
+                if (s == null || from >= s.size()) return new BarSeries(1);
+                return s.view(from, Math.min(s.size(), from + count));
+            };
+        }
+    }
+
+    /** The market regime at a bar time; asked once per bar time, in time order. */
+    @FunctionalInterface
+    public interface RegimeSource {
+        MarketRegime at(Instant time);
+
+        static RegimeSource fixed(MarketRegime regime) {
+            return time -> regime;
+        }
+
+        /**
+         * The live {@link MarketRegimeDetector}, fed {@code dailyBars} (SPY and the VIX proxy at
+         * least) through a {@link SimulatedBrokerClient} that is advanced to each bar time.
+         */
+        static RegimeSource detector(Config config, Map<String, List<Bar>> dailyBars) {
+            Instant first = dailyBars.values().stream()
+                .filter(list -> !list.isEmpty())
+                .map(list -> list.getFirst().timestamp())
+                .min(Instant::compareTo)
+                .orElseThrow(() -> new IllegalArgumentException("No market bars for regime detection"));
+            var clock = new VirtualClock(first);
+            var sim = new SimulatedBrokerClient(clock, "1Day", dailyBars, SimulatedBrokerClient.Settings.defaults(0));
+            var detector = new MarketRegimeDetector(sim, config, new MarketAnalyzer(sim), clock);
+            return time -> {
+                while (sim.peekNext().filter(next -> !next.isAfter(time)).isPresent()) {
+                    sim.advance();
+                }
+                return detector.getCurrentRegime().regime();
+            };
+        }
+    }
+
+    /**
+     * {@code lookbackBars} is how many bars the strategy sees (BacktestEngine uses 100);
+     * {@code warmupBars} is how many a symbol needs before it may trade; {@code chunkBars} is how
+     * many are read from the source at a time; {@code vix} feeds position sizing.
+     */
+    public record Settings(double initialCapital, int warmupBars, int lookbackBars, int chunkBars, double vix) {
+        public Settings {
+            if (initialCapital <= 0) throw new IllegalArgumentException("Initial capital must be positive");
+            if (lookbackBars < 1 || chunkBars < 1) throw new IllegalArgumentException("Window sizes must be positive");
+        }
+
+        public static Settings defaults(double initialCapital) {
+            return new Settings(initialCapital, 50, 100, 256, 15.0);
+        }
+    }
+
+    /** Why a buy signal did not become a position. */
+    public enum Veto { NOT_SELECTED, POSITION_LIMIT, TIER_LIMIT, DRAWDOWN_HALT, CORRELATION, NO_SIZE }
+
+    /** One symbol's share of the result. {@code contributionPercent} is of the total P&L. */
+    public record Attribution(String symbol, int trades, int wins, double pnl, double contributionPercent,
+                              long barsHeld, int buySignals, int vetoed) {}
+
+    public record EquityPoint(Instant time, double equity) {}
+
+    /**
+     * Outcome of a run. Positions still open at the end are closed at their last price with
+     * reason {@code END_OF_DATA}, so final capital is initial capital plus every trade's P&L.
+     */
+    public record Run(
+        BacktestResult result,
+        List<EquityPoint> equityCurve,
+        Map<String, Attribution> attribution,
+        Map<Veto, Long> vetoes,
+        long barsProcessed,
+        int maxOpenPositions,
+        Duration wallTime
+    ) {}
+
+    private final Config config;
+    private final TradingProfile profile;
+    private final BarSource source;
+    private final RegimeSource regimes;
+    private final Settings settings;
+
+    public PortfolioBacktest(Config config, TradingProfile profile, BarSource source, RegimeSource regimes,
+                             Settings settings) {
+        this.config = config;
+        this.profile = profile;
+        this.source = source;
+        this.regimes = regimes;
+        this.settings = settings;
+    }
+
+    public Run run() {
+        return new Replay().run();
+    }
+
+    /** A symbol's read position in its source, its trailing bars and its open position. */
+    private final class Cursor {
+        final int index;
+        final String symbol;
+        final BarSeries history = new BarSeries(settings.lookbackBars() + 1);
+        BarSeries chunk;
+        int chunkPos;
+        int read;
+        long seen;
+
+        // Open position; quantity 0 means flat
+        double quantity;
+        double entryPrice;
+        double stopLoss;
+        double takeProfit;
+        long entryMillis;
+
+        // Attribution
+        int trades;
+        int wins;
+        double pnl;
+        long barsHeld;
+        int buySignals;
+        int vetoed;
+
+        Cursor(int index, String symbol) {
+            this.index = index;
+            this.symbol = symbol;
+            refill();
+        }
+
+        /** False once the source has nothing more for this symbol. */
+        boolean hasNext() {
+            return chunkPos < chunk.size() || refill();
+        }
+
+        long nextMillis() {
+            return chunk.timestampMillis(chunkPos);
+        }
+
+        void consume() {
+            history.append(chunk.timestampMillis(chunkPos), chunk.open(chunkPos), chunk.high(chunkPos),
+                chunk.low(chunkPos), chunk.close(chunkPos), chunk.volume(chunkPos));
+            chunkPos++;
+            seen++;
+        }
+
+        double price() {
+            return history.lastClose();
+        }
+
+        private boolean refill() {
+            chunk = source.read(symbol, read, settings.chunkBars());
+            chunkPos = 0;
+            read += chunk.size();
+            return chunk.size() > 0;
+        }
+    }
+
+    /** State of one run. */
+    private final class Replay {
+        private final StrategyManager strategies = new StrategyManager(null, null, config);
+        private final RiskManager riskManager = new RiskManager(settings.initialCapital());
+        private final SymbolSelector selector = new SymbolSelector(profile.bullishSymbols(),
+            profile.bearishSymbols(), profile.vixThreshold(), profile.vixHysteresis());
+        private final List<Cursor> cursors = new ArrayList<>();
+        private final List<Cursor> holdings = new ArrayList<>();
+        private final EnumMap<Veto, Long> vetoes = new EnumMap<>(Veto.class);
+        private final List<BacktestTrade> trades = new ArrayList<>();
+        private final List<EquityPoint> equityCurve = new ArrayList<>();
+        private final double[] returns = new double[CorrelationCalculator.CORRELATION_PERIOD];
+        private final double[] otherReturns = new double[CorrelationCalculator.CORRELATION_PERIOD];
+        private double cash = settings.initialCapital();
+        private int maxOpen;
+        private long processed;
+
+        Run run() {
+            long started = System.nanoTime();
+            var universe = new LinkedHashMap<String, Cursor>();
+            for (var symbol : profile.bullishSymbols()) universe.computeIfAbsent(symbol, this::cursor);
+            for (var symbol : profile.bearishSymbols()) universe.computeIfAbsent(symbol, this::cursor);
+
+            var queue = new PriorityQueue<Cursor>((a, b) -> a.nextMillis() != b.nextMillis()
+                ? Long.compare(a.nextMillis(), b.nextMillis()) : Integer.compare(a.index, b.index));
+            for (var cursor : cursors) {
+                if (cursor.hasNext()) queue.add(cursor);
+            }
+
+            var batch = new ArrayList<Cursor>();
+            var active = new HashSet<String>();
+            while (!queue.isEmpty()) {
+                // Every symbol's bar at the next bar time
+                long now = queue.peek().nextMillis();
+                Instant time = Instant.ofEpochMilli(now);
+                batch.clear();
+                while (!queue.isEmpty() && queue.peek().nextMillis() == now) {
+                    var cursor = queue.poll();
+                    cursor.consume();
+                    batch.add(cursor);
+                    processed++;
+                }
+                MarketRegime regime = regimes.at(time);
+
+                for (var cursor : batch) {
+                    if (cursor.quantity != 0) exit(cursor, time, regime);
+                }
+
+                double equity = equity();
+                boolean halted = riskManager.shouldHaltTrading(equity);
+                active.clear();
+                active.addAll(selector.selectSymbols(regime));
+                for (var cursor : batch) {
+                    if (cursor.quantity == 0 && cursor.seen > settings.warmupBars()) {
+                        enter(cursor, time, regime, active, halted, equity);
+                    }
+                }
+
+                equityCurve.add(new EquityPoint(time, equity()));
+                for (var cursor : batch) {
+                    if (cursor.hasNext()) queue.add(cursor);
+                }
+            }
+
+            Instant end = equityCurve.isEmpty() ? Instant.EPOCH : equityCurve.getLast().time();
+            for (var cursor : List.copyOf(holdings)) close(cursor, end, "END_OF_DATA");
+
+            double totalPnL = 0;
+            for (var cursor : cursors) totalPnL += cursor.pnl;
+            var attribution = new LinkedHashMap<String, Attribution>();
+            for (var c : cursors) {
+                attribution.put(c.symbol, new Attribution(c.symbol, c.trades, c.wins, c.pnl,
+                    totalPnL != 0 ? c.pnl / Math.abs(totalPnL) * 100 : 0, c.barsHeld, c.buySignals, c.vetoed));
+            }
+
+            var result = summarize(String.join(",", universe.keySet()), totalPnL);
+            var wall = Duration.ofNanos(System.nanoTime() - started);
+            logger.info("Portfolio backtest: {} symbols, {} bars in {} ms: {} trades, {}% return, max {} open",
+                cursors.size(), processed, wall.toMillis(), trades.size(),
+                String.format("%.2f", result.returnPercent()), maxOpen);
+            return new Run(result, List.copyOf(equityCurve), attribution, vetoes, processed, maxOpen, wall);
+        }
+
+        private Cursor cursor(String symbol) {
+            var cursor = new Cursor(cursors.size(), symbol);
+            cursors.add(cursor);
+            return cursor;
+        }
+
+        /** BacktestEngine's exit rules with the profile's percentages. */
+        private void exit(Cursor cursor, Instant time, MarketRegime regime) {
+            cursor.barsHeld++;
+            double price = cursor.price();
+            if (price <= cursor.stopLoss) {
+                close(cursor, time, "STOP_LOSS");
+                return;
+            }
+            if (price >= cursor.takeProfit) {
+                close(cursor, time, "TAKE_PROFIT");
+                return;
+            }
+            double trail = price * (1.0 - profile.trailingStopPercent() / 100.0);
+            if (trail > cursor.stopLoss) cursor.stopLoss = trail;
+            var signal = strategies.evaluateWithHistory(cursor.symbol, price, cursor.quantity, cursor.history, regime);
+            if (signal instanceof TradingSignal.Sell) close(cursor, time, "SIGNAL_SELL");
+        }
+
+        private void enter(Cursor cursor, Instant time, MarketRegime regime, Set<String> active,
+                           boolean halted, double equity) {
+            double price = cursor.price();
+            var signal = strategies.evaluateWithHistory(cursor.symbol, price, 0, cursor.history, regime);
+            if (!(signal instanceof TradingSignal.Buy)) return;
+            cursor.buySignals++;
+
+            Veto veto = null;
+            double shares = 0;
+            if (!active.contains(cursor.symbol)) {
+                veto = Veto.NOT_SELECTED;
+            } else if (halted) {
+                veto = Veto.DRAWDOWN_HALT;
+            } else if (holdings.size() >= config.getMaxPositionsAtOnce()) {
+                veto = Veto.POSITION_LIMIT;
+            } else if (!riskManager.canOpenPosition(holdings.size(), equity)) {
+                veto = Veto.TIER_LIMIT;
+            } else if (correlationCapped(cursor)) {
+                veto = Veto.CORRELATION;
+            } else {
+                double available = Math.min(cash * BUYING_POWER_USE, equity);
+                shares = Math.min(riskManager.calculatePositionSize(available, price, settings.vix()), cash / price);
+                if (!(shares * price >= 1.0)) veto = Veto.NO_SIZE;
+            }
+            if (veto != null) {
+                vetoes.merge(veto, 1L, Long::sum);
+                cursor.vetoed++;
+                return;
+            }
+
+            cursor.quantity = shares;
+            cursor.entryPrice = price;
+            cursor.stopLoss = price * (1.0 - profile.stopLossPercent() / 100.0);
+            cursor.takeProfit = price * (1.0 + profile.takeProfitPercent() / 100.0);
+            cursor.entryMillis = time.toEpochMilli();
+            cash -= shares * price;
+            holdings.add(cursor);
+            maxOpen = Math.max(maxOpen, holdings.size());
+        }
+
+        private void close(Cursor cursor, Instant time, String reason) {
+            double price = cursor.price();
+            double pnl = (price - cursor.entryPrice) * cursor.quantity;
+            trades.add(new BacktestTrade(cursor.symbol, Instant.ofEpochMilli(cursor.entryMillis), time,
+                cursor.entryPrice, price, cursor.quantity, pnl, reason));
+            cash += cursor.quantity * price;
+            cursor.trades++;
+            if (pnl > 0) cursor.wins++;
+            cursor.pnl += pnl;
+            cursor.quantity = 0;
+            holdings.remove(cursor);
+        }
+
+        private double equity() {
+            double value = cash;
+            for (var cursor : holdings) value += cursor.quantity * cursor.price();
+            return value;
+        }
+
+        /**
+         * True when entering {@code candidate} would make it the
+         * {@code CORRELATION_CAP_MAX_CONCURRENT}-th open position correlated with it at or above
+         * {@code CORRELATION_CAP_THRESHOLD}. Symbols without enough history count as uncorrelated.
+         */
+        private boolean correlationCapped(Cursor candidate) {
+            if (!config.isCorrelationCapEnabled() || holdings.isEmpty() || !returns(candidate, returns)) return false;
+            double threshold = config.getCorrelationCapThreshold();
+            int related = 0;
+            for (var held : holdings) {
+                if (returns(held, otherReturns)
+                        && Math.abs(CorrelationCalculator.correlation(returns, otherReturns)) >= threshold) {
+                    related++;
+                }
+            }
+            return related >= config.getCorrelationCapMaxConcurrent();
+        }
+
+        /** The trailing close-to-close returns into {@code into}; false without enough bars. */
+        private static boolean returns(Cursor cursor, double[] into) {
+            var history = cursor.history;
+            int n = into.length;
+            if (history.size() < n + 1) return false;
+            int base = history.size() - n - 1;
+            for (int k = 0; k < n; k++) {
+                double previous = history.close(base + k);
+                into[k] = previous != 0 ? (history.close(base + k + 1) - previous) / previous : 0;
+            }
+            return true;
+        }
+
+        private BacktestResult summarize(String symbols, double totalPnL) {
+            double initial = settings.initialCapital();
+            double peak = initial;
+            double maxDrawdown = 0;
+            for (var point : equityCurve) {
+                peak = Math.max(peak, point.equity());
+                if (peak > 0) maxDrawdown = Math.max(maxDrawdown, (peak - point.equity()) / peak * 100);
+            }
+            int wins = (int) trades.stream().filter(t -> t.pnl() > 0).count();
+            return new BacktestResult(symbols, initial, cash, trades.size(), wins, trades.size() - wins,
+                totalPnL, maxDrawdown, List.copyOf(trades));
+        }
+    }
+}
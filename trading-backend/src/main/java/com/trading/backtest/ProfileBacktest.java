@@ -0,0 +1,218 @@
+package com.trading.backtest;
+
+import com.trading.analysis.MarketAnalyzer;
+import com.trading.api.ExchangeCalendar;
+import com.trading.api.RequestScheduler;
+import com.trading.api.ResilientBrokerClient;
+import com.trading.api.model.Bar;
+import com.trading.backtest.BacktestEngine.BacktestResult;
+import com.trading.backtest.BacktestEngine.BacktestTrade;
+import com.trading.config.Config;
+import com.trading.filters.MarketHoursFilter;
+import com.trading.filters.VolatilityFilter;
+import com.trading.persistence.TradeDatabase;
+import com.trading.portfolio.ProfileManager;
+import com.trading.protection.PDTProtection;
+import com.trading.strategy.StrategyManager;
+import com.trading.strategy.TradingProfile;
+import ch.qos.logback.classic.Level;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Event-driven backtest of the real bot: one ProfileManager, unmodified in its decisions, trading
+ * a {@link SimulatedBrokerClient} that replays recorded bars on a {@link VirtualClock}.
+ *
+ * Unlike {@link BacktestEngine}, which re-implements the exit rules around StrategyManager, this
+ * exercises everything a live cycle does — regime detection, filters, sizing, PDT guards, bracket
+ * and stop orders, time-based exits — so results reflect the code that actually trades. Time only
+ * advances between cycles, so replay is bound by the cycle itself. A replay skips what only a
+ * watcher needs — dashboard broadcasts, and the application's INFO logging, raised to WARN
+ * while it runs — but still takes each cycle's full decision path: about 6 ms for the 26 main
+ * profile symbols. A year of 5-minute bars, some 20,000 cycles, therefore takes about two minutes.
+ * Replaying it in seconds would take a cheaper cycle, not a cheaper harness, and is not a goal here.
+ *
+ * ProfileManager keeps some cross-profile state in statics (cooldowns, circuit breakers) keyed by
+ * broker name; replays run under the broker name {@code "backtest"} and must not share a JVM with
+ * a live bot.
+ *
+ * Usage:
+ * <pre>
+ *   var bars = Map.of("SPY", alpacaClient.getBars("SPY", "5Min", 20_000));
+ *   var run = ProfileBacktest.run(config, TradingProfile.main(config), "5Min", bars, Map.of(),
+ *       ProfileBacktest.Options.defaults(1000));
+ *   System.out.println(run.result().summary());
+ * </pre>
+ */
+public final class ProfileBacktest {
+    private static final Logger logger = LoggerFactory.getLogger(ProfileBacktest.class);
+
+    public static final String BROKER_NAME = "backtest";
+    private static final ExchangeCalendar NYSE = ExchangeCalendar.nyse();
+
+    // Replays running with the application loggers raised to WARN, and the level to restore
+    private static int quietReplays;
+    private static Level savedLevel;
+
+    private ProfileBacktest() {}
+
+    /**
+     * Replay parameters. {@code cycleInterval} is how often a trading cycle runs in market time;
+     * {@link Duration#ZERO} runs one after every replayed bar.
+     */
+    public record Options(SimulatedBrokerClient.Settings broker, Duration cycleInterval) {
+        public static Options defaults(double startingCash) {
+            return new Options(SimulatedBrokerClient.Settings.defaults(startingCash), Duration.ZERO);
+        }
+    }
+
+    /** Equity after a replayed bar. */
+    public record EquityPoint(Instant time, double equity) {}
+
+    /** Outcome of a replay: trades and drawdown in BacktestEngine's terms, plus replay statistics. */
+    public record Run(
+        BacktestResult result,
+        List<EquityPoint> equityCurve,
+        List<SimulatedBrokerClient.Fill> fills,
+        int barsReplayed,
+        int cycles,
+        long rejectedOrders,
+        Duration wallTime
+    ) {}
+
+    /**
+     * Replay {@code bars} (per symbol, all in {@code timeframe}, oldest first) through a fresh
+     * ProfileManager. {@code dailyHistory} gives daily warm-up bars before the first replay day
+     * for symbols that need them, including VIX proxies such as VIXY.
+     */
+    public static Run run(Config config, TradingProfile profile, String timeframe,
+                          Map<String, List<Bar>> bars, Map<String, List<Bar>> dailyHistory, Options options) {
+        long started = System.nanoTime();
+        Instant first = bars.values().stream()
+            .filter(list -> !list.isEmpty())
+            .map(list -> list.getFirst().timestamp())
+            .min(Instant::compareTo)
+            .orElseThrow(() -> new IllegalArgumentException("No bars to replay"));
+
+        var clock = new VirtualClock(first);
+        var sim = new SimulatedBrokerClient(clock, timeframe, bars, options.broker());
+        dailyHistory.forEach(sim::addDailyHistory);
+
+        // No real rate limit to respect: the scheduler only has to stay out of the way
+        var scheduler = new RequestScheduler(BROKER_NAME, Integer.MAX_VALUE / 2, Duration.ofSeconds(30));
+        var client = new ResilientBrokerClient(sim, new SimpleMeterRegistry(), scheduler,
+            RequestScheduler.Priority.EXIT);
+        var database = new TradeDatabase(":memory:", TradeDatabase.Mode.SINGLE_CONNECTION, 1, false);
+
+        double capital = options.broker().startingCash();
+        var equityCurve = new ArrayList<EquityPoint>();
+        int replayed = 0;
+        int cycles = 0;
+        var restoreLogs = quietLogs();
+        try {
+            var manager = new ProfileManager(
+                profile, capital, client, new StrategyManager(sim, null, config, BROKER_NAME),
+                new MarketHoursFilter(config, clock), new VolatilityFilter(sim), new MarketAnalyzer(sim),
+                database, new PDTProtection(database, options.broker().enforcePdt(), BROKER_NAME), config,
+                null, null, null, null, null, null, null, BROKER_NAME, clock);
+            manager.setDashboardUpdates(false);
+
+            long nextCycle = Long.MIN_VALUE;
+            while (true) {
+                var barStart = sim.peekNext();
+                if (barStart.isEmpty() || !sim.advance()) break;
+                replayed++;
+                long now = clock.millis();
+                if (NYSE.isOpen(barStart.get().toEpochMilli()) && now >= nextCycle) {
+                    try {
+                        manager.runSingleCycle();
+                    } catch (Exception e) {
+                        logger.warn("Backtest cycle at {} failed: {}", clock.instant(), e.getMessage());
+                    }
+                    cycles++;
+                    nextCycle = now + options.cycleInterval().toMillis();
+                }
+                equityCurve.add(new EquityPoint(clock.instant(), sim.getEquity()));
+            }
+        } finally {
+            restoreLogs.run();
+            client.close();
+            database.close();
+        }
+
+        var fills = sim.getFills();
+        var trades = roundTrips(fills);
+        String symbols = String.join(",", bars.keySet());
+        var result = summarize(symbols, capital, sim.getEquity(), trades, equityCurve);
+        var wall = Duration.ofNanos(System.nanoTime() - started);
+        logger.info("Profile backtest replayed {} bars ({} cycles) in {} ms: {} trades, {}% return",
+            replayed, cycles, wall.toMillis(), trades.size(), String.format("%.2f", result.returnPercent()));
+        return new Run(result, List.copyOf(equityCurve), fills, replayed, cycles, sim.getRejectedOrders(), wall);
+    }
+
+    /**
+     * Raise the application loggers to WARN for a replay — the cycle's INFO lines cost more than
+     * its decisions — and return the step that restores them once the last replay ends.
+     */
+    private static Runnable quietLogs() {
+        if (!(LoggerFactory.getLogger("com.trading") instanceof ch.qos.logback.classic.Logger app)) return () -> {};
+        synchronized (ProfileBacktest.class) {
+            if (quietReplays++ == 0) {
+                savedLevel = app.getLevel();
+                app.setLevel(Level.WARN);
+            }
+        }
+        return () -> {
+            synchronized (ProfileBacktest.class) {
+                if (--quietReplays == 0) app.setLevel(savedLevel);
+            }
+        };
+    }
+
+    /** Pair sells with earlier buys, first in first out; the exit reason is the closing order's type. */
+    static List<BacktestTrade> roundTrips(List<SimulatedBrokerClient.Fill> fills) {
+        var lots = new HashMap<String, ArrayDeque<double[]>>(); // symbol -> {qty, price, entryMillis}
+        var trades = new ArrayList<BacktestTrade>();
+        for (var fill : fills) {
+            var open = lots.computeIfAbsent(fill.symbol(), k -> new ArrayDeque<>());
+            if ("buy".equals(fill.side())) {
+                open.addLast(new double[]{fill.quantity(), fill.price(), fill.time().toEpochMilli()});
+                continue;
+            }
+            double remaining = fill.quantity();
+            while (remaining > 1e-9 && !open.isEmpty()) {
+                double[] lot = open.peekFirst();
+                double qty = Math.min(lot[0], remaining);
+                trades.add(new BacktestTrade(fill.symbol(), Instant.ofEpochMilli((long) lot[2]), fill.time(),
+                    lot[1], fill.price(), qty, (fill.price() - lot[1]) * qty, fill.orderType().toUpperCase()));
+                lot[0] -= qty;
+                remaining -= qty;
+                if (lot[0] <= 1e-9) open.pollFirst();
+            }
+        }
+        return trades;
+    }
+
+    private static BacktestResult summarize(String symbols, double initial, double finalEquity,
+                                            List<BacktestTrade> trades, List<EquityPoint> curve) {
+        double peak = initial;
+        double maxDrawdown = 0;
+        for (var point : curve) {
+            peak = Math.max(peak, point.equity());
+            if (peak > 0) maxDrawdown = Math.max(maxDrawdown, (peak - point.equity()) / peak * 100);
+        }
+        int wins = (int) trades.stream().filter(t -> t.pnl() > 0).count();
+        double totalPnL = trades.stream().mapToDouble(BacktestTrade::pnl).sum();
+        return new BacktestResult(symbols, initial, finalEquity, trades.size(), wins, trades.size() - wins,
+            totalPnL, maxDrawdown, trades);
+    }
+}
@@ -0,0 +1,952 @@
+package com.trading.backtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.trading.api.BrokerClient;
+import com.trading.api.ExchangeCalendar;
+import com.trading.api.OrderRejectedException;
+import com.trading.api.PDTRejectedException;
+import com.trading.api.model.Bar;
+import com.trading.api.model.BracketOrderResult;
+import com.trading.api.model.Position;
+import com.trading.marketdata.BarCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * BrokerClient over recorded bars on a {@link VirtualClock}, so the real trading stack —
+ * ProfileManager and everything it drives — can run against history faster than real time.
+ *
+ * Time moves only in {@link #advance}: it takes the earliest next bar across all symbols (a
+ * k-way merge of the per-symbol series), works resting orders against those bars and moves the
+ * clock to their close. Market data calls return only bars that have closed, so there is no
+ * lookahead: an order placed during a cycle fills on a later bar.
+ *
+ * Fill rules against a bar's OHLC: market orders fill at the open; limits at the open when it is
+ * already through the limit, else at the limit once the range reaches it; stops at the open on a
+ * gap, else at the stop price; a stop-limit becomes a limit once triggered. Trailing stops are
+ * checked against the bar and then ratchet to its high (low, for buys). Bracket legs activate
+ * when the entry fills and are checked on the same bar; when both legs are in range the stop is
+ * assumed to fill first. Market and stop fills pay {@link Settings#slippageBps} adverse slippage.
+ * DAY orders expire at the end of their session.
+ *
+ * Other timeframes are aggregated from the replay bars (15Min, 1Hour and 1Day from 5Min bars,
+ * say), including the still-forming bar. Daily warm-up history before the first replay day comes
+ * from {@link #addDailyHistory}. The account is cash-only and long-only, like the live bot's; with
+ * {@link Settings#enforcePdt} a fourth day trade in five sessions under $25k is rejected the way
+ * Alpaca rejects it.
+ *
+ * Thread-safe: one lock guards orders, positions and the bar cursors.
+ */
+public final class SimulatedBrokerClient implements BrokerClient {
+    private static final Logger logger = LoggerFactory.getLogger(SimulatedBrokerClient.class);
+
+    private static final JsonNodeFactory JSON = JsonNodeFactory.instance;
+    private static final ExchangeCalendar NYSE = ExchangeCalendar.nyse();
+    private static final double PDT_EQUITY_MINIMUM = 25_000.0;
+    private static final int PDT_MAX_DAY_TRADES = 3;
+    private static final int PDT_WINDOW_SESSIONS = 5;
+    private static final int ORDER_HISTORY_LIMIT = 500;
+
+    /** Account and execution parameters. */
+    public record Settings(double startingCash, double slippageBps, boolean enforcePdt) {
+        public static Settings defaults(double startingCash) {
+            return new Settings(startingCash, 1.0, true);
+        }
+    }
+
+    /** One execution. */
+    public record Fill(String orderId, String symbol, String side, double quantity, double price,
+                       Instant time, String orderType) {}
+
+    private enum Status {
+        NEW, HELD, FILLED, CANCELED, EXPIRED, REJECTED;
+
+        boolean isOpen() {
+            return this == NEW || this == HELD;
+        }
+
+        String json() {
+            return name().toLowerCase();
+        }
+    }
+
+    private static final class Order {
+        final String id;
+        final String symbol;
+        final String side;
+        final String orderClass;
+        final String timeInForce;
+        final Instant createdAt;
+        final LocalDate session;
+        String type;
+        double quantity;
+        Double limitPrice;
+        Double stopPrice;
+        Double trailPercent;
+        double watermark;
+        Status status;
+        Order ocoSibling;
+        List<Order> legs = List.of();
+        double filledPrice;
+        Instant filledAt;
+
+        Order(String id, String symbol, String side, String type, String orderClass, String timeInForce,
+              double quantity, Instant createdAt, LocalDate session) {
+            this.id = id;
+            this.symbol = symbol;
+            this.side = side;
+            this.type = type;
+            this.orderClass = orderClass;
+            this.timeInForce = timeInForce;
+            this.quantity = quantity;
+            this.createdAt = createdAt;
+            this.session = session;
+            this.status = Status.NEW;
+        }
+
+        boolean isBuy() {
+            return "buy".equals(side);
+        }
+    }
+
+    /** Replay bars of one symbol plus the aggregated views built from them. */
+    private static final class Series {
+        final String symbol;
+        final List<Bar> bars;
+        final List<Bar> dailyHistory = new ArrayList<>();
+        final Map<Duration, Aggregation> aggregations = new HashMap<>();
+        int visible; // bars[0, visible) have closed
+
+        Series(String symbol, List<Bar> bars) {
+            this.symbol = symbol;
+            this.bars = bars;
+        }
+
+        Bar last() {
+            return visible > 0 ? bars.get(visible - 1) : dailyHistory.isEmpty() ? null : dailyHistory.getLast();
+        }
+    }
+
+    /**
+     * Replay bars folded into a coarser timeframe, caught up incrementally: completed buckets
+     * plus the one still forming from the newest visible bars.
+     */
+    private static final class Aggregation {
+        final Duration size;
+        final List<Bar> completed = new ArrayList<>();
+        Bar forming;
+        long formingKey = Long.MIN_VALUE;
+        int consumed;
+
+        Aggregation(Duration size, List<Bar> seed) {
+            this.size = size;
+            completed.addAll(seed);
+        }
+
+        long bucket(Instant time) {
+            if (size.compareTo(Duration.ofDays(1)) >= 0) {
+                return LocalDate.ofInstant(time, ExchangeCalendar.NY).toEpochDay() / size.toDays();
+            }
+            return time.toEpochMilli() / size.toMillis();
+        }
+
+        List<Bar> window(Series series, int limit) {
+            for (; consumed < series.visible; consumed++) {
+                Bar bar = series.bars.get(consumed);
+                long key = bucket(bar.timestamp());
+                if (forming != null && key == formingKey) {
+                    forming = new Bar(forming.timestamp(), forming.open(), Math.max(forming.high(), bar.high()),
+                        Math.min(forming.low(), bar.low()), bar.close(), forming.volume() + bar.volume());
+                } else {
+                    if (forming != null) completed.add(forming);
+                    forming = bar;
+                    formingKey = key;
+                }
+            }
+            int total = completed.size() + (forming != null ? 1 : 0);
+            int from = Math.max(0, total - limit);
+            var result = new ArrayList<Bar>(total - from);
+            for (int i = from; i < completed.size(); i++) result.add(completed.get(i));
+            if (forming != null && total > from) result.add(forming);
+            return result;
+        }
+    }
+
+    private record Cursor(Series series, long start) {}
+
+    private final VirtualClock clock;
+    private final Duration barSize;
+    private final Settings settings;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, Series> series = new LinkedHashMap<>();
+    private final PriorityQueue<Cursor> timeline =
+        new PriorityQueue<>((a, b) -> Long.compare(a.start(), b.start()));
+
+    private final List<Order> openOrders = new ArrayList<>();
+    private final ArrayDeque<Order> closedOrders = new ArrayDeque<>();
+    private final List<Fill> fills = new ArrayList<>();
+    private final Map<String, double[]> holdings = new LinkedHashMap<>(); // symbol -> {qty, avgPrice}
+    private final Map<String, LocalDate> lastBuySession = new HashMap<>();
+    private final ArrayDeque<LocalDate> dayTrades = new ArrayDeque<>();
+    private double cash;
+    private double lastEquity;
+    private LocalDate equitySession;
+    private Instant replaying;
+    private long nextOrderId = 1;
+    private long rejectedOrders;
+
+    /**
+     * @param timeframe replay bar size, e.g. "5Min"; every series must use it
+     * @param bars      bars per symbol, oldest first
+     */
+    public SimulatedBrokerClient(VirtualClock clock, String timeframe, Map<String, List<Bar>> bars, Settings settings) {
+        this.clock = clock;
+        this.barSize = BarCache.barDuration(timeframe);
+        this.settings = settings;
+        this.cash = settings.startingCash();
+        this.lastEquity = settings.startingCash();
+        bars.forEach((symbol, list) -> {
+            var s = new Series(symbol, List.copyOf(list));
+            series.put(symbol, s);
+            if (!s.bars.isEmpty()) timeline.add(new Cursor(s, s.bars.getFirst().timestamp().toEpochMilli()));
+        });
+    }
+
+    /**
+     * Daily bars before the replay starts, oldest first, so daily indicators have history on the
+     * first replay day. Bars on or after the first replay day are ignored.
+     */
+    public void addDailyHistory(String symbol, List<Bar> daily) {
+        lock.lock();
+        try {
+            var s = series.computeIfAbsent(symbol, k -> new Series(k, List.of()));
+            LocalDate firstReplayDay = s.bars.isEmpty() ? LocalDate.MAX
+                : LocalDate.ofInstant(s.bars.getFirst().timestamp(), ExchangeCalendar.NY);
+            for (Bar bar : daily) {
+                if (LocalDate.ofInstant(bar.timestamp(), ExchangeCalendar.NY).isBefore(firstReplayDay)) {
+                    s.dailyHistory.add(bar);
+                }
+            }
+            s.aggregations.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ── Replay ───────────────────────────────────────────────────────────────
+
+    /** Start of the next bar to replay, or empty when every series is exhausted. */
+    public Optional<Instant> peekNext() {
+        lock.lock();
+        try {
+            var next = timeline.peek();
+            return next == null ? Optional.empty() : Optional.of(Instant.ofEpochMilli(next.start()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Replay the next bar time: fill resting orders against every symbol's bar that starts then,
+     * publish those bars and move the clock to their close. Returns false when nothing is left.
+     */
+    public boolean advance() {
+        lock.lock();
+        try {
+            var first = timeline.poll();
+            if (first == null) return false;
+            long start = first.start();
+            var due = new ArrayList<Series>();
+            due.add(first.series());
+            while (!timeline.isEmpty() && timeline.peek().start() == start) due.add(timeline.poll().series());
+
+            replaying = Instant.ofEpochMilli(start);
+            rollSession(replaying);
+            for (Series s : due) {
+                Bar bar = s.bars.get(s.visible);
+                work(s.symbol, bar);
+                s.visible++;
+                if (s.visible < s.bars.size()) {
+                    timeline.add(new Cursor(s, s.bars.get(s.visible).timestamp().toEpochMilli()));
+                }
+            }
+            clock.advanceTo(Instant.ofEpochMilli(start).plus(barSize));
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** On the first bar of a new session: remember yesterday's equity and expire DAY orders. */
+    private void rollSession(Instant barStart) {
+        LocalDate session = LocalDate.ofInstant(barStart, ExchangeCalendar.NY);
+        if (session.equals(equitySession)) return;
+        if (equitySession != null) lastEquity = equity();
+        equitySession = session;
+        for (Order order : List.copyOf(openOrders)) {
+            if ("day".equals(order.timeInForce) && order.session.isBefore(session)) close(order, Status.EXPIRED);
+        }
+    }
+
+    private void work(String symbol, Bar bar) {
+        // Only orders already working at the open; legs a fill activates are tried from its price
+        var working = openOrders.stream()
+            .filter(o -> o.symbol.equals(symbol) && o.status == Status.NEW)
+            .toList();
+        for (Order order : working) {
+            if (order.status == Status.NEW) tryFill(order, bar, bar.open());
+        }
+    }
+
+    /**
+     * Fill {@code order} on {@code bar} if its conditions are met. {@code from} is the first price
+     * the order can see: the open, or a bracket entry's fill price for its legs.
+     */
+    private void tryFill(Order order, Bar bar, double from) {
+        double slip = settings.slippageBps() / 10_000.0;
+        boolean buy = order.isBuy();
+        Double price = switch (order.type) {
+            case "market" -> from * (buy ? 1 + slip : 1 - slip);
+            case "limit" -> limitFill(buy, order.limitPrice, from, bar);
+            case "stop" -> {
+                Double trigger = stopTrigger(buy, order.stopPrice, from, bar);
+                yield trigger == null ? null : trigger * (buy ? 1 + slip : 1 - slip);
+            }
+            case "stop_limit" -> {
+                Double trigger = stopTrigger(buy, order.stopPrice, from, bar);
+                if (trigger == null) yield null;
+                order.type = "limit"; // triggered: rests as a limit from here on
+                yield limitFill(buy, order.limitPrice, trigger, bar);
+            }
+            case "trailing_stop" -> {
+                double stop = buy ? order.watermark * (1 + order.trailPercent / 100.0)
+                                  : order.watermark * (1 - order.trailPercent / 100.0);
+                Double trigger = stopTrigger(buy, stop, from, bar);
+                order.watermark = buy ? Math.min(order.watermark, bar.low()) : Math.max(order.watermark, bar.high());
+                yield trigger == null ? null : trigger * (buy ? 1 + slip : 1 - slip);
+            }
+            default -> {
+                logger.warn("Simulated broker: unsupported order type '{}' cancelled", order.type);
+                close(order, Status.CANCELED);
+                yield null;
+            }
+        };
+        if (price == null || order.status != Status.NEW) return;
+        if (!execute(order, price)) return;
+
+        if (order.ocoSibling != null && order.ocoSibling.status.isOpen()) close(order.ocoSibling, Status.CANCELED);
+        if (!order.legs.isEmpty()) {
+            // Stop leg first: with both in range, assume the adverse one filled
+            var legs = order.legs.stream()
+                .sorted((a, b) -> Boolean.compare(!a.type.startsWith("stop"), !b.type.startsWith("stop")))
+                .toList();
+            for (Order leg : legs) {
+                if (leg.status == Status.HELD) leg.status = Status.NEW;
+            }
+            for (Order leg : legs) {
+                if (leg.status == Status.NEW) tryFill(leg, bar, price);
+            }
+        }
+    }
+
+    private static Double limitFill(boolean buy, Double limit, double from, Bar bar) {
+        if (limit == null) return from;
+        if (buy) {
+            if (from <= limit) return from;
+            return bar.low() <= limit ? limit : null;
+        }
+        if (from >= limit) return from;
+        return bar.high() >= limit ? limit : null;
+    }
+
+    private static Double stopTrigger(boolean buy, Double stop, double from, Bar bar) {
+        if (stop == null) return null;
+        if (buy) {
+            if (from >= stop) return from;
+            return bar.high() >= stop ? stop : null;
+        }
+        if (from <= stop) return from;
+        return bar.low() <= stop ? stop : null;
+    }
+
+    /** Apply a fill to cash and holdings; false when it cannot be (no shares, no cash). */
+    private boolean execute(Order order, double price) {
+        Instant now = replaying; // the bar being worked; the clock still shows the previous close
+        LocalDate session = LocalDate.ofInstant(now, ExchangeCalendar.NY);
+        double[] holding = holdings.get(order.symbol);
+        double held = holding != null ? holding[0] : 0;
+        double qty = order.quantity;
+
+        if (order.isBuy()) {
+            if (qty * price > cash + 1e-9) {
+                qty = Math.floor(cash / price * 1e6) / 1e6;
+                if (qty <= 0) {
+                    close(order, Status.CANCELED);
+                    logger.debug("Simulated broker: {} buy {} cancelled, insufficient buying power", order.symbol, order.id);
+                    return false;
+                }
+            }
+            cash -= qty * price;
+            double newQty = held + qty;
+            double avg = holding != null ? (holding[0] * holding[1] + qty * price) / newQty : price;
+            holdings.put(order.symbol, new double[]{newQty, avg});
+            lastBuySession.put(order.symbol, session);
+        } else {
+            qty = Math.min(qty, held);
+            if (qty <= 1e-9) {
+                close(order, Status.CANCELED);
+                return false;
+            }
+            cash += qty * price;
+            double remaining = held - qty;
+            if (remaining <= 1e-9) holdings.remove(order.symbol);
+            else holding[0] = remaining;
+            if (session.equals(lastBuySession.get(order.symbol))) dayTrades.add(session);
+        }
+
+        order.quantity = qty;
+        order.filledPrice = price;
+        order.filledAt = now;
+        close(order, Status.FILLED);
+        fills.add(new Fill(order.id, order.symbol, order.side, qty, price, now, order.type));
+        return true;
+    }
+
+    private void close(Order order, Status status) {
+        order.status = status;
+        openOrders.remove(order);
+        closedOrders.addFirst(order);
+        if (closedOrders.size() > ORDER_HISTORY_LIMIT) closedOrders.removeLast();
+        if (status != Status.FILLED) {
+            for (Order leg : order.legs) {
+                if (leg.status.isOpen()) close(leg, status);
+            }
+        }
+    }
+
+    // ── Reporting ────────────────────────────────────────────────────────────
+
+    public List<Fill> getFills() {
+        lock.lock();
+        try {
+            return List.copyOf(fills);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Cash plus holdings marked at their last closed bar. */
+    public double getEquity() {
+        lock.lock();
+        try {
+            return equity();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public double getCash() {
+        lock.lock();
+        try {
+            return cash;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getRejectedOrders() {
+        lock.lock();
+        try {
+            return rejectedOrders;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private double equity() {
+        double value = cash;
+        for (var entry : holdings.entrySet()) value += entry.getValue()[0] * lastPrice(entry.getKey(), entry.getValue()[1]);
+        return value;
+    }
+
+    private double lastPrice(String symbol, double fallback) {
+        var s = series.get(symbol);
+        Bar last = s != null ? s.last() : null;
+        return last != null ? last.close() : fallback;
+    }
+
+    // ── Orders ───────────────────────────────────────────────────────────────
+
+    private Order newOrder(String symbol, double qty, String side, String type, String orderClass, String timeInForce) {
+        Instant now = clock.instant();
+        long millis = now.toEpochMilli();
+        // A DAY order placed outside the session belongs to the next one
+        LocalDate session = LocalDate.ofInstant(
+            Instant.ofEpochMilli(NYSE.isOpen(millis) ? millis : NYSE.nextOpen(millis)), ExchangeCalendar.NY);
+        return new Order("sim-" + nextOrderId++, symbol, side, type, orderClass, timeInForce, qty, now, session);
+    }
+
+    /**
+     * Why the broker would refuse {@code order}, or null to accept it. PDT denials throw here, as
+     * the live client does; the order methods turn other refusals into an
+     * {@link OrderRejectedException}, which ResilientBrokerClient passes through without retrying.
+     */
+    private String admit(Order order) {
+        if (!(order.quantity > 0)) return "qty must be > 0";
+        if (!series.containsKey(order.symbol)) return "asset " + order.symbol + " not found";
+        if (order.isBuy()) {
+            double reference = order.limitPrice != null ? order.limitPrice : lastPrice(order.symbol, 0);
+            if (order.quantity * reference > buyingPower() + 1e-9) return "insufficient buying power";
+            return null;
+        }
+        double[] holding = holdings.get(order.symbol);
+        double available = (holding != null ? holding[0] : 0) - heldForOrders(order.symbol);
+        if (order.quantity > available + 1e-9) {
+            return String.format("insufficient qty available for order (requested: %.6f, available: %.6f)",
+                order.quantity, Math.max(0, available));
+        }
+        if (settings.enforcePdt() && wouldBeDayTrade(order.symbol) && equity() < PDT_EQUITY_MINIMUM
+                && dayTradeCount() >= PDT_MAX_DAY_TRADES) {
+            rejectedOrders++;
+            throw new PDTRejectedException("trade denied due to pattern day trading protection");
+        }
+        return null;
+    }
+
+    private double buyingPower() {
+        double reserved = 0;
+        for (Order order : openOrders) {
+            if (order.isBuy() && order.status == Status.NEW) {
+                double reference = order.limitPrice != null ? order.limitPrice : lastPrice(order.symbol, 0);
+                reserved += order.quantity * reference;
+            }
+        }
+        return Math.max(0, cash - reserved);
+    }
+
+    /** Shares already promised to open sell orders (OCO legs count once). */
+    private double heldForOrders(String symbol) {
+        double held = 0;
+        for (Order order : openOrders) {
+            if (!order.symbol.equals(symbol) || order.isBuy() || order.status != Status.NEW) continue;
+            if (order.ocoSibling != null && order.ocoSibling.status == Status.NEW && order.type.equals("limit")) continue;
+            held += order.quantity;
+        }
+        return held;
+    }
+
+    private boolean wouldBeDayTrade(String symbol) {
+        LocalDate today = LocalDate.ofInstant(clock.instant(), ExchangeCalendar.NY);
+        return today.equals(lastBuySession.get(symbol));
+    }
+
+    /** Day trades in the last five sessions, counting today. */
+    private int dayTradeCount() {
+        LocalDate today = LocalDate.ofInstant(clock.instant(), ExchangeCalendar.NY);
+        LocalDate cutoff = today;
+        for (int i = 1; i < PDT_WINDOW_SESSIONS; i++) {
+            cutoff = cutoff.minusDays(1);
+            while (!NYSE.isSessionDay(cutoff)) cutoff = cutoff.minusDays(1);
+        }
+        while (!dayTrades.isEmpty() && dayTrades.peekFirst().isBefore(cutoff)) dayTrades.pollFirst();
+        return dayTrades.size();
+    }
+
+    /** Accept {@code order} and its legs, or record it as rejected; returns the rejection reason. */
+    private String submit(Order order) {
+        String reason = admit(order);
+        if (reason != null) {
+            rejectedOrders++;
+            logger.debug("Simulated broker rejected {} {} {}: {}", order.side, order.quantity, order.symbol, reason);
+            close(order, Status.REJECTED);
+            return reason;
+        }
+        openOrders.add(order);
+        openOrders.addAll(order.legs);
+        return null;
+    }
+
+    /** {@link #submit}, throwing the rejection for the order calls that have no result to carry it. */
+    private void submitOrThrow(Order order) {
+        String reason = submit(order);
+        if (reason != null) throw new OrderRejectedException(reason);
+    }
+
+    @Override
+    public void placeOrder(String symbol, double qty, String side, String type, String timeInForce, Double limitPrice) {
+        lock.lock();
+        try {
+            var order = newOrder(symbol, qty, side, type, "simple", timeInForce);
+            order.limitPrice = limitPrice;
+            submitOrThrow(order);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void placeNativeStopOrder(String symbol, double qty, double stopPrice) {
+        lock.lock();
+        try {
+            boolean fractional = (qty % 1.0) != 0.0;
+            var order = newOrder(symbol, qty, "sell", "stop", "simple", fractional ? "day" : "gtc");
+            order.stopPrice = stopPrice;
+            submitOrThrow(order);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void placeTrailingStopOrder(String symbol, double qty, String side, double trailPercent) {
+        lock.lock();
+        try {
+            var order = newOrder(symbol, qty, side, "trailing_stop", "simple", "gtc");
+            order.trailPercent = trailPercent;
+            order.watermark = lastPrice(symbol, 0);
+            submitOrThrow(order);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Whole shares get a GTC bracket; fractional quantities a simple DAY order, as on Alpaca. */
+    @Override
+    public BracketOrderResult placeBracketOrder(String symbol, double qty, String side, double takeProfitPrice,
+                                                double stopLossPrice, Double stopLossLimitPrice, Double limitPrice) {
+        lock.lock();
+        try {
+            boolean fractional = Math.abs(qty - Math.floor(qty)) > 0.0001;
+            String type = limitPrice != null ? "limit" : "market";
+            if (fractional) {
+                var order = newOrder(symbol, qty, side, type, "simple", "day");
+                order.limitPrice = limitPrice;
+                String reason = submit(order);
+                return reason == null ? BracketOrderResult.withoutBracket(symbol, qty)
+                                      : BracketOrderResult.failed(symbol, qty, reason);
+            }
+            String reason = submit(bracket(symbol, qty, side, type, limitPrice, takeProfitPrice, stopLossPrice, stopLossLimitPrice));
+            return reason == null ? BracketOrderResult.withBracket(symbol, qty)
+                                  : BracketOrderResult.failed(symbol, qty, reason);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String placeBracketOrder(String symbol, double qty, String side, double takeProfitPrice,
+                                    double stopLossPrice, Double stopLossLimitPrice) {
+        lock.lock();
+        try {
+            var order = bracket(symbol, qty, side, "market", null, takeProfitPrice, stopLossPrice, stopLossLimitPrice);
+            submitOrThrow(order);
+            return order.id;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Order bracket(String symbol, double qty, String side, String type, Double limitPrice,
+                          double takeProfitPrice, double stopLossPrice, Double stopLossLimitPrice) {
+        String exitSide = "buy".equals(side) ? "sell" : "buy";
+        var parent = newOrder(symbol, qty, side, type, "bracket", "gtc");
+        parent.limitPrice = limitPrice;
+        var takeProfit = newOrder(symbol, qty, exitSide, "limit", "bracket", "gtc");
+        takeProfit.limitPrice = takeProfitPrice;
+        var stopLoss = newOrder(symbol, qty, exitSide, stopLossLimitPrice != null ? "stop_limit" : "stop", "bracket", "gtc");
+        stopLoss.stopPrice = stopLossPrice;
+        stopLoss.limitPrice = stopLossLimitPrice;
+        takeProfit.status = Status.HELD;
+        stopLoss.status = Status.HELD;
+        takeProfit.ocoSibling = stopLoss;
+        stopLoss.ocoSibling = takeProfit;
+        parent.legs = List.of(takeProfit, stopLoss);
+        return parent;
+    }
+
+    @Override
+    public void replaceOrder(String orderId, Double qty, Double limitPrice, Double stopPrice) {
+        lock.lock();
+        try {
+            var order = find(orderId);
+            if (order == null || !order.status.isOpen()) throw new IllegalStateException("Order " + orderId + " is not open");
+            if (qty != null) order.quantity = qty;
+            if (limitPrice != null) order.limitPrice = limitPrice;
+            if (stopPrice != null) order.stopPrice = stopPrice;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void cancelOrder(String orderId) {
+        lock.lock();
+        try {
+            var order = find(orderId);
+            if (order != null && order.status.isOpen()) close(order, Status.CANCELED);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void cancelAllOrders() {
+        lock.lock();
+        try {
+            for (Order order : List.copyOf(openOrders)) {
+                if (order.status.isOpen()) close(order, Status.CANCELED);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Order find(String orderId) {
+        for (Order order : openOrders) {
+            if (order.id.equals(orderId)) return order;
+        }
+        return null;
+    }
+
+    // ── Account ──────────────────────────────────────────────────────────────
+
+    @Override
+    public JsonNode getAccount() {
+        lock.lock();
+        try {
+            double equity = equity();
+            ObjectNode account = JSON.objectNode();
+            account.put("id", "simulated");
+            account.put("account_number", "SIM");
+            account.put("status", "ACTIVE");
+            account.put("currency", "USD");
+            account.put("cash", cash);
+            account.put("buying_power", buyingPower());
+            account.put("non_marginable_buying_power", buyingPower());
+            account.put("equity", equity);
+            account.put("last_equity", lastEquity);
+            account.put("portfolio_value", equity);
+            account.put("long_market_value", equity - cash);
+            account.put("short_market_value", 0.0);
+            account.put("multiplier", "1");
+            account.put("daytrade_count", dayTradeCount());
+            account.put("pattern_day_trader", false);
+            account.put("trading_blocked", false);
+            account.put("account_blocked", false);
+            account.put("transfers_blocked", false);
+            return account;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean validateAccountForTrading() {
+        return true;
+    }
+
+    @Override
+    public JsonNode getClock() {
+        long now = clock.millis();
+        boolean open = NYSE.isOpen(now);
+        ObjectNode node = JSON.objectNode();
+        node.put("timestamp", Instant.ofEpochMilli(now).toString());
+        node.put("is_open", open);
+        node.put("next_open", Instant.ofEpochMilli(NYSE.nextOpen(now)).toString());
+        node.put("next_close", Instant.ofEpochMilli(NYSE.nextClose(now)).toString());
+        return node;
+    }
+
+    @Override
+    public Optional<Position> getPosition(String symbol) {
+        lock.lock();
+        try {
+            double[] holding = holdings.get(symbol);
+            return holding == null ? Optional.empty() : Optional.of(position(symbol, holding));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Position> getPositions() {
+        lock.lock();
+        try {
+            var result = new ArrayList<Position>(holdings.size());
+            holdings.forEach((symbol, holding) -> result.add(position(symbol, holding)));
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Position position(String symbol, double[] holding) {
+        double last = lastPrice(symbol, holding[1]);
+        return new Position(symbol, holding[0], holding[0] * last, holding[1], (last - holding[1]) * holding[0]);
+    }
+
+    @Override
+    public JsonNode getOpenOrders(String symbol) {
+        lock.lock();
+        try {
+            ArrayNode result = JSON.arrayNode();
+            for (Order order : openOrders) {
+                if (order.symbol.equals(symbol)) result.add(toJson(order));
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public JsonNode getAllOpenOrders() {
+        lock.lock();
+        try {
+            ArrayNode result = JSON.arrayNode();
+            for (Order order : openOrders) result.add(toJson(order));
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public JsonNode getRecentOrders(String symbol) {
+        return getOrderHistory(symbol, 50);
+    }
+
+    /** Open and closed orders, newest first; a null symbol means every symbol. */
+    @Override
+    public JsonNode getOrderHistory(String symbol, int limit) {
+        lock.lock();
+        try {
+            ArrayNode result = JSON.arrayNode();
+            for (int i = openOrders.size() - 1; i >= 0 && result.size() < limit; i--) {
+                Order order = openOrders.get(i);
+                if (symbol == null || order.symbol.equals(symbol)) result.add(toJson(order));
+            }
+            for (Order order : closedOrders) {
+                if (result.size() >= limit) break;
+                if (symbol == null || order.symbol.equals(symbol)) result.add(toJson(order));
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public JsonNode getAccountActivities(String activityType, int limit) {
+        lock.lock();
+        try {
+            ArrayNode result = JSON.arrayNode();
+            if (activityType != null && !"FILL".equalsIgnoreCase(activityType)) return result;
+            for (int i = fills.size() - 1; i >= 0 && result.size() < limit; i--) {
+                Fill fill = fills.get(i);
+                result.addObject()
+                    .put("activity_type", "FILL")
+                    .put("order_id", fill.orderId())
+                    .put("symbol", fill.symbol())
+                    .put("side", fill.side())
+                    .put("qty", String.valueOf(fill.quantity()))
+                    .put("price", String.valueOf(fill.price()))
+                    .put("transaction_time", fill.time().toString());
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public JsonNode getNews(String symbol, int limit) {
+        return JSON.arrayNode();
+    }
+
+    private static ObjectNode toJson(Order order) {
+        ObjectNode node = JSON.objectNode();
+        node.put("id", order.id);
+        node.put("client_order_id", order.id);
+        node.put("symbol", order.symbol);
+        node.put("side", order.side);
+        node.put("type", order.type);
+        node.put("order_type", order.type);
+        node.put("order_class", order.orderClass);
+        node.put("time_in_force", order.timeInForce);
+        node.put("qty", String.valueOf(order.quantity));
+        node.put("status", order.status.json());
+        node.put("created_at", order.createdAt.toString());
+        if (order.limitPrice != null) node.put("limit_price", String.valueOf(order.limitPrice));
+        if (order.stopPrice != null) node.put("stop_price", String.valueOf(order.stopPrice));
+        if (order.trailPercent != null) {
+            node.put("trail_percent", String.valueOf(order.trailPercent));
+            node.put("hwm", String.valueOf(order.watermark));
+        }
+        if (order.status == Status.FILLED) {
+            node.put("filled_qty", String.valueOf(order.quantity));
+            node.put("filled_avg_price", String.valueOf(order.filledPrice));
+            node.put("filled_at", order.filledAt.toString());
+        } else {
+            node.put("filled_qty", "0");
+        }
+        return node;
+    }
+
+    // ── Market data ──────────────────────────────────────────────────────────
+
+    @Override
+    public Optional<Bar> getLatestBar(String symbol) {
+        lock.lock();
+        try {
+            var s = series.get(symbol);
+            return s == null ? Optional.empty() : Optional.ofNullable(s.last());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Bar> getBars(String symbol, String timeframe, int limit) {
+        lock.lock();
+        try {
+            var s = series.get(symbol);
+            if (s == null) return List.of();
+            Duration size = BarCache.barDuration(timeframe);
+            if (size.compareTo(barSize) <= 0) {
+                if (size.compareTo(barSize) < 0) {
+                    logger.debug("Simulated broker: {} requested below replay timeframe, serving {} bars", timeframe, barSize);
+                }
+                return List.copyOf(s.bars.subList(Math.max(0, s.visible - limit), s.visible));
+            }
+            var aggregation = s.aggregations.computeIfAbsent(size, k -> new Aggregation(k,
+                k.compareTo(Duration.ofDays(1)) >= 0 ? s.dailyHistory : List.of()));
+            return aggregation.window(s, limit);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Daily bars, the current session's forming bar last. */
+    @Override
+    public List<Bar> getMarketHistory(String symbol, int limit) {
+        return getBars(symbol, "1Day", limit);
+    }
+}
@@ -0,0 +1,74 @@
+package com.trading.backtest;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+
+/**
+ * A clock that only moves when told to. The backtest replay sets it to each bar's close, so
+ * everything reading it — ProfileManager's cooldowns and PDT blocks, exit hold times, market
+ * hours — sees market time instead of wall time. Never moves backwards.
+ */
+public final class VirtualClock extends Clock {
+
+    private final ZoneId zone;
+    private volatile long millis;
+
+    public VirtualClock(Instant start) {
+        this(start, ZoneId.systemDefault());
+    }
+
+    public VirtualClock(Instant start, ZoneId zone) {
+        this.zone = zone;
+        this.millis = start.toEpochMilli();
+    }
+
+    /** Move to {@code time}; an earlier time is ignored. */
+    public void advanceTo(Instant time) {
+        long target = time.toEpochMilli();
+        if (target > millis) millis = target;
+    }
+
+    @Override
+    public long millis() {
+        return millis;
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(millis);
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    /** A view on the same time in another zone — time moves for both. */
+    @Override
+    public Clock withZone(ZoneId zone) {
+        if (zone.equals(this.zone)) return this;
+        var owner = this;
+        return new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return zone;
+            }
+
+            @Override
+            public Clock withZone(ZoneId other) {
+                return owner.withZone(other);
+            }
+
+            @Override
+            public long millis() {
+                return owner.millis();
+            }
+
+            @Override
+            public Instant instant() {
+                return owner.instant();
+            }
+        };
+    }
+}
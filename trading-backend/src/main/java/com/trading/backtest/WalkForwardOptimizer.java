@@ -0,0 +1,300 @@
+package com.trading.backtest;
+
+import com.trading.api.model.BarSeries;
+import com.trading.backtest.BacktestEngine.BacktestConfig;
+import com.trading.backtest.BacktestEngine.BacktestTrade;
+import com.trading.backtest.ParameterSpace.Variant;
+import com.trading.backtest.ParameterSweep.Metrics;
+import com.trading.backtest.ParameterSweep.Objective;
+import com.trading.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Walk-forward optimization: optimize on a rolling in-sample window, then trade the winning
+ * parameters on the out-of-sample window that follows it, which the optimizer never saw.
+ *
+ * Windows advance by {@code stepBars} (by default the out-of-sample length, so out-of-sample
+ * windows tile the data without overlap). Each in-sample window is a {@link ParameterSweep}
+ * over the same variants; the out-of-sample backtest starts {@code warmupBars} before its window
+ * so indicators warm up on in-sample history, and trades only inside the window. Windows run in
+ * parallel and their sweeps fork into the same work-stealing pool.
+ *
+ * The report stitches the out-of-sample trades into one equity curve — each window compounding
+ * from where the previous one ended — and says how much the chosen parameters moved between
+ * windows: parameters that jump around from window to window are fitting noise.
+ */
+public final class WalkForwardOptimizer {
+    private static final Logger logger = LoggerFactory.getLogger(WalkForwardOptimizer.class);
+
+    /**
+     * Window layout and search. {@code stepBars} 0 means "same as {@code outOfSampleBars}";
+     * {@code parallelism} 0 means every available core.
+     */
+    public record Plan(int inSampleBars, int outOfSampleBars, int stepBars,
+                       ParameterSpace.Sampling sampling, int samples, long seed,
+                       Objective objective, int parallelism) {
+
+        public static Plan of(int inSampleBars, int outOfSampleBars) {
+            return new Plan(inSampleBars, outOfSampleBars, 0, ParameterSpace.Sampling.LATIN_HYPERCUBE, 200, 42,
+                Objective.SHARPE, 0);
+        }
+
+        int step() {
+            return stepBars > 0 ? stepBars : outOfSampleBars;
+        }
+    }
+
+    /** One in-sample/out-of-sample pair; bar ranges are half-open {@code [start, end)}. */
+    public record Window(
+        int index,
+        Instant inSampleStart,
+        Instant inSampleEnd,
+        Instant outOfSampleStart,
+        Instant outOfSampleEnd,
+        Map<String, Double> parameters,
+        Metrics inSample,
+        Metrics outOfSample,
+        List<BacktestTrade> outOfSampleTrades
+    ) {}
+
+    /** How one parameter's chosen value varied across windows. */
+    public record Stability(String parameter, double mean, double stdDev, double min, double max,
+                            int changes) {
+        /** Standard deviation relative to the mean; 0 for a constant, infinite around zero. */
+        public double coefficientOfVariation() {
+            if (stdDev == 0) return 0;
+            return mean != 0 ? stdDev / Math.abs(mean) : Double.POSITIVE_INFINITY;
+        }
+    }
+
+    public record EquityPoint(Instant time, double equity) {}
+
+    /**
+     * Result of a walk-forward run. {@code efficiency} is out-of-sample return per bar over
+     * in-sample return per bar of the winning variants (about 1 when results hold up out of
+     * sample; 0 when the in-sample return was not positive).
+     */
+    public record Report(
+        List<Window> windows,
+        List<EquityPoint> equityCurve,
+        double initialCapital,
+        double finalEquity,
+        double maxDrawdownPercent,
+        List<Stability> stability,
+        double efficiency,
+        Duration wallTime
+    ) {
+        public double returnPercent() {
+            return initialCapital > 0 ? (finalEquity - initialCapital) / initialCapital * 100 : 0;
+        }
+    }
+
+    private final Config baseConfig;
+    private final BacktestConfig base;
+    private final BarSeries bars;
+    private final ParameterSpace space;
+    private final Plan plan;
+
+    /** {@code bars} must not be written to while the optimizer runs. */
+    public WalkForwardOptimizer(Config baseConfig, BacktestConfig base, BarSeries bars, ParameterSpace space,
+                                Plan plan) {
+        int warmup = maxWarmup(base, space);
+        if (plan.inSampleBars() < warmup + 10) {
+            throw new IllegalArgumentException("In-sample window of " + plan.inSampleBars()
+                + " bars is too short for " + warmup + " warm-up bars");
+        }
+        if (plan.outOfSampleBars() < 10) {
+            throw new IllegalArgumentException("Out-of-sample window needs at least 10 bars");
+        }
+        this.baseConfig = baseConfig;
+        this.base = base;
+        this.bars = bars;
+        this.space = space;
+        this.plan = plan;
+    }
+
+    private static int maxWarmup(BacktestConfig base, ParameterSpace space) {
+        return space.parameters().stream()
+            .filter(p -> p.name().equals("warmupBars"))
+            .mapToInt(p -> (int) Math.ceil(p.max()))
+            .findFirst()
+            .orElse(base.warmupBars());
+    }
+
+    /** Number of windows the data allows. */
+    public int windowCount() {
+        int span = bars.size() - plan.inSampleBars() - plan.outOfSampleBars();
+        return span < 0 ? 0 : span / plan.step() + 1;
+    }
+
+    public Report run() {
+        return run(null, () -> false);
+    }
+
+    /**
+     * Run every window. {@code onWindow} hears about each finished window (from a worker thread,
+     * in completion order); once {@code cancelled} turns true, windows not yet started are
+     * skipped and the run throws {@link CancellationException}.
+     */
+    public Report run(Consumer<Window> onWindow, BooleanSupplier cancelled) {
+        long started = System.nanoTime();
+        int count = windowCount();
+        if (count == 0) {
+            throw new IllegalArgumentException("Need at least " + (plan.inSampleBars() + plan.outOfSampleBars())
+                + " bars for one window, have " + bars.size());
+        }
+        var variants = space.sample(plan.sampling(), plan.samples(), plan.seed());
+        var windows = new Window[count];
+        int parallelism = plan.parallelism() > 0 ? plan.parallelism() : Runtime.getRuntime().availableProcessors();
+        var pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new Windows(0, count, variants, windows, pool, onWindow, cancelled));
+        } finally {
+            pool.shutdown();
+        }
+        if (cancelled.getAsBoolean()) throw new CancellationException("Walk-forward cancelled");
+
+        var completed = new ArrayList<Window>(count);
+        for (Window window : windows) {
+            if (window != null) completed.add(window);
+        }
+        var report = stitch(completed, Duration.ofNanos(System.nanoTime() - started));
+        logger.info("Walk-forward: {} windows × {} variants in {} ms, out-of-sample return {}%, efficiency {}",
+            completed.size(), variants.size(), report.wallTime().toMillis(),
+            String.format("%.2f", report.returnPercent()), String.format("%.2f", report.efficiency()));
+        return report;
+    }
+
+    /** Optimize in-sample window {@code index}, then score the winner on the window after it. */
+    private Window window(int index, List<Variant> variants, ForkJoinPool pool) {
+        int isStart = index * plan.step();
+        int oosStart = isStart + plan.inSampleBars();
+        int oosEnd = oosStart + plan.outOfSampleBars();
+
+        var inSample = new ParameterSweep(baseConfig, base, bars.view(isStart, oosStart), space);
+        var ranked = inSample.run(variants, pool, plan.objective(), null);
+        if (ranked.isEmpty()) {
+            logger.warn("Walk-forward window {}: every variant failed in sample, skipped", index);
+            return null;
+        }
+        var best = ranked.getFirst();
+
+        // Warm up on the in-sample tail so the first out-of-sample bar is the first tradable one
+        int warmup = Math.min(inSample.configFor(best.variant(), new HashMap<>()).warmupBars(), oosStart);
+        var outOfSample = new ParameterSweep(baseConfig, base, bars.view(oosStart - warmup, oosEnd), space)
+            .evaluate(best.variant());
+
+        return new Window(index, bars.timestamp(isStart), bars.timestamp(oosStart - 1),
+            bars.timestamp(oosStart), bars.timestamp(oosEnd - 1), best.parameters(),
+            best.metrics(), outOfSample.metrics(), outOfSample.result().trades());
+    }
+
+    private Report stitch(List<Window> windows, Duration wallTime) {
+        double initial = base.initialCapital();
+        double equity = initial;
+        double peak = initial;
+        double maxDrawdown = 0;
+        var curve = new ArrayList<EquityPoint>();
+        double isReturnPerBar = 0;
+        double oosReturnPerBar = 0;
+
+        for (Window window : windows) {
+            curve.add(new EquityPoint(window.outOfSampleStart(), equity));
+            // Each window's backtest starts from base capital; rescale its P&L to the running equity
+            double scale = equity / initial;
+            double windowStart = equity;
+            var trades = window.outOfSampleTrades().stream()
+                .sorted(Comparator.comparing(BacktestTrade::exitTime))
+                .toList();
+            for (BacktestTrade trade : trades) {
+                equity += trade.pnl() * scale;
+                curve.add(new EquityPoint(trade.exitTime(), equity));
+                peak = Math.max(peak, equity);
+                if (peak > 0) maxDrawdown = Math.max(maxDrawdown, (peak - equity) / peak * 100);
+            }
+            if (windowStart > 0) oosReturnPerBar += (equity - windowStart) / windowStart * 100;
+            isReturnPerBar += window.inSample().returnPercent();
+        }
+        oosReturnPerBar /= Math.max(1, (long) windows.size() * plan.outOfSampleBars());
+        isReturnPerBar /= Math.max(1, (long) windows.size() * plan.inSampleBars());
+        double efficiency = isReturnPerBar > 0 ? oosReturnPerBar / isReturnPerBar : 0;
+
+        return new Report(List.copyOf(windows), curve, initial, equity, maxDrawdown,
+            stability(windows), efficiency, wallTime);
+    }
+
+    private List<Stability> stability(List<Window> windows) {
+        var result = new ArrayList<Stability>();
+        for (var parameter : space.parameters()) {
+            String name = parameter.name();
+            double[] values = windows.stream().mapToDouble(w -> w.parameters().get(name)).toArray();
+            if (values.length == 0) continue;
+            double sum = 0;
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            int changes = 0;
+            for (int i = 0; i < values.length; i++) {
+                sum += values[i];
+                min = Math.min(min, values[i]);
+                max = Math.max(max, values[i]);
+                if (i > 0 && values[i] != values[i - 1]) changes++;
+            }
+            double mean = sum / values.length;
+            double squares = 0;
+            for (double v : values) squares += (v - mean) * (v - mean);
+            double stdDev = values.length > 1 ? Math.sqrt(squares / (values.length - 1)) : 0;
+            result.add(new Stability(name, mean, stdDev, min, max, changes));
+        }
+        return result;
+    }
+
+    /** A range of windows, split so idle workers steal whole windows. */
+    private final class Windows extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final List<Variant> variants;
+        private final Window[] windows;
+        private final ForkJoinPool pool;
+        private final Consumer<Window> onWindow;
+        private final BooleanSupplier cancelled;
+
+        Windows(int from, int to, List<Variant> variants, Window[] windows, ForkJoinPool pool,
+                Consumer<Window> onWindow, BooleanSupplier cancelled) {
+            this.from = from;
+            this.to = to;
+            this.variants = variants;
+            this.windows = windows;
+            this.pool = pool;
+            this.onWindow = onWindow;
+            this.cancelled = cancelled;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Windows(from, mid, variants, windows, pool, onWindow, cancelled),
+                          new Windows(mid, to, variants, windows, pool, onWindow, cancelled));
+                return;
+            }
+            if (from == to || cancelled.getAsBoolean()) return;
+            var window = window(from, variants, pool);
+            windows[from] = window;
+            if (window != null && onWindow != null) onWindow.accept(window);
+        }
+    }
+}
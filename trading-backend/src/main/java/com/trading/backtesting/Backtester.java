@@ -3,6 +3,8 @@ package com.trading.backtesting;
 import com.trading.api.AlpacaClient;
 import com.trading.api.model.Bar;
 import com.trading.config.Config;
+import com.trading.marketdata.BarArchive;
+import com.trading.marketdata.BarCache;
 import com.trading.metrics.PerformanceMetrics;
 import com.trading.strategy.StrategyManager;
 import com.trading.strategy.TradingSignal;
@@ -233,7 +235,7 @@ public final class Backtester {
     
     private static HistoricalData fetchHistoricalData(String symbol, int days) {
         var config = new Config();
-        var client = new AlpacaClient(config);
+        var archive = BarArchive.forSource(config, "alpaca");
         
         var endDate = LocalDateTime.now();
         var startDate = endDate.minusDays(days + 20); // Extra for indicators
@@ -246,7 +248,11 @@ public final class Backtester {
         List<LocalDateTime> dates = new ArrayList<>();
         
         try {
-            var bars = client.getBars(symbol, "1Day", days + 20);
+            // A warm archive (filled by the live bot or an earlier run) needs no network at all
+            BarCache.BarFetcher fetch = (s, tf, limit) -> new AlpacaClient(config).getBars(s, tf, limit);
+            var bars = archive != null
+                ? archive.getOrFetch(symbol, "1Day", days + 20, BarArchive.DAILY_MAX_AGE, fetch)
+                : fetch.fetch(symbol, "1Day", days + 20);
             for (var bar : bars) {
                 prices.add(bar.close());
                 dates.add(bar.timestamp().atZone(java.time.ZoneId.systemDefault()).toLocalDateTime());
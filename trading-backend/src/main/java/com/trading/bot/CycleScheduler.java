@@ -0,0 +1,299 @@
+package com.trading.bot;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Decides when a trading loop runs its next cycle, replacing a fixed sleep between cycles.
+ *
+ * A loop calls {@link #awaitNext()} after each cycle and is woken by whichever comes first:
+ * <ul>
+ *   <li>a bar close — the next {@code barInterval} boundary plus a short settle delay so the
+ *       provider has published the bar (full cycle);</li>
+ *   <li>the price of a watched symbol leaving its stop/target band — checked against the
+ *       in-memory price source every {@code pollInterval}, edge-triggered so a price that stays
+ *       outside the band wakes the loop once, not every poll (that symbol only);</li>
+ *   <li>an order event reported through {@link #onOrderEvent} (that symbol only);</li>
+ *   <li>the safety sweep — at most {@code sweepInterval} between cycles (full cycle); a loop
+ *       holding positions without a price source passes a shorter one to
+ *       {@link #awaitNext(Duration)}.</li>
+ * </ul>
+ * Symbol-only wakeups closer together than {@code minGap} are coalesced into one. While idle the
+ * loop's heartbeat keeps beating, so liveness tracking sees a waiting loop as alive and only a
+ * stuck cycle as dead.
+ */
+public final class CycleScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(CycleScheduler.class);
+
+    private static final Duration BAR_SETTLE = Duration.ofSeconds(5);
+    private static final Duration HEARTBEAT_INTERVAL = Duration.ofSeconds(30);
+
+    public enum Reason { BAR_CLOSE, PRICE_BAND, ORDER_EVENT, SWEEP }
+
+    /** Latest known price for a symbol, from memory — never a network call. */
+    @FunctionalInterface
+    public interface PriceSource {
+        OptionalDouble lastPrice(String symbol);
+    }
+
+    /** Why the loop was woken, and for which symbols when not a full cycle. */
+    public record Wakeup(Set<Reason> reasons, Set<String> symbols) {
+        /** Bar closes and sweeps re-evaluate everything; price and order events only their symbols. */
+        public boolean isFullCycle() {
+            return reasons.contains(Reason.BAR_CLOSE) || reasons.contains(Reason.SWEEP);
+        }
+    }
+
+    public record SchedulerStats(long cycles, long barCloses, long bandCrossings, long orderEvents, long sweeps) {}
+
+    /** Prices strictly between {@code low} and {@code high} are quiet; touching either edge wakes the loop. */
+    public record Band(double low, double high) {
+        boolean contains(double price) {
+            return price > low && price < high;
+        }
+
+        /**
+         * A held position's band: its effective stop below, and above whichever comes first of the
+         * target and a new high one trail step over {@code peak} — the price at which a trailing
+         * stop ({@code trailFraction}, e.g. 0.005 for 0.5%; 0 for none) would be ratcheted up.
+         */
+        public static Band holding(double stop, double target, double peak, double trailFraction) {
+            double high = trailFraction > 0 ? Math.min(target, peak * (1 + trailFraction)) : target;
+            return new Band(stop, high);
+        }
+    }
+
+    private static final class Watch {
+        final Band band;
+        boolean armed = true;
+
+        Watch(Band band) {
+            this.band = band;
+        }
+    }
+
+    private final String name;
+    private final Duration sweepInterval;
+    private final Duration barInterval;
+    private final Duration pollInterval;
+    private final Duration minGap;
+    private final Clock clock;
+    private volatile PriceSource prices;
+    private volatile Runnable heartbeat = () -> {};
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition signalled = lock.newCondition();
+    private final Map<String, Watch> watches = new HashMap<>();
+    private final Set<Reason> pendingReasons = EnumSet.noneOf(Reason.class);
+    private final Set<String> pendingSymbols = new LinkedHashSet<>();
+    private long lastCycleMillis;
+    private long lastBeatMillis;
+
+    private final AtomicLong cycles = new AtomicLong();
+    private final AtomicLong barCloses = new AtomicLong();
+    private final AtomicLong bandCrossings = new AtomicLong();
+    private final AtomicLong orderEvents = new AtomicLong();
+    private final AtomicLong sweeps = new AtomicLong();
+
+    public CycleScheduler(String name, Duration sweepInterval, Duration barInterval) {
+        this(name, sweepInterval, barInterval, Duration.ofSeconds(1), Duration.ofSeconds(2), Clock.systemUTC());
+    }
+
+    CycleScheduler(String name, Duration sweepInterval, Duration barInterval, Duration pollInterval,
+                   Duration minGap, Clock clock) {
+        this.name = name;
+        this.sweepInterval = sweepInterval;
+        this.barInterval = barInterval;
+        this.pollInterval = pollInterval;
+        this.minGap = minGap;
+        this.clock = clock;
+        this.lastCycleMillis = clock.millis();
+        this.lastBeatMillis = clock.millis();
+    }
+
+    /** Where band checks read prices; without one only bar closes, order events and sweeps wake the loop. */
+    public void setPriceSource(PriceSource prices) {
+        this.prices = prices;
+    }
+
+    public boolean hasPriceSource() {
+        return prices != null;
+    }
+
+    /**
+     * The sweep a loop should wait with. Band crossings need a streamed price, so while positions
+     * are held — or when nothing streams prices — it is capped at {@code cycleInterval}, the fixed
+     * interval the loop used to run at.
+     */
+    public Duration sweepFor(boolean holding, Duration cycleInterval) {
+        if ((holding || prices == null) && sweepInterval.compareTo(cycleInterval) > 0) return cycleInterval;
+        return sweepInterval;
+    }
+
+    /** Called at most every 30s while the loop waits, e.g. {@code () -> TradingBot.beat(component)}. */
+    public void setHeartbeat(Runnable heartbeat) {
+        this.heartbeat = heartbeat != null ? heartbeat : () -> {};
+    }
+
+    /**
+     * Replace the watched bands — typically each held position's stop and target, refreshed after
+     * every cycle. A symbol whose band is unchanged keeps its trigger state, so a price already
+     * outside it does not fire again; a moved band (e.g. a raised trailing stop) re-arms.
+     */
+    public void setBands(Map<String, Band> bands) {
+        lock.lock();
+        try {
+            var next = new HashMap<String, Watch>();
+            bands.forEach((symbol, band) -> {
+                var existing = watches.get(symbol);
+                next.put(symbol, existing != null && existing.band.equals(band) ? existing : new Watch(band));
+            });
+            watches.clear();
+            watches.putAll(next);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** An order for {@code symbol} was filled, cancelled or rejected — re-evaluate it promptly. */
+    public void onOrderEvent(String symbol) {
+        orderEvents.incrementAndGet();
+        signal(Reason.ORDER_EVENT, symbol);
+    }
+
+    /**
+     * Check a price against the symbol's band; the price source is polled with this while waiting,
+     * and a streaming listener may call it directly for lower latency.
+     */
+    public void onPrice(String symbol, double price) {
+        boolean crossed;
+        lock.lock();
+        try {
+            var watch = watches.get(symbol);
+            if (watch == null || price <= 0) return;
+            if (watch.band.contains(price)) {
+                watch.armed = true;
+                return;
+            }
+            crossed = watch.armed;
+            watch.armed = false;
+        } finally {
+            lock.unlock();
+        }
+        if (crossed) {
+            bandCrossings.incrementAndGet();
+            logger.debug("[{}] {} left its band at {} — waking the loop", name, symbol, price);
+            signal(Reason.PRICE_BAND, symbol);
+        }
+    }
+
+    private void signal(Reason reason, String symbol) {
+        lock.lock();
+        try {
+            pendingReasons.add(reason);
+            if (symbol != null) pendingSymbols.add(symbol);
+            signalled.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Block until the next cycle is due and return why. */
+    public Wakeup awaitNext() throws InterruptedException {
+        return awaitNext(sweepInterval);
+    }
+
+    /** As {@link #awaitNext()}, sweeping after {@code sweep} instead of the configured interval. */
+    public Wakeup awaitNext(Duration sweep) throws InterruptedException {
+        long now = clock.millis();
+        long sweepAt = lastCycleMillis + sweep.toMillis();
+        long barAt = nextBarClose(now);
+        long earliestEvent = lastCycleMillis + minGap.toMillis();
+
+        while (true) {
+            now = clock.millis();
+            pollPrices();
+            beatIfDue(now);
+
+            lock.lock();
+            try {
+                if (!pendingReasons.isEmpty() && now >= earliestEvent) {
+                    return take(now, EnumSet.noneOf(Reason.class));
+                }
+                if (now >= barAt) {
+                    barCloses.incrementAndGet();
+                    return take(now, EnumSet.of(Reason.BAR_CLOSE));
+                }
+                if (now >= sweepAt) {
+                    sweeps.incrementAndGet();
+                    return take(now, EnumSet.of(Reason.SWEEP));
+                }
+                long wait = Math.min(pollInterval.toMillis(), Math.min(barAt, sweepAt) - now);
+                if (!pendingReasons.isEmpty()) wait = Math.min(wait, earliestEvent - now);
+                signalled.await(Math.max(1, wait), TimeUnit.MILLISECONDS);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /** Must hold {@link #lock}. */
+    private Wakeup take(long now, Set<Reason> extra) {
+        var reasons = EnumSet.copyOf(extra);
+        reasons.addAll(pendingReasons);
+        var wakeup = new Wakeup(Set.copyOf(reasons), Set.copyOf(pendingSymbols));
+        pendingReasons.clear();
+        pendingSymbols.clear();
+        lastCycleMillis = now;
+        cycles.incrementAndGet();
+        return wakeup;
+    }
+
+    private void pollPrices() {
+        var source = prices;
+        if (source == null) return;
+        Set<String> symbols;
+        lock.lock();
+        try {
+            symbols = Set.copyOf(watches.keySet());
+        } finally {
+            lock.unlock();
+        }
+        for (String symbol : symbols) {
+            var price = source.lastPrice(symbol);
+            if (price.isPresent()) onPrice(symbol, price.getAsDouble());
+        }
+    }
+
+    private void beatIfDue(long now) {
+        if (now - lastBeatMillis >= HEARTBEAT_INTERVAL.toMillis()) {
+            lastBeatMillis = now;
+            heartbeat.run();
+        }
+    }
+
+    /** Next {@code barInterval} boundary after {@code now}, plus the settle delay. */
+    long nextBarClose(long now) {
+        long interval = barInterval.toMillis();
+        long settle = BAR_SETTLE.toMillis();
+        long close = (Math.floorDiv(now - settle, interval) + 1) * interval;
+        return close + settle;
+    }
+
+    public SchedulerStats getStats() {
+        return new SchedulerStats(cycles.get(), barCloses.get(), bandCrossings.get(), orderEvents.get(), sweeps.get());
+    }
+}
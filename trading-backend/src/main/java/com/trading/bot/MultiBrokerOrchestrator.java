@@ -10,8 +10,11 @@ import com.trading.autonomous.ConfigSelfHealer;
 import com.trading.autonomous.ErrorDetector;
 import com.trading.config.Config;
 import com.trading.dashboard.DashboardServer;
+import com.trading.execution.OrderFeeds;
 import com.trading.filters.MarketHoursFilter;
 import com.trading.filters.VolatilityFilter;
+import com.trading.marketdata.CachingBrokerClient;
+import com.trading.marketdata.StreamingBrokerClient;
 import com.trading.metrics.MetricsService;
 import com.trading.persistence.TradeDatabase;
 import com.trading.portfolio.ProfileManager;
@@ -22,6 +25,7 @@ import com.trading.testing.TestModeSimulator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -45,9 +49,9 @@ import java.util.Map;
  * <p>Each broker gets its own {@link ProfileManager} running in a dedicated virtual thread
  * with isolated positions, orders, and risk limits.
  *
- * <p>Market data (bars, signals) always comes from Alpaca because Tradovate has no REST bar
- * endpoint and Tradier bars are optional. Order <em>execution</em> goes to each broker's
- * own account.
+ * <p>Market data (bars, signals) comes from each broker's own feed — for Tradovate that is its
+ * market-data WebSocket, so futures signals use the contract's own prices rather than an ETF
+ * proxy. Order <em>execution</em> goes to each broker's own account.
  *
  * <p>Supported broker names (case-insensitive): {@code alpaca}, {@code tradier},
  * {@code tradovate}, {@code ibkr}.
@@ -136,17 +140,23 @@ public final class MultiBrokerOrchestrator {
                 pdtProtection.initializeLocal(0);
             }
 
-            // Per-broker data components — each broker uses its own market data feed
+            // Per-broker data components — each broker uses its own market data feed,
+            // cached under the broker's own namespace so feeds never mix.
             logger.info("MultiBrokerOrchestrator: [{}] using own data feed for signal generation", brokerName.toUpperCase());
+            BrokerClient dataClient = CachingBrokerClient.wrap(rawClient, config, brokerName);
+            if ("alpaca".equalsIgnoreCase(brokerName)) {
+                dataClient = StreamingBrokerClient.wrap(dataClient, config);
+            }
             var brokerMtf        = config.isMultiTimeframeEnabled()
-                ? new com.trading.analysis.MultiTimeframeAnalyzer(rawClient, config) : null;
-            var brokerStrategy   = new StrategyManager(rawClient, brokerMtf, config);
-            var brokerAnalyzer   = new MarketAnalyzer(rawClient);
-            var brokerVolFilter  = new VolatilityFilter(rawClient);
-            var brokerSentiment  = new SentimentAnalyzer(rawClient, alphaVantageClient, finGPTClient);
+                ? new com.trading.analysis.MultiTimeframeAnalyzer(dataClient, config) : null;
+            var brokerStrategy   = new StrategyManager(dataClient, brokerMtf, config, brokerName);
+            var brokerAnalyzer   = new MarketAnalyzer(dataClient);
+            var brokerVolFilter  = new VolatilityFilter(dataClient);
+            var brokerSentiment  = new SentimentAnalyzer(dataClient, alphaVantageClient, finGPTClient);
 
-            var resilient = new ResilientBrokerClient(rawClient,
-                MetricsService.getInstance().getRegistry());
+            // One prioritized request scheduler per broker account, shared with the dashboard
+            var resilient = new ResilientBrokerClient(dataClient,
+                MetricsService.getInstance().getRegistry(), scheduler(brokerName), RequestScheduler.Priority.EXIT);
 
             // Name the profile after the broker so logs are unambiguous
             TradingProfile base = profileIndex == 0
@@ -168,6 +178,10 @@ public final class MultiBrokerOrchestrator {
                 brokerSentiment, signalPredictor, anomalyDetector, riskPredictor,
                 errorDetector, configSelfHealer, brokerName
             );
+            if (dataClient instanceof StreamingBrokerClient streaming) {
+                manager.setMarketDataStream(streaming.getStream(), streaming.getMaxAge());
+            }
+            manager.setOrderBook(OrderFeeds.start(brokerName, resilient, config));
             entries.add(new BrokerEntry(brokerName, manager, rawClient));
             profileIndex++;
 
@@ -185,7 +199,8 @@ public final class MultiBrokerOrchestrator {
 
         // Dashboard — uses Alpaca for health checks and market data display
         var alpacaResilient   = new ResilientBrokerClient(alpacaDataClient,
-            MetricsService.getInstance().getRegistry());
+            MetricsService.getInstance().getRegistry(), scheduler("alpaca"), RequestScheduler.Priority.ANALYTICS);
+        com.trading.api.ExchangeCalendar.nyse().startDailyClockCheck(alpacaResilient::getClock);
         var dashboardAnalyzer = new MarketAnalyzer(alpacaDataClient);
         var dashboardVolFilter = new VolatilityFilter(alpacaDataClient);
         var dashboard = new DashboardServer(database,
@@ -198,6 +213,7 @@ public final class MultiBrokerOrchestrator {
         Runtime.getRuntime().addShutdownHook(Thread.ofVirtual().unstarted(() -> {
             logger.info("MultiBrokerOrchestrator: shutdown signal — stopping all brokers");
             entries.forEach(en -> en.manager().stop());
+            database.flush(Duration.ofSeconds(5));
         }));
 
         // Launch a virtual thread per broker, staggered by 10 s each to avoid API collisions
@@ -236,6 +252,11 @@ public final class MultiBrokerOrchestrator {
 
     // ── BrokerClient factory ──────────────────────────────────────────────────
 
+    private RequestScheduler scheduler(String brokerName) {
+        return RequestScheduler.forAccount(brokerName.toLowerCase(), config.getApiRequestsPerMinute(),
+            Duration.ofMillis(config.getApiShedWindowMs()));
+    }
+
     private BrokerClient createBrokerClient(String brokerName) {
         return switch (brokerName.toLowerCase()) {
             case "tradier" -> {
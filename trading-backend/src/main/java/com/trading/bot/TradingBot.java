@@ -1,8 +1,12 @@
 package com.trading.bot;
 
 import com.trading.api.AlpacaClient;
-import com.trading.api.ResilientAlpacaClient;
+import com.trading.api.BrokerClient;
+import com.trading.api.RequestScheduler;
+import com.trading.api.ResilientBrokerClient;
 import com.trading.config.Config;
+import com.trading.marketdata.CachingBrokerClient;
+import com.trading.marketdata.StreamingBrokerClient;
 import com.trading.filters.MarketHoursFilter;
 import com.trading.filters.VolatilityFilter;
 import com.trading.portfolio.PortfolioManager;
@@ -82,16 +86,22 @@ public final class TradingBot {
      * Run bot in multi-profile mode with parallel threads.
      */
     private static void runMultiProfileMode(Config config, AlpacaClient client) {
+        // Both profiles read market data through one shared bar cache so identical
+        // SPY/QQQ/15Min requests in the same cycle collapse into a single HTTP call.
+        BrokerClient dataClient = CachingBrokerClient.wrap(client, config, "alpaca");
+        // Latest prices and exit checks read the real-time stream when it is up; REST otherwise.
+        dataClient = StreamingBrokerClient.wrap(dataClient, config);
+
         // Create shared resources (thread-safe)
-        var marketAnalyzer = new MarketAnalyzer(client);
+        var marketAnalyzer = new MarketAnalyzer(dataClient);
         
         // Create multi-timeframe analyzer if enabled
         var multiTimeframeAnalyzer = config.isMultiTimeframeEnabled() ?
-            new com.trading.analysis.MultiTimeframeAnalyzer(client, config) : null;
+            new com.trading.analysis.MultiTimeframeAnalyzer(dataClient, config) : null;
         
-        var strategyManager = new StrategyManager(client, multiTimeframeAnalyzer, config);
+        var strategyManager = new StrategyManager(dataClient, multiTimeframeAnalyzer, config, "alpaca");
         var marketHoursFilter = new MarketHoursFilter(config);
-        var volatilityFilter = new VolatilityFilter(client);
+        var volatilityFilter = new VolatilityFilter(dataClient);
         var database = new TradeDatabase();
         var pdtProtection = new PDTProtection(database, config.isPDTProtectionEnabled(), "alpaca");
         
@@ -154,7 +164,7 @@ public final class TradingBot {
             config.isFinGPTEnabled(),
             config.getFinGPTCacheTTL()
         );
-        var sentimentAnalyzer = new com.trading.ai.SentimentAnalyzer(client, alphaVantageClient, finGPTClient);
+        var sentimentAnalyzer = new com.trading.ai.SentimentAnalyzer(dataClient, alphaVantageClient, finGPTClient);
         var signalPredictor = new com.trading.ai.SignalPredictor(config);
         var anomalyDetector = new com.trading.ai.AnomalyDetector();
         var riskPredictor = new com.trading.ai.RiskPredictor();
@@ -169,9 +179,15 @@ public final class TradingBot {
         logger.info("🔧 Self-healing system initialized");
         
         // Create resilient client wrapper FIRST - used by ProfileManagers for circuit breaker protection
-        var resilientClient = new ResilientAlpacaClient(client, 
-            com.trading.metrics.MetricsService.getInstance().getRegistry());
-        logger.info("🛡️ Resilient client initialized with circuit breaker, rate limiter, and retry");
+        // Both profiles and the dashboard draw from one prioritized request scheduler for the account
+        var requestScheduler = RequestScheduler.forAccount("alpaca",
+            config.getApiRequestsPerMinute(), Duration.ofMillis(config.getApiShedWindowMs()));
+        var registry = com.trading.metrics.MetricsService.getInstance().getRegistry();
+        var resilientClient = new ResilientBrokerClient(dataClient, registry, requestScheduler,
+            RequestScheduler.Priority.EXIT);
+        var dashboardClient = new ResilientBrokerClient(dataClient, registry, requestScheduler,
+            RequestScheduler.Priority.ANALYTICS);
+        logger.info("🛡️ Resilient client initialized with circuit breaker, request scheduler, and retry");
         
         var mainManager = new com.trading.portfolio.ProfileManager(
             mainProfile, mainCapital, resilientClient, strategyManager,
@@ -189,6 +205,18 @@ public final class TradingBot {
             errorDetector, configSelfHealer, "alpaca"
         );
         
+        if (dataClient instanceof StreamingBrokerClient streaming) {
+            mainManager.setMarketDataStream(streaming.getStream(), streaming.getMaxAge());
+            expManager.setMarketDataStream(streaming.getStream(), streaming.getMaxAge());
+        }
+        var orderBook = com.trading.execution.OrderFeeds.start("alpaca", resilientClient, config);
+        mainManager.setOrderBook(orderBook);
+        expManager.setOrderBook(orderBook);
+        // Checks every position for a server-side stop; reads open orders from the book while it is live
+        var protectionAuditor = new com.trading.monitoring.PositionProtectionAuditor(null, client);
+        protectionAuditor.setOrderBook(orderBook);
+        com.trading.api.ExchangeCalendar.nyse().startDailyClockCheck(resilientClient::getClock);
+        
         // Create autonomous systems
         var autoRecovery = new com.trading.autonomous.AutoRecoveryManager(config, client);
         var rebalancer = new com.trading.portfolio.ProfileRebalancer(config);
@@ -196,7 +224,7 @@ public final class TradingBot {
         
         // Start dashboard (using main profile's portfolio for now)
         var dashboard = new DashboardServer(database, mainManager.getPortfolio(), 
-            marketAnalyzer, marketHoursFilter, volatilityFilter, config, resilientClient);
+            marketAnalyzer, marketHoursFilter, volatilityFilter, config, dashboardClient);
         dashboard.start();
         logger.info("Dashboard available at: http://localhost:8080");
         
@@ -210,7 +238,7 @@ public final class TradingBot {
             System.exit(1);
         }
         // Initialize Safety Autopilot
-        emergencyProtocol = new com.trading.protection.EmergencyProtocol(resilientClient);
+        emergencyProtocol = new com.trading.protection.EmergencyProtocol(resilientClient, database);
         heartbeatMonitor = new com.trading.protection.HeartbeatMonitor(emergencyProtocol);
         
         // Cloud Run compatible timeouts - 5 min to handle cold starts gracefully
@@ -242,25 +270,19 @@ public final class TradingBot {
             logger.info("Shutdown signal received, stopping profiles...");
             mainManager.stop();
             expManager.stop();
+            database.flush(Duration.ofSeconds(5));
         }));
         
         
         // Use Java 25 virtual threads for parallel execution
         // Virtual threads are stable and production-ready in Java 25
-        // STAGGER START: Main starts first, then Experimental 5 seconds later
-        // This prevents both profiles from hitting API simultaneously and causing rate limits
+        // No start stagger: the shared request scheduler queues both profiles' calls fairly
+        // and keeps protective exits ahead of entries and analytics
         Thread mainThread = Thread.ofVirtual().name("profile-main").start(() -> {
             mainManager.run();
         });
         
         Thread expThread = Thread.ofVirtual().name("profile-experimental").start(() -> {
-            try {
-                Thread.sleep(20000); // Stagger by 20s to avoid API rate limit conflicts with MAIN
-                logger.info("Experimental profile starting (staggered by 20s)...");
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                return;
-            }
             expManager.run();
         });
         
@@ -277,6 +299,18 @@ public final class TradingBot {
             }
         });
         
+        // Audit position protection once a minute while the market is open
+        Thread.ofVirtual().name("protection-audit").start(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    if (marketHoursFilter.isMarketOpen()) protectionAuditor.auditAllPositions();
+                    Thread.sleep(Duration.ofMinutes(1));
+                } catch (InterruptedException e) {
+                    break;
+                }
+            }
+        });
+        
         // Wait for both profiles to complete
         try {
             mainThread.join();
@@ -303,20 +337,24 @@ public final class TradingBot {
             config.getVixHysteresis()
         );
         
+        BrokerClient dataClient = CachingBrokerClient.wrap(client, config, "alpaca");
+        // Latest prices come from the real-time stream when it is up; REST otherwise.
+        BrokerClient liveClient = StreamingBrokerClient.wrap(dataClient, config);
+
         // Get initial VIX to determine starting symbols
-        var volatilityFilter = new VolatilityFilter(client);
+        var volatilityFilter = new VolatilityFilter(dataClient);
         var initialVix = volatilityFilter.getCurrentVIX();
         var initialSymbols = symbolSelector.selectSymbols(initialVix);
         
         logger.info("Initial VIX: {} - Starting with symbols: {}", initialVix, initialSymbols);
         
-        var marketAnalyzer = new MarketAnalyzer(client);
+        var marketAnalyzer = new MarketAnalyzer(dataClient);
         
         // Create multi-timeframe analyzer if enabled
         var multiTimeframeAnalyzer = config.isMultiTimeframeEnabled() ?
-            new com.trading.analysis.MultiTimeframeAnalyzer(client, config) : null;
+            new com.trading.analysis.MultiTimeframeAnalyzer(dataClient, config) : null;
         
-        var strategyManager = new StrategyManager(client, multiTimeframeAnalyzer, config);
+        var strategyManager = new StrategyManager(dataClient, multiTimeframeAnalyzer, config, "alpaca");
         var riskManager = new RiskManager(config.getInitialCapital());
         var marketHoursFilter = new MarketHoursFilter(config);
         var portfolio = new PortfolioManager(initialSymbols, config.getInitialCapital());
@@ -327,8 +365,12 @@ public final class TradingBot {
         var database = new TradeDatabase();
         
         // Create resilient client wrapper for health checks
-        var resilientClient = new ResilientAlpacaClient(client, 
-            com.trading.metrics.MetricsService.getInstance().getRegistry());
+        var resilientClient = new ResilientBrokerClient(dataClient,
+            com.trading.metrics.MetricsService.getInstance().getRegistry(),
+            RequestScheduler.forAccount("alpaca", config.getApiRequestsPerMinute(),
+                Duration.ofMillis(config.getApiShedWindowMs())),
+            RequestScheduler.Priority.ANALYTICS);
+        com.trading.api.ExchangeCalendar.nyse().startDailyClockCheck(resilientClient::getClock);
         
         var dashboard = new DashboardServer(database, portfolio, marketAnalyzer,
             marketHoursFilter, volatilityFilter, config, resilientClient);
@@ -357,14 +399,26 @@ public final class TradingBot {
             // Initialize Broker Router
             var brokerRouter = new com.trading.broker.BrokerRouter(client);
 
+            // Cycles run on bar closes, stop/target band crossings and a sweep instead of every 10s
+            CycleScheduler scheduler = null;
+            if (config.isEventDrivenCyclesEnabled()) {
+                scheduler = new CycleScheduler("Main Loop",
+                    Duration.ofMillis(config.getCycleSweepIntervalMs()),
+                    Duration.ofMinutes(config.getCycleBarIntervalMinutes()));
+                scheduler.setHeartbeat(() -> beat("Main Loop"));
+                if (liveClient instanceof StreamingBrokerClient streaming) {
+                    scheduler.setPriceSource(symbol -> streaming.getStream().table().lastPrice(symbol, streaming.getMaxAge()));
+                }
+            }
+
             // Main trading loop (ALPACA ONLY - stocks only)
             while (true) {
                 try {
                     // Run Alpaca trading cycle (stocks only, respects market hours)
-                    runTradingCycle(client, strategyManager, riskManager, 
+                    runTradingCycle(liveClient, strategyManager, riskManager, 
                         marketHoursFilter, volatilityFilter, portfolio, marketAnalyzer, database, config, pdtProtection, testSimulator, brokerRouter);
                     
-                    Thread.sleep(SLEEP_DURATION);
+                    awaitNextCycle(scheduler, portfolio, riskManager);
                 } catch (InterruptedException e) {
                     logger.info("Bot interrupted, shutting down");
                     Thread.currentThread().interrupt();
@@ -386,8 +440,29 @@ public final class TradingBot {
         }
     }
 
+    /**
+     * Fixed sleep, or with a scheduler: watch held positions' stop/target/trail-up bands and wait
+     * for a trigger, sweeping at least every {@link #SLEEP_DURATION} while holding or unpriced.
+     */
+    static void awaitNextCycle(CycleScheduler scheduler, PortfolioManager portfolio, RiskManager riskManager)
+            throws InterruptedException {
+        if (scheduler == null) {
+            Thread.sleep(SLEEP_DURATION);
+            return;
+        }
+        var bands = new HashMap<String, CycleScheduler.Band>();
+        for (String symbol : portfolio.getActiveStoredSymbols()) {
+            portfolio.getPosition(symbol).ifPresent(pos -> bands.put(symbol, CycleScheduler.Band.holding(
+                pos.stopLoss(), pos.takeProfit(), Math.max(pos.highestPrice(), pos.entryPrice()),
+                riskManager.getTrailingStopPercent())));
+        }
+        scheduler.setBands(bands);
+        var wakeup = scheduler.awaitNext(scheduler.sweepFor(!bands.isEmpty(), SLEEP_DURATION));
+        logger.debug("Cycle triggered by {} {}", wakeup.reasons(), wakeup.symbols());
+    }
+
     private static void runTradingCycle(
-            AlpacaClient client, 
+            BrokerClient client, 
             StrategyManager strategyManager, 
             RiskManager riskManager,
             MarketHoursFilter marketHoursFilter,
@@ -580,7 +655,7 @@ public final class TradingBot {
         TradingWebSocketHandler.broadcastPositions(activePositions);
     }
 
-    private static Optional<TradePosition> tradeSymbol(AlpacaClient client, StrategyManager strategyManager, 
+    private static Optional<TradePosition> tradeSymbol(BrokerClient client, StrategyManager strategyManager, 
                                RiskManager riskManager, PortfolioManager portfolio, 
                                String symbol, TradeDatabase database, 
                                PDTProtection pdtProtection, double accountEquity,
@@ -10,8 +10,11 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Configuration manager for Alpaca API credentials and bot settings.
@@ -33,9 +36,12 @@ public class Config {
     private final String baseUrl;
     
     private final Properties properties;
+    private final Map<String, String> overrides;
+    private final Set<String> overridesRead = ConcurrentHashMap.newKeySet();
 
     public Config() {
         this.properties = loadProperties();
+        this.overrides = Map.of();
         this.baseUrl = loadBaseUrl();
         var credentials = loadCredentials();
         this.apiKey = credentials[0];
@@ -52,6 +58,35 @@ public class Config {
         }
     }
     
+    private Config(Config base, Map<String, String> overrides) {
+        this.properties = base.properties;
+        this.baseUrl = base.baseUrl;
+        this.apiKey = base.apiKey;
+        this.apiSecret = base.apiSecret;
+        var merged = new java.util.HashMap<>(base.overrides);
+        merged.putAll(overrides);
+        this.overrides = Map.copyOf(merged);
+    }
+
+    /**
+     * A copy of this configuration in which {@code overrides} (property key to value) take
+     * precedence over environment variables and config.properties. Used by backtest parameter
+     * sweeps to try thresholds without touching the process environment.
+     */
+    public Config withOverrides(Map<String, String> overrides) {
+        return new Config(this, overrides);
+    }
+
+    /**
+     * The override keys no getter has looked up so far on this copy. A key that stays here after
+     * the code under test has run is one nothing reads, usually a misspelt property name.
+     */
+    public Set<String> unusedOverrides() {
+        var unused = new java.util.HashSet<>(overrides.keySet());
+        unused.removeAll(overridesRead);
+        return unused;
+    }
+
     private Properties loadProperties() {
         var props = new Properties();
         try (var fis = new FileInputStream(CONFIG_FILE)) {
@@ -171,12 +206,15 @@ public class Config {
     }
     
     private String getProperty(String key) {
-        return Optional.ofNullable(System.getenv(key))
-                .or(() -> Optional.ofNullable(properties.getProperty(key)))
-                .orElse(null);
+        return getProperty(key, null);
     }
     
     private String getProperty(String key, String defaultValue) {
+        String override = overrides.get(key);
+        if (override != null) {
+            overridesRead.add(key);
+            return override;
+        }
         return Optional.ofNullable(System.getenv(key))
                 .or(() -> Optional.ofNullable(properties.getProperty(key)))
                 .orElse(defaultValue);
@@ -1498,24 +1536,21 @@ public class Config {
     // ==================== Tradier Broker Configuration ====================
 
     public String getTradierAccessToken() {
-        String env = System.getenv("TRADIER_ACCESS_TOKEN");
-        return env != null ? env : getProperty("TRADIER_ACCESS_TOKEN", "");
+        return getProperty("TRADIER_ACCESS_TOKEN", "");
     }
 
     public String getTradierAccountId() {
-        String env = System.getenv("TRADIER_ACCOUNT_ID");
-        return env != null ? env : getProperty("TRADIER_ACCOUNT_ID", "");
+        return getProperty("TRADIER_ACCOUNT_ID", "");
     }
 
     public boolean isTradierSandbox() {
+        if (overrides.containsKey("TRADIER_SANDBOX")) return getBooleanProperty("TRADIER_SANDBOX", false);
         String env = System.getenv("TRADIER_SANDBOX");
         return "true".equalsIgnoreCase(env) || getBooleanProperty("TRADIER_SANDBOX", false);
     }
 
     /** Explicit opt-in gate — defaults false. Must be true for any Tradier code path to run. */
     public boolean isTradierEnabled() {
-        String env = System.getenv("TRADIER_ENABLED");
-        if (env != null) return "true".equalsIgnoreCase(env);
         return getBooleanProperty("TRADIER_ENABLED", false);
     }
 
@@ -1531,12 +1566,18 @@ public class Config {
     public boolean isTradovateDemo()     {
         return Boolean.parseBoolean(getProperty("TRADOVATE_DEMO", "true"));
     }
+    /** Bars and quotes for futures come from Tradovate's own market-data WebSocket */
+    public boolean isTradovateMarketDataEnabled() { return getBooleanProperty("TRADOVATE_MARKET_DATA_ENABLED", true); }
+    public String getTradovateMarketDataUrl() {
+        return getProperty("TRADOVATE_MD_URL", isTradovateDemo()
+            ? "wss://md-demo.tradovateapi.com/v1/websocket" : "wss://md.tradovateapi.com/v1/websocket");
+    }
 
     // ==================== IBKR Broker Configuration ====================
 
-    public String getIBKRAccessToken() { return getEnv("IBKR_ACCESS_TOKEN", ""); }
-    public String getIBKRAccountId()   { return getEnv("IBKR_ACCOUNT_ID", ""); }
-    public String getIBKRBaseUrl()     { return getEnv("IBKR_BASE_URL", "https://api.ibkr.com/v1/api"); }
+    public String getIBKRAccessToken() { return getProperty("IBKR_ACCESS_TOKEN", ""); }
+    public String getIBKRAccountId()   { return getProperty("IBKR_ACCOUNT_ID", ""); }
+    public String getIBKRBaseUrl()     { return getProperty("IBKR_BASE_URL", "https://api.ibkr.com/v1/api"); }
 
     // ==================== Multi-Broker Configuration ====================
 
@@ -1558,11 +1599,6 @@ public class Config {
         return v != null && !v.isBlank() && v.contains(":");
     }
 
-    private String getEnv(String key, String defaultValue) {
-        String env = System.getenv(key);
-        return env != null ? env : getProperty(key, defaultValue);
-    }
-
     // ==================== Profitability Improvement Knobs (2026-04 batch) ====================
     // Per-symbol post-loss cooldown
     public long getPostLossCooldownMs() {
@@ -1729,4 +1765,125 @@ public class Config {
     public double getScalpVolumeMultiplier() {
         return getDoubleProperty("SCALP_VOLUME_MULTIPLIER", 1.3);
     }
+
+    // ── Market data: shared bar cache ────────────────────────────────────────
+    // Process-wide single-flight cache in front of getBars/getMarketHistory.
+    public boolean isBarCacheEnabled() {
+        return getBooleanProperty("BAR_CACHE_ENABLED", true);
+    }
+    // Upper bound on how long a cached window is served, even if the next bar boundary is further
+    // away (keeps the still-forming daily bar from going stale all session).
+    public long getBarCacheMaxAgeMs() {
+        return getLongProperty("BAR_CACHE_MAX_AGE_MS", 60_000L);
+    }
+    // Fill cache misses with a "since last bar" delta instead of re-downloading the window.
+    public boolean isIncrementalBarsEnabled() {
+        return getBooleanProperty("INCREMENTAL_BARS_ENABLED", true);
+    }
+    // Cap on bars kept per (symbol, timeframe) window by incremental history.
+    public int getIncrementalBarsMaxBars() {
+        return getIntProperty("INCREMENTAL_BARS_MAX_BARS", 1_000);
+    }
+    // Prefetch latest bars / intraday windows for the whole universe in one batched call per cycle.
+    public boolean isBatchMarketDataEnabled() {
+        return getBooleanProperty("BATCH_MARKET_DATA_ENABLED", true);
+    }
+
+    // ── Trading cycle: concurrent symbol evaluation ──────────────────────────
+    // Fetch prices and evaluate strategies for the cycle's symbols concurrently; orders are
+    // still placed one symbol at a time, in a fixed order.
+    public boolean isParallelSymbolEvaluationEnabled() {
+        return getBooleanProperty("PARALLEL_SYMBOL_EVALUATION_ENABLED", true);
+    }
+    public int getSymbolEvaluationConcurrency() {
+        return getIntProperty("SYMBOL_EVALUATION_CONCURRENCY", 8);
+    }
+    // Rate-limit permits left untouched by the evaluation stage, kept for exits and orders.
+    public int getSymbolEvaluationRequestReserve() {
+        return getIntProperty("SYMBOL_EVALUATION_REQUEST_RESERVE", 20);
+    }
+
+    // ── Trading cycle: event-driven scheduling ───────────────────────────────
+    // Run cycles on bar closes, stop/target band crossings and order events instead of a fixed
+    // sleep; a full sweep still runs at least every CYCLE_SWEEP_INTERVAL_MS — and no less often
+    // than the profile's cycle interval while it holds positions or has no streamed prices.
+    public boolean isEventDrivenCyclesEnabled() {
+        return getBooleanProperty("EVENT_DRIVEN_CYCLES_ENABLED", true);
+    }
+    public long getCycleSweepIntervalMs() {
+        return getLongProperty("CYCLE_SWEEP_INTERVAL_MS", 120_000L);
+    }
+    // Bar close cadence that triggers a full cycle (matches the 15Min intraday bars).
+    public int getCycleBarIntervalMinutes() {
+        return getIntProperty("CYCLE_BAR_INTERVAL_MINUTES", 15);
+    }
+
+    // ── Market data: on-disk bar archive ─────────────────────────────────────
+    // Record fetched bars to disk so restarts warm up and backtests run without re-downloading.
+    public boolean isBarArchiveEnabled() {
+        return getBooleanProperty("BAR_ARCHIVE_ENABLED", true);
+    }
+    // Defaults to DATA_DIR/bars (the volume trades.db lives on), or ./bars without DATA_DIR.
+    public String getBarArchiveDir() {
+        String dataDir = System.getenv("DATA_DIR");
+        String fallback = dataDir != null && !dataDir.isBlank() ? dataDir + "/bars" : "bars";
+        return getProperty("BAR_ARCHIVE_DIR", fallback);
+    }
+
+    // ── Market data: real-time stream ────────────────────────────────────────
+    // Alpaca WebSocket trades/quotes/bars feeding getLatestBar and the exit checks.
+    public boolean isMarketDataStreamEnabled() {
+        return getBooleanProperty("MARKET_DATA_STREAM_ENABLED", true);
+    }
+    public String getMarketDataStreamUrl() {
+        return getProperty("MARKET_DATA_STREAM_URL", "wss://stream.data.alpaca.markets/v2/iex");
+    }
+    // A streamed price older than this is ignored and REST is used instead.
+    public long getMarketDataStreamMaxAgeMs() {
+        return getLongProperty("MARKET_DATA_STREAM_MAX_AGE_MS", 15_000L);
+    }
+
+    // ── API request scheduling ───────────────────────────────────────────────
+    // One prioritized permit scheduler per broker account, shared by all its profiles:
+    // exits before entries before analytics/dashboard reads.
+    public int getApiRequestsPerMinute() {
+        return getIntProperty("API_REQUESTS_PER_MINUTE", 150);
+    }
+    // After a 429, analytics requests are shed and the rate halved for this long.
+    public long getApiShedWindowMs() {
+        return getLongProperty("API_SHED_WINDOW_MS", 30_000L);
+    }
+
+    // ── Execution: order-state engine ────────────────────────────────────────
+    // In-memory order book per broker, fed by Alpaca trade_updates or by polling open orders,
+    // so order checks skip the network and fills wake the trading loop within milliseconds.
+    public boolean isOrderStateEngineEnabled() {
+        return getBooleanProperty("ORDER_STATE_ENGINE_ENABLED", true);
+    }
+    // Alpaca trading stream; defaults to the /stream endpoint of the paper or live API in use.
+    public String getOrderStreamUrl() {
+        return getProperty("ORDER_STREAM_URL", baseUrl().replaceFirst("^http", "ws") + "/stream");
+    }
+    // How often brokers without a stream (Tradier, IBKR) have their open orders polled.
+    public long getOrderPollIntervalMs() {
+        return getLongProperty("ORDER_POLL_INTERVAL_MS", 5_000L);
+    }
+
+    // ── Indicators: shared running state ─────────────────────────────────────
+    // Keep RSI/MACD/SMA per (symbol, timeframe) and advance them per bar instead of recomputing
+    // from the full history on every evaluation.
+    public boolean isIncrementalIndicatorsEnabled() {
+        return getBooleanProperty("INCREMENTAL_INDICATORS_ENABLED", true);
+    }
+
+    // ── Backtesting: jobs run by the live server ─────────────────────────────
+    // Workers a walk-forward job may use; leaves two cores to the trading loops by default.
+    public int getBacktestParallelism() {
+        return Math.max(1, getIntProperty("BACKTEST_PARALLELISM",
+            Runtime.getRuntime().availableProcessors() - 2));
+    }
+    // Jobs allowed to wait behind the running one before submissions are refused.
+    public int getBacktestMaxQueuedJobs() {
+        return getIntProperty("BACKTEST_MAX_QUEUED_JOBS", 2);
+    }
 }
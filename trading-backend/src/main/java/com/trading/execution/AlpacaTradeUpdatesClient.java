@@ -0,0 +1,268 @@
+package com.trading.execution;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * WebSocket client for Alpaca's trading stream, feeding an {@link OrderBook} from
+ * {@code trade_updates}.
+ *
+ * Protocol: the client sends {@code authenticate} as soon as the socket opens, the server answers
+ * on the {@code authorization} stream, the client sends {@code listen} for {@code trade_updates}
+ * and the server confirms on {@code listening}. Each update carries an {@code event}
+ * ({@code new}, {@code partial_fill}, {@code fill}, {@code canceled}, {@code replaced},
+ * {@code rejected}, {@code expired}, …), the full order and, for fills, the resulting
+ * {@code position_qty}. The paper endpoint sends binary frames; both frame types are handled.
+ *
+ * Once listening, the book is seeded from the REST open-order listing so orders placed while
+ * disconnected are known, and only then marked live. On any disconnect the book goes offline
+ * (readers fall back to REST) and the client reconnects with exponential backoff.
+ */
+public final class AlpacaTradeUpdatesClient implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(AlpacaTradeUpdatesClient.class);
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(60);
+
+    private final URI uri;
+    private final String apiKey;
+    private final String apiSecret;
+    private final OrderBook book;
+    private final Supplier<JsonNode> openOrderListing;
+    private final Duration initialBackoff;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicBoolean reconnectScheduled = new AtomicBoolean(false);
+    private final AtomicInteger attempts = new AtomicInteger();
+    private final AtomicLong messages = new AtomicLong();
+    private final AtomicLong reconnects = new AtomicLong();
+
+    private volatile WebSocket socket;
+
+    /**
+     * @param openOrderListing all open orders as the REST API lists them (null when unavailable);
+     *                         called after each (re)connect to seed the book
+     */
+    public AlpacaTradeUpdatesClient(URI uri, String apiKey, String apiSecret, OrderBook book,
+                                    Supplier<JsonNode> openOrderListing) {
+        this(uri, apiKey, apiSecret, book, openOrderListing, Duration.ofSeconds(1));
+    }
+
+    public AlpacaTradeUpdatesClient(URI uri, String apiKey, String apiSecret, OrderBook book,
+                                    Supplier<JsonNode> openOrderListing, Duration initialBackoff) {
+        this.uri = uri;
+        this.apiKey = apiKey;
+        this.apiSecret = apiSecret;
+        this.book = book;
+        this.openOrderListing = openOrderListing;
+        this.initialBackoff = initialBackoff;
+        this.httpClient = HttpClient.newBuilder().connectTimeout(CONNECT_TIMEOUT).build();
+    }
+
+    public OrderBook book() {
+        return book;
+    }
+
+    public void start() {
+        if (running.compareAndSet(false, true)) {
+            logger.info("Starting trade updates stream {}", uri);
+            connect();
+        }
+    }
+
+    public StreamStats getStats() {
+        return new StreamStats(book.isLive(), messages.get(), reconnects.get());
+    }
+
+    public record StreamStats(boolean live, long messages, long reconnects) {}
+
+    @Override
+    public void close() {
+        running.set(false);
+        book.setLive(false);
+        var ws = socket;
+        if (ws != null) {
+            ws.sendClose(WebSocket.NORMAL_CLOSURE, "shutdown");
+        }
+    }
+
+    // ── Connection lifecycle ──────────────────────────────────────────────────
+
+    private void connect() {
+        if (!running.get()) return;
+        httpClient.newWebSocketBuilder()
+            .connectTimeout(CONNECT_TIMEOUT)
+            .buildAsync(uri, new Listener())
+            .whenComplete((ws, error) -> {
+                if (error != null) {
+                    logger.warn("Trade updates stream connect failed: {}", error.getMessage());
+                    scheduleReconnect();
+                } else {
+                    socket = ws;
+                }
+            });
+    }
+
+    private void scheduleReconnect() {
+        book.setLive(false);
+        if (!running.get() || !reconnectScheduled.compareAndSet(false, true)) return;
+        int attempt = attempts.getAndIncrement();
+        long delayMs = Math.min(MAX_BACKOFF.toMillis(), initialBackoff.toMillis() << Math.min(attempt, 16));
+        reconnects.incrementAndGet();
+        logger.info("Trade updates stream reconnecting in {}ms (attempt {})", delayMs, attempt + 1);
+        Thread.ofVirtual().name("trade-updates-reconnect").start(() -> {
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                reconnectScheduled.set(false);
+            }
+            connect();
+        });
+    }
+
+    private final class Listener implements WebSocket.Listener {
+        private final StringBuilder text = new StringBuilder();
+        private final ByteArrayOutputStream binary = new ByteArrayOutputStream();
+
+        @Override
+        public void onOpen(WebSocket webSocket) {
+            socket = webSocket;
+            webSocket.sendText(objectMapper.createObjectNode().put("action", "authenticate")
+                .set("data", objectMapper.createObjectNode().put("key_id", apiKey).put("secret_key", apiSecret))
+                .toString(), true);
+            webSocket.request(1);
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            text.append(data);
+            if (last) {
+                String message = text.toString();
+                text.setLength(0);
+                dispatch(message);
+            }
+            webSocket.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onBinary(WebSocket webSocket, ByteBuffer data, boolean last) {
+            var bytes = new byte[data.remaining()];
+            data.get(bytes);
+            binary.writeBytes(bytes);
+            if (last) {
+                String message = binary.toString(StandardCharsets.UTF_8);
+                binary.reset();
+                dispatch(message);
+            }
+            webSocket.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+            logger.warn("Trade updates stream closed ({} {})", statusCode, reason);
+            scheduleReconnect();
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket webSocket, Throwable error) {
+            logger.warn("Trade updates stream error: {}", error.getMessage());
+            scheduleReconnect();
+        }
+
+        private void dispatch(String message) {
+            try {
+                handle(message);
+            } catch (Exception e) {
+                logger.warn("Bad trade updates message ({}): {}", e.getMessage(), abbreviate(message));
+            }
+        }
+    }
+
+    // ── Protocol ──────────────────────────────────────────────────────────────
+
+    void handle(String text) throws Exception {
+        JsonNode msg = objectMapper.readTree(text);
+        messages.incrementAndGet();
+        JsonNode data = msg.path("data");
+        switch (msg.path("stream").asText()) {
+            case "trade_updates" -> onTradeUpdate(data);
+            case "authorization" -> {
+                if ("authorized".equals(data.path("status").asText())) {
+                    send(objectMapper.createObjectNode().put("action", "listen")
+                        .set("data", objectMapper.createObjectNode().set("streams",
+                            objectMapper.createArrayNode().add("trade_updates"))).toString());
+                } else {
+                    logger.error("Trade updates stream authorization failed: {}", data);
+                }
+            }
+            case "listening" -> {
+                if (data.path("streams").toString().contains("trade_updates")) {
+                    attempts.set(0);
+                    seed();
+                }
+            }
+            default -> logger.trace("Ignoring trade stream message {}", abbreviate(text));
+        }
+    }
+
+    private void onTradeUpdate(JsonNode data) {
+        String event = data.path("event").asText();
+        JsonNode order = data.path("order");
+        double positionQty = data.hasNonNull("position_qty") ? data.path("position_qty").asDouble() : Double.NaN;
+        book.apply(event, order, positionQty).ifPresent(state ->
+            logger.debug("[{}] {} {} {} → {}", book.broker(), state.symbol(), state.side(), event, state.status()));
+    }
+
+    /** Reconcile with the REST listing so orders changed while disconnected are known, then go live. */
+    private void seed() {
+        Thread.ofVirtual().name("trade-updates-seed").start(() -> {
+            Instant asOf = Instant.now();
+            JsonNode listing;
+            try {
+                listing = openOrderListing.get();
+            } catch (Exception e) {
+                listing = null;
+                logger.warn("Trade updates seed failed: {}", e.getMessage());
+            }
+            if (listing == null || !listing.isArray()) {
+                logger.warn("Trade updates stream listening, but open orders could not be listed — book stays offline");
+                return;
+            }
+            book.reconcile(listing, asOf, null, null);
+            book.setLive(true);
+            logger.info("Trade updates stream live — {} open order(s) seeded", listing.size());
+        });
+    }
+
+    private void send(String text) {
+        var ws = socket;
+        if (ws != null) ws.sendText(text, true);
+    }
+
+    private static String abbreviate(String text) {
+        return text.length() <= 200 ? text : text.substring(0, 200) + "...";
+    }
+}
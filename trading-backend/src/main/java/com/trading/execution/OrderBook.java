@@ -0,0 +1,362 @@
+package com.trading.execution;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * In-memory order book for one broker account, kept current by an order feed — Alpaca's
+ * trade_updates stream ({@link AlpacaTradeUpdatesClient}) or, for brokers without one, a poller
+ * over the open-order listing ({@link PollingOrderFeed}).
+ *
+ * Holds every open order plus the most recently closed ones, each with its lifecycle status.
+ * Readers get answers without a network call; {@link #openOrders} returns the same flat order
+ * JSON the broker's REST listing does, so existing order checks read it unchanged.
+ *
+ * The book only answers while it is live (its feed is connected and has been seeded from REST).
+ * After a local order call ({@link #expectChanges}) it also declines until the feed can have
+ * reported that order: for a stream, a short settle window; for a polled feed
+ * ({@link #settleOnReconcile}), until a listing taken after the call has been reconciled.
+ * Either way {@link #openOrders} returns null and the caller asks the broker, as before.
+ */
+public final class OrderBook {
+    private static final Logger logger = LoggerFactory.getLogger(OrderBook.class);
+
+    static final Duration SETTLE = Duration.ofSeconds(2);
+    private static final int RETAIN_CLOSED = 500;
+
+    public enum Status {
+        NEW, PARTIALLY_FILLED, FILLED, CANCELED, REPLACED, REJECTED, EXPIRED,
+        /** Left the open-order listing of a polled broker and its outcome could not be looked up. */
+        CLOSED;
+
+        public boolean isOpen() {
+            return this == NEW || this == PARTIALLY_FILLED;
+        }
+
+        /** Map a broker order status (Alpaca, Tradier or normalized IBKR) onto the book's lifecycle. */
+        static Status of(String brokerStatus) {
+            return switch (brokerStatus == null ? "" : brokerStatus.toLowerCase()) {
+                case "partially_filled", "partial_fill" -> PARTIALLY_FILLED;
+                case "filled", "fill" -> FILLED;
+                case "canceled", "cancelled" -> CANCELED;
+                case "replaced" -> REPLACED;
+                case "rejected" -> REJECTED;
+                case "expired", "done_for_day" -> EXPIRED;
+                // new, accepted, pending_new, held, pending_cancel, pending_replace, open, pending, …
+                default -> NEW;
+            };
+        }
+    }
+
+    public record OrderState(String id, String symbol, String side, Status status, double qty,
+                             double filledQty, double filledAvgPrice, Instant updatedAt, JsonNode order) {}
+
+    /**
+     * One change to the book. {@code event} is the broker's event name (e.g. {@code fill},
+     * {@code canceled}) or {@code poll} for a polled change; {@code positionQty} is the broker's
+     * position after a fill (or after a polled order closed with an unknown outcome) when reported
+     * or looked up, else NaN.
+     */
+    public record OrderUpdate(String event, OrderState order, double positionQty) {}
+
+    public record BookStats(boolean live, int openOrders, int closedOrders, long updates, long fills) {}
+
+    private final String broker;
+    private final Map<String, OrderState> orders = new ConcurrentHashMap<>();
+    private final Deque<String> closedIds = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<Consumer<OrderUpdate>> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong updates = new AtomicLong();
+    private final AtomicLong fills = new AtomicLong();
+
+    private final AtomicReference<Instant> changesExpectedAt = new AtomicReference<>();
+
+    private volatile boolean live;
+    private volatile boolean polled;
+    private volatile long settleUntilNanos;
+
+    public OrderBook(String broker) {
+        this.broker = broker;
+    }
+
+    public String broker() {
+        return broker;
+    }
+
+    /** Called on the feed's thread for every change; listeners must not block. */
+    public void addListener(Consumer<OrderUpdate> listener) {
+        listeners.add(listener);
+    }
+
+    /** Whether the feed is connected and the book has been seeded, so answers can be trusted. */
+    public boolean isLive() {
+        return live;
+    }
+
+    void setLive(boolean live) {
+        if (this.live != live) {
+            logger.info("[{}] Order book {}", broker, live ? "live" : "offline — order checks fall back to REST");
+        }
+        this.live = live;
+    }
+
+    /**
+     * The feed only sees changes when it reconciles a listing, so after {@link #expectChanges} the
+     * book waits for the next listing instead of the settle window. Set by {@link PollingOrderFeed}.
+     */
+    void settleOnReconcile() {
+        polled = true;
+    }
+
+    /** A local order call is about to change the book; defer to REST until the feed catches up. */
+    public void expectChanges() {
+        changesExpectedAt.set(Instant.now());
+        settleUntilNanos = System.nanoTime() + SETTLE.toNanos();
+    }
+
+    private boolean settling() {
+        return polled ? changesExpectedAt.get() != null : System.nanoTime() - settleUntilNanos < 0;
+    }
+
+    /**
+     * Open orders for {@code symbol} as a JSON array (empty when none), or null when the book
+     * can't answer right now — offline or settling — and the caller should ask the broker.
+     */
+    public JsonNode openOrders(String symbol) {
+        if (!live || settling()) return null;
+        ArrayNode result = JsonNodeFactory.instance.arrayNode();
+        for (OrderState state : orders.values()) {
+            if (state.status().isOpen() && state.symbol().equals(symbol)) {
+                result.add(state.order());
+            }
+        }
+        return result;
+    }
+
+    /** Open orders for {@code symbol} with their status, regardless of liveness. */
+    public List<OrderState> openOrderStates(String symbol) {
+        var result = new ArrayList<OrderState>();
+        for (OrderState state : orders.values()) {
+            if (state.status().isOpen() && state.symbol().equals(symbol)) result.add(state);
+        }
+        return result;
+    }
+
+    public Optional<OrderState> get(String orderId) {
+        return Optional.ofNullable(orders.get(orderId));
+    }
+
+    // ── Feed input ────────────────────────────────────────────────────────────
+
+    /**
+     * Apply one order update from a feed. Returns the new state, or empty when the update was
+     * ignored: no id, older than what the book holds, or re-opening an order already closed.
+     */
+    Optional<OrderState> apply(String event, JsonNode order, double positionQty) {
+        return apply(event, order, positionQty, null);
+    }
+
+    /**
+     * As {@link #apply(String, JsonNode, double)}; when no position was reported and the update
+     * adds filled quantity, {@code positionAfter} is asked for the post-fill position.
+     */
+    private Optional<OrderState> apply(String event, JsonNode order, double positionQty,
+                                       ToDoubleFunction<OrderState> positionAfter) {
+        String id = order.path("id").asText("");
+        if (id.isEmpty()) return Optional.empty();
+        Status status = Status.of(order.has("status") ? order.path("status").asText() : event);
+        var next = new OrderState(id, order.path("symbol").asText("").toUpperCase(),
+            order.path("side").asText("").toLowerCase(), status,
+            number(order, "qty", "quantity"), number(order, "filled_qty", "exec_quantity"),
+            number(order, "filled_avg_price", "avg_fill_price"), updatedAt(order), order);
+
+        boolean filled;
+        lock.lock();
+        try {
+            var previous = orders.get(id);
+            filled = status == Status.FILLED || next.filledQty() > (previous != null ? previous.filledQty() : 0);
+            if (previous != null) {
+                if (next.updatedAt().isBefore(previous.updatedAt())) return Optional.empty();
+                if (!previous.status().isOpen() && next.status().isOpen()) return Optional.empty();
+                if (previous.status() == next.status() && previous.filledQty() == next.filledQty()
+                        && previous.status().isOpen()) {
+                    // Same open state re-reported (e.g. by a poll): keep it without notifying
+                    orders.put(id, next);
+                    return Optional.empty();
+                }
+            } else if (next.symbol().isEmpty()) {
+                return Optional.empty();
+            }
+            orders.put(id, next);
+            if (!next.status().isOpen()) retire(id);
+        } finally {
+            lock.unlock();
+        }
+
+        updates.incrementAndGet();
+        if (next.status() == Status.FILLED || next.status() == Status.PARTIALLY_FILLED) fills.incrementAndGet();
+        if (Double.isNaN(positionQty) && filled && positionAfter != null) {
+            positionQty = positionAfter.applyAsDouble(next);
+        }
+        publish(new OrderUpdate(event, next, positionQty));
+        return Optional.of(next);
+    }
+
+    /**
+     * Reconcile with a full open-order listing taken at {@code asOf}. Listed orders are applied;
+     * orders the book holds as open that the listing no longer has — and that have not been
+     * updated since the listing was taken — are closed with the status {@code resolve} finds
+     * for them, or {@link Status#CLOSED} when it finds none.
+     *
+     * A listing carries no positions, so for a polled fill — and for an order closed with an
+     * unknown outcome, which may have filled — {@code position} (null when unavailable) is asked
+     * for the symbol's position; that becomes the update's {@code positionQty}.
+     *
+     * A listing taken after the last {@link #expectChanges} includes those changes, so it ends
+     * the wait of a polled book.
+     */
+    void reconcile(JsonNode openOrders, Instant asOf, Function<OrderState, JsonNode> resolve,
+                   ToDoubleFunction<String> position) {
+        ToDoubleFunction<OrderState> positionAfter = state -> positionOf(position, state.symbol());
+        Set<String> listed = new HashSet<>();
+        for (JsonNode order : openOrders) {
+            String id = order.path("id").asText("");
+            if (id.isEmpty()) continue;
+            listed.add(id);
+            apply("poll", order, Double.NaN, positionAfter);
+        }
+        Collection<OrderState> vanished = orders.values().stream()
+            .filter(s -> s.status().isOpen() && !listed.contains(s.id()) && !s.updatedAt().isAfter(asOf))
+            .toList();
+        for (OrderState state : vanished) {
+            JsonNode resolved = resolve != null ? resolve.apply(state) : null;
+            if (resolved != null && !Status.of(resolved.path("status").asText()).isOpen()) {
+                var merged = resolved.deepCopy();
+                if (merged.isObject()) {
+                    ((ObjectNode) merged).put("id", state.id())
+                        .put("symbol", state.symbol())
+                        .put("updated_at", asOf.toString());
+                }
+                apply("poll", merged, Double.NaN, positionAfter);
+            } else {
+                var closed = state.order().deepCopy();
+                if (closed.isObject()) {
+                    ((ObjectNode) closed).put("status", "closed")
+                        .put("id", state.id()).put("symbol", state.symbol())
+                        .put("updated_at", asOf.toString());
+                }
+                forceClose(state, closed, positionAfter);
+            }
+        }
+        var expected = changesExpectedAt.get();
+        if (expected != null && asOf.isAfter(expected)) changesExpectedAt.compareAndSet(expected, null);
+    }
+
+    private void forceClose(OrderState state, JsonNode order, ToDoubleFunction<OrderState> positionAfter) {
+        var closed = new OrderState(state.id(), state.symbol(), state.side(), Status.CLOSED, state.qty(),
+            state.filledQty(), state.filledAvgPrice(), updatedAt(order), order);
+        lock.lock();
+        try {
+            var current = orders.get(state.id());
+            if (current == null || !current.status().isOpen()) return;
+            orders.put(state.id(), closed);
+            retire(state.id());
+        } finally {
+            lock.unlock();
+        }
+        updates.incrementAndGet();
+        publish(new OrderUpdate("poll", closed, positionAfter.applyAsDouble(closed)));
+    }
+
+    private void publish(OrderUpdate update) {
+        for (var listener : listeners) {
+            try {
+                listener.accept(update);
+            } catch (Exception e) {
+                logger.warn("[{}] Order book listener failed on {} {}: {}", broker, update.event(),
+                    update.order().id(), e.getMessage());
+            }
+        }
+    }
+
+    /** The broker's position in {@code symbol}, or NaN when there is no lookup or it failed. */
+    private double positionOf(ToDoubleFunction<String> position, String symbol) {
+        if (position == null) return Double.NaN;
+        try {
+            return position.applyAsDouble(symbol);
+        } catch (Exception e) {
+            logger.debug("[{}] Could not look up the {} position: {}", broker, symbol, e.getMessage());
+            return Double.NaN;
+        }
+    }
+
+    /** Must hold {@link #lock}. Keeps the last {@value #RETAIN_CLOSED} closed orders. */
+    private void retire(String id) {
+        closedIds.remove(id);
+        closedIds.addLast(id);
+        while (closedIds.size() > RETAIN_CLOSED) {
+            orders.remove(closedIds.removeFirst());
+        }
+    }
+
+    public BookStats getStats() {
+        int open = (int) orders.values().stream().filter(s -> s.status().isOpen()).count();
+        return new BookStats(live, open, orders.size() - open, updates.get(), fills.get());
+    }
+
+    private static double number(JsonNode order, String field, String alternative) {
+        JsonNode node = order.has(field) ? order.get(field) : order.path(alternative);
+        if (node.isNumber()) return node.asDouble();
+        if (node.isTextual()) {
+            try {
+                return Double.parseDouble(node.asText());
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+        return 0;
+    }
+
+    private static Instant updatedAt(JsonNode order) {
+        for (String field : new String[] {"updated_at", "transaction_date"}) {
+            String text = order.path(field).asText("");
+            if (text.isEmpty()) continue;
+            try {
+                return Instant.parse(text);
+            } catch (DateTimeParseException e) {
+                // Alpaca uses offsets with nanoseconds; fall through to the next field or now
+                try {
+                    return OffsetDateTime.parse(text).toInstant();
+                } catch (DateTimeParseException ignored) {
+                }
+            }
+        }
+        return Instant.now();
+    }
+}
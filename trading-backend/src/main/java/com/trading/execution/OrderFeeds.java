@@ -0,0 +1,49 @@
+package com.trading.execution;
+
+import com.trading.api.ResilientBrokerClient;
+import com.trading.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * Starts the order feed that suits a broker and returns the {@link OrderBook} it keeps current:
+ * Alpaca's trade_updates stream, or polling for Tradier and IBKR. Brokers that can't list all
+ * open orders in one call (Tradovate) get no book and keep asking per symbol.
+ */
+public final class OrderFeeds {
+    private static final Logger logger = LoggerFactory.getLogger(OrderFeeds.class);
+
+    private OrderFeeds() {}
+
+    /** The running book for {@code broker}, or null when ORDER_STATE_ENGINE_ENABLED=false or unsupported. */
+    public static OrderBook start(String broker, ResilientBrokerClient client, Config config) {
+        if (!config.isOrderStateEngineEnabled()) {
+            logger.info("Order-state engine disabled (ORDER_STATE_ENGINE_ENABLED=false)");
+            return null;
+        }
+        var book = new OrderBook(broker);
+        switch (broker.toLowerCase()) {
+            case "alpaca" -> new AlpacaTradeUpdatesClient(URI.create(config.getOrderStreamUrl()),
+                config.apiKey(), config.apiSecret(), book, client::getAllOpenOrders).start();
+            case "tradier", "ibkr" -> new PollingOrderFeed(book, client::getAllOpenOrders,
+                client.getDelegate()::getRecentOrders, symbol -> positionQty(client, symbol),
+                Duration.ofMillis(config.getOrderPollIntervalMs())).start();
+            default -> {
+                logger.info("[{}] No order feed for this broker — open orders are checked per symbol", broker);
+                return null;
+            }
+        }
+        return book;
+    }
+
+    /** The account's position in {@code symbol}, 0 when it holds none. */
+    private static double positionQty(ResilientBrokerClient client, String symbol) {
+        return client.getPositions().stream()
+            .filter(p -> p.symbol().equalsIgnoreCase(symbol))
+            .mapToDouble(com.trading.api.model.Position::quantity)
+            .findFirst().orElse(0);
+    }
+}
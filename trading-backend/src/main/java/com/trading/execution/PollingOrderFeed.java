@@ -0,0 +1,124 @@
+package com.trading.execution;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Order feed for brokers without a trade-update stream (Tradier, IBKR): polls the one-call
+ * open-order listing on a virtual thread and reconciles the {@link OrderBook} with it.
+ *
+ * An order that drops out of the listing is looked up in the broker's recent orders for its
+ * final status (filled, canceled, rejected, expired); when it is not found there it is recorded
+ * as {@link OrderBook.Status#CLOSED}. The listing carries no positions, so when a poll sees a fill
+ * (or an order closed with an unknown outcome) the symbol's position is looked up once and
+ * reported as the update's post-fill quantity. Reaction latency is the poll interval rather than a full
+ * trading cycle. A failed poll takes the book offline until the next one succeeds, and after a
+ * local order call the book declines reads until the next poll has been reconciled.
+ */
+public final class PollingOrderFeed implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(PollingOrderFeed.class);
+
+    private final OrderBook book;
+    private final Supplier<JsonNode> openOrderListing;
+    private final Function<String, JsonNode> recentOrders;
+    private final ToDoubleFunction<String> position;
+    private final Duration interval;
+
+    private volatile Thread thread;
+    private volatile boolean running;
+
+    /**
+     * @param openOrderListing all open orders with a {@code symbol} field, or null when the broker can't list them
+     * @param recentOrders     recent orders (any status) for a symbol, used to resolve vanished orders
+     */
+    public PollingOrderFeed(OrderBook book, Supplier<JsonNode> openOrderListing,
+                            Function<String, JsonNode> recentOrders, Duration interval) {
+        this(book, openOrderListing, recentOrders, null, interval);
+    }
+
+    /**
+     * @param position the broker's position quantity in a symbol (0 when flat), or null when it can't be looked up
+     */
+    public PollingOrderFeed(OrderBook book, Supplier<JsonNode> openOrderListing,
+                            Function<String, JsonNode> recentOrders, ToDoubleFunction<String> position,
+                            Duration interval) {
+        this.book = book;
+        this.openOrderListing = openOrderListing;
+        this.recentOrders = recentOrders;
+        this.position = position;
+        this.interval = interval;
+        book.settleOnReconcile();
+    }
+
+    public OrderBook book() {
+        return book;
+    }
+
+    public void start() {
+        if (running) return;
+        running = true;
+        thread = Thread.ofVirtual().name("order-poll-" + book.broker()).start(this::loop);
+        logger.info("[{}] Polling open orders every {}ms", book.broker(), interval.toMillis());
+    }
+
+    private void loop() {
+        while (running) {
+            poll();
+            try {
+                Thread.sleep(interval);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    void poll() {
+        Instant asOf = Instant.now();
+        JsonNode listing;
+        try {
+            listing = openOrderListing.get();
+        } catch (Exception e) {
+            logger.debug("[{}] Open order poll failed: {}", book.broker(), e.getMessage());
+            book.setLive(false);
+            return;
+        }
+        if (listing == null || !listing.isArray()) {
+            book.setLive(false);
+            return;
+        }
+        book.reconcile(listing, asOf, this::resolve, position);
+        book.setLive(true);
+    }
+
+    /** The vanished order's final record from the broker's recent orders, or null. */
+    private JsonNode resolve(OrderBook.OrderState state) {
+        if (recentOrders == null) return null;
+        try {
+            JsonNode recent = recentOrders.apply(state.symbol());
+            if (recent == null) return null;
+            for (JsonNode order : recent.isArray() ? recent : List.of(recent)) {
+                if (state.id().equals(order.path("id").asText())) return order;
+            }
+        } catch (Exception e) {
+            logger.debug("[{}] Could not resolve order {}: {}", book.broker(), state.id(), e.getMessage());
+        }
+        return null;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        book.setLive(false);
+        var t = thread;
+        if (t != null) t.interrupt();
+    }
+}
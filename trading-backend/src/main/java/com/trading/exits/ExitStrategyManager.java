@@ -5,8 +5,8 @@ import com.trading.risk.TradePosition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Clock;
 import java.time.Duration;
-import java.time.Instant;
 import java.util.Map;
 
 /**
@@ -24,6 +24,7 @@ public class ExitStrategyManager {
     private static final Logger logger = LoggerFactory.getLogger(ExitStrategyManager.class);
     
     private final Config config;
+    private final Clock clock;
     
     // Partial exit levels (percentage of profit target)
     private static final double PARTIAL_EXIT_LEVEL_1 = 0.25; // 25% of profit target
@@ -36,7 +37,13 @@ public class ExitStrategyManager {
     private static final double PARTIAL_EXIT_SIZE_3 = 0.50; // Exit 1/2 of remaining
     
     public ExitStrategyManager(Config config) {
+        this(config, Clock.systemUTC());
+    }
+
+    /** Hold times are measured against {@code clock} — a backtest passes its virtual clock. */
+    public ExitStrategyManager(Config config, Clock clock) {
         this.config = config;
+        this.clock = clock;
         logger.info("ExitStrategyManager initialized with enhanced exit strategies");
     }
     
@@ -248,7 +255,7 @@ public class ExitStrategyManager {
      * Exit positions that have been open too long without profit.
      */
     private ExitDecision evaluateTimeDecayExit(TradePosition position, double currentPrice) {
-        Duration holdTime = Duration.between(position.entryTime(), Instant.now());
+        Duration holdTime = Duration.between(position.entryTime(), clock.instant());
         double profitPercent = position.getProfitPercent(currentPrice);
 
         // Hard cap: force-close any position held beyond MAX_ABSOLUTE_HOLD_HOURS regardless of P&L.
@@ -351,7 +358,7 @@ public class ExitStrategyManager {
         if (!config.isTimeStopEnabled()) return ExitDecision.noExit();
 
         // Approximate "bars" as trading days held. 24h hold = ~1 daily bar.
-        long hoursHeld = Duration.between(position.entryTime(), Instant.now()).toHours();
+        long hoursHeld = Duration.between(position.entryTime(), clock.instant()).toHours();
         long requiredHours = config.getTimeStopBars() * 24L;
         if (hoursHeld < requiredHours) return ExitDecision.noExit();
 
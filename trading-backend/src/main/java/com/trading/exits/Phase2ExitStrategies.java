@@ -5,8 +5,8 @@ import com.trading.risk.TradePosition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Clock;
 import java.time.Duration;
-import java.time.Instant;
 
 /**
  * Phase 2 Exit Strategies - Advanced profit-maximizing exit logic.
@@ -16,9 +16,15 @@ public class Phase2ExitStrategies {
     private static final Logger logger = LoggerFactory.getLogger(Phase2ExitStrategies.class);
     
     private final Config config;
+    private final Clock clock;
     
     public Phase2ExitStrategies(Config config) {
+        this(config, Clock.systemUTC());
+    }
+
+    public Phase2ExitStrategies(Config config, Clock clock) {
         this.config = config;
+        this.clock = clock;
     }
     
     /**
@@ -39,7 +45,7 @@ public class Phase2ExitStrategies {
             double profitPercent = position.getProfitPercent(currentPrice);
             
             // If profitable and position opened today, take partial profit
-            Duration holdTime = Duration.between(position.entryTime(), Instant.now());
+            Duration holdTime = Duration.between(position.entryTime(), clock.instant());
             boolean isIntraday = holdTime.toHours() < 24;
             
             if (profitPercent >= 0.5 && isIntraday) {
@@ -123,7 +129,7 @@ public class Phase2ExitStrategies {
         }
         
         // Calculate current velocity (profit per hour)
-        Duration holdTime = Duration.between(position.entryTime(), Instant.now());
+        Duration holdTime = Duration.between(position.entryTime(), clock.instant());
         double hoursHeld = holdTime.toMinutes() / 60.0;
         if (hoursHeld < 0.25) return ExitStrategyManager.ExitDecision.noExit(); // Need at least 15 min
         
@@ -164,7 +170,7 @@ public class Phase2ExitStrategies {
             return ExitStrategyManager.ExitDecision.noExit();
         }
         
-        var now = java.time.ZonedDateTime.now(java.time.ZoneId.of("America/New_York"));
+        var now = java.time.ZonedDateTime.now(clock.withZone(java.time.ZoneId.of("America/New_York")));
         var currentTime = now.toLocalTime();
         var lockTime = java.time.LocalTime.parse(config.getEODProfitLockTime());
         
@@ -174,7 +180,7 @@ public class Phase2ExitStrategies {
             
             // Only lock if profitable and held less than min hours
             if (profitPercent > 0) {
-                Duration holdTime = Duration.between(position.entryTime(), Instant.now());
+                Duration holdTime = Duration.between(position.entryTime(), clock.instant());
                 int minHours = config.getEODProfitLockMinHoldHours();
                 
                 if (holdTime.toHours() < minHours) {
@@ -209,7 +215,7 @@ public class Phase2ExitStrategies {
         }
         
         double profitPercent = position.getProfitPercent(currentPrice);
-        Duration holdTime = Duration.between(position.entryTime(), Instant.now());
+        Duration holdTime = Duration.between(position.entryTime(), clock.instant());
         long minutesHeld = holdTime.toMinutes();
         
         // Check 30-minute rule: +1.0% in 30 minutes
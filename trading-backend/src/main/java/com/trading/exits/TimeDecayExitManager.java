@@ -5,8 +5,8 @@ import com.trading.risk.TradePosition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Clock;
 import java.time.Duration;
-import java.time.Instant;
 
 /**
  * Time-Decay Exit Manager
@@ -16,9 +16,15 @@ public class TimeDecayExitManager {
     private static final Logger logger = LoggerFactory.getLogger(TimeDecayExitManager.class);
     
     private final Config config;
+    private final Clock clock;
     
     public TimeDecayExitManager(Config config) {
+        this(config, Clock.systemUTC());
+    }
+
+    public TimeDecayExitManager(Config config, Clock clock) {
         this.config = config;
+        this.clock = clock;
     }
     
     /**
@@ -33,7 +39,7 @@ public class TimeDecayExitManager {
         }
         
         // Calculate how long position has been held
-        Duration held = Duration.between(position.entryTime(), Instant.now());
+        Duration held = Duration.between(position.entryTime(), clock.instant());
         long hoursHeld = held.toHours();
         
         // Check if held long enough
@@ -60,7 +66,7 @@ public class TimeDecayExitManager {
      * Get reason for exit (for logging)
      */
     public String getExitReason(TradePosition position, double currentPrice) {
-        Duration held = Duration.between(position.entryTime(), Instant.now());
+        Duration held = Duration.between(position.entryTime(), clock.instant());
         double pnlPercent = ((currentPrice - position.entryPrice()) / position.entryPrice()) * 100.0;
         
         return String.format("Time-decay: Held %dh with only %.2f%% P&L",
@@ -3,76 +3,42 @@ package com.trading.filters;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.trading.api.ExchangeCalendar;
 import com.trading.config.Config;
 
 import java.time.*;
-import java.util.Set;
 
 /**
  * Filter to block trading outside market hours.
- * Standard: 9:30 AM - 4:00 PM ET
+ * Standard: 9:30 AM - 4:00 PM ET (1:00 PM on early-close days)
  * Extended: 4:00 AM - 8:00 PM ET (if enabled)
  *
- * Also blocks trading on NYSE holidays (2025-2027).
+ * Sessions, NYSE holidays and early closes come from {@link ExchangeCalendar#nyse()}.
  */
 public final class MarketHoursFilter {
     private static final Logger logger = LoggerFactory.getLogger(MarketHoursFilter.class);
-    private static final ZoneId EST = ZoneId.of("America/New_York");
+    private static final ZoneId EST = ExchangeCalendar.NY;
+    private static final ExchangeCalendar NYSE = ExchangeCalendar.nyse();
 
     // Standard Hours
-    private static final LocalTime MARKET_OPEN  = LocalTime.of(9, 30);
-    private static final LocalTime MARKET_CLOSE = LocalTime.of(16, 0);
+    private static final LocalTime MARKET_OPEN  = ExchangeCalendar.NYSE_OPEN;
+    private static final LocalTime MARKET_CLOSE = ExchangeCalendar.NYSE_CLOSE;
 
     // Extended Hours
     private static final LocalTime EXTENDED_OPEN  = LocalTime.of(4, 0);
     private static final LocalTime EXTENDED_CLOSE = LocalTime.of(20, 0);
 
-    /**
-     * NYSE observed holidays 2025-2027.
-     * Source: NYSE holiday schedule (https://www.nyse.com/markets/hours-calendars)
-     */
-    private static final Set<LocalDate> NYSE_HOLIDAYS = Set.of(
-        // 2025
-        LocalDate.of(2025,  1,  1),  // New Year's Day
-        LocalDate.of(2025,  1, 20),  // MLK Jr. Day
-        LocalDate.of(2025,  2, 17),  // Presidents' Day
-        LocalDate.of(2025,  4, 18),  // Good Friday
-        LocalDate.of(2025,  5, 26),  // Memorial Day
-        LocalDate.of(2025,  6, 19),  // Juneteenth
-        LocalDate.of(2025,  7,  4),  // Independence Day
-        LocalDate.of(2025,  9,  1),  // Labor Day
-        LocalDate.of(2025, 11, 27),  // Thanksgiving
-        LocalDate.of(2025, 12, 25),  // Christmas
-
-        // 2026
-        LocalDate.of(2026,  1,  1),  // New Year's Day
-        LocalDate.of(2026,  1, 19),  // MLK Jr. Day
-        LocalDate.of(2026,  2, 16),  // Presidents' Day
-        LocalDate.of(2026,  4,  3),  // Good Friday
-        LocalDate.of(2026,  5, 25),  // Memorial Day
-        LocalDate.of(2026,  6, 19),  // Juneteenth
-        LocalDate.of(2026,  7,  3),  // Independence Day (observed, July 4 is Sat)
-        LocalDate.of(2026,  9,  7),  // Labor Day
-        LocalDate.of(2026, 11, 26),  // Thanksgiving
-        LocalDate.of(2026, 12, 25),  // Christmas
-
-        // 2027
-        LocalDate.of(2027,  1,  1),  // New Year's Day
-        LocalDate.of(2027,  1, 18),  // MLK Jr. Day
-        LocalDate.of(2027,  2, 15),  // Presidents' Day
-        LocalDate.of(2027,  3, 26),  // Good Friday
-        LocalDate.of(2027,  5, 31),  // Memorial Day
-        LocalDate.of(2027,  6, 18),  // Juneteenth (observed, June 19 is Sat)
-        LocalDate.of(2027,  7,  5),  // Independence Day (observed, July 4 is Sun)
-        LocalDate.of(2027,  9,  6),  // Labor Day
-        LocalDate.of(2027, 11, 25),  // Thanksgiving
-        LocalDate.of(2027, 12, 24)   // Christmas (observed, Dec 25 is Sat)
-    );
-
     private final Config config;
+    private final Clock clock;
 
     public MarketHoursFilter(Config config) {
+        this(config, Clock.systemUTC());
+    }
+
+    /** Answers for the time on {@code clock} — a backtest passes its virtual clock. */
+    public MarketHoursFilter(Config config, Clock clock) {
         this.config = config;
+        this.clock = clock;
 
         LocalTime openTime  = config.isExtendedHoursEnabled() ? EXTENDED_OPEN  : MARKET_OPEN;
         LocalTime closeTime = config.isExtendedHoursEnabled() ? EXTENDED_CLOSE : MARKET_CLOSE;
@@ -100,7 +66,7 @@ public final class MarketHoursFilter {
 
     /** Returns true if today is a NYSE holiday. */
     public static boolean isNyseHoliday(LocalDate date) {
-        return NYSE_HOLIDAYS.contains(date);
+        return NYSE.isHoliday(date);
     }
 
     /**
@@ -111,8 +77,7 @@ public final class MarketHoursFilter {
     public static boolean isInOpeningWindow(ZonedDateTime now, int windowMinutes) {
         if (windowMinutes <= 0) return false;
         ZonedDateTime ny = now.withZoneSameInstant(EST);
-        if (ny.getDayOfWeek() == DayOfWeek.SATURDAY || ny.getDayOfWeek() == DayOfWeek.SUNDAY) return false;
-        if (isNyseHoliday(ny.toLocalDate())) return false;
+        if (!NYSE.isSessionDay(ny.toLocalDate())) return false;
         LocalTime t = ny.toLocalTime();
         LocalTime windowEnd = MARKET_OPEN.plusMinutes(windowMinutes);
         return !t.isBefore(MARKET_OPEN) && t.isBefore(windowEnd);
@@ -120,30 +85,20 @@ public final class MarketHoursFilter {
 
     /** Convenience overload using the current clock. */
     public boolean isInOpeningWindow(int windowMinutes) {
-        return isInOpeningWindow(ZonedDateTime.now(EST), windowMinutes);
+        return isInOpeningWindow(ZonedDateTime.now(clock.withZone(EST)), windowMinutes);
     }
 
     /**
      * Check if current time is within market hours.
      */
     public boolean isMarketOpen() {
-        ZonedDateTime now      = ZonedDateTime.now(EST);
-        LocalDate today        = now.toLocalDate();
-        LocalTime currentTime  = now.toLocalTime();
-        DayOfWeek dayOfWeek    = now.getDayOfWeek();
-
-        if (dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY) {
-            return false;
-        }
-
-        if (isNyseHoliday(today)) {
-            return false;
+        if (!config.isExtendedHoursEnabled()) {
+            return NYSE.isOpen(clock.millis());
         }
-
-        LocalTime openTime  = config.isExtendedHoursEnabled() ? EXTENDED_OPEN  : MARKET_OPEN;
-        LocalTime closeTime = config.isExtendedHoursEnabled() ? EXTENDED_CLOSE : MARKET_CLOSE;
-
-        return !currentTime.isBefore(openTime) && currentTime.isBefore(closeTime);
+        ZonedDateTime now = ZonedDateTime.now(clock.withZone(EST));
+        LocalTime currentTime = now.toLocalTime();
+        return NYSE.isSessionDay(now.toLocalDate())
+            && !currentTime.isBefore(EXTENDED_OPEN) && currentTime.isBefore(EXTENDED_CLOSE);
     }
 
     /**
@@ -153,29 +108,29 @@ public final class MarketHoursFilter {
         if (!isMarketOpen()) {
             return "CLOSED";
         }
-        LocalTime currentTime = ZonedDateTime.now(EST).toLocalTime();
-        if (currentTime.isBefore(MARKET_OPEN))  return "PRE_MARKET";
-        if (currentTime.isBefore(MARKET_CLOSE)) return "REGULAR";
-        return "POST_MARKET";
+        if (NYSE.isOpen(clock.millis())) return "REGULAR";
+        LocalTime currentTime = ZonedDateTime.now(clock.withZone(EST)).toLocalTime();
+        return currentTime.isBefore(MARKET_OPEN) ? "PRE_MARKET" : "POST_MARKET";
     }
 
     /**
      * Get human-readable reason why market is closed.
      */
     public String getClosedReason() {
-        ZonedDateTime now     = ZonedDateTime.now(EST);
+        ZonedDateTime now     = ZonedDateTime.now(clock.withZone(EST));
         LocalDate today       = now.toLocalDate();
         LocalTime currentTime = now.toLocalTime();
         DayOfWeek dayOfWeek   = now.getDayOfWeek();
 
         LocalTime openTime  = config.isExtendedHoursEnabled() ? EXTENDED_OPEN  : MARKET_OPEN;
-        LocalTime closeTime = config.isExtendedHoursEnabled() ? EXTENDED_CLOSE : MARKET_CLOSE;
+        LocalTime closeTime = config.isExtendedHoursEnabled()
+            ? EXTENDED_CLOSE : NYSE.closeTime(today).orElse(MARKET_CLOSE);
 
         if (dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY) {
             return "Weekend";
         }
         if (isNyseHoliday(today)) {
-            return "NYSE Holiday";
+            return "NYSE Holiday (" + NYSE.holidayName(today).orElse("") + ")";
         }
         if (currentTime.isBefore(openTime)) {
             return "Pre-market (opens at " + openTime + " ET)";
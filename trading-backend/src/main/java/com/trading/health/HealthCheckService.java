@@ -68,6 +68,12 @@ public final class HealthCheckService {
     private ComponentHealth checkDatabaseHealth() {
         try {
             database.getTotalTrades();
+            var journal = database.getJournalStats();
+            if (journal != null && !database.isJournalHealthy()) {
+                return new ComponentHealth(Status.DEGRADED, "Write-behind journal failing",
+                    journal.consecutiveFailures() + " failed commits in a row, "
+                        + journal.pending() + " writes queued; new entries paused");
+            }
             return new ComponentHealth(Status.UP, "Database accessible", null);
         } catch (Exception e) {
             logger.error("Database health check failed", e);
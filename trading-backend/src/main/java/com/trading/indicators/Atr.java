@@ -0,0 +1,48 @@
+package com.trading.indicators;
+
+import com.trading.api.model.BarSeries;
+
+/**
+ * Wilder ATR exactly as AtrCalculator.atr computes it over the last {@code bars} bars — the
+ * window a batch caller fetches: the first {@code period} true ranges of the window are averaged,
+ * later ones smoothed as {@code ((period - 1) * atr + tr) / period}. Returns 0 until
+ * {@code period + 1} bars, like the batch version. The seed moves with the window, so every bar
+ * re-reads it: O(bars) per update.
+ */
+final class Atr extends WindowedIndicator {
+    private final int period;
+    private final int bars;
+
+    Atr(int period, int bars) {
+        this.period = period;
+        this.bars = bars;
+    }
+
+    @Override
+    double compute(BarSeries series) {
+        int n = series.size();
+        int from = Math.max(0, n - bars);
+        if (n - from < period + 1) return 0.0;
+
+        double sumTr = 0.0;
+        for (int i = from + 1; i <= from + period; i++) {
+            sumTr += trueRange(series, i);
+        }
+        double atr = sumTr / period;
+
+        for (int i = from + period + 1; i < n; i++) {
+            atr = ((period - 1) * atr + trueRange(series, i)) / period;
+        }
+        return atr;
+    }
+
+    private static double trueRange(BarSeries bars, int i) {
+        double high = bars.high(i);
+        double low = bars.low(i);
+        double previousClose = bars.close(i - 1);
+        double range = high - low;
+        double upGap = Math.abs(high - previousClose);
+        double downGap = Math.abs(low - previousClose);
+        return Math.max(range, Math.max(upGap, downGap));
+    }
+}
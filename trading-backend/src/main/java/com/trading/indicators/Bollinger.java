@@ -0,0 +1,47 @@
+package com.trading.indicators;
+
+import com.trading.api.model.BarSeries;
+
+/**
+ * Bollinger bands over the last {@code period} closes, as MeanReversionStrategy computes them:
+ * middle = mean, population standard deviation, both via DoubleStream averages.
+ * {@link #value()} is the middle band; NaN until {@code period} bars.
+ */
+final class Bollinger extends WindowedIndicator {
+    private final int period;
+    private final double width;
+    private double stdDev = Double.NaN;
+
+    Bollinger(int period, double width) {
+        this.period = period;
+        this.width = width;
+    }
+
+    @Override
+    double compute(BarSeries series) {
+        int size = series.size();
+        if (size < period) {
+            stdDev = Double.NaN;
+            return Double.NaN;
+        }
+        double mean = series.closes(size - period, size).average().orElse(0.0);
+        double variance = series.closes(size - period, size)
+            .map(p -> Math.pow(p - mean, 2))
+            .average()
+            .orElse(0.0);
+        stdDev = Math.sqrt(variance);
+        return mean;
+    }
+
+    double stdDev() {
+        return stdDev;
+    }
+
+    double upper() {
+        return value() + (width * stdDev);
+    }
+
+    double lower() {
+        return value() - (width * stdDev);
+    }
+}
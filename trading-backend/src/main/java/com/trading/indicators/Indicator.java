@@ -0,0 +1,26 @@
+package com.trading.indicators;
+
+import com.trading.api.model.BarSeries;
+
+/**
+ * Streaming indicator fed one bar at a time by an {@link IndicatorSet}.
+ *
+ * Every implementation reproduces an existing batch calculation bit-for-bit: feeding bars
+ * 0..n-1 one by one leaves {@link #value()} equal to the batch result over those n bars, and
+ * {@link #previous()} equal to the batch result over the first n-1.
+ */
+interface Indicator {
+
+    /**
+     * The newest bar of {@code series} was appended ({@code revised = false}) or replaced in
+     * place because the still-forming bar changed ({@code revised = true}). The series is
+     * read-only to the indicator.
+     */
+    void update(BarSeries series, boolean revised);
+
+    /** Value as of the newest bar, with the same warm-up result the batch version returns. */
+    double value();
+
+    /** Value as of the bar before the newest; NaN until two bars have been seen. */
+    double previous();
+}
@@ -0,0 +1,60 @@
+package com.trading.indicators;
+
+import com.trading.api.model.Bar;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Process-wide {@link IndicatorSet}s keyed by (source, symbol, timeframe), so every profile and
+ * strategy evaluating a symbol on one data feed reads one running state instead of recomputing its
+ * indicators. The source is the broker namespace the bars come from: two feeds' bars for the same
+ * symbol differ, and syncing them into one set would rebuild it on every alternate call.
+ */
+public final class IndicatorRegistry {
+    // Enough for a 200-bar moving average plus MACD's 26 + 2×9 look-back with room to spare.
+    static final int DEFAULT_CAPACITY = 512;
+
+    record Key(String source, String symbol, String timeframe) {}
+
+    private final ConcurrentHashMap<Key, IndicatorSet> sets = new ConcurrentHashMap<>();
+    private final int capacity;
+
+    private static final class Holder {
+        private static final IndicatorRegistry INSTANCE = new IndicatorRegistry(DEFAULT_CAPACITY);
+    }
+
+    public static IndicatorRegistry getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    public IndicatorRegistry(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public IndicatorSet get(String source, String symbol, String timeframe) {
+        return sets.computeIfAbsent(new Key(source, symbol, timeframe), k -> new IndicatorSet(capacity));
+    }
+
+    /**
+     * {@link IndicatorSet#sync Sync} the (source, symbol, timeframe) set with {@code bars} and take
+     * {@code read}'s readings under the same lock, so another caller's sync cannot land in between.
+     */
+    public <T> T sync(String source, String symbol, String timeframe, List<Bar> bars,
+                      Function<IndicatorSet, T> read) {
+        return get(source, symbol, timeframe).sync(bars, read);
+    }
+
+    public void invalidate(String symbol) {
+        sets.keySet().removeIf(k -> k.symbol().equals(symbol));
+    }
+
+    public void clear() {
+        sets.clear();
+    }
+
+    public int size() {
+        return sets.size();
+    }
+}
@@ -0,0 +1,209 @@
+package com.trading.indicators;
+
+import com.trading.api.model.Bar;
+import com.trading.api.model.BarSeries;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Running indicator state for one (symbol, timeframe): a {@link BarSeries} ring plus every
+ * indicator any strategy has asked for, all advanced together when a bar arrives.
+ *
+ * {@link #sync} lines up a freshly fetched window with what is held: new bars are appended,
+ * a changed newest bar is revised in place, and anything that does not line up (a gap, a
+ * different bar source) rebuilds the set from the window. Indicators are created on first use
+ * and replayed over the bars already held, so asking late gives the same value as asking early.
+ *
+ * Thread-safe; readings are immutable snapshots taken under the set's lock. Readings that must
+ * describe the same bars as a sync are taken with {@link #sync(List, Function)}.
+ */
+public final class IndicatorSet {
+
+    /** Indicator value as of the newest bar and as of the bar before it. */
+    public record Reading(double value, double previous) {}
+
+    public record MacdReading(double macd, double signal, double previousMacd, double previousSignal) {
+        public boolean isReady() {
+            return !Double.isNaN(previousMacd) && !Double.isNaN(previousSignal)
+                && !Double.isNaN(macd) && !Double.isNaN(signal);
+        }
+    }
+
+    public record BandsReading(double middle, double upper, double lower, double stdDev) {}
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final BarSeries series;
+    private final Map<String, Indicator> indicators = new LinkedHashMap<>();
+    private final Map<String, Supplier<Indicator>> factories = new LinkedHashMap<>();
+    private long rebuilds;
+
+    IndicatorSet(int capacity) {
+        this.series = new BarSeries(capacity);
+    }
+
+    /**
+     * Bring the set up to date with {@code bars} (oldest → newest). Only the newest held bar may
+     * change in place; a window older than what is held is ignored.
+     */
+    public void sync(List<Bar> bars) {
+        if (bars.isEmpty()) return;
+        lock.lock();
+        try {
+            if (series.isEmpty()) {
+                rebuild(bars);
+                return;
+            }
+            long last = series.timestampMillis(series.size() - 1);
+            if (bars.get(bars.size() - 1).timestamp().toEpochMilli() < last) return;
+
+            int match = -1;
+            for (int i = bars.size() - 1; i >= 0; i--) {
+                long t = bars.get(i).timestamp().toEpochMilli();
+                if (t == last) {
+                    match = i;
+                    break;
+                }
+                if (t < last) break;
+            }
+            if (match < 0) {
+                rebuild(bars);
+                return;
+            }
+            Bar current = bars.get(match);
+            if (!sameBar(series.size() - 1, current)) {
+                series.replaceLast(current);
+                advance(true);
+            }
+            for (int i = match + 1; i < bars.size(); i++) {
+                series.append(bars.get(i));
+                advance(false);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** {@link #sync(List)} and then {@code read} this set, both under one hold of the lock. */
+    public <T> T sync(List<Bar> bars, Function<IndicatorSet, T> read) {
+        lock.lock();
+        try {
+            sync(bars);
+            return read.apply(this);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ── Readings ──────────────────────────────────────────────────────────────
+
+    public Reading sma(int period) {
+        return reading("sma:" + period, () -> new Sma(period));
+    }
+
+    public Reading rsi(int period) {
+        return reading("rsi:" + period, () -> new WilderRsi(period));
+    }
+
+    /** ATR over the last {@code bars} bars held, as a batch caller fetching that many would see it. */
+    public Reading atr(int period, int bars) {
+        return reading("atr:" + period + ":" + bars, () -> new Atr(period, bars));
+    }
+
+    public MacdReading macd(int fast, int slow, int signal) {
+        lock.lock();
+        try {
+            var macd = (Macd) indicator("macd:" + fast + ":" + slow + ":" + signal,
+                () -> new Macd(fast, slow, signal));
+            return new MacdReading(macd.value(), macd.signal(), macd.previous(), macd.previousSignal());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public BandsReading bollinger(int period, double width) {
+        lock.lock();
+        try {
+            var bands = (Bollinger) indicator("bollinger:" + period + ":" + width,
+                () -> new Bollinger(period, width));
+            return new BandsReading(bands.value(), bands.upper(), bands.lower(), bands.stdDev());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return series.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Times the set was rebuilt from a window that did not line up with the held bars. */
+    public long rebuilds() {
+        lock.lock();
+        try {
+            return rebuilds;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ── Internals ─────────────────────────────────────────────────────────────
+
+    private Reading reading(String key, Supplier<Indicator> factory) {
+        lock.lock();
+        try {
+            var indicator = indicator(key, factory);
+            return new Reading(indicator.value(), indicator.previous());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Indicator indicator(String key, Supplier<Indicator> factory) {
+        var indicator = indicators.get(key);
+        if (indicator == null) {
+            indicator = replay(factory.get());
+            indicators.put(key, indicator);
+            factories.put(key, factory);
+        }
+        return indicator;
+    }
+
+    /** Feed every held bar to a fresh indicator, oldest first. */
+    private Indicator replay(Indicator indicator) {
+        for (int i = 1; i <= series.size(); i++) {
+            indicator.update(series.view(0, i), false);
+        }
+        return indicator;
+    }
+
+    private void rebuild(List<Bar> bars) {
+        if (!series.isEmpty()) rebuilds++;
+        series.clear();
+        for (Bar bar : bars) {
+            series.append(bar);
+        }
+        // Fresh instances so no state from the discarded bars survives
+        factories.forEach((key, factory) -> indicators.put(key, replay(factory.get())));
+    }
+
+    private void advance(boolean revised) {
+        for (Indicator indicator : indicators.values()) {
+            indicator.update(series, revised);
+        }
+    }
+
+    private boolean sameBar(int index, Bar bar) {
+        return series.open(index) == bar.open() && series.high(index) == bar.high()
+            && series.low(index) == bar.low() && series.close(index) == bar.close()
+            && series.volume(index) == bar.volume();
+    }
+}
@@ -0,0 +1,100 @@
+package com.trading.indicators;
+
+import com.trading.api.model.BarSeries;
+
+/**
+ * MACD line and signal line exactly as MACDStrategy computes them, without its O(signal × slow)
+ * recomputation per evaluation.
+ *
+ * The batch version defines each EMA over only the last {@code period} closes (seeded with the
+ * oldest of them) and the signal line as an EMA over the last 2×signal MACD values, falling back
+ * to their plain average while fewer than {@code slow} bars precede that window. Here each bar's
+ * MACD value is computed once when the bar arrives and kept in a small ring, so an update costs
+ * O(fast + slow + 2×signal) regardless of history length. Indices count bars since the set was
+ * (re)built, which matches the batch index frame whenever the fallback branch can apply.
+ */
+final class Macd implements Indicator {
+    private final int fast;
+    private final int slow;
+    private final int signalPeriod;
+    private final double k;
+    private final double[] line;
+
+    private int index = -1;
+    private double signal = Double.NaN;
+    private double previousLine = Double.NaN;
+    private double previousSignal = Double.NaN;
+
+    Macd(int fast, int slow, int signalPeriod) {
+        this.fast = fast;
+        this.slow = slow;
+        this.signalPeriod = signalPeriod;
+        this.k = 2.0 / (signalPeriod + 1);
+        this.line = new double[signalPeriod * 2];
+    }
+
+    @Override
+    public void update(BarSeries series, boolean revised) {
+        if (!revised || index < 0) {
+            previousLine = value();
+            previousSignal = signal;
+            index++;
+        }
+        int size = series.size();
+        line[slot(index)] = size >= slow ? ema(series, fast) - ema(series, slow) : Double.NaN;
+        signal = signalAt(index);
+    }
+
+    @Override
+    public double value() {
+        return index < 0 ? Double.NaN : line[slot(index)];
+    }
+
+    @Override
+    public double previous() {
+        return previousLine;
+    }
+
+    double signal() {
+        return signal;
+    }
+
+    double previousSignal() {
+        return previousSignal;
+    }
+
+    /** MACDStrategy.calculateEMA at the newest bar: seeded {@code period} bars back. */
+    private static double ema(BarSeries prices, int period) {
+        int end = prices.size() - 1;
+        double k = 2.0 / (period + 1);
+        double ema = prices.close(end - period + 1);
+        for (int i = end - period + 2; i <= end; i++) {
+            ema = prices.close(i) * k + ema * (1 - k);
+        }
+        return ema;
+    }
+
+    /** MACDStrategy.calculateSignalLine at {@code end}, reading cached MACD values. */
+    private double signalAt(int end) {
+        int startIndex = end - signalPeriod * 2 + 1;
+        if (startIndex < slow) {
+            // Batch fallback: plain average of the last `signalPeriod` MACD values
+            if (end - signalPeriod + 1 < slow - 1) return Double.NaN;
+            double sum = 0;
+            for (int i = 0; i < signalPeriod; i++) {
+                sum += line[slot(end - i)];
+            }
+            return sum / signalPeriod;
+        }
+
+        double value = line[slot(startIndex)];
+        for (int i = startIndex + 1; i <= end; i++) {
+            value = line[slot(i)] * k + value * (1 - k);
+        }
+        return value;
+    }
+
+    private int slot(int i) {
+        return i % line.length;
+    }
+}
@@ -0,0 +1,24 @@
+package com.trading.indicators;
+
+import com.trading.api.model.BarSeries;
+
+/**
+ * Simple moving average of the last {@code period} closes, summed oldest → newest
+ * (same arithmetic as StrategyManager.smaOf). NaN until {@code period} bars.
+ */
+final class Sma extends WindowedIndicator {
+    private final int period;
+
+    Sma(int period) {
+        this.period = period;
+    }
+
+    @Override
+    double compute(BarSeries series) {
+        int size = series.size();
+        if (size < period) return Double.NaN;
+        double sum = 0;
+        for (int i = size - period; i < size; i++) sum += series.close(i);
+        return sum / period;
+    }
+}
@@ -0,0 +1,47 @@
+package com.trading.indicators;
+
+import com.trading.api.model.BarSeries;
+
+/**
+ * Wilder RSI exactly as RSIStrategy.calculateRSI computes it: seeded from the average of the
+ * first {@code period} changes of a 2×period warm-up window, then Wilder-smoothed to the last
+ * bar. Returns 50 until {@code period + 1} bars. Only the last 2×period + 1 closes are read.
+ */
+final class WilderRsi extends WindowedIndicator {
+    private final int period;
+
+    WilderRsi(int period) {
+        this.period = period;
+    }
+
+    @Override
+    double compute(BarSeries prices) {
+        int n = prices.size();
+        if (n < period + 1) return 50.0;
+
+        int warmupStart = Math.max(1, n - period * 2);
+        int seedEnd = Math.min(warmupStart + period, n);
+
+        double avgGain = 0.0;
+        double avgLoss = 0.0;
+        for (int i = warmupStart; i < seedEnd; i++) {
+            double change = prices.close(i) - prices.close(i - 1);
+            if (change > 0) avgGain += change;
+            else avgLoss += Math.abs(change);
+        }
+        avgGain /= period;
+        avgLoss /= period;
+
+        for (int i = seedEnd; i < n; i++) {
+            double change = prices.close(i) - prices.close(i - 1);
+            double gain = change > 0 ? change : 0.0;
+            double loss = change < 0 ? Math.abs(change) : 0.0;
+            avgGain = (avgGain * (period - 1) + gain) / period;
+            avgLoss = (avgLoss * (period - 1) + loss) / period;
+        }
+
+        if (avgLoss == 0.0) return 100.0;
+        double rs = avgGain / avgLoss;
+        return 100.0 - (100.0 / (1.0 + rs));
+    }
+}
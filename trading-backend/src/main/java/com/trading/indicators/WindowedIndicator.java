@@ -0,0 +1,37 @@
+package com.trading.indicators;
+
+import com.trading.api.model.BarSeries;
+
+/**
+ * Indicator whose batch definition only looks at a fixed tail of the series (SMA over a window,
+ * RSI over a 2×period warm-up, Bollinger bands). Matching the batch result bit-for-bit means
+ * summing that tail in the same order, so an update costs O(window) — independent of how much
+ * history is held — and a revision simply recomputes the newest value.
+ */
+abstract class WindowedIndicator implements Indicator {
+    private double value = Double.NaN;
+    private double previous = Double.NaN;
+    private boolean seen;
+
+    @Override
+    public final void update(BarSeries series, boolean revised) {
+        if (!revised || !seen) {
+            previous = value;
+            seen = true;
+        }
+        value = compute(series);
+    }
+
+    /** The batch result over the whole of {@code series}. */
+    abstract double compute(BarSeries series);
+
+    @Override
+    public final double value() {
+        return value;
+    }
+
+    @Override
+    public final double previous() {
+        return previous;
+    }
+}
@@ -0,0 +1,271 @@
+package com.trading.marketdata;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.trading.api.model.Bar;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * WebSocket client for Alpaca's real-time stock data stream (v2, IEX or SIP).
+ *
+ * Protocol: server greets with {@code [{"T":"success","msg":"connected"}]}, the client sends
+ * {@code auth}, the server answers {@code authenticated}, then the client subscribes to trades,
+ * quotes and minute bars. Every message is a JSON array of events keyed by {@code T}
+ * ({@code t} trade, {@code q} quote, {@code b} bar, {@code error}, {@code subscription}).
+ *
+ * Events are written into a {@link LiveQuoteTable}. The subscription set is remembered, so after
+ * any disconnect the client reconnects with exponential backoff, re-authenticates and
+ * re-subscribes on its own. {@link #subscribe} can be called at any time; symbols are sent as
+ * soon as the session is authenticated.
+ */
+public final class AlpacaStreamClient implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(AlpacaStreamClient.class);
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(60);
+
+    private final URI uri;
+    private final String apiKey;
+    private final String apiSecret;
+    private final LiveQuoteTable table;
+    private final Duration initialBackoff;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private final Set<String> subscriptions = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicBoolean reconnectScheduled = new AtomicBoolean(false);
+    private final AtomicInteger attempts = new AtomicInteger();
+    private final AtomicLong messages = new AtomicLong();
+    private final AtomicLong reconnects = new AtomicLong();
+
+    private volatile WebSocket socket;
+    private volatile boolean authenticated;
+
+    // java.net.http.WebSocket allows one outstanding send; chain them.
+    private final ReentrantLock sendLock = new ReentrantLock();
+    private CompletableFuture<?> sendChain = CompletableFuture.completedFuture(null);
+
+    public AlpacaStreamClient(URI uri, String apiKey, String apiSecret, LiveQuoteTable table) {
+        this(uri, apiKey, apiSecret, table, Duration.ofSeconds(1));
+    }
+
+    public AlpacaStreamClient(URI uri, String apiKey, String apiSecret, LiveQuoteTable table,
+                              Duration initialBackoff) {
+        this.uri = uri;
+        this.apiKey = apiKey;
+        this.apiSecret = apiSecret;
+        this.table = table;
+        this.initialBackoff = initialBackoff;
+        this.httpClient = HttpClient.newBuilder().connectTimeout(CONNECT_TIMEOUT).build();
+    }
+
+    public LiveQuoteTable table() {
+        return table;
+    }
+
+    public void start() {
+        if (running.compareAndSet(false, true)) {
+            logger.info("Starting market data stream {}", uri);
+            connect();
+        }
+    }
+
+    /** Add symbols to the subscription; only symbols not already subscribed are sent. */
+    public void subscribe(Collection<String> symbols) {
+        var added = new ArrayList<String>();
+        for (String symbol : symbols) {
+            if (subscriptions.add(symbol)) added.add(symbol);
+        }
+        if (!added.isEmpty() && authenticated) {
+            sendSubscribe(added);
+        }
+    }
+
+    public boolean isConnected() {
+        return authenticated;
+    }
+
+    public StreamStats getStats() {
+        return new StreamStats(authenticated, subscriptions.size(), messages.get(), reconnects.get());
+    }
+
+    public record StreamStats(boolean connected, int subscriptions, long messages, long reconnects) {}
+
+    @Override
+    public void close() {
+        running.set(false);
+        authenticated = false;
+        var ws = socket;
+        if (ws != null) {
+            ws.sendClose(WebSocket.NORMAL_CLOSURE, "shutdown");
+        }
+    }
+
+    // ── Connection lifecycle ──────────────────────────────────────────────────
+
+    private void connect() {
+        if (!running.get()) return;
+        httpClient.newWebSocketBuilder()
+            .connectTimeout(CONNECT_TIMEOUT)
+            .buildAsync(uri, new Listener())
+            .whenComplete((ws, error) -> {
+                if (error != null) {
+                    logger.warn("Market data stream connect failed: {}", error.getMessage());
+                    scheduleReconnect();
+                } else {
+                    socket = ws;
+                }
+            });
+    }
+
+    private void scheduleReconnect() {
+        authenticated = false;
+        if (!running.get() || !reconnectScheduled.compareAndSet(false, true)) return;
+        int attempt = attempts.getAndIncrement();
+        long delayMs = Math.min(MAX_BACKOFF.toMillis(), initialBackoff.toMillis() << Math.min(attempt, 16));
+        reconnects.incrementAndGet();
+        logger.info("Market data stream reconnecting in {}ms (attempt {})", delayMs, attempt + 1);
+        Thread.ofVirtual().name("alpaca-stream-reconnect").start(() -> {
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                reconnectScheduled.set(false);
+            }
+            connect();
+        });
+    }
+
+    private final class Listener implements WebSocket.Listener {
+        private final StringBuilder buffer = new StringBuilder();
+
+        @Override
+        public void onOpen(WebSocket webSocket) {
+            socket = webSocket;
+            webSocket.request(1);
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            buffer.append(data);
+            if (last) {
+                String text = buffer.toString();
+                buffer.setLength(0);
+                try {
+                    handle(text);
+                } catch (Exception e) {
+                    logger.warn("Bad market data message ({}): {}", e.getMessage(), abbreviate(text));
+                }
+            }
+            webSocket.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+            logger.warn("Market data stream closed ({} {})", statusCode, reason);
+            scheduleReconnect();
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket webSocket, Throwable error) {
+            logger.warn("Market data stream error: {}", error.getMessage());
+            scheduleReconnect();
+        }
+    }
+
+    // ── Protocol ──────────────────────────────────────────────────────────────
+
+    void handle(String text) throws Exception {
+        JsonNode root = objectMapper.readTree(text);
+        if (!root.isArray()) return;
+        for (JsonNode msg : root) {
+            messages.incrementAndGet();
+            String type = msg.path("T").asText();
+            switch (type) {
+                case "t" -> table.onTrade(msg.path("S").asText(), msg.path("p").asDouble(),
+                    msg.path("s").asLong(), Instant.parse(msg.path("t").asText()));
+                case "q" -> table.onQuote(msg.path("S").asText(), msg.path("bp").asDouble(),
+                    msg.path("ap").asDouble(), Instant.parse(msg.path("t").asText()));
+                case "b", "u" -> {
+                    if (msg.path("c").asDouble() > 0) {
+                        table.onBar(msg.path("S").asText(), objectMapper.treeToValue(msg, Bar.class));
+                    }
+                }
+                case "success" -> onSuccess(msg.path("msg").asText());
+                case "subscription" -> logger.debug("Market data subscription: {}", msg);
+                case "error" -> logger.warn("Market data stream error {}: {}",
+                    msg.path("code").asInt(), msg.path("msg").asText());
+                default -> logger.trace("Ignoring market data event {}", type);
+            }
+        }
+    }
+
+    private void onSuccess(String message) {
+        switch (message) {
+            case "connected" -> send(objectMapper.createObjectNode()
+                .put("action", "auth").put("key", apiKey).put("secret", apiSecret).toString());
+            case "authenticated" -> {
+                authenticated = true;
+                attempts.set(0);
+                logger.info("Market data stream authenticated — subscribing {} symbols", subscriptions.size());
+                if (!subscriptions.isEmpty()) {
+                    sendSubscribe(List.copyOf(subscriptions));
+                }
+            }
+            default -> logger.debug("Market data stream: {}", message);
+        }
+    }
+
+    private void sendSubscribe(Collection<String> symbols) {
+        var msg = objectMapper.createObjectNode().put("action", "subscribe");
+        var trades = msg.putArray("trades");
+        var quotes = msg.putArray("quotes");
+        var bars = msg.putArray("bars");
+        for (String symbol : symbols) {
+            trades.add(symbol);
+            quotes.add(symbol);
+            bars.add(symbol);
+        }
+        send(msg.toString());
+    }
+
+    private void send(String text) {
+        var ws = socket;
+        if (ws == null) return;
+        sendLock.lock();
+        try {
+            sendChain = sendChain
+                .exceptionally(e -> null)
+                .thenCompose(ignored -> ws.sendText(text, true));
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    private static String abbreviate(String text) {
+        return text.length() <= 200 ? text : text.substring(0, 200) + "...";
+    }
+}
@@ -0,0 +1,420 @@
+package com.trading.marketdata;
+
+import com.trading.api.model.Bar;
+import com.trading.api.model.BarSeries;
+import com.trading.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append-only on-disk bar store: one file per (symbol, timeframe) under a source directory
+ * (DATA_DIR/bars/alpaca/SPY_1Day.bars), so a restart or a backtest reads history locally
+ * instead of re-downloading it.
+ *
+ * Layout: a 16-byte header (magic, version, record size) followed by fixed-width 48-byte records
+ * — epoch millis, open, high, low, close (doubles), volume — oldest first. Writes go through the
+ * file channel at explicit positions; reads go through a read-only memory mapping of the file,
+ * remapped when the file has grown past it.
+ *
+ * {@link #record} lines a fetched window up with the newest archived bar the same way
+ * IncrementalBarHistory stitches deltas: a revised newest bar is overwritten in place and newer
+ * bars are appended. A window that starts after the newest archived bar (we were away long
+ * enough to miss bars) is appended after the gap, keeping the history. A window that overlaps
+ * the archive but does not contain its newest bar conflicts with it: the archived bars from the
+ * window's first bar on are replaced by the window, keeping older ones. A window that reaches
+ * further back than the archive replaces the file. A torn record left by a crash is dropped
+ * when the file is opened.
+ *
+ * Best-effort: I/O failures are logged and reads fall back to an empty result, never breaking
+ * the caller's fetch.
+ */
+public final class BarArchive {
+    private static final Logger logger = LoggerFactory.getLogger(BarArchive.class);
+
+    static final int MAGIC = 0x42415253; // "BARS"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int RECORD_BYTES = 48;
+    private static final String SUFFIX = ".bars";
+
+    /** Newest archived daily bar still counts as current across a long weekend. */
+    public static final Duration DAILY_MAX_AGE = Duration.ofDays(4);
+
+    private static final ConcurrentHashMap<Path, BarArchive> OPEN = new ConcurrentHashMap<>();
+
+    record SegmentKey(String symbol, String timeframe) {}
+
+    /** One archive file; guarded by its own lock so keys never block each other. */
+    private static final class Segment {
+        final ReentrantLock lock = new ReentrantLock();
+        final Path path;
+        FileChannel channel;
+        MappedByteBuffer map; // read-only view, remapped when the file outgrows it
+        int count;
+
+        Segment(Path path) {
+            this.path = path;
+        }
+    }
+
+    private final Path dir;
+    private final Clock clock;
+    private final ConcurrentHashMap<SegmentKey, Segment> segments = new ConcurrentHashMap<>();
+
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong rewrites = new AtomicLong();
+    private final AtomicLong reads = new AtomicLong();
+
+    BarArchive(Path dir, Clock clock) {
+        this.dir = dir;
+        this.clock = clock;
+    }
+
+    /** Shared archive for {@code dir}; every caller in the process writes through one instance. */
+    public static BarArchive open(Path dir) {
+        return OPEN.computeIfAbsent(dir.toAbsolutePath().normalize(), d -> new BarArchive(d, Clock.systemUTC()));
+    }
+
+    /** Archive for a broker's data feed under BAR_ARCHIVE_DIR, or null when BAR_ARCHIVE_ENABLED=false. */
+    public static BarArchive forSource(Config config, String source) {
+        if (!config.isBarArchiveEnabled()) return null;
+        return open(Path.of(config.getBarArchiveDir(), source));
+    }
+
+    // ── Reads ─────────────────────────────────────────────────────────────────
+
+    /** Newest {@code limit} archived bars, oldest first; empty if none or unreadable. */
+    public List<Bar> read(String symbol, String timeframe, int limit) {
+        var s = segment(symbol, timeframe);
+        if (s == null) return List.of();
+        s.lock.lock();
+        try {
+            reads.incrementAndGet();
+            int from = Math.max(0, s.count - limit);
+            var bars = new ArrayList<Bar>(s.count - from);
+            var map = mapped(s);
+            for (int i = from; i < s.count; i++) {
+                bars.add(barAt(map, i));
+            }
+            return bars;
+        } catch (IOException e) {
+            logger.warn("Bar archive read failed for {}: {}", s.path, e.getMessage());
+            return List.of();
+        } finally {
+            s.lock.unlock();
+        }
+    }
+
+    /** Newest {@code limit} archived bars as a primitive series (no Bar objects). */
+    public BarSeries readSeries(String symbol, String timeframe, int limit) {
+        return readRange(symbol, timeframe, -1, limit);
+    }
+
+    /**
+     * Archived bars {@code [from, from + count)}, oldest first, as a primitive series; shorter
+     * at the end of the archive. Lets a backtest stream a long archive in fixed-size chunks.
+     */
+    public BarSeries readSeries(String symbol, String timeframe, int from, int count) {
+        if (from < 0) throw new IllegalArgumentException("from must not be negative: " + from);
+        return readRange(symbol, timeframe, from, count);
+    }
+
+    /** {@code from < 0} reads the newest {@code limit} bars. */
+    private BarSeries readRange(String symbol, String timeframe, int from, int limit) {
+        var s = segment(symbol, timeframe);
+        var series = new BarSeries(Math.max(1, limit));
+        if (s == null) return series;
+        s.lock.lock();
+        try {
+            reads.incrementAndGet();
+            var map = mapped(s);
+            int start = from < 0 ? Math.max(0, s.count - limit) : from;
+            int end = (int) Math.min(s.count, (long) start + limit);
+            for (int i = start; i < end; i++) {
+                int at = HEADER_BYTES + i * RECORD_BYTES;
+                series.append(map.getLong(at), map.getDouble(at + 8), map.getDouble(at + 16),
+                    map.getDouble(at + 24), map.getDouble(at + 32), map.getLong(at + 40));
+            }
+        } catch (IOException e) {
+            logger.warn("Bar archive read failed for {}: {}", s.path, e.getMessage());
+        } finally {
+            s.lock.unlock();
+        }
+        return series;
+    }
+
+    public int size(String symbol, String timeframe) {
+        var s = segment(symbol, timeframe);
+        if (s == null) return 0;
+        s.lock.lock();
+        try {
+            return s.count;
+        } finally {
+            s.lock.unlock();
+        }
+    }
+
+    /**
+     * Archived bars when the archive holds {@code limit} of them and its newest bar is no older
+     * than {@code maxAge}; otherwise fetch, record what came back and return it. Backtests use
+     * this so a warm archive needs no network access at all.
+     */
+    public List<Bar> getOrFetch(String symbol, String timeframe, int limit, Duration maxAge,
+                                BarCache.BarFetcher fetcher) throws Exception {
+        var archived = read(symbol, timeframe, limit);
+        if (archived.size() >= limit) {
+            Instant newest = archived.get(archived.size() - 1).timestamp();
+            if (!newest.isBefore(clock.instant().minus(maxAge))) {
+                return archived;
+            }
+        }
+        var fetched = fetcher.fetch(symbol, timeframe, limit);
+        record(symbol, timeframe, fetched);
+        return fetched;
+    }
+
+    // ── Writes ────────────────────────────────────────────────────────────────
+
+    /** Merge a fetched window (oldest first) into the archive. See the class comment for the rules. */
+    public void record(String symbol, String timeframe, List<Bar> bars) {
+        if (bars == null || bars.isEmpty()) return;
+        var s = segment(symbol, timeframe);
+        if (s == null) return;
+        s.lock.lock();
+        try {
+            if (s.count == 0) {
+                append(s, bars, 0);
+                return;
+            }
+            var map = mapped(s);
+            long last = map.getLong(HEADER_BYTES + (s.count - 1) * RECORD_BYTES);
+            if (bars.get(bars.size() - 1).timestamp().toEpochMilli() < last) return; // older window
+            long start = bars.get(0).timestamp().toEpochMilli();
+            if (start > last) {
+                logger.info("Bar archive {} missed bars before {} — appending after the gap",
+                    s.path.getFileName(), bars.get(0).timestamp());
+                append(s, bars, 0);
+                return;
+            }
+
+            int match = -1;
+            for (int i = bars.size() - 1; i >= 0; i--) {
+                long t = bars.get(i).timestamp().toEpochMilli();
+                if (t == last) {
+                    match = i;
+                    break;
+                }
+                if (t < last) break;
+            }
+            if (start < map.getLong(HEADER_BYTES)) {
+                rewrite(s, bars);
+                return;
+            }
+            if (match < 0) {
+                logger.info("Bar archive {} does not line up with the fetched window — replacing it from {}",
+                    s.path.getFileName(), bars.get(0).timestamp());
+                replaceFrom(s, start, bars);
+                return;
+            }
+            if (!barAt(map, s.count - 1).equals(bars.get(match))) {
+                write(s.channel, HEADER_BYTES + (long) (s.count - 1) * RECORD_BYTES, List.of(bars.get(match)));
+            }
+            append(s, bars, match + 1);
+        } catch (IOException e) {
+            logger.warn("Bar archive write failed for {}: {}", s.path, e.getMessage());
+        } finally {
+            s.lock.unlock();
+        }
+    }
+
+    /** Close every open file; the next access reopens it. */
+    public void close() {
+        for (var s : segments.values()) {
+            s.lock.lock();
+            try {
+                closeChannel(s);
+            } finally {
+                s.lock.unlock();
+            }
+        }
+        segments.clear();
+    }
+
+    public ArchiveStats getStats() {
+        return new ArchiveStats(appended.get(), rewrites.get(), reads.get(), segments.size());
+    }
+
+    public record ArchiveStats(long appended, long rewrites, long reads, int files) {}
+
+    // ── Internals ─────────────────────────────────────────────────────────────
+
+    private Segment segment(String symbol, String timeframe) {
+        var s = segments.computeIfAbsent(new SegmentKey(symbol, timeframe),
+            k -> new Segment(dir.resolve(fileName(k.symbol(), k.timeframe()))));
+        s.lock.lock();
+        try {
+            if (s.channel == null) openChannel(s);
+            return s;
+        } catch (IOException e) {
+            logger.warn("Bar archive unavailable at {}: {}", s.path, e.getMessage());
+            return null;
+        } finally {
+            s.lock.unlock();
+        }
+    }
+
+    /** SPY + 15Min → SPY_15Min.bars; anything outside [A-Za-z0-9.-] becomes '_'. */
+    static String fileName(String symbol, String timeframe) {
+        return (symbol + "_" + timeframe).replaceAll("[^A-Za-z0-9.\\-]", "_") + SUFFIX;
+    }
+
+    private static void openChannel(Segment s) throws IOException {
+        Files.createDirectories(s.path.getParent());
+        var channel = FileChannel.open(s.path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        long size = channel.size();
+        if (size < HEADER_BYTES || !validHeader(channel)) {
+            if (size > 0) logger.warn("Bar archive {} has no valid header — starting it over", s.path);
+            channel.truncate(0);
+            channel.write(header(), 0);
+            size = HEADER_BYTES;
+        }
+        long torn = (size - HEADER_BYTES) % RECORD_BYTES;
+        if (torn != 0) {
+            logger.warn("Bar archive {} ends in a partial record — dropping {} bytes", s.path, torn);
+            size -= torn;
+            channel.truncate(size);
+        }
+        s.channel = channel;
+        s.map = null;
+        s.count = (int) ((size - HEADER_BYTES) / RECORD_BYTES);
+    }
+
+    private static boolean validHeader(FileChannel channel) throws IOException {
+        var header = ByteBuffer.allocate(HEADER_BYTES);
+        channel.read(header, 0);
+        header.flip();
+        return header.getInt() == MAGIC && header.getInt() == VERSION && header.getInt() == RECORD_BYTES;
+    }
+
+    private static ByteBuffer header() {
+        return ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION).putInt(RECORD_BYTES).putInt(0).flip();
+    }
+
+    private static MappedByteBuffer mapped(Segment s) throws IOException {
+        long needed = HEADER_BYTES + (long) s.count * RECORD_BYTES;
+        if (s.map == null || s.map.capacity() < needed) {
+            s.map = s.channel.map(FileChannel.MapMode.READ_ONLY, 0, needed);
+        }
+        return s.map;
+    }
+
+    private static Bar barAt(MappedByteBuffer map, int index) {
+        int at = HEADER_BYTES + index * RECORD_BYTES;
+        return new Bar(Instant.ofEpochMilli(map.getLong(at)), map.getDouble(at + 8), map.getDouble(at + 16),
+            map.getDouble(at + 24), map.getDouble(at + 32), map.getLong(at + 40));
+    }
+
+    /** Append bars[from..] that are newer than the newest archived bar. */
+    private void append(Segment s, List<Bar> bars, int from) throws IOException {
+        long last = s.count == 0 ? Long.MIN_VALUE : mapped(s).getLong(HEADER_BYTES + (s.count - 1) * RECORD_BYTES);
+        var fresh = ascending(bars, from, last);
+        if (fresh.isEmpty()) return;
+        write(s.channel, HEADER_BYTES + (long) s.count * RECORD_BYTES, fresh);
+        s.count += fresh.size();
+        appended.addAndGet(fresh.size());
+    }
+
+    /**
+     * Replace the file with {@code bars}: write a sibling temp file and move it over the original,
+     * so a crash leaves either the old archive or the new one, never half of each.
+     */
+    private void rewrite(Segment s, List<Bar> bars) throws IOException {
+        rewrites.incrementAndGet();
+        var fresh = ascending(bars, 0, Long.MIN_VALUE);
+        var tmp = s.path.resolveSibling(s.path.getFileName() + ".tmp");
+        try (var out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            out.write(header(), 0);
+            write(out, HEADER_BYTES, fresh);
+        }
+        closeChannel(s);
+        Files.move(tmp, s.path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        openChannel(s);
+        appended.addAndGet(fresh.size());
+    }
+
+    /**
+     * Drop the archived bars at or after {@code start} and append {@code bars} in their place;
+     * the whole file is rewritten when nothing older than {@code start} is archived.
+     */
+    private void replaceFrom(Segment s, long start, List<Bar> bars) throws IOException {
+        var map = mapped(s);
+        int keep = 0;
+        while (keep < s.count && map.getLong(HEADER_BYTES + keep * RECORD_BYTES) < start) keep++;
+        if (keep == 0) {
+            rewrite(s, bars);
+            return;
+        }
+        rewrites.incrementAndGet();
+        s.channel.truncate(HEADER_BYTES + (long) keep * RECORD_BYTES);
+        s.count = keep;
+        s.map = null;
+        append(s, bars, 0);
+    }
+
+    /** bars[from..] that are strictly newer than {@code after} and than each other. */
+    private static List<Bar> ascending(List<Bar> bars, int from, long after) {
+        var fresh = new ArrayList<Bar>(bars.size() - from);
+        for (int i = from; i < bars.size(); i++) {
+            long t = bars.get(i).timestamp().toEpochMilli();
+            if (t > after) {
+                fresh.add(bars.get(i));
+                after = t;
+            }
+        }
+        return fresh;
+    }
+
+    private static void write(FileChannel channel, long position, List<Bar> bars) throws IOException {
+        var buffer = ByteBuffer.allocate(bars.size() * RECORD_BYTES);
+        for (Bar bar : bars) {
+            buffer.putLong(bar.timestamp().toEpochMilli())
+                .putDouble(bar.open()).putDouble(bar.high()).putDouble(bar.low()).putDouble(bar.close())
+                .putLong(bar.volume());
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static void closeChannel(Segment s) {
+        if (s.channel == null) return;
+        try {
+            s.channel.close();
+        } catch (IOException e) {
+            logger.debug("Closing {} failed: {}", s.path, e.getMessage());
+        }
+        s.channel = null;
+        s.map = null;
+        s.count = 0;
+    }
+}
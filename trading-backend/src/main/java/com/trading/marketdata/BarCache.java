@@ -0,0 +1,219 @@
+package com.trading.marketdata;
+
+import com.trading.api.model.Bar;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide store of historical bars keyed by (source, symbol, timeframe).
+ *
+ * Every cycle the MAIN and EXPERIMENTAL profiles, StrategyManager, MultiTimeframeAnalyzer,
+ * MarketRegimeDetector, CorrelationCalculator and ScalpStrategy all ask for the same
+ * SPY/QQQ daily and 15Min windows. This store collapses those into one HTTP call:
+ * <ul>
+ *   <li>Single-flight: concurrent requests for the same key wait on one in-flight fetch.</li>
+ *   <li>Windowed: the largest window fetched is kept; smaller requests are served from its tail.</li>
+ *   <li>Bar-aligned expiry: an entry is fresh until the next bar boundary of its timeframe,
+ *       capped by {@code maxAge} so the still-forming last bar never goes stale for long.</li>
+ * </ul>
+ *
+ * Thread-safe and lock-free on the read path (ConcurrentHashMap + immutable windows).
+ */
+public final class BarCache {
+    private static final Logger logger = LoggerFactory.getLogger(BarCache.class);
+    private static final ZoneId ET = ZoneId.of("America/New_York");
+    private static final Duration DEFAULT_MAX_AGE = Duration.ofSeconds(60);
+
+    /** Fetches a fresh window from the broker. Mirrors BrokerClient.getBars. */
+    @FunctionalInterface
+    public interface BarFetcher {
+        List<Bar> fetch(String symbol, String timeframe, int limit) throws Exception;
+    }
+
+    record BarKey(String source, String symbol, String timeframe) {}
+
+    /** Immutable cached window. {@code requested} is the limit the fetch was made with. */
+    record BarWindow(List<Bar> bars, int requested, long expiresAtMillis) {
+        boolean isFresh(long nowMillis) {
+            return nowMillis < expiresAtMillis;
+        }
+
+        boolean covers(int limit) {
+            return requested >= limit || bars.size() >= limit;
+        }
+
+        List<Bar> tail(int limit) {
+            int size = bars.size();
+            return size <= limit ? bars : bars.subList(size - limit, size);
+        }
+    }
+
+    private final ConcurrentHashMap<BarKey, BarWindow> windows = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<BarKey, CompletableFuture<BarWindow>> inFlight = new ConcurrentHashMap<>();
+    private final Clock clock;
+    private volatile Duration maxAge;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    public BarCache(Clock clock, Duration maxAge) {
+        this.clock = clock;
+        this.maxAge = maxAge;
+    }
+
+    private static class Holder {
+        private static final BarCache INSTANCE = new BarCache(Clock.systemUTC(), DEFAULT_MAX_AGE);
+    }
+
+    /** Shared instance used by every CachingBrokerClient in the process. */
+    public static BarCache getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    public void setMaxAge(Duration maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * Return the newest {@code limit} bars for (source, symbol, timeframe), fetching through
+     * {@code fetcher} only when no fresh window covers the request and no fetch is already running.
+     */
+    public List<Bar> get(String source, String symbol, String timeframe, int limit,
+                         BarFetcher fetcher) throws Exception {
+        var key = new BarKey(source, symbol, timeframe);
+        while (true) {
+            long now = clock.millis();
+            var cached = windows.get(key);
+            if (cached != null && cached.isFresh(now) && cached.covers(limit)) {
+                hits.incrementAndGet();
+                return cached.tail(limit);
+            }
+
+            var pending = new CompletableFuture<BarWindow>();
+            var running = inFlight.putIfAbsent(key, pending);
+            if (running != null) {
+                coalesced.incrementAndGet();
+                var window = await(running);
+                if (window.covers(limit)) {
+                    return window.tail(limit);
+                }
+                continue; // the in-flight fetch was for a smaller window — fetch our own
+            }
+
+            misses.incrementAndGet();
+            try {
+                var bars = List.copyOf(fetcher.fetch(symbol, timeframe, limit));
+                var window = new BarWindow(bars, limit, expiryFor(timeframe, now));
+                windows.put(key, window);
+                pending.complete(window);
+                return window.tail(limit);
+            } catch (Exception e) {
+                pending.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, pending);
+            }
+        }
+    }
+
+    /**
+     * Fresh cached bars for the key, or null. Used by batch readers to split a watchlist into
+     * symbols already in memory and symbols that still need fetching.
+     */
+    public List<Bar> peek(String source, String symbol, String timeframe, int limit) {
+        var cached = windows.get(new BarKey(source, symbol, timeframe));
+        if (cached != null && cached.isFresh(clock.millis()) && cached.covers(limit)) {
+            hits.incrementAndGet();
+            return cached.tail(limit);
+        }
+        return null;
+    }
+
+    /** Store a window fetched outside {@link #get} (e.g. one symbol of a multi-symbol response). */
+    public void put(String source, String symbol, String timeframe, int limit, List<Bar> bars) {
+        misses.incrementAndGet();
+        long now = clock.millis();
+        windows.put(new BarKey(source, symbol, timeframe), new BarWindow(List.copyOf(bars), limit, expiryFor(timeframe, now)));
+    }
+
+    /** Drop every cached window for a symbol (e.g. after a corporate action or bad data). */
+    public void invalidate(String symbol) {
+        windows.keySet().removeIf(k -> k.symbol().equals(symbol));
+    }
+
+    public void clear() {
+        windows.clear();
+    }
+
+    public CacheStats getStats() {
+        return new CacheStats(hits.get(), misses.get(), coalesced.get(), windows.size());
+    }
+
+    public record CacheStats(long hits, long misses, long coalesced, int entries) {
+        public double hitRate() {
+            long total = hits + misses + coalesced;
+            return total == 0 ? 0.0 : (double) (hits + coalesced) / total;
+        }
+    }
+
+    private long expiryFor(String timeframe, long nowMillis) {
+        long boundary = nextBarBoundary(timeframe, Instant.ofEpochMilli(nowMillis)).toEpochMilli();
+        return Math.min(boundary, nowMillis + maxAge.toMillis());
+    }
+
+    /**
+     * Start of the next bar for an Alpaca-style timeframe ("1Min", "15Min", "1Hour", "1Day").
+     * Intraday bars align to the wall clock; daily and longer bars roll at midnight ET.
+     */
+    static Instant nextBarBoundary(String timeframe, Instant now) {
+        Duration period = barDuration(timeframe);
+        if (period.compareTo(Duration.ofDays(1)) >= 0) {
+            LocalDate tomorrow = now.atZone(ET).toLocalDate().plusDays(1);
+            return tomorrow.atStartOfDay(ET).toInstant();
+        }
+        long periodMs = period.toMillis();
+        long nowMs = now.toEpochMilli();
+        return Instant.ofEpochMilli((nowMs / periodMs + 1) * periodMs);
+    }
+
+    /** Duration of one bar; unknown formats fall back to one minute. */
+    public static Duration barDuration(String timeframe) {
+        if (timeframe == null) return Duration.ofMinutes(1);
+        int split = 0;
+        while (split < timeframe.length() && Character.isDigit(timeframe.charAt(split))) split++;
+        long amount = split == 0 ? 1 : Long.parseLong(timeframe.substring(0, split));
+        return switch (timeframe.substring(split)) {
+            case "Min", "T" -> Duration.ofMinutes(amount);
+            case "Hour", "H" -> Duration.ofHours(amount);
+            case "Day", "D" -> Duration.ofDays(amount);
+            case "Week", "W" -> Duration.ofDays(7 * amount);
+            case "Month", "M" -> Duration.ofDays(30 * amount);
+            default -> {
+                logger.debug("Unknown timeframe '{}' — treating as 1Min", timeframe);
+                yield Duration.ofMinutes(1);
+            }
+        };
+    }
+
+    private static BarWindow await(CompletableFuture<BarWindow> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException | CompletionException e) {
+            if (e.getCause() instanceof Exception cause) throw cause;
+            throw e;
+        }
+    }
+}
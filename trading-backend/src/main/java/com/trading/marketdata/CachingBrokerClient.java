@@ -0,0 +1,145 @@
+package com.trading.marketdata;
+
+import com.trading.api.BrokerClient;
+import com.trading.api.model.Bar;
+import com.trading.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BrokerClient decorator that routes historical bar reads through the shared {@link BarCache}.
+ *
+ * Wrap the raw broker client once at startup and hand the wrapper to every analysis component
+ * (StrategyManager, MultiTimeframeAnalyzer, MarketRegimeDetector, ...). All other calls —
+ * account, positions, orders — pass straight through to the delegate.
+ *
+ * {@code source} namespaces the cache so two brokers with different data feeds never share bars.
+ * When an {@link IncrementalBarHistory} is attached, cache misses are filled with a
+ * "since last bar" delta instead of re-downloading the whole window. When a {@link BarArchive}
+ * is attached, every window fetched from the broker is recorded to disk as well.
+ */
+public final class CachingBrokerClient extends ForwardingBrokerClient {
+    private static final Logger logger = LoggerFactory.getLogger(CachingBrokerClient.class);
+    private static final String DAILY = "1Day";
+
+    private final BarCache cache;
+    private final String source;
+    private final IncrementalBarHistory history;
+    private final BarArchive archive;
+
+    public CachingBrokerClient(BrokerClient delegate, BarCache cache, String source) {
+        this(delegate, cache, source, null, null);
+    }
+
+    public CachingBrokerClient(BrokerClient delegate, BarCache cache, String source,
+                               IncrementalBarHistory history) {
+        this(delegate, cache, source, history, null);
+    }
+
+    public CachingBrokerClient(BrokerClient delegate, BarCache cache, String source,
+                               IncrementalBarHistory history, BarArchive archive) {
+        super(delegate);
+        this.cache = cache;
+        this.source = source;
+        this.history = history;
+        this.archive = archive;
+    }
+
+    /**
+     * Wrap {@code client} with the shared bar cache unless BAR_CACHE_ENABLED=false.
+     * Returns the client unchanged when caching is disabled.
+     */
+    public static BrokerClient wrap(BrokerClient client, Config config, String source) {
+        if (!config.isBarCacheEnabled()) {
+            logger.info("Bar cache disabled (BAR_CACHE_ENABLED=false) for {}", source);
+            return client;
+        }
+        var cache = BarCache.getInstance();
+        cache.setMaxAge(Duration.ofMillis(config.getBarCacheMaxAgeMs()));
+        var archive = BarArchive.forSource(config, source);
+        IncrementalBarHistory history = null;
+        if (config.isIncrementalBarsEnabled()) {
+            // A delta through the getBarsSince fallback would download a full page every time
+            if (client.hasNativeBarsSince()) {
+                history = new IncrementalBarHistory(client, config.getIncrementalBarsMaxBars(), archive);
+            } else {
+                logger.info("Incremental bars off for {}: broker has no start-time bar query", source);
+            }
+        }
+        logger.info("Bar cache enabled for {} (max age {}ms, incremental={}, archive={})",
+            source, config.getBarCacheMaxAgeMs(), history != null, archive != null);
+        return new CachingBrokerClient(client, cache, source, history, archive);
+    }
+
+    /**
+     * Incremental history behind the cache, or null when INCREMENTAL_BARS_ENABLED=false or the
+     * broker can't query bars from a start time.
+     */
+    public IncrementalBarHistory getHistory() {
+        return history;
+    }
+
+    // ── Cached market data ────────────────────────────────────────────────────
+
+    @Override
+    public List<Bar> getBars(String symbol, String timeframe, int limit) throws Exception {
+        if (history != null) {
+            return cache.get(source, symbol, timeframe, limit, archived(history::getBars));
+        }
+        return cache.get(source, symbol, timeframe, limit, archived(delegate::getBars));
+    }
+
+    @Override
+    public List<Bar> getMarketHistory(String symbol, int limit) throws Exception {
+        // Daily history and getBars(symbol, "1Day", n) are the same window — share one entry.
+        if (history != null) {
+            return cache.get(source, symbol, DAILY, limit, archived(history::getBars));
+        }
+        return cache.get(source, symbol, DAILY, limit, archived((s, tf, l) -> delegate.getMarketHistory(s, l)));
+    }
+
+    /**
+     * Serve what the cache already holds and fetch only the remaining symbols, in one batch.
+     * Every fetched window is stored so later per-symbol getBars calls in the cycle hit.
+     */
+    @Override
+    public Map<String, List<Bar>> getMultiBars(Collection<String> symbols, String timeframe, int limit)
+            throws Exception {
+        var result = new LinkedHashMap<String, List<Bar>>();
+        var missing = new ArrayList<String>();
+        for (String symbol : symbols) {
+            var cached = cache.peek(source, symbol, timeframe, limit);
+            if (cached != null) {
+                result.put(symbol, cached);
+            } else {
+                missing.add(symbol);
+            }
+        }
+        if (!missing.isEmpty()) {
+            var fetched = delegate.getMultiBars(missing, timeframe, limit);
+            for (var entry : fetched.entrySet()) {
+                cache.put(source, entry.getKey(), timeframe, limit, entry.getValue());
+                if (archive != null) archive.record(entry.getKey(), timeframe, entry.getValue());
+                result.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    /** {@code fetcher} that also records what it returns to the archive, when there is one. */
+    private BarCache.BarFetcher archived(BarCache.BarFetcher fetcher) {
+        if (archive == null) return fetcher;
+        return (symbol, timeframe, limit) -> {
+            var bars = fetcher.fetch(symbol, timeframe, limit);
+            archive.record(symbol, timeframe, bars);
+            return bars;
+        };
+    }
+}
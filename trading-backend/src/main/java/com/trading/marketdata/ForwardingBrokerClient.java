@@ -0,0 +1,177 @@
+package com.trading.marketdata;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.trading.api.BrokerClient;
+import com.trading.api.model.Bar;
+import com.trading.api.model.BracketOrderResult;
+import com.trading.api.model.Position;
+import com.trading.api.model.Snapshot;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * BrokerClient that forwards every call to a delegate. Market-data decorators
+ * (CachingBrokerClient, StreamingBrokerClient) extend it and override only what they change.
+ */
+public abstract class ForwardingBrokerClient implements BrokerClient {
+    protected final BrokerClient delegate;
+
+    protected ForwardingBrokerClient(BrokerClient delegate) {
+        this.delegate = delegate;
+    }
+
+    public BrokerClient getDelegate() {
+        return delegate;
+    }
+
+    // ── Market data ───────────────────────────────────────────────────────────
+
+    @Override
+    public List<Bar> getBars(String symbol, String timeframe, int limit) throws Exception {
+        return delegate.getBars(symbol, timeframe, limit);
+    }
+
+    @Override
+    public List<Bar> getMarketHistory(String symbol, int limit) throws Exception {
+        return delegate.getMarketHistory(symbol, limit);
+    }
+
+    @Override
+    public List<Bar> getBarsSince(String symbol, String timeframe, Instant start, int limit) throws Exception {
+        return delegate.getBarsSince(symbol, timeframe, start, limit);
+    }
+
+    @Override
+    public boolean hasNativeBarsSince() {
+        return delegate.hasNativeBarsSince();
+    }
+
+    @Override
+    public Map<String, List<Bar>> getMultiBars(Collection<String> symbols, String timeframe, int limit)
+            throws Exception {
+        return delegate.getMultiBars(symbols, timeframe, limit);
+    }
+
+    @Override
+    public Optional<Bar> getLatestBar(String symbol) {
+        return delegate.getLatestBar(symbol);
+    }
+
+    @Override
+    public Map<String, Bar> getLatestBars(Collection<String> symbols) throws Exception {
+        return delegate.getLatestBars(symbols);
+    }
+
+    @Override
+    public Map<String, Snapshot> getSnapshots(Collection<String> symbols) throws Exception {
+        return delegate.getSnapshots(symbols);
+    }
+
+    // ── Account and orders ────────────────────────────────────────────────────
+
+    @Override
+    public JsonNode getAccount() throws Exception {
+        return delegate.getAccount();
+    }
+
+    @Override
+    public boolean validateAccountForTrading() {
+        return delegate.validateAccountForTrading();
+    }
+
+    @Override
+    public JsonNode getClock() throws Exception {
+        return delegate.getClock();
+    }
+
+    @Override
+    public Optional<Position> getPosition(String symbol) {
+        return delegate.getPosition(symbol);
+    }
+
+    @Override
+    public List<Position> getPositions() throws Exception {
+        return delegate.getPositions();
+    }
+
+    @Override
+    public JsonNode getOpenOrders(String symbol) {
+        return delegate.getOpenOrders(symbol);
+    }
+
+    @Override
+    public JsonNode getAllOpenOrders() {
+        return delegate.getAllOpenOrders();
+    }
+
+    @Override
+    public JsonNode getNews(String symbol, int limit) {
+        return delegate.getNews(symbol, limit);
+    }
+
+    @Override
+    public JsonNode getRecentOrders(String symbol) {
+        return delegate.getRecentOrders(symbol);
+    }
+
+    @Override
+    public JsonNode getOrderHistory(String symbol, int limit) {
+        return delegate.getOrderHistory(symbol, limit);
+    }
+
+    @Override
+    public JsonNode getAccountActivities(String activityType, int limit) {
+        return delegate.getAccountActivities(activityType, limit);
+    }
+
+    @Override
+    public void cancelOrder(String orderId) {
+        delegate.cancelOrder(orderId);
+    }
+
+    @Override
+    public void cancelAllOrders() {
+        delegate.cancelAllOrders();
+    }
+
+    @Override
+    public void placeOrder(String symbol, double qty, String side, String type,
+                           String timeInForce, Double limitPrice) {
+        delegate.placeOrder(symbol, qty, side, type, timeInForce, limitPrice);
+    }
+
+    @Override
+    public void replaceOrder(String orderId, Double qty, Double limitPrice, Double stopPrice) {
+        delegate.replaceOrder(orderId, qty, limitPrice, stopPrice);
+    }
+
+    @Override
+    public void placeNativeStopOrder(String symbol, double qty, double stopPrice) throws Exception {
+        delegate.placeNativeStopOrder(symbol, qty, stopPrice);
+    }
+
+    @Override
+    public void placeTrailingStopOrder(String symbol, double qty, String side, double trailPercent) {
+        delegate.placeTrailingStopOrder(symbol, qty, side, trailPercent);
+    }
+
+    @Override
+    public BracketOrderResult placeBracketOrder(String symbol, double qty, String side,
+                                                double takeProfitPrice, double stopLossPrice,
+                                                Double stopLossLimitPrice, Double limitPrice) {
+        return delegate.placeBracketOrder(symbol, qty, side, takeProfitPrice, stopLossPrice,
+            stopLossLimitPrice, limitPrice);
+    }
+
+    @Override
+    public String placeBracketOrder(String symbol, double qty, String side,
+                                    double takeProfitPrice, double stopLossPrice,
+                                    Double stopLossLimitPrice) throws Exception {
+        return delegate.placeBracketOrder(symbol, qty, side, takeProfitPrice, stopLossPrice,
+            stopLossLimitPrice);
+    }
+}
@@ -0,0 +1,168 @@
+package com.trading.marketdata;
+
+import com.trading.api.BrokerClient;
+import com.trading.api.model.Bar;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-(symbol, timeframe) bar windows kept up to date by fetching only what is new.
+ *
+ * The first request for a key downloads the full window through {@link BrokerClient#getBars}.
+ * Every later request asks the broker for bars since the newest timestamp held
+ * ({@link BrokerClient#getBarsSince}) — typically the still-forming last bar plus at most one
+ * new bar — replaces the last bar with its revised version and appends the rest. The window is
+ * trimmed from the front so it never grows past the largest limit requested (capped at
+ * {@code maxBars}).
+ *
+ * A full re-sync happens when the delta cannot be stitched on safely:
+ * <ul>
+ *   <li>the delta does not start with the bar we already hold (data revised or dropped),</li>
+ *   <li>the delta filled a whole page (we were away long enough that bars may be missing),</li>
+ *   <li>a caller asks for more bars than the window holds.</li>
+ * </ul>
+ * Requests for more than {@code maxBars} are not windowed at all: they go straight to
+ * {@link BrokerClient#getBars} (logged once per key) rather than being cut to the cap.
+ *
+ * Only worth attaching to a broker that {@link BrokerClient#hasNativeBarsSince answers
+ * start-time queries}; elsewhere every delta is a full page.
+ *
+ * With a {@link BarArchive} attached, the first request for a key after a restart is seeded
+ * from the bars archived on disk and then brought up to date with a delta like any other
+ * request — the same gap checks apply, so a stale archive just falls back to a full sync.
+ *
+ * Sits underneath {@link BarCache}: the cache decides <em>when</em> to go to the broker,
+ * this class makes the trip cheap.
+ */
+public final class IncrementalBarHistory {
+    private static final Logger logger = LoggerFactory.getLogger(IncrementalBarHistory.class);
+
+    /** Page size for delta fetches — Alpaca's maximum. A full page means we may have a gap. */
+    static final int DELTA_PAGE_LIMIT = 10_000;
+
+    record SeriesKey(String symbol, String timeframe) {}
+
+    /** Mutable window for one key; guarded by its own lock so keys never block each other. */
+    private static final class Series {
+        final ReentrantLock lock = new ReentrantLock();
+        ArrayList<Bar> bars = new ArrayList<>();
+        int capacity;
+    }
+
+    private final BrokerClient client;
+    private final int maxBars;
+    private final BarArchive archive;
+    private final ConcurrentHashMap<SeriesKey, Series> series = new ConcurrentHashMap<>();
+
+    private final AtomicLong fullSyncs = new AtomicLong();
+    private final AtomicLong deltaFetches = new AtomicLong();
+    private final AtomicLong gapResyncs = new AtomicLong();
+    private final AtomicLong archiveSeeds = new AtomicLong();
+    private final AtomicLong passThroughs = new AtomicLong();
+    private final java.util.Set<SeriesKey> oversizedWarned = ConcurrentHashMap.newKeySet();
+
+    public IncrementalBarHistory(BrokerClient client, int maxBars) {
+        this(client, maxBars, null);
+    }
+
+    public IncrementalBarHistory(BrokerClient client, int maxBars, BarArchive archive) {
+        this.client = client;
+        this.maxBars = maxBars;
+        this.archive = archive;
+    }
+
+    /** Newest {@code limit} bars for (symbol, timeframe), oldest first. Same contract as getBars. */
+    public List<Bar> getBars(String symbol, String timeframe, int limit) throws Exception {
+        var key = new SeriesKey(symbol, timeframe);
+        if (limit > maxBars) {
+            if (oversizedWarned.add(key)) {
+                logger.warn("{} {}: {} bars requested, above the incremental window cap of {} "
+                    + "(INCREMENTAL_BARS_MAX_BARS) — fetching in full each time", symbol, timeframe, limit, maxBars);
+            }
+            passThroughs.incrementAndGet();
+            return client.getBars(symbol, timeframe, limit);
+        }
+        var s = series.computeIfAbsent(key, k -> new Series());
+        s.lock.lock();
+        try {
+            if (s.bars.isEmpty() && archive != null) {
+                seedFromArchive(s, symbol, timeframe, limit);
+            }
+            if (s.bars.isEmpty() || s.capacity < limit) {
+                return fullSync(s, symbol, timeframe, limit);
+            }
+
+            Bar last = s.bars.get(s.bars.size() - 1);
+            deltaFetches.incrementAndGet();
+            List<Bar> delta = client.getBarsSince(symbol, timeframe, last.timestamp(), DELTA_PAGE_LIMIT);
+
+            if (delta.isEmpty() || !delta.get(0).timestamp().equals(last.timestamp())
+                    || delta.size() >= DELTA_PAGE_LIMIT) {
+                gapResyncs.incrementAndGet();
+                logger.info("Bar gap detected for {} {} (last held {}, delta {} bars) — re-syncing",
+                    symbol, timeframe, last.timestamp(), delta.size());
+                return fullSync(s, symbol, timeframe, limit);
+            }
+
+            s.bars.set(s.bars.size() - 1, delta.get(0));
+            for (int i = 1; i < delta.size(); i++) {
+                s.bars.add(delta.get(i));
+            }
+            trim(s);
+            return tail(s, limit);
+        } finally {
+            s.lock.unlock();
+        }
+    }
+
+    /** Forget a symbol's windows; the next request re-syncs from scratch. */
+    public void invalidate(String symbol) {
+        series.keySet().removeIf(k -> k.symbol().equals(symbol));
+    }
+
+    public HistoryStats getStats() {
+        return new HistoryStats(fullSyncs.get(), deltaFetches.get(), gapResyncs.get(),
+            archiveSeeds.get(), passThroughs.get(), series.size());
+    }
+
+    /** {@code passThroughs} counts requests above {@code maxBars} sent to the broker unwindowed. */
+    public record HistoryStats(long fullSyncs, long deltaFetches, long gapResyncs, long archiveSeeds,
+                               long passThroughs, int series) {}
+
+    /** Start from the archived window when it holds enough bars; the caller's delta does the rest. */
+    private void seedFromArchive(Series s, String symbol, String timeframe, int limit) {
+        int capacity = Math.min(limit, maxBars);
+        var archived = archive.read(symbol, timeframe, capacity);
+        if (archived.size() < capacity) return;
+        s.bars = new ArrayList<>(archived);
+        s.capacity = capacity;
+        archiveSeeds.incrementAndGet();
+        logger.debug("Seeded {} {} with {} archived bars", symbol, timeframe, archived.size());
+    }
+
+    private List<Bar> fullSync(Series s, String symbol, String timeframe, int limit) throws Exception {
+        fullSyncs.incrementAndGet();
+        s.bars = new ArrayList<>(client.getBars(symbol, timeframe, limit));
+        s.capacity = Math.min(Math.max(s.capacity, limit), maxBars);
+        trim(s);
+        return tail(s, limit);
+    }
+
+    private static void trim(Series s) {
+        int excess = s.bars.size() - s.capacity;
+        if (excess > 0) {
+            s.bars.subList(0, excess).clear();
+        }
+    }
+
+    private static List<Bar> tail(Series s, int limit) {
+        int size = s.bars.size();
+        return List.copyOf(size <= limit ? s.bars : s.bars.subList(size - limit, size));
+    }
+}
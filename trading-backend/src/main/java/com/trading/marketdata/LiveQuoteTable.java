@@ -0,0 +1,180 @@
+package com.trading.marketdata;
+
+import com.trading.api.model.Bar;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Last trade, last quote and locally built 1-minute bars per symbol, fed by a streaming client.
+ *
+ * One writer (the stream listener) and many readers (ProfileManagers, exit checks). Every
+ * per-symbol slot is an {@link AtomicReference} to an immutable record, so readers never block
+ * and a reader always sees a consistent trade/quote pair.
+ *
+ * Minute bars are aggregated from trades: the forming bar is updated in place (CAS) and rolls
+ * over when a trade lands in a later minute. When the feed also delivers server-built minute
+ * bars ({@link #onBar}), those replace the locally completed bar for that minute.
+ */
+public final class LiveQuoteTable {
+
+    /** Latest trade and top of book for one symbol. NaN / null where nothing has arrived yet. */
+    public record MarketTick(
+        String symbol,
+        double lastPrice,
+        long lastSize,
+        Instant tradeTime,
+        double bidPrice,
+        double askPrice,
+        Instant quoteTime,
+        long receivedAtMillis
+    ) {
+        static MarketTick empty(String symbol) {
+            return new MarketTick(symbol, Double.NaN, 0, null, Double.NaN, Double.NaN, null, 0);
+        }
+
+        public boolean hasTrade() {
+            return !Double.isNaN(lastPrice);
+        }
+
+        public boolean hasQuote() {
+            return !Double.isNaN(bidPrice) && !Double.isNaN(askPrice) && bidPrice > 0 && askPrice > 0;
+        }
+
+        public double midPrice() {
+            return hasQuote() ? (bidPrice + askPrice) / 2.0 : Double.NaN;
+        }
+    }
+
+    /** Forming minute bar plus the last completed one. */
+    record MinuteBars(Instant minute, double open, double high, double low, double close, long volume,
+                      Bar completed) {
+        Bar forming() {
+            return new Bar(minute, open, high, low, close, volume);
+        }
+    }
+
+    private static final Duration MINUTE = Duration.ofMinutes(1);
+
+    private final ConcurrentHashMap<String, AtomicReference<MarketTick>> ticks = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, AtomicReference<MinuteBars>> bars = new ConcurrentHashMap<>();
+    private final Clock clock;
+
+    public LiveQuoteTable() {
+        this(Clock.systemUTC());
+    }
+
+    public LiveQuoteTable(Clock clock) {
+        this.clock = clock;
+    }
+
+    // ── Writers (stream listener) ─────────────────────────────────────────────
+
+    public void onTrade(String symbol, double price, long size, Instant time) {
+        if (price <= 0) return;
+        long now = clock.millis();
+        slot(ticks, symbol, MarketTick.empty(symbol)).updateAndGet(t -> new MarketTick(
+            symbol, price, size, time, t.bidPrice(), t.askPrice(), t.quoteTime(), now));
+
+        Instant minute = time.truncatedTo(ChronoUnit.MINUTES);
+        var ref = bars.computeIfAbsent(symbol, k -> new AtomicReference<>());
+        ref.updateAndGet(b -> {
+            if (b == null) {
+                return new MinuteBars(minute, price, price, price, price, size, null);
+            }
+            if (minute.isBefore(b.minute())) {
+                return b; // late print for an already-closed minute — ignore
+            }
+            if (minute.equals(b.minute())) {
+                return new MinuteBars(minute, b.open(), Math.max(b.high(), price), Math.min(b.low(), price),
+                    price, b.volume() + size, b.completed());
+            }
+            return new MinuteBars(minute, price, price, price, price, size, b.forming());
+        });
+    }
+
+    public void onQuote(String symbol, double bid, double ask, Instant time) {
+        long now = clock.millis();
+        slot(ticks, symbol, MarketTick.empty(symbol)).updateAndGet(t -> new MarketTick(
+            symbol, t.lastPrice(), t.lastSize(), t.tradeTime(), bid, ask, time, now));
+    }
+
+    /** Server-built minute bar; authoritative over the locally aggregated one for its minute. */
+    public void onBar(String symbol, Bar bar) {
+        var ref = bars.computeIfAbsent(symbol, k -> new AtomicReference<>());
+        ref.updateAndGet(b -> {
+            if (b == null) {
+                return new MinuteBars(bar.timestamp().plus(MINUTE), bar.close(), bar.close(), bar.close(),
+                    bar.close(), 0, bar);
+            }
+            if (bar.timestamp().isBefore(b.minute())) {
+                return new MinuteBars(b.minute(), b.open(), b.high(), b.low(), b.close(), b.volume(), bar);
+            }
+            return b; // bar for the minute still forming locally — keep aggregating
+        });
+    }
+
+    // ── Readers ───────────────────────────────────────────────────────────────
+
+    public Optional<MarketTick> get(String symbol) {
+        var ref = ticks.get(symbol);
+        return ref == null ? Optional.empty() : Optional.of(ref.get());
+    }
+
+    /**
+     * Last trade price if it arrived within {@code maxAge}, else the quote midpoint if that is
+     * fresh, else empty — callers fall back to REST.
+     */
+    public OptionalDouble lastPrice(String symbol, Duration maxAge) {
+        var ref = ticks.get(symbol);
+        if (ref == null) return OptionalDouble.empty();
+        var tick = ref.get();
+        long cutoff = clock.millis() - maxAge.toMillis();
+        if (tick.receivedAtMillis() < cutoff) return OptionalDouble.empty();
+        if (tick.hasTrade() && isFresh(tick.tradeTime(), maxAge)) return OptionalDouble.of(tick.lastPrice());
+        if (tick.hasQuote()) return OptionalDouble.of(tick.midPrice());
+        return OptionalDouble.empty();
+    }
+
+    /**
+     * Latest 1-minute bar for a symbol: the forming bar while trades are arriving, else the last
+     * completed bar — whichever is within {@code maxAge}.
+     */
+    public Optional<Bar> latestBar(String symbol, Duration maxAge) {
+        var ref = bars.get(symbol);
+        var b = ref == null ? null : ref.get();
+        if (b == null) return Optional.empty();
+        if (isFresh(b.minute(), maxAge.plus(MINUTE)) && b.volume() > 0) {
+            return Optional.of(b.forming());
+        }
+        if (b.completed() != null && isFresh(b.completed().timestamp(), maxAge.plus(MINUTE))) {
+            return Optional.of(b.completed());
+        }
+        return Optional.empty();
+    }
+
+    public Optional<Bar> lastCompletedBar(String symbol) {
+        var ref = bars.get(symbol);
+        var b = ref == null ? null : ref.get();
+        return b == null ? Optional.empty() : Optional.ofNullable(b.completed());
+    }
+
+    public int size() {
+        return ticks.size();
+    }
+
+    private boolean isFresh(Instant time, Duration maxAge) {
+        return time != null && !time.isBefore(clock.instant().minus(maxAge));
+    }
+
+    private static <T> AtomicReference<T> slot(ConcurrentHashMap<String, AtomicReference<T>> map,
+                                               String symbol, T initial) {
+        return map.computeIfAbsent(symbol, k -> new AtomicReference<>(initial));
+    }
+}
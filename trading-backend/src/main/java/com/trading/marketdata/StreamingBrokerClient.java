@@ -0,0 +1,82 @@
+package com.trading.marketdata;
+
+import com.trading.api.BrokerClient;
+import com.trading.api.model.Bar;
+import com.trading.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * BrokerClient decorator that answers latest-bar reads from the streaming {@link LiveQuoteTable}
+ * and only falls back to REST for symbols the stream has nothing fresh for.
+ */
+public final class StreamingBrokerClient extends ForwardingBrokerClient {
+    private static final Logger logger = LoggerFactory.getLogger(StreamingBrokerClient.class);
+
+    private final AlpacaStreamClient stream;
+    private final Duration maxAge;
+
+    public StreamingBrokerClient(BrokerClient delegate, AlpacaStreamClient stream, Duration maxAge) {
+        super(delegate);
+        this.stream = stream;
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * Start the Alpaca data stream and wrap {@code client} with it unless
+     * MARKET_DATA_STREAM_ENABLED=false. Returns the client unchanged when streaming is disabled.
+     * Symbols are subscribed on first use, so the stream follows whatever the profiles trade.
+     */
+    public static BrokerClient wrap(BrokerClient client, Config config) {
+        if (!config.isMarketDataStreamEnabled()) {
+            logger.info("Market data stream disabled (MARKET_DATA_STREAM_ENABLED=false)");
+            return client;
+        }
+        var stream = new AlpacaStreamClient(URI.create(config.getMarketDataStreamUrl()),
+            config.apiKey(), config.apiSecret(), new LiveQuoteTable());
+        stream.start();
+        return new StreamingBrokerClient(client, stream, Duration.ofMillis(config.getMarketDataStreamMaxAgeMs()));
+    }
+
+    public AlpacaStreamClient getStream() {
+        return stream;
+    }
+
+    public Duration getMaxAge() {
+        return maxAge;
+    }
+
+    @Override
+    public Optional<Bar> getLatestBar(String symbol) {
+        var live = stream.table().latestBar(symbol, maxAge);
+        if (live.isPresent()) {
+            return live;
+        }
+        stream.subscribe(List.of(symbol));
+        return delegate.getLatestBar(symbol);
+    }
+
+    @Override
+    public Map<String, Bar> getLatestBars(Collection<String> symbols) throws Exception {
+        var result = new LinkedHashMap<String, Bar>();
+        var missing = new ArrayList<String>();
+        for (String symbol : symbols) {
+            stream.table().latestBar(symbol, maxAge).ifPresentOrElse(
+                bar -> result.put(symbol, bar), () -> missing.add(symbol));
+        }
+        if (!missing.isEmpty()) {
+            stream.subscribe(missing);
+            result.putAll(delegate.getLatestBars(missing));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,501 @@
+package com.trading.marketdata;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.trading.api.model.Bar;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * WebSocket client for Tradovate market data (wss://md.tradovateapi.com/v1/websocket), which
+ * has no REST equivalent. Bars for each (contract, timeframe) are built up in memory from the
+ * chart stream and served by {@link #getBars}; quotes go into a {@link LiveQuoteTable}.
+ *
+ * Protocol: every server frame starts with a type character — {@code o} open, {@code h}
+ * heartbeat, {@code a} a JSON array of messages, {@code c} close. Requests are
+ * {@code endpoint\nid\n\nbody}; responses carry the same {@code i} and a status {@code s}, and
+ * events carry {@code e} ({@code md} quotes, {@code chart} bars). The client authorizes with the
+ * market-data access token as soon as the socket opens and must send {@code []} at least every
+ * 2.5 seconds.
+ *
+ * {@code md/getChart} answers with a historical and a real-time subscription id: history bars
+ * arrive under the first until an end-of-history marker, live updates of the forming bar under
+ * the second. Both are merged by bar timestamp, so a revised bar replaces the one held.
+ *
+ * Like {@link AlpacaStreamClient}, subscriptions are remembered and replayed after a reconnect
+ * with exponential backoff; bars already held are kept and topped up by the new history.
+ */
+public final class TradovateMarketDataClient implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(TradovateMarketDataClient.class);
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(60);
+    private static final Duration HEARTBEAT = Duration.ofMillis(2_500);
+    private static final Duration LATEST_MAX_AGE = Duration.ofMinutes(2);
+    private static final String LATEST_TIMEFRAME = "1Min";
+    private static final int LATEST_WINDOW = 30;
+    // Most bars held per chart; also the most history ever requested.
+    static final int MAX_BARS = 5_000;
+
+    /** Contract id for a symbol, so quote events (keyed by contractId) can be attributed. */
+    @FunctionalInterface
+    public interface ContractResolver {
+        long contractId(String symbol) throws Exception;
+    }
+
+    record ChartKey(String symbol, String timeframe) {}
+
+    /** Bars for one chart subscription, oldest first; guarded by its own lock. */
+    private static final class Chart {
+        final ReentrantLock lock = new ReentrantLock();
+        final ChartKey key;
+        final ArrayList<Bar> bars = new ArrayList<>();
+        volatile int requested;
+        volatile CompletableFuture<Void> history = new CompletableFuture<>();
+
+        Chart(ChartKey key) {
+            this.key = key;
+        }
+    }
+
+    private final URI uri;
+    private final Supplier<String> token;
+    private final ContractResolver resolver;
+    private final LiveQuoteTable table;
+    private final Duration initialBackoff;
+    private final Duration historyTimeout;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Set<String> quoteSymbols = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<Long, String> contractSymbols = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Long> totalVolumes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<ChartKey, Chart> charts = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Chart> chartIds = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Consumer<JsonNode>> pending = new ConcurrentHashMap<>();
+
+    private final AtomicInteger requestIds = new AtomicInteger();
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicBoolean reconnectScheduled = new AtomicBoolean(false);
+    private final AtomicInteger attempts = new AtomicInteger();
+    private final AtomicLong messages = new AtomicLong();
+    private final AtomicLong reconnects = new AtomicLong();
+
+    private volatile WebSocket socket;
+    private volatile boolean authorized;
+
+    // java.net.http.WebSocket allows one outstanding send; chain them.
+    private final ReentrantLock sendLock = new ReentrantLock();
+    private CompletableFuture<?> sendChain = CompletableFuture.completedFuture(null);
+
+    public TradovateMarketDataClient(URI uri, Supplier<String> token, ContractResolver resolver,
+                                     LiveQuoteTable table) {
+        this(uri, token, resolver, table, Duration.ofSeconds(1), Duration.ofSeconds(10));
+    }
+
+    public TradovateMarketDataClient(URI uri, Supplier<String> token, ContractResolver resolver,
+                                     LiveQuoteTable table, Duration initialBackoff, Duration historyTimeout) {
+        this.uri = uri;
+        this.token = token;
+        this.resolver = resolver;
+        this.table = table;
+        this.initialBackoff = initialBackoff;
+        this.historyTimeout = historyTimeout;
+        this.httpClient = HttpClient.newBuilder().connectTimeout(CONNECT_TIMEOUT).build();
+    }
+
+    public LiveQuoteTable table() {
+        return table;
+    }
+
+    public void start() {
+        if (running.compareAndSet(false, true)) {
+            logger.info("Starting Tradovate market data {}", uri);
+            connect();
+            Thread.ofVirtual().name("tradovate-md-heartbeat").start(this::heartbeat);
+        }
+    }
+
+    public boolean isConnected() {
+        return authorized;
+    }
+
+    /**
+     * Newest {@code limit} bars for a contract, oldest first. The first request for a
+     * (symbol, timeframe) subscribes to its chart and waits up to the history timeout for the
+     * historical bars; later requests are served from memory.
+     */
+    public List<Bar> getBars(String symbol, String timeframe, int limit) throws Exception {
+        if (limit <= 0) return List.of();
+        start();
+        var chart = charts.computeIfAbsent(new ChartKey(symbol, timeframe), Chart::new);
+        int wanted = Math.min(limit, MAX_BARS);
+        chart.lock.lock();
+        try {
+            if (chart.requested < wanted || chart.history.isCompletedExceptionally()) {
+                // First request, more history than the subscription asked for, or a failed one
+                chart.requested = Math.max(chart.requested, wanted);
+                if (chart.history.isDone()) chart.history = new CompletableFuture<>();
+                if (authorized) requestChart(chart);
+            }
+        } finally {
+            chart.lock.unlock();
+        }
+        try {
+            chart.history.get(historyTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new TimeoutException("No Tradovate chart history for " + symbol + " " + timeframe
+                + " within " + historyTimeout.toMillis() + "ms");
+        }
+        chart.lock.lock();
+        try {
+            int size = chart.bars.size();
+            return List.copyOf(chart.bars.subList(Math.max(0, size - limit), size));
+        } finally {
+            chart.lock.unlock();
+        }
+    }
+
+    /**
+     * Latest one-minute bar: aggregated from streamed trades while they are fresh, else the
+     * newest bar of the contract's 1Min chart. Empty when neither is available in time.
+     */
+    public Optional<Bar> getLatestBar(String symbol) {
+        subscribeQuotes(symbol);
+        var live = table.latestBar(symbol, LATEST_MAX_AGE);
+        if (live.isPresent()) return live;
+        try {
+            var bars = getBars(symbol, LATEST_TIMEFRAME, LATEST_WINDOW);
+            return bars.isEmpty() ? Optional.empty() : Optional.of(bars.get(bars.size() - 1));
+        } catch (Exception e) {
+            logger.debug("No Tradovate latest bar for {}: {}", symbol, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /** Stream quotes for a contract into the table; resolved to a contract id once. */
+    public void subscribeQuotes(String symbol) {
+        start();
+        if (!quoteSymbols.add(symbol)) return;
+        if (resolver != null) {
+            try {
+                contractSymbols.put(resolver.contractId(symbol), symbol);
+            } catch (Exception e) {
+                logger.warn("Tradovate contract lookup failed for {} — quotes unattributed: {}", symbol, e.getMessage());
+            }
+        }
+        if (authorized) sendQuoteSubscription(symbol);
+    }
+
+    public MarketDataStats getStats() {
+        return new MarketDataStats(authorized, quoteSymbols.size(), charts.size(), messages.get(), reconnects.get());
+    }
+
+    public record MarketDataStats(boolean connected, int quoteSubscriptions, int charts, long messages,
+                                  long reconnects) {}
+
+    @Override
+    public void close() {
+        running.set(false);
+        authorized = false;
+        var ws = socket;
+        if (ws != null) {
+            ws.sendClose(WebSocket.NORMAL_CLOSURE, "shutdown");
+        }
+    }
+
+    // ── Connection lifecycle ──────────────────────────────────────────────────
+
+    private void connect() {
+        if (!running.get()) return;
+        httpClient.newWebSocketBuilder()
+            .connectTimeout(CONNECT_TIMEOUT)
+            .buildAsync(uri, new Listener())
+            .whenComplete((ws, error) -> {
+                if (error != null) {
+                    logger.warn("Tradovate market data connect failed: {}", error.getMessage());
+                    scheduleReconnect();
+                } else {
+                    socket = ws;
+                }
+            });
+    }
+
+    private void scheduleReconnect() {
+        authorized = false;
+        pending.clear();
+        chartIds.clear();
+        if (!running.get() || !reconnectScheduled.compareAndSet(false, true)) return;
+        int attempt = attempts.getAndIncrement();
+        long delayMs = Math.min(MAX_BACKOFF.toMillis(), initialBackoff.toMillis() << Math.min(attempt, 16));
+        reconnects.incrementAndGet();
+        logger.info("Tradovate market data reconnecting in {}ms (attempt {})", delayMs, attempt + 1);
+        Thread.ofVirtual().name("tradovate-md-reconnect").start(() -> {
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                reconnectScheduled.set(false);
+            }
+            connect();
+        });
+    }
+
+    /** Tradovate drops a session that has not sent anything for a few seconds. */
+    private void heartbeat() {
+        while (running.get()) {
+            try {
+                Thread.sleep(HEARTBEAT.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (authorized) send("[]");
+        }
+    }
+
+    private final class Listener implements WebSocket.Listener {
+        private final StringBuilder buffer = new StringBuilder();
+
+        @Override
+        public void onOpen(WebSocket webSocket) {
+            socket = webSocket;
+            webSocket.request(1);
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            buffer.append(data);
+            if (last) {
+                String text = buffer.toString();
+                buffer.setLength(0);
+                try {
+                    handle(text);
+                } catch (Exception e) {
+                    logger.warn("Bad Tradovate market data frame ({}): {}", e.getMessage(), abbreviate(text));
+                }
+            }
+            webSocket.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+            logger.warn("Tradovate market data closed ({} {})", statusCode, reason);
+            scheduleReconnect();
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket webSocket, Throwable error) {
+            logger.warn("Tradovate market data error: {}", error.getMessage());
+            scheduleReconnect();
+        }
+    }
+
+    // ── Protocol ──────────────────────────────────────────────────────────────
+
+    void handle(String frame) throws Exception {
+        if (frame.isEmpty()) return;
+        switch (frame.charAt(0)) {
+            case 'o' -> authorize();
+            case 'h' -> logger.trace("Tradovate market data heartbeat");
+            case 'a' -> {
+                JsonNode root = objectMapper.readTree(frame.substring(1));
+                if (!root.isArray()) return;
+                for (JsonNode msg : root) {
+                    messages.incrementAndGet();
+                    dispatch(msg);
+                }
+            }
+            case 'c' -> logger.warn("Tradovate market data closing: {}", frame.substring(1));
+            default -> logger.trace("Ignoring Tradovate frame {}", abbreviate(frame));
+        }
+    }
+
+    private void dispatch(JsonNode msg) {
+        if (msg.has("e")) {
+            String event = msg.path("e").asText();
+            switch (event) {
+                case "md" -> msg.path("d").path("quotes").forEach(this::onQuote);
+                case "chart" -> msg.path("d").path("charts").forEach(this::onChart);
+                case "shutdown" -> logger.warn("Tradovate market data shutdown: {}", msg.path("d"));
+                default -> logger.trace("Ignoring Tradovate event {}", event);
+            }
+        } else if (msg.has("i")) {
+            var handler = pending.remove(msg.path("i").asInt());
+            if (handler != null) handler.accept(msg);
+        }
+    }
+
+    private void authorize() {
+        request("authorize", token.get(), response -> {
+            if (response.path("s").asInt() != 200) {
+                logger.error("Tradovate market data authorization failed: {}", response.path("d"));
+                return;
+            }
+            authorized = true;
+            attempts.set(0);
+            logger.info("Tradovate market data authorized — {} quote and {} chart subscriptions",
+                quoteSymbols.size(), charts.size());
+            quoteSymbols.forEach(this::sendQuoteSubscription);
+            charts.values().forEach(chart -> {
+                if (chart.requested > 0) requestChart(chart);
+            });
+        });
+    }
+
+    private void sendQuoteSubscription(String symbol) {
+        var body = objectMapper.createObjectNode().put("symbol", symbol);
+        request("md/subscribeQuote", body.toString(), response -> {
+            if (response.path("s").asInt() != 200) {
+                logger.warn("Tradovate quote subscription for {} failed: {}", symbol, response.path("d"));
+            }
+        });
+    }
+
+    private void requestChart(Chart chart) {
+        var body = objectMapper.createObjectNode().put("symbol", chart.key.symbol());
+        body.set("chartDescription", chartDescription(chart.key.timeframe()));
+        body.putObject("timeRange").put("asMuchAsElements", chart.requested);
+        request("md/getChart", body.toString(), response -> {
+            if (response.path("s").asInt() != 200) {
+                logger.warn("Tradovate chart for {} {} failed: {}", chart.key.symbol(), chart.key.timeframe(),
+                    response.path("d"));
+                chart.history.completeExceptionally(new IllegalStateException(
+                    "Tradovate chart request failed: " + response.path("d")));
+                return;
+            }
+            var ids = response.path("d");
+            chartIds.put(ids.path("historicalId").asLong(), chart);
+            chartIds.put(ids.path("realtimeId").asLong(), chart);
+        });
+    }
+
+    /** MinuteBar of N minutes for intraday timeframes, DailyBar of N days otherwise. */
+    ObjectNode chartDescription(String timeframe) {
+        Duration period = BarCache.barDuration(timeframe);
+        boolean daily = period.compareTo(Duration.ofDays(1)) >= 0;
+        return objectMapper.createObjectNode()
+            .put("underlyingType", daily ? "DailyBar" : "MinuteBar")
+            .put("elementSize", daily ? period.toDays() : period.toMinutes())
+            .put("elementSizeUnit", "UnderlyingUnits")
+            .put("withHistogram", false);
+    }
+
+    private void onChart(JsonNode update) {
+        var chart = chartIds.get(update.path("id").asLong());
+        if (chart == null) return;
+        if (update.path("eoh").asBoolean(false)) {
+            chart.history.complete(null);
+            return;
+        }
+        chart.lock.lock();
+        try {
+            for (JsonNode b : update.path("bars")) {
+                double close = b.path("close").asDouble();
+                if (close <= 0) continue;
+                merge(chart, new Bar(Instant.parse(b.path("timestamp").asText()),
+                    b.path("open").asDouble(close), b.path("high").asDouble(close), b.path("low").asDouble(close),
+                    close, b.path("upVolume").asLong(0) + b.path("downVolume").asLong(0)));
+            }
+            int excess = chart.bars.size() - Math.max(chart.requested, 1);
+            if (excess > 0) chart.bars.subList(0, excess).clear();
+        } finally {
+            chart.lock.unlock();
+        }
+    }
+
+    /** Append a newer bar, replace one with the same timestamp, or insert a late one in order. */
+    private static void merge(Chart chart, Bar bar) {
+        var bars = chart.bars;
+        int n = bars.size();
+        if (n == 0 || bar.timestamp().isAfter(bars.get(n - 1).timestamp())) {
+            bars.add(bar);
+            return;
+        }
+        int lo = 0, hi = n - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = bars.get(mid).timestamp().compareTo(bar.timestamp());
+            if (cmp == 0) {
+                bars.set(mid, bar);
+                return;
+            }
+            if (cmp < 0) lo = mid + 1;
+            else hi = mid - 1;
+        }
+        bars.add(lo, bar);
+    }
+
+    private void onQuote(JsonNode quote) {
+        String symbol = contractSymbols.get(quote.path("contractId").asLong());
+        if (symbol == null) return;
+        Instant time = Instant.parse(quote.path("timestamp").asText());
+        var entries = quote.path("entries");
+        double bid = entries.path("Bid").path("price").asDouble();
+        double ask = entries.path("Offer").path("price").asDouble();
+        if (bid > 0 && ask > 0) {
+            table.onQuote(symbol, bid, ask, time);
+        }
+        var trade = entries.path("Trade");
+        if (trade.has("price")) {
+            // Every quote update repeats the last trade; only a rise in total volume is a new print
+            long size = trade.path("size").asLong(0);
+            var total = entries.path("TotalTradeVolume").path("size");
+            if (total.isNumber()) {
+                Long previous = totalVolumes.put(symbol, total.asLong());
+                if (previous != null) size = total.asLong() - previous;
+            }
+            if (size > 0) {
+                table.onTrade(symbol, trade.path("price").asDouble(), size, time);
+            }
+        }
+    }
+
+    private void request(String endpoint, String body, Consumer<JsonNode> onResponse) {
+        int id = requestIds.incrementAndGet();
+        pending.put(id, onResponse);
+        send(endpoint + "\n" + id + "\n\n" + body);
+    }
+
+    private void send(String text) {
+        var ws = socket;
+        if (ws == null) return;
+        sendLock.lock();
+        try {
+            sendChain = sendChain
+                .exceptionally(e -> null)
+                .thenCompose(ignored -> ws.sendText(text, true));
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    private static String abbreviate(String text) {
+        return text.length() <= 200 ? text : text.substring(0, 200) + "...";
+    }
+}
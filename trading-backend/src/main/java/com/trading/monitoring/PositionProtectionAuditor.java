@@ -1,6 +1,7 @@
 package com.trading.monitoring;
 
 import com.trading.api.AlpacaClient;
+import com.trading.execution.OrderBook;
 import com.trading.notifications.TelegramNotifier;
 import com.trading.websocket.TradingWebSocketHandler;
 import org.slf4j.Logger;
@@ -39,6 +40,8 @@ public final class PositionProtectionAuditor {
 
     private final TelegramNotifier telegramNotifier;
     private final AlpacaClient alpacaClient;
+    // Live order book for the account (null: open orders are fetched per symbol)
+    private volatile OrderBook orderBook;
 
     public PositionProtectionAuditor(TelegramNotifier telegramNotifier, AlpacaClient alpacaClient) {
         this.telegramNotifier = telegramNotifier;
@@ -46,6 +49,11 @@ public final class PositionProtectionAuditor {
         logger.info("PositionProtectionAuditor initialized");
     }
 
+    /** Read open orders from this book while it is live instead of asking Alpaca per position. */
+    public void setOrderBook(OrderBook orderBook) {
+        this.orderBook = orderBook;
+    }
+
     /**
      * Record that a position was opened WITHOUT bracket protection.
      * This is called immediately when a fractional order is placed.
@@ -119,7 +127,9 @@ public final class PositionProtectionAuditor {
 
             for (var position : positions) {
                 String symbol = position.symbol();
-                var orders = alpacaClient.getOpenOrders(symbol);
+                var book = orderBook;
+                var booked = book != null ? book.openOrders(symbol) : null;
+                var orders = booked != null ? booked : alpacaClient.getOpenOrders(symbol);
 
                 boolean hasStopLoss = false;
                 boolean hasTakeProfit = false;
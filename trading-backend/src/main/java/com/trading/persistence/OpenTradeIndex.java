@@ -0,0 +1,104 @@
+package com.trading.persistence;
+
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory mirror of the trades table for the per-cycle gates: OPEN lot count and latest
+ * CLOSED exit per (broker, symbol). TradeDatabase updates it in step with every write, so
+ * hasOpenTrade / countOpenTrades / wasRecentlyClosed answer without SQL.
+ *
+ * Updates for one key are atomic ({@link ConcurrentHashMap#compute}); a side effect passed in
+ * runs inside that step, which is how TradeDatabase keeps journal order and index order the
+ * same for a key. One index per TradeDatabase, so every profile sharing the database sees the
+ * same state.
+ */
+final class OpenTradeIndex {
+
+    private record Key(String broker, String symbol) {}
+
+    private record Entry(int openLots, Instant lastClose) {
+        static final Entry EMPTY = new Entry(0, null);
+    }
+
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    /** Rows with a null broker or symbol never match the SQL gates either. */
+    private static boolean indexable(String broker, String symbol) {
+        return broker != null && symbol != null;
+    }
+
+    // ── Loading ──────────────────────────────────────────────────────────────
+
+    void clear() {
+        entries.clear();
+    }
+
+    void loadOpen(String broker, String symbol, int openLots) {
+        if (!indexable(broker, symbol)) return;
+        entries.merge(new Key(broker, symbol), new Entry(openLots, null),
+            (old, add) -> new Entry(add.openLots(), old.lastClose()));
+    }
+
+    void loadClosed(String broker, String symbol, Instant lastClose) {
+        if (!indexable(broker, symbol) || lastClose == null) return;
+        entries.merge(new Key(broker, symbol), new Entry(0, lastClose),
+            (old, add) -> new Entry(old.openLots(), later(old.lastClose(), lastClose)));
+    }
+
+    // ── Write-through ────────────────────────────────────────────────────────
+
+    /** A new OPEN lot; {@code inStep} runs atomically with the update. */
+    void opened(String broker, String symbol, Runnable inStep) {
+        if (!indexable(broker, symbol)) {
+            inStep.run();
+            return;
+        }
+        entries.compute(new Key(broker, symbol), (k, e) -> {
+            inStep.run();
+            e = e != null ? e : Entry.EMPTY;
+            return new Entry(e.openLots() + 1, e.lastClose());
+        });
+    }
+
+    /** Every OPEN lot for the key closes at {@code exitTime}; a no-op when none are open, as in SQL. */
+    void closed(String broker, String symbol, Instant exitTime, Runnable inStep) {
+        if (!indexable(broker, symbol)) {
+            inStep.run();
+            return;
+        }
+        entries.compute(new Key(broker, symbol), (k, e) -> {
+            inStep.run();
+            e = e != null ? e : Entry.EMPTY;
+            if (e.openLots() == 0) return e;
+            return new Entry(0, later(e.lastClose(), exitTime));
+        });
+    }
+
+    /** {@code lots} OPEN rows were cancelled (orphan sweep). */
+    void cancelled(String broker, String symbol, int lots) {
+        if (!indexable(broker, symbol)) return;
+        entries.computeIfPresent(new Key(broker, symbol),
+            (k, e) -> new Entry(Math.max(0, e.openLots() - lots), e.lastClose()));
+    }
+
+    // ── Queries ──────────────────────────────────────────────────────────────
+
+    int openLots(String broker, String symbol) {
+        if (!indexable(broker, symbol)) return 0;
+        Entry e = entries.get(new Key(broker, symbol));
+        return e != null ? e.openLots() : 0;
+    }
+
+    boolean closedSince(String broker, String symbol, Instant cutoff) {
+        if (!indexable(broker, symbol)) return false;
+        Entry e = entries.get(new Key(broker, symbol));
+        return e != null && e.lastClose() != null && !e.lastClose().isBefore(cutoff);
+    }
+
+    private static Instant later(Instant a, Instant b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return a.isAfter(b) ? a : b;
+    }
+}
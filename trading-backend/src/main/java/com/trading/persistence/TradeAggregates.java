@@ -0,0 +1,108 @@
+package com.trading.persistence;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Running totals over CLOSED trades, kept by TradeDatabase in the {@code trade_stats} table and
+ * mirrored here so statistics reads are a map lookup however long the history grows.
+ *
+ * Each closed lot adds its P&L to one row per {@link Dimension}. The in-memory copy only
+ * changes after the transaction that wrote the rows commits.
+ */
+public final class TradeAggregates {
+
+    /** What an aggregate is grouped by. {@link #ALL} has the single key {@code ""}. */
+    public enum Dimension {
+        ALL, SYMBOL, STRATEGY, BROKER,
+        /** UTC exit date, ISO format — the same day SQLite's DATE(exit_time) gives. */
+        DAY
+    }
+
+    /**
+     * Count, wins ({@code pnl > 0}), losses ({@code pnl < 0}) and P&L moments for one key.
+     * {@code grossLoss} is the sum of |pnl| over losing trades.
+     */
+    public record Aggregate(int trades, int wins, int losses, double pnl, double pnlSquares,
+                            double grossWin, double grossLoss, double best, double worst) {
+
+        public static final Aggregate EMPTY = new Aggregate(0, 0, 0, 0, 0, 0, 0, 0, 0);
+
+        public static Aggregate of(double pnl) {
+            return new Aggregate(1, pnl > 0 ? 1 : 0, pnl < 0 ? 1 : 0, pnl, pnl * pnl,
+                Math.max(pnl, 0), Math.max(-pnl, 0), pnl, pnl);
+        }
+
+        public Aggregate plus(Aggregate other) {
+            if (trades == 0) return other;
+            if (other.trades == 0) return this;
+            return new Aggregate(trades + other.trades, wins + other.wins, losses + other.losses,
+                pnl + other.pnl, pnlSquares + other.pnlSquares,
+                grossWin + other.grossWin, grossLoss + other.grossLoss,
+                Math.max(best, other.best), Math.min(worst, other.worst));
+        }
+
+        public double winRate() {
+            return trades > 0 ? (double) wins / trades : 0.0;
+        }
+
+        public double averageWin() {
+            return wins > 0 ? grossWin / wins : 0.0;
+        }
+
+        /** Average size of a losing trade, as a positive number. */
+        public double averageLoss() {
+            return losses > 0 ? grossLoss / losses : 0.0;
+        }
+
+        public double mean() {
+            return trades > 0 ? pnl / trades : 0.0;
+        }
+
+        /** Sample standard deviation of per-trade P&L. */
+        public double standardDeviation() {
+            if (trades < 2) return 0.0;
+            double variance = (pnlSquares - pnl * pnl / trades) / (trades - 1);
+            return Math.sqrt(Math.max(0.0, variance));
+        }
+
+        public double profitFactor() {
+            return grossLoss > 0 ? grossWin / grossLoss : (grossWin > 0 ? Double.POSITIVE_INFINITY : 0.0);
+        }
+    }
+
+    private record Key(Dimension dimension, String key) {}
+
+    private final ConcurrentHashMap<Key, Aggregate> aggregates = new ConcurrentHashMap<>();
+
+    static String dayKey(LocalDate date) {
+        return date.toString();
+    }
+
+    void clear() {
+        aggregates.clear();
+    }
+
+    void put(Dimension dimension, String key, Aggregate aggregate) {
+        aggregates.put(new Key(dimension, key), aggregate);
+    }
+
+    void add(Dimension dimension, String key, Aggregate delta) {
+        aggregates.merge(new Key(dimension, key), delta, Aggregate::plus);
+    }
+
+    public Aggregate get(Dimension dimension, String key) {
+        return aggregates.getOrDefault(new Key(dimension, key == null ? "" : key), Aggregate.EMPTY);
+    }
+
+    /** Every key in one dimension, sorted by key. */
+    public Map<String, Aggregate> all(Dimension dimension) {
+        var result = new TreeMap<String, Aggregate>();
+        aggregates.forEach((k, v) -> {
+            if (k.dimension() == dimension) result.put(k.key(), v);
+        });
+        return result;
+    }
+}
@@ -3,23 +3,78 @@ package com.trading.persistence;
 import com.trading.config.TradingConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.sqlite.SQLiteConfig;
 
 import java.sql.*;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.locks.StampedLock;
 
 /**
  * SQLite database for persisting trade history.
  * Modernized with Java 23 concurrency primitives (StampedLock) for production-grade performance.
- * 
+ *
  * Thread-Safety: Uses StampedLock with optimistic reads for high-throughput read operations
  * and write locks for mutations. This is significantly faster than synchronized methods.
+ *
+ * In {@link Mode#PERFORMANCE} the writer runs in WAL mode and reads go to a small pool of
+ * read-only connections instead of the lock, so a dashboard export never stalls an order
+ * write. Each connection keeps its prepared statements cached by SQL string.
+ *
+ * With write-behind on, trade and bot_state mutations are queued on a {@link WriteBehindJournal}
+ * and committed in groups by its writer thread, so the order path never waits on an fsync.
+ * A read first waits for the writes its own thread queued, so callers always see their own
+ * writes while other readers see the last commit; use {@link #flush} where durability must be
+ * confirmed (shutdown, emergency flatten). Those waits are bounded: a journal that can't commit
+ * (disk full, locked file) fails synchronous writes with an SQLException and lets reads go
+ * ahead. Queued writes are never dropped — the journal keeps retrying, and while it is failing
+ * {@link #isJournalHealthy} is false and the trading loops open no new positions.
+ *
+ * The per-cycle gates (hasOpenTrade, countOpenTrades, wasRecentlyClosed) answer from an
+ * {@link OpenTradeIndex} loaded at startup and updated in step with every write. P&L
+ * statistics come from {@link TradeAggregates}: running totals kept per closed lot in the
+ * {@code trade_stats} table, in the same transaction as the close, and mirrored in memory.
  */
 public class TradeDatabase {
     private static final Logger logger = LoggerFactory.getLogger(TradeDatabase.class);
 
+    /** Connection layout. */
+    public enum Mode {
+        /** One connection for reads and writes; statements are prepared on every call. */
+        SINGLE_CONNECTION,
+        /** WAL writer plus a pool of read-only connections, each with a prepared-statement cache. */
+        PERFORMANCE
+    }
+
+    private static final int DEFAULT_READ_POOL_SIZE = 4;
+    private static final int STATEMENT_CACHE_SIZE = 64;
+    private static final int BUSY_TIMEOUT_MS = 5_000;
+    private static final long MMAP_SIZE_BYTES = 256L * 1024 * 1024;
+    private static final int JOURNAL_CAPACITY = 4_096;
+    private static final java.time.Duration GROUP_COMMIT_WINDOW = java.time.Duration.ofMillis(2);
+    // bot_state key set in the transaction that backfills trade_stats
+    static final String STATS_BACKFILL_MARKER = "migration:trade_stats_backfill";
+    // Longest a read or synchronous write waits on queued writes before giving up on them
+    private static final java.time.Duration JOURNAL_WAIT = java.time.Duration.ofSeconds(5);
+
     private final Connection connection;
     private final StampedLock lock = new StampedLock();
+    private final Mode mode;
+    private final Session writer;
+    private final BlockingQueue<Session> readers;
+    private final WriteBehindJournal<Mutation> journal;
+    /** Journal sequence of the last mutation each thread queued. */
+    private final ThreadLocal<long[]> lastQueued = ThreadLocal.withInitial(() -> new long[1]);
+    private final OpenTradeIndex index = new OpenTradeIndex();
+    private final TradeAggregates aggregates = new TradeAggregates();
+    /** In-memory updates to apply once the current write transaction commits; writer lock only. */
+    private final List<Runnable> afterCommit = new ArrayList<>();
+    private volatile boolean closed;
 
     /** Resolves the DB path: uses DATA_DIR env var if set, otherwise current directory. */
     private static String resolveDbPath() {
@@ -32,21 +87,459 @@ public class TradeDatabase {
         return "trades.db";
     }
 
+    /**
+     * Performance mode unless DB_PERFORMANCE_MODE=false. In-memory databases are private to
+     * their connection, so they always use a single connection.
+     */
+    private static Mode resolveMode(String dbPath) {
+        if (dbPath.isBlank() || dbPath.startsWith(":memory:") || dbPath.contains("mode=memory")) {
+            return Mode.SINGLE_CONNECTION;
+        }
+        return "false".equalsIgnoreCase(System.getenv("DB_PERFORMANCE_MODE"))
+            ? Mode.SINGLE_CONNECTION : Mode.PERFORMANCE;
+    }
+
+    private static int resolveReadPoolSize() {
+        String value = System.getenv("DB_READ_POOL_SIZE");
+        try {
+            return value != null ? Math.max(1, Integer.parseInt(value.trim())) : DEFAULT_READ_POOL_SIZE;
+        } catch (NumberFormatException e) {
+            return DEFAULT_READ_POOL_SIZE;
+        }
+    }
+
     public TradeDatabase() {
         this(resolveDbPath());
     }
-    
+
     public TradeDatabase(String dbPath) {
+        this(dbPath, resolveMode(dbPath));
+    }
+
+    /** Write-behind follows performance mode unless DB_WRITE_BEHIND says otherwise. */
+    private static boolean resolveWriteBehind(Mode mode) {
+        String value = System.getenv("DB_WRITE_BEHIND");
+        return value != null && !value.isBlank() ? Boolean.parseBoolean(value.trim()) : mode == Mode.PERFORMANCE;
+    }
+
+    public TradeDatabase(String dbPath, Mode mode) {
+        this(dbPath, mode, resolveReadPoolSize());
+    }
+
+    public TradeDatabase(String dbPath, Mode mode, int readPoolSize) {
+        this(dbPath, mode, readPoolSize, resolveWriteBehind(mode));
+    }
+
+    public TradeDatabase(String dbPath, Mode mode, int readPoolSize, boolean writeBehind) {
         String dbUrl = "jdbc:sqlite:" + dbPath;
+        this.mode = mode;
         try {
             connection = DriverManager.getConnection(dbUrl);
+            if (mode == Mode.PERFORMANCE) {
+                try (var stmt = connection.createStatement()) {
+                    stmt.execute("PRAGMA journal_mode=WAL");
+                    // NORMAL is durable across application crashes in WAL mode; only an OS crash
+                    // or power loss can roll back the last commits.
+                    stmt.execute("PRAGMA synchronous=NORMAL");
+                    stmt.execute("PRAGMA mmap_size=" + MMAP_SIZE_BYTES);
+                    stmt.execute("PRAGMA temp_store=MEMORY");
+                    stmt.execute("PRAGMA busy_timeout=" + BUSY_TIMEOUT_MS);
+                }
+            }
+            writer = new Session(connection, mode == Mode.PERFORMANCE);
             createTables();
-            logger.info("Trade database initialized: {} with StampedLock concurrency", dbPath);
+            loadIndex();
+            loadAggregates();
+
+            if (mode == Mode.PERFORMANCE) {
+                readers = new ArrayBlockingQueue<>(readPoolSize);
+                for (int i = 0; i < readPoolSize; i++) {
+                    readers.add(new Session(openReader(dbUrl), true));
+                }
+                logger.info("Trade database initialized: {} (WAL, {} read connections)", dbPath, readPoolSize);
+            } else {
+                readers = null;
+                logger.info("Trade database initialized: {} with StampedLock concurrency", dbPath);
+            }
+            journal = writeBehind
+                ? new WriteBehindJournal<>("trade-db", JOURNAL_CAPACITY, GROUP_COMMIT_WINDOW, this::commitBatch)
+                : null;
         } catch (SQLException e) {
             throw new RuntimeException("Failed to initialize database", e);
         }
     }
-    
+
+    private static Connection openReader(String dbUrl) throws SQLException {
+        var config = new SQLiteConfig();
+        config.setReadOnly(true);
+        config.setBusyTimeout(BUSY_TIMEOUT_MS);
+        var reader = DriverManager.getConnection(dbUrl, config.toProperties());
+        try (var stmt = reader.createStatement()) {
+            stmt.execute("PRAGMA mmap_size=" + MMAP_SIZE_BYTES);
+        }
+        return reader;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public boolean isWriteBehind() {
+        return journal != null;
+    }
+
+    /** Journal counters for monitoring, or null when writes are synchronous. */
+    public WriteBehindJournal.Stats getJournalStats() {
+        return journal != null ? journal.getStats() : null;
+    }
+
+    /**
+     * Durability barrier: block until every write queued before this call is committed.
+     * Returns false if that didn't happen within {@code timeout}. A no-op when write-behind is off.
+     */
+    public boolean flush(java.time.Duration timeout) {
+        if (journal == null) return true;
+        try {
+            return journal.flush(timeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // ── Connection sessions ──────────────────────────────────────────────────
+
+    /**
+     * A connection as seen by one thread at a time. With caching on, prepared statements stay
+     * open keyed by SQL (least recently used evicted past {@value #STATEMENT_CACHE_SIZE});
+     * otherwise they're closed when the session is released, as the single-connection layout
+     * always did.
+     */
+    private static final class Session {
+        private final Connection connection;
+        private final Map<String, PreparedStatement> statements;
+        private final List<PreparedStatement> transientStatements = new ArrayList<>();
+
+        Session(Connection connection, boolean cacheStatements) {
+            this.connection = connection;
+            this.statements = cacheStatements
+                ? new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                        if (size() <= STATEMENT_CACHE_SIZE) return false;
+                        closeQuietly(eldest.getValue());
+                        return true;
+                    }
+                }
+                : null;
+        }
+
+        PreparedStatement prepare(String sql) throws SQLException {
+            if (statements == null) {
+                var stmt = connection.prepareStatement(sql);
+                transientStatements.add(stmt);
+                return stmt;
+            }
+            var stmt = statements.get(sql);
+            if (stmt == null || stmt.isClosed()) {
+                stmt = connection.prepareStatement(sql);
+                statements.put(sql, stmt);
+            } else {
+                stmt.clearParameters();
+            }
+            return stmt;
+        }
+
+        /** End of one unit of work: closes the statements that aren't cached. */
+        void release() {
+            transientStatements.forEach(Session::closeQuietly);
+            transientStatements.clear();
+        }
+
+        void close() throws SQLException {
+            release();
+            if (statements != null) {
+                statements.values().forEach(Session::closeQuietly);
+                statements.clear();
+            }
+            connection.close();
+        }
+
+        private static void closeQuietly(Statement stmt) {
+            try {
+                stmt.close();
+            } catch (SQLException ignored) {
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Work<T> {
+        T run(Session session) throws SQLException;
+    }
+
+    /**
+     * Run a read. Performance mode borrows a read-only connection and takes no lock — WAL gives
+     * it the last committed state even while a write is in progress. The single-connection
+     * layout tries an optimistic read first and repeats it under the read lock if a write
+     * interleaved.
+     */
+    private <T> T read(Work<T> work) throws SQLException {
+        awaitOwnWrites();
+        if (readers != null) {
+            Session reader = borrowReader();
+            try {
+                return work.run(reader);
+            } finally {
+                reader.release();
+                returnReader(reader);
+            }
+        }
+
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            var session = new Session(connection, false);
+            try {
+                T result = work.run(session);
+                if (lock.validate(stamp)) return result;
+            } catch (SQLException e) {
+                logger.debug("Optimistic read failed, retrying under read lock: {}", e.getMessage());
+            } finally {
+                session.release();
+            }
+        }
+        stamp = lock.readLock();
+        var session = new Session(connection, false);
+        try {
+            return work.run(session);
+        } finally {
+            session.release();
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /** Run a write (or a read that must see the writer's own state) on the writer connection. */
+    private <T> T write(Work<T> work) throws SQLException {
+        awaitJournal();
+        long stamp = lock.writeLock();
+        try {
+            connection.setAutoCommit(false);
+            try {
+                T result = work.run(writer);
+                connection.commit();
+                runAfterCommit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                afterCommit.clear();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } finally {
+            writer.release();
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private void runAfterCommit() {
+        afterCommit.forEach(Runnable::run);
+        afterCommit.clear();
+    }
+
+    // ── Write-behind ─────────────────────────────────────────────────────────
+
+    /**
+     * A queued mutation; {@code description} names it in the log if it fails. {@code indexed}
+     * mutations have already been counted in the open-trade index.
+     */
+    private record Mutation(String description, Work<?> work, boolean indexed) {}
+
+    /** Queue {@code work} on the journal, or run it now when write-behind is off. */
+    private void mutate(String description, Work<?> work) throws SQLException {
+        if (journal != null) {
+            lastQueued.get()[0] = journal.append(new Mutation(description, work, false));
+        } else {
+            write(work);
+        }
+    }
+
+    /**
+     * Like {@link #mutate}, for writes that change the open-trade index. {@code indexUpdate} is
+     * handed the step that must be atomic with the index change for that key: the journal
+     * append (so index order and commit order agree), or nothing when the write runs now — then
+     * the index changes after the commit, still under the write lock, and not at all on rollback.
+     */
+    private void mutateIndexed(String description, Work<?> work,
+                               java.util.function.Consumer<Runnable> indexUpdate) throws SQLException {
+        if (journal != null) {
+            indexUpdate.accept(() -> lastQueued.get()[0] = journal.append(new Mutation(description, work, true)));
+        } else {
+            write(session -> {
+                Object result = work.run(session);
+                afterCommit.add(() -> indexUpdate.accept(() -> {}));
+                return result;
+            });
+        }
+    }
+
+    /**
+     * A synchronous write lands after everything already queued, from any thread. If the queue
+     * doesn't drain within {@link #JOURNAL_WAIT} the write fails with the caller's usual
+     * SQLException handling rather than stalling the trading thread.
+     */
+    private void awaitJournal() throws SQLException {
+        if (journal == null || !journal.hasPending()) return;
+        try {
+            if (!journal.flush(JOURNAL_WAIT)) {
+                throw new SQLException("Queued writes not committed within " + JOURNAL_WAIT.toMillis()
+                    + " ms (" + journal.getStats().consecutiveFailures() + " failed commits in a row)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted waiting for queued writes", e);
+        }
+    }
+
+    /**
+     * A read sees this thread's queued writes; other threads' pending writes don't hold it up.
+     * If they aren't committed within {@link #JOURNAL_WAIT} the read goes ahead without them.
+     */
+    private void awaitOwnWrites() throws SQLException {
+        if (journal == null) return;
+        long sequence = lastQueued.get()[0];
+        if (sequence == 0 || journal.isCommitted(sequence)) return;
+        try {
+            if (!journal.awaitCommitted(sequence, JOURNAL_WAIT)) {
+                logger.warn("Reading without this thread's queued writes: not committed within {} ms",
+                    JOURNAL_WAIT.toMillis());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted waiting for queued writes", e);
+        }
+    }
+
+    /** False while queued writes are failing to commit; no new positions should be opened. */
+    public boolean isJournalHealthy() {
+        return journal == null || journal.isHealthy();
+    }
+
+    /**
+     * Journal writer: one transaction per group. A plain mutation that fails on its own is
+     * logged and skipped, as it would have been when run directly. One the open-trade index has
+     * already counted fails the group instead — skipping it would leave the index ahead of the
+     * file — so, like a failed commit, it rolls the group back and the journal retries it.
+     */
+    private void commitBatch(List<Mutation> batch) throws SQLException {
+        long stamp = lock.writeLock();
+        try {
+            connection.setAutoCommit(false);
+            try {
+                for (Mutation mutation : batch) {
+                    try {
+                        mutation.work().run(writer);
+                    } catch (SQLException | RuntimeException e) {
+                        if (mutation.indexed()) {
+                            throw new SQLException("Deferred write failed (" + mutation.description() + ")", e);
+                        }
+                        logger.error("Deferred write failed ({}): {}", mutation.description(), e.getMessage());
+                    } finally {
+                        writer.release();
+                    }
+                }
+                connection.commit();
+                runAfterCommit();
+            } catch (SQLException e) {
+                connection.rollback();
+                afterCommit.clear();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private Session borrowReader() throws SQLException {
+        if (closed) throw new SQLException("Database is closed");
+        try {
+            return readers.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted waiting for a read connection", e);
+        }
+    }
+
+    private void returnReader(Session reader) {
+        if (closed) {
+            try {
+                reader.close();
+            } catch (SQLException e) {
+                logger.debug("Error closing read connection: {}", e.getMessage());
+            }
+        } else {
+            readers.offer(reader);
+        }
+    }
+
+    /** Fill the open-trade index from the table: OPEN lot counts and each key's latest close. */
+    private void loadIndex() throws SQLException {
+        long stamp = lock.writeLock();
+        try (var stmt = connection.createStatement()) {
+            index.clear();
+            try (var rs = stmt.executeQuery(
+                    "SELECT broker, symbol, COUNT(*) AS lots FROM trades WHERE status = 'OPEN' GROUP BY broker, symbol")) {
+                while (rs.next()) index.loadOpen(rs.getString("broker"), rs.getString("symbol"), rs.getInt("lots"));
+            }
+            try (var rs = stmt.executeQuery(
+                    "SELECT broker, symbol, MAX(exit_time) AS last_exit FROM trades " +
+                    "WHERE status = 'CLOSED' AND exit_time IS NOT NULL GROUP BY broker, symbol")) {
+                while (rs.next()) {
+                    index.loadClosed(rs.getString("broker"), rs.getString("symbol"), parseTime(rs.getString("last_exit")));
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /** Mirror trade_stats in memory; from here on closeTrade keeps both in step. */
+    private void loadAggregates() throws SQLException {
+        long stamp = lock.writeLock();
+        try (var stmt = connection.createStatement();
+             var rs = stmt.executeQuery("SELECT * FROM trade_stats")) {
+            aggregates.clear();
+            while (rs.next()) {
+                TradeAggregates.Dimension dimension;
+                try {
+                    dimension = TradeAggregates.Dimension.valueOf(rs.getString("dimension"));
+                } catch (IllegalArgumentException e) {
+                    continue;
+                }
+                aggregates.put(dimension, rs.getString("key"), new TradeAggregates.Aggregate(
+                    rs.getInt("trades"), rs.getInt("wins"), rs.getInt("losses"),
+                    rs.getDouble("pnl_sum"), rs.getDouble("pnl_sq_sum"),
+                    rs.getDouble("gross_win"), rs.getDouble("gross_loss"),
+                    rs.getDouble("best"), rs.getDouble("worst")));
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /** Timestamps are written as Instant.toString(); older rows may use SQLite's "yyyy-MM-dd HH:mm:ss". */
+    private static Instant parseTime(String value) {
+        if (value == null) return null;
+        try {
+            return Instant.parse(value.replace(" ", "T") + (value.contains("Z") ? "" : "Z"));
+        } catch (java.time.format.DateTimeParseException e) {
+            logger.warn("Unparseable trade timestamp '{}' ignored", value);
+            return null;
+        }
+    }
+
     private void createTables() throws SQLException {
         String createSql = """
             CREATE TABLE IF NOT EXISTS trades (
@@ -103,6 +596,88 @@ public class TradeDatabase {
                 updated_at TEXT DEFAULT (datetime('now'))
             )""",
             "Schema migration: Added bot_state table for restart-safe in-memory state");
+
+        // trade_stats: running totals over CLOSED trades, one row per (dimension, key), updated
+        // in the same transaction as each closeTrade. Backfilled from history until the backfill
+        // has committed once (STATS_BACKFILL_MARKER in bot_state).
+        runMigration("""
+            CREATE TABLE IF NOT EXISTS trade_stats (
+                dimension  TEXT NOT NULL,
+                key        TEXT NOT NULL,
+                trades     INTEGER NOT NULL,
+                wins       INTEGER NOT NULL,
+                losses     INTEGER NOT NULL,
+                pnl_sum    REAL NOT NULL,
+                pnl_sq_sum REAL NOT NULL,
+                gross_win  REAL NOT NULL,
+                gross_loss REAL NOT NULL,
+                best       REAL,
+                worst      REAL,
+                PRIMARY KEY (dimension, key)
+            )""",
+            "Schema migration: Added trade_stats table for incremental trade statistics");
+        backfillStats();
+    }
+
+    /** SQL for each dimension's key, matching what closeTrade writes. */
+    private static String statsKeySql(TradeAggregates.Dimension dimension) {
+        return switch (dimension) {
+            case ALL -> "''";
+            case SYMBOL -> "symbol";
+            case STRATEGY -> "COALESCE(strategy, '')";
+            case BROKER -> "COALESCE(broker, '')";
+            case DAY -> "DATE(exit_time)";
+        };
+    }
+
+    /**
+     * Rebuild trade_stats from the closed trades and set {@link #STATS_BACKFILL_MARKER}, all in one
+     * transaction. A failure rolls back to the table as it was and leaves the marker unset, so the
+     * next open tries again; once the marker is set this does nothing.
+     */
+    private void backfillStats() {
+        long stamp = lock.writeLock();
+        try (var stmt = connection.createStatement()) {
+            try (var rs = stmt.executeQuery(
+                    "SELECT 1 FROM bot_state WHERE key = '" + STATS_BACKFILL_MARKER + "'")) {
+                if (rs.next()) return;
+            }
+            connection.setAutoCommit(false);
+            try {
+                backfillStats(stmt);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+            logger.info("Schema migration: Backfilled trade_stats from closed trades");
+        } catch (SQLException e) {
+            logger.warn("trade_stats backfill failed (non-fatal, retried at next start): {}", e.getMessage());
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private void backfillStats(Statement stmt) throws SQLException {
+        stmt.executeUpdate("DELETE FROM trade_stats");
+        for (var dimension : TradeAggregates.Dimension.values()) {
+            String key = statsKeySql(dimension);
+            stmt.executeUpdate("""
+                INSERT INTO trade_stats
+                SELECT '%s', %s, COUNT(*),
+                       SUM(CASE WHEN pnl > 0 THEN 1 ELSE 0 END),
+                       SUM(CASE WHEN pnl < 0 THEN 1 ELSE 0 END),
+                       COALESCE(SUM(pnl), 0), COALESCE(SUM(pnl * pnl), 0),
+                       SUM(CASE WHEN pnl > 0 THEN pnl ELSE 0 END),
+                       SUM(CASE WHEN pnl < 0 THEN -pnl ELSE 0 END),
+                       MAX(pnl), MIN(pnl)
+                FROM trades WHERE status = 'CLOSED' AND %s IS NOT NULL
+                GROUP BY 2""".formatted(dimension.name(), key, key));
+        }
+        stmt.executeUpdate("INSERT INTO bot_state (key, value) VALUES ('" + STATS_BACKFILL_MARKER + "', '"
+            + Instant.now() + "')");
     }
 
     /**
@@ -124,10 +699,12 @@ public class TradeDatabase {
             lock.unlockWrite(stamp);
         }
     }
-    
+
     /**
      * Record a new trade with write lock.
      * Modern approach: explicit lock management with try-finally.
+     * With write-behind the insert is queued and a failure is logged by the journal writer
+     * instead of thrown here.
      */
     public void recordTrade(String symbol, String strategy, String profile, String broker,
                            Instant entryTime, double entryPrice, double quantity,
@@ -137,18 +714,20 @@ public class TradeDatabase {
             VALUES (?, ?, ?, ?, ?, ?, ?, 'OPEN', ?, ?)
             """;
 
-        long stamp = lock.writeLock();
-        try (var stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, symbol);
-            stmt.setString(2, strategy);
-            stmt.setString(3, profile);
-            stmt.setString(4, broker);
-            stmt.setString(5, entryTime.toString());
-            stmt.setDouble(6, entryPrice);
-            stmt.setDouble(7, quantity);
-            stmt.setDouble(8, stopLoss);
-            stmt.setDouble(9, takeProfit);
-            stmt.executeUpdate();
+        try {
+            mutateIndexed("recordTrade " + symbol, session -> {
+                var stmt = session.prepare(sql);
+                stmt.setString(1, symbol);
+                stmt.setString(2, strategy);
+                stmt.setString(3, profile);
+                stmt.setString(4, broker);
+                stmt.setString(5, entryTime.toString());
+                stmt.setDouble(6, entryPrice);
+                stmt.setDouble(7, quantity);
+                stmt.setDouble(8, stopLoss);
+                stmt.setDouble(9, takeProfit);
+                return stmt.executeUpdate();
+            }, step -> index.opened(broker, symbol, step));
 
             // Structured logging (Phase 4)
             logger.atInfo()
@@ -162,11 +741,9 @@ public class TradeDatabase {
         } catch (SQLException e) {
             logger.error("Failed to record trade for {}", symbol, e);
             throw new RuntimeException("Database write failed", e);
-        } finally {
-            lock.unlockWrite(stamp);
         }
     }
-    
+
     /**
      * Simplified recordTrade for testing - records a trade with minimal parameters.
      * Uses configured stop-loss and take-profit percentages.
@@ -178,12 +755,12 @@ public class TradeDatabase {
      */
     public void recordTrade(String symbol, double quantity, double price, String side, java.time.LocalDate date) {
         Instant entryTime = date.atStartOfDay(java.time.ZoneId.of("America/New_York")).toInstant();
-        
+
         // Use configured values from TradingConfig
         TradingConfig config = TradingConfig.getInstance();
         double stopLoss = price * (1.0 - config.getStopLossDecimal());
         double takeProfit = price * (1.0 + config.getTakeProfitDecimal());
-        
+
         if ("sell".equalsIgnoreCase(side)) {
             // For sells, we need to get the entry price from the open trade to calculate actual PnL
             double entryPrice = getOpenTradeEntryPrice(symbol);
@@ -194,70 +771,32 @@ public class TradeDatabase {
             recordTrade(symbol, "TEST", "test", "test", entryTime, price, quantity, stopLoss, takeProfit);
         }
     }
-    
+
     /**
      * Get entry price for the most recent open trade of a symbol.
      */
     private double getOpenTradeEntryPrice(String symbol) {
         String sql = "SELECT entry_price FROM trades WHERE symbol = ? AND status = 'OPEN' ORDER BY entry_time DESC LIMIT 1";
-        long stamp = lock.tryOptimisticRead();
-        
-        try (var stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, symbol);
-            var rs = stmt.executeQuery();
-            if (rs.next()) {
-                double price = rs.getDouble("entry_price");
-                if (lock.validate(stamp)) {
-                    return price;
-                }
-                // Retry with read lock if optimistic read failed
-                stamp = lock.readLock();
-                try {
-                    rs = stmt.executeQuery();
-                    if (rs.next()) {
-                        return rs.getDouble("entry_price");
-                    }
-                } finally {
-                    lock.unlockRead(stamp);
+        try {
+            return read(session -> {
+                var stmt = session.prepare(sql);
+                stmt.setString(1, symbol);
+                try (var rs = stmt.executeQuery()) {
+                    return rs.next() ? rs.getDouble("entry_price") : 0.0;
                 }
-            }
+            });
         } catch (SQLException e) {
             logger.error("Failed to get entry price for {}: {}", symbol, e.getMessage());
         }
         return 0.0; // Default if no open trade found
     }
-    
+
     /**
      * Returns true if there is already an OPEN trade record for this symbol.
      * Used during startup reconciliation to avoid double-inserting existing positions.
      */
     public boolean hasOpenTrade(String symbol, String broker) {
-        String sql = "SELECT COUNT(*) as cnt FROM trades WHERE symbol = ? AND broker = ? AND status = 'OPEN'";
-        long stamp = lock.tryOptimisticRead();
-        try (var stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, symbol);
-            stmt.setString(2, broker);
-            try (var rs = stmt.executeQuery()) {
-                int count = rs.next() ? rs.getInt("cnt") : 0;
-                if (lock.validate(stamp)) return count > 0;
-            }
-        } catch (SQLException e) {
-            logger.debug("hasOpenTrade query failed for {}: {}", symbol, e.getMessage());
-        }
-        // Fallback with read lock
-        stamp = lock.readLock();
-        try (var stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, symbol);
-            stmt.setString(2, broker);
-            try (var rs = stmt.executeQuery()) {
-                return rs.next() && rs.getInt("cnt") > 0;
-            }
-        } catch (SQLException e) {
-            logger.error("hasOpenTrade fallback failed for {}: {}", symbol, e.getMessage());
-            return false;
-        } finally {
-            lock.unlockRead(stamp);
-        }
+        return index.openLots(broker, symbol) > 0;
     }
 
     /**
@@ -267,36 +806,7 @@ public class TradeDatabase {
      * when a position was just closed the broker may still report the shares as held.
      */
     public boolean wasRecentlyClosed(String symbol, String broker, long withinMillis) {
-        String sql = "SELECT COUNT(*) as cnt FROM trades WHERE symbol = ? AND broker = ? " +
-                     "AND status = 'CLOSED' AND exit_time >= ?";
-        java.time.Instant cutoff = java.time.Instant.now().minusMillis(withinMillis);
-        long stamp = lock.tryOptimisticRead();
-        try (var stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, symbol);
-            stmt.setString(2, broker);
-            stmt.setString(3, cutoff.toString());
-            try (var rs = stmt.executeQuery()) {
-                int count = rs.next() ? rs.getInt("cnt") : 0;
-                if (lock.validate(stamp)) return count > 0;
-            }
-        } catch (SQLException e) {
-            logger.debug("wasRecentlyClosed optimistic query failed for {}: {}", symbol, e.getMessage());
-        }
-        // Fallback with read lock
-        stamp = lock.readLock();
-        try (var stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, symbol);
-            stmt.setString(2, broker);
-            stmt.setString(3, cutoff.toString());
-            try (var rs = stmt.executeQuery()) {
-                return rs.next() && rs.getInt("cnt") > 0;
-            }
-        } catch (SQLException e) {
-            logger.error("wasRecentlyClosed fallback failed for {}: {}", symbol, e.getMessage());
-            return false;
-        } finally {
-            lock.unlockRead(stamp);
-        }
+        return index.closedSince(broker, symbol, Instant.now().minusMillis(withinMillis));
     }
 
     /**
@@ -304,31 +814,7 @@ public class TradeDatabase {
      * Used to enforce the per-symbol entry cap.
      */
     public int countOpenTrades(String symbol, String broker) {
-        String sql = "SELECT COUNT(*) as cnt FROM trades WHERE symbol = ? AND broker = ? AND status = 'OPEN'";
-        long stamp = lock.tryOptimisticRead();
-        try (var stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, symbol);
-            stmt.setString(2, broker);
-            try (var rs = stmt.executeQuery()) {
-                int count = rs.next() ? rs.getInt("cnt") : 0;
-                if (lock.validate(stamp)) return count;
-            }
-        } catch (SQLException e) {
-            logger.debug("countOpenTrades failed for {}: {}", symbol, e.getMessage());
-        }
-        stamp = lock.readLock();
-        try (var stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, symbol);
-            stmt.setString(2, broker);
-            try (var rs = stmt.executeQuery()) {
-                return rs.next() ? rs.getInt("cnt") : 0;
-            }
-        } catch (SQLException e) {
-            logger.error("countOpenTrades fallback failed: {}", e.getMessage());
-            return 0;
-        } finally {
-            lock.unlockRead(stamp);
-        }
+        return index.openLots(broker, symbol);
     }
 
     /** A minimal record for restoring in-memory portfolio from the database on restart. */
@@ -348,16 +834,16 @@ public class TradeDatabase {
             WHERE id = (SELECT id FROM trades WHERE symbol = ? AND broker = ? AND status = 'OPEN'
                         ORDER BY entry_time DESC LIMIT 1)
             """;
-        long stamp = lock.writeLock();
-        try (var stmt = connection.prepareStatement(sql)) {
-            stmt.setDouble(1, newStopLoss);
-            stmt.setString(2, symbol);
-            stmt.setString(3, broker);
-            stmt.executeUpdate();
+        try {
+            mutate("updateStop " + symbol, session -> {
+                var stmt = session.prepare(sql);
+                stmt.setDouble(1, newStopLoss);
+                stmt.setString(2, symbol);
+                stmt.setString(3, broker);
+                return stmt.executeUpdate();
+            });
         } catch (SQLException e) {
             logger.error("updateStop failed for {} ({}): {}", symbol, broker, e.getMessage());
-        } finally {
-            lock.unlockWrite(stamp);
         }
     }
 
@@ -370,16 +856,16 @@ public class TradeDatabase {
             WHERE id = (SELECT id FROM trades WHERE symbol = ? AND broker = ? AND status = 'OPEN'
                         ORDER BY entry_time DESC LIMIT 1)
             """;
-        long stamp = lock.writeLock();
-        try (var stmt = connection.prepareStatement(sql)) {
-            stmt.setInt(1, partialExitsExecuted);
-            stmt.setString(2, symbol);
-            stmt.setString(3, broker);
-            stmt.executeUpdate();
+        try {
+            mutate("updatePartialExits " + symbol, session -> {
+                var stmt = session.prepare(sql);
+                stmt.setInt(1, partialExitsExecuted);
+                stmt.setString(2, symbol);
+                stmt.setString(3, broker);
+                return stmt.executeUpdate();
+            });
         } catch (SQLException e) {
             logger.error("updatePartialExits failed for {} ({}): {}", symbol, broker, e.getMessage());
-        } finally {
-            lock.unlockWrite(stamp);
         }
     }
 
@@ -401,33 +887,34 @@ public class TradeDatabase {
             WHERE broker = ? AND status = 'OPEN'
             GROUP BY symbol
             """;
-        var result = new java.util.ArrayList<OpenTradeRecord>();
-        long stamp = lock.readLock();
-        try (var stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, broker);
-            try (var rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    var entryStr = rs.getString("last_entry");
-                    java.time.Instant entryTime = entryStr != null
-                        ? java.time.Instant.parse(entryStr.replace(" ", "T") + (entryStr.contains("Z") ? "" : "Z"))
-                        : java.time.Instant.now();
-                    result.add(new OpenTradeRecord(
-                        rs.getString("symbol"),
-                        rs.getDouble("avg_entry"),
-                        rs.getDouble("total_qty"),
-                        rs.getDouble("min_sl"),
-                        rs.getDouble("max_tp"),
-                        entryTime,
-                        rs.getInt("partial_exits")
-                    ));
+        try {
+            return read(session -> {
+                var result = new java.util.ArrayList<OpenTradeRecord>();
+                var stmt = session.prepare(sql);
+                stmt.setString(1, broker);
+                try (var rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        var entryStr = rs.getString("last_entry");
+                        java.time.Instant entryTime = entryStr != null
+                            ? java.time.Instant.parse(entryStr.replace(" ", "T") + (entryStr.contains("Z") ? "" : "Z"))
+                            : java.time.Instant.now();
+                        result.add(new OpenTradeRecord(
+                            rs.getString("symbol"),
+                            rs.getDouble("avg_entry"),
+                            rs.getDouble("total_qty"),
+                            rs.getDouble("min_sl"),
+                            rs.getDouble("max_tp"),
+                            entryTime,
+                            rs.getInt("partial_exits")
+                        ));
+                    }
                 }
-            }
+                return result;
+            });
         } catch (SQLException e) {
             logger.error("getOpenTradeRecords failed for broker {}: {}", broker, e.getMessage());
-        } finally {
-            lock.unlockRead(stamp);
+            return new java.util.ArrayList<>();
         }
-        return result;
     }
 
     /**
@@ -439,29 +926,127 @@ public class TradeDatabase {
         String sql = "SELECT symbol, strategy, profile, broker, entry_time, entry_price, quantity, " +
                      "exit_time, exit_price, pnl, stop_loss, take_profit, status " +
                      "FROM trades WHERE status = 'CLOSED' ORDER BY exit_time DESC LIMIT ?";
-        var trades = new java.util.ArrayList<java.util.Map<String, Object>>();
-        long stamp = lock.readLock();
-        try (var stmt = connection.prepareStatement(sql)) {
-            stmt.setInt(1, limit);
-            try (var rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    var trade = new java.util.HashMap<String, Object>();
-                    trade.put("symbol",     rs.getString("symbol"));
-                    trade.put("broker",     rs.getString("broker"));
-                    trade.put("entryPrice", rs.getDouble("entry_price"));
-                    trade.put("exitPrice",  rs.getDouble("exit_price"));
-                    trade.put("status",     rs.getString("status"));
-                    double pnlVal = rs.getDouble("pnl");
-                    if (!rs.wasNull()) trade.put("pnl", pnlVal);
-                    trades.add(trade);
+        try {
+            return read(session -> {
+                var trades = new java.util.ArrayList<java.util.Map<String, Object>>();
+                var stmt = session.prepare(sql);
+                stmt.setInt(1, limit);
+                try (var rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        var trade = new java.util.HashMap<String, Object>();
+                        trade.put("symbol",     rs.getString("symbol"));
+                        trade.put("broker",     rs.getString("broker"));
+                        trade.put("entryPrice", rs.getDouble("entry_price"));
+                        trade.put("exitPrice",  rs.getDouble("exit_price"));
+                        trade.put("status",     rs.getString("status"));
+                        double pnlVal = rs.getDouble("pnl");
+                        if (!rs.wasNull()) trade.put("pnl", pnlVal);
+                        trades.add(trade);
+                    }
                 }
-            }
+                return trades;
+            });
         } catch (SQLException e) {
             logger.error("getRecentClosedTrades failed: {}", e.getMessage());
-        } finally {
-            lock.unlockRead(stamp);
+            return new java.util.ArrayList<>();
+        }
+    }
+
+    /**
+     * P&L of every closed trade in exit order, for resampling; {@code broker} null means all brokers.
+     */
+    public double[] getClosedTradePnls(String broker) {
+        String sql = "SELECT pnl FROM trades WHERE status = 'CLOSED' AND pnl IS NOT NULL" +
+                     (broker != null ? " AND broker = ?" : "") + " ORDER BY exit_time, id";
+        try {
+            return read(session -> {
+                var stmt = session.prepare(sql);
+                if (broker != null) stmt.setString(1, broker);
+                double[] pnls = new double[64];
+                int n = 0;
+                try (var rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        if (n == pnls.length) pnls = java.util.Arrays.copyOf(pnls, n * 2);
+                        pnls[n++] = rs.getDouble(1);
+                    }
+                }
+                return java.util.Arrays.copyOf(pnls, n);
+            });
+        } catch (SQLException e) {
+            logger.error("getClosedTradePnls failed: {}", e.getMessage());
+            return new double[0];
+        }
+    }
+
+    /** One closeTrade's additions to trade_stats; the in-memory copy follows when it commits. */
+    private final class StatsDelta {
+        private static final String UPSERT_SQL = """
+            INSERT INTO trade_stats (dimension, key, trades, wins, losses, pnl_sum, pnl_sq_sum,
+                                     gross_win, gross_loss, best, worst)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT(dimension, key) DO UPDATE SET
+                trades = trades + excluded.trades,
+                wins = wins + excluded.wins,
+                losses = losses + excluded.losses,
+                pnl_sum = pnl_sum + excluded.pnl_sum,
+                pnl_sq_sum = pnl_sq_sum + excluded.pnl_sq_sum,
+                gross_win = gross_win + excluded.gross_win,
+                gross_loss = gross_loss + excluded.gross_loss,
+                best = MAX(COALESCE(best, excluded.best), excluded.best),
+                worst = MIN(COALESCE(worst, excluded.worst), excluded.worst)
+            """;
+
+        private record Row(TradeAggregates.Dimension dimension, String key) {}
+
+        private final Map<Row, TradeAggregates.Aggregate> rows = new LinkedHashMap<>();
+        private final String symbol;
+        private final String broker;
+        private final String day;
+
+        StatsDelta(String symbol, String broker, Instant exitTime) {
+            this.symbol = symbol;
+            this.broker = broker != null ? broker : "";
+            this.day = TradeAggregates.dayKey(java.time.LocalDate.ofInstant(exitTime, java.time.ZoneOffset.UTC));
+        }
+
+        void add(String strategy, double pnl) {
+            var lot = TradeAggregates.Aggregate.of(pnl);
+            merge(TradeAggregates.Dimension.ALL, "", lot);
+            merge(TradeAggregates.Dimension.SYMBOL, symbol, lot);
+            merge(TradeAggregates.Dimension.STRATEGY, strategy != null ? strategy : "", lot);
+            merge(TradeAggregates.Dimension.BROKER, broker, lot);
+            merge(TradeAggregates.Dimension.DAY, day, lot);
+        }
+
+        private void merge(TradeAggregates.Dimension dimension, String key, TradeAggregates.Aggregate lot) {
+            rows.merge(new Row(dimension, key), lot, TradeAggregates.Aggregate::plus);
+        }
+
+        /** Upsert the rows in the caller's transaction and queue the in-memory update for its commit. */
+        void write(Session session) throws SQLException {
+            var ps = session.prepare(UPSERT_SQL);
+            try {
+                for (var row : rows.entrySet()) {
+                    var a = row.getValue();
+                    ps.setString(1, row.getKey().dimension().name());
+                    ps.setString(2, row.getKey().key());
+                    ps.setInt(3, a.trades());
+                    ps.setInt(4, a.wins());
+                    ps.setInt(5, a.losses());
+                    ps.setDouble(6, a.pnl());
+                    ps.setDouble(7, a.pnlSquares());
+                    ps.setDouble(8, a.grossWin());
+                    ps.setDouble(9, a.grossLoss());
+                    ps.setDouble(10, a.best());
+                    ps.setDouble(11, a.worst());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            } finally {
+                ps.clearBatch();
+            }
+            afterCommit.add(() -> rows.forEach((row, a) -> aggregates.add(row.dimension(), row.key(), a)));
         }
-        return trades;
     }
 
     /**
@@ -479,116 +1064,106 @@ public class TradeDatabase {
      * is therefore redundant but kept for signature stability.
      */
     public void closeTrade(String symbol, Instant exitTime, double exitPrice, double pnl, String broker) {
-        record Lot(int id, double entryPrice, double quantity) {}
+        record Lot(int id, String strategy, double entryPrice, double quantity) {}
 
-        String selectSql = "SELECT id, entry_price, quantity FROM trades " +
+        String selectSql = "SELECT id, strategy, entry_price, quantity FROM trades " +
                            "WHERE symbol = ? AND broker = ? AND status = 'OPEN'";
         String updateSql = "UPDATE trades SET exit_time = ?, exit_price = ?, pnl = ?, status = 'CLOSED' WHERE id = ?";
 
-        long stamp = lock.writeLock();
         try {
-            var lots = new java.util.ArrayList<Lot>();
-            try (var sel = connection.prepareStatement(selectSql)) {
+            mutateIndexed("closeTrade " + symbol, session -> {
+                var lots = new java.util.ArrayList<Lot>();
+                var sel = session.prepare(selectSql);
                 sel.setString(1, symbol);
                 sel.setString(2, broker);
                 try (var rs = sel.executeQuery()) {
                     while (rs.next()) {
-                        lots.add(new Lot(rs.getInt("id"), rs.getDouble("entry_price"), rs.getDouble("quantity")));
+                        lots.add(new Lot(rs.getInt("id"), rs.getString("strategy"),
+                            rs.getDouble("entry_price"), rs.getDouble("quantity")));
                     }
                 }
-            }
 
-            if (lots.isEmpty()) {
-                logger.warn("No open trade found to close for symbol: {}", symbol);
-                return;
-            }
+                if (lots.isEmpty()) {
+                    logger.warn("No open trade found to close for symbol: {}", symbol);
+                    return null;
+                }
 
-            double totalPnl = 0.0;
-            try (var upd = connection.prepareStatement(updateSql)) {
-                for (Lot lot : lots) {
-                    double lotPnl = (exitPrice - lot.entryPrice()) * lot.quantity();
-                    totalPnl += lotPnl;
-                    upd.setString(1, exitTime.toString());
-                    upd.setDouble(2, exitPrice);
-                    upd.setDouble(3, lotPnl);
-                    upd.setInt(4, lot.id());
-                    upd.addBatch();
+                double totalPnl = 0.0;
+                var stats = new StatsDelta(symbol, broker, exitTime);
+                var upd = session.prepare(updateSql);
+                try {
+                    for (Lot lot : lots) {
+                        double lotPnl = (exitPrice - lot.entryPrice()) * lot.quantity();
+                        totalPnl += lotPnl;
+                        stats.add(lot.strategy(), lotPnl);
+                        upd.setString(1, exitTime.toString());
+                        upd.setDouble(2, exitPrice);
+                        upd.setDouble(3, lotPnl);
+                        upd.setInt(4, lot.id());
+                        upd.addBatch();
+                    }
+                    upd.executeBatch();
+                } finally {
+                    upd.clearBatch();
                 }
-                upd.executeBatch();
-            }
+                stats.write(session);
 
-            logger.atInfo()
-                .addKeyValue("symbol", symbol)
-                .addKeyValue("exitPrice", exitPrice)
-                .addKeyValue("pnl", totalPnl)
-                .addKeyValue("lots", lots.size())
-                .log("Trade closed");
+                logger.atInfo()
+                    .addKeyValue("symbol", symbol)
+                    .addKeyValue("exitPrice", exitPrice)
+                    .addKeyValue("pnl", totalPnl)
+                    .addKeyValue("lots", lots.size())
+                    .log("Trade closed");
+                return null;
+            }, step -> index.closed(broker, symbol, exitTime, step));
         } catch (SQLException e) {
             logger.error("Failed to close trade for {}", symbol, e);
             throw new RuntimeException("Database write failed", e);
-        } finally {
-            lock.unlockWrite(stamp);
         }
     }
-    
+
     /**
-     * Get total P&L with optimistic read.
-     * This is the key advantage of StampedLock - reads don't block each other or writers.
+     * Running totals for one key, e.g. {@code getAggregate(Dimension.STRATEGY, "MACD")}.
+     * A map lookup: trade_stats is mirrored in memory and kept current by closeTrade.
      */
-    public double getTodayPnL() {
-        String sql = "SELECT COALESCE(SUM(pnl), 0) as total FROM trades " +
-                     "WHERE status = 'CLOSED' AND DATE(exit_time) = DATE('now')";
-        long stamp = lock.tryOptimisticRead();
-        double result = queryDouble(sql, "total");
-        if (!lock.validate(stamp)) {
-            stamp = lock.readLock();
-            try { result = queryDouble(sql, "total"); } finally { lock.unlockRead(stamp); }
+    public TradeAggregates.Aggregate getAggregate(TradeAggregates.Dimension dimension, String key) {
+        try {
+            awaitOwnWrites();
+        } catch (SQLException e) {
+            logger.debug("Statistics read without waiting for queued writes: {}", e.getMessage());
         }
-        return result;
+        return aggregates.get(dimension, key);
     }
 
-    public double getTotalPnL() {
-        String sql = "SELECT COALESCE(SUM(pnl), 0) as total FROM trades WHERE status = 'CLOSED'";
-        
-        // Try optimistic read first (no lock)
-        long stamp = lock.tryOptimisticRead();
-        double result = queryDouble(sql, "total");
-        
-        // Validate optimistic read
-        if (!lock.validate(stamp)) {
-            // Optimistic read failed, fall back to read lock
-            stamp = lock.readLock();
-            try {
-                result = queryDouble(sql, "total");
-            } finally {
-                lock.unlockRead(stamp);
-            }
+    /** Every key's running totals in one dimension, sorted by key. */
+    public Map<String, TradeAggregates.Aggregate> getAggregates(TradeAggregates.Dimension dimension) {
+        try {
+            awaitOwnWrites();
+        } catch (SQLException e) {
+            logger.debug("Statistics read without waiting for queued writes: {}", e.getMessage());
         }
-        
-        return result;
+        return aggregates.all(dimension);
+    }
+
+    /**
+     * Realized P&L of trades closed today (UTC date, as SQLite's DATE('now')).
+     */
+    public double getTodayPnL() {
+        String today = TradeAggregates.dayKey(java.time.LocalDate.now(java.time.ZoneOffset.UTC));
+        return getAggregate(TradeAggregates.Dimension.DAY, today).pnl();
     }
-    
+
+    public double getTotalPnL() {
+        return getAggregate(TradeAggregates.Dimension.ALL, "").pnl();
+    }
+
     /**
-     * Get total trades count with optimistic read.
+     * Get total closed trades count.
      */
     public int getTotalTrades() {
-        String sql = "SELECT COUNT(*) as count FROM trades WHERE status = 'CLOSED'";
-        
-        long stamp = lock.tryOptimisticRead();
-        int result = queryInt(sql, "count");
-        
-        if (!lock.validate(stamp)) {
-            stamp = lock.readLock();
-            try {
-                result = queryInt(sql, "count");
-            } finally {
-                lock.unlockRead(stamp);
-            }
-        }
-        
-        return result;
+        return getAggregate(TradeAggregates.Dimension.ALL, "").trades();
     }
-    
+
     /**
      * Trade statistics record for dashboard.
      */
@@ -597,33 +1172,15 @@ public class TradeDatabase {
         double winRate,
         double totalPnL
     ) {}
-    
+
     /**
      * Get aggregated trade statistics for dashboard.
      */
     public TradeStatistics getTradeStatistics() {
-        int total = getTotalTrades();
-        double pnl = getTotalPnL();
-        
-        // Calculate win rate
-        String winSql = "SELECT COUNT(*) as count FROM trades WHERE status = 'CLOSED' AND pnl > 0";
-        long stamp = lock.tryOptimisticRead();
-        int wins = queryInt(winSql, "count");
-        
-        if (!lock.validate(stamp)) {
-            stamp = lock.readLock();
-            try {
-                wins = queryInt(winSql, "count");
-            } finally {
-                lock.unlockRead(stamp);
-            }
-        }
-        
-        double winRate = total > 0 ? (double) wins / total : 0.0;
-        
-        return new TradeStatistics(total, winRate, pnl);
+        var all = getAggregate(TradeAggregates.Dimension.ALL, "");
+        return new TradeStatistics(all.trades(), all.winRate(), all.pnl());
     }
-    
+
     /**
      * Symbol-specific statistics for position sizing.
      */
@@ -633,208 +1190,115 @@ public class TradeDatabase {
         double avgWin,
         double avgLoss
     ) {}
-    
+
     /**
      * Get statistics for a specific symbol.
      */
     public SymbolStatistics getSymbolStatistics(String symbol) {
-        String totalSql = "SELECT COUNT(*) as count FROM trades WHERE symbol = ? AND status = 'CLOSED'";
-        String winSql = "SELECT COUNT(*) as count FROM trades WHERE symbol = ? AND status = 'CLOSED' AND pnl > 0";
-        String avgWinSql = "SELECT AVG(pnl) as avg FROM trades WHERE symbol = ? AND status = 'CLOSED' AND pnl > 0";
-        String avgLossSql = "SELECT AVG(ABS(pnl)) as avg FROM trades WHERE symbol = ? AND status = 'CLOSED' AND pnl < 0";
-        
-        long stamp = lock.readLock();
-        try {
-            // Get total trades
-            int total = 0;
-            try (var stmt = connection.prepareStatement(totalSql)) {
-                stmt.setString(1, symbol);
-                var rs = stmt.executeQuery();
-                if (rs.next()) {
-                    total = rs.getInt("count");
-                }
-            }
-            
-            if (total == 0) {
-                return null; // No trades for this symbol
-            }
-            
-            // Get wins
-            int wins = 0;
-            try (var stmt = connection.prepareStatement(winSql)) {
-                stmt.setString(1, symbol);
-                var rs = stmt.executeQuery();
-                if (rs.next()) {
-                    wins = rs.getInt("count");
-                }
-            }
-            
-            // Get average win
-            double avgWin = 0.0;
-            try (var stmt = connection.prepareStatement(avgWinSql)) {
-                stmt.setString(1, symbol);
-                var rs = stmt.executeQuery();
-                if (rs.next()) {
-                    avgWin = rs.getDouble("avg");
-                }
-            }
-            
-            // Get average loss
-            double avgLoss = 0.0;
-            try (var stmt = connection.prepareStatement(avgLossSql)) {
-                stmt.setString(1, symbol);
-                var rs = stmt.executeQuery();
-                if (rs.next()) {
-                    avgLoss = rs.getDouble("avg");
-                }
-            }
-            
-            double winRate = (double) wins / total;
-            return new SymbolStatistics(total, winRate, avgWin, avgLoss);
-            
-        } catch (SQLException e) {
-            logger.error("Failed to get symbol statistics for {}", symbol, e);
-            return null;
-        } finally {
-            lock.unlockRead(stamp);
+        var stats = getAggregate(TradeAggregates.Dimension.SYMBOL, symbol);
+        if (stats.trades() == 0) {
+            return null; // No trades for this symbol
         }
+        return new SymbolStatistics(stats.trades(), stats.winRate(), stats.averageWin(), stats.averageLoss());
     }
-    
+
     /**
      * Check if there was a buy order for this symbol today (PDT detection).
      */
     public boolean hasBuyToday(String symbol, java.time.LocalDate date) {
         String sql = """
-            SELECT COUNT(*) as count FROM trades 
-            WHERE symbol = ? 
-            AND DATE(entry_time) = ? 
+            SELECT COUNT(*) as count FROM trades
+            WHERE symbol = ?
+            AND DATE(entry_time) = ?
             AND status IN ('OPEN', 'CLOSED')
             """;
-        
-        long stamp = lock.readLock();
-        try (var stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, symbol);
-            stmt.setString(2, date.toString());
-            var rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt("count") > 0;
-            }
+
+        try {
+            return read(session -> {
+                var stmt = session.prepare(sql);
+                stmt.setString(1, symbol);
+                stmt.setString(2, date.toString());
+                try (var rs = stmt.executeQuery()) {
+                    return rs.next() && rs.getInt("count") > 0;
+                }
+            });
         } catch (SQLException e) {
             logger.error("Failed to check buy today for {}", symbol, e);
-        } finally {
-            lock.unlockRead(stamp);
         }
         return false;
     }
-    
+
     /**
      * Count day trades in the last N business days.
      */
     public int getDayTradesInLastNBusinessDays(int businessDays) {
         int calendarDays = (int)(businessDays * 1.5);
-        
+
         String sql = """
-            SELECT COUNT(*) as count FROM trades 
+            SELECT COUNT(*) as count FROM trades
             WHERE status = 'CLOSED'
             AND DATE(entry_time) = DATE(exit_time)
             AND entry_time >= datetime('now', '-' || ? || ' days')
             """;
-        
-        long stamp = lock.readLock();
-        try (var stmt = connection.prepareStatement(sql)) {
-            stmt.setInt(1, calendarDays);
-            var rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt("count");
-            }
+
+        try {
+            return read(session -> {
+                var stmt = session.prepare(sql);
+                stmt.setInt(1, calendarDays);
+                try (var rs = stmt.executeQuery()) {
+                    return rs.next() ? rs.getInt("count") : 0;
+                }
+            });
         } catch (SQLException e) {
             logger.error("Failed to count day trades", e);
-        } finally {
-            lock.unlockRead(stamp);
-        }
-        return 0;
-    }
-    
-    // Helper methods for optimistic reads
-    private double queryDouble(String sql, String columnName) {
-        try (var stmt = connection.createStatement();
-             var rs = stmt.executeQuery(sql)) {
-            if (rs.next()) {
-                return rs.getDouble(columnName);
-            }
-        } catch (SQLException e) {
-            logger.error("Query failed: {}", sql, e);
-        }
-        return 0.0;
-    }
-    
-    private int queryInt(String sql, String columnName) {
-        try (var stmt = connection.createStatement();
-             var rs = stmt.executeQuery(sql)) {
-            if (rs.next()) {
-                return rs.getInt(columnName);
-            }
-        } catch (SQLException e) {
-            logger.error("Query failed: {}", sql, e);
         }
         return 0;
     }
-    
+
     /**
      * Get recent trades for execution archive.
      * @param limit Maximum number of trades to return
      * @return List of recent trades as maps
      */
     public java.util.List<java.util.Map<String, Object>> getRecentTrades(int limit) {
-        long stamp = lock.tryOptimisticRead();
-        java.util.List<java.util.Map<String, Object>> trades = new java.util.ArrayList<>();
-        
-        try {
-            String sql = "SELECT symbol, strategy, profile, broker, entry_time, entry_price, quantity, " +
-                        "exit_time, exit_price, pnl, stop_loss, take_profit, status " +
-                        "FROM trades ORDER BY entry_time DESC LIMIT ?";
+        String sql = "SELECT symbol, strategy, profile, broker, entry_time, entry_price, quantity, " +
+                    "exit_time, exit_price, pnl, stop_loss, take_profit, status " +
+                    "FROM trades ORDER BY entry_time DESC LIMIT ?";
 
-            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try {
+            return read(session -> {
+                java.util.List<java.util.Map<String, Object>> trades = new java.util.ArrayList<>();
+                PreparedStatement stmt = session.prepare(sql);
                 stmt.setInt(1, limit);
-                ResultSet rs = stmt.executeQuery();
-
-                while (rs.next()) {
-                    java.util.Map<String, Object> trade = new java.util.HashMap<>();
-                    trade.put("symbol", rs.getString("symbol"));
-                    trade.put("strategy", rs.getString("strategy"));
-                    trade.put("profile", rs.getString("profile"));
-                    trade.put("broker", rs.getString("broker"));
-                    trade.put("entryTime", rs.getString("entry_time"));
-                    trade.put("entryPrice", rs.getDouble("entry_price"));
-                    trade.put("quantity", rs.getDouble("quantity"));
-                    trade.put("exitTime", rs.getString("exit_time"));
-                    trade.put("exitPrice", rs.getDouble("exit_price"));
-                    trade.put("status", rs.getString("status"));
-                    // Only include pnl for closed trades (avoids 0.0 masquerading as closed)
-                    double pnlVal = rs.getDouble("pnl");
-                    if (!rs.wasNull()) trade.put("pnl", pnlVal);
-                    trade.put("stopLoss", rs.getDouble("stop_loss"));
-                    trade.put("takeProfit", rs.getDouble("take_profit"));
-                    trades.add(trade);
-                }
-            }
-            
-            if (!lock.validate(stamp)) {
-                stamp = lock.readLock();
-                try {
-                    // Re-read if validation failed
-                    return getRecentTrades(limit);
-                } finally {
-                    lock.unlockRead(stamp);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        java.util.Map<String, Object> trade = new java.util.HashMap<>();
+                        trade.put("symbol", rs.getString("symbol"));
+                        trade.put("strategy", rs.getString("strategy"));
+                        trade.put("profile", rs.getString("profile"));
+                        trade.put("broker", rs.getString("broker"));
+                        trade.put("entryTime", rs.getString("entry_time"));
+                        trade.put("entryPrice", rs.getDouble("entry_price"));
+                        trade.put("quantity", rs.getDouble("quantity"));
+                        trade.put("exitTime", rs.getString("exit_time"));
+                        trade.put("exitPrice", rs.getDouble("exit_price"));
+                        trade.put("status", rs.getString("status"));
+                        // Only include pnl for closed trades (avoids 0.0 masquerading as closed)
+                        double pnlVal = rs.getDouble("pnl");
+                        if (!rs.wasNull()) trade.put("pnl", pnlVal);
+                        trade.put("stopLoss", rs.getDouble("stop_loss"));
+                        trade.put("takeProfit", rs.getDouble("take_profit"));
+                        trades.add(trade);
+                    }
                 }
-            }
+                return trades;
+            });
         } catch (SQLException e) {
             logger.error("Failed to get recent trades", e);
+            return new java.util.ArrayList<>();
         }
-        
-        return trades;
     }
-    
+
     /**
      * Close any OPEN trade records for symbols no longer held on the broker.
      * Called during portfolio reconciliation to prevent ghost "OPEN" records accumulating
@@ -848,18 +1312,36 @@ public class TradeDatabase {
         // Build NOT IN clause — safe because symbols are validated ticker strings
         String placeholders = liveSymbols.isEmpty() ? "'__none__'" :
             liveSymbols.stream().map(s -> "?").collect(java.util.stream.Collectors.joining(","));
-        String sql = "UPDATE trades SET status = 'CANCELLED', exit_time = ? " +
-            "WHERE status = 'OPEN' AND broker = ? AND symbol NOT IN (" + placeholders + ") " +
+        String where = "WHERE status = 'OPEN' AND broker = ? AND symbol NOT IN (" + placeholders + ") " +
             "AND created_at <= datetime('now', '-' || ? || ' seconds')";
+        String selectSql = "SELECT symbol, COUNT(*) AS lots FROM trades " + where + " GROUP BY symbol";
+        String sql = "UPDATE trades SET status = 'CANCELLED', exit_time = ? " + where;
 
-        long stamp = lock.writeLock();
-        try (var stmt = connection.prepareStatement(sql)) {
-            int idx = 1;
-            stmt.setString(idx++, java.time.Instant.now().toString());
-            stmt.setString(idx++, broker);
-            for (String sym : liveSymbols) stmt.setString(idx++, sym);
-            stmt.setLong(idx, minAgeMs / 1000);
-            int updated = stmt.executeUpdate();
+        var symbols = liveSymbols;
+        try {
+            int updated = write(session -> {
+                // Same predicate first, so the index drops exactly the lots being cancelled
+                var cancelled = new LinkedHashMap<String, Integer>();
+                var sel = session.prepare(selectSql);
+                int idx = 1;
+                sel.setString(idx++, broker);
+                for (String sym : symbols) sel.setString(idx++, sym);
+                sel.setLong(idx, minAgeMs / 1000);
+                try (var rs = sel.executeQuery()) {
+                    while (rs.next()) cancelled.put(rs.getString("symbol"), rs.getInt("lots"));
+                }
+                if (cancelled.isEmpty()) return 0;
+
+                var stmt = session.prepare(sql);
+                idx = 1;
+                stmt.setString(idx++, java.time.Instant.now().toString());
+                stmt.setString(idx++, broker);
+                for (String sym : symbols) stmt.setString(idx++, sym);
+                stmt.setLong(idx, minAgeMs / 1000);
+                int rows = stmt.executeUpdate();
+                cancelled.forEach((symbol, lots) -> index.cancelled(broker, symbol, lots));
+                return rows;
+            });
             if (updated > 0) {
                 logger.warn("Closed {} orphaned OPEN trade record(s) for symbols no longer on broker", updated);
             }
@@ -867,8 +1349,6 @@ public class TradeDatabase {
         } catch (SQLException e) {
             logger.error("Failed to close orphaned trades", e);
             return 0;
-        } finally {
-            lock.unlockWrite(stamp);
         }
     }
 
@@ -877,10 +1357,22 @@ public class TradeDatabase {
      * Should be called on application shutdown.
      */
     public void close() {
+        if (journal != null) {
+            // Commits whatever is still queued before the connections go away
+            journal.close();
+        }
         long stamp = lock.writeLock();
         try {
+            closed = true;
+            if (readers != null) {
+                // Borrowed readers are closed as they come back
+                var idle = new ArrayList<Session>();
+                readers.drainTo(idle);
+                for (Session reader : idle) reader.close();
+            }
             if (connection != null && !connection.isClosed()) {
-                connection.close();
+                // The writer closes last so SQLite checkpoints and removes the WAL file
+                writer.close();
                 logger.info("Database connection closed");
             }
         } catch (SQLException e) {
@@ -896,44 +1388,44 @@ public class TradeDatabase {
      * @return List of trade records
      */
     public java.util.List<java.util.Map<String, Object>> exportTrades(String status) {
-        var trades = new java.util.ArrayList<java.util.Map<String, Object>>();
         String sql = status != null
             ? "SELECT * FROM trades WHERE status = ? ORDER BY entry_time DESC"
             : "SELECT * FROM trades ORDER BY entry_time DESC";
 
-        long stamp = lock.readLock();
-        try (var stmt = status != null
-                ? connection.prepareStatement(sql)
-                : connection.prepareStatement(sql)) {
-            if (status != null) {
-                ((PreparedStatement) stmt).setString(1, status);
-            }
-            var rs = stmt.executeQuery();
-            while (rs.next()) {
-                var trade = new java.util.LinkedHashMap<String, Object>();
-                trade.put("id", rs.getInt("id"));
-                trade.put("symbol", rs.getString("symbol"));
-                trade.put("strategy", rs.getString("strategy"));
-                trade.put("profile", rs.getString("profile"));
-                trade.put("broker", rs.getString("broker"));
-                trade.put("entryTime", rs.getString("entry_time"));
-                trade.put("exitTime", rs.getString("exit_time"));
-                trade.put("entryPrice", rs.getDouble("entry_price"));
-                trade.put("exitPrice", rs.getDouble("exit_price"));
-                trade.put("quantity", rs.getDouble("quantity"));
-                trade.put("pnl", rs.getDouble("pnl"));
-                trade.put("status", rs.getString("status"));
-                trade.put("stopLoss", rs.getDouble("stop_loss"));
-                trade.put("takeProfit", rs.getDouble("take_profit"));
-                trade.put("createdAt", rs.getString("created_at"));
-                trades.add(trade);
-            }
+        try {
+            return read(session -> {
+                var trades = new java.util.ArrayList<java.util.Map<String, Object>>();
+                var stmt = session.prepare(sql);
+                if (status != null) {
+                    stmt.setString(1, status);
+                }
+                try (var rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        var trade = new java.util.LinkedHashMap<String, Object>();
+                        trade.put("id", rs.getInt("id"));
+                        trade.put("symbol", rs.getString("symbol"));
+                        trade.put("strategy", rs.getString("strategy"));
+                        trade.put("profile", rs.getString("profile"));
+                        trade.put("broker", rs.getString("broker"));
+                        trade.put("entryTime", rs.getString("entry_time"));
+                        trade.put("exitTime", rs.getString("exit_time"));
+                        trade.put("entryPrice", rs.getDouble("entry_price"));
+                        trade.put("exitPrice", rs.getDouble("exit_price"));
+                        trade.put("quantity", rs.getDouble("quantity"));
+                        trade.put("pnl", rs.getDouble("pnl"));
+                        trade.put("status", rs.getString("status"));
+                        trade.put("stopLoss", rs.getDouble("stop_loss"));
+                        trade.put("takeProfit", rs.getDouble("take_profit"));
+                        trade.put("createdAt", rs.getString("created_at"));
+                        trades.add(trade);
+                    }
+                }
+                return trades;
+            });
         } catch (SQLException e) {
             logger.error("Failed to export trades", e);
-        } finally {
-            lock.unlockRead(stamp);
+            return new java.util.ArrayList<>();
         }
-        return trades;
     }
 
     /**
@@ -984,75 +1476,65 @@ public class TradeDatabase {
             VALUES (?, ?, datetime('now'))
             ON CONFLICT(key) DO UPDATE SET value = excluded.value, updated_at = excluded.updated_at
             """;
-        long stamp = lock.writeLock();
-        try (var ps = connection.prepareStatement(sql)) {
-            ps.setString(1, key);
-            ps.setString(2, value);
-            ps.executeUpdate();
+        try {
+            mutate("saveBotState " + key, session -> {
+                var ps = session.prepare(sql);
+                ps.setString(1, key);
+                ps.setString(2, value);
+                return ps.executeUpdate();
+            });
         } catch (SQLException e) {
             logger.warn("saveBotState failed for key '{}': {}", key, e.getMessage());
-        } finally {
-            lock.unlockWrite(stamp);
         }
     }
 
     /** Load a single key. Returns null if missing. */
     public String loadBotState(String key) {
         String sql = "SELECT value FROM bot_state WHERE key = ?";
-        long stamp = lock.tryOptimisticRead();
-        try (var ps = connection.prepareStatement(sql)) {
-            ps.setString(1, key);
-            try (var rs = ps.executeQuery()) {
-                String result = rs.next() ? rs.getString("value") : null;
-                if (lock.validate(stamp)) return result;
-            }
+        try {
+            return read(session -> {
+                var ps = session.prepare(sql);
+                ps.setString(1, key);
+                try (var rs = ps.executeQuery()) {
+                    return rs.next() ? rs.getString("value") : null;
+                }
+            });
         } catch (SQLException e) {
             logger.warn("loadBotState failed for key '{}': {}", key, e.getMessage());
-        }
-        // Fallback to read lock
-        stamp = lock.readLock();
-        try (var ps = connection.prepareStatement(sql)) {
-            ps.setString(1, key);
-            try (var rs = ps.executeQuery()) {
-                return rs.next() ? rs.getString("value") : null;
-            }
-        } catch (SQLException e) {
-            logger.warn("loadBotState (read-lock) failed for key '{}': {}", key, e.getMessage());
             return null;
-        } finally {
-            lock.unlockRead(stamp);
         }
     }
 
     /** Load all keys matching a prefix. Returns a map of key → value. */
     public java.util.Map<String, String> loadBotStateWithPrefix(String prefix) {
         String sql = "SELECT key, value FROM bot_state WHERE key LIKE ?";
-        var result = new java.util.HashMap<String, String>();
-        long stamp = lock.readLock();
-        try (var ps = connection.prepareStatement(sql)) {
-            ps.setString(1, prefix + "%");
-            try (var rs = ps.executeQuery()) {
-                while (rs.next()) result.put(rs.getString("key"), rs.getString("value"));
-            }
+        try {
+            return read(session -> {
+                var result = new java.util.HashMap<String, String>();
+                var ps = session.prepare(sql);
+                ps.setString(1, prefix + "%");
+                try (var rs = ps.executeQuery()) {
+                    while (rs.next()) result.put(rs.getString("key"), rs.getString("value"));
+                }
+                return result;
+            });
         } catch (SQLException e) {
             logger.warn("loadBotStateWithPrefix failed for prefix '{}': {}", prefix, e.getMessage());
-        } finally {
-            lock.unlockRead(stamp);
+            return new java.util.HashMap<>();
         }
-        return result;
     }
 
     /** Delete a single key (e.g., when cooldown expires naturally). */
     public void deleteBotState(String key) {
         String sql = "DELETE FROM bot_state WHERE key = ?";
-        long stamp = lock.writeLock();
-        try (var ps = connection.prepareStatement(sql)) {
-            ps.setString(1, key);
-            ps.executeUpdate();
+        try {
+            mutate("deleteBotState " + key, session -> {
+                var ps = session.prepare(sql);
+                ps.setString(1, key);
+                return ps.executeUpdate();
+            });
         } catch (SQLException e) {
             logger.warn("deleteBotState failed for key '{}': {}", key, e.getMessage());
-        } finally {
-            lock.unlockWrite(stamp);
         }
     }
 }
@@ -0,0 +1,316 @@
+package com.trading.persistence;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind journal: callers append mutations and return at once; a single writer thread
+ * drains them in append order and commits each group in one transaction, so the trading
+ * thread never waits on an fsync.
+ *
+ * The queue is a bounded lock-free ring (multi-producer, single consumer). When it is full,
+ * appends wait for the writer — back-pressure rather than unbounded memory or dropped writes.
+ * Ordering is preserved end to end: entries commit in sequence order, and a failed commit is
+ * retried with the same group, with backoff, until it succeeds — nothing later is attempted
+ * and no group is ever dropped, since callers have already been told their write happened.
+ * While a group keeps failing (disk full, a file locked by another process) the queue fills
+ * and appends wait; {@link #isHealthy} reports it so callers can stop making new work.
+ *
+ * {@link #flush} is the durability barrier: it returns once everything appended before the
+ * call is committed. Shutdown and the emergency protocol use it with a deadline; a writer
+ * still failing when {@link #close(Duration)} gives up stops with its entries uncommitted.
+ */
+public final class WriteBehindJournal<T> implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindJournal.class);
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long FULL_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long MAX_RETRY_BACKOFF_MS = 5_000;
+
+    /** Applies one group of entries atomically (one transaction); throws to have it retried. */
+    @FunctionalInterface
+    public interface BatchWriter<T> {
+        void commit(List<T> batch) throws Exception;
+    }
+
+    /** {@code consecutiveFailures} is non-zero while the current group keeps failing to commit. */
+    public record Stats(long appended, long committed, long pending, long batches,
+                        int largestBatch, long failedCommits, double lastCommitMillis,
+                        int consecutiveFailures) {}
+
+    private final String name;
+    private final BatchWriter<T> batchWriter;
+    private final long groupCommitNanos;
+
+    // ── Ring: slot sequence == position → free for that producer, == position + 1 → filled
+    private final int mask;
+    private final Object[] slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private long head; // writer thread only
+
+    private final Thread writerThread;
+    private volatile boolean writerIdle;
+    private volatile boolean closed;
+    private volatile boolean stopped; // close gave up waiting: a failing writer stops retrying
+    private final AtomicLong flushTarget = new AtomicLong();
+
+    private volatile long committed;
+    private final ReentrantLock commitLock = new ReentrantLock();
+    private final Condition commitAdvanced = commitLock.newCondition();
+
+    private volatile long batches;
+    private volatile int largestBatch;
+    private volatile long failedCommits;
+    private volatile double lastCommitMillis;
+    private volatile int consecutiveFailures;
+
+    /**
+     * @param capacity          queue slots, rounded up to a power of two
+     * @param groupCommitWindow how long the writer gathers entries after the first one arrives
+     */
+    public WriteBehindJournal(String name, int capacity, Duration groupCommitWindow, BatchWriter<T> batchWriter) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.name = name;
+        this.batchWriter = batchWriter;
+        this.groupCommitNanos = groupCommitWindow.toNanos();
+        this.mask = size - 1;
+        this.slots = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) sequences.set(i, i);
+
+        this.writerThread = Thread.ofPlatform().name(name + "-writer").daemon(true).start(this::writeLoop);
+    }
+
+    /**
+     * Queue an entry. Returns its sequence number, which {@link #awaitCommitted} accepts.
+     * Blocks only while the queue is full.
+     */
+    public long append(T entry) {
+        if (closed) throw new IllegalStateException(name + " journal is closed");
+        long pos = tail.get();
+        while (true) {
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) break;
+                pos = tail.get();
+            } else if (diff < 0) {
+                // Full: let the writer catch up
+                wakeWriter();
+                LockSupport.parkNanos(FULL_BACKOFF_NANOS);
+                pos = tail.get();
+            } else {
+                pos = tail.get();
+            }
+        }
+        int index = (int) (pos & mask);
+        slots[index] = entry;
+        sequences.set(index, pos + 1);
+        if (writerIdle) wakeWriter();
+        return pos + 1;
+    }
+
+    /**
+     * Block until every entry appended before this call is committed. Waits as long as the
+     * writer keeps failing; prefer {@link #flush(Duration)} where that must not hold the caller.
+     */
+    public void flush() throws InterruptedException {
+        awaitCommitted(tail.get());
+    }
+
+    /** Flush with a deadline; returns false if the writer didn't get there in time. */
+    public boolean flush(Duration timeout) throws InterruptedException {
+        return awaitCommitted(tail.get(), timeout.toNanos());
+    }
+
+    /** Block until entries up to {@code sequence} are committed. */
+    public void awaitCommitted(long sequence) throws InterruptedException {
+        awaitCommitted(sequence, Long.MAX_VALUE);
+    }
+
+    /** {@link #awaitCommitted(long)} with a deadline; returns false if it passed first. */
+    public boolean awaitCommitted(long sequence, Duration timeout) throws InterruptedException {
+        return awaitCommitted(sequence, timeout.toNanos());
+    }
+
+    private boolean awaitCommitted(long sequence, long timeoutNanos) throws InterruptedException {
+        if (committed >= sequence) return true;
+        requestFlush(sequence);
+        commitLock.lock();
+        try {
+            long remaining = timeoutNanos;
+            while (committed < sequence) {
+                if (remaining <= 0) return false;
+                remaining = commitAdvanced.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    private void requestFlush(long sequence) {
+        flushTarget.accumulateAndGet(sequence, Math::max);
+        wakeWriter();
+    }
+
+    public boolean isCommitted(long sequence) {
+        return committed >= sequence;
+    }
+
+    /** False while a group is failing to commit. */
+    public boolean isHealthy() {
+        return consecutiveFailures == 0;
+    }
+
+    public boolean hasPending() {
+        return committed < tail.get();
+    }
+
+    public Stats getStats() {
+        long appended = tail.get();
+        long done = committed;
+        return new Stats(appended, done, appended - done, batches, largestBatch, failedCommits, lastCommitMillis,
+            consecutiveFailures);
+    }
+
+    /** Flush everything queued, then stop the writer. Further appends throw. */
+    @Override
+    public void close() {
+        close(Duration.ofSeconds(30));
+    }
+
+    /**
+     * Flush what is queued within {@code timeout}, then stop the writer; whatever is still
+     * uncommitted by then is logged and left behind rather than holding up shutdown. It is not
+     * written later: a writer still failing stops retrying.
+     */
+    public void close(Duration timeout) {
+        if (closed) return;
+        closed = true;
+        try {
+            if (!flush(timeout)) {
+                logger.error("{} journal: {} entries still uncommitted after {} ms, closing without them",
+                    name, tail.get() - committed, timeout.toMillis());
+                stopped = true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("{} journal: interrupted while flushing on close, {} entries not committed",
+                name, tail.get() - committed);
+        }
+        wakeWriter();
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void wakeWriter() {
+        LockSupport.unpark(writerThread);
+    }
+
+    // ── Writer thread ────────────────────────────────────────────────────────
+
+    private void writeLoop() {
+        var batch = new ArrayList<T>();
+        long backoffMs = 10;
+        while (true) {
+            if (batch.isEmpty()) {
+                if (!awaitFirstEntry()) return;
+                gather();
+                drainInto(batch);
+            }
+
+            long start = System.nanoTime();
+            try {
+                batchWriter.commit(batch);
+            } catch (Exception e) {
+                failedCommits++;
+                consecutiveFailures++;
+                if (stopped) {
+                    logger.error("{} journal: closed with {} entries uncommitted after {} failed commits: {}",
+                        name, tail.get() - committed, consecutiveFailures, e.getMessage());
+                    return;
+                }
+                logger.error("{} journal: commit of {} entries failed ({} in a row), retrying in {} ms: {}",
+                    name, batch.size(), consecutiveFailures, backoffMs, e.getMessage());
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(backoffMs));
+                backoffMs = Math.min(backoffMs * 2, MAX_RETRY_BACKOFF_MS);
+                continue;
+            }
+            if (consecutiveFailures > 0) {
+                logger.info("{} journal: commit succeeded after {} failures", name, consecutiveFailures);
+            }
+            backoffMs = 10;
+            consecutiveFailures = 0;
+            lastCommitMillis = (System.nanoTime() - start) / 1e6;
+            batches++;
+            if (batch.size() > largestBatch) largestBatch = batch.size();
+            publishCommitted(head);
+            batch.clear();
+        }
+    }
+
+    /** Park until an entry is available; false once closed and empty. */
+    private boolean awaitFirstEntry() {
+        while (!isFilled(head)) {
+            if (closed && tail.get() == head) return false;
+            writerIdle = true;
+            if (!isFilled(head) && !(closed && tail.get() == head)) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            writerIdle = false;
+        }
+        return true;
+    }
+
+    /** Let more entries join the group unless someone is waiting on a flush or the ring is half full. */
+    private void gather() {
+        long deadline = System.nanoTime() + groupCommitNanos;
+        while (true) {
+            if (flushTarget.get() > committed || closed) return;
+            if (tail.get() - head > (mask + 1) / 2) return;
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) return;
+            LockSupport.parkNanos(this, remaining);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void drainInto(List<T> batch) {
+        while (isFilled(head)) {
+            int index = (int) (head & mask);
+            batch.add((T) slots[index]);
+            slots[index] = null;
+            sequences.set(index, head + mask + 1);
+            head++;
+        }
+    }
+
+    private boolean isFilled(long position) {
+        return sequences.get((int) (position & mask)) == position + 1;
+    }
+
+    private void publishCommitted(long sequence) {
+        committed = sequence;
+        commitLock.lock();
+        try {
+            commitAdvanced.signalAll();
+        } finally {
+            commitLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.trading.portfolio;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.trading.api.AsyncBrokerClient;
+import com.trading.api.ResilientBrokerClient;
+import com.trading.api.model.Position;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Broker state for one trading cycle: account, positions and open orders indexed by symbol. The
+ * three requests go out concurrently through {@link AsyncBrokerClient} once at the start of the
+ * cycle, and every stage then reads from here instead of calling the broker again. Market hours
+ * come from the local {@link com.trading.api.ExchangeCalendar}, not from a per-cycle clock request.
+ *
+ * Immutable. Placing or cancelling an order makes it stale, so ProfileManager drops its snapshot
+ * before every order call and the next read fetches a new one.
+ *
+ * A part that failed to load rethrows its error when read, so each stage handles a broker failure
+ * the same way it did when it made the call itself. When the broker cannot list all open orders
+ * in one call, {@link #openOrders} returns null and the caller asks per symbol.
+ */
+public final class BrokerSnapshot {
+
+    private static final JsonNode NO_ORDERS = JsonNodeFactory.instance.arrayNode();
+
+    private final Part<JsonNode> account;
+    private final Part<List<Position>> positions;
+    private final Map<String, JsonNode> openOrders;
+    private final Instant fetchedAt;
+
+    private record Part<T>(T value, Exception error) {
+        T get() throws Exception {
+            if (error != null) throw error;
+            return value;
+        }
+    }
+
+    private BrokerSnapshot(Part<JsonNode> account, Part<List<Position>> positions,
+                           Map<String, JsonNode> openOrders, Instant fetchedAt) {
+        this.account = account;
+        this.positions = positions;
+        this.openOrders = openOrders;
+        this.fetchedAt = fetchedAt;
+    }
+
+    /** Fetch account, positions and all open orders concurrently. */
+    public static BrokerSnapshot fetch(ResilientBrokerClient client) throws InterruptedException {
+        var async = AsyncBrokerClient.of(client);
+        Future<JsonNode> account = async.account();
+        Future<List<Position>> positions = async.positions();
+        Future<JsonNode> orders = async.allOpenOrders();
+
+        var ordersPart = await(orders);
+        return new BrokerSnapshot(await(account), await(positions),
+            ordersPart.error() == null ? index(ordersPart.value()) : null, Instant.now());
+    }
+
+    /** Build a snapshot from already-known state — used by tests and by stages that hold fresh data. */
+    public static BrokerSnapshot of(JsonNode account, List<Position> positions, JsonNode allOpenOrders) {
+        return new BrokerSnapshot(new Part<>(account, null), new Part<>(List.copyOf(positions), null),
+            index(allOpenOrders), Instant.now());
+    }
+
+    private static <T> Part<T> await(Future<T> future) throws InterruptedException {
+        try {
+            return new Part<>(future.get(), null);
+        } catch (ExecutionException e) {
+            return new Part<>(null, e.getCause() instanceof Exception cause ? cause : e);
+        }
+    }
+
+    /** Group a flat open-order list by its {@code symbol} field; null in, null out. */
+    private static Map<String, JsonNode> index(JsonNode allOpenOrders) {
+        if (allOpenOrders == null || !allOpenOrders.isArray()) return null;
+        var bySymbol = new HashMap<String, ArrayNode>();
+        for (JsonNode order : allOpenOrders) {
+            String symbol = order.path("symbol").asText("");
+            if (symbol.isEmpty()) continue;
+            bySymbol.computeIfAbsent(symbol, s -> JsonNodeFactory.instance.arrayNode()).add(order);
+        }
+        return Map.<String, JsonNode>copyOf(bySymbol);
+    }
+
+    public JsonNode account() throws Exception {
+        return account.get();
+    }
+
+    public List<Position> positions() throws Exception {
+        return positions.get();
+    }
+
+    public Optional<Position> position(String symbol) throws Exception {
+        return positions().stream().filter(p -> p.symbol().equals(symbol)).findFirst();
+    }
+
+    /**
+     * Open orders for {@code symbol} (an empty array when it has none), or null when open orders
+     * could not be listed in one call — the caller then asks the broker for this symbol.
+     */
+    public JsonNode openOrders(String symbol) {
+        if (openOrders == null) return null;
+        return openOrders.getOrDefault(symbol, NO_ORDERS);
+    }
+
+    public Instant fetchedAt() {
+        return fetchedAt;
+    }
+}
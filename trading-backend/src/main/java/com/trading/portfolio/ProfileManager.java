@@ -192,6 +192,39 @@ public class ProfileManager implements Runnable {
     private volatile MarketRegime latestRegime = MarketRegime.RANGE_BOUND;
     private volatile double latestEquity = 0.0;
 
+    // Per-cycle batch prefetch of the symbol universe (see prefetchCycleMarketData).
+    // Replaced wholesale each cycle; symbols missing here fall back to per-symbol calls.
+    private static final String PREFETCH_TIMEFRAME = "15Min";
+    private static final int PREFETCH_BARS = 50;
+    private volatile Map<String, com.trading.api.model.Bar> cycleLatestBars = Map.of();
+    private volatile Map<String, List<com.trading.api.model.Bar>> cycleIntradayBars = Map.of();
+
+    // Concurrent evaluation stage (see evaluateSymbols): price + strategy signal per symbol,
+    // computed before any order is placed. Rough API calls per evaluation, for sizing the stage.
+    private static final int REQUESTS_PER_EVALUATION = 3;
+    private record SymbolEvaluation(double price, TradingSignal signal, long pricedAtMillis) {}
+    // Evaluation prices older than this are re-read before tradeSymbol acts on them
+    private static final long EVALUATION_PRICE_MAX_AGE_MS = 2_000;
+    // Per-symbol evaluation time (ms) of the last cycle, in processing order
+    private volatile Map<String, Long> lastEvaluationTimings = Map.of();
+
+    // Real-time prices from the market data stream (null when streaming is off).
+    private volatile com.trading.marketdata.AlpacaStreamClient marketDataStream;
+    private volatile Duration streamMaxAge = Duration.ofSeconds(15);
+
+    // Live order book for this broker, fed by trade updates or polling (null: ask the broker).
+    private volatile com.trading.execution.OrderBook orderBook;
+    // Inverted so instances allocated without a constructor (unit tests) still broadcast
+    private volatile boolean dashboardMuted;
+
+    // Wakes the loop on bar closes, band crossings and order events (null: fixed sleepDuration).
+    private volatile com.trading.bot.CycleScheduler scheduler;
+
+    // Broker state shared by every stage of the running cycle (see snapshot()). Dropped before
+    // each order call and at the end of the cycle; outside a cycle every read fetches fresh.
+    private volatile BrokerSnapshot snapshot;
+    private volatile boolean cycleActive;
+
     // Per-broker: track when we first detected a pending ENTRY order per symbol.
     // Used to cancel stale orders (e.g. sandbox orders that never fill).
     private final java.util.concurrent.ConcurrentHashMap<String, Long> pendingEntryTimestamps
@@ -230,6 +263,10 @@ public class ProfileManager implements Runnable {
     // Resets to null whenever regime turns non-bearish.
     private java.time.Instant bearishRegimeMarketStart = null;
 
+    // Every time-based decision (cooldowns, PDT blocks, hold times, daily resets) reads this
+    // clock, so a backtest can drive the profile on a virtual one.
+    private final java.time.Clock clock;
+
     public ProfileManager(
             TradingProfile profile,
             double capital,
@@ -249,7 +286,38 @@ public class ProfileManager implements Runnable {
             com.trading.autonomous.ErrorDetector errorDetector,
             com.trading.autonomous.ConfigSelfHealer configSelfHealer,
             String brokerName) {
+        this(profile, capital, client, strategyManager, marketHoursFilter, volatilityFilter, marketAnalyzer,
+            database, pdtProtection, config, testSimulator, sentimentAnalyzer, signalPredictor, anomalyDetector,
+            riskPredictor, errorDetector, configSelfHealer, brokerName, java.time.Clock.systemDefaultZone());
+    }
+
+    /**
+     * A profile whose time-based decisions follow {@code clock}. The backtest replay passes its
+     * virtual clock (and a MarketHoursFilter on the same clock); live trading uses the wall clock.
+     */
+    public ProfileManager(
+            TradingProfile profile,
+            double capital,
+            ResilientBrokerClient client,
+            StrategyManager strategyManager,
+            MarketHoursFilter marketHoursFilter,
+            VolatilityFilter volatilityFilter,
+            MarketAnalyzer marketAnalyzer,
+            TradeDatabase database,
+            PDTProtection pdtProtection,
+            Config config,
+            TestModeSimulator testSimulator,
+            SentimentAnalyzer sentimentAnalyzer,
+            SignalPredictor signalPredictor,
+            AnomalyDetector anomalyDetector,
+            RiskPredictor riskPredictor,
+            com.trading.autonomous.ErrorDetector errorDetector,
+            com.trading.autonomous.ConfigSelfHealer configSelfHealer,
+            String brokerName,
+            java.time.Clock clock) {
         
+        this.clock = clock;
+        this.lastResetDate = java.time.LocalDate.now(clock);
         this.profile = profile;
         this.capital = capital;
         this.client = client;
@@ -324,11 +392,11 @@ public class ProfileManager implements Runnable {
         // inflated baseline (e.g. $1179/0.6 = $1966 ghost baseline that triggers false stop loss).
         double portfolioBaseline = fullStartupCapital > 0 ? fullStartupCapital : capital;
         this.portfolioRiskManager = new PortfolioRiskManager(config, portfolioBaseline);
-        this.regimeDetector = new MarketRegimeDetector(client.getDelegate(), config, marketAnalyzer);
+        this.regimeDetector = new MarketRegimeDetector(client.getDelegate(), config, marketAnalyzer, clock);
         
         // Create enhanced exit and portfolio management components
-        this.exitStrategyManager = new com.trading.exits.ExitStrategyManager(config);
-        this.phase2ExitStrategies = new com.trading.exits.Phase2ExitStrategies(config);
+        this.exitStrategyManager = new com.trading.exits.ExitStrategyManager(config, clock);
+        this.phase2ExitStrategies = new com.trading.exits.Phase2ExitStrategies(config, clock);
         this.correlationCalculator = new com.trading.analysis.CorrelationCalculator(client.getDelegate());
         this.portfolioRebalancer = new com.trading.portfolio.PortfolioRebalancer(config, correlationCalculator);
         
@@ -336,7 +404,7 @@ public class ProfileManager implements Runnable {
         this.mlEntryScorer = new com.trading.scoring.MLEntryScorer(config, marketAnalyzer, sentimentAnalyzer);
         this.trailingTargetManager = new com.trading.exits.TrailingTargetManager(config);
         this.adaptivePositionSizer = new com.trading.sizing.AdaptivePositionSizer(config);
-        this.timeDecayExitManager = new com.trading.exits.TimeDecayExitManager(config);
+        this.timeDecayExitManager = new com.trading.exits.TimeDecayExitManager(config, clock);
         this.momentumDetector = new com.trading.exits.MomentumAccelerationDetector(config);
         this.marketBreadthAnalyzer = new com.trading.analysis.MarketBreadthAnalyzer(config);
         this.volumeProfileAnalyzer = new com.trading.analysis.VolumeProfileAnalyzer(config);
@@ -371,7 +439,7 @@ public class ProfileManager implements Runnable {
         }
         circuitBreakers.computeIfAbsent(brokerName, b -> new CircuitBreakerState(
             config.getCircuitBreakerConsecutiveLosses(),
-            config.getCircuitBreakerSessionDrawdownPercent() / 100.0));
+            config.getCircuitBreakerSessionDrawdownPercent() / 100.0, clock));
 
         // Cycle interval: MAIN reads MAIN_CYCLE_INTERVAL_MS, others read EXP_CYCLE_INTERVAL_MS
         // Defaults: MAIN=20s, EXPERIMENTAL=40s — reduces API calls vs old 10s for both
@@ -384,6 +452,16 @@ public class ProfileManager implements Runnable {
         }
         this.sleepDuration = Duration.ofMillis(intervalMs);
         logger.info("[{}] Cycle interval: {}ms (env: {})", profile.name(), intervalMs, intervalEnvKey);
+
+        if (config.isEventDrivenCyclesEnabled()) {
+            var cycleScheduler = new com.trading.bot.CycleScheduler(profile.name(),
+                Duration.ofMillis(config.getCycleSweepIntervalMs()),
+                Duration.ofMinutes(config.getCycleBarIntervalMinutes()));
+            cycleScheduler.setHeartbeat(() -> com.trading.bot.TradingBot.beat("Profile-" + profile.name()));
+            this.scheduler = cycleScheduler;
+            logger.info("[{}] Event-driven cycles: {}min bar closes, band crossings, order events; sweep every {}ms",
+                profile.name(), config.getCycleBarIntervalMinutes(), config.getCycleSweepIntervalMs());
+        }
         
         logger.info("═══════════════════════════════════════════════════════");
         logger.info("[{}] Profile initialized with ${} capital, {} symbols",
@@ -405,23 +483,27 @@ public class ProfileManager implements Runnable {
     @Override
     public void run() {
         logger.info("[{}] Profile thread started", profile.name());
+        // Queue this profile's API calls (and its evaluation threads') fairly against other profiles
+        com.trading.api.RequestScheduler.bindProfile(profile.name());
         
         // Position sync already done in constructor - no need to sync again
         logger.info("[{}] Starting trading with {} active positions", 
             profile.name(), portfolio.getActivePositionCount());
         
+        Set<String> focus = null; // null = every symbol
         while (running && !Thread.currentThread().isInterrupted()) {
             try {
-                runTradingCycle();
+                runCycle(focus);
                 // Send heartbeat to safety system
                 com.trading.bot.TradingBot.beat("Profile-" + profile.name());
-                Thread.sleep(sleepDuration);
+                focus = awaitNextCycle();
             } catch (InterruptedException e) {
                 logger.info("[{}] Profile thread interrupted", profile.name());
                 Thread.currentThread().interrupt();
                 break;
             } catch (Exception e) {
                 logger.error("[{}] Error in trading cycle", profile.name(), e);
+                focus = null;
                 try {
                     Thread.sleep(sleepDuration);
                 } catch (InterruptedException ie) {
@@ -434,7 +516,164 @@ public class ProfileManager implements Runnable {
         logger.info("[{}] Profile thread stopped", profile.name());
     }
     
-    private void runTradingCycle() throws Exception {
+    /**
+     * Wait for the next cycle. With the event-driven scheduler, held positions' stop/target bands
+     * are handed over first; returns the symbols to focus on, or null for a full cycle.
+     *
+     * Band crossings need a streamed price, so while positions are held — or when nothing streams
+     * prices for this broker — the sweep runs at least as often as the fixed cycle interval did.
+     */
+    private Set<String> awaitNextCycle() throws InterruptedException {
+        var cycleScheduler = scheduler;
+        if (cycleScheduler == null) {
+            Thread.sleep(sleepDuration);
+            return null;
+        }
+        var bands = new HashMap<String, com.trading.bot.CycleScheduler.Band>();
+        for (String symbol : portfolio.getActiveStoredSymbols()) {
+            portfolio.getPosition(symbol).ifPresent(pos -> bands.put(symbol, wakeBand(symbol, pos)));
+        }
+        cycleScheduler.setBands(bands);
+        var wakeup = cycleScheduler.awaitNext(cycleScheduler.sweepFor(!bands.isEmpty(), sleepDuration));
+        logger.debug("[{}] Cycle triggered by {} {}", profile.name(), wakeup.reasons(), wakeup.symbols());
+        return wakeup.isFullCycle() ? null : wakeup.symbols();
+    }
+
+    /**
+     * Prices that need no cycle: above the effective stop — the position's stop or the ratcheted
+     * multi-level trail, whichever is higher — and below the target. With trailing targets on, a new
+     * high one trail step above the last seen also wakes the loop so the stop is ratcheted up.
+     */
+    private com.trading.bot.CycleScheduler.Band wakeBand(String symbol, TradePosition pos) {
+        double stop = pos.stopLoss();
+        double high = pos.takeProfit();
+        if (config.isTrailingTargetsEnabled()) {
+            double trail = trailingTargetManager.getCurrentStop(symbol);
+            stop = Math.max(stop, trail);
+            if (trail > pos.entryPrice()) high = pos.entryPrice() * (1 + profile.takeProfitPercent() * 2.0 / 100.0);
+        }
+        return com.trading.bot.CycleScheduler.Band.holding(stop, high,
+            Math.max(pos.highestPrice(), pos.entryPrice()), Math.max(0, profile.trailingStopPercent()) / 100.0);
+    }
+
+    /** A broker order event for {@code symbol} (fill, cancel, reject) — re-evaluate it without waiting for the sweep. */
+    public void onOrderEvent(String symbol) {
+        var cycleScheduler = scheduler;
+        if (cycleScheduler != null) cycleScheduler.onOrderEvent(symbol);
+    }
+
+    /**
+     * Answer open-order checks from {@code book} and react to its updates: fills and terminal
+     * states wake the loop for the symbol, and a dead exit order releases the symbol's pending
+     * exit at once instead of after the 20-minute stale timeout.
+     */
+    public void setOrderBook(com.trading.execution.OrderBook book) {
+        this.orderBook = book;
+        if (book != null) book.addListener(this::onOrderUpdate);
+    }
+
+    /**
+     * Whether each cycle pushes the dashboard widgets (account, market analysis, bot status,
+     * per-symbol progress). A backtest replay turns this off: nobody watches, and the market
+     * analysis behind it is a second pass over every symbol per cycle.
+     */
+    public void setDashboardUpdates(boolean enabled) {
+        this.dashboardMuted = !enabled;
+    }
+
+    private void onOrderUpdate(com.trading.execution.OrderBook.OrderUpdate update) {
+        var order = update.order();
+        if (order.status() == com.trading.execution.OrderBook.Status.NEW) return;
+        releasePendingExit(order, update.positionQty());
+        onOrderEvent(order.symbol());
+    }
+
+    /**
+     * Clear {@code pendingExitOrders} for the order's symbol when the exit can no longer be in
+     * flight: the position was filled flat (or a polled order closed with an unknown outcome and
+     * the position is flat), or the order was rejected or expired and no other order on that
+     * side is open. Cancels are left to reconciliation — exits cancel their own
+     * bracket legs just before placing the sell.
+     */
+    private void releasePendingExit(com.trading.execution.OrderBook.OrderState order, double positionQty) {
+        String symbol = order.symbol();
+        if (!pendingExitOrders.containsKey(symbol)) return;
+        boolean release = switch (order.status()) {
+            case FILLED, CLOSED -> positionQty == 0;
+            case REJECTED, EXPIRED -> orderBook.openOrderStates(symbol).stream()
+                .noneMatch(o -> o.side().equals(order.side()));
+            default -> false;
+        };
+        if (release && pendingExitOrders.remove(symbol) != null) {
+            logger.info("[{}] Pending exit cleared: {} ({} {})", profile.name(), symbol,
+                order.side(), order.status().name().toLowerCase());
+        }
+    }
+
+    /**
+     * Run one full trading cycle on the calling thread. The backtest replay calls this after
+     * each simulated bar instead of starting the profile's own loop.
+     */
+    public void runSingleCycle() throws Exception {
+        runCycle(null);
+    }
+
+    /** Null only for instances allocated without a constructor (unit tests). */
+    private java.time.Clock clock() {
+        var c = clock;
+        return c != null ? c : java.time.Clock.systemDefaultZone();
+    }
+
+    /** Run one cycle against a broker snapshot fetched up front and discarded afterwards. */
+    private void runCycle(Set<String> focus) throws Exception {
+        snapshot = BrokerSnapshot.fetch(client);
+        cycleActive = true;
+        try {
+            runTradingCycle(focus);
+        } finally {
+            cycleActive = false;
+            snapshot = null;
+        }
+    }
+
+    /**
+     * Account, positions and open orders for the running cycle — one concurrent fetch
+     * shared by every stage instead of each stage calling the broker. Refetched after an order
+     * call invalidated it; outside a cycle it is never cached.
+     */
+    private BrokerSnapshot snapshot() throws InterruptedException {
+        var current = snapshot;
+        if (current == null) {
+            current = BrokerSnapshot.fetch(client);
+            if (cycleActive) snapshot = current;
+        }
+        return current;
+    }
+
+    /** Order calls change positions and open orders — drop the snapshot so the next read refetches. */
+    private void invalidateSnapshot() {
+        snapshot = null;
+        var book = orderBook;
+        if (book != null) book.expectChanges();
+    }
+
+    /**
+     * Open orders for a symbol: from the live order book, else the snapshot, else per symbol when
+     * the broker can't list them all at once.
+     */
+    private com.fasterxml.jackson.databind.JsonNode openOrders(String symbol) throws InterruptedException {
+        var book = orderBook;
+        var booked = book != null ? book.openOrders(symbol) : null;
+        if (booked != null) return booked;
+        var orders = snapshot().openOrders(symbol);
+        return orders != null ? orders : client.getOpenOrders(symbol);
+    }
+
+    /**
+     * One trading cycle. {@code focus} limits per-symbol processing to those symbols (a band
+     * crossing or order event); account, regime and portfolio-wide exit checks always run.
+     */
+    private void runTradingCycle(Set<String> focus) throws Exception {
         String profilePrefix = "[" + profile.name() + "]";
 
         // Clean up expired stop-loss cooldowns to prevent memory leak
@@ -449,7 +688,8 @@ public class ProfileManager implements Runnable {
         // causing a cancel-and-replace loop every 20s from market close until open.
         if (!urgentExitQueue.isEmpty()) {
             if (marketHoursFilter.isMarketOpen()) {
-                drainUrgentExitQueue(profilePrefix);
+                com.trading.api.RequestScheduler.runWithPriority(com.trading.api.RequestScheduler.Priority.EXIT,
+                    () -> drainUrgentExitQueue(profilePrefix));
             } else {
                 logger.debug("{} Urgent exit queue has {} symbol(s) — holding until market open",
                     profilePrefix, urgentExitQueue.size());
@@ -486,7 +726,7 @@ public class ProfileManager implements Runnable {
             boolean isBearishRegime = (regime == MarketRegime.STRONG_BEAR || regime == MarketRegime.WEAK_BEAR);
             if (isBearishRegime && marketHoursFilter.isMarketOpen()) {
                 if (bearishRegimeMarketStart == null) {
-                    bearishRegimeMarketStart = java.time.Instant.now();
+                    bearishRegimeMarketStart = clock().instant();
                     logger.info("{} 🐻 Bearish regime ({}) confirmed during market hours — " +
                         "inverse ETF entries blocked for {}min persistence window",
                         profilePrefix, regime, config.getBearEntryPersistenceMinutes());
@@ -511,7 +751,7 @@ public class ProfileManager implements Runnable {
         }
         
         // Get account equity (cash + position values) for accurate P&L calculation
-        var account = client.getAccount();
+        var account = snapshot().account();
         var accountEquity = account.get("equity").asDouble();
         var buyingPower = account.get("buying_power").asDouble();
 
@@ -548,13 +788,16 @@ public class ProfileManager implements Runnable {
         // even when the portfolio-level stop loss has been triggered
         // Only run during market hours — orders with extended_hours=false can't fill pre-market
         if (marketHoursFilter.isMarketOpen()) {
-            checkAllPositionsForRiskExits(profilePrefix);
-
-            // ========== CHECK ALL POSITIONS FOR PROFIT TARGETS ==========
-            // CRITICAL: Check ALL positions for take-profit/stop-loss, not just current targets
-            // This ensures positions from previous regimes are still monitored for exits
-            // Runs before portfolio halt to guarantee protective exits always execute
-            checkAllPositionsForProfitTargets(profilePrefix);
+            // Every API call these checks make queues as a protective exit
+            com.trading.api.RequestScheduler.runWithPriority(com.trading.api.RequestScheduler.Priority.EXIT, () -> {
+                checkAllPositionsForRiskExits(profilePrefix);
+
+                // ========== CHECK ALL POSITIONS FOR PROFIT TARGETS ==========
+                // CRITICAL: Check ALL positions for take-profit/stop-loss, not just current targets
+                // This ensures positions from previous regimes are still monitored for exits
+                // Runs before portfolio halt to guarantee protective exits always execute
+                checkAllPositionsForProfitTargets(profilePrefix);
+            });
         } else {
             logger.debug("{} Skipping risk/profit checks — market closed (orders can't fill)", profilePrefix);
         }
@@ -640,6 +883,12 @@ public class ProfileManager implements Runnable {
             return;
         }
 
+        // Trade records are failing to commit: hold new positions until the journal catches up
+        if (!database.isJournalHealthy()) {
+            logger.warn("{} Trade database writes failing - skipping new entries", profilePrefix);
+            return;
+        }
+
         // Check for max drawdown
         if (riskManager.shouldHaltTrading(equity)) {
             maxDrawdownHaltActive = true;
@@ -649,9 +898,11 @@ public class ProfileManager implements Runnable {
             maxDrawdownHaltActive = false;
         }
 
-        // Determine symbols to process (target + active positions not in target)
-        Set<String> symbolsToProcess = new HashSet<>(targetSymbols);
-        var activeSymbols = portfolio.getActiveStoredSymbols();
+        // Determine symbols to process (target + active positions not in target).
+        // Fixed order — targets as ranked, then held symbols alphabetically — so orders are
+        // placed in the same sequence every cycle however the evaluations interleave.
+        Set<String> symbolsToProcess = new LinkedHashSet<>(targetSymbols);
+        var activeSymbols = new TreeSet<>(portfolio.getActiveStoredSymbols());
 
         for (String activeSymbol : activeSymbols) {
             if (!targetSymbols.contains(activeSymbol)) {
@@ -660,14 +911,26 @@ public class ProfileManager implements Runnable {
             }
         }
 
+        if (focus != null) {
+            symbolsToProcess.retainAll(focus);
+        }
+
         logger.debug("{} Processing {} symbols", profilePrefix, symbolsToProcess.size());
-        
+
+        prefetchCycleMarketData(symbolsToProcess, profilePrefix);
+
+        // Evaluate all symbols concurrently, then act on them one at a time in order
+        var evaluations = evaluateSymbols(new ArrayList<>(symbolsToProcess), regime, profilePrefix);
+
         // Trade each symbol
-        for (String symbol : symbolsToProcess) {
+        for (var evaluation : evaluations) {
+            String symbol = evaluation.symbol();
             try {
-                tradeSymbol(symbol, targetSymbols, equity, buyingPower, regime, currentVix, profilePrefix);
+                if (evaluation.failed()) throw evaluation.error();
+                tradeSymbol(symbol, targetSymbols, equity, buyingPower, regime, currentVix, profilePrefix,
+                    evaluation.value());
             } catch (PDTRejectedException e) {
-                pdtBlockedUntil = System.currentTimeMillis() + millisUntilMarketClose();
+                pdtBlockedUntil = clock().millis() + millisUntilMarketClose();
                 staticPdtBlockedUntil = pdtBlockedUntil;
                 logger.warn("{} PDT rejected for {} — blocking sell attempts until market close", profilePrefix, symbol);
             } catch (Exception e) {
@@ -724,7 +987,7 @@ public class ProfileManager implements Runnable {
         
         // Check portfolio rebalancing needs
         try {
-            var positions = client.getPositions();
+            var positions = snapshot().positions();
             Map<String, Double> currentPositions = new HashMap<>();
             for (var pos : positions) {
                 currentPositions.put(pos.symbol(), pos.marketValue());
@@ -741,6 +1004,7 @@ public class ProfileManager implements Runnable {
             logger.debug("{} Could not check rebalancing: {}", profilePrefix, e.getMessage());
         }
         
+        if (dashboardMuted) return;
         // Broadcast updates for dashboard widgets
         broadcastProfileUpdate(equity);
         // Broadcast account data (equity, buying power, profit targets from config)
@@ -789,7 +1053,7 @@ public class ProfileManager implements Runnable {
             // Fetch current buying power from Alpaca
             double buyingPower = 0.0;
             try {
-                var account = client.getAccount();
+                var account = snapshot().account();
                 buyingPower = account.get("buying_power").asDouble();
             } catch (Exception e) {
                 logger.debug("[{}] Failed to fetch buying power", profile.name(), e);
@@ -815,8 +1079,118 @@ public class ProfileManager implements Runnable {
         }
     }
     
+    /**
+     * Fetch latest bars (and the 15Min window used by the Phase 3 filters) for the whole
+     * universe in one batched request each, instead of one request per symbol in tradeSymbol.
+     * Failures only cost the optimisation — tradeSymbol falls back to per-symbol calls.
+     */
+    private void prefetchCycleMarketData(Collection<String> symbols, String profilePrefix) {
+        if (!config.isBatchMarketDataEnabled() || symbols.isEmpty()) {
+            cycleLatestBars = Map.of();
+            cycleIntradayBars = Map.of();
+            return;
+        }
+        try {
+            var latest = client.getLatestBars(symbols);
+            cycleLatestBars = latest != null ? latest : Map.of();
+        } catch (Exception e) {
+            cycleLatestBars = Map.of();
+            logger.debug("{} Batch latest-bar prefetch failed: {}", profilePrefix, e.getMessage());
+        }
+        if (config.isMLEntryScoringEnabled() || config.isVolumeProfileEnabled() || config.isAdaptiveSizingEnabled()) {
+            try {
+                var bars = client.getMultiBars(symbols, PREFETCH_TIMEFRAME, PREFETCH_BARS);
+                cycleIntradayBars = bars != null ? bars : Map.of();
+            } catch (Exception e) {
+                cycleIntradayBars = Map.of();
+                logger.debug("{} Batch bar prefetch failed: {}", profilePrefix, e.getMessage());
+            }
+        } else {
+            cycleIntradayBars = Map.of();
+        }
+        logger.debug("{} Prefetched {} latest bars, {} intraday windows for {} symbols",
+            profilePrefix, cycleLatestBars.size(), cycleIntradayBars.size(), symbols.size());
+    }
+
+    private Optional<com.trading.api.model.Bar> latestBar(String symbol) {
+        var bar = cycleLatestBars.get(symbol);
+        return bar != null ? Optional.of(bar) : client.getLatestBar(symbol);
+    }
+
+    private List<com.trading.api.model.Bar> intradayBars(String symbol) {
+        var bars = cycleIntradayBars.get(symbol);
+        return bars != null ? bars : client.getBars(symbol, PREFETCH_TIMEFRAME, PREFETCH_BARS);
+    }
+
+    /**
+     * Fetch the price and evaluate the strategy for each symbol, many at once on virtual threads.
+     * The stage is as wide as SYMBOL_EVALUATION_CONCURRENCY allows, narrowed to what the remaining
+     * rate-limit budget can serve. Evaluations only read shared state; orders are placed later by
+     * tradeSymbol, sequentially and in {@code symbols} order. Blacklisted symbols are not evaluated.
+     */
+    private List<SymbolEvaluationStage.Outcome<SymbolEvaluation>> evaluateSymbols(
+            List<String> symbols, MarketRegime regime, String profilePrefix) throws InterruptedException {
+        int width = 1;
+        if (config.isParallelSymbolEvaluationEnabled()) {
+            width = SymbolEvaluationStage.width(config.getSymbolEvaluationConcurrency(),
+                client.getAvailableRequests(), config.getSymbolEvaluationRequestReserve(),
+                REQUESTS_PER_EVALUATION);
+        }
+        var blacklist = config.getSymbolBlacklist();
+        long start = System.nanoTime();
+        var outcomes = SymbolEvaluationStage.run(symbols, width, symbol -> {
+            if (blacklist.contains(symbol.toUpperCase())) return null;
+            double price = latestBar(symbol).orElseThrow().close();
+            double qty = portfolio.getPosition(symbol).map(TradePosition::quantity).orElse(0.0);
+            return new SymbolEvaluation(price, strategyManager.evaluate(symbol, price, qty, regime),
+                clock().millis());
+        });
+
+        var timings = new LinkedHashMap<String, Long>();
+        SymbolEvaluationStage.Outcome<SymbolEvaluation> slowest = null;
+        for (var outcome : outcomes) {
+            timings.put(outcome.symbol(), outcome.elapsedMillis());
+            if (slowest == null || outcome.elapsedNanos() > slowest.elapsedNanos()) slowest = outcome;
+        }
+        lastEvaluationTimings = Collections.unmodifiableMap(timings);
+        if (slowest != null) {
+            logger.debug("{} Evaluated {} symbols in {}ms ({} at a time, slowest {} {}ms)",
+                profilePrefix, outcomes.size(), (System.nanoTime() - start) / 1_000_000, width,
+                slowest.symbol(), slowest.elapsedMillis());
+        }
+        return outcomes;
+    }
+
+    /**
+     * Price for exits, orders and P&L in tradeSymbol: the streamed last price when fresh, the
+     * evaluation price while it is recent, otherwise a new latest-bar read. Falls back to the
+     * evaluation price if the re-read fails.
+     */
+    private double orderPrice(String symbol, SymbolEvaluation evaluation, String profilePrefix) {
+        var stream = marketDataStream;
+        if (stream != null) {
+            var live = stream.table().lastPrice(symbol, streamMaxAge);
+            if (live.isPresent()) return live.getAsDouble();
+        }
+        long age = clock().millis() - evaluation.pricedAtMillis();
+        if (age < EVALUATION_PRICE_MAX_AGE_MS) return evaluation.price();
+        try {
+            var bar = client.getLatestBar(symbol);
+            if (bar.isPresent() && bar.get().close() > 0) {
+                logger.debug("{} {} price re-read after {}ms: {} -> {}", profilePrefix, symbol, age,
+                    evaluation.price(), bar.get().close());
+                return bar.get().close();
+            }
+        } catch (RuntimeException e) {
+            logger.debug("{} {} price re-read failed, using evaluation price: {}", profilePrefix, symbol,
+                e.getMessage());
+        }
+        return evaluation.price();
+    }
+
     private void tradeSymbol(String symbol, List<String> targetSymbols,
-                            double equity, double buyingPower, MarketRegime regime, double currentVix, String profilePrefix) throws Exception {
+                            double equity, double buyingPower, MarketRegime regime, double currentVix, String profilePrefix,
+                            SymbolEvaluation evaluation) throws Exception {
 
         // ========== SYMBOL BLACKLIST ==========
         // Hard block for IPOs, secondary offerings, or symbols with broker-imposed restrictions
@@ -829,17 +1203,19 @@ public class ProfileManager implements Runnable {
         }
 
         // Broadcast processing status for dashboard
-        int symbolIndex = new ArrayList<>(targetSymbols).indexOf(symbol) + 1;
-        int totalSymbols = targetSymbols.size();
-        TradingWebSocketHandler.broadcastProcessingStatus(
-            symbol, symbolIndex, totalSymbols, "ANALYSIS", "Processing " + symbol
-        );
+        if (!dashboardMuted) {
+            int symbolIndex = new ArrayList<>(targetSymbols).indexOf(symbol) + 1;
+            int totalSymbols = targetSymbols.size();
+            TradingWebSocketHandler.broadcastProcessingStatus(
+                symbol, symbolIndex, totalSymbols, "ANALYSIS", "Processing " + symbol
+            );
+        }
         
         var currentPosition = portfolio.getPosition(symbol);
         
-        // Get current price
-        var bar = client.getLatestBar(symbol);
-        var currentPrice = bar.get().close();
+        // The signal comes from the evaluation stage; the price it was computed on may be
+        // seconds old by the time the sequential order loop gets here
+        var currentPrice = orderPrice(symbol, evaluation, profilePrefix);
         
         // Get position quantity
         var qty = currentPosition.map(TradePosition::quantity).orElse(0.0);
@@ -866,11 +1242,12 @@ public class ProfileManager implements Runnable {
                 Exception lastError = null;
                 while (attempt < maxAttempts && !success) {
                     try {
+                        invalidateSnapshot();
                         client.placeOrder(symbol, qty, "sell", "market", "day", null);
                         logger.info("{} ✅ Max loss exit order placed for {} (attempt {}/{})", profilePrefix, symbol, attempt+1, maxAttempts);
                         // Record trade close
                         double exitPnl = pos.calculatePnL(currentPrice);
-                        database.closeTrade(symbol, Instant.now(), currentPrice, exitPnl, brokerName);
+                        database.closeTrade(symbol, clock().instant(), currentPrice, exitPnl, brokerName);
                         TradingWebSocketHandler.broadcastActivity(
                             String.format("[%s] MAX LOSS EXIT: %s (%.2f%% loss) [attempt %d]",
                                 profile.name(), symbol, lossPercent, attempt+1),
@@ -909,11 +1286,12 @@ public class ProfileManager implements Runnable {
                     
                     try {
                         cancelExistingOrders(profilePrefix, symbol);
+                        invalidateSnapshot();
                         client.placeOrder(symbol, qty, "sell", "market", "day", null);
                         logger.info("{} ✅ Time-based exit order placed for {}", profilePrefix, symbol);
 
                         // Record trade close
-                        database.closeTrade(symbol, Instant.now(), currentPrice, pnl, brokerName);
+                        database.closeTrade(symbol, clock().instant(), currentPrice, pnl, brokerName);
                         portfolio.setPosition(symbol, Optional.empty());
                         globalHeldSymbols.remove(symbol); trailingTargetManager.removePosition(symbol);
                         applyPostExitCooldown(symbol, currentPrice, pnl, profilePrefix, "time-based");
@@ -932,8 +1310,8 @@ public class ProfileManager implements Runnable {
             }
         }
         
-        // Evaluate strategy using regime
-        var signal = strategyManager.evaluate(symbol, currentPrice, qty, regime);
+        // Strategy signal for the regime, evaluated by the evaluation stage
+        var signal = evaluation.signal();
         
         // Handle signal
         if (signal instanceof TradingSignal.ScalpBuy scalpBuy && qty == 0) {
@@ -943,7 +1321,7 @@ public class ProfileManager implements Runnable {
                 logger.debug("{} {} skipping SCALP BUY — open DB record exists", profilePrefix, symbol);
             } else {
                 // Reset static counter if day has rolled over
-                java.time.LocalDate today = java.time.LocalDate.now();
+                java.time.LocalDate today = java.time.LocalDate.now(clock());
                 if (!today.equals(scalpCountDate)) {
                     staticScalpDailyCount.set(0);
                     scalpCountDate = today;
@@ -1062,11 +1440,11 @@ public class ProfileManager implements Runnable {
         // same millisecond before either reaches the later put() — causing duplicate entries on
         // the same symbol and doubling loss exposure on bad trades.
         String pendingBuyKey = brokerName + ":" + symbol;
-        Long existingClaim = pendingBuySymbols.putIfAbsent(pendingBuyKey, System.currentTimeMillis());
+        Long existingClaim = pendingBuySymbols.putIfAbsent(pendingBuyKey, clock().millis());
         if (existingClaim != null) {
             logger.debug("{} {} BUY skipped — buy already in flight or claimed by sibling profile ({}s ago)",
                 profilePrefix, symbol,
-                (System.currentTimeMillis() - existingClaim) / 1000);
+                (clock().millis() - existingClaim) / 1000);
             return;
         }
 
@@ -1136,8 +1514,8 @@ public class ProfileManager implements Runnable {
         // ========== STOP LOSS COOLDOWN CHECK ==========
         // Prevent immediate re-entry after stop loss (this was causing repeated losses)
         Long cooldownExpiry = stopLossCooldowns.get(symbol);
-        if (cooldownExpiry != null && System.currentTimeMillis() < cooldownExpiry) {
-            long remainingMin = (cooldownExpiry - System.currentTimeMillis()) / 60000;
+        if (cooldownExpiry != null && clock().millis() < cooldownExpiry) {
+            long remainingMin = (cooldownExpiry - clock().millis()) / 60000;
             logger.info("{} {} on STOP LOSS COOLDOWN - {} more minutes before re-entry allowed",
                 profilePrefix, symbol, remainingMin);
             TradingWebSocketHandler.broadcastActivity(
@@ -1153,7 +1531,7 @@ public class ProfileManager implements Runnable {
         // applied after losses on the *same* symbol, escalating after consecutive losses.
         // Aimed at the TLT-loses-4x pattern. Other symbols keep trading.
         if (config.isPerSymbolCooldownEnabled() && postLossCooldown != null) {
-            long now = System.currentTimeMillis();
+            long now = clock().millis();
             if (postLossCooldown.isInCooldown(symbol, now)) {
                 long remHours = postLossCooldown.remainingMs(symbol, now) / (60L * 60 * 1000);
                 int losses = postLossCooldown.getConsecutiveLosses(symbol);
@@ -1222,7 +1600,7 @@ public class ProfileManager implements Runnable {
             // Gate 2: regime persistence during market hours (applies to both STRONG_BEAR and WEAK_BEAR)
             long persistenceMs = config.getBearEntryPersistenceMinutes() * 60_000L;
             long elapsedMs = bearishRegimeMarketStart != null
-                ? java.time.Duration.between(bearishRegimeMarketStart, java.time.Instant.now()).toMillis()
+                ? java.time.Duration.between(bearishRegimeMarketStart, clock().instant()).toMillis()
                 : 0L;
             if (elapsedMs < persistenceMs) {
                 long remainingMin = (persistenceMs - elapsedMs) / 60_000L + 1;
@@ -1246,7 +1624,7 @@ public class ProfileManager implements Runnable {
             try {
                 boolean inBlackout = earningsCalendar.isInBlackout(
                     symbol,
-                    java.time.Instant.now(),
+                    clock().instant(),
                     config.getEarningsBlackoutHoursBefore(),
                     config.getEarningsBlackoutHoursAfter());
                 if (inBlackout) {
@@ -1332,7 +1710,7 @@ public class ProfileManager implements Runnable {
         //        current price must not be more than 0.2% below the previous hour close.
         try {
             var NY = java.time.ZoneId.of("America/New_York");
-            var sessionStart = java.time.LocalDate.now(NY).atTime(9, 30).atZone(NY).toInstant();
+            var sessionStart = java.time.LocalDate.now(clock().withZone(NY)).atTime(9, 30).atZone(NY).toInstant();
             var intradayBars = client.getBars(symbol, "1Hour", 8).stream()
                 .filter(b -> !b.timestamp().isBefore(sessionStart))
                 .toList();
@@ -1417,9 +1795,9 @@ public class ProfileManager implements Runnable {
         // If a pending entry order has been sitting >30 min (e.g. sandbox never fills),
         // cancel it so the bot can re-evaluate and place a fresh order.
         try {
-            var pendingOrders = client.getOpenOrders(symbol);
+            var pendingOrders = openOrders(symbol);
             if (pendingOrders.isArray() && pendingOrders.size() > 0) {
-                long now = System.currentTimeMillis();
+                long now = clock().millis();
                 long firstSeen = pendingEntryTimestamps.computeIfAbsent(symbol, k -> now);
                 long ageMs = now - firstSeen;
 
@@ -1429,6 +1807,7 @@ public class ProfileManager implements Runnable {
                     for (var order : pendingOrders) {
                         String orderId = order.path("id").asText();
                         if (!orderId.isBlank()) {
+                            invalidateSnapshot();
                             try { client.cancelOrder(orderId); } catch (Exception ce) {
                                 logger.warn("{} Failed to cancel stale entry order {} for {}: {}",
                                     profilePrefix, orderId, symbol, ce.getMessage());
@@ -1489,7 +1868,7 @@ public class ProfileManager implements Runnable {
         if (config.isMLEntryScoringEnabled()) {
             try {
                 // Get recent bars for ML analysis
-                var bars = client.getBars(symbol, "15Min", 50);
+                var bars = intradayBars(symbol);
                 double mlScore = mlEntryScorer.scoreEntry(symbol, currentPrice, bars);
                 
                 if (!mlEntryScorer.meetsThreshold(mlScore)) {
@@ -1516,7 +1895,7 @@ public class ProfileManager implements Runnable {
         // ========== PHASE 3: VOLUME PROFILE CHECK ==========
         if (config.isVolumeProfileEnabled()) {
             try {
-                var bars = client.getBars(symbol, "15Min", 50);
+                var bars = intradayBars(symbol);
                 if (!volumeProfileAnalyzer.isGoodEntryPrice(symbol, currentPrice, bars)) {
                     logger.info("{} {}: ❌ PHASE 3 FILTER - Price not near volume support, skipping",
                         profilePrefix, symbol);
@@ -1535,7 +1914,7 @@ public class ProfileManager implements Runnable {
         // ========== AI COMPONENT 2: ML PREDICTION ==========
         if (signalPredictor != null) {
             try {
-                var now = LocalDateTime.now();
+                var now = LocalDateTime.now(clock());
                 var setup = new com.trading.ai.SignalPredictor.TradingSetup(
                     currentVix,
                     now.getHour(),
@@ -1581,7 +1960,7 @@ public class ProfileManager implements Runnable {
         if (config.isAdaptiveSizingEnabled()) {
             try {
                 // Get ML score for sizing
-                var bars = client.getBars(symbol, "15Min", 50);
+                var bars = intradayBars(symbol);
                 double mlScore = mlEntryScorer.scoreEntry(symbol, currentPrice, bars);
                 
                 // Calculate adaptive size based on ML confidence and VIX
@@ -1655,7 +2034,7 @@ public class ProfileManager implements Runnable {
         // ========== AI COMPONENT 4: RISK PREDICTION ==========
         if (riskPredictor != null) {
             try {
-                var now = LocalDateTime.now();
+                var now = LocalDateTime.now(clock());
                 var riskSetup = new com.trading.ai.RiskPredictor.TradingSetup(
                     currentVix,
                     30.0, // symbol volatility (would need real data)
@@ -1727,7 +2106,11 @@ public class ProfileManager implements Runnable {
                 try {
                     int period = config.getAtrPeriodBars();
                     var atrBars = client.getBars(symbol, "1Day", period + 5);
-                    atr = AtrCalculator.atr(atrBars, period);
+                    // Same value either way; the shared running ATR skips the recompute
+                    atr = config.isIncrementalIndicatorsEnabled()
+                        ? com.trading.indicators.IndicatorRegistry.getInstance().sync(brokerName, symbol, "1Day",
+                            atrBars, set -> set.atr(period, period + 5).value())
+                        : AtrCalculator.atr(atrBars, period);
                 } catch (Exception e) {
                     logger.debug("{} ATR fetch failed for {}: {}", profilePrefix, symbol, e.getMessage());
                 }
@@ -1823,7 +2206,7 @@ public class ProfileManager implements Runnable {
             positionSize,
             stopLoss,
             takeProfit,
-            java.time.Instant.now()
+            clock().instant()
         );
 
         logger.info("{} {}: Position tracked: Entry=${}, StopLoss=${}, TakeProfit={}",
@@ -1869,6 +2252,7 @@ public class ProfileManager implements Runnable {
             Double entryLimitPrice = orderDecision.limitPrice();
 
             // Place bracket order and check if server-side protection was applied
+            invalidateSnapshot();
             var bracketResult = client.placeBracketOrder(symbol, positionSize, "buy",
                 takeProfit, stopLoss, null, entryLimitPrice);
 
@@ -1878,6 +2262,7 @@ public class ProfileManager implements Runnable {
                     profilePrefix, symbol, bracketResult.message());
 
                 try {
+                    invalidateSnapshot();
                     client.placeOrder(symbol, positionSize, "buy", "market", "day", null);
                     broadcastOrderData(symbol, positionSize, "buy", "market", "filled", currentPrice);
 
@@ -1919,6 +2304,7 @@ public class ProfileManager implements Runnable {
                 logger.warn("{} {}: ⚠️ Fractional position — placing native GTC stop-loss at ${}",
                     profilePrefix, symbol, String.format("%.2f", stopLoss));
                 try {
+                    invalidateSnapshot();
                     client.placeNativeStopOrder(symbol, positionSize, stopLoss);
                     logger.info("{} {}: ✅ Native GTC stop-loss placed at ${} (crash-safe)",
                         profilePrefix, symbol, String.format("%.2f", stopLoss));
@@ -1997,6 +2383,7 @@ public class ProfileManager implements Runnable {
                 profile.strategyType(), true, false, false
             );
             var orderDecision = orderTypeSelector.selectOrderType(orderCtx);
+            invalidateSnapshot();
             client.placeOrder(symbol, position.quantity(), "sell",
                 orderDecision.orderType(), orderDecision.timeInForce(), orderDecision.limitPrice());
         }
@@ -2007,7 +2394,7 @@ public class ProfileManager implements Runnable {
 
         // Set re-entry cooldown to prevent immediate re-buy
         long cooldownMs = config.getStopLossCooldownMs();
-        stopLossCooldowns.put(symbol, System.currentTimeMillis() + cooldownMs);
+        stopLossCooldowns.put(symbol, clock().millis() + cooldownMs);
         logger.info("{} {} placed on {}-minute re-entry cooldown after sell", profilePrefix, symbol, cooldownMs / 60000);
 
         // Record exit price for loss exits — require price improvement before re-entry
@@ -2017,12 +2404,12 @@ public class ProfileManager implements Runnable {
                 profilePrefix, symbol, String.format("%.2f", currentPrice), MIN_PRICE_IMPROVEMENT_PERCENT);
             // Tier 1.1: feed per-symbol post-loss cooldown (escalates after consecutive losses).
             if (postLossCooldown != null) {
-                long applied = postLossCooldown.recordLoss(symbol, System.currentTimeMillis());
+                long applied = postLossCooldown.recordLoss(symbol, clock().millis());
                 int consecLosses = postLossCooldown.getConsecutiveLosses(symbol);
                 logger.info("{} {} post-loss cooldown applied: {}h ({} consec losses)",
                     profilePrefix, symbol, applied / (60L * 60 * 1000), consecLosses);
                 // Persist so the cooldown survives a restart
-                long expiryMs = System.currentTimeMillis() + applied;
+                long expiryMs = clock().millis() + applied;
                 database.saveBotState("cooldown:" + symbol,
                     expiryMs + "," + consecLosses);
                 database.saveBotState("consec_sl:" + symbol, String.valueOf(consecLosses));
@@ -2049,14 +2436,14 @@ public class ProfileManager implements Runnable {
         if (!"alpaca".equalsIgnoreCase(brokerName) && position.entryTime() != null) {
             var NY = java.time.ZoneId.of("America/New_York");
             boolean isToday = position.entryTime().atZone(NY).toLocalDate()
-                .equals(java.time.LocalDate.now(NY));
+                .equals(java.time.LocalDate.now(clock().withZone(NY)));
             if (isToday) {
                 pdtProtection.recordDayTrade(symbol);
             }
         }
 
         // Close trade in database
-        database.closeTrade(symbol, java.time.Instant.now(), currentPrice, pnl, brokerName);
+        database.closeTrade(symbol, clock().instant(), currentPrice, pnl, brokerName);
         updateDailyPnL(profilePrefix, pnl);
 
         // Broadcast trade event
@@ -2115,14 +2502,14 @@ public class ProfileManager implements Runnable {
         }
 
         // PDT circuit breaker: skip sell attempts if Alpaca recently rejected with 403 PDT
-        if (System.currentTimeMillis() < pdtBlockedUntil) {
+        if (clock().millis() < pdtBlockedUntil) {
             logger.debug("{} Skipping risk exits — PDT blocked for {} more seconds",
-                profilePrefix, (pdtBlockedUntil - System.currentTimeMillis()) / 1000);
+                profilePrefix, (pdtBlockedUntil - clock().millis()) / 1000);
             return;
         }
         
         try {
-            var allPositions = client.getPositions();
+            var allPositions = snapshot().positions();
             
             // Get current portfolio positions for correlation analysis
             Map<String, Double> portfolioPositions = new HashMap<>();
@@ -2152,7 +2539,7 @@ public class ProfileManager implements Runnable {
                     continue;
                 }
 
-                double currentPrice = alpacaPos.marketValue() / qty;
+                double currentPrice = livePrice(symbol, alpacaPos.marketValue() / qty);
                 double entryPrice = alpacaPos.avgEntryPrice();
 
                 if (entryPrice == 0) {
@@ -2177,7 +2564,7 @@ public class ProfileManager implements Runnable {
                             && config.getPreEarningsExitHoursBefore() > 0) {
                         try {
                             boolean approachingEarnings = earningsCalendar.isInBlackout(
-                                symbol, java.time.Instant.now(),
+                                symbol, clock().instant(),
                                 config.getPreEarningsExitHoursBefore(), 0);
                             if (approachingEarnings) {
                                 var exitDecision = com.trading.exits.ExitStrategyManager.ExitDecision.fullExit(
@@ -2189,20 +2576,23 @@ public class ProfileManager implements Runnable {
                                     profilePrefix, symbol, exitDecision.reason());
                                 try {
                                     cancelExistingOrders(profilePrefix, symbol);
-                                    client.placeOrderDirect(symbol, qty, "sell", "market", "day", null);
+                                    invalidateSnapshot();
+                                    double sellQty = liveQuantity(profilePrefix, symbol, qty);
+                                    if (sellQty <= 0) continue;
+                                    client.placeOrderDirect(symbol, sellQty, "sell", "market", "day", null);
                                     portfolio.setPosition(symbol, Optional.empty());
                                     globalHeldSymbols.remove(symbol); trailingTargetManager.removePosition(symbol);
                                     applyPostExitCooldown(symbol, currentPrice,
-                                        (currentPrice - entryPrice) * qty,
+                                        (currentPrice - entryPrice) * sellQty,
                                         profilePrefix, "PRE_EARNINGS");
                                     TradingWebSocketHandler.broadcastActivity(
                                         String.format("[%s] 🗓️ PRE-EARNINGS EXIT: %s — %s",
                                             profile.name(), symbol, exitDecision.reason()),
                                         "WARN");
-                                    pendingExitOrders.put(symbol, System.currentTimeMillis());
+                                    pendingExitOrders.put(symbol, clock().millis());
                                     continue;
                                 } catch (PDTRejectedException e) {
-                                    pdtBlockedUntil = System.currentTimeMillis() + millisUntilMarketClose();
+                                    pdtBlockedUntil = clock().millis() + millisUntilMarketClose();
                                     staticPdtBlockedUntil = pdtBlockedUntil;
                                     logger.warn("{} PDT rejected pre-earnings exit for {}",
                                         profilePrefix, symbol);
@@ -2212,7 +2602,7 @@ public class ProfileManager implements Runnable {
                                         profilePrefix, symbol, e);
                                     urgentExitQueue.put(urgentKey(brokerName, symbol),
                                         new UrgentExit(brokerName, symbol, qty,
-                                            "pre-earnings", System.currentTimeMillis()));
+                                            "pre-earnings", clock().millis()));
                                 }
                             }
                         } catch (Exception e) {
@@ -2239,7 +2629,11 @@ public class ProfileManager implements Runnable {
                         try {
                             cancelExistingOrders(profilePrefix, symbol);
                             // Use direct order for risk exits (bypass circuit breaker - critical protective exit)
-                            client.placeOrderDirect(symbol, qtyToExit, "sell", "market", "day", null);
+                            invalidateSnapshot();
+                            double held = liveQuantity(profilePrefix, symbol, qty);
+                            if (held <= 0) continue;
+                            double sellQty = exitDecision.isPartial() ? Math.min(qtyToExit, held) : held;
+                            client.placeOrderDirect(symbol, sellQty, "sell", "market", "day", null);
                             
                             if (exitDecision.isPartial()) {
                                 logger.info("{} ✅ Partial exit executed: {} ({}% of position)",
@@ -2255,13 +2649,13 @@ public class ProfileManager implements Runnable {
                                 portfolio.setPosition(symbol, Optional.empty());
                                 globalHeldSymbols.remove(symbol); trailingTargetManager.removePosition(symbol);
                                 // Set re-entry cooldown after full exit
-                                stopLossCooldowns.put(symbol, System.currentTimeMillis() + config.getStopLossCooldownMs());
+                                stopLossCooldowns.put(symbol, clock().millis() + config.getStopLossCooldownMs());
                                 // Record exit price if loss — require price improvement before re-entry
-                                double tradePnl = (currentPrice - entryPrice) * qty;
+                                double tradePnl = (currentPrice - entryPrice) * sellQty;
                                 if (currentPrice < entryPrice) {
                                     lastExitPrices.put(symbol, currentPrice);
                                     if (postLossCooldown != null) {
-                                        postLossCooldown.recordLoss(symbol, System.currentTimeMillis());
+                                        postLossCooldown.recordLoss(symbol, clock().millis());
                                     }
                                 } else if (postLossCooldown != null) {
                                     postLossCooldown.recordWin(symbol);
@@ -2280,10 +2674,10 @@ public class ProfileManager implements Runnable {
                             );
 
                             // Mark as pending to prevent duplicate sells in this and future cycles
-                            pendingExitOrders.put(symbol, System.currentTimeMillis());
+                            pendingExitOrders.put(symbol, clock().millis());
                             continue;
                         } catch (PDTRejectedException e) {
-                            pdtBlockedUntil = System.currentTimeMillis() + millisUntilMarketClose();
+                            pdtBlockedUntil = clock().millis() + millisUntilMarketClose();
                 staticPdtBlockedUntil = pdtBlockedUntil;
                             logger.warn("{} PDT rejected protective exit for {} — blocking until market close ({})",
                                 profilePrefix, symbol, java.time.Instant.ofEpochMilli(pdtBlockedUntil));
@@ -2294,7 +2688,7 @@ public class ProfileManager implements Runnable {
                         } catch (Exception e) {
                             logger.error("{} Failed to place enhanced exit order for {}",
                                 profilePrefix, symbol, e);
-                            urgentExitQueue.put(urgentKey(brokerName, symbol), new UrgentExit(brokerName, symbol, qtyToExit, exitDecision.reason(), System.currentTimeMillis()));
+                            urgentExitQueue.put(urgentKey(brokerName, symbol), new UrgentExit(brokerName, symbol, qtyToExit, exitDecision.reason(), clock().millis()));
                             TradingWebSocketHandler.broadcastActivity(
                                 String.format("[%s] ⚠️ EXIT FAILED, QUEUED FOR RETRY: %s (%s)",
                                     profile.name(), symbol, exitDecision.reason()),
@@ -2335,18 +2729,21 @@ public class ProfileManager implements Runnable {
                                 "WARN");
                             try {
                                 cancelExistingOrders(profilePrefix, symbol);
-                                client.placeOrderDirect(symbol, qty, "sell", "market", "day", null);
-                                double pnl = (currentPrice - entryPrice) * qty;
+                                invalidateSnapshot();
+                                double sellQty = liveQuantity(profilePrefix, symbol, qty);
+                                if (sellQty <= 0) continue;
+                                client.placeOrderDirect(symbol, sellQty, "sell", "market", "day", null);
+                                double pnl = (currentPrice - entryPrice) * sellQty;
                                 portfolio.setPosition(symbol, Optional.empty());
                                 globalHeldSymbols.remove(symbol); trailingTargetManager.removePosition(symbol);
-                                database.closeTrade(symbol, java.time.Instant.now(), currentPrice, pnl, brokerName);
+                                database.closeTrade(symbol, clock().instant(), currentPrice, pnl, brokerName);
                                 updateDailyPnL(profilePrefix, pnl);
                                 applyPostExitCooldown(symbol, currentPrice, pnl, profilePrefix, "REGIME_EXIT");
-                                pendingExitOrders.put(symbol, System.currentTimeMillis());
+                                pendingExitOrders.put(symbol, clock().millis());
                             } catch (Exception e) {
                                 logger.error("{} Failed regime exit for {}: {}", profilePrefix, symbol, e.getMessage());
                                 urgentExitQueue.put(urgentKey(brokerName, symbol),
-                                    new UrgentExit(brokerName, symbol, qty, "regime-bearish", System.currentTimeMillis()));
+                                    new UrgentExit(brokerName, symbol, qty, "regime-bearish", clock().millis()));
                             }
                             continue;
                         }
@@ -2387,7 +2784,7 @@ public class ProfileManager implements Runnable {
                     double idealStop = Math.max(entryPrice * (1.0 - profileSlFraction), currentPrice * 0.985);
                     recoveredStop = Math.min(idealStop, currentPrice * 0.999);
                     recoveredTp = entryPrice * (1.0 + profileTpFraction);
-                    recoveredEntryTime = java.time.Instant.now().minus(java.time.Duration.ofHours(24));
+                    recoveredEntryTime = clock().instant().minus(java.time.Duration.ofHours(24));
                     database.recordTrade(symbol, profile.strategyType(), profile.name(), brokerName,
                         recoveredEntryTime, entryPrice, qty, recoveredStop, recoveredTp);
                     logger.warn("{} {}: untracked position with no DB record — reconstructed SL=${} TP=${}",
@@ -2410,7 +2807,7 @@ public class ProfileManager implements Runnable {
 
                 boolean hasOpenStop = false;
                 try {
-                    var openOrders = client.getOpenOrders(symbol);
+                    var openOrders = openOrders(symbol);
                     if (openOrders != null && openOrders.isArray()) {
                         for (var ord : openOrders) {
                             String otype = ord.has("type") ? ord.get("type").asText("").toLowerCase() : "";
@@ -2421,6 +2818,7 @@ public class ProfileManager implements Runnable {
 
                 if (!hasOpenStop) {
                     try {
+                        invalidateSnapshot();
                         client.placeNativeStopOrder(symbol, qty, recoveredStop);
                         logger.warn("{} {}: ⚠️ orphan position recovered — native GTC stop placed @ ${}",
                             profilePrefix, symbol, String.format("%.2f", recoveredStop));
@@ -2453,11 +2851,14 @@ public class ProfileManager implements Runnable {
                     try {
                         cancelExistingOrders(profilePrefix, symbol);
                         // Use direct order for max-loss exit (bypass circuit breaker - critical protective exit)
-                        client.placeOrderDirect(symbol, qty, "sell", "market", "day", null);
+                        invalidateSnapshot();
+                        double sellQty = liveQuantity(profilePrefix, symbol, qty);
+                        if (sellQty <= 0) continue;
+                        client.placeOrderDirect(symbol, sellQty, "sell", "market", "day", null);
                         portfolio.setPosition(symbol, Optional.empty());
                         globalHeldSymbols.remove(symbol); trailingTargetManager.removePosition(symbol);
                         // Set re-entry cooldown + per-symbol cooldown + circuit-breaker tracking.
-                        applyPostExitCooldown(symbol, currentPrice, (currentPrice - entryPrice) * qty,
+                        applyPostExitCooldown(symbol, currentPrice, (currentPrice - entryPrice) * sellQty,
                             profilePrefix, "MAX_LOSS_UNTRACKED");
                         logger.info("{} ✅ Max loss exit order placed for untracked position {}",
                             profilePrefix, symbol);
@@ -2468,7 +2869,7 @@ public class ProfileManager implements Runnable {
                             "WARN"
                         );
                     } catch (PDTRejectedException e) {
-                        pdtBlockedUntil = System.currentTimeMillis() + millisUntilMarketClose();
+                        pdtBlockedUntil = clock().millis() + millisUntilMarketClose();
                 staticPdtBlockedUntil = pdtBlockedUntil;
                         logger.warn("{} PDT rejected max-loss exit for {} — blocking until market close",
                             profilePrefix, symbol);
@@ -2477,7 +2878,7 @@ public class ProfileManager implements Runnable {
                         logger.error("{} Failed to place max loss exit order for {}",
                             profilePrefix, symbol, e);
                         urgentExitQueue.put(urgentKey(brokerName, symbol), new UrgentExit(brokerName, symbol, qty,
-                            String.format("max loss (%.1f%%)", Math.abs(lossPercent)), System.currentTimeMillis()));
+                            String.format("max loss (%.1f%%)", Math.abs(lossPercent)), clock().millis()));
                         TradingWebSocketHandler.broadcastActivity(
                             String.format("[%s] ⚠️ MAX LOSS EXIT FAILED, QUEUED FOR RETRY: %s",
                                 profile.name(), symbol),
@@ -2510,10 +2911,11 @@ public class ProfileManager implements Runnable {
      */
     private void cancelExistingOrders(String profilePrefix, String symbol) {
         try {
-            var openOrders = client.getOpenOrders(symbol);
+            var openOrders = openOrders(symbol);
             if (openOrders.isArray()) {
                 for (var order : openOrders) {
                     String orderId = order.get("id").asText();
+                    invalidateSnapshot();
                     client.cancelOrder(orderId);
                     logger.info("{} Canceled existing order {} for {} before exit", profilePrefix, orderId, symbol);
                 }
@@ -2528,7 +2930,7 @@ public class ProfileManager implements Runnable {
      * Called at the start of each trading cycle.
      */
     private void cleanupExpiredCooldowns() {
-        long now = System.currentTimeMillis();
+        long now = clock().millis();
         stopLossCooldowns.entrySet().removeIf(entry -> entry.getValue() < now);
         pendingBuySymbols.entrySet().removeIf(entry -> now - entry.getValue() > PENDING_BUY_TTL_MS);
     }
@@ -2542,11 +2944,11 @@ public class ProfileManager implements Runnable {
     private void applyPostExitCooldown(String symbol, double exitPrice, double pnl,
                                        String profilePrefix, String exitKind) {
         long cooldownMs = config.getStopLossCooldownMs();
-        stopLossCooldowns.put(symbol, System.currentTimeMillis() + cooldownMs);
+        stopLossCooldowns.put(symbol, clock().millis() + cooldownMs);
         if (pnl < 0) {
             lastExitPrices.put(symbol, exitPrice);
             if (postLossCooldown != null) {
-                postLossCooldown.recordLoss(symbol, System.currentTimeMillis());
+                postLossCooldown.recordLoss(symbol, clock().millis());
             }
         } else if (pnl > 0 && postLossCooldown != null) {
             postLossCooldown.recordWin(symbol);
@@ -2563,13 +2965,37 @@ public class ProfileManager implements Runnable {
      * This prevents stale state from blocking new entries after external sells,
      * stop-loss fills, or other exit paths that may miss portfolio cleanup.
      */
+    /**
+     * Shares held in {@code symbol} according to the broker right now, for sizing a sell. The
+     * cycle snapshot is too old for that: the other profile on a shared account, or a bracket or
+     * native stop filling server-side, may have changed the position since it was taken. 0 when
+     * the position is gone; {@code fallback} if the broker can't be asked.
+     */
+    private double liveQuantity(String profilePrefix, String symbol, double fallback) {
+        try {
+            double live = client.getPositions().stream()
+                .filter(p -> p.symbol().equals(symbol))
+                .mapToDouble(p -> Math.abs(p.quantity()))
+                .findFirst().orElse(0);
+            if (Math.abs(live - Math.abs(fallback)) > 0.0001) {
+                logger.warn("{} {} qty changed since the cycle started: {} -> {} — selling the live qty",
+                    profilePrefix, symbol, String.format("%.4f", fallback), String.format("%.4f", live));
+            }
+            return live;
+        } catch (RuntimeException e) {
+            logger.warn("{} Live position check failed for {} — using cycle qty {}: {}",
+                profilePrefix, symbol, String.format("%.4f", fallback), e.getMessage());
+            return Math.abs(fallback);
+        }
+    }
+
     /**
      * Retry protective exits that failed in a previous cycle (e.g., Alpaca API was down).
      * Called every cycle so failed exits are retried every ~10 seconds until they succeed.
      * Only MAIN profile drains the queue to avoid duplicate orders.
      */
     private void drainUrgentExitQueue(String profilePrefix) {
-        if (System.currentTimeMillis() < pdtBlockedUntil) return;
+        if (clock().millis() < pdtBlockedUntil) return;
 
         for (String key : new java.util.HashSet<>(urgentExitQueue.keySet())) {
             UrgentExit exit = urgentExitQueue.get(key);
@@ -2578,7 +3004,7 @@ public class ProfileManager implements Runnable {
             if (!brokerName.equals(exit.broker())) continue;
             String symbol = exit.symbol();
 
-            long minsWaiting = (System.currentTimeMillis() - exit.firstFailedAt()) / 60000;
+            long minsWaiting = (clock().millis() - exit.firstFailedAt()) / 60000;
             logger.warn("{} 🔄 URGENT EXIT RETRY: {} qty={} reason='{}' ({}m since first fail)",
                 profilePrefix, symbol, String.format("%.4f", exit.quantity()), exit.reason(), minsWaiting);
 
@@ -2586,24 +3012,18 @@ public class ProfileManager implements Runnable {
                 // Check if position still exists — native stop may have already filled it.
                 // Always use the LIVE qty from broker, not the stale internal qty, to avoid
                 // "insufficient qty available" errors when position was partially filled externally.
-                var positions = client.getPositions();
-                var livePos = positions.stream().filter(p -> p.symbol().equals(symbol)).findFirst();
-                if (livePos.isEmpty()) {
+                cancelExistingOrders(profilePrefix, symbol);
+                invalidateSnapshot();
+                double liveQty = liveQuantity(profilePrefix, symbol, exit.quantity());
+                if (liveQty <= 0) {
                     urgentExitQueue.remove(key);
                     logger.info("{} Urgent exit cleared: {} position no longer on broker", profilePrefix, symbol);
                     continue;
                 }
-                double liveQty = livePos.get().quantity();
-                if (Math.abs(liveQty - exit.quantity()) > 0.001) {
-                    logger.warn("{} Urgent exit qty mismatch for {}: internal={} broker={} — using broker qty",
-                        profilePrefix, symbol, String.format("%.4f", exit.quantity()), String.format("%.4f", liveQty));
-                }
-
-                cancelExistingOrders(profilePrefix, symbol);
                 client.placeOrderDirect(symbol, liveQty, "sell", "market", "day", null);
 
                 urgentExitQueue.remove(key);
-                pendingExitOrders.put(symbol, System.currentTimeMillis());
+                pendingExitOrders.put(symbol, clock().millis());
 
                 TradingWebSocketHandler.broadcastActivity(
                     String.format("[%s] ✅ URGENT EXIT SUCCEEDED: %s after %dm delay (%s)",
@@ -2613,7 +3033,7 @@ public class ProfileManager implements Runnable {
                 logger.info("{} ✅ Urgent exit succeeded for {} after {}m", profilePrefix, symbol, minsWaiting);
 
             } catch (PDTRejectedException e) {
-                pdtBlockedUntil = System.currentTimeMillis() + millisUntilMarketClose();
+                pdtBlockedUntil = clock().millis() + millisUntilMarketClose();
                 staticPdtBlockedUntil = pdtBlockedUntil;
                 logger.warn("{} PDT rejected urgent exit for {} — blocking until market close. Positions protected by native GTC stops.",
                     profilePrefix, symbol);
@@ -2634,7 +3054,7 @@ public class ProfileManager implements Runnable {
 
     private void reconcilePortfolioWithBroker(String profilePrefix) {
         try {
-            var brokerPositions = client.getPositions();
+            var brokerPositions = snapshot().positions();
             var brokerSymbols = new java.util.HashSet<String>();
             for (var pos : brokerPositions) {
                 brokerSymbols.add(pos.symbol());
@@ -2649,7 +3069,7 @@ public class ProfileManager implements Runnable {
                     // so the cooldown would never be set — allowing immediate re-entry on the next
                     // cycle. This is the root cause of rapid same-symbol re-entries (e.g. NVDA
                     // entered twice within 9 minutes on July 6, 2026).
-                    stopLossCooldowns.put(symbol, System.currentTimeMillis() + config.getStopLossCooldownMs());
+                    stopLossCooldowns.put(symbol, clock().millis() + config.getStopLossCooldownMs());
                     portfolio.setPosition(symbol, Optional.empty());
                     globalHeldSymbols.remove(symbol); trailingTargetManager.removePosition(symbol);
                     removed++;
@@ -2667,7 +3087,7 @@ public class ProfileManager implements Runnable {
             // Also clear STALE entries: order placed >20 min ago but position still exists at broker
             // (this happens when orders expire after market close or are rejected by the broker).
             long staleThresholdMs = 20 * 60 * 1000L; // 20 minutes
-            long now = System.currentTimeMillis();
+            long now = clock().millis();
             int clearedExits = 0;
             for (String symbol : new java.util.HashSet<>(pendingExitOrders.keySet())) {
                 if (!brokerSymbols.contains(symbol)) {
@@ -2717,7 +3137,7 @@ public class ProfileManager implements Runnable {
                         String filledAtStr = order.path("filled_at").asText("");
                         if (fillPrice <= 0) continue;
                         java.time.Instant fillTime = filledAtStr.isEmpty()
-                            ? java.time.Instant.now()
+                            ? clock().instant()
                             : java.time.Instant.parse(filledAtStr);
                         database.closeTrade(sym, fillTime, fillPrice, 0, brokerName);
                         logger.info("{} Orphan recovery: closed {} with real fill price ${} from order history",
@@ -2744,7 +3164,7 @@ public class ProfileManager implements Runnable {
                             "recovered",          // strategy = recovered (synced from Alpaca)
                             profile.name(),
                             brokerName,
-                            java.time.Instant.now(),
+                            clock().instant(),
                             pos.avgEntryPrice(),
                             pos.quantity(),
                             pos.avgEntryPrice() * (1.0 - profile.stopLossPercent() / 100.0),
@@ -2811,7 +3231,7 @@ public class ProfileManager implements Runnable {
             double cash = 0.0;
             
             try {
-                var account = client.getAccount();
+                var account = snapshot().account();
                 totalEquity = account.get("equity").asDouble();
                 lastEquity = account.has("last_equity") ? account.get("last_equity").asDouble() : totalEquity;
                 buyingPower = account.get("buying_power").asDouble();
@@ -2850,9 +3270,41 @@ public class ProfileManager implements Runnable {
         logger.info("[{}] Stop requested", profile.name());
     }
     
+    /** Per-symbol evaluation time of the last trading cycle, in milliseconds. */
+    public Map<String, Long> getLastEvaluationTimings() {
+        return lastEvaluationTimings;
+    }
+
     public TradingProfile getProfile() {
         return profile;
     }
+
+    /** Exit checks read prices from this stream instead of the last polled position value. */
+    public void setMarketDataStream(com.trading.marketdata.AlpacaStreamClient stream, Duration maxAge) {
+        this.marketDataStream = stream;
+        this.streamMaxAge = maxAge;
+        var cycleScheduler = scheduler;
+        if (cycleScheduler != null && stream != null) {
+            cycleScheduler.setPriceSource(symbol -> stream.table().lastPrice(symbol, maxAge));
+        }
+    }
+
+    /**
+     * Streamed last price for a held symbol if fresh, else {@code polledPrice} (market value / qty
+     * from the last getPositions call). Unknown symbols are subscribed for the next cycle.
+     */
+    private double livePrice(String symbol, double polledPrice) {
+        var stream = marketDataStream;
+        if (stream == null) {
+            return polledPrice;
+        }
+        var live = stream.table().lastPrice(symbol, streamMaxAge);
+        if (live.isPresent()) {
+            return live.getAsDouble();
+        }
+        stream.subscribe(List.of(symbol));
+        return polledPrice;
+    }
     
     public PortfolioManager getPortfolio() {
         return portfolio;
@@ -2879,11 +3331,12 @@ public class ProfileManager implements Runnable {
             
             try {
                 // Cancel any existing stop loss orders
-                var openOrders = client.getOpenOrders(symbol);
+                var openOrders = openOrders(symbol);
                 for (var order : openOrders) {
                     String orderType = order.get("type").asText();
                     if ("stop".equals(orderType) || "stop_limit".equals(orderType)) {
                         String orderId = order.get("id").asText();
+                        invalidateSnapshot();
                         client.cancelOrder(orderId);
                         logger.info("{} Canceled existing stop order {} for {}",
                             profilePrefix, orderId, symbol);
@@ -2891,6 +3344,7 @@ public class ProfileManager implements Runnable {
                 }
                 
                 // Place new stop at breakeven (entry price)
+                invalidateSnapshot();
                 client.placeOrder(symbol, qty, "sell", "stop", "day", entryPrice);
                 
                 logger.info("{} ✅ Breakeven stop placed for {} at ${} (entry price)",
@@ -2913,7 +3367,7 @@ public class ProfileManager implements Runnable {
      * Avoids first 15 minutes (9:30-9:45 AM) and optionally last 30 minutes.
      */
     private boolean isGoodEntryTime() {
-        var now = java.time.ZonedDateTime.now(java.time.ZoneId.of("America/New_York"));
+        var now = java.time.ZonedDateTime.now(clock().withZone(java.time.ZoneId.of("America/New_York")));
         var currentTime = now.toLocalTime();
 
         // EOD entry block is independent of all other timing flags.
@@ -2922,7 +3376,7 @@ public class ProfileManager implements Runnable {
         // isAvoidFirst15Minutes defaults false, so this was dead code before — fixed.
         if (config.isEodExitEnabled()) {
             try {
-                var eodTime = java.time.LocalTime.parse(config.getEodExitTime());
+                var eodTime = eodExitTime(now.toLocalDate());
                 var entryDeadline = eodTime.minusMinutes(config.getEodEntryCutoffMinutes());
                 if (!currentTime.isBefore(entryDeadline)) {
                     logger.debug("Entry blocked — within {}min of EOD exit ({} → cutoff {})",
@@ -2948,8 +3402,9 @@ public class ProfileManager implements Runnable {
 
         // Optionally avoid last 30 minutes (legacy, kept for compatibility)
         if (config.isAvoidLast30Minutes()) {
-            var marketClose = java.time.LocalTime.of(16, 0);
-            var stopEntryTime = java.time.LocalTime.of(15, 30);
+            var marketClose = com.trading.api.ExchangeCalendar.nyse().closeTime(now.toLocalDate())
+                .orElse(com.trading.api.ExchangeCalendar.NYSE_CLOSE);
+            var stopEntryTime = marketClose.minusMinutes(30);
 
             if (currentTime.isAfter(stopEntryTime) && currentTime.isBefore(marketClose)) {
                 return false; // Too late
@@ -2963,7 +3418,7 @@ public class ProfileManager implements Runnable {
      * Update daily P&L tracking and reset at start of new day.
      */
     private void updateDailyPnL(String profilePrefix, double pnl) {
-        var today = java.time.LocalDate.now();
+        var today = java.time.LocalDate.now(clock());
         
         if (!today.equals(lastResetDate)) {
             todayPnL = 0.0;
@@ -3010,7 +3465,7 @@ public class ProfileManager implements Runnable {
             profilePrefix, currentPositions, maxPositions);
         
         // Get all positions sorted by P&L (worst first)
-        var positions = client.getPositions();
+        var positions = snapshot().positions();
         var sortedPositions = positions.stream()
             .sorted((a, b) -> Double.compare(
                 a.unrealizedPL(), 
@@ -3037,7 +3492,10 @@ public class ProfileManager implements Runnable {
             
             try {
                 cancelExistingOrders(profilePrefix, symbol);
-                client.placeOrder(symbol, qty, "sell", "market", "day", null);
+                invalidateSnapshot();
+                double sellQty = liveQuantity(profilePrefix, symbol, qty);
+                if (sellQty <= 0) continue;
+                client.placeOrder(symbol, sellQty, "sell", "market", "day", null);
                 portfolio.setPosition(symbol, Optional.empty());
                 globalHeldSymbols.remove(symbol); trailingTargetManager.removePosition(symbol);
 
@@ -3049,7 +3507,7 @@ public class ProfileManager implements Runnable {
                 
                 // Record trade close
                 double currentPrice = Math.abs(pos.marketValue() / qty);
-                database.closeTrade(symbol, Instant.now(), currentPrice, pnl, brokerName);
+                database.closeTrade(symbol, clock().instant(), currentPrice, pnl, brokerName);
                 
             } catch (Exception e) {
                 logger.error("{} Failed to close {} during cleanup", profilePrefix, symbol, e);
@@ -3080,14 +3538,14 @@ public class ProfileManager implements Runnable {
         }
 
         // PDT circuit breaker: skip sell attempts if Alpaca recently rejected with 403 PDT
-        if (System.currentTimeMillis() < pdtBlockedUntil) {
+        if (clock().millis() < pdtBlockedUntil) {
             logger.debug("{} Skipping profit target checks — PDT blocked for {} more seconds",
-                profilePrefix, (pdtBlockedUntil - System.currentTimeMillis()) / 1000);
+                profilePrefix, (pdtBlockedUntil - clock().millis()) / 1000);
             return;
         }
         
         try {
-            var alpacaPositions = client.getPositions();
+            var alpacaPositions = snapshot().positions();
             logger.info("{} 🔍 Checking {} positions for take-profit/stop-loss", profilePrefix, alpacaPositions.size());
             
             for (var alpacaPos : alpacaPositions) {
@@ -3122,8 +3580,8 @@ public class ProfileManager implements Runnable {
                     continue;
                 }
                 
-                // Calculate current price from market value
-                double currentPrice = Math.abs(marketValue / qty);
+                // Current price: streamed last trade when fresh, else market value / qty
+                double currentPrice = livePrice(symbol, Math.abs(marketValue / qty));
                 
                 // Calculate P&L percentage
             double pnlPercent = ((currentPrice - entryPrice) / entryPrice) * 100.0;
@@ -3141,7 +3599,7 @@ public class ProfileManager implements Runnable {
                 qty,
                 riskManager.calculateStopLoss(entryPrice),
                 riskManager.calculateTakeProfit(entryPrice),
-                Instant.now().minus(Duration.ofHours(6)) // Assume held 6 hours
+                clock().instant().minus(Duration.ofHours(6)) // Assume held 6 hours
             );
             
             // Check EOD Profit Lock (Feature #23)
@@ -3150,16 +3608,19 @@ public class ProfileManager implements Runnable {
                 logger.info("{} 🔒 EOD PROFIT LOCK: {} - {}", profilePrefix, symbol, eodDecision.reason());
                 
                 try {
-                    double exitQty = eodDecision.isPartial() ? eodDecision.quantity() : qty;
                     cancelExistingOrders(profilePrefix, symbol);
+                    invalidateSnapshot();
+                    double held = liveQuantity(profilePrefix, symbol, qty);
+                    if (held <= 0) continue;
+                    double exitQty = eodDecision.isPartial() ? Math.min(eodDecision.quantity(), held) : held;
                     client.placeOrder(symbol, exitQty, "sell", "market", "day", null);
 
                     double pnlDollars = (currentPrice - entryPrice) * exitQty;
-                    database.closeTrade(symbol, Instant.now(), currentPrice, pnlDollars, brokerName);
+                    database.closeTrade(symbol, clock().instant(), currentPrice, pnlDollars, brokerName);
                     if (!eodDecision.isPartial()) {
                         portfolio.setPosition(symbol, Optional.empty());
                         globalHeldSymbols.remove(symbol); trailingTargetManager.removePosition(symbol);
-                        pendingExitOrders.put(symbol, System.currentTimeMillis());
+                        pendingExitOrders.put(symbol, clock().millis());
                     }
                     
                     TradingWebSocketHandler.broadcastActivity(
@@ -3208,9 +3669,10 @@ public class ProfileManager implements Runnable {
                         // to free up held shares
                         logger.info("{} Canceling any existing orders for {} to free up shares", profilePrefix, symbol);
                         try {
-                            var openOrders = client.getOpenOrders(symbol);
+                            var openOrders = openOrders(symbol);
                             for (var order : openOrders) {
                                 String orderId = order.get("id").asText();
+                                invalidateSnapshot();
                                 client.cancelOrder(orderId);
                                 logger.info("{} Canceled order {} for {}", profilePrefix, orderId, symbol);
                             }
@@ -3227,29 +3689,32 @@ public class ProfileManager implements Runnable {
 
                         logger.info("{} Calling client.placeOrder({}, {}, sell, {}, {}, {})", profilePrefix, symbol, qty,
                             tpDecision.orderType(), tpDecision.timeInForce(), tpDecision.limitPrice());
-                        client.placeOrder(symbol, qty, "sell", tpDecision.orderType(), tpDecision.timeInForce(), tpDecision.limitPrice());
-                        broadcastOrderData(symbol, qty, "sell", tpDecision.orderType(), "filled", currentPrice);   
+                        invalidateSnapshot();
+                        double sellQty = liveQuantity(profilePrefix, symbol, qty);
+                        if (sellQty <= 0) continue;
+                        client.placeOrder(symbol, sellQty, "sell", tpDecision.orderType(), tpDecision.timeInForce(), tpDecision.limitPrice());
+                        broadcastOrderData(symbol, sellQty, "sell", tpDecision.orderType(), "filled", currentPrice);
                         logger.info("{} ✅ Order API call completed for {}", profilePrefix, symbol);
                         
                         // Calculate actual P&L in dollars
-                        double pnlDollars = (currentPrice - entryPrice) * qty;
+                        double pnlDollars = (currentPrice - entryPrice) * sellQty;
                         
                         // Record trade close
                         // Set cooldown BEFORE clearing position to close race window between
                         // MAIN and EXPERIMENTAL profiles (position cleared → cooldown set gap = re-buy risk)
-                        stopLossCooldowns.put(symbol, System.currentTimeMillis() + config.getStopLossCooldownMs());
+                        stopLossCooldowns.put(symbol, clock().millis() + config.getStopLossCooldownMs());
                         consecutiveStopLosses.remove(symbol);
                         lastExitPrices.remove(symbol);
                         if (postLossCooldown != null) postLossCooldown.recordWin(symbol);
                         CircuitBreakerState cbTp = circuitBreakers.get(brokerName);
                         if (cbTp != null) cbTp.recordTrade(pnlDollars);
 
-                        database.closeTrade(symbol, Instant.now(), currentPrice, pnlDollars, brokerName);
+                        database.closeTrade(symbol, clock().instant(), currentPrice, pnlDollars, brokerName);
                         portfolio.setPosition(symbol, Optional.empty());
                         globalHeldSymbols.remove(symbol); trailingTargetManager.removePosition(symbol);
 
                         // Mark as pending exit to prevent duplicate sell on next cycle
-                        pendingExitOrders.put(symbol, System.currentTimeMillis());
+                        pendingExitOrders.put(symbol, clock().millis());
 
                         TradingWebSocketHandler.broadcastActivity(
                             String.format("[%s] ✅ TAKE PROFIT: %s sold @ $%.2f (+%.2f%%, $%.2f profit)",
@@ -3259,7 +3724,7 @@ public class ProfileManager implements Runnable {
 
                         logger.info("{} ✅ Take profit exit order placed for {}", profilePrefix, symbol);
                     } catch (PDTRejectedException e) {
-                        pdtBlockedUntil = System.currentTimeMillis() + millisUntilMarketClose();
+                        pdtBlockedUntil = clock().millis() + millisUntilMarketClose();
                 staticPdtBlockedUntil = pdtBlockedUntil;
                         logger.warn("{} PDT rejected by Alpaca for {} — blocking sell attempts until market close",
                             profilePrefix, symbol);
@@ -3296,13 +3761,13 @@ public class ProfileManager implements Runnable {
 
         try {
             // Get current time in ET timezone
-            var now = java.time.ZonedDateTime.now(java.time.ZoneId.of("America/New_York"));
+            var now = java.time.ZonedDateTime.now(clock().withZone(java.time.ZoneId.of("America/New_York")));
             var today = now.toLocalDate();
             var currentTime = now.toLocalTime();
 
-            // Parse EOD exit time from config (e.g., "15:30")
-            var eodTimeStr = config.getEodExitTime();
-            var eodTime = java.time.LocalTime.parse(eodTimeStr);
+            // EOD exit time from config (e.g., "15:30"), moved earlier on early-close days
+            var eodTime = eodExitTime(today);
+            var eodTimeStr = eodTime.toString();
 
             // Fire once per day, as soon as currentTime passes eodTime.
             // Previous approach used a ±1-minute window which caused every 10-second cycle to
@@ -3317,7 +3782,7 @@ public class ProfileManager implements Runnable {
             logger.warn("{} ⏰ END OF DAY EXIT TIME ({}) - Closing all positions", profilePrefix, eodTimeStr);
 
             // Get all open positions
-            var positions = client.getPositions();
+            var positions = snapshot().positions();
 
             if (positions.isEmpty()) {
                 eodExitExecutedDate = today;
@@ -3367,7 +3832,7 @@ public class ProfileManager implements Runnable {
                     // Cancel only STOP/STOP_LIMIT orders — never cancel pending sell orders.
                     // The old code cancelled ALL open orders, which could cancel a market sell
                     // placed by a prior 10-second cycle before it filled (self-cancelling loop).
-                    var openOrders = client.getOpenOrders(symbol);
+                    var openOrders = openOrders(symbol);
                     for (var order : openOrders) {
                         String orderType = order.get("type") != null ? order.get("type").asText() : "";
                         String orderSide = order.get("side") != null ? order.get("side").asText() : "";
@@ -3375,24 +3840,29 @@ public class ProfileManager implements Runnable {
                             String orderId = order.get("id").asText();
                             logger.info("{} Canceling stop order {} for {} before EOD exit",
                                 profilePrefix, orderId, symbol);
+                            invalidateSnapshot();
                             client.cancelOrder(orderId);
                         }
                     }
 
-                    logger.warn("{} 🔴 EOD SELL: {} - {} shares @ market", profilePrefix, symbol, qty);
-                    client.placeOrder(symbol, qty, "sell", "market", "day", null);
-                    broadcastOrderData(symbol, qty, "sell", "market", "filled", currentPrice);
+                    invalidateSnapshot();
+                    double sellQty = liveQuantity(profilePrefix, symbol, qty);
+                    if (sellQty <= 0) continue;
+                    logger.warn("{} 🔴 EOD SELL: {} - {} shares @ market", profilePrefix, symbol, sellQty);
+                    client.placeOrder(symbol, sellQty, "sell", "market", "day", null);
+                    broadcastOrderData(symbol, sellQty, "sell", "market", "filled", currentPrice);
                     portfolio.setPosition(symbol, Optional.empty());
                     globalHeldSymbols.remove(symbol); trailingTargetManager.removePosition(symbol);
                     // Close DB record immediately so hasOpenTrade() returns false on the next
                     // cycle. Without this, orphan cleanup runs 1-2 cycles later, leaving a window
                     // where isGoodEntryTime() is true + hasOpenTrade() is false → re-entry.
-                    database.closeTrade(symbol, java.time.Instant.now(), currentPrice, pnl, brokerName);
+                    double soldPnl = (currentPrice - entryPrice) * sellQty;
+                    database.closeTrade(symbol, clock().instant(), currentPrice, soldPnl, brokerName);
 
                     TradingWebSocketHandler.broadcastActivity(
                         String.format("[%s] EOD EXIT: %s - Closed %.3f shares | P&L: $%.2f (%.2f%%)",
-                            profile.name(), symbol, qty, pnl, pnlPercent),
-                        pnl >= 0 ? "SUCCESS" : "WARNING"
+                            profile.name(), symbol, sellQty, soldPnl, pnlPercent),
+                        soldPnl >= 0 ? "SUCCESS" : "WARNING"
                     );
                     logger.warn("{} ✅ EOD EXIT completed for {}", profilePrefix, symbol);
 
@@ -3410,7 +3880,7 @@ public class ProfileManager implements Runnable {
             // Mark EOD exit done only if all positions are confirmed closed.
             // If any sell failed, eodExitExecutedDate stays null → retries every 10s
             // until market closes at 16:00 (30-minute retry window).
-            var remaining = client.getPositions();
+            var remaining = snapshot().positions();
             boolean allRemainingCarried = remaining.stream()
                 .allMatch(p -> carriedSymbols.contains(p.symbol()));
             if (allRemainingCarried) {
@@ -3438,18 +3908,11 @@ public class ProfileManager implements Runnable {
      */
     private void broadcastBotStatusData(boolean isMarketOpen, double currentVix) {
         try {
-            // Get current time in ET timezone
-            var now = java.time.ZonedDateTime.now(java.time.ZoneId.of("America/New_York"));
-            var currentTime = now.toLocalTime();
-            
             // Determine market status with extended hours
             String marketStatus;
             if (isMarketOpen) {
-                // Check if we're in regular hours (9:30 AM - 4:00 PM)
-                var marketOpen = java.time.LocalTime.of(9, 30);
-                var marketClose = java.time.LocalTime.of(16, 0);
-                
-                if (currentTime.isAfter(marketOpen) && currentTime.isBefore(marketClose)) {
+                // Regular session (9:30 AM - 4:00 PM, or the early close)
+                if (com.trading.api.ExchangeCalendar.nyse().isOpen()) {
                     marketStatus = "OPEN";
                 } else {
                     marketStatus = "EXTENDED HOURS";
@@ -3486,7 +3949,7 @@ public class ProfileManager implements Runnable {
         }
         
         try {
-            var positions = client.getPositions();
+            var positions = snapshot().positions();
             var targets = new java.util.ArrayList<TradingWebSocketHandler.ProfitTargetStatus>();
             
             logger.info("[{}] broadcastProfitTargetsData: Found {} positions", 
@@ -3566,7 +4029,7 @@ public class ProfileManager implements Runnable {
     private void restorePostLossCooldownsFromDb(PostLossCooldownTracker tracker) {
         try {
             var cooldowns = database.loadBotStateWithPrefix("cooldown:");
-            long now = System.currentTimeMillis();
+            long now = clock().millis();
             int restored = 0;
             int expired = 0;
             for (var entry : cooldowns.entrySet()) {
@@ -3652,25 +4115,31 @@ public class ProfileManager implements Runnable {
 
     /**
      * Returns milliseconds until the PDT day-trade count resets.
-     * - During market hours (before 4PM ET): block until today's close.
-     * - After market close: block only until next market OPEN (9:30 AM ET next weekday).
+     * - On a trading day before the close (4PM ET, or the early close): block until today's close.
+     * - After the close, weekends and holidays: block only until the next market OPEN.
      *   This prevents the block from lasting an entire extra trading day when a PDT
      *   rejection occurs after hours (e.g. during an urgent-exit retry loop post-deploy).
      */
     private long millisUntilMarketClose() {
-        var NY = java.time.ZoneId.of("America/New_York");
-        var now = java.time.ZonedDateTime.now(NY);
-        var closeToday = now.toLocalDate().atTime(16, 0).atZone(NY);
-        if (now.isBefore(closeToday)) {
+        var calendar = com.trading.api.ExchangeCalendar.nyse();
+        long now = clock().millis();
+        var closeToday = calendar.sessionClose(java.time.LocalDate.now(clock().withZone(calendar.zone())));
+        if (closeToday.isPresent() && now < closeToday.getAsLong()) {
             // Still in trading day — block until today's close
-            return java.time.Duration.between(now, closeToday).toMillis();
-        }
-        // After close — block only until next market open (9:30 AM next weekday)
-        var nextOpen = closeToday.toLocalDate().plusDays(1).atTime(9, 30).atZone(NY);
-        while (nextOpen.getDayOfWeek() == java.time.DayOfWeek.SATURDAY ||
-               nextOpen.getDayOfWeek() == java.time.DayOfWeek.SUNDAY) {
-            nextOpen = nextOpen.plusDays(1);
+            return closeToday.getAsLong() - now;
         }
-        return java.time.Duration.between(now, nextOpen).toMillis();
+        return calendar.nextOpen(now) - now;
+    }
+
+    /**
+     * Configured EOD exit time for {@code date}. On early-close days it keeps the same lead
+     * before the bell (15:30 on a normal day → 12:30 when the market closes at 13:00).
+     */
+    private java.time.LocalTime eodExitTime(java.time.LocalDate date) {
+        var configured = java.time.LocalTime.parse(config.getEodExitTime());
+        var calendar = com.trading.api.ExchangeCalendar.nyse();
+        return calendar.earlyClose(date)
+            .map(close -> close.minus(java.time.Duration.between(configured, calendar.regularClose())))
+            .orElse(configured);
     }
 }
@@ -0,0 +1,85 @@
+package com.trading.portfolio;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Concurrent evaluation stage of the trading cycle.
+ *
+ * Runs a per-symbol evaluation for many symbols at once, one virtual thread each, with at most
+ * {@code width} in flight so the cycle never spends more of the API request budget than it has.
+ * Outcomes come back in the order the symbols were given, whatever order the evaluations finished
+ * in — the caller acts on them sequentially, so order placement against position caps and buying
+ * power stays deterministic. The executor is scoped to the call; no evaluation outlives it.
+ */
+final class SymbolEvaluationStage {
+
+    private SymbolEvaluationStage() {}
+
+    @FunctionalInterface
+    interface Evaluator<T> {
+        T evaluate(String symbol) throws Exception;
+    }
+
+    /** Result of one symbol's evaluation: its value or the exception it threw, and how long it took. */
+    record Outcome<T>(String symbol, T value, Exception error, long elapsedNanos) {
+        boolean failed() {
+            return error != null;
+        }
+
+        long elapsedMillis() {
+            return elapsedNanos / 1_000_000;
+        }
+    }
+
+    /**
+     * How many evaluations to run at once: the configured maximum, lowered so that the in-flight
+     * evaluations fit in the requests still available after {@code reserve} is set aside for
+     * exits. Never below one; a negative {@code availableRequests} means the budget is unknown.
+     */
+    static int width(int maxConcurrency, int availableRequests, int reserve, int requestsPerSymbol) {
+        int width = Math.max(1, maxConcurrency);
+        if (availableRequests >= 0) {
+            width = Math.min(width, (availableRequests - reserve) / Math.max(1, requestsPerSymbol));
+        }
+        return Math.max(1, width);
+    }
+
+    static <T> List<Outcome<T>> run(List<String> symbols, int width, Evaluator<T> evaluator)
+            throws InterruptedException {
+        var permits = new Semaphore(Math.max(1, width));
+        var futures = new ArrayList<Future<Outcome<T>>>(symbols.size());
+        try (var executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("symbol-eval-", 0).factory())) {
+            for (String symbol : symbols) {
+                futures.add(executor.submit(() -> {
+                    permits.acquire();
+                    long start = System.nanoTime();
+                    try {
+                        return new Outcome<>(symbol, evaluator.evaluate(symbol), null, System.nanoTime() - start);
+                    } catch (Exception e) {
+                        return new Outcome<T>(symbol, null, e, System.nanoTime() - start);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            var outcomes = new ArrayList<Outcome<T>>(symbols.size());
+            for (var future : futures) {
+                try {
+                    outcomes.add(future.get());
+                } catch (ExecutionException e) {
+                    // Evaluator exceptions are captured in the outcome; only an Error gets here
+                    throw new IllegalStateException("Symbol evaluation failed", e.getCause());
+                } catch (InterruptedException e) {
+                    executor.shutdownNow();
+                    throw e;
+                }
+            }
+            return outcomes;
+        }
+    }
+}
@@ -3,9 +3,11 @@ package com.trading.protection;
 import com.trading.api.BrokerClient;
 import com.trading.api.ResilientBrokerClient;
 import com.trading.api.model.Position;
+import com.trading.persistence.TradeDatabase;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -31,6 +33,7 @@ public class EmergencyProtocol {
     
     private final ResilientBrokerClient resilientClient;
     private final BrokerClient directClient; // For emergency bypass
+    private final TradeDatabase database;    // Flushed before flattening; may be null
     
     // Modern: AtomicBoolean for lock-free state management
     private final AtomicBoolean triggered = new AtomicBoolean(false);
@@ -41,8 +44,13 @@ public class EmergencyProtocol {
     private volatile String lastTriggerReason;
 
     public EmergencyProtocol(ResilientBrokerClient client) {
+        this(client, null);
+    }
+
+    public EmergencyProtocol(ResilientBrokerClient client, TradeDatabase database) {
         this.resilientClient = client;
         this.directClient = client.getDelegate(); // Bypass circuit breaker for emergencies
+        this.database = database;
     }
 
     /**
@@ -72,6 +80,13 @@ public class EmergencyProtocol {
         result.put("status", "triggered");
         result.put("reason", reason);
         result.put("timestamp", lastTriggerTime);
+
+        // Get every trade and stop written so far onto disk before anything else can go wrong
+        if (database != null) {
+            boolean flushed = database.flush(Duration.ofSeconds(5));
+            result.put("tradeJournalFlushed", flushed);
+            if (!flushed) logger.error("❌ Trade journal did not flush within 5s");
+        }
         
         try {
             Map<String, Object> flattenResult = flattenAll();
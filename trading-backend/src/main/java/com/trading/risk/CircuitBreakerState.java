@@ -1,5 +1,6 @@
 package com.trading.risk;
 
+import java.time.Clock;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
@@ -25,19 +26,28 @@ public final class CircuitBreakerState {
     private final int maxConsecutiveLosses;
     private final double maxDrawdownPct;
 
+    private final Clock clock;
+
     private final ReentrantLock lock = new ReentrantLock();
 
     private int consecutiveLosses = 0;
     private double sessionStartEquity = 0.0;
     private double sessionLowEquity = 0.0;
-    private LocalDate sessionDate = LocalDate.now(NY);
+    private LocalDate sessionDate;
     private TripReason tripped = null;
 
     public enum TripReason { CONSECUTIVE_LOSSES, SESSION_DRAWDOWN }
 
     public CircuitBreakerState(int maxConsecutiveLosses, double maxDrawdownPct) {
+        this(maxConsecutiveLosses, maxDrawdownPct, Clock.systemUTC());
+    }
+
+    /** Session dates roll over on {@code clock} — a backtest passes its virtual clock. */
+    public CircuitBreakerState(int maxConsecutiveLosses, double maxDrawdownPct, Clock clock) {
         this.maxConsecutiveLosses = Math.max(1, maxConsecutiveLosses);
         this.maxDrawdownPct = Math.max(0.0, maxDrawdownPct);
+        this.clock = clock;
+        this.sessionDate = LocalDate.now(clock.withZone(NY));
     }
 
     public void resetForNewSession(double currentEquity) {
@@ -46,7 +56,7 @@ public final class CircuitBreakerState {
             consecutiveLosses = 0;
             sessionStartEquity = currentEquity;
             sessionLowEquity = currentEquity;
-            sessionDate = LocalDate.now(NY);
+            sessionDate = LocalDate.now(clock.withZone(NY));
             tripped = null;
         } finally {
             lock.unlock();
@@ -57,7 +67,7 @@ public final class CircuitBreakerState {
     public void rolloverIfNewDay(double currentEquity) {
         lock.lock();
         try {
-            LocalDate today = LocalDate.now(NY);
+            LocalDate today = LocalDate.now(clock.withZone(NY));
             if (!today.equals(sessionDate)) {
                 consecutiveLosses = 0;
                 sessionStartEquity = currentEquity;
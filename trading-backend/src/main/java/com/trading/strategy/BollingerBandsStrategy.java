@@ -1,5 +1,6 @@
 package com.trading.strategy;
 
+import com.trading.api.model.BarSeries;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -21,22 +22,28 @@ public final class BollingerBandsStrategy implements TradingStrategy {
         return new TradingSignal.Hold("Bollinger Bands requires history");
     }
 
+    @Override
+    public TradingSignal evaluate(String symbol, double currentPrice, double positionQty, BarSeries history) {
+        return evaluateWithHistory(symbol, currentPrice, positionQty, history);
+    }
+
     public TradingSignal evaluateWithHistory(String symbol, double currentPrice, double positionQty, List<Double> history) {
+        return evaluateWithHistory(symbol, currentPrice, positionQty, BarSeries.ofCloses(history));
+    }
+
+    public TradingSignal evaluateWithHistory(String symbol, double currentPrice, double positionQty, BarSeries history) {
         if (history.size() < PERIOD) {
             return new TradingSignal.Hold("Insufficient history for Bollinger Bands");
         }
 
         // Calculate SMA
-        double sma = history.subList(history.size() - PERIOD, history.size())
-                .stream()
-                .mapToDouble(Double::doubleValue)
+        double sma = history.closes(history.size() - PERIOD, history.size())
                 .average()
                 .orElse(0.0);
 
         // Calculate standard deviation
-        double variance = history.subList(history.size() - PERIOD, history.size())
-                .stream()
-                .mapToDouble(p -> Math.pow(p - sma, 2))
+        double variance = history.closes(history.size() - PERIOD, history.size())
+                .map(p -> Math.pow(p - sma, 2))
                 .average()
                 .orElse(0.0);
         
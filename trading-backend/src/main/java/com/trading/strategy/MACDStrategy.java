@@ -1,5 +1,7 @@
 package com.trading.strategy;
 
+import com.trading.api.model.BarSeries;
+import com.trading.indicators.IndicatorSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -22,15 +24,28 @@ public final class MACDStrategy implements TradingStrategy {
         return new TradingSignal.Hold("MACD requires history");
     }
 
+    @Override
+    public TradingSignal evaluate(String symbol, double currentPrice, double positionQty, BarSeries history) {
+        return evaluateWithHistory(symbol, currentPrice, positionQty, history);
+    }
+
     public TradingSignal evaluateWithHistory(String symbol, double currentPrice, double positionQty, List<Double> history) {
+        return evaluateWithHistory(symbol, currentPrice, positionQty, BarSeries.ofCloses(history), 0.10);
+    }
+
+    public TradingSignal evaluateWithHistory(String symbol, double currentPrice, double positionQty, BarSeries history) {
         return evaluateWithHistory(symbol, currentPrice, positionQty, history, 0.10);
     }
 
+    public TradingSignal evaluateWithHistory(String symbol, double currentPrice, double positionQty, List<Double> history, double histogramThreshold) {
+        return evaluateWithHistory(symbol, currentPrice, positionQty, BarSeries.ofCloses(history), histogramThreshold);
+    }
+
     /**
      * Evaluate with a custom histogram threshold for tighter entry conditions.
      * Pass 0.20 in RANGE_BOUND regime to require stronger trend confirmation before entry.
      */
-    public TradingSignal evaluateWithHistory(String symbol, double currentPrice, double positionQty, List<Double> history, double histogramThreshold) {
+    public TradingSignal evaluateWithHistory(String symbol, double currentPrice, double positionQty, BarSeries history, double histogramThreshold) {
         if (history.size() <= SLOW_PERIOD + SIGNAL_PERIOD) {
             return new TradingSignal.Hold("Insufficient history for MACD");
         }
@@ -40,11 +55,31 @@ public final class MACDStrategy implements TradingStrategy {
         double[] macdValuesCurrent = calculateMACD(history, history.size() - 1);
         double[] macdValuesPrev = calculateMACD(history, history.size() - 2);
 
-        double macdLine = macdValuesCurrent[0];
-        double signalLine = macdValuesCurrent[1];
-        double prevMacdLine = macdValuesPrev[0];
-        double prevSignalLine = macdValuesPrev[1];
+        return decide(symbol, currentPrice, positionQty, macdValuesCurrent[0], macdValuesCurrent[1],
+            macdValuesPrev[0], macdValuesPrev[1], histogramThreshold);
+    }
+
+    /**
+     * Same decision from a shared running MACD (IndicatorRegistry) instead of recomputing the
+     * EMAs from history. Bit-for-bit the same values as {@link #evaluateWithHistory}.
+     */
+    public TradingSignal evaluateWithIndicators(String symbol, double currentPrice, double positionQty,
+                                                IndicatorSet.MacdReading macd, double histogramThreshold) {
+        if (!macd.isReady()) {
+            return new TradingSignal.Hold("Insufficient history for MACD");
+        }
+        return decide(symbol, currentPrice, positionQty, macd.macd(), macd.signal(),
+            macd.previousMacd(), macd.previousSignal(), histogramThreshold);
+    }
+
+    /** Reads the running MACD with this strategy's periods. */
+    public IndicatorSet.MacdReading reading(IndicatorSet indicators) {
+        return indicators.macd(FAST_PERIOD, SLOW_PERIOD, SIGNAL_PERIOD);
+    }
 
+    private TradingSignal decide(String symbol, double currentPrice, double positionQty,
+                                 double macdLine, double signalLine, double prevMacdLine,
+                                 double prevSignalLine, double histogramThreshold) {
         double histogram = macdLine - signalLine;
         double prevHistogram = prevMacdLine - prevSignalLine;
 
@@ -89,7 +124,7 @@ public final class MACDStrategy implements TradingStrategy {
         return new TradingSignal.Hold(context);
     }
 
-    private double[] calculateMACD(List<Double> prices, int index) {
+    double[] calculateMACD(BarSeries prices, int index) {
         // This is a simplified calculation for the specific index
         // In a real optimized system we would maintain state, but for this we recalculate
         // We need enough data before 'index' to calculate EMAs
@@ -108,17 +143,17 @@ public final class MACDStrategy implements TradingStrategy {
         return new double[]{macdLine, signalLine};
     }
 
-    private double calculateEMA(List<Double> prices, int period, int endIndex) {
+    private double calculateEMA(BarSeries prices, int period, int endIndex) {
         double k = 2.0 / (period + 1);
-        double ema = prices.get(endIndex - period + 1); // Start with SMA approximation
+        double ema = prices.close(endIndex - period + 1); // Start with SMA approximation
         
         for (int i = endIndex - period + 2; i <= endIndex; i++) {
-            ema = prices.get(i) * k + ema * (1 - k);
+            ema = prices.close(i) * k + ema * (1 - k);
         }
         return ema;
     }
     
-    private double calculateSignalLine(List<Double> prices, int period, int endIndex) {
+    private double calculateSignalLine(BarSeries prices, int period, int endIndex) {
         // Build a MACD history over (period * 2) bars to properly seed the EMA.
         // Using seed = 2×period gives enough warmup so that the EMA is fully converged
         // by the time we reach endIndex.
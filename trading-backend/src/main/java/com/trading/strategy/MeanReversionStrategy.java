@@ -1,6 +1,7 @@
 package com.trading.strategy;
 
-import com.trading.api.model.Bar;
+import com.trading.api.model.BarSeries;
+import com.trading.indicators.IndicatorSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -21,14 +22,43 @@ public final class MeanReversionStrategy implements TradingStrategy {
         return new TradingSignal.Hold("Mean Reversion requires history");
     }
 
+    @Override
+    public TradingSignal evaluate(String symbol, double currentPrice, double positionQty, BarSeries history) {
+        return evaluateWithHistory(symbol, currentPrice, positionQty, history);
+    }
+
     public TradingSignal evaluateWithHistory(String symbol, double currentPrice, double positionQty, List<Double> history) {
+        return evaluateWithHistory(symbol, currentPrice, positionQty, BarSeries.ofCloses(history));
+    }
+
+    public TradingSignal evaluateWithHistory(String symbol, double currentPrice, double positionQty, BarSeries history) {
         if (history.size() < PERIOD) {
             return new TradingSignal.Hold("Insufficient history for Mean Reversion");
         }
 
         // Calculate Bollinger Bands
         double sma = calculateSMA(history, PERIOD);
-        double stdDev = calculateStdDev(history, sma, PERIOD);
+        return decide(symbol, currentPrice, positionQty, sma, calculateStdDev(history, sma, PERIOD));
+    }
+
+    /**
+     * Same decision from shared running bands (IndicatorRegistry) instead of recomputing them
+     * from history. Bit-for-bit the same values as {@link #evaluateWithHistory}.
+     */
+    public TradingSignal evaluateWithIndicators(String symbol, double currentPrice, double positionQty,
+                                                IndicatorSet.BandsReading bands) {
+        if (Double.isNaN(bands.middle())) {
+            return new TradingSignal.Hold("Insufficient history for Mean Reversion");
+        }
+        return decide(symbol, currentPrice, positionQty, bands.middle(), bands.stdDev());
+    }
+
+    /** Reads the running bands with this strategy's period and width. */
+    public IndicatorSet.BandsReading reading(IndicatorSet indicators) {
+        return indicators.bollinger(PERIOD, STD_DEV_MULTIPLIER);
+    }
+
+    private TradingSignal decide(String symbol, double currentPrice, double positionQty, double sma, double stdDev) {
         double upperBand = sma + (stdDev * STD_DEV_MULTIPLIER);
         double lowerBand = sma - (stdDev * STD_DEV_MULTIPLIER);
 
@@ -62,18 +92,15 @@ public final class MeanReversionStrategy implements TradingStrategy {
             currentPrice, lowerBand, sma + stdDev * 1.5));
     }
 
-    private double calculateSMA(List<Double> history, int period) {
-        return history.stream()
-                .skip(Math.max(0, history.size() - period))
-                .mapToDouble(Double::doubleValue)
+    private double calculateSMA(BarSeries history, int period) {
+        return history.closes(Math.max(0, history.size() - period), history.size())
                 .average()
                 .orElse(0.0);
     }
 
-    private double calculateStdDev(List<Double> history, double mean, int period) {
-        double sumSqDiff = history.stream()
-                .skip(Math.max(0, history.size() - period))
-                .mapToDouble(p -> Math.pow(p - mean, 2))
+    private double calculateStdDev(BarSeries history, double mean, int period) {
+        double sumSqDiff = history.closes(Math.max(0, history.size() - period), history.size())
+                .map(p -> Math.pow(p - mean, 2))
                 .sum();
         return Math.sqrt(sumSqDiff / period);
     }
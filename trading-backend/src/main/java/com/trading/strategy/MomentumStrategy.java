@@ -1,5 +1,6 @@
 package com.trading.strategy;
 
+import com.trading.api.model.BarSeries;
 import com.trading.config.Config;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -77,13 +78,22 @@ public final class MomentumStrategy implements TradingStrategy {
         return new TradingSignal.Hold("Momentum requires history");
     }
 
+    @Override
+    public TradingSignal evaluate(String symbol, double currentPrice, double positionQty, BarSeries history) {
+        return evaluateWithHistory(symbol, currentPrice, positionQty, history);
+    }
+
     public TradingSignal evaluateWithHistory(String symbol, double currentPrice, double positionQty, List<Double> history) {
+        return evaluateWithHistory(symbol, currentPrice, positionQty, BarSeries.ofCloses(history));
+    }
+
+    public TradingSignal evaluateWithHistory(String symbol, double currentPrice, double positionQty, BarSeries history) {
         if (history.size() < Math.max(RSI_PERIOD + 1, SMA_PERIOD_MACRO + 5)) {
             return new TradingSignal.Hold("Insufficient history for Momentum Strategy");
         }
 
         double rsi = calculateRSI(history, RSI_PERIOD);
-        double rsiPrev = calculateRSI(history.subList(0, history.size() - 1), RSI_PERIOD);
+        double rsiPrev = calculateRSI(history.dropLast(1), RSI_PERIOD);
         boolean rsiRising = rsi > rsiPrev;
 
         double momentum = calculateMomentum(history, MOMENTUM_PERIOD);
@@ -183,7 +193,7 @@ public final class MomentumStrategy implements TradingStrategy {
     /**
      * Check if momentum has been consistently positive for N bars
      */
-    private boolean isMomentumConsistent(List<Double> history, int bars) {
+    private boolean isMomentumConsistent(BarSeries history, int bars) {
         if (history.size() < MOMENTUM_PERIOD + bars) return false;
         
         for (int i = 0; i < bars; i++) {
@@ -191,8 +201,8 @@ public final class MomentumStrategy implements TradingStrategy {
             int startIdx = endIdx - MOMENTUM_PERIOD;
             if (startIdx < 0) return false;
             
-            double current = history.get(endIdx - 1);
-            double past = history.get(startIdx);
+            double current = history.close(endIdx - 1);
+            double past = history.close(startIdx);
             double momentum = (current - past) / past;
             
             if (momentum < 0.002) return false; // Each bar must show >0.2% momentum
@@ -207,14 +217,14 @@ public final class MomentumStrategy implements TradingStrategy {
      * Captures gap risk and sustained volatility far better than the old
      * hardcoded "2% intraday range" approximation.
      */
-    private double calculateATRPercent(List<Double> history, int period, double currentPrice) {
+    private double calculateATRPercent(BarSeries history, int period, double currentPrice) {
         if (history.size() < period + 1) return 0.0;
 
         double sumAbsReturn = 0;
         int start = history.size() - period;
         for (int i = start; i < history.size(); i++) {
-            double prev = history.get(i - 1);
-            if (prev > 0) sumAbsReturn += Math.abs((history.get(i) - prev) / prev);
+            double prev = history.close(i - 1);
+            if (prev > 0) sumAbsReturn += Math.abs((history.close(i) - prev) / prev);
         }
 
         double avgAbsReturn = sumAbsReturn / period;
@@ -223,21 +233,19 @@ public final class MomentumStrategy implements TradingStrategy {
     }
 
     /** Delegates to RSIStrategy's Wilder-smoothed implementation. */
-    private double calculateRSI(List<Double> history, int period) {
+    private double calculateRSI(BarSeries history, int period) {
         return RSIStrategy.calculateRSI(history, period);
     }
 
-    private double calculateMomentum(List<Double> history, int period) {
+    private double calculateMomentum(BarSeries history, int period) {
         if (history.size() < period) return 0.0;
-        double current = history.get(history.size() - 1);
-        double past = history.get(history.size() - period);
+        double current = history.close(history.size() - 1);
+        double past = history.close(history.size() - period);
         return (current - past) / past;
     }
 
-    private double calculateSMA(List<Double> history, int period) {
-        return history.stream()
-                .skip(Math.max(0, history.size() - period))
-                .mapToDouble(Double::doubleValue)
+    private double calculateSMA(BarSeries history, int period) {
+        return history.closes(Math.max(0, history.size() - period), history.size())
                 .average()
                 .orElse(0.0);
     }
@@ -1,5 +1,6 @@
 package com.trading.strategy;
 
+import com.trading.api.model.BarSeries;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -23,7 +24,16 @@ public final class RSIStrategy implements TradingStrategy {
         return new TradingSignal.Hold("RSI requires history");
     }
 
+    @Override
+    public TradingSignal evaluate(String symbol, double currentPrice, double positionQty, BarSeries history) {
+        return evaluateWithHistory(symbol, currentPrice, positionQty, history);
+    }
+
     public TradingSignal evaluateWithHistory(String symbol, double currentPrice, double positionQty, List<Double> history) {
+        return evaluateWithHistory(symbol, currentPrice, positionQty, BarSeries.ofCloses(history));
+    }
+
+    public TradingSignal evaluateWithHistory(String symbol, double currentPrice, double positionQty, BarSeries history) {
         if (history.size() <= PERIOD) {
             return new TradingSignal.Hold("Insufficient history for RSI");
         }
@@ -31,7 +41,7 @@ public final class RSIStrategy implements TradingStrategy {
         double rsi = calculateRSI(history);
         // Calculate RSI on N-1 bars to detect direction
         double rsiPrev = history.size() > PERIOD + 1
-            ? calculateRSI(history.subList(0, history.size() - 1))
+            ? calculateRSI(history.dropLast(1))
             : rsi;
         boolean rsiRising = rsi > rsiPrev;
 
@@ -77,6 +87,11 @@ public final class RSIStrategy implements TradingStrategy {
      * Operates on the tail of the history to avoid index-0 bias.
      */
     static double calculateRSI(List<Double> prices, int period) {
+        return calculateRSI(BarSeries.ofCloses(prices), period);
+    }
+
+    /** Same as {@link #calculateRSI(List, int)} over the closes of a bar series. */
+    static double calculateRSI(BarSeries prices, int period) {
         int n = prices.size();
         if (n < period + 1) return 50.0;
 
@@ -90,7 +105,7 @@ public final class RSIStrategy implements TradingStrategy {
         int seedEnd = warmupStart + period;
         if (seedEnd > n) seedEnd = n;
         for (int i = warmupStart; i < seedEnd; i++) {
-            double change = prices.get(i) - prices.get(i - 1);
+            double change = prices.close(i) - prices.close(i - 1);
             if (change > 0) avgGain += change;
             else avgLoss += Math.abs(change);
         }
@@ -99,7 +114,7 @@ public final class RSIStrategy implements TradingStrategy {
 
         // Apply Wilder's smoothing for remaining bars up to last bar
         for (int i = seedEnd; i < n; i++) {
-            double change = prices.get(i) - prices.get(i - 1);
+            double change = prices.close(i) - prices.close(i - 1);
             double gain = change > 0 ? change : 0.0;
             double loss = change < 0 ? Math.abs(change) : 0.0;
             avgGain = (avgGain * (period - 1) + gain) / period;
@@ -111,7 +126,7 @@ public final class RSIStrategy implements TradingStrategy {
         return 100.0 - (100.0 / (1.0 + rs));
     }
 
-    private double calculateRSI(List<Double> prices) {
+    private double calculateRSI(BarSeries prices) {
         return calculateRSI(prices, PERIOD);
     }
 }
@@ -11,6 +11,7 @@ import java.time.LocalTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Supplier;
 
 /**
@@ -41,8 +42,10 @@ public class ScalpStrategy {
     // Overridable clock — replaced in tests to simulate specific times of day
     private Supplier<ZonedDateTime> nowSupplier = () -> ZonedDateTime.now(ET);
 
-    // Daily trade counter — reset at the start of each new trading day
-    private int dailyScalpCount = 0;
+    // Daily trade counter — reset at the start of each new trading day.
+    // Symbols are evaluated concurrently, so the limit check and increment happen under counterLock.
+    private final ReentrantLock counterLock = new ReentrantLock();
+    private volatile int dailyScalpCount = 0;
     private LocalDate lastCounterDate = null;
 
     public ScalpStrategy(BrokerClient client, Config config) {
@@ -117,10 +120,15 @@ public class ScalpStrategy {
             isInScalpWindow(), rsiCrossedAbove50, priceAboveVwap, volumeConfirmed);
 
         if (rsiInWindow && rsiCrossedAbove50 && priceAboveVwap && volumeConfirmed) {
-            dailyScalpCount++;
+            int count = reserveDailySlot();
+            if (count < 0) {
+                return new TradingSignal.Hold(
+                    String.format("Scalp: daily limit reached (%d/%d)",
+                        dailyScalpCount, config.getScalpMaxDailyTrades()));
+            }
             String reason = String.format(
                 "Scalp: RSI %.1f crossed 50 (prev %.1f), above VWAP $%.2f, vol %.1f× avg [%d/%d today]",
-                rsi, rsiPrev, vwap, volumeRatio, dailyScalpCount, config.getScalpMaxDailyTrades());
+                rsi, rsiPrev, vwap, volumeRatio, count, config.getScalpMaxDailyTrades());
             logger.info("{}: SCALP BUY — {}", symbol, reason);
             return new TradingSignal.ScalpBuy(reason,
                 config.getScalpStopLossPercent(), config.getScalpTakeProfitPercent());
@@ -178,10 +186,27 @@ public class ScalpStrategy {
     }
 
     private void resetDailyCounterIfNeeded() {
-        LocalDate today = nowSupplier.get().toLocalDate();
-        if (!today.equals(lastCounterDate)) {
-            dailyScalpCount = 0;
-            lastCounterDate = today;
+        counterLock.lock();
+        try {
+            LocalDate today = nowSupplier.get().toLocalDate();
+            if (!today.equals(lastCounterDate)) {
+                dailyScalpCount = 0;
+                lastCounterDate = today;
+            }
+        } finally {
+            counterLock.unlock();
+        }
+    }
+
+    /** Take one of today's scalp slots; returns the new count, or -1 when the limit is reached. */
+    private int reserveDailySlot() {
+        counterLock.lock();
+        try {
+            resetDailyCounterIfNeeded();
+            if (dailyScalpCount >= config.getScalpMaxDailyTrades()) return -1;
+            return ++dailyScalpCount;
+        } finally {
+            counterLock.unlock();
         }
     }
 
@@ -193,7 +218,12 @@ public class ScalpStrategy {
 
     /** Visible for testing — allows injecting a known count. */
     void setDailyScalpCount(int count, LocalDate date) {
-        dailyScalpCount = count;
-        lastCounterDate = date;
+        counterLock.lock();
+        try {
+            dailyScalpCount = count;
+            lastCounterDate = date;
+        } finally {
+            counterLock.unlock();
+        }
     }
 }
@@ -4,8 +4,10 @@ import com.trading.analysis.MarketRegimeDetector.MarketRegime;
 import com.trading.analysis.MultiTimeframeAnalyzer;
 import com.trading.analysis.MultiTimeframeAnalyzer.MultiTimeframeAnalysis;
 import com.trading.api.BrokerClient;
-import com.trading.api.model.Bar;
+import com.trading.api.model.BarSeries;
 import com.trading.config.Config;
+import com.trading.indicators.IndicatorRegistry;
+import com.trading.indicators.IndicatorSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -18,6 +20,10 @@ import java.util.List;
 public final class StrategyManager {
     private static final Logger logger = LoggerFactory.getLogger(StrategyManager.class);
     private static final double VOLATILITY_THRESHOLD = 0.015; // 1.5%
+    // getMarketHistory returns daily bars; key for the shared indicator state
+    private static final String HISTORY_TIMEFRAME = "1Day";
+    // Indicator source when the caller names no data feed
+    private static final String DEFAULT_SOURCE = "default";
     
     // Momentum assets loaded from config (MOMENTUM_ASSETS key), with hardcoded fallback.
     // Use config to tune without redeploying.
@@ -34,8 +40,19 @@ public final class StrategyManager {
     private final MomentumStrategy momentumStrategy;
     private final MultiTimeframeAnalyzer multiTimeframeAnalyzer;
     private final ScalpStrategy scalpStrategy;
-    private MarketRegime currentRegime = MarketRegime.RANGE_BOUND;
-    private String activeStrategy = "None";
+    private final IndicatorRegistry indicatorRegistry;
+    private final String indicatorSource;
+
+    /**
+     * Every running reading the routing below uses, taken together with the sync so they all
+     * describe the same bars even when another evaluation syncs the shared set meanwhile.
+     */
+    private record Readings(IndicatorSet.MacdReading macd, IndicatorSet.Reading rsi14, IndicatorSet.Reading sma10,
+                            IndicatorSet.Reading sma20, IndicatorSet.Reading sma50,
+                            IndicatorSet.BandsReading meanReversionBands) {}
+    // Written by concurrent evaluations; last writer wins (dashboard/log display only)
+    private volatile MarketRegime currentRegime = MarketRegime.RANGE_BOUND;
+    private volatile String activeStrategy = "None";
 
     public StrategyManager(BrokerClient client) {
         this(client, null, null);
@@ -46,13 +63,25 @@ public final class StrategyManager {
     }
     
     public StrategyManager(BrokerClient client, MultiTimeframeAnalyzer multiTimeframeAnalyzer, Config config) {
+        this(client, multiTimeframeAnalyzer, config, DEFAULT_SOURCE);
+    }
+
+    /**
+     * @param indicatorSource the data feed {@code client}'s bars come from (the broker namespace
+     *                        it is cached under); keys the shared running indicators
+     */
+    public StrategyManager(BrokerClient client, MultiTimeframeAnalyzer multiTimeframeAnalyzer, Config config,
+                           String indicatorSource) {
         this.client = client;
+        this.indicatorSource = indicatorSource;
         this.config = config;
         this.macdStrategy = new MACDStrategy();
         this.meanReversionStrategy = new MeanReversionStrategy();
         this.momentumStrategy = config != null ? new MomentumStrategy(config) : new MomentumStrategy();
         this.multiTimeframeAnalyzer = multiTimeframeAnalyzer;
         this.scalpStrategy = (config != null && client != null) ? new ScalpStrategy(client, config) : null;
+        this.indicatorRegistry = (config != null && config.isIncrementalIndicatorsEnabled())
+            ? IndicatorRegistry.getInstance() : null;
         this.momentumAssets = config != null ? config.getMomentumAssets()
             : java.util.Set.of("GLD","SLV","TLT","XLU","NVDA","TSLA","META","XLE","XLK","XOP","URA","GRID");
         this.inverseEtfAssets = config != null ? config.getInverseEtfSymbols()
@@ -71,11 +100,13 @@ public final class StrategyManager {
                                  MarketRegime regime) {
         try {
             var bars = client.getMarketHistory(symbol, 100);
-            var closes = bars.stream().map(Bar::close).toList();
-            var volumes = bars.stream().mapToLong(Bar::volume).boxed().toList();
+            var history = BarSeries.of(bars);
+            // Shared running indicators for this symbol; null falls back to recomputing from history
+            Readings indicators = indicatorRegistry != null
+                ? indicatorRegistry.sync(indicatorSource, symbol, HISTORY_TIMEFRAME, bars, this::readings) : null;
 
-            if (closes.size() < 50) {
-                logger.warn("Insufficient history: {} bars (need 50+)", closes.size());
+            if (history.size() < 50) {
+                logger.warn("Insufficient history: {} bars (need 50+)", history.size());
                 return new TradingSignal.Hold("Insufficient history");
             }
 
@@ -142,16 +173,16 @@ public final class StrategyManager {
                             if (regime == MarketRegime.WEAK_BEAR && !safeHavenAssets.contains(symbol)) {
                                 logger.info("{}: Blocked MTF BUY — WEAK_BEAR, not a safe-haven asset", symbol);
                                 mtfBlockSignal = new TradingSignal.Hold("WEAK_BEAR — MTF BUY blocked for non-safe-haven");
-                            } else if (isShortTermDowntrend(closes, currentPrice)) {
+                            } else if (isShortTermDowntrend(history, indicators, currentPrice)) {
                                 logger.info("{}: Blocked MTF BUY — downtrend (price below declining SMA)", symbol);
                                 mtfBlockSignal = new TradingSignal.Hold("Downtrend — blocking BUY");
-                            } else if (!isVolumeConfirming(volumes)) {
+                            } else if (!isVolumeConfirming(history)) {
                                 logger.info("{}: Blocked MTF BUY — low volume (below 70% of 20-bar avg)", symbol);
                                 mtfBlockSignal = new TradingSignal.Hold("Low volume — BUY not confirmed");
-                            } else if (!closes.isEmpty()) {
+                            } else if (!history.isEmpty()) {
                                 // Block if stock already down >0.5% intraday — MTF uses 15-min data
                                 // and can fire BUY while the stock is actively gapping down on the day.
-                                double prevClose = closes.get(closes.size() - 1);
+                                double prevClose = history.lastClose();
                                 if (prevClose > 0) {
                                     double intradayPct = (currentPrice - prevClose) / prevClose * 100.0;
                                     if (intradayPct < -0.50) {
@@ -182,16 +213,16 @@ public final class StrategyManager {
                 }
             }
 
-            var signal = evaluateWithHistory(symbol, currentPrice, positionQty, closes, regime, highMtfBuy);
+            var signal = route(symbol, currentPrice, positionQty, history, indicators, regime, highMtfBuy);
 
             if (signal instanceof TradingSignal.Buy && !isMeanReversion) {
                 // 1. Block if price is in a short-term or medium-term downtrend
-                if (isShortTermDowntrend(closes, currentPrice)) {
+                if (isShortTermDowntrend(history, indicators, currentPrice)) {
                     logger.info("{}: Blocked {} BUY — downtrend detected", symbol, activeStrategy);
                     return new TradingSignal.Hold("Downtrend — blocking BUY");
                 }
                 // 2. Block if volume is too low to support the move
-                if (!isVolumeConfirming(volumes)) {
+                if (!isVolumeConfirming(history)) {
                     logger.info("{}: Blocked {} BUY — low volume", symbol, activeStrategy);
                     return new TradingSignal.Hold("Low volume — BUY not confirmed");
                 }
@@ -201,8 +232,8 @@ public final class StrategyManager {
                 // long adds to an active downtrend (IWM -0.75% day on Jul 20 2026 was entered).
                 // Exempt: mean-reversion entries (isMeanReversion=false here already, so this
                 // block only runs for trend/momentum entries where intraday alignment matters).
-                if (!closes.isEmpty()) {
-                    double yesterdayClose = closes.get(closes.size() - 1);
+                if (!history.isEmpty()) {
+                    double yesterdayClose = history.lastClose();
                     if (yesterdayClose > 0) {
                         double intradayPct = (currentPrice - yesterdayClose) / yesterdayClose * 100.0;
                         if (intradayPct < -0.50) {
@@ -269,6 +300,24 @@ public final class StrategyManager {
     public TradingSignal evaluateWithHistory(String symbol, double currentPrice, double positionQty,
                                             List<Double> history, MarketRegime regime,
                                             boolean highMtfConfidence) {
+        return evaluateWithHistory(symbol, currentPrice, positionQty, BarSeries.ofCloses(history), regime,
+            highMtfConfidence);
+    }
+
+    public TradingSignal evaluateWithHistory(String symbol, double currentPrice, double positionQty,
+                                            BarSeries history, MarketRegime regime) {
+        return evaluateWithHistory(symbol, currentPrice, positionQty, history, regime, false);
+    }
+
+    /** Same as the List overload, over a primitive bar series (no boxing). */
+    public TradingSignal evaluateWithHistory(String symbol, double currentPrice, double positionQty,
+                                            BarSeries history, MarketRegime regime,
+                                            boolean highMtfConfidence) {
+        return route(symbol, currentPrice, positionQty, history, null, regime, highMtfConfidence);
+    }
+
+    private TradingSignal route(String symbol, double currentPrice, double positionQty, BarSeries history,
+                                Readings indicators, MarketRegime regime, boolean highMtfConfidence) {
         currentRegime = regime;
 
         // Check if this is a momentum asset (should use momentum strategy in uptrends)
@@ -285,8 +334,8 @@ public final class StrategyManager {
                     // Regular assets: MACD Trend Following, gated by RSI to prevent extended entries
                     activeStrategy = "MACD Trend";
                     yield rsiFilteredBuy(
-                        macdStrategy.evaluateWithHistory(symbol, currentPrice, positionQty, history),
-                        history, symbol, positionQty);
+                        macd(symbol, currentPrice, positionQty, history, indicators, 0.10),
+                        history, indicators, symbol, positionQty);
                 }
             }
             case STRONG_BEAR -> {
@@ -297,7 +346,7 @@ public final class StrategyManager {
                 }
                 // Already holding: use MACD to find the best exit
                 activeStrategy = "MACD Exit (Strong Bear)";
-                yield macdStrategy.evaluateWithHistory(symbol, currentPrice, positionQty, history);
+                yield macd(symbol, currentPrice, positionQty, history, indicators, 0.10);
             }
             case WEAK_BULL -> {
                 if (isMomentumAsset) {
@@ -309,8 +358,8 @@ public final class StrategyManager {
                     // RSI > 65 on a MACD BUY = late entry into a move that's about to retrace.
                     activeStrategy = "MACD Trend (Weak Bull)";
                     yield rsiFilteredBuy(
-                        macdStrategy.evaluateWithHistory(symbol, currentPrice, positionQty, history),
-                        history, symbol, positionQty);
+                        macd(symbol, currentPrice, positionQty, history, indicators, 0.10),
+                        history, indicators, symbol, positionQty);
                 }
             }
             case WEAK_BEAR -> {
@@ -329,7 +378,7 @@ public final class StrategyManager {
                 boolean isInverseEtf = inverseEtfAssets.contains(symbol);
                 if (isInverseEtf && positionQty == 0) {
                     activeStrategy = "MACD (Inverse ETF, Weak Bear)";
-                    yield macdStrategy.evaluateWithHistory(symbol, currentPrice, positionQty, history, 0.20);
+                    yield macd(symbol, currentPrice, positionQty, history, indicators, 0.20);
                 }
                 if (config != null && config.isRegimeStrictRoutingEnabled() && positionQty == 0 && !isMomentumAsset) {
                     activeStrategy = "Bear Block (Weak Bear, strict)";
@@ -348,7 +397,7 @@ public final class StrategyManager {
                 activeStrategy = useRelaxed
                     ? (isSafeHaven ? "MACD (Safe Haven, Weak Bear)" : "MACD (MTF-Confirmed, Weak Bear)")
                     : "MACD Trend (Weak Bear)";
-                yield macdStrategy.evaluateWithHistory(symbol, currentPrice, positionQty, history, weakBearThreshold);
+                yield macd(symbol, currentPrice, positionQty, history, indicators, weakBearThreshold);
             }
             case RANGE_BOUND -> {
                 if (isMomentumAsset) {
@@ -362,12 +411,15 @@ public final class StrategyManager {
                     // out whipsaws and keeps only confirmed multi-bar momentum moves (Jul 14 2026).
                     activeStrategy = "MACD Trend (Range, Momentum Asset)";
                     yield rsiFilteredBuy(
-                        macdStrategy.evaluateWithHistory(symbol, currentPrice, positionQty, history, 0.20),
-                        history, symbol, positionQty);
+                        macd(symbol, currentPrice, positionQty, history, indicators, 0.20),
+                        history, indicators, symbol, positionQty);
                 }
                 // Non-momentum assets in sideways market → Mean Reversion (RSI bounce)
                 activeStrategy = "Mean Reversion";
-                yield meanReversionStrategy.evaluateWithHistory(symbol, currentPrice, positionQty, history);
+                yield indicators != null
+                    ? meanReversionStrategy.evaluateWithIndicators(symbol, currentPrice, positionQty,
+                        indicators.meanReversionBands())
+                    : meanReversionStrategy.evaluateWithHistory(symbol, currentPrice, positionQty, history);
             }
             case HIGH_VOLATILITY -> {
                 // FIX: In high volatility, only manage exits — no new entries.
@@ -375,7 +427,7 @@ public final class StrategyManager {
                 // If holding a position, use MACD to detect exits. Otherwise block new entries.
                 activeStrategy = "MACD Exit Only (HighVol)";
                 if (positionQty > 0) {
-                    yield macdStrategy.evaluateWithHistory(symbol, currentPrice, positionQty, history);
+                    yield macd(symbol, currentPrice, positionQty, history, indicators, 0.10);
                 }
                 yield new TradingSignal.Hold("High volatility — no new entries");
             }
@@ -393,11 +445,10 @@ public final class StrategyManager {
     public TradingSignal evaluate(String symbol, double currentPrice, double positionQty, 
                                  com.trading.filters.VolatilityFilter.VolatilityState volState) {
         try {
-            var bars = client.getMarketHistory(symbol, 100);
-            var closes = bars.stream().map(Bar::close).toList();
+            var history = BarSeries.of(client.getMarketHistory(symbol, 100));
             
-            if (closes.size() < 50) {
-                logger.warn("Insufficient history: {} bars (need 50+)", closes.size());
+            if (history.size() < 50) {
+                logger.warn("Insufficient history: {} bars (need 50+)", history.size());
                 return new TradingSignal.Hold("Insufficient history");
             }
             
@@ -408,7 +459,7 @@ public final class StrategyManager {
                 case NORMAL -> MarketRegime.RANGE_BOUND;
             };
             
-            return evaluateWithHistory(symbol, currentPrice, positionQty, closes, regime);
+            return evaluateWithHistory(symbol, currentPrice, positionQty, history, regime);
             
         } catch (Exception e) {
             logger.error("Error evaluating strategy", e);
@@ -420,6 +471,21 @@ public final class StrategyManager {
         return activeStrategy;
     }
 
+    private Readings readings(IndicatorSet set) {
+        return new Readings(macdStrategy.reading(set), set.rsi(14), set.sma(10), set.sma(20), set.sma(50),
+            meanReversionStrategy.reading(set));
+    }
+
+    /** MACD from the shared running indicators when available, else recomputed from history. */
+    private TradingSignal macd(String symbol, double currentPrice, double positionQty, BarSeries history,
+                               Readings indicators, double histogramThreshold) {
+        if (indicators != null) {
+            return macdStrategy.evaluateWithIndicators(symbol, currentPrice, positionQty,
+                indicators.macd(), histogramThreshold);
+        }
+        return macdStrategy.evaluateWithHistory(symbol, currentPrice, positionQty, history, histogramThreshold);
+    }
+
     /**
      * Gates any BUY signal from MACD with an RSI check.
      * RSI > 65: move is already extended — entering here means buying near a short-term peak,
@@ -428,10 +494,10 @@ public final class StrategyManager {
      * The sweet spot 35–65 is where MACD trend-following entries have positive expectancy.
      * Has no effect on SELL or HOLD signals, or on exits (positionQty > 0).
      */
-    private TradingSignal rsiFilteredBuy(TradingSignal signal, List<Double> history,
+    private TradingSignal rsiFilteredBuy(TradingSignal signal, BarSeries history, Readings indicators,
                                          String symbol, double positionQty) {
         if (!(signal instanceof TradingSignal.Buy) || positionQty > 0) return signal;
-        double rsi = RSIStrategy.calculateRSI(history, 14);
+        double rsi = indicators != null ? indicators.rsi14().value() : RSIStrategy.calculateRSI(history, 14);
         if (rsi > 65.0) {
             logger.info("{}: MACD BUY blocked — RSI extended ({} > 65, don't chase)",
                 symbol, String.format("%.1f", rsi));
@@ -460,6 +526,14 @@ public final class StrategyManager {
     }
 
     boolean isShortTermDowntrend(List<Double> closes, double livePrice) {
+        return isShortTermDowntrend(BarSeries.ofCloses(closes), livePrice);
+    }
+
+    boolean isShortTermDowntrend(BarSeries closes, double livePrice) {
+        return isShortTermDowntrend(closes, null, livePrice);
+    }
+
+    private boolean isShortTermDowntrend(BarSeries closes, Readings indicators, double livePrice) {
         if (closes.size() < 22) {
             return false;
         }
@@ -467,8 +541,9 @@ public final class StrategyManager {
         int size = closes.size();
 
         // ---- 10-bar SMA check (short-term) ----
-        double sma10Current = smaOf(closes, size - 10, size);
-        double sma10Previous = smaOf(closes, size - 11, size - 1);
+        var sma10 = sma(closes, indicators != null ? indicators.sma10() : null, 10);
+        double sma10Current = sma10.value();
+        double sma10Previous = sma10.previous();
         // Use live intraday price instead of last daily close — catches today's drop
         boolean shortTermDown = livePrice < sma10Current && sma10Current < sma10Previous;
 
@@ -480,8 +555,9 @@ public final class StrategyManager {
         }
 
         // ---- 20-bar SMA check (medium-term) ----
-        double sma20Current = smaOf(closes, size - 20, size);
-        double sma20Previous = smaOf(closes, size - 21, size - 1);
+        var sma20 = sma(closes, indicators != null ? indicators.sma20() : null, 20);
+        double sma20Current = sma20.value();
+        double sma20Previous = sma20.previous();
         boolean mediumTermDown = livePrice < sma20Current && sma20Current < sma20Previous;
 
         if (mediumTermDown) {
@@ -495,7 +571,7 @@ public final class StrategyManager {
         // Any stock trading below its 50-bar SMA is in a macro downtrend regardless of short-term bounces.
         // No requirement for SMA to be declining — being below it is sufficient.
         if (size >= 52) {
-            double sma50 = smaOf(closes, size - 50, size);
+            double sma50 = sma(closes, indicators != null ? indicators.sma50() : null, 50).value();
             if (livePrice < sma50) {
                 double pct = ((sma50 - livePrice) / sma50) * 100;
                 logger.debug("Macro downtrend: price ${} is {:.2f}% below 50-SMA ${}",
@@ -512,18 +588,18 @@ public final class StrategyManager {
      * Low-volume breakouts and rallies frequently fail — require last bar ≥ 70% of
      * the 20-bar average (excluding last bar to avoid partial-day skew).
      */
-    private boolean isVolumeConfirming(List<Long> volumes) {
-        if (volumes.size() < 22) return true; // insufficient data — don't block
+    private boolean isVolumeConfirming(BarSeries history) {
+        if (history.size() < 22) return true; // insufficient data — don't block
 
-        int last = volumes.size() - 1;
+        int last = history.size() - 1;
         int avgStart = Math.max(0, last - 20);
         long sum = 0;
-        for (int i = avgStart; i < last; i++) sum += volumes.get(i);
+        for (int i = avgStart; i < last; i++) sum += history.volume(i);
         double avgVolume = (double) sum / (last - avgStart);
 
         if (avgVolume <= 0) return true;
 
-        long lastVolume = volumes.get(last);
+        long lastVolume = history.volume(last);
         boolean confirming = lastVolume >= avgVolume * 0.70;
         if (!confirming) {
             logger.debug("Low volume: last={} avg={} ratio={:.2f}",
@@ -533,10 +609,22 @@ public final class StrategyManager {
         return confirming;
     }
 
+    /**
+     * SMA of the last {@code period} closes and of the {@code period} before the last bar: the
+     * running reading when there is one, else computed from {@code closes}.
+     */
+    private IndicatorSet.Reading sma(BarSeries closes, IndicatorSet.Reading running, int period) {
+        if (running != null) {
+            return running;
+        }
+        int size = closes.size();
+        return new IndicatorSet.Reading(smaOf(closes, size - period, size), smaOf(closes, size - period - 1, size - 1));
+    }
+
     /** Average of closes[from..to) */
-    private double smaOf(List<Double> closes, int from, int to) {
+    private double smaOf(BarSeries closes, int from, int to) {
         double sum = 0;
-        for (int i = from; i < to; i++) sum += closes.get(i);
+        for (int i = from; i < to; i++) sum += closes.close(i);
         return sum / (to - from);
     }
 
@@ -1,5 +1,7 @@
 package com.trading.strategy;
 
+import com.trading.api.model.BarSeries;
+
 /**
  * Base interface for trading strategies.
  */
@@ -14,4 +16,14 @@ public sealed interface TradingStrategy permits MeanReversionStrategy, TrendFoll
      * @return Trading signal (Buy, Sell, or Hold)
      */
     TradingSignal evaluate(String symbol, double currentPrice, double positionQty);
+
+    /**
+     * Evaluates the trading signal against a bar history (oldest → newest).
+     * Strategies that need history override this; the rest ignore it.
+     *
+     * @param history Primitive bar series, typically a zero-copy view of the symbol's window
+     */
+    default TradingSignal evaluate(String symbol, double currentPrice, double positionQty, BarSeries history) {
+        return evaluate(symbol, currentPrice, positionQty);
+    }
 }
@@ -1,6 +1,7 @@
 package com.trading.analysis;
 
 import com.trading.api.model.Bar;
+import com.trading.api.model.BarSeries;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
@@ -64,4 +65,19 @@ class AtrCalculatorTest {
         for (int i = 0; i < 3; i++) bars.add(bar(100, 101, 99, 100));
         assertEquals(0.0, AtrCalculator.atrPercent(bars, 14));
     }
+
+    @Test
+    @DisplayName("wrapped BarSeries window gives the same ATR as the equivalent List")
+    void barSeriesMatchesList() {
+        var bars = new ArrayList<Bar>();
+        for (int i = 0; i < 60; i++) {
+            double c = 100 + Math.sin(i / 3.0) * 4;
+            bars.add(bar(c - 0.3, c + 1.1 + (i % 5) * 0.2, c - 0.9, c));
+        }
+        var ring = new BarSeries(30);
+        bars.forEach(ring::append); // keeps the last 30, wrapped
+        var tail = bars.subList(30, 60);
+        assertEquals(AtrCalculator.atr(tail, 14), AtrCalculator.atr(ring, 14));
+        assertEquals(AtrCalculator.atrPercent(tail, 14), AtrCalculator.atrPercent(ring, 14));
+    }
 }
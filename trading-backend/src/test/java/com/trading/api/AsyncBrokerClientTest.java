@@ -0,0 +1,132 @@
+package com.trading.api;
+
+import com.trading.config.Config;
+import io.javalin.Javalin;
+import io.javalin.http.Context;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("AsyncBrokerClient — non-blocking broker calls")
+class AsyncBrokerClientTest {
+
+    private static final long SERVER_LATENCY_MS = 400;
+
+    private final List<String> posted = new CopyOnWriteArrayList<>();
+    private final AtomicInteger clockStatus = new AtomicInteger(200);
+    private Javalin server;
+    private AlpacaClient client;
+
+    @BeforeEach
+    void setUp() {
+        server = Javalin.create(config -> config.showJavalinBanner = false);
+        server.get("/v2/account", ctx -> slow(ctx, "{\"status\":\"ACTIVE\",\"equity\":\"1000\"}"));
+        server.get("/v2/positions", ctx -> slow(ctx,
+            "[{\"symbol\":\"SPY\",\"qty\":\"2\",\"market_value\":\"1000\",\"avg_entry_price\":\"495\",\"unrealized_pl\":\"10\"}]"));
+        server.get("/v2/orders", ctx -> slow(ctx, "[{\"id\":\"o1\",\"symbol\":\"SPY\",\"status\":\"new\"}]"));
+        server.get("/v2/clock", ctx -> {
+            if (clockStatus.get() != 200) {
+                ctx.status(clockStatus.get()).result("{\"message\":\"too many requests\"}");
+                return;
+            }
+            slow(ctx, "{\"is_open\":true}");
+        });
+        server.post("/v2/orders", ctx -> {
+            posted.add(ctx.body());
+            if (ctx.body().contains("\"TSLA\"")) {
+                ctx.status(403).result("{\"message\":\"trade denied due to pattern day trading protection\"}");
+                return;
+            }
+            ctx.result("{\"id\":\"o2\",\"status\":\"accepted\"}");
+        });
+        server.delete("/v2/orders/{id}", ctx -> ctx.status(204));
+        server.start(0);
+
+        var config = mock(Config.class, withSettings().mockMaker(org.mockito.MockMakers.SUBCLASS));
+        when(config.baseUrl()).thenReturn("http://localhost:" + server.port());
+        when(config.apiKey()).thenReturn("key");
+        when(config.apiSecret()).thenReturn("secret");
+        when(config.getApiRequestDelayMs()).thenReturn(0L);
+        when(config.isAdaptiveRateLimitEnabled()).thenReturn(false);
+        client = new AlpacaClient(config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    private static void slow(Context ctx, String json) throws InterruptedException {
+        Thread.sleep(SERVER_LATENCY_MS);
+        ctx.contentType("application/json").result(json);
+    }
+
+    @Test
+    @DisplayName("the cycle's fan-out through ResilientBrokerClient is concurrent and keeps PDT rejections")
+    void resilientFanOut() throws Exception {
+        var async = AsyncBrokerClient.of(
+            new ResilientBrokerClient(client, new io.micrometer.core.instrument.simple.SimpleMeterRegistry()));
+        long start = System.nanoTime();
+
+        var account = async.account();
+        var positions = async.positions();
+        var orders = async.allOpenOrders();
+        CompletableFuture.allOf(account, positions, orders).get(5, TimeUnit.SECONDS);
+
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(elapsedMs < 2 * SERVER_LATENCY_MS, "three calls took " + elapsedMs + "ms");
+        assertEquals("ACTIVE", account.join().path("status").asText());
+        assertEquals("SPY", positions.join().get(0).symbol());
+        assertEquals("o1", orders.join().get(0).path("id").asText());
+
+        var rejected = async.submitOrder("TSLA", 1, "buy", "market", "day", null);
+        var error = assertThrows(CompletionException.class, rejected::join);
+        assertInstanceOf(PDTRejectedException.class, error.getCause());
+        assertEquals(1, posted.size(), "a PDT rejection is not retried");
+    }
+
+    @Test
+    @DisplayName("the blocking Alpaca methods keep their exceptions over the async transport")
+    void blockingMethodsKeepErrors() throws Exception {
+        assertEquals("ACTIVE", client.getAccount().path("status").asText());
+
+        clockStatus.set(429);
+        assertThrows(RateLimitedException.class, client::getClock);
+
+        var placement = assertThrows(RuntimeException.class,
+            () -> client.placeOrder("TSLA", 1, "buy", "market", "day", null));
+        assertInstanceOf(PDTRejectedException.class, placement.getCause());
+
+        client.placeOrder("SPY", 1.5, "buy", "limit", "day", 500.0);
+        assertTrue(posted.get(posted.size() - 1).contains("\"limit_price\":\"500.00\""));
+        client.cancelOrder("o2");
+    }
+
+    @Test
+    @DisplayName("other brokers are adapted onto virtual threads with their checked exceptions preserved")
+    void adaptsBlockingBrokers() throws Exception {
+        var broker = mock(BrokerClient.class, withSettings().mockMaker(org.mockito.MockMakers.SUBCLASS));
+        when(broker.getClock()).thenThrow(new IOException("connection reset"));
+        when(broker.getOpenOrders("SPY")).thenReturn(new com.fasterxml.jackson.databind.ObjectMapper().createArrayNode());
+
+        var async = AsyncBrokerClient.of(broker);
+        assertTrue(async.openOrders("SPY").get(5, TimeUnit.SECONDS).isEmpty());
+        var error = assertThrows(CompletionException.class, () -> async.clock().join());
+        assertInstanceOf(IOException.class, error.getCause());
+
+        async.submitOrder("SPY", 1, "sell", "market", "day", null).get(5, TimeUnit.SECONDS);
+        verify(broker).placeOrder("SPY", 1, "sell", "market", "day", null);
+    }
+}
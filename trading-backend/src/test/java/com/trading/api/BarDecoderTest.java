@@ -0,0 +1,183 @@
+package com.trading.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.trading.api.model.Bar;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BarDecoder")
+class BarDecoderTest {
+
+    private static InputStream json(String s) {
+        return new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Nested
+    @DisplayName("Alpaca")
+    class Alpaca {
+
+        @Test
+        @DisplayName("decodes the same bars as the tree-based treeToValue path")
+        void matchesTreeParsing() throws Exception {
+            var random = new Random(7);
+            var body = new StringBuilder("{\"bars\":[");
+            Instant t = Instant.parse("2026-03-02T14:30:00Z");
+            for (int i = 0; i < 600; i++) {
+                if (i > 0) body.append(',');
+                double c = 50 + random.nextDouble() * 100;
+                body.append(String.format(
+                    "{\"t\":\"%s\",\"o\":%s,\"h\":%s,\"l\":%s,\"c\":%s,\"v\":%d,\"n\":%d,\"vw\":%s}",
+                    t.plusSeconds(300L * i), c - 0.5, c + 1.25, c - 1.75, c, random.nextInt(100_000),
+                    random.nextInt(500), c));
+            }
+            body.append("],\"symbol\":\"SPY\",\"next_page_token\":null}");
+
+            var mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+            var expected = new ArrayList<Bar>();
+            for (var node : mapper.readTree(body.toString()).get("bars")) {
+                expected.add(mapper.treeToValue(node, Bar.class));
+            }
+
+            try (var buffer = BarDecoder.Buffer.borrow()) {
+                BarDecoder.decodeAlpaca(json(body.toString()), buffer);
+                assertEquals(expected, buffer.toBars());
+            }
+        }
+
+        @Test
+        @DisplayName("skips nested unknown fields and reverses newest-first responses")
+        void skipsUnknownAndReverses() throws Exception {
+            String body = """
+                {"meta":{"a":[1,{"b":2}]},"bars":[
+                  {"t":"2026-03-03T05:00:00Z","x":{"y":[1,2]},"o":2,"h":3,"l":1,"c":2.5,"v":20},
+                  {"t":"2026-03-02T05:00:00Z","o":1,"h":2,"l":0.5,"c":1.5,"v":10}
+                ]}""";
+            try (var buffer = BarDecoder.Buffer.borrow()) {
+                BarDecoder.decodeAlpaca(json(body), buffer);
+                var bars = buffer.toBarsReversed();
+                assertEquals(2, bars.size());
+                assertEquals(Instant.parse("2026-03-02T05:00:00Z"), bars.get(0).timestamp());
+                assertEquals(1.5, bars.get(0).close());
+                assertEquals(20, bars.get(1).volume());
+            }
+        }
+
+        @Test
+        @DisplayName("a missing or null bars array decodes to nothing")
+        void noBars() throws Exception {
+            try (var buffer = BarDecoder.Buffer.borrow()) {
+                BarDecoder.decodeAlpaca(json("{\"bars\":null,\"symbol\":\"SPY\"}"), buffer);
+                assertEquals(0, buffer.size());
+                BarDecoder.decodeAlpaca(json("{\"symbol\":\"SPY\"}"), buffer);
+                assertEquals(0, buffer.size());
+            }
+        }
+
+        @Test
+        @DisplayName("a non-positive close fails the response like the Bar constructor")
+        void rejectsNonPositiveClose() {
+            String body = "{\"bars\":[{\"t\":\"2026-03-02T05:00:00Z\",\"o\":1,\"h\":1,\"l\":1,\"c\":0,\"v\":1}]}";
+            try (var buffer = BarDecoder.Buffer.borrow()) {
+                assertThrows(IllegalArgumentException.class, () -> BarDecoder.decodeAlpaca(json(body), buffer));
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Tradier")
+    class Tradier {
+
+        @Test
+        @DisplayName("daily history accepts an array or a single day object")
+        void dailyArrayOrObject() throws Exception {
+            try (var buffer = BarDecoder.Buffer.borrow()) {
+                BarDecoder.decodeTradierDaily(json("""
+                    {"history":{"day":[
+                      {"date":"2026-03-02","open":1,"high":2,"low":0.5,"close":1.5,"volume":100},
+                      {"date":"2026-03-03","open":1.5,"high":2.5,"low":1,"close":2,"volume":200}
+                    ]}}"""), buffer);
+                var bars = buffer.toBars(1);
+                assertEquals(1, bars.size());
+                assertEquals(new Bar(Instant.parse("2026-03-03T00:00:00Z"), 1.5, 2.5, 1, 2, 200), bars.get(0));
+            }
+            try (var buffer = BarDecoder.Buffer.borrow()) {
+                BarDecoder.decodeTradierDaily(json(
+                    "{\"history\":{\"day\":{\"date\":\"2026-03-02\",\"open\":1,\"high\":2,\"low\":0.5,\"close\":1.5,\"volume\":100}}}"),
+                    buffer);
+                assertEquals(1, buffer.size());
+            }
+            try (var buffer = BarDecoder.Buffer.borrow()) {
+                BarDecoder.decodeTradierDaily(json("{\"history\":null}"), buffer);
+                assertEquals(0, buffer.size());
+            }
+        }
+
+        @Test
+        @DisplayName("timesales skip non-positive closes, default o/h/l to close and read ET local times")
+        void timesales() throws Exception {
+            try (var buffer = BarDecoder.Buffer.borrow()) {
+                BarDecoder.decodeTradierTimesales(json("""
+                    {"series":{"data":[
+                      {"time":"2026-03-02T09:30:00","close":0,"volume":5},
+                      {"time":"2026-03-02T09:35:00","close":10.5,"volume":7}
+                    ]}}"""), buffer);
+                var bars = buffer.toBars();
+                assertEquals(1, bars.size());
+                assertEquals(new Bar(Instant.parse("2026-03-02T14:35:00Z"), 10.5, 10.5, 10.5, 10.5, 7), bars.get(0));
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("IBKR")
+    class Ibkr {
+
+        @Test
+        @DisplayName("reads epoch-millis bars, skips non-positive closes and keeps the last limit")
+        void history() throws Exception {
+            try (var buffer = BarDecoder.Buffer.borrow()) {
+                BarDecoder.decodeIbkr(json("""
+                    {"symbol":"SPY","data":[
+                      {"o":1,"h":2,"l":0.5,"c":1.5,"v":10,"t":1772463600000},
+                      {"o":1,"h":2,"l":0.5,"c":0,"v":10,"t":1772550000000},
+                      {"o":2,"h":3,"l":1.5,"c":2.5,"v":30,"t":1772636400000}
+                    ],"points":3}"""), buffer);
+                List<Bar> bars = buffer.toBars(5);
+                assertEquals(2, bars.size());
+                assertEquals(new Bar(Instant.ofEpochMilli(1772636400000L), 2, 3, 1.5, 2.5, 30), bars.get(1));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("a returned buffer grows past its initial size and is reset when borrowed again")
+    void pooledBufferReuse() throws Exception {
+        var body = new StringBuilder("{\"data\":[");
+        for (int i = 0; i < 1_000; i++) {
+            if (i > 0) body.append(',');
+            body.append("{\"c\":").append(i + 1).append(",\"t\":").append(1_000L + i).append('}');
+        }
+        body.append("]}");
+        var buffer = BarDecoder.Buffer.borrow();
+        BarDecoder.decodeIbkr(json(body.toString()), buffer);
+        assertEquals(1_000, buffer.size());
+        assertEquals(1_000.0, buffer.close(999));
+        buffer.close();
+
+        try (var again = BarDecoder.Buffer.borrow()) {
+            assertEquals(0, again.size());
+        }
+    }
+}
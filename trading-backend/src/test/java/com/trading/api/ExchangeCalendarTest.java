@@ -0,0 +1,168 @@
+package com.trading.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ExchangeCalendar — precomputed NYSE and CME sessions")
+class ExchangeCalendarTest {
+
+    private static final ZoneId NY = ExchangeCalendar.NY;
+    private static final ZoneId CT = ExchangeCalendar.CT;
+
+    private static long at(ZoneId zone, int year, int month, int day, int hour, int minute) {
+        return ZonedDateTime.of(year, month, day, hour, minute, 0, 0, zone).toInstant().toEpochMilli();
+    }
+
+    @Nested
+    @DisplayName("NYSE")
+    class Nyse {
+        private final ExchangeCalendar nyse = ExchangeCalendar.nyse();
+
+        @Test
+        @DisplayName("holiday rules reproduce the published 2025–2027 schedule")
+        void publishedHolidays() {
+            var published = Set.of(
+                LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 20), LocalDate.of(2025, 2, 17),
+                LocalDate.of(2025, 4, 18), LocalDate.of(2025, 5, 26), LocalDate.of(2025, 6, 19),
+                LocalDate.of(2025, 7, 4), LocalDate.of(2025, 9, 1), LocalDate.of(2025, 11, 27),
+                LocalDate.of(2025, 12, 25),
+                LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 19), LocalDate.of(2026, 2, 16),
+                LocalDate.of(2026, 4, 3), LocalDate.of(2026, 5, 25), LocalDate.of(2026, 6, 19),
+                LocalDate.of(2026, 7, 3), LocalDate.of(2026, 9, 7), LocalDate.of(2026, 11, 26),
+                LocalDate.of(2026, 12, 25),
+                LocalDate.of(2027, 1, 1), LocalDate.of(2027, 1, 18), LocalDate.of(2027, 2, 15),
+                LocalDate.of(2027, 3, 26), LocalDate.of(2027, 5, 31), LocalDate.of(2027, 6, 18),
+                LocalDate.of(2027, 7, 5), LocalDate.of(2027, 9, 6), LocalDate.of(2027, 11, 25),
+                LocalDate.of(2027, 12, 24));
+
+            var generated = new TreeSet<LocalDate>();
+            for (var d = LocalDate.of(2025, 1, 1); d.getYear() <= 2027; d = d.plusDays(1)) {
+                if (nyse.isHoliday(d)) generated.add(d);
+            }
+            assertEquals(new TreeSet<>(published), generated);
+            assertFalse(nyse.isHoliday(LocalDate.of(2027, 12, 31)), "New Year's Day 2028 is a Saturday — not observed");
+        }
+
+        @Test
+        @DisplayName("early closes end the session at 13:00 ET")
+        void earlyClose() {
+            assertEquals(LocalTime.of(13, 0), nyse.earlyClose(LocalDate.of(2026, 11, 27)).orElseThrow());
+            assertEquals(LocalTime.of(13, 0), nyse.earlyClose(LocalDate.of(2026, 12, 24)).orElseThrow());
+            assertEquals(LocalTime.of(13, 0), nyse.earlyClose(LocalDate.of(2025, 7, 3)).orElseThrow());
+            assertTrue(nyse.earlyClose(LocalDate.of(2026, 7, 2)).isEmpty(), "July 3 2026 is the observed holiday");
+
+            assertTrue(nyse.isOpen(at(NY, 2026, 11, 27, 12, 59)));
+            assertFalse(nyse.isOpen(at(NY, 2026, 11, 27, 13, 0)));
+            assertEquals(60_000, nyse.millisUntilClose(at(NY, 2026, 11, 27, 12, 59)));
+        }
+
+        @Test
+        @DisplayName("next open skips weekends and holidays across a DST change")
+        void nextOpen() {
+            // Thursday before Good Friday → Monday
+            assertEquals(at(NY, 2026, 4, 6, 9, 30), nyse.nextOpen(at(NY, 2026, 4, 2, 16, 30)));
+            // Friday before the March DST switch → Monday 9:30 EDT
+            assertEquals(at(NY, 2026, 3, 9, 9, 30), nyse.nextOpen(at(NY, 2026, 3, 6, 16, 0)));
+            assertEquals(at(NY, 2026, 3, 6, 16, 0), nyse.nextClose(at(NY, 2026, 3, 6, 9, 30)));
+            assertTrue(nyse.isOpen(at(NY, 2026, 3, 6, 9, 30)));
+            assertFalse(nyse.isOpen(at(NY, 2026, 3, 6, 9, 29)));
+        }
+    }
+
+    @Nested
+    @DisplayName("CME")
+    class Cme {
+        private final ExchangeCalendar cme = ExchangeCalendar.cme();
+
+        @Test
+        @DisplayName("no session on Good Friday or Christmas; Sunday evening opens Monday")
+        void fullClosures() {
+            assertFalse(cme.isOpen(at(CT, 2026, 4, 3, 10, 0)), "Good Friday");
+            assertEquals(at(CT, 2026, 4, 5, 18, 0), cme.nextOpen(at(CT, 2026, 4, 2, 17, 30)));
+            assertFalse(cme.isOpen(at(CT, 2026, 12, 25, 10, 0)), "Christmas");
+            assertTrue(cme.isOpen(at(CT, 2026, 12, 27, 19, 0)), "Sunday evening after Christmas");
+        }
+
+        @Test
+        @DisplayName("abbreviated holidays halt early and reopen for the next trade date")
+        void holidayHalts() {
+            // Thanksgiving: halt at 12:00 CT, reopen 18:00 CT; Friday after halts at 12:15 CT
+            assertTrue(cme.isOpen(at(CT, 2026, 11, 26, 11, 59)));
+            assertFalse(cme.isOpen(at(CT, 2026, 11, 26, 12, 0)));
+            assertTrue(cme.isOpen(at(CT, 2026, 11, 26, 18, 0)));
+            assertEquals(at(CT, 2026, 11, 27, 12, 15), cme.nextClose(at(CT, 2026, 11, 26, 18, 0)));
+        }
+    }
+
+    @Nested
+    @DisplayName("Broker clock check")
+    class ClockCheck {
+        private static final ObjectMapper MAPPER = new ObjectMapper();
+
+        @Test
+        @DisplayName("an unscheduled closure follows the broker until its next open")
+        void unscheduledClosure() throws Exception {
+            var nyse = ExchangeCalendar.nyse();
+            // Hurricane Sandy: NYSE closed Monday 29 and Tuesday 30 October 2012
+            long monday = at(NY, 2012, 10, 29, 10, 0);
+            var clock = MAPPER.readTree("""
+                {"is_open":false,"next_open":"2012-10-31T09:30:00-04:00","next_close":"2012-10-31T16:00:00-04:00"}""");
+
+            assertTrue(nyse.isScheduledOpen(monday));
+            assertFalse(nyse.verify(clock, monday));
+            assertFalse(nyse.lastClockCheck().consistent());
+            assertFalse(nyse.isOpen(monday));
+            assertFalse(nyse.isOpen(at(NY, 2012, 10, 30, 11, 0)));
+            assertEquals(0, nyse.millisUntilClose(monday));
+            assertTrue(nyse.isOpen(at(NY, 2012, 10, 31, 9, 30)));
+
+            var agreeing = MAPPER.readTree("""
+                {"is_open":true,"next_open":"2012-11-01T09:30:00-04:00","next_close":"2012-10-31T16:00:00-04:00"}""");
+            assertTrue(nyse.verify(agreeing, at(NY, 2012, 10, 31, 9, 35)));
+            assertTrue(nyse.isOpen(monday), "a matching clock drops the override");
+        }
+
+        @Test
+        @DisplayName("an early close the rules don't know ends the session at the broker's close")
+        void unknownEarlyClose() throws Exception {
+            var nyse = ExchangeCalendar.nyse();
+            long morning = at(NY, 2013, 3, 12, 9, 35);
+            var clock = MAPPER.readTree("""
+                {"is_open":true,"next_open":"2013-03-13T09:30:00-04:00","next_close":"2013-03-12T12:00:00-04:00"}""");
+
+            assertFalse(nyse.verify(clock, morning));
+            assertTrue(nyse.isOpen(at(NY, 2013, 3, 12, 11, 59)));
+            assertFalse(nyse.isOpen(at(NY, 2013, 3, 12, 12, 30)));
+            assertEquals(at(NY, 2013, 3, 12, 12, 0), nyse.nextClose(morning));
+            assertTrue(nyse.isOpen(at(NY, 2013, 3, 13, 10, 0)), "back on schedule the next day");
+        }
+
+        @Test
+        @DisplayName("the broker's answer applies only from when the mismatch was seen, not to earlier times")
+        void overrideStartsAtTheCheck() throws Exception {
+            var nyse = ExchangeCalendar.nyse();
+            long monday = at(NY, 2012, 10, 29, 10, 0);
+            var clock = MAPPER.readTree("""
+                {"is_open":false,"next_open":"2012-10-31T09:30:00-04:00","next_close":"2012-10-31T16:00:00-04:00"}""");
+
+            assertFalse(nyse.verify(clock, monday));
+
+            long friday = at(NY, 2012, 10, 26, 11, 0);
+            assertTrue(nyse.isOpen(friday), "the Friday before stays on schedule");
+            assertEquals(at(NY, 2012, 10, 26, 16, 0), nyse.nextClose(friday));
+            assertTrue(nyse.isOpen(at(NY, 2012, 10, 29, 9, 45)), "earlier the same morning too");
+            assertFalse(nyse.isOpen(monday));
+        }
+    }
+}
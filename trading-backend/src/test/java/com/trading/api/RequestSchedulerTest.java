@@ -0,0 +1,129 @@
+package com.trading.api;
+
+import com.trading.api.RequestScheduler.Priority;
+import com.trading.api.RequestScheduler.RequestShedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("RequestScheduler — prioritized API permits per account")
+class RequestSchedulerTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+    private final RequestScheduler scheduler =
+        new RequestScheduler("test", 60, Duration.ofSeconds(30), now::get);
+
+    private static void await(BooleanSupplier condition, String what) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) fail("Timed out waiting for " + what);
+            Thread.sleep(5);
+        }
+    }
+
+    private void drain() throws InterruptedException {
+        while (scheduler.availablePermits() > 0) scheduler.acquire(Priority.EXIT);
+    }
+
+    /** Queue a request on its own thread and wait until the scheduler has it queued. */
+    private void enqueue(String profile, Priority priority, List<String> served) throws InterruptedException {
+        int queued = scheduler.getStats().queued().get(priority);
+        Thread.ofVirtual().start(() -> {
+            RequestScheduler.bindProfile(profile);
+            try {
+                scheduler.acquire(priority);
+                served.add(profile + ":" + priority);
+            } catch (InterruptedException ignored) {
+            }
+        });
+        await(() -> scheduler.getStats().queued().get(priority) == queued + 1, profile + " queued");
+    }
+
+    /** Let one permit accrue (60/min = one per second) and wait for it to be handed out. */
+    private void releaseOne(List<String> served) throws InterruptedException {
+        int before = served.size();
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        scheduler.availablePermits();
+        await(() -> served.size() == before + 1, "permit " + (before + 1));
+    }
+
+    @Test
+    @DisplayName("waiting exits are served before entries, and entries before analytics")
+    void priorityOrder() throws Exception {
+        drain();
+        var served = new CopyOnWriteArrayList<String>();
+        enqueue("MAIN", Priority.ANALYTICS, served);
+        enqueue("MAIN", Priority.ENTRY, served);
+        enqueue("MAIN", Priority.EXIT, served);
+
+        for (int i = 0; i < 3; i++) releaseOne(served);
+
+        assertEquals(List.of("MAIN:EXIT", "MAIN:ENTRY", "MAIN:ANALYTICS"), served);
+    }
+
+    @Test
+    @DisplayName("within a class, profiles take turns instead of first come, first served")
+    void fairBetweenProfiles() throws Exception {
+        drain();
+        var served = new CopyOnWriteArrayList<String>();
+        enqueue("MAIN", Priority.ENTRY, served);
+        enqueue("MAIN", Priority.ENTRY, served);
+        enqueue("MAIN", Priority.ENTRY, served);
+        enqueue("EXP", Priority.ENTRY, served);
+
+        for (int i = 0; i < 4; i++) releaseOne(served);
+
+        assertEquals(List.of("MAIN:ENTRY", "EXP:ENTRY", "MAIN:ENTRY", "MAIN:ENTRY"), served);
+    }
+
+    @Test
+    @DisplayName("a 429 halves the rate and sheds analytics until the shed window passes")
+    void shedsAfterRateLimit() throws Exception {
+        scheduler.onRateLimited();
+
+        assertThrows(RequestShedException.class, () -> scheduler.acquire(Priority.ANALYTICS));
+        var stats = scheduler.getStats();
+        assertTrue(stats.shedding());
+        assertEquals(30.0, stats.permitsPerMinute(), 1e-9);
+        assertEquals(0, stats.availablePermits());
+        assertEquals(1, stats.shed());
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(31));
+        assertFalse(scheduler.getStats().shedding());
+        scheduler.acquire(Priority.ANALYTICS);
+    }
+
+    @Test
+    @DisplayName("a priority scope raises every request made inside it, never lowers one")
+    void priorityScope() {
+        RequestScheduler.runWithPriority(Priority.EXIT, () -> {
+            assertEquals(Priority.EXIT, RequestScheduler.effective(Priority.ANALYTICS));
+            RequestScheduler.runWithPriority(Priority.ANALYTICS,
+                () -> assertEquals(Priority.EXIT, RequestScheduler.effective(Priority.ENTRY)));
+        });
+        assertEquals(Priority.ANALYTICS, RequestScheduler.effective(Priority.ANALYTICS));
+    }
+
+    @Test
+    @DisplayName("a broker 429 through ResilientBrokerClient backs the scheduler off and sheds the retry")
+    void rateLimitFromBroker() throws Exception {
+        var delegate = mock(BrokerClient.class, withSettings().mockMaker(org.mockito.MockMakers.SUBCLASS));
+        when(delegate.getBars("SPY", "1Min", 10)).thenThrow(new RateLimitedException("API Rate Limit (429)"));
+        var shared = new RequestScheduler("alpaca", 150, Duration.ofSeconds(30));
+        var client = new ResilientBrokerClient(delegate, new SimpleMeterRegistry(), shared, Priority.EXIT);
+
+        assertThrows(RequestShedException.class, () -> client.getBars("SPY", "1Min", 10));
+        verify(delegate, times(1)).getBars("SPY", "1Min", 10);
+        assertEquals(1, shared.getStats().rateLimited());
+    }
+}
@@ -86,6 +86,32 @@ class ResilientBrokerClientTest {
             .placeOrder(anyString(), anyDouble(), anyString(), anyString(), anyString(), any());
     }
 
+    @Test
+    @DisplayName("a PDT rejection wrapped by the client is still not retried")
+    void testWrappedPDTExceptionPropagatesWithoutRetry() throws Exception {
+        doThrow(new RuntimeException(new PDTRejectedException("PDT limit hit")))
+            .when(mockDelegate).placeOrder(anyString(), anyDouble(), anyString(),
+                anyString(), anyString(), any());
+
+        assertThrows(PDTRejectedException.class, () ->
+            resilient.placeOrder("SPY", 1.0, "buy", "market", "day", null));
+
+        verify(mockDelegate, times(1))
+            .placeOrder(anyString(), anyDouble(), anyString(), anyString(), anyString(), any());
+    }
+
+    @Test
+    @DisplayName("OrderRejectedException propagates without retry")
+    void testOrderRejectionPropagatesWithoutRetry() throws Exception {
+        doThrow(new OrderRejectedException("insufficient buying power"))
+            .when(mockDelegate).placeNativeStopOrder(anyString(), anyDouble(), anyDouble());
+
+        assertThrows(OrderRejectedException.class, () ->
+            resilient.placeNativeStopOrder("SPY", 1.0, 95.0));
+
+        verify(mockDelegate, times(1)).placeNativeStopOrder(anyString(), anyDouble(), anyDouble());
+    }
+
     @Test
     @DisplayName("cancelOrder delegates to underlying BrokerClient")
     void testCancelOrderDelegates() {
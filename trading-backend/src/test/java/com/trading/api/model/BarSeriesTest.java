@@ -0,0 +1,123 @@
+package com.trading.api.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BarSeries Tests")
+class BarSeriesTest {
+    private static final Instant T0 = Instant.parse("2026-03-10T14:30:00Z");
+
+    private static Bar bar(int i) {
+        return new Bar(T0.plusSeconds(60L * i), 100 + i, 101 + i, 99 + i, 100.5 + i, 1_000L + i);
+    }
+
+    private static List<Bar> bars(int from, int to) {
+        var bars = new ArrayList<Bar>();
+        for (int i = from; i < to; i++) bars.add(bar(i));
+        return bars;
+    }
+
+    @Nested
+    @DisplayName("Ring buffer")
+    class RingBuffer {
+
+        @Test
+        @DisplayName("of() round-trips bars oldest → newest")
+        void roundTrips() {
+            var series = BarSeries.of(bars(0, 5));
+            assertEquals(5, series.size());
+            assertEquals(bars(0, 5), series.toBars());
+            assertEquals(104.5, series.lastClose());
+            assertEquals(T0.plusSeconds(240), series.timestamp(4));
+        }
+
+        @Test
+        @DisplayName("append past capacity drops the oldest bar")
+        void overwritesOldest() {
+            var series = new BarSeries(3);
+            bars(0, 7).forEach(series::append);
+            assertEquals(3, series.size());
+            assertEquals(bars(4, 7), series.toBars());
+        }
+
+        @Test
+        @DisplayName("replaceLast revises the newest bar in place")
+        void replacesLast() {
+            var series = new BarSeries(3);
+            bars(0, 4).forEach(series::append);
+            var revised = new Bar(bar(3).timestamp(), 103, 110, 90, 108, 5_000);
+            series.replaceLast(revised);
+            assertEquals(revised, series.bar(2));
+            assertEquals(bar(2), series.bar(1));
+        }
+
+        @Test
+        @DisplayName("out-of-range index is rejected")
+        void boundsChecked() {
+            var series = BarSeries.of(bars(0, 3));
+            assertThrows(IndexOutOfBoundsException.class, () -> series.close(3));
+            assertThrows(IndexOutOfBoundsException.class, () -> series.close(-1));
+        }
+
+        @Test
+        @DisplayName("ofCloses fills OHLC with the close")
+        void closeOnly() {
+            var series = BarSeries.ofCloses(List.of(10.0, 11.0, 12.0));
+            assertEquals(3, series.size());
+            assertEquals(11.0, series.high(1));
+            assertEquals(11.0, series.low(1));
+            assertEquals(0L, series.volume(1));
+        }
+    }
+
+    @Nested
+    @DisplayName("Views")
+    class Views {
+
+        @Test
+        @DisplayName("view, last and dropLast index relative to the window across the wrap point")
+        void windowsAcrossWrap() {
+            var series = new BarSeries(5);
+            bars(0, 8).forEach(series::append); // holds 3..7, physically wrapped
+
+            assertEquals(bars(4, 7), series.view(1, 4).toBars());
+            assertEquals(bars(5, 8), series.last(3).toBars());
+            assertEquals(bars(3, 7), series.dropLast(1).toBars());
+            assertEquals(bars(3, 8), series.last(50).toBars());
+            assertTrue(series.dropLast(50).isEmpty());
+        }
+
+        @Test
+        @DisplayName("views share storage with their owner")
+        void zeroCopy() {
+            var series = BarSeries.of(bars(0, 4));
+            var view = series.last(2);
+            series.replaceLast(new Bar(bar(3).timestamp(), 1, 1, 1, 42, 1));
+            assertEquals(42.0, view.lastClose());
+        }
+
+        @Test
+        @DisplayName("views are read-only")
+        void readOnly() {
+            var view = BarSeries.of(bars(0, 4)).view(0, 2);
+            assertTrue(view.isView());
+            assertThrows(UnsupportedOperationException.class, () -> view.append(bar(9)));
+            assertThrows(UnsupportedOperationException.class, view::clear);
+        }
+
+        @Test
+        @DisplayName("closes() streams exactly the requested range")
+        void closeStream() {
+            var series = BarSeries.of(bars(0, 10));
+            assertEquals(List.of(107.5, 108.5, 109.5), series.closes(7, 10).boxed().toList());
+            assertEquals(108.5, series.closes(7, 10).average().orElseThrow(), 1e-12);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.trading.backtest;
+
+import com.trading.backtest.BacktestJobs.Status;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BacktestJobs — long-running backtests off the request thread")
+class BacktestJobsTest {
+
+    private final BacktestJobs jobs = new BacktestJobs(3, 2);
+
+    @AfterEach
+    void close() {
+        jobs.close();
+    }
+
+    private Status awaitFinished(String id) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            var status = jobs.get(id).orElseThrow().status();
+            if (status != Status.QUEUED && status != Status.RUNNING) return status;
+            Thread.sleep(5);
+        }
+        return fail("job " + id + " did not finish");
+    }
+
+    @Test
+    @DisplayName("a job reports progress and then its result")
+    void completes() throws Exception {
+        var release = new CountDownLatch(1);
+        var id = jobs.submit("test", job -> {
+            job.setTotal(3);
+            job.step();
+            release.await();
+            job.step();
+            job.step();
+            return "report";
+        });
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (jobs.get(id).orElseThrow().completed() < 1 && System.nanoTime() < deadline) Thread.sleep(5);
+        var running = jobs.get(id).orElseThrow();
+        assertEquals(Status.RUNNING, running.status());
+        assertEquals(1, running.completed());
+        assertEquals(3, running.total());
+        assertNull(running.result());
+
+        release.countDown();
+        assertEquals(Status.DONE, awaitFinished(id));
+        var done = jobs.get(id).orElseThrow();
+        assertEquals("report", done.result());
+        assertEquals(3, done.completed());
+        assertNotNull(done.finished());
+    }
+
+    @Test
+    @DisplayName("a throwing task fails with its message")
+    void fails() throws Exception {
+        var id = jobs.submit("test", job -> {
+            throw new IllegalStateException("no bars");
+        });
+        assertEquals(Status.FAILED, awaitFinished(id));
+        assertEquals("no bars", jobs.get(id).orElseThrow().error());
+    }
+
+    @Test
+    @DisplayName("cancelling stops a running job and drops a queued one")
+    void cancels() throws Exception {
+        var started = new CountDownLatch(1);
+        var running = jobs.submit("test", job -> {
+            started.countDown();
+            while (!job.isCancelled()) Thread.sleep(5);
+            return "partial";
+        });
+        var queued = jobs.submit("test", job -> "never");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertTrue(jobs.cancel(queued));
+        assertEquals(Status.CANCELLED, jobs.get(queued).orElseThrow().status());
+        assertTrue(jobs.cancel(running));
+        assertEquals(Status.CANCELLED, awaitFinished(running));
+        assertNull(jobs.get(running).orElseThrow().result());
+
+        assertFalse(jobs.cancel(running), "already finished");
+        assertFalse(jobs.cancel("unknown"));
+    }
+
+    @Test
+    @DisplayName("a cancel racing the start of a job still finishes it, never leaving it queued")
+    void cancelRacingStart() throws Exception {
+        for (int i = 0; i < 200; i++) {
+            var id = jobs.submit("test", job -> "done");
+            boolean cancelled = jobs.cancel(id);
+
+            var status = awaitFinished(id);
+            if (cancelled) assertEquals(Status.CANCELLED, status);
+            else assertEquals(Status.DONE, status);
+        }
+    }
+
+    @Test
+    @DisplayName("submissions beyond the queue depth are refused until the queue drains")
+    void boundedQueue() throws Exception {
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var running = jobs.submit("test", job -> {
+            started.countDown();
+            release.await();
+            return "first";
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        jobs.submit("test", job -> "second");
+        var queued = jobs.submit("test", job -> "third");
+
+        assertThrows(RejectedExecutionException.class, () -> jobs.submit("test", job -> "fourth"));
+
+        release.countDown();
+        assertEquals(Status.DONE, awaitFinished(running));
+        assertEquals(Status.DONE, awaitFinished(queued));
+        assertNotNull(jobs.submit("test", job -> "fifth"));
+    }
+
+    @Test
+    @DisplayName("only the newest finished jobs are retained")
+    void retention() throws Exception {
+        String first = null;
+        String last = null;
+        for (int i = 0; i < 5; i++) {
+            int n = i;
+            last = jobs.submit("test", job -> n);
+            if (first == null) first = last;
+            awaitFinished(last);
+        }
+        assertTrue(jobs.get(first).isEmpty());
+        assertEquals(4, jobs.get(last).orElseThrow().result());
+        assertEquals(3, jobs.list().size());
+        assertEquals(last, jobs.list().getFirst().id());
+    }
+}
@@ -0,0 +1,137 @@
+package com.trading.backtest;
+
+import com.trading.backtest.BacktestEngine.BacktestResult;
+import com.trading.backtest.BacktestEngine.BacktestTrade;
+import com.trading.backtest.MonteCarloSimulator.Method;
+import com.trading.backtest.MonteCarloSimulator.Settings;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("MonteCarloSimulator — resampled trade sequences")
+class MonteCarloSimulatorTest {
+
+    private static final double EPSILON = 1e-9;
+
+    /** Six winners of +2% for every four losers of -2.5%, losers bunched together. */
+    private static final double[] RETURNS = {
+        0.02, 0.02, 0.02, -0.025, -0.025, -0.025, -0.025, 0.02, 0.02, 0.02};
+
+    private static Settings settings(int paths, Method method, int parallelism) {
+        return new Settings(paths, 0, method, 4, 10.0, 7, parallelism);
+    }
+
+    @Test
+    @DisplayName("the same seed gives the same paths on one worker or many")
+    void deterministicAcrossParallelism() {
+        var simulator = new MonteCarloSimulator(10_000, RETURNS);
+        var sequential = simulator.simulate(settings(20_000, Method.BLOCK, 1));
+        var parallel = simulator.simulate(settings(20_000, Method.BLOCK, 4));
+
+        assertEquals(sequential.report().maxDrawdownPercent(), parallel.report().maxDrawdownPercent());
+        assertEquals(sequential.report().terminalEquity(), parallel.report().terminalEquity());
+        assertEquals(sequential.report().riskOfRuin(), parallel.report().riskOfRuin(), EPSILON);
+        for (double q = 0; q <= 1; q += 0.1) {
+            assertEquals(sequential.drawdownPercentile(q), parallel.drawdownPercentile(q), EPSILON);
+        }
+    }
+
+    @Test
+    @DisplayName("only winners: every path ends at the same equity with no drawdown and no ruin")
+    void onlyWinners() {
+        var report = new MonteCarloSimulator(1_000, new double[] {0.01, 0.01, 0.01}).run(settings(5_000, Method.IID, 2));
+
+        double terminal = 1_000 * Math.pow(1.01, 3);
+        assertEquals(0, report.maxDrawdownPercent().p99(), EPSILON);
+        assertEquals(terminal, report.terminalEquity().p1(), 1e-6);
+        assertEquals(terminal, report.terminalEquity().p99(), 1e-6);
+        assertEquals(0, report.riskOfRuin(), EPSILON);
+        assertEquals(0, report.probabilityOfLoss(), EPSILON);
+        assertEquals(3, report.tradesPerPath());
+    }
+
+    @Test
+    @DisplayName("a single-trade path is a fair coin between the two outcomes")
+    void coinFlip() {
+        var simulation = new MonteCarloSimulator(100, new double[] {0.5, -0.5})
+            .simulate(new Settings(100_000, 1, Method.IID, 1, 50.0, 3, 0));
+        var report = simulation.report();
+
+        assertEquals(0.5, report.riskOfRuin(), 0.01);
+        assertEquals(0.5, report.probabilityOfLoss(), 0.01);
+        assertEquals(50, report.terminalEquity().p1(), EPSILON);
+        assertEquals(150, report.terminalEquity().p99(), EPSILON);
+        assertEquals(100, report.terminalEquity().mean(), 1.0);
+        assertEquals(report.riskOfRuin(), simulation.probabilityOfDrawdown(50), EPSILON);
+        assertEquals(report.probabilityOfLoss(), simulation.probabilityOfEndingBelow(100), EPSILON);
+        assertEquals(0, simulation.probabilityOfEndingBelow(50), EPSILON);
+    }
+
+    @Test
+    @DisplayName("block resampling keeps losing streaks together, so drawdowns run deeper than IID")
+    void blocksKeepStreaks() {
+        var simulator = new MonteCarloSimulator(10_000, RETURNS);
+        var iid = simulator.run(settings(50_000, Method.IID, 0));
+        var block = simulator.run(settings(50_000, Method.BLOCK, 0));
+
+        assertTrue(block.maxDrawdownPercent().p50() > iid.maxDrawdownPercent().p50(),
+            block.maxDrawdownPercent() + " vs " + iid.maxDrawdownPercent());
+        // A full block of the four losers is the deepest a block path can start with
+        assertTrue(block.maxDrawdownPercent().p99() >= (1 - Math.pow(0.975, 4)) * 100 - EPSILON);
+        assertEquals(iid.terminalEquity().mean(), block.terminalEquity().mean(), 100);
+    }
+
+    @Test
+    @DisplayName("percentiles are ordered and drawdowns stay within 0-100%")
+    void percentilesOrdered() {
+        var report = new MonteCarloSimulator(10_000, RETURNS).run(
+            new Settings(10_000, 200, Method.IID, 1, 20.0, 11, 0));
+        var dd = report.maxDrawdownPercent();
+
+        assertTrue(dd.p1() >= 0 && dd.p99() <= 100);
+        assertTrue(dd.p1() <= dd.p5() && dd.p5() <= dd.p25() && dd.p25() <= dd.p50()
+            && dd.p50() <= dd.p75() && dd.p75() <= dd.p95() && dd.p95() <= dd.p99());
+        var equity = report.terminalEquity();
+        assertTrue(equity.p1() <= equity.p50() && equity.p50() <= equity.p99());
+        assertTrue(report.riskOfRuin() > 0 && report.riskOfRuin() < 1, "ruin " + report.riskOfRuin());
+    }
+
+    @Test
+    @DisplayName("dollar P&L becomes a return on the equity before each trade")
+    void equityReturns() {
+        double[] returns = MonteCarloSimulator.equityReturns(1_000, new double[] {100, -220, 2_000, -5_000, 50});
+
+        assertArrayEquals(new double[] {0.1, -0.2, 2_000.0 / 880, -1.0, -1.0}, returns, EPSILON);
+    }
+
+    @Test
+    @DisplayName("a backtest result is resampled in exit order against its starting capital")
+    void fromBacktest() {
+        Instant t = Instant.parse("2024-03-01T15:00:00Z");
+        var trades = List.of(
+            new BacktestTrade("SPY", t.plus(Duration.ofDays(2)), t.plus(Duration.ofDays(3)), 100, 110, 10, 100, "TP"),
+            new BacktestTrade("SPY", t, t.plus(Duration.ofDays(1)), 100, 90, 10, -100, "SL"));
+        var result = new BacktestResult("SPY", 1_000, 1_000, 2, 1, 1, 0, 10, trades);
+
+        var report = MonteCarloSimulator.fromBacktest(result).run(new Settings(1_000, 0, Method.BLOCK, 2, 50.0, 1, 1));
+
+        // Blocks of two wrap around: -10% then +11.1% (or the reverse) ends back at 1,000
+        assertEquals(1_000, report.terminalEquity().p1(), 1e-6);
+        assertEquals(1_000, report.terminalEquity().p99(), 1e-6);
+    }
+
+    @Test
+    @DisplayName("an empty sample or nonsensical settings are rejected")
+    void rejectsBadInput() {
+        assertThrows(IllegalArgumentException.class, () -> new MonteCarloSimulator(1_000, new double[0]));
+        assertThrows(IllegalArgumentException.class, () -> new MonteCarloSimulator(0, RETURNS));
+        assertThrows(IllegalArgumentException.class, () -> new Settings(0, 0, Method.IID, 1, 50, 1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new Settings(10, 0, Method.BLOCK, 0, 50, 1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new Settings(10, 0, Method.IID, 1, 0, 1, 0));
+    }
+}
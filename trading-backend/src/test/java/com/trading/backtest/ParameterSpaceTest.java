@@ -0,0 +1,87 @@
+package com.trading.backtest;
+
+import com.trading.backtest.ParameterSpace.Parameter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ParameterSpace — grid, random and Latin hypercube sampling")
+class ParameterSpaceTest {
+
+    private static final double EPSILON = 1e-9;
+
+    private final ParameterSpace space = ParameterSpace.of(
+        new Parameter("takeProfitPercent", 0.5, 1.5, 0.5),
+        new Parameter("MOMENTUM_RSI_BUY_MIN", 40, 50, 5),
+        new Parameter("riskPerTrade", 0.01, 0.02, 0.01));
+
+    @Test
+    @DisplayName("the grid holds every combination once, last parameter fastest")
+    void grid() {
+        var grid = space.grid();
+        assertEquals(18, space.gridSize());
+        assertEquals(18, grid.size());
+        assertArrayEquals(new double[]{0.5, 40, 0.01}, grid.get(0).values(), EPSILON);
+        assertArrayEquals(new double[]{0.5, 40, 0.02}, grid.get(1).values(), EPSILON);
+        assertArrayEquals(new double[]{1.5, 50, 0.02}, grid.getLast().values(), EPSILON);
+
+        var distinct = new HashSet<String>();
+        grid.forEach(v -> distinct.add(Arrays.toString(v.values())));
+        assertEquals(18, distinct.size());
+    }
+
+    @Test
+    @DisplayName("a continuous parameter cannot be gridded")
+    void continuousGrid() {
+        var continuous = ParameterSpace.of(new Parameter("stopLossPercent", 0.5, 2.0, 0));
+        assertThrows(IllegalStateException.class, continuous::grid);
+    }
+
+    @Test
+    @DisplayName("random draws stay in range, on the step, and repeat for a seed")
+    void random() {
+        var draws = space.random(200, 7);
+        for (var variant : draws) {
+            for (int d = 0; d < space.parameters().size(); d++) {
+                var p = space.parameters().get(d);
+                double v = variant.value(d);
+                assertTrue(v >= p.min() - EPSILON && v <= p.max() + EPSILON);
+                double steps = (v - p.min()) / p.step();
+                assertEquals(Math.rint(steps), steps, 1e-6);
+            }
+        }
+        assertArrayEquals(draws.get(42).values(), space.random(200, 7).get(42).values(), 0);
+    }
+
+    @Test
+    @DisplayName("a Latin hypercube puts exactly one sample in each stratum of every parameter")
+    void latinHypercube() {
+        var continuous = ParameterSpace.of(
+            new Parameter("a", 0, 1, 0), new Parameter("b", 10, 30, 0), new Parameter("c", -5, 5, 0));
+        int n = 64;
+        var samples = continuous.latinHypercube(n, 3);
+        assertEquals(n, samples.size());
+        for (int d = 0; d < 3; d++) {
+            var p = continuous.parameters().get(d);
+            boolean[] seen = new boolean[n];
+            for (var s : samples) {
+                int stratum = (int) Math.floor((s.value(d) - p.min()) / (p.max() - p.min()) * n);
+                assertFalse(seen[stratum], "stratum " + stratum + " of " + p.name() + " hit twice");
+                seen[stratum] = true;
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("describe names each value")
+    void describe() {
+        var first = space.grid().getFirst();
+        assertEquals(40.0, space.describe(first).get("MOMENTUM_RSI_BUY_MIN"), EPSILON);
+        assertThrows(IllegalArgumentException.class,
+            () -> ParameterSpace.of(new Parameter("x", 0, 1, 0), new Parameter("x", 0, 1, 0)));
+    }
+}
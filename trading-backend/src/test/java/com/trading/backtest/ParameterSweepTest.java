@@ -0,0 +1,129 @@
+package com.trading.backtest;
+
+import com.trading.analysis.MarketRegimeDetector.MarketRegime;
+import com.trading.api.model.BarSeries;
+import com.trading.backtest.BacktestEngine.BacktestConfig;
+import com.trading.backtest.ParameterSpace.Parameter;
+import com.trading.backtest.ParameterSweep.Leaderboard;
+import com.trading.backtest.ParameterSweep.Objective;
+import com.trading.backtest.ParameterSweep.Outcome;
+import com.trading.config.Config;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ParameterSweep — parallel backtests ranked by objective")
+class ParameterSweepTest {
+
+    private static final double EPSILON = 1e-9;
+
+    /** A year of {@link SyntheticBars}. */
+    private static BarSeries bars() {
+        return SyntheticBars.oscillating(260);
+    }
+
+    private static ParameterSweep sweep(ParameterSpace space) {
+        var base = new BacktestConfig("SPY", 10_000, 1.0, 1.0, 0.5, 0.02, MarketRegime.RANGE_BOUND, 50);
+        return new ParameterSweep(new Config(), base, bars(), space);
+    }
+
+    private static final ParameterSpace SPACE = ParameterSpace.of(
+        new Parameter("takeProfitPercent", 0.5, 4.0, 0.5),
+        new Parameter("stopLossPercent", 0.5, 3.0, 0.5),
+        new Parameter("trailingStopPercent", 0.25, 1.5, 0.25));
+
+    @Test
+    @DisplayName("parallel outcomes match a sequential run variant for variant")
+    void parallelMatchesSequential() {
+        var sweep = sweep(SPACE);
+        var variants = SPACE.latinHypercube(24, 1);
+        var streamed = new ConcurrentLinkedQueue<Outcome>();
+
+        var ranked = sweep.run(variants, 4, Objective.RETURN, streamed::add);
+
+        assertEquals(variants.size(), ranked.size());
+        assertEquals(variants.size(), streamed.size());
+        for (var outcome : ranked) {
+            var sequential = sweep.evaluate(outcome.variant());
+            assertEquals(sequential.result().finalCapital(), outcome.result().finalCapital(), EPSILON);
+            assertEquals(sequential.result().totalTrades(), outcome.result().totalTrades());
+            assertEquals(sequential.metrics(), outcome.metrics());
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @EnumSource(Objective.class)
+    @DisplayName("results come back ranked best first")
+    void ranked(Objective objective) {
+        var ranked = sweep(SPACE).run(SPACE.random(16, 2), 2, objective, null);
+        var order = objective.order();
+        for (int i = 1; i < ranked.size(); i++) {
+            assertTrue(order.compare(ranked.get(i - 1), ranked.get(i)) <= 0, objective + " at " + i);
+        }
+    }
+
+    @Test
+    @DisplayName("the leaderboard holds the same top entries as the final ranking")
+    void leaderboard() {
+        var board = new Leaderboard(Objective.SHARPE, 5);
+        var ranked = sweep(SPACE).run(SPACE.latinHypercube(30, 3), 3, Objective.SHARPE, board);
+        var top = board.snapshot();
+        assertEquals(5, top.size());
+        for (int i = 0; i < top.size(); i++) {
+            assertEquals(ranked.get(i).variant().id(), top.get(i).variant().id());
+        }
+    }
+
+    @Test
+    @DisplayName("Config keys are applied as overrides and BacktestConfig fields directly")
+    void appliesParameters() {
+        var space = ParameterSpace.of(
+            new Parameter("takeProfitPercent", 2.0, 2.0, 0.5),
+            new Parameter("MOMENTUM_RSI_BUY_MIN", 41, 41, 1));
+        var outcome = sweep(space).evaluate(space.grid().getFirst());
+        assertEquals(Map.of("takeProfitPercent", 2.0, "MOMENTUM_RSI_BUY_MIN", 41.0), outcome.parameters());
+
+        var config = new Config().withOverrides(Map.of("MOMENTUM_RSI_BUY_MIN", "41"));
+        assertEquals(41.0, config.getMomentumRsiBuyMin(), EPSILON);
+        assertEquals(new Config().getMomentumRsiBuyMax(), config.getMomentumRsiBuyMax(), EPSILON);
+    }
+
+    @Test
+    @DisplayName("a Config key no getter reads is reported after the sweep")
+    void unreadConfigKey() {
+        var space = ParameterSpace.of(
+            new Parameter("MOMENTUM_RSI_BUY_MIN", 41, 42, 1),
+            new Parameter("MOMENTUM_RSI_BY_MIN", 40, 41, 1));
+        var sweep = sweep(space);
+        sweep.run(space.grid(), 2, Objective.SHARPE, outcome -> {});
+        assertEquals(Set.of("MOMENTUM_RSI_BY_MIN"), sweep.unreadConfigKeys());
+
+        var config = new Config().withOverrides(Map.of("MOMENTUM_RSI_BUY_MIN", "41", "NO_SUCH_KEY", "1"));
+        config.getMomentumRsiBuyMin();
+        assertEquals(Set.of("NO_SUCH_KEY"), config.unusedOverrides());
+    }
+
+    @Test
+    @DisplayName("final capital is starting capital plus the P&L of every trade")
+    void engineAccounting() {
+        var result = new BacktestEngine(new com.trading.strategy.StrategyManager(null, null, new Config()))
+            .run(new BacktestConfig("SPY", 10_000, 1.0, 1.0, 0.5, 0.5, MarketRegime.RANGE_BOUND, 50),
+                 bars().toBars());
+        assertTrue(result.totalTrades() > 0, result.summary());
+        assertEquals(10_000 + result.totalPnL(), result.finalCapital(), 1e-6);
+    }
+
+    @Test
+    @DisplayName("an empty variant list is an empty ranking")
+    void empty() {
+        assertEquals(List.of(), sweep(SPACE).run(List.of(), 2, Objective.SHARPE, null));
+    }
+}
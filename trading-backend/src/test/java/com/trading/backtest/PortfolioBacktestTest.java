@@ -0,0 +1,211 @@
+package com.trading.backtest;
+
+import com.trading.analysis.MarketRegimeDetector.MarketRegime;
+import com.trading.api.model.Bar;
+import com.trading.api.model.BarSeries;
+import com.trading.backtest.BacktestEngine.BacktestTrade;
+import com.trading.backtest.PortfolioBacktest.BarSource;
+import com.trading.backtest.PortfolioBacktest.RegimeSource;
+import com.trading.backtest.PortfolioBacktest.Settings;
+import com.trading.backtest.PortfolioBacktest.Veto;
+import com.trading.config.Config;
+import com.trading.marketdata.BarArchive;
+import com.trading.strategy.TradingProfile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("PortfolioBacktest — many symbols, one pot of capital")
+class PortfolioBacktestTest {
+
+    private static final Instant START = SyntheticBars.START;
+
+    private static TradingProfile profile(List<String> bullish, List<String> bearish) {
+        return new TradingProfile("TEST", true, 1.0, 1.0, 1.0, 0.5, bullish, bearish, 20, 2, "MACD",
+            Duration.ofDays(2), Duration.ofDays(7));
+    }
+
+    private static Config config(int maxPositions, boolean correlationCap) {
+        return new Config().withOverrides(Map.of(
+            "MAX_POSITIONS_AT_ONCE", Integer.toString(maxPositions),
+            "CORRELATION_CAP_ENABLED", Boolean.toString(correlationCap),
+            "CORRELATION_CAP_THRESHOLD", "0.75",
+            "CORRELATION_CAP_MAX_CONCURRENT", "1"));
+    }
+
+    /** {@code phases} 1 makes every symbol dip on the same days. */
+    private static Map<String, BarSeries> universe(int symbols, int count, int phases) {
+        var series = new LinkedHashMap<String, BarSeries>();
+        for (int s = 0; s < symbols; s++) {
+            series.put("S" + s, BarSeries.of(SyntheticBars.oscillating(count, s, s % phases, s % 7 == 3 ? 11 : 0)));
+        }
+        return series;
+    }
+
+    private static PortfolioBacktest.Run run(Config config, Map<String, BarSeries> series, BarSource source,
+                                             RegimeSource regimes) {
+        var profile = profile(List.copyOf(series.keySet()), List.of());
+        return new PortfolioBacktest(config, profile, source, regimes, Settings.defaults(10_000)).run();
+    }
+
+    @Test
+    @DisplayName("a hundred symbols stream through in chunks, each bar once, in time order")
+    void streamsLargeUniverse() {
+        var series = universe(100, 200, 5);
+        int total = series.values().stream().mapToInt(BarSeries::size).sum();
+        var largestRead = new AtomicInteger();
+        var memory = BarSource.of(series);
+        BarSource counting = (symbol, from, count) -> {
+            var chunk = memory.read(symbol, from, count);
+            largestRead.accumulateAndGet(chunk.size(), Math::max);
+            return chunk;
+        };
+        var settings = new Settings(10_000, 50, 100, 32, 15.0);
+
+        var run = new PortfolioBacktest(config(3, false), profile(List.copyOf(series.keySet()), List.of()),
+            counting, RegimeSource.fixed(MarketRegime.RANGE_BOUND), settings).run();
+
+        assertEquals(total, run.barsProcessed());
+        assertEquals(32, largestRead.get());
+        var times = new TreeSet<Instant>();
+        series.values().forEach(s -> { for (int i = 0; i < s.size(); i++) times.add(s.timestamp(i)); });
+        assertEquals(times.size(), run.equityCurve().size());
+        for (int i = 1; i < run.equityCurve().size(); i++) {
+            assertTrue(run.equityCurve().get(i).time().isAfter(run.equityCurve().get(i - 1).time()));
+        }
+        assertTrue(run.result().totalTrades() > 0, run.result().summary());
+    }
+
+    @Test
+    @DisplayName("final capital is starting capital plus every trade's P&L, and attribution adds up")
+    void accountingAndAttribution() {
+        var series = universe(8, 260, 5);
+        var run = run(config(3, false), series, BarSource.of(series), RegimeSource.fixed(MarketRegime.RANGE_BOUND));
+        var result = run.result();
+
+        assertTrue(result.totalTrades() > 0, result.summary());
+        assertEquals(10_000 + result.totalPnL(), result.finalCapital(), 1e-6);
+        assertEquals(result.totalTrades(), run.attribution().values().stream().mapToInt(a -> a.trades()).sum());
+        assertEquals(result.totalPnL(), run.attribution().values().stream().mapToDouble(a -> a.pnl()).sum(), 1e-6);
+        double contribution = run.attribution().values().stream().mapToDouble(a -> a.contributionPercent()).sum();
+        assertEquals(Math.signum(result.totalPnL()) * 100, contribution, 1e-6);
+        assertEquals(run.equityCurve().getLast().equity(), result.finalCapital(), 1e-6);
+    }
+
+    @Test
+    @DisplayName("symbols compete for a capped number of position slots")
+    void positionCap() {
+        var series = universe(10, 260, 1);
+        var run = run(config(2, false), series, BarSource.of(series), RegimeSource.fixed(MarketRegime.RANGE_BOUND));
+
+        assertEquals(2, run.maxOpenPositions());
+        assertTrue(run.vetoes().getOrDefault(Veto.POSITION_LIMIT, 0L) > 0, run.vetoes().toString());
+        assertOpenAtMost(run.result().trades(), 2);
+    }
+
+    @Test
+    @DisplayName("the correlation cap keeps a second copy of the same series out")
+    void correlationCap() {
+        var bars = BarSeries.of(SyntheticBars.oscillating(260, 1, 0, 0));
+        var series = new LinkedHashMap<String, BarSeries>();
+        for (var name : List.of("AAA", "BBB", "CCC")) series.put(name, bars);
+
+        var capped = run(config(3, true), series, BarSource.of(series), RegimeSource.fixed(MarketRegime.RANGE_BOUND));
+        var uncapped = run(config(3, false), series, BarSource.of(series),
+            RegimeSource.fixed(MarketRegime.RANGE_BOUND));
+
+        assertTrue(capped.vetoes().getOrDefault(Veto.CORRELATION, 0L) > 0, capped.vetoes().toString());
+        assertEquals(1, capped.maxOpenPositions());
+        assertTrue(uncapped.maxOpenPositions() > 1);
+    }
+
+    @Test
+    @DisplayName("regime rotation only opens positions in the symbols the selector picks")
+    void rotation() {
+        var series = universe(6, 260, 5);
+        var bullish = List.of("S0", "S1", "S2");
+        var bearish = List.of("S3", "S4", "S5");
+        Instant switchAt = START.plus(Duration.ofDays(150));
+        RegimeSource regimes = time -> time.isBefore(switchAt) ? MarketRegime.RANGE_BOUND : MarketRegime.STRONG_BEAR;
+
+        var run = new PortfolioBacktest(config(6, false), profile(bullish, bearish), BarSource.of(series), regimes,
+            Settings.defaults(10_000)).run();
+
+        assertTrue(run.vetoes().getOrDefault(Veto.NOT_SELECTED, 0L) > 0, run.vetoes().toString());
+        for (var trade : run.result().trades()) {
+            if (bullish.contains(trade.symbol())) {
+                assertTrue(trade.entryTime().isBefore(switchAt), trade.toString());
+            } else {
+                assertFalse(trade.entryTime().isBefore(switchAt), trade.toString());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("the detector regime source reads the market bars up to each bar time")
+    void detectorRegimes() {
+        var rising = new ArrayList<Bar>();
+        var falling = new ArrayList<Bar>();
+        for (int i = 0; i < 260; i++) {
+            Instant t = START.plus(Duration.ofDays(i));
+            double up = 100 * Math.pow(1.004, i);
+            double down = 100 * Math.pow(0.996, i);
+            rising.add(new Bar(t, up, up * 1.005, up * 0.995, up, 1_000_000));
+            falling.add(new Bar(t, down, down * 1.005, down * 0.995, down, 1_000_000));
+        }
+        Instant last = START.plus(Duration.ofDays(259));
+
+        var bull = RegimeSource.detector(new Config(), Map.of("SPY", rising)).at(last);
+        var bear = RegimeSource.detector(new Config(), Map.of("SPY", falling)).at(last);
+
+        assertTrue(bull == MarketRegime.STRONG_BULL || bull == MarketRegime.WEAK_BULL, bull.toString());
+        assertTrue(bear == MarketRegime.STRONG_BEAR || bear == MarketRegime.WEAK_BEAR, bear.toString());
+    }
+
+    @Test
+    @DisplayName("streaming from a bar archive gives the same result as bars in memory")
+    void archiveSource(@TempDir Path dir) {
+        var series = universe(4, 260, 5);
+        var archive = BarArchive.open(dir);
+        try {
+            series.forEach((symbol, s) -> archive.record(symbol, "1Day", s.toBars()));
+            var fromArchive = run(config(3, false), series, BarSource.archive(archive, "1Day"),
+                RegimeSource.fixed(MarketRegime.RANGE_BOUND));
+            var inMemory = run(config(3, false), series, BarSource.of(series),
+                RegimeSource.fixed(MarketRegime.RANGE_BOUND));
+
+            assertEquals(inMemory.barsProcessed(), fromArchive.barsProcessed());
+            assertEquals(inMemory.result().trades(), fromArchive.result().trades());
+            assertEquals(inMemory.result().finalCapital(), fromArchive.result().finalCapital(), 1e-9);
+        } finally {
+            archive.close();
+        }
+    }
+
+    /** No instant has more than {@code max} trades open (a trade holds from entry to exit). */
+    private static void assertOpenAtMost(List<BacktestTrade> trades, int max) {
+        var delta = new HashMap<Instant, Integer>();
+        for (var trade : trades) {
+            delta.merge(trade.entryTime(), 1, Integer::sum);
+            delta.merge(trade.exitTime(), -1, Integer::sum);
+        }
+        int open = 0;
+        for (var time : new TreeSet<>(delta.keySet())) {
+            open += delta.get(time);
+            assertTrue(open <= max, "open positions " + open + " at " + time);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.trading.backtest;
+
+import com.trading.api.ExchangeCalendar;
+import com.trading.api.model.Bar;
+import com.trading.config.Config;
+import com.trading.strategy.TradingProfile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ProfileBacktest — the real ProfileManager on replayed bars")
+class ProfileBacktestTest {
+
+    private static final ExchangeCalendar NYSE = ExchangeCalendar.nyse();
+
+    /** Random-walk 5-minute session bars for {@code days} trading days from {@code start}. */
+    private static List<Bar> sessionBars(LocalDate start, int days, double price, long seed) {
+        var random = new Random(seed);
+        var bars = new ArrayList<Bar>();
+        LocalDate day = start;
+        for (int d = 0; d < days; day = day.plusDays(1)) {
+            if (!NYSE.isSessionDay(day)) continue;
+            d++;
+            Instant open = day.atTime(ExchangeCalendar.NYSE_OPEN).atZone(ExchangeCalendar.NY).toInstant();
+            long close = NYSE.sessionClose(day).orElseThrow();
+            for (Instant t = open; t.toEpochMilli() < close; t = t.plus(Duration.ofMinutes(5))) {
+                double next = price * (1 + random.nextGaussian() * 0.002);
+                bars.add(new Bar(t, price, Math.max(price, next) * 1.0005, Math.min(price, next) * 0.9995, next, 10_000));
+                price = next;
+            }
+        }
+        return bars;
+    }
+
+    private static List<Bar> dailyBars(LocalDate before, int days, double price) {
+        var bars = new ArrayList<Bar>();
+        LocalDate day = before.minusDays(1);
+        for (int d = 0; d < days; day = day.minusDays(1)) {
+            if (!NYSE.isSessionDay(day)) continue;
+            d++;
+            Instant t = day.atStartOfDay(ExchangeCalendar.NY).toInstant();
+            double p = price * (1 + 0.001 * Math.sin(d));
+            bars.addFirst(new Bar(t, p, p * 1.01, p * 0.99, p, 1_000_000));
+        }
+        return bars;
+    }
+
+    @Test
+    @DisplayName("replays weeks of bars in virtual time and accounts for every fill")
+    void replaysInVirtualTime() {
+        var config = new Config();
+        var profile = TradingProfile.main(config);
+        LocalDate start = LocalDate.of(2024, 3, 4);
+
+        var bars = new LinkedHashMap<String, List<Bar>>();
+        var daily = new LinkedHashMap<String, List<Bar>>();
+        long seed = 1;
+        for (String symbol : profile.getAllSymbols()) {
+            bars.put(symbol, sessionBars(start, 10, 100, seed++));
+            daily.put(symbol, dailyBars(start, 220, 100));
+        }
+        daily.put("VIXY", dailyBars(start, 220, 15));
+
+        var run = ProfileBacktest.run(config, profile, "5Min", bars, daily,
+            new ProfileBacktest.Options(SimulatedBrokerClient.Settings.defaults(10_000), Duration.ofMinutes(5)));
+
+        // The bot has to have actually traded for the reconciliation below to prove anything
+        assertTrue(run.fills().stream().anyMatch(fill -> "buy".equals(fill.side())), "no entries filled");
+        assertTrue(run.fills().stream().anyMatch(fill -> "sell".equals(fill.side())), "no exits filled");
+        assertFalse(run.result().trades().isEmpty(), "no round trips completed");
+
+        int expectedBars = bars.values().stream().mapToInt(List::size).max().orElseThrow();
+        assertEquals(expectedBars, run.barsReplayed());
+        assertEquals(expectedBars, run.cycles());
+        assertEquals(expectedBars, run.equityCurve().size());
+        assertTrue(run.wallTime().compareTo(Duration.ofMinutes(2)) < 0, "replay must not run in real time");
+
+        // Cash plus open positions at the last close reconciles with the fills
+        double cash = 10_000;
+        for (var fill : run.fills()) cash += ("buy".equals(fill.side()) ? -1 : 1) * fill.quantity() * fill.price();
+        assertTrue(cash >= -1e-6, "never spends more than it has");
+        assertEquals(run.result().finalCapital(), run.equityCurve().getLast().equity(), 1e-6);
+        assertTrue(run.result().maxDrawdownPercent() >= 0);
+
+    }
+}
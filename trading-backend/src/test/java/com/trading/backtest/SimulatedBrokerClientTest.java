@@ -0,0 +1,289 @@
+package com.trading.backtest;
+
+import com.trading.api.OrderRejectedException;
+import com.trading.api.PDTRejectedException;
+import com.trading.api.model.Bar;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SimulatedBrokerClient — bar replay and order fills")
+class SimulatedBrokerClientTest {
+
+    /** Monday 2024-03-04 09:30 New York. */
+    private static final Instant OPEN = Instant.parse("2024-03-04T14:30:00Z");
+    private static final Duration FIVE_MIN = Duration.ofMinutes(5);
+    private static final double EPSILON = 1e-9;
+
+    private static Bar bar(int index, double open, double high, double low, double close) {
+        return new Bar(OPEN.plus(FIVE_MIN.multipliedBy(index)), open, high, low, close, 1_000);
+    }
+
+    private static SimulatedBrokerClient broker(VirtualClock clock, List<Bar> bars) {
+        return new SimulatedBrokerClient(clock, "5Min", Map.of("SPY", bars),
+            new SimulatedBrokerClient.Settings(10_000, 0, true));
+    }
+
+    private static VirtualClock clock() {
+        return new VirtualClock(OPEN);
+    }
+
+    @Nested
+    @DisplayName("time and market data")
+    class Replay {
+
+        @Test
+        @DisplayName("the clock moves to each bar's close and only closed bars are visible")
+        void noLookahead() {
+            var clock = clock();
+            var sim = broker(clock, List.of(bar(0, 100, 101, 99, 100.5), bar(1, 100.5, 102, 100, 101.5)));
+
+            assertTrue(sim.getBars("SPY", "5Min", 10).isEmpty());
+            assertTrue(sim.advance());
+            assertEquals(OPEN.plus(FIVE_MIN), clock.instant());
+            assertEquals(1, sim.getBars("SPY", "5Min", 10).size());
+            assertEquals(100.5, sim.getLatestBar("SPY").orElseThrow().close(), EPSILON);
+            assertTrue(sim.advance());
+            assertFalse(sim.advance());
+            assertEquals(OPEN.plus(FIVE_MIN.multipliedBy(2)), clock.instant());
+        }
+
+        @Test
+        @DisplayName("coarser timeframes aggregate replay bars, including the forming bar")
+        void aggregates() {
+            var bars = new ArrayList<Bar>();
+            for (int i = 0; i < 4; i++) bars.add(bar(i, 100 + i, 101 + i, 99 + i, 100.5 + i));
+            var sim = broker(clock(), bars);
+            for (int i = 0; i < 4; i++) sim.advance();
+
+            var fifteen = sim.getBars("SPY", "15Min", 10);
+            assertEquals(2, fifteen.size());
+            assertEquals(100, fifteen.get(0).open(), EPSILON);
+            assertEquals(103, fifteen.get(0).high(), EPSILON);
+            assertEquals(99, fifteen.get(0).low(), EPSILON);
+            assertEquals(102.5, fifteen.get(0).close(), EPSILON);
+            assertEquals(3_000, fifteen.get(0).volume());
+            assertEquals(103.5, fifteen.get(1).close(), EPSILON);
+
+            var daily = sim.getMarketHistory("SPY", 10);
+            assertEquals(1, daily.size());
+            assertEquals(103.5, daily.getFirst().close(), EPSILON);
+        }
+
+        @Test
+        @DisplayName("daily warm-up history precedes the replay's own daily bars")
+        void dailyHistory() {
+            var sim = broker(clock(), List.of(bar(0, 100, 101, 99, 100.5)));
+            sim.addDailyHistory("SPY", List.of(
+                new Bar(OPEN.minus(Duration.ofDays(4)), 95, 96, 94, 95.5, 1),
+                new Bar(OPEN.minus(Duration.ofDays(3)), 96, 97, 95, 96.5, 1),
+                new Bar(OPEN, 1, 1, 1, 1, 1))); // replay day: ignored
+            sim.advance();
+
+            var daily = sim.getMarketHistory("SPY", 10);
+            assertEquals(3, daily.size());
+            assertEquals(96.5, daily.get(1).close(), EPSILON);
+            assertEquals(100.5, daily.get(2).close(), EPSILON);
+        }
+    }
+
+    @Nested
+    @DisplayName("fills")
+    class Fills {
+
+        @Test
+        @DisplayName("a market order fills at the next bar's open")
+        void marketAtNextOpen() {
+            var sim = broker(clock(), List.of(bar(0, 100, 101, 99, 100.5), bar(1, 102, 103, 101, 102.5)));
+            sim.advance();
+            sim.placeOrder("SPY", 10, "buy", "market", "day", null);
+            assertTrue(sim.getFills().isEmpty());
+
+            sim.advance();
+            var fill = sim.getFills().getFirst();
+            assertEquals(102, fill.price(), EPSILON);
+            assertEquals(10_000 - 1_020, sim.getCash(), EPSILON);
+            assertEquals(10, sim.getPosition("SPY").orElseThrow().quantity(), EPSILON);
+            assertEquals(10_000 - 1_020 + 1_025, sim.getEquity(), EPSILON);
+        }
+
+        @Test
+        @DisplayName("a stop that gaps fills at the open, otherwise at the stop")
+        void stopGap() {
+            var sim = broker(clock(), List.of(
+                bar(0, 100, 100, 100, 100), bar(1, 100, 100, 100, 100),
+                bar(2, 100, 100, 97, 98), bar(3, 95, 96, 94, 95)));
+            sim.advance();
+            sim.placeOrder("SPY", 20, "buy", "market", "day", null);
+            sim.advance();
+            sim.placeNativeStopOrder("SPY", 10, 98);
+            sim.placeNativeStopOrder("SPY", 10, 96);
+            sim.advance();
+            sim.advance();
+
+            var fills = sim.getFills();
+            assertEquals(3, fills.size());
+            assertEquals(98, fills.get(1).price(), EPSILON);
+            assertEquals(95, fills.get(2).price(), EPSILON);
+            assertTrue(sim.getPosition("SPY").isEmpty());
+        }
+
+        @Test
+        @DisplayName("a limit buy fills at the limit, or at a better open")
+        void limits() {
+            var sim = broker(clock(), List.of(
+                bar(0, 100, 100, 100, 100), bar(1, 100, 100, 98.5, 99), bar(2, 97, 98, 96, 97)));
+            sim.advance();
+            sim.placeOrder("SPY", 1, "buy", "limit", "gtc", 99.0);
+            sim.placeOrder("SPY", 1, "buy", "limit", "gtc", 98.0);
+            sim.advance();
+            sim.advance();
+
+            var fills = sim.getFills();
+            assertEquals(99, fills.get(0).price(), EPSILON);
+            assertEquals(97, fills.get(1).price(), EPSILON);
+        }
+
+        @Test
+        @DisplayName("bracket legs wait for the entry, then one cancels the other")
+        void bracketOco() {
+            var sim = broker(clock(), List.of(
+                bar(0, 100, 100, 100, 100), bar(1, 100, 101, 99.5, 100.5), bar(2, 100.5, 104, 100, 103)));
+            sim.advance();
+            var result = sim.placeBracketOrder("SPY", 10, "buy", 103, 97, null, null);
+            assertTrue(result.hasBracketProtection());
+            assertEquals(3, sim.getAllOpenOrders().size());
+
+            sim.advance(); // entry at 100, neither leg reached
+            assertEquals(1, sim.getFills().size());
+            assertEquals(2, sim.getAllOpenOrders().size());
+
+            sim.advance(); // take profit
+            var fills = sim.getFills();
+            assertEquals(2, fills.size());
+            assertEquals(103, fills.get(1).price(), EPSILON);
+            assertEquals("limit", fills.get(1).orderType());
+            assertEquals(0, sim.getAllOpenOrders().size());
+            var statuses = new ArrayList<String>();
+            sim.getOrderHistory("SPY", 10).forEach(o -> statuses.add(o.get("status").asText()));
+            assertTrue(statuses.contains("canceled"));
+        }
+
+        @Test
+        @DisplayName("when both bracket legs are in range the stop fills first")
+        void bracketStopFirst() {
+            var sim = broker(clock(), List.of(bar(0, 100, 100, 100, 100), bar(1, 100, 104, 96, 100)));
+            sim.advance();
+            sim.placeBracketOrder("SPY", 10, "buy", 103, 97, null, null);
+            sim.advance();
+
+            var fills = sim.getFills();
+            assertEquals(2, fills.size());
+            assertEquals(97, fills.get(1).price(), EPSILON);
+        }
+
+        @Test
+        @DisplayName("a trailing stop ratchets to the high and fills on the pullback")
+        void trailingStop() {
+            var sim = broker(clock(), List.of(
+                bar(0, 100, 100, 100, 100), bar(1, 100, 100, 100, 100),
+                bar(2, 100, 110, 100, 110), bar(3, 110, 110, 104, 105)));
+            sim.advance();
+            sim.placeOrder("SPY", 5, "buy", "market", "day", null);
+            sim.advance();
+            sim.placeTrailingStopOrder("SPY", 5, "sell", 5.0);
+            sim.advance();
+            assertEquals(1, sim.getFills().size());
+            sim.advance();
+
+            assertEquals(104.5, sim.getFills().get(1).price(), EPSILON);
+        }
+
+        @Test
+        @DisplayName("a fractional bracket becomes a simple order")
+        void fractionalBracket() {
+            var sim = broker(clock(), List.of(bar(0, 100, 100, 100, 100)));
+            sim.advance();
+            var result = sim.placeBracketOrder("SPY", 1.5, "buy", 103, 97, null, null);
+            assertFalse(result.hasBracketProtection());
+            assertEquals(1, sim.getAllOpenOrders().size());
+        }
+    }
+
+    @Nested
+    @DisplayName("account rules")
+    class Account {
+
+        @Test
+        @DisplayName("selling more than is held is rejected with a non-retryable exception")
+        void oversell() {
+            var sim = broker(clock(), List.of(bar(0, 100, 100, 100, 100)));
+            sim.advance();
+            var rejected = assertThrows(OrderRejectedException.class,
+                () -> sim.placeOrder("SPY", 1, "sell", "market", "day", null));
+            assertTrue(rejected.getMessage().startsWith("insufficient qty"));
+            assertEquals(1, sim.getRejectedOrders());
+            assertEquals("rejected", sim.getOrderHistory("SPY", 1).get(0).get("status").asText());
+        }
+
+        @Test
+        @DisplayName("a fourth day trade under $25k is a PDT rejection")
+        void patternDayTrader() {
+            var bars = new ArrayList<Bar>();
+            for (int i = 0; i < 10; i++) bars.add(bar(i, 100, 100, 100, 100));
+            var sim = broker(clock(), bars);
+            sim.advance();
+            for (int trade = 0; trade < 3; trade++) {
+                sim.placeOrder("SPY", 1, "buy", "market", "day", null);
+                sim.advance();
+                sim.placeOrder("SPY", 1, "sell", "market", "day", null);
+                sim.advance();
+            }
+            assertEquals(3, sim.getAccount().get("daytrade_count").asInt());
+            sim.placeOrder("SPY", 1, "buy", "market", "day", null);
+            sim.advance();
+            assertThrows(PDTRejectedException.class, () -> sim.placeOrder("SPY", 1, "sell", "market", "day", null));
+        }
+
+        @Test
+        @DisplayName("DAY orders expire when the next session starts")
+        void dayOrdersExpire() {
+            var nextDay = new Bar(OPEN.plus(Duration.ofDays(1)), 90, 91, 89, 90, 1);
+            var sim = broker(clock(), List.of(bar(0, 100, 100, 100, 100), nextDay));
+            sim.advance();
+            sim.placeOrder("SPY", 1, "buy", "limit", "day", 95.0);
+            sim.advance();
+
+            assertTrue(sim.getFills().isEmpty());
+            assertEquals("expired", sim.getOrderHistory("SPY", 1).get(0).get("status").asText());
+        }
+    }
+
+    @Test
+    @DisplayName("symbols are replayed in time order, bars starting together in one step")
+    void mergesSymbols() {
+        var clock = clock();
+        var sim = new SimulatedBrokerClient(clock, "5Min", Map.of(
+                "SPY", List.of(bar(0, 100, 100, 100, 100), bar(2, 101, 101, 101, 101)),
+                "QQQ", List.of(bar(0, 200, 200, 200, 200), bar(1, 201, 201, 201, 201))),
+            SimulatedBrokerClient.Settings.defaults(10_000));
+
+        assertTrue(sim.advance());
+        assertEquals(100, sim.getLatestBar("SPY").orElseThrow().close(), EPSILON);
+        assertEquals(200, sim.getLatestBar("QQQ").orElseThrow().close(), EPSILON);
+        assertTrue(sim.advance());
+        assertEquals(201, sim.getLatestBar("QQQ").orElseThrow().close(), EPSILON);
+        assertEquals(100, sim.getLatestBar("SPY").orElseThrow().close(), EPSILON);
+        assertTrue(sim.advance());
+        assertEquals(OPEN.plus(FIVE_MIN.multipliedBy(3)), clock.instant());
+        assertFalse(sim.advance());
+    }
+}
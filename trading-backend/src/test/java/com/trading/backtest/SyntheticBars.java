@@ -0,0 +1,46 @@
+package com.trading.backtest;
+
+import com.trading.api.model.Bar;
+import com.trading.api.model.BarSeries;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Daily bars oscillating around 100 on a 16-day cycle with a sharp dip every 23 days, so the
+ * mean-reversion entries, stops and targets all occur. Shared by the sweep, walk-forward and
+ * portfolio backtest tests.
+ */
+final class SyntheticBars {
+
+    static final Instant START = Instant.parse("2024-01-02T21:00:00Z");
+
+    private SyntheticBars() {}
+
+    /** {@code count} days of the series with seed 5, as a single symbol's history. */
+    static BarSeries oscillating(int count) {
+        return BarSeries.of(oscillating(count, 5, 0, 0));
+    }
+
+    /**
+     * {@code count} days from {@link #START}; the dips are shifted by {@code phase} and
+     * {@code skipEvery} drops every n-th day (0 keeps them all) so calendars can differ.
+     */
+    static List<Bar> oscillating(int count, long seed, int phase, int skipEvery) {
+        var random = new Random(seed);
+        var bars = new ArrayList<Bar>();
+        double previous = 100;
+        for (int i = 0; i < count; i++) {
+            double close = (100 + 3 * Math.sin(i * 2 * Math.PI / 16)) * (1 + random.nextGaussian() * 0.004);
+            if ((i + phase) % 23 == 22) close *= 0.93 - random.nextDouble() * 0.03;
+            if (skipEvery > 0 && i % skipEvery == skipEvery - 1) continue;
+            bars.add(new Bar(START.plus(Duration.ofDays(i)), previous, Math.max(previous, close) * 1.002,
+                Math.min(previous, close) * 0.998, close, 1_000_000 + random.nextInt(500_000)));
+            previous = close;
+        }
+        return bars;
+    }
+}
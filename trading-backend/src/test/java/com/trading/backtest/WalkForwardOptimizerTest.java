@@ -0,0 +1,159 @@
+package com.trading.backtest;
+
+import com.trading.analysis.MarketRegimeDetector.MarketRegime;
+import com.trading.api.model.BarSeries;
+import com.trading.backtest.BacktestEngine.BacktestConfig;
+import com.trading.backtest.ParameterSpace.Parameter;
+import com.trading.backtest.ParameterSweep.Objective;
+import com.trading.backtest.WalkForwardOptimizer.Plan;
+import com.trading.config.Config;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("WalkForwardOptimizer — rolling in-sample optimization, out-of-sample scoring")
+class WalkForwardOptimizerTest {
+
+    private static final double EPSILON = 1e-9;
+
+    private static final BacktestConfig BASE =
+        new BacktestConfig("SPY", 10_000, 1.0, 1.0, 0.5, 0.02, MarketRegime.RANGE_BOUND, 50);
+
+    private static final ParameterSpace SPACE = ParameterSpace.of(
+        new Parameter("takeProfitPercent", 0.5, 4.0, 0.5),
+        new Parameter("stopLossPercent", 0.5, 3.0, 0.5));
+
+    /** Two years of {@link SyntheticBars}. */
+    private static BarSeries bars() {
+        return SyntheticBars.oscillating(500);
+    }
+
+    private static Plan plan(int parallelism) {
+        return new Plan(200, 60, 0, ParameterSpace.Sampling.LATIN_HYPERCUBE, 12, 7, Objective.RETURN, parallelism);
+    }
+
+    private static WalkForwardOptimizer optimizer(ParameterSpace space, Plan plan) {
+        return new WalkForwardOptimizer(new Config(), BASE, bars(), space, plan);
+    }
+
+    @Test
+    @DisplayName("out-of-sample windows tile the data after the first in-sample window and trade only inside it")
+    void windowLayout() {
+        var bars = bars();
+        var report = optimizer(SPACE, plan(2)).run();
+
+        assertEquals(5, report.windows().size()); // (500 - 260) / 60 + 1
+        for (int w = 0; w < report.windows().size(); w++) {
+            var window = report.windows().get(w);
+            assertEquals(w, window.index());
+            assertEquals(bars.timestamp(w * 60), window.inSampleStart());
+            assertEquals(bars.timestamp(w * 60 + 199), window.inSampleEnd());
+            assertEquals(bars.timestamp(w * 60 + 200), window.outOfSampleStart());
+            assertEquals(bars.timestamp(w * 60 + 259), window.outOfSampleEnd());
+            for (var trade : window.outOfSampleTrades()) {
+                assertFalse(trade.entryTime().isBefore(window.outOfSampleStart()), "entry before window " + w);
+                assertFalse(trade.exitTime().isAfter(window.outOfSampleEnd()), "exit after window " + w);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("the out-of-sample score is the in-sample winner replayed on unseen bars")
+    void outOfSampleIsTheWinner() {
+        var bars = bars();
+        var report = optimizer(SPACE, plan(2)).run();
+        var variants = SPACE.sample(ParameterSpace.Sampling.LATIN_HYPERCUBE, 12, 7);
+
+        var first = report.windows().getFirst();
+        var ranked = new ParameterSweep(new Config(), BASE, bars.view(0, 200), SPACE)
+            .run(variants, 1, Objective.RETURN, null);
+        assertEquals(ranked.getFirst().parameters(), first.parameters());
+        assertEquals(ranked.getFirst().metrics(), first.inSample());
+
+        var winner = ranked.getFirst().variant();
+        var replay = new ParameterSweep(new Config(), BASE, bars.view(150, 260), SPACE).evaluate(winner);
+        assertEquals(replay.metrics(), first.outOfSample());
+    }
+
+    @Test
+    @DisplayName("a parallel run picks the same parameters and equity as a sequential one")
+    void parallelMatchesSequential() {
+        var sequential = optimizer(SPACE, plan(1)).run();
+        var parallel = optimizer(SPACE, plan(4)).run();
+
+        assertEquals(sequential.windows().size(), parallel.windows().size());
+        for (int w = 0; w < sequential.windows().size(); w++) {
+            assertEquals(sequential.windows().get(w).parameters(), parallel.windows().get(w).parameters());
+            assertEquals(sequential.windows().get(w).outOfSample(), parallel.windows().get(w).outOfSample());
+        }
+        assertEquals(sequential.finalEquity(), parallel.finalEquity(), EPSILON);
+        assertEquals(sequential.equityCurve(), parallel.equityCurve());
+    }
+
+    @Test
+    @DisplayName("the stitched curve compounds every out-of-sample trade in time order")
+    void stitchedEquity() {
+        var report = optimizer(SPACE, plan(2)).run();
+        var curve = report.equityCurve();
+
+        assertEquals(BASE.initialCapital(), curve.getFirst().equity(), EPSILON);
+        assertEquals(report.finalEquity(), curve.getLast().equity(), EPSILON);
+        for (int i = 1; i < curve.size(); i++) {
+            assertFalse(curve.get(i).time().isBefore(curve.get(i - 1).time()), "curve goes back at " + i);
+        }
+        int trades = report.windows().stream().mapToInt(w -> w.outOfSampleTrades().size()).sum();
+        assertTrue(trades > 0, "no out-of-sample trades");
+        assertEquals(trades + report.windows().size(), curve.size());
+        assertTrue(report.maxDrawdownPercent() >= 0);
+    }
+
+    @Test
+    @DisplayName("stability summarises each parameter's chosen values across windows")
+    void stability() {
+        var space = ParameterSpace.of(
+            new Parameter("takeProfitPercent", 0.5, 4.0, 0.5),
+            new Parameter("trailingStopPercent", 0.5, 0.5, 0.5));
+        var report = optimizer(space, plan(2)).run();
+        var chosen = report.windows().stream().mapToDouble(w -> w.parameters().get("takeProfitPercent")).toArray();
+
+        var takeProfit = report.stability().get(0);
+        assertEquals("takeProfitPercent", takeProfit.parameter());
+        assertEquals(Arrays.stream(chosen).average().orElseThrow(), takeProfit.mean(), EPSILON);
+        assertEquals(Arrays.stream(chosen).min().orElseThrow(), takeProfit.min(), EPSILON);
+        assertEquals(Arrays.stream(chosen).max().orElseThrow(), takeProfit.max(), EPSILON);
+
+        var trailing = report.stability().get(1);
+        assertEquals(0, trailing.stdDev(), EPSILON);
+        assertEquals(0, trailing.changes());
+        assertEquals(0, trailing.coefficientOfVariation(), EPSILON);
+    }
+
+    @Test
+    @DisplayName("cancellation skips the remaining windows and throws")
+    void cancellation() {
+        var finished = new AtomicInteger();
+        var optimizer = optimizer(SPACE, plan(1));
+        assertThrows(CancellationException.class,
+            () -> optimizer.run(w -> finished.incrementAndGet(), () -> finished.get() >= 2));
+        assertEquals(2, finished.get());
+    }
+
+    @Test
+    @DisplayName("windows too short for the warm-up or the data are rejected")
+    void rejectsBadPlans() {
+        assertThrows(IllegalArgumentException.class, () -> new WalkForwardOptimizer(new Config(), BASE, bars(),
+            SPACE, new Plan(55, 60, 0, ParameterSpace.Sampling.GRID, 0, 0, Objective.SHARPE, 1)));
+        assertThrows(IllegalArgumentException.class, () -> new WalkForwardOptimizer(new Config(), BASE, bars(),
+            SPACE, new Plan(200, 5, 0, ParameterSpace.Sampling.GRID, 0, 0, Objective.SHARPE, 1)));
+
+        var tooLong = new WalkForwardOptimizer(new Config(), BASE, bars(), SPACE,
+            new Plan(450, 60, 0, ParameterSpace.Sampling.GRID, 0, 0, Objective.SHARPE, 1));
+        assertEquals(0, tooLong.windowCount());
+        assertThrows(IllegalArgumentException.class, tooLong::run);
+    }
+}
@@ -0,0 +1,195 @@
+package com.trading.bot;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CycleScheduler — event-driven trading cycles")
+class CycleSchedulerTest {
+
+    private static CycleScheduler scheduler(Duration sweep) {
+        return new CycleScheduler("TEST", sweep, Duration.ofHours(1), Duration.ofMillis(10),
+            Duration.ZERO, Clock.systemUTC());
+    }
+
+    private static long millis(Runnable r) {
+        long start = System.nanoTime();
+        r.run();
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    @Test
+    @DisplayName("with nothing happening, the sweep wakes the loop for a full cycle")
+    void sweep() throws Exception {
+        var scheduler = scheduler(Duration.ofMillis(100));
+
+        var wakeup = scheduler.awaitNext();
+
+        assertEquals(Set.of(CycleScheduler.Reason.SWEEP), wakeup.reasons());
+        assertTrue(wakeup.isFullCycle());
+        assertEquals(1, scheduler.getStats().sweeps());
+    }
+
+    @Test
+    @DisplayName("a shorter sweep passed by the caller overrides the configured one")
+    void sweepOverride() throws Exception {
+        var scheduler = scheduler(Duration.ofMinutes(5));
+        assertFalse(scheduler.hasPriceSource());
+
+        long start = System.nanoTime();
+        var wakeup = scheduler.awaitNext(Duration.ofMillis(100));
+
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(2).toNanos());
+        assertEquals(Set.of(CycleScheduler.Reason.SWEEP), wakeup.reasons());
+    }
+
+    @Test
+    @DisplayName("the sweep is capped at the cycle interval while holding or without a price source")
+    void sweepCap() {
+        var scheduler = scheduler(Duration.ofMinutes(5));
+        var cycle = Duration.ofSeconds(10);
+
+        assertEquals(cycle, scheduler.sweepFor(false, cycle));
+
+        scheduler.setPriceSource(symbol -> OptionalDouble.of(500));
+        assertEquals(Duration.ofMinutes(5), scheduler.sweepFor(false, cycle));
+        assertEquals(cycle, scheduler.sweepFor(true, cycle));
+        assertEquals(Duration.ofSeconds(5), scheduler(Duration.ofSeconds(5)).sweepFor(true, cycle));
+    }
+
+    @Test
+    @DisplayName("a held position's band tops out one trail step above its peak, below the target")
+    void holdingBand() {
+        var trailing = CycleScheduler.Band.holding(490, 530, 505, 0.005);
+        assertEquals(490, trailing.low());
+        assertEquals(505 * 1.005, trailing.high(), 1e-9);
+
+        assertEquals(new CycleScheduler.Band(490, 530), CycleScheduler.Band.holding(490, 530, 505, 0));
+        // Near the target the target is the nearer edge
+        assertEquals(530, CycleScheduler.Band.holding(490, 530, 529, 0.005).high());
+    }
+
+    @Test
+    @DisplayName("an order event wakes the loop at once for that symbol only")
+    void orderEvent() throws Exception {
+        var scheduler = scheduler(Duration.ofMinutes(5));
+        Thread.ofVirtual().start(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ignored) {
+            }
+            scheduler.onOrderEvent("SPY");
+        });
+
+        long start = System.nanoTime();
+        var wakeup = scheduler.awaitNext();
+
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(2).toNanos());
+        assertEquals(Set.of(CycleScheduler.Reason.ORDER_EVENT), wakeup.reasons());
+        assertEquals(Set.of("SPY"), wakeup.symbols());
+        assertFalse(wakeup.isFullCycle());
+    }
+
+    @Test
+    @DisplayName("a price leaving a position's band wakes the loop once, until it re-enters or the band moves")
+    void bandCrossing() throws Exception {
+        var prices = new ConcurrentHashMap<String, Double>(Map.of("SPY", 500.0, "QQQ", 400.0));
+        var scheduler = scheduler(Duration.ofMillis(300));
+        scheduler.setPriceSource(symbol -> prices.containsKey(symbol)
+            ? OptionalDouble.of(prices.get(symbol)) : OptionalDouble.empty());
+        scheduler.setBands(Map.of(
+            "SPY", new CycleScheduler.Band(490, 510),
+            "QQQ", new CycleScheduler.Band(390, 410)));
+
+        prices.put("SPY", 489.5);
+        var wakeup = scheduler.awaitNext();
+        assertEquals(Set.of(CycleScheduler.Reason.PRICE_BAND), wakeup.reasons());
+        assertEquals(Set.of("SPY"), wakeup.symbols());
+
+        // Still below the stop with the same band: no repeat trigger — the sweep comes next
+        scheduler.setBands(Map.of(
+            "SPY", new CycleScheduler.Band(490, 510),
+            "QQQ", new CycleScheduler.Band(390, 410)));
+        assertEquals(Set.of(CycleScheduler.Reason.SWEEP), scheduler.awaitNext().reasons());
+
+        // A moved band re-arms
+        scheduler.setBands(Map.of("SPY", new CycleScheduler.Band(491, 510)));
+        assertEquals(Set.of("SPY"), scheduler.awaitNext().symbols());
+        assertEquals(2, scheduler.getStats().bandCrossings());
+    }
+
+    @Test
+    @DisplayName("the next bar close is the coming interval boundary plus the settle delay")
+    void nextBarClose() {
+        var scheduler = new CycleScheduler("TEST", Duration.ofMinutes(2), Duration.ofMinutes(15));
+        long t1014 = Instant.parse("2026-03-02T15:14:59Z").toEpochMilli();
+        long t1015 = Instant.parse("2026-03-02T15:15:03Z").toEpochMilli();
+        long t1016 = Instant.parse("2026-03-02T15:15:06Z").toEpochMilli();
+
+        assertEquals(Instant.parse("2026-03-02T15:15:05Z").toEpochMilli(), scheduler.nextBarClose(t1014));
+        assertEquals(Instant.parse("2026-03-02T15:15:05Z").toEpochMilli(), scheduler.nextBarClose(t1015),
+            "the bar that just closed is still awaited through the settle delay");
+        assertEquals(Instant.parse("2026-03-02T15:30:05Z").toEpochMilli(), scheduler.nextBarClose(t1016));
+    }
+
+    @Test
+    @DisplayName("a bar close wakes the loop for a full cycle")
+    void barClose() throws Exception {
+        // Clock 20ms before a 1-minute boundary's settle point
+        var now = Instant.parse("2026-03-02T15:15:04.980Z");
+        var clock = new Clock() {
+            final long offset = now.toEpochMilli() - System.currentTimeMillis();
+
+            @Override public ZoneOffset getZone() { return ZoneOffset.UTC; }
+            @Override public Clock withZone(java.time.ZoneId zone) { return this; }
+            @Override public Instant instant() { return Instant.ofEpochMilli(millis()); }
+            @Override public long millis() { return System.currentTimeMillis() + offset; }
+        };
+        var scheduler = new CycleScheduler("TEST", Duration.ofMinutes(5), Duration.ofMinutes(1),
+            Duration.ofMillis(10), Duration.ZERO, clock);
+
+        var wakeup = scheduler.awaitNext();
+
+        assertEquals(Set.of(CycleScheduler.Reason.BAR_CLOSE), wakeup.reasons());
+        assertTrue(wakeup.isFullCycle());
+    }
+
+    @Test
+    @DisplayName("the heartbeat keeps beating while the loop waits")
+    void heartbeatWhileIdle() throws Exception {
+        var start = Instant.parse("2026-03-02T15:00:10Z");
+        var beats = new AtomicInteger();
+        var clock = new Clock() {
+            final long began = System.currentTimeMillis();
+
+            @Override public ZoneOffset getZone() { return ZoneOffset.UTC; }
+            @Override public Clock withZone(java.time.ZoneId zone) { return this; }
+            @Override public Instant instant() { return Instant.ofEpochMilli(millis()); }
+            // Runs 1000x fast so 40 simulated seconds pass in 40ms
+            @Override public long millis() { return start.toEpochMilli() + (System.currentTimeMillis() - began) * 1000; }
+        };
+        var scheduler = new CycleScheduler("TEST", Duration.ofSeconds(40), Duration.ofHours(1),
+            Duration.ofMillis(1), Duration.ZERO, clock);
+        scheduler.setHeartbeat(beats::incrementAndGet);
+
+        assertTrue(millis(() -> {
+            try {
+                scheduler.awaitNext();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }) < 5_000);
+        assertEquals(1, beats.get());
+    }
+}
@@ -0,0 +1,98 @@
+package com.trading.execution;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Trade updates stream")
+class AlpacaTradeUpdatesClientTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private AlpacaTradingStreamStandIn server;
+    private OrderBook book;
+    private AtomicReference<JsonNode> restListing;
+    private AlpacaTradeUpdatesClient client;
+
+    private static void await(BooleanSupplier condition, String what) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) fail("Timed out waiting for " + what);
+            Thread.sleep(10);
+        }
+    }
+
+    private static String order(String id, String status, String updatedAt) {
+        return """
+            {"id":"%s","symbol":"SPY","side":"sell","type":"limit","order_class":"bracket","status":"%s",
+             "qty":"10","filled_qty":"0","updated_at":"%s"}""".formatted(id, status, updatedAt);
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new AlpacaTradingStreamStandIn();
+        book = new OrderBook("alpaca");
+        restListing = new AtomicReference<>(MAPPER.readTree("[" + order("seeded", "new", "2000-01-01T00:00:00Z") + "]"));
+        client = new AlpacaTradeUpdatesClient(server.uri(), AlpacaTradingStreamStandIn.KEY,
+            AlpacaTradingStreamStandIn.SECRET, book, restListing::get, Duration.ofMillis(50));
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.close();
+    }
+
+    @Test
+    @DisplayName("authenticates, listens, seeds from REST and goes live")
+    void seedsAndGoesLive() throws Exception {
+        client.start();
+        await(book::isLive, "book live");
+
+        assertEquals(1, server.listeners());
+        assertEquals("seeded", book.openOrders("SPY").get(0).path("id").asText());
+        assertEquals("bracket", book.openOrders("SPY").get(0).path("order_class").asText());
+    }
+
+    @Test
+    @DisplayName("a fill reaches the book's listeners as soon as it is streamed")
+    void streamsFills() throws Exception {
+        var filled = new AtomicReference<OrderBook.OrderUpdate>();
+        book.addListener(update -> {
+            if (update.order().status() == OrderBook.Status.FILLED) filled.set(update);
+        });
+        client.start();
+        await(book::isLive, "book live");
+
+        server.publish("new", order("42", "new", "2026-03-02T15:00:00.1Z"), null);
+        server.publish("fill", order("42", "filled", "2026-03-02T15:00:00.2Z"), "0");
+        await(() -> filled.get() != null, "fill");
+
+        assertEquals("42", filled.get().order().id());
+        assertEquals(0.0, filled.get().positionQty());
+        assertEquals(1, book.openOrders("SPY").size(), "only the seeded order is still open");
+    }
+
+    @Test
+    @DisplayName("goes offline on disconnect, then reconnects and re-seeds")
+    void reconnects() throws Exception {
+        client.start();
+        await(book::isLive, "book live");
+
+        restListing.set(MAPPER.createArrayNode());
+        server.dropConnections();
+        await(() -> server.connections() >= 2 && book.isLive(), "reconnect");
+
+        assertEquals(0, book.openOrders("SPY").size(), "the order that vanished while offline was closed");
+        assertEquals(OrderBook.Status.CLOSED, book.get("seeded").orElseThrow().status());
+    }
+}
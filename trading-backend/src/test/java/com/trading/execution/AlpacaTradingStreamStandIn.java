@@ -0,0 +1,82 @@
+package com.trading.execution;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.javalin.Javalin;
+import io.javalin.websocket.WsContext;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for Alpaca's trading stream, for offline tests.
+ *
+ * Speaks the same handshake (authenticate → authorization → listen → listening) and lets the
+ * test push trade updates with {@link #publish} or drop every session with
+ * {@link #dropConnections} to exercise reconnect.
+ */
+final class AlpacaTradingStreamStandIn implements AutoCloseable {
+    static final String KEY = "test-key";
+    static final String SECRET = "test-secret";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final List<WsContext> listening = new CopyOnWriteArrayList<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final Javalin app;
+
+    AlpacaTradingStreamStandIn() {
+        app = Javalin.create(config -> config.showJavalinBanner = false);
+        app.ws("/stream", ws -> {
+            ws.onConnect(ctx -> connections.incrementAndGet());
+            ws.onMessage(ctx -> {
+                var msg = mapper.readTree(ctx.message());
+                switch (msg.path("action").asText()) {
+                    case "authenticate" -> {
+                        var data = msg.path("data");
+                        boolean ok = KEY.equals(data.path("key_id").asText())
+                            && SECRET.equals(data.path("secret_key").asText());
+                        ctx.send("{\"stream\":\"authorization\",\"data\":{\"status\":\""
+                            + (ok ? "authorized" : "unauthorized") + "\",\"action\":\"authenticate\"}}");
+                    }
+                    case "listen" -> {
+                        listening.add(ctx);
+                        ctx.send("{\"stream\":\"listening\",\"data\":{\"streams\":" + msg.path("data").path("streams") + "}}");
+                    }
+                    default -> ctx.send("{\"stream\":\"error\",\"data\":{\"error\":\"invalid action\"}}");
+                }
+            });
+            ws.onClose(ctx -> listening.removeIf(s -> s.sessionId().equals(ctx.sessionId())));
+        });
+        app.start(0);
+    }
+
+    URI uri() {
+        return URI.create("ws://localhost:" + app.port() + "/stream");
+    }
+
+    /** Send one trade update; {@code orderJson} is the full order object. */
+    void publish(String event, String orderJson, String positionQty) {
+        String message = "{\"stream\":\"trade_updates\",\"data\":{\"event\":\"" + event + "\",\"order\":" + orderJson
+            + (positionQty != null ? ",\"position_qty\":\"" + positionQty + "\"" : "") + "}}";
+        listening.forEach(s -> s.send(message));
+    }
+
+    void dropConnections() {
+        listening.forEach(WsContext::closeSession);
+        listening.clear();
+    }
+
+    int listeners() {
+        return listening.size();
+    }
+
+    int connections() {
+        return connections.get();
+    }
+
+    @Override
+    public void close() {
+        app.stop();
+    }
+}
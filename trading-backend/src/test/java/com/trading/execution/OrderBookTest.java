@@ -0,0 +1,208 @@
+package com.trading.execution;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OrderBook — in-memory order state per broker")
+class OrderBookTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static JsonNode order(String id, String symbol, String side, String status, String updatedAt) throws Exception {
+        return MAPPER.readTree("""
+            {"id":"%s","symbol":"%s","side":"%s","type":"stop","status":"%s","qty":"10","filled_qty":"0",
+             "updated_at":"%s"}""".formatted(id, symbol, side, status, updatedAt));
+    }
+
+    private static OrderBook liveBook() {
+        var book = new OrderBook("alpaca");
+        book.setLive(true);
+        return book;
+    }
+
+    @Test
+    @DisplayName("orders move through their lifecycle and leave the open list when they close")
+    void lifecycle() throws Exception {
+        var book = liveBook();
+        var updates = new ArrayList<OrderBook.OrderUpdate>();
+        book.addListener(updates::add);
+
+        book.apply("new", order("1", "SPY", "sell", "new", "2026-03-02T15:00:00Z"), Double.NaN);
+        book.apply("partial_fill", order("1", "SPY", "sell", "partially_filled", "2026-03-02T15:00:01Z"), 5);
+        assertEquals(1, book.openOrders("SPY").size());
+        assertEquals(OrderBook.Status.PARTIALLY_FILLED, book.get("1").orElseThrow().status());
+
+        book.apply("fill", order("1", "SPY", "sell", "filled", "2026-03-02T15:00:02Z"), 0);
+
+        assertEquals(0, book.openOrders("SPY").size());
+        assertEquals(OrderBook.Status.FILLED, book.get("1").orElseThrow().status());
+        assertEquals(List.of("new", "partial_fill", "fill"), updates.stream().map(OrderBook.OrderUpdate::event).toList());
+        assertEquals(0.0, updates.get(2).positionQty());
+        assertEquals(2, book.getStats().fills());
+    }
+
+    @Test
+    @DisplayName("an older or re-opening update never overwrites a newer closed state")
+    void ignoresStaleUpdates() throws Exception {
+        var book = liveBook();
+        book.apply("canceled", order("1", "SPY", "sell", "canceled", "2026-03-02T15:00:05Z"), Double.NaN);
+
+        assertTrue(book.apply("new", order("1", "SPY", "sell", "new", "2026-03-02T15:00:00Z"), Double.NaN).isEmpty());
+        assertTrue(book.apply("poll", order("1", "SPY", "sell", "open", "2026-03-02T15:00:09Z"), Double.NaN).isEmpty());
+        assertEquals(OrderBook.Status.CANCELED, book.get("1").orElseThrow().status());
+    }
+
+    @Test
+    @DisplayName("answers only while live and not settling after a local order call")
+    void declinesWhenUntrusted() throws Exception {
+        var book = new OrderBook("alpaca");
+        book.apply("new", order("1", "SPY", "sell", "new", "2026-03-02T15:00:00Z"), Double.NaN);
+        assertNull(book.openOrders("SPY"), "offline");
+
+        book.setLive(true);
+        assertEquals(1, book.openOrders("SPY").size());
+        assertEquals(0, book.openOrders("QQQ").size());
+
+        book.expectChanges();
+        assertNull(book.openOrders("SPY"), "settling");
+        assertEquals(1, book.openOrderStates("SPY").size());
+    }
+
+    @Test
+    @DisplayName("only the most recent closed orders are retained")
+    void retainsRecentClosed() throws Exception {
+        var book = liveBook();
+        for (int i = 0; i < 520; i++) {
+            book.apply("fill", order("o" + i, "SPY", "buy", "filled", "2026-03-02T15:00:00Z"), 1);
+        }
+        assertTrue(book.get("o0").isEmpty());
+        assertTrue(book.get("o519").isPresent());
+        assertEquals(500, book.getStats().closedOrders());
+    }
+
+    @Nested
+    @DisplayName("reconciling with a polled listing")
+    class Reconcile {
+
+        @Test
+        @DisplayName("an order gone from the listing takes its status from recent orders, else CLOSED")
+        void vanishedOrders() throws Exception {
+            var book = new OrderBook("tradier");
+            var listing = new AtomicReference<JsonNode>(MAPPER.readTree("""
+                [{"id":"1","symbol":"SPY","type":"stop"},{"id":"2","symbol":"QQQ","type":"limit"},
+                 {"id":"3","symbol":"IWM","type":"limit"}]"""));
+            var recent = MAPPER.readTree("""
+                [{"id":"1","symbol":"SPY","status":"filled","exec_quantity":10,"avg_fill_price":480.5}]""");
+            var feed = new PollingOrderFeed(book, listing::get, symbol -> symbol.equals("SPY") ? recent : null,
+                Duration.ofMinutes(1));
+            var events = new ArrayList<OrderBook.OrderUpdate>();
+            book.addListener(events::add);
+
+            feed.poll();
+            assertTrue(book.isLive());
+            assertEquals(1, book.openOrders("SPY").size());
+            assertEquals(3, events.size());
+
+            listing.set(MAPPER.readTree("[{\"id\":\"3\",\"symbol\":\"IWM\",\"type\":\"limit\"}]"));
+            feed.poll();
+
+            assertEquals(OrderBook.Status.FILLED, book.get("1").orElseThrow().status());
+            assertEquals(480.5, book.get("1").orElseThrow().filledAvgPrice());
+            assertEquals(OrderBook.Status.CLOSED, book.get("2").orElseThrow().status());
+            assertEquals(OrderBook.Status.NEW, book.get("3").orElseThrow().status());
+            assertEquals(5, events.size(), "unchanged open orders are not re-reported");
+        }
+
+        @Test
+        @DisplayName("a polled fill or unknown close reports the position looked up after it")
+        void polledFillReportsPosition() throws Exception {
+            var book = new OrderBook("tradier");
+            var listing = new AtomicReference<JsonNode>(MAPPER.readTree("""
+                [{"id":"1","symbol":"SPY","side":"sell","type":"market"},
+                 {"id":"2","symbol":"QQQ","side":"sell","type":"limit"}]"""));
+            var recent = MAPPER.readTree("""
+                [{"id":"1","symbol":"SPY","side":"sell","status":"filled","exec_quantity":10}]""");
+            var lookups = new ArrayList<String>();
+            var feed = new PollingOrderFeed(book, listing::get, symbol -> symbol.equals("SPY") ? recent : null,
+                symbol -> {
+                    lookups.add(symbol);
+                    return symbol.equals("QQQ") ? 3 : 0;
+                }, Duration.ofMinutes(1));
+            var events = new ArrayList<OrderBook.OrderUpdate>();
+            book.addListener(events::add);
+
+            feed.poll();
+            assertTrue(lookups.isEmpty(), "no position lookup without a fill");
+            assertTrue(events.stream().allMatch(e -> Double.isNaN(e.positionQty())));
+
+            listing.set(MAPPER.createArrayNode());
+            feed.poll();
+
+            var spy = events.stream().filter(e -> e.order().id().equals("1")).toList().getLast();
+            assertEquals(OrderBook.Status.FILLED, spy.order().status());
+            assertEquals(0, spy.positionQty());
+            var qqq = events.stream().filter(e -> e.order().id().equals("2")).toList().getLast();
+            assertEquals(OrderBook.Status.CLOSED, qqq.order().status());
+            assertEquals(3, qqq.positionQty());
+            assertEquals(2, lookups.size());
+        }
+
+        @Test
+        @DisplayName("an order updated after the listing was taken is not closed by it")
+        void keepsNewerOrders() throws Exception {
+            var book = liveBook();
+            var asOf = Instant.parse("2026-03-02T15:00:00Z");
+            book.apply("new", order("9", "SPY", "buy", "new", "2026-03-02T15:00:01Z"), Double.NaN);
+
+            book.reconcile(MAPPER.createArrayNode(), asOf, null, null);
+
+            assertEquals(OrderBook.Status.NEW, book.get("9").orElseThrow().status());
+        }
+
+        @Test
+        @DisplayName("after a local order call a polled book declines until a later listing is reconciled")
+        void polledBookSettlesOnReconcile() throws Exception {
+            var book = new OrderBook("tradier");
+            var feed = new PollingOrderFeed(book, MAPPER::createArrayNode, null, Duration.ofMinutes(1));
+            feed.poll();
+            assertNotNull(book.openOrders("SPY"));
+
+            var before = Instant.now().minusSeconds(1);
+            book.expectChanges();
+            assertNull(book.openOrders("SPY"));
+
+            // A listing taken before the call can't include it, however long ago the call was
+            book.reconcile(MAPPER.createArrayNode(), before, null, null);
+            assertNull(book.openOrders("SPY"));
+
+            Thread.sleep(2);
+            feed.poll();
+            assertNotNull(book.openOrders("SPY"));
+        }
+
+        @Test
+        @DisplayName("a failed poll takes the book offline until the next one succeeds")
+        void failedPoll() throws Exception {
+            var book = new OrderBook("ibkr");
+            var listing = new AtomicReference<JsonNode>(MAPPER.createArrayNode());
+            var feed = new PollingOrderFeed(book, listing::get, null, Duration.ofMinutes(1));
+
+            feed.poll();
+            assertTrue(book.isLive());
+            listing.set(null);
+            feed.poll();
+            assertFalse(book.isLive());
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.trading.indicators;
+
+import com.trading.api.model.Bar;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("IndicatorSet")
+class IndicatorSetTest {
+    private static final Instant T0 = Instant.parse("2026-01-05T05:00:00Z");
+
+    private static Bar bar(int day, double close) {
+        return new Bar(T0.plusSeconds(86_400L * day), close, close + 1, close - 1, close, 1_000);
+    }
+
+    private static List<Bar> closes(int fromDay, double... closes) {
+        var bars = new ArrayList<Bar>();
+        for (int i = 0; i < closes.length; i++) bars.add(bar(fromDay + i, closes[i]));
+        return bars;
+    }
+
+    @Test
+    @DisplayName("appends only the bars newer than the last one held")
+    void appendsNewBars() {
+        var set = new IndicatorSet(16);
+        set.sync(closes(0, 1, 2, 3));
+        assertEquals(2.0, set.sma(3).value());
+
+        set.sync(closes(1, 2, 3, 4, 5));
+        assertEquals(5, set.size());
+        assertEquals(4.0, set.sma(3).value());
+        assertEquals(3.0, set.sma(3).previous());
+        assertEquals(0, set.rebuilds());
+    }
+
+    @Test
+    @DisplayName("a changed newest bar is revised in place without moving previous")
+    void revisesFormingBar() {
+        var set = new IndicatorSet(16);
+        set.sync(closes(0, 1, 2, 3));
+        set.sma(3);
+        set.sync(closes(0, 1, 2, 6));
+        assertEquals(3, set.size());
+        assertEquals(3.0, set.sma(3).value());
+        assertTrue(Double.isNaN(set.sma(3).previous()));
+    }
+
+    @Test
+    @DisplayName("a window that does not reach back to the held bars rebuilds the set")
+    void gapRebuilds() {
+        var set = new IndicatorSet(16);
+        set.sync(closes(0, 1, 2, 3));
+        set.sma(2);
+        set.sync(closes(10, 7, 9));
+        assertEquals(1, set.rebuilds());
+        assertEquals(2, set.size());
+        assertEquals(8.0, set.sma(2).value());
+    }
+
+    @Test
+    @DisplayName("an older window than the one held is ignored")
+    void ignoresStaleWindow() {
+        var set = new IndicatorSet(16);
+        set.sync(closes(0, 1, 2, 3, 4));
+        set.sync(closes(0, 1, 2));
+        assertEquals(4, set.size());
+        assertEquals(3.5, set.sma(2).value());
+    }
+
+    @Test
+    @DisplayName("an indicator asked for late is replayed to the same state as one kept from the start")
+    void lateIndicatorReplays() {
+        var early = new IndicatorSet(64);
+        var late = new IndicatorSet(64);
+        early.rsi(5);
+        var bars = new ArrayList<Bar>();
+        for (int day = 0; day < 30; day++) {
+            bars.add(bar(day, 100 + Math.sin(day)));
+            early.sync(bars);
+            late.sync(bars);
+        }
+        assertEquals(early.rsi(5), late.rsi(5));
+    }
+
+    @Test
+    @DisplayName("a sync with a reader reads the bars it synced")
+    void syncAndRead() {
+        var registry = new IndicatorRegistry(32);
+        var sma = registry.sync("alpaca", "SPY", "1Day", closes(0, 1, 2, 3), set -> set.sma(2));
+        assertEquals(new IndicatorSet.Reading(2.5, 1.5), sma);
+        assertEquals(3, registry.get("alpaca", "SPY", "1Day").size());
+    }
+
+    @Test
+    @DisplayName("the registry hands out one set per (source, symbol, timeframe)")
+    void registryKeys() {
+        var registry = new IndicatorRegistry(32);
+        assertSame(registry.get("alpaca", "SPY", "1Day"), registry.get("alpaca", "SPY", "1Day"));
+        assertNotSame(registry.get("alpaca", "SPY", "1Day"), registry.get("alpaca", "SPY", "15Min"));
+        assertNotSame(registry.get("alpaca", "SPY", "1Day"), registry.get("tradier", "SPY", "1Day"));
+        registry.invalidate("SPY");
+        assertEquals(0, registry.size());
+    }
+}
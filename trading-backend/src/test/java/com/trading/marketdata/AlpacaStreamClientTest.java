@@ -0,0 +1,150 @@
+package com.trading.marketdata;
+
+import com.trading.api.model.Bar;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Market data stream")
+class AlpacaStreamClientTest {
+
+    private static void await(BooleanSupplier condition, String what) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) fail("Timed out waiting for " + what);
+            Thread.sleep(10);
+        }
+    }
+
+    @Nested
+    @DisplayName("against the local stand-in server")
+    class Streaming {
+        private AlpacaStreamStandIn server;
+        private LiveQuoteTable table;
+        private AlpacaStreamClient client;
+
+        @BeforeEach
+        void setUp() {
+            server = new AlpacaStreamStandIn();
+            table = new LiveQuoteTable();
+            client = new AlpacaStreamClient(server.uri(), AlpacaStreamStandIn.KEY, AlpacaStreamStandIn.SECRET,
+                table, Duration.ofMillis(50));
+        }
+
+        @AfterEach
+        void tearDown() {
+            client.close();
+            server.close();
+        }
+
+        @Test
+        @DisplayName("authenticates, subscribes and fills the table from trades and quotes")
+        void streamsIntoTable() throws Exception {
+            client.subscribe(List.of("SPY"));
+            client.start();
+            await(() -> server.subscribed().contains("SPY"), "subscription");
+
+            var now = Instant.now();
+            server.publish("[{\"T\":\"q\",\"S\":\"SPY\",\"bp\":500.10,\"ap\":500.14,\"t\":\"" + now + "\"},"
+                + "{\"T\":\"t\",\"S\":\"SPY\",\"p\":500.12,\"s\":100,\"t\":\"" + now + "\"}]");
+            await(() -> table.lastPrice("SPY", Duration.ofSeconds(5)).isPresent(), "trade");
+
+            var tick = table.get("SPY").orElseThrow();
+            assertEquals(500.12, tick.lastPrice(), 1e-9);
+            assertEquals(500.10, tick.bidPrice(), 1e-9);
+            assertEquals(500.14, tick.askPrice(), 1e-9);
+            assertTrue(client.isConnected());
+        }
+
+        @Test
+        @DisplayName("symbols added after connect are subscribed immediately")
+        void lateSubscribe() throws Exception {
+            client.start();
+            await(client::isConnected, "authentication");
+            client.subscribe(List.of("QQQ"));
+            await(() -> server.subscribed().contains("QQQ"), "late subscription");
+        }
+
+        @Test
+        @DisplayName("reconnects and re-subscribes after the server drops the connection")
+        void reconnectsAndResubscribes() throws Exception {
+            client.subscribe(List.of("SPY", "QQQ"));
+            client.start();
+            await(() -> server.subscribed().containsAll(List.of("SPY", "QQQ")), "subscription");
+
+            server.dropConnections();
+            await(() -> server.authentications() >= 2, "re-authentication");
+            await(() -> server.subscribed().containsAll(List.of("SPY", "QQQ")), "re-subscription");
+            assertTrue(client.getStats().reconnects() >= 1);
+        }
+    }
+
+    @Nested
+    @DisplayName("LiveQuoteTable")
+    class Table {
+        private static final Instant T = Instant.parse("2026-03-10T14:30:00Z");
+
+        private LiveQuoteTable tableAt(Instant now) {
+            return new LiveQuoteTable(Clock.fixed(now, ZoneOffset.UTC));
+        }
+
+        @Test
+        @DisplayName("aggregates trades into 1-minute bars and rolls over on the next minute")
+        void buildsMinuteBars() {
+            var table = tableAt(T.plusSeconds(70));
+            table.onTrade("SPY", 100.0, 10, T.plusSeconds(1));
+            table.onTrade("SPY", 101.5, 5, T.plusSeconds(20));
+            table.onTrade("SPY", 99.5, 5, T.plusSeconds(40));
+            table.onTrade("SPY", 100.5, 20, T.plusSeconds(59));
+            table.onTrade("SPY", 102.0, 1, T.plusSeconds(61));
+
+            assertEquals(new Bar(T, 100.0, 101.5, 99.5, 100.5, 40), table.lastCompletedBar("SPY").orElseThrow());
+            var forming = table.latestBar("SPY", Duration.ofSeconds(15)).orElseThrow();
+            assertEquals(T.plusSeconds(60), forming.timestamp());
+            assertEquals(102.0, forming.close(), 1e-9);
+        }
+
+        @Test
+        @DisplayName("late prints for a closed minute are ignored")
+        void ignoresLatePrints() {
+            var table = tableAt(T.plusSeconds(70));
+            table.onTrade("SPY", 100.0, 10, T.plusSeconds(10));
+            table.onTrade("SPY", 101.0, 10, T.plusSeconds(65));
+            table.onTrade("SPY", 50.0, 10, T.plusSeconds(30));
+
+            assertEquals(100.0, table.lastCompletedBar("SPY").orElseThrow().low(), 1e-9);
+        }
+
+        @Test
+        @DisplayName("stale prices are not served")
+        void stalePricesExpire() {
+            var writer = tableAt(T);
+            writer.onTrade("SPY", 100.0, 10, T);
+            assertTrue(writer.lastPrice("SPY", Duration.ofSeconds(15)).isPresent());
+
+            // Same data read 30s later through a table whose clock has moved on
+            var later = tableAt(T.plusSeconds(30));
+            later.onTrade("SPY", 100.0, 10, T);
+            assertTrue(later.lastPrice("SPY", Duration.ofSeconds(15)).isEmpty());
+        }
+
+        @Test
+        @DisplayName("falls back to the quote midpoint when there is no fresh trade")
+        void quoteMidpointFallback() {
+            var table = tableAt(T);
+            table.onQuote("QQQ", 400.0, 400.2, T);
+            assertEquals(400.1, table.lastPrice("QQQ", Duration.ofSeconds(15)).orElseThrow(), 1e-9);
+        }
+    }
+}
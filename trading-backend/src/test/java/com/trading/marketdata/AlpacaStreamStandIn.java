@@ -0,0 +1,94 @@
+package com.trading.marketdata;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.javalin.Javalin;
+import io.javalin.websocket.WsContext;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for Alpaca's stock data stream, for offline tests.
+ *
+ * Speaks the same handshake (connected → auth → authenticated → subscribe → subscription) and
+ * lets the test push raw event arrays with {@link #publish} or drop every session with
+ * {@link #dropConnections} to exercise reconnect.
+ */
+final class AlpacaStreamStandIn implements AutoCloseable {
+    static final String KEY = "test-key";
+    static final String SECRET = "test-secret";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final List<WsContext> sessions = new CopyOnWriteArrayList<>();
+    private final Set<String> subscribed = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicInteger authentications = new AtomicInteger();
+    private final Javalin app;
+
+    AlpacaStreamStandIn() {
+        app = Javalin.create(config -> config.showJavalinBanner = false);
+        app.ws("/v2/iex", ws -> {
+            ws.onConnect(ctx -> {
+                connections.incrementAndGet();
+                ctx.send("[{\"T\":\"success\",\"msg\":\"connected\"}]");
+            });
+            ws.onMessage(ctx -> {
+                var msg = mapper.readTree(ctx.message());
+                switch (msg.path("action").asText()) {
+                    case "auth" -> {
+                        if (KEY.equals(msg.path("key").asText()) && SECRET.equals(msg.path("secret").asText())) {
+                            sessions.add(ctx);
+                            authentications.incrementAndGet();
+                            ctx.send("[{\"T\":\"success\",\"msg\":\"authenticated\"}]");
+                        } else {
+                            ctx.send("[{\"T\":\"error\",\"code\":402,\"msg\":\"auth failed\"}]");
+                            ctx.closeSession();
+                        }
+                    }
+                    case "subscribe" -> {
+                        msg.path("trades").forEach(s -> subscribed.add(s.asText()));
+                        ctx.send("[{\"T\":\"subscription\",\"trades\":" + msg.path("trades") + "}]");
+                    }
+                    default -> ctx.send("[{\"T\":\"error\",\"code\":400,\"msg\":\"invalid syntax\"}]");
+                }
+            });
+            ws.onClose(ctx -> sessions.removeIf(s -> s.sessionId().equals(ctx.sessionId())));
+        });
+        app.start(0);
+    }
+
+    URI uri() {
+        return URI.create("ws://localhost:" + app.port() + "/v2/iex");
+    }
+
+    void publish(String eventsJson) {
+        sessions.forEach(s -> s.send(eventsJson));
+    }
+
+    void dropConnections() {
+        sessions.forEach(WsContext::closeSession);
+        sessions.clear();
+        subscribed.clear();
+    }
+
+    Set<String> subscribed() {
+        return subscribed;
+    }
+
+    int connections() {
+        return connections.get();
+    }
+
+    int authentications() {
+        return authentications.get();
+    }
+
+    @Override
+    public void close() {
+        app.stop();
+    }
+}
@@ -0,0 +1,182 @@
+package com.trading.marketdata;
+
+import com.trading.api.model.Bar;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BarArchive — memory-mapped on-disk bars")
+class BarArchiveTest {
+
+    private static final Instant T0 = Instant.parse("2026-03-02T05:00:00Z");
+
+    @TempDir
+    Path dir;
+
+    private BarArchive archive;
+
+    @BeforeEach
+    void setUp() {
+        archive = new BarArchive(dir, Clock.fixed(T0.plus(Duration.ofDays(30)), ZoneOffset.UTC));
+    }
+
+    @AfterEach
+    void tearDown() {
+        archive.close();
+    }
+
+    private static Bar bar(int day, double close) {
+        return new Bar(T0.plus(Duration.ofDays(day)), close - 0.5, close + 1, close - 1, close, 1_000L + day);
+    }
+
+    /** Bars for days [from, to). */
+    private static List<Bar> range(int from, int to) {
+        var list = new ArrayList<Bar>();
+        for (int i = from; i < to; i++) list.add(bar(i, 100 + i));
+        return list;
+    }
+
+    @Test
+    @DisplayName("bars written are read back exactly, and survive reopening the file")
+    void roundTrip() {
+        archive.record("SPY", "1Day", range(0, 20));
+        assertEquals(range(0, 20), archive.read("SPY", "1Day", 100));
+        assertEquals(range(15, 20), archive.read("SPY", "1Day", 5));
+
+        archive.close();
+        var reopened = new BarArchive(dir, Clock.systemUTC());
+        assertEquals(range(0, 20), reopened.read("SPY", "1Day", 100));
+        assertEquals(20, reopened.readSeries("SPY", "1Day", 50).size());
+        assertEquals(119.0, reopened.readSeries("SPY", "1Day", 50).lastClose());
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("positional reads walk the archive in chunks, short at the end")
+    void chunkedReads() {
+        archive.record("SPY", "1Day", range(0, 20));
+        assertEquals(range(0, 8), archive.readSeries("SPY", "1Day", 0, 8).toBars());
+        assertEquals(range(8, 16), archive.readSeries("SPY", "1Day", 8, 8).toBars());
+        assertEquals(range(16, 20), archive.readSeries("SPY", "1Day", 16, 8).toBars());
+        assertEquals(0, archive.readSeries("SPY", "1Day", 20, 8).size());
+        assertThrows(IllegalArgumentException.class, () -> archive.readSeries("SPY", "1Day", -1, 8));
+    }
+
+    @Test
+    @DisplayName("an overlapping window revises the newest bar in place and appends the rest")
+    void revisesAndAppends() {
+        archive.record("SPY", "1Day", range(0, 10));
+        var window = new ArrayList<>(range(5, 9));
+        window.add(bar(9, 150));
+        window.add(bar(10, 151));
+        archive.record("SPY", "1Day", window);
+
+        var bars = archive.read("SPY", "1Day", 100);
+        assertEquals(11, bars.size());
+        assertEquals(bar(9, 150), bars.get(9));
+        assertEquals(bar(10, 151), bars.get(10));
+        assertEquals(bar(0, 100), bars.get(0), "older bars are kept");
+    }
+
+    @Test
+    @DisplayName("a window older than the archive is ignored")
+    void ignoresOlderWindow() {
+        archive.record("SPY", "1Day", range(0, 10));
+        archive.record("SPY", "1Day", range(2, 6));
+        assertEquals(range(0, 10), archive.read("SPY", "1Day", 100));
+    }
+
+    @Test
+    @DisplayName("a window reaching further back replaces the file; one after a gap is appended")
+    void backfillAndGap() {
+        archive.record("SPY", "1Day", range(5, 10));
+        archive.record("SPY", "1Day", range(0, 12));
+        assertEquals(range(0, 12), archive.read("SPY", "1Day", 100));
+
+        archive.record("SPY", "1Day", range(20, 25));
+        var expected = range(0, 12);
+        expected.addAll(range(20, 25));
+        assertEquals(expected, archive.read("SPY", "1Day", 100));
+        assertEquals(1, archive.getStats().rewrites());
+    }
+
+    @Test
+    @DisplayName("an overlapping window without the newest archived bar replaces only the overlap")
+    void conflictingOverlap() {
+        archive.record("SPY", "1Day", range(0, 10));
+        // Same days, re-stamped an hour later: overlaps days 6-9 but never matches day 9's bar
+        var shifted = new ArrayList<Bar>();
+        for (Bar b : range(6, 12)) {
+            shifted.add(new Bar(b.timestamp().plus(Duration.ofHours(1)), b.open(), b.high(), b.low(),
+                b.close(), b.volume()));
+        }
+
+        archive.record("SPY", "1Day", shifted);
+
+        var expected = range(0, 7);
+        expected.addAll(shifted);
+        assertEquals(expected, archive.read("SPY", "1Day", 100));
+        assertEquals(1, archive.getStats().rewrites());
+    }
+
+    @Test
+    @DisplayName("a torn record at the end of the file is dropped on open")
+    void dropsTornTail() throws Exception {
+        archive.record("QQQ", "15Min", range(0, 4));
+        archive.close();
+        Path file = dir.resolve(BarArchive.fileName("QQQ", "15Min"));
+        try (var channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(file) - 10);
+        }
+
+        var reopened = new BarArchive(dir, Clock.systemUTC());
+        assertEquals(range(0, 3), reopened.read("QQQ", "15Min", 100));
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("getOrFetch serves a fresh, deep-enough archive without calling the fetcher")
+    void getOrFetch() throws Exception {
+        var calls = new AtomicInteger();
+        BarCache.BarFetcher fetcher = (s, tf, limit) -> {
+            calls.incrementAndGet();
+            return range(0, 30);
+        };
+
+        assertEquals(range(0, 30), archive.getOrFetch("SPY", "1Day", 30, BarArchive.DAILY_MAX_AGE, fetcher));
+        assertEquals(range(10, 30), archive.getOrFetch("SPY", "1Day", 20, BarArchive.DAILY_MAX_AGE, fetcher));
+        assertEquals(1, calls.get());
+
+        archive.getOrFetch("SPY", "1Day", 40, BarArchive.DAILY_MAX_AGE, fetcher);
+        assertEquals(2, calls.get(), "not enough archived bars — fetched");
+        archive.getOrFetch("SPY", "1Day", 20, Duration.ofHours(12), fetcher);
+        assertEquals(3, calls.get(), "newest archived bar too old — fetched");
+    }
+
+    @Test
+    @DisplayName("symbols and timeframes map to separate, filesystem-safe files")
+    void fileNames() {
+        assertEquals("SPY_1Day.bars", BarArchive.fileName("SPY", "1Day"));
+        assertEquals("_ES_5Min.bars", BarArchive.fileName("/ES", "5Min"));
+        archive.record("SPY", "1Day", range(0, 3));
+        archive.record("SPY", "15Min", range(0, 5));
+        assertEquals(3, archive.size("SPY", "1Day"));
+        assertEquals(5, archive.size("SPY", "15Min"));
+    }
+}
@@ -0,0 +1,173 @@
+package com.trading.marketdata;
+
+import com.trading.api.model.Bar;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BarCache — shared single-flight bar store")
+class BarCacheTest {
+
+    /** Clock the test can advance. */
+    private static final class MutableClock extends Clock {
+        private Instant now;
+        MutableClock(Instant start) { this.now = start; }
+        void advance(Duration d) { now = now.plus(d); }
+        @Override public ZoneId getZone() { return ZoneOffset.UTC; }
+        @Override public Clock withZone(ZoneId zone) { return this; }
+        @Override public Instant instant() { return now; }
+    }
+
+    // 2026-03-10 14:07:00Z — mid-session, not on a 15-minute boundary
+    private static final Instant START = Instant.parse("2026-03-10T14:07:00Z");
+
+    private MutableClock clock;
+    private BarCache cache;
+    private AtomicInteger fetches;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(START);
+        cache = new BarCache(clock, Duration.ofMinutes(10));
+        fetches = new AtomicInteger();
+    }
+
+    private static List<Bar> bars(int n) {
+        var list = new ArrayList<Bar>();
+        for (int i = 0; i < n; i++) {
+            list.add(new Bar(START.minusSeconds(60L * (n - i)), 100, 101, 99, 100 + i, 1_000L));
+        }
+        return list;
+    }
+
+    private BarCache.BarFetcher counting() {
+        return (symbol, timeframe, limit) -> {
+            fetches.incrementAndGet();
+            return bars(limit);
+        };
+    }
+
+    @Test
+    @DisplayName("repeat reads within the bar are served from memory")
+    void repeatReadsHitCache() throws Exception {
+        cache.get("alpaca", "SPY", "15Min", 50, counting());
+        cache.get("alpaca", "SPY", "15Min", 50, counting());
+        cache.get("alpaca", "SPY", "15Min", 50, counting());
+        assertEquals(1, fetches.get());
+        assertEquals(2, cache.getStats().hits());
+    }
+
+    @Test
+    @DisplayName("smaller windows are served from the tail of a larger cached window")
+    void smallerWindowServedFromTail() throws Exception {
+        var full = cache.get("alpaca", "SPY", "1Day", 100, counting());
+        var tail = cache.get("alpaca", "SPY", "1Day", 20, counting());
+        assertEquals(1, fetches.get());
+        assertEquals(20, tail.size());
+        assertEquals(full.get(99), tail.get(19));
+        assertEquals(full.get(80), tail.get(0));
+    }
+
+    @Test
+    @DisplayName("a larger window than cached triggers a fresh fetch")
+    void largerWindowRefetches() throws Exception {
+        cache.get("alpaca", "SPY", "1Day", 20, counting());
+        var bigger = cache.get("alpaca", "SPY", "1Day", 100, counting());
+        assertEquals(2, fetches.get());
+        assertEquals(100, bigger.size());
+    }
+
+    @Test
+    @DisplayName("entries expire at the next bar boundary")
+    void expiresAtBarBoundary() throws Exception {
+        cache.get("alpaca", "QQQ", "15Min", 50, counting());
+        clock.advance(Duration.ofMinutes(7));   // 14:14 — same 15-minute bar
+        cache.get("alpaca", "QQQ", "15Min", 50, counting());
+        assertEquals(1, fetches.get());
+        clock.advance(Duration.ofMinutes(1));   // 14:15 — new bar opened
+        cache.get("alpaca", "QQQ", "15Min", 50, counting());
+        assertEquals(2, fetches.get());
+    }
+
+    @Test
+    @DisplayName("max age caps daily entries well before midnight")
+    void maxAgeCapsDailyEntries() throws Exception {
+        cache.get("alpaca", "SPY", "1Day", 100, counting());
+        clock.advance(Duration.ofMinutes(11));
+        cache.get("alpaca", "SPY", "1Day", 100, counting());
+        assertEquals(2, fetches.get());
+    }
+
+    @Test
+    @DisplayName("sources and timeframes are isolated")
+    void keysAreIsolated() throws Exception {
+        cache.get("alpaca", "SPY", "1Day", 50, counting());
+        cache.get("tradier", "SPY", "1Day", 50, counting());
+        cache.get("alpaca", "SPY", "15Min", 50, counting());
+        assertEquals(3, fetches.get());
+    }
+
+    @Test
+    @DisplayName("concurrent requests for the same key share one in-flight fetch")
+    void concurrentRequestsAreCoalesced() throws Exception {
+        var release = new CountDownLatch(1);
+        var entered = new CountDownLatch(1);
+        BarCache.BarFetcher slow = (symbol, timeframe, limit) -> {
+            fetches.incrementAndGet();
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return bars(limit);
+        };
+
+        try (var pool = Executors.newFixedThreadPool(8)) {
+            var futures = new ArrayList<Future<List<Bar>>>();
+            futures.add(pool.submit(() -> cache.get("alpaca", "SPY", "15Min", 50, slow)));
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 7; i++) {
+                futures.add(pool.submit(() -> cache.get("alpaca", "SPY", "15Min", 50, slow)));
+            }
+            Thread.sleep(100); // let the followers park on the in-flight future
+            release.countDown();
+            for (var f : futures) {
+                assertEquals(50, f.get(5, TimeUnit.SECONDS).size());
+            }
+        }
+        assertEquals(1, fetches.get());
+    }
+
+    @Test
+    @DisplayName("fetch failures propagate and are not cached")
+    void failuresAreNotCached() {
+        BarCache.BarFetcher failing = (symbol, timeframe, limit) -> {
+            fetches.incrementAndGet();
+            throw new RuntimeException("API Request failed: 500");
+        };
+        assertThrows(RuntimeException.class, () -> cache.get("alpaca", "SPY", "1Day", 10, failing));
+        assertThrows(RuntimeException.class, () -> cache.get("alpaca", "SPY", "1Day", 10, failing));
+        assertEquals(2, fetches.get());
+    }
+
+    @Test
+    @DisplayName("barDuration parses Alpaca timeframe strings")
+    void parsesTimeframes() {
+        assertEquals(Duration.ofMinutes(1), BarCache.barDuration("1Min"));
+        assertEquals(Duration.ofMinutes(15), BarCache.barDuration("15Min"));
+        assertEquals(Duration.ofHours(1), BarCache.barDuration("1Hour"));
+        assertEquals(Duration.ofDays(1), BarCache.barDuration("1Day"));
+    }
+}
@@ -0,0 +1,105 @@
+package com.trading.marketdata;
+
+import com.trading.api.BrokerClient;
+import com.trading.api.model.Bar;
+import com.trading.config.Config;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockMakers;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("CachingBrokerClient — batched reads through the bar cache")
+class CachingBrokerClientTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-10T14:07:00Z");
+
+    private BrokerClient delegate;
+    private CachingBrokerClient client;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(BrokerClient.class, withSettings().mockMaker(MockMakers.SUBCLASS));
+        var cache = new BarCache(Clock.fixed(NOW, ZoneOffset.UTC), Duration.ofMinutes(10));
+        client = new CachingBrokerClient(delegate, cache, "alpaca");
+    }
+
+    private static List<Bar> bars(int n, double base) {
+        var list = new ArrayList<Bar>();
+        for (int i = 0; i < n; i++) {
+            list.add(new Bar(NOW.minusSeconds(900L * (n - i)), base, base + 1, base - 1, base + i, 1_000L));
+        }
+        return list;
+    }
+
+    @Test
+    @DisplayName("multi-symbol fetch fills the cache for later per-symbol reads")
+    void batchWarmsCache() throws Exception {
+        when(delegate.getMultiBars(List.of("SPY", "QQQ"), "15Min", 50))
+            .thenReturn(Map.of("SPY", bars(50, 500), "QQQ", bars(50, 400)));
+
+        client.getMultiBars(List.of("SPY", "QQQ"), "15Min", 50);
+        var spy = client.getBars("SPY", "15Min", 50);
+
+        assertEquals(50, spy.size());
+        verify(delegate, never()).getBars(any(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("only symbols missing from the cache are sent to the broker")
+    void batchFetchesOnlyMissing() throws Exception {
+        when(delegate.getBars("SPY", "15Min", 50)).thenReturn(bars(50, 500));
+        when(delegate.getMultiBars(List.of("QQQ"), "15Min", 50)).thenReturn(Map.of("QQQ", bars(50, 400)));
+
+        client.getBars("SPY", "15Min", 50);
+        var result = client.getMultiBars(List.of("SPY", "QQQ"), "15Min", 50);
+
+        assertEquals(2, result.size());
+        verify(delegate).getMultiBars(List.of("QQQ"), "15Min", 50);
+    }
+
+    @Test
+    @DisplayName("incremental history is attached only for brokers with a start-time bar query")
+    void incrementalOnlyWithNativeBarsSince() {
+        var config = new Config().withOverrides(Map.of("BAR_ARCHIVE_ENABLED", "false"));
+        var filtering = mock(BrokerClient.class, withSettings().mockMaker(MockMakers.SUBCLASS));
+        var startQuery = mock(BrokerClient.class, withSettings().mockMaker(MockMakers.SUBCLASS));
+        when(startQuery.hasNativeBarsSince()).thenReturn(true);
+
+        var plain = (CachingBrokerClient) CachingBrokerClient.wrap(filtering, config, "tradier");
+        var alpaca = (CachingBrokerClient) CachingBrokerClient.wrap(startQuery, config, "alpaca");
+
+        assertNull(plain.getHistory());
+        assertNotNull(alpaca.getHistory());
+        assertTrue(alpaca.hasNativeBarsSince());
+    }
+
+    @Test
+    @DisplayName("default batch methods fall back to per-symbol calls and skip failures")
+    void defaultBatchFallsBack() throws Exception {
+        BrokerClient plain = mock(BrokerClient.class,
+            withSettings().mockMaker(MockMakers.SUBCLASS).defaultAnswer(CALLS_REAL_METHODS));
+        doReturn(bars(10, 500)).when(plain).getBars("SPY", "1Day", 10);
+        doThrow(new RuntimeException("404")).when(plain).getBars("BAD", "1Day", 10);
+        doReturn(Optional.of(bars(1, 500).get(0))).when(plain).getLatestBar("SPY");
+        doReturn(Optional.empty()).when(plain).getLatestBar("BAD");
+
+        var multi = plain.getMultiBars(List.of("SPY", "BAD"), "1Day", 10);
+        var latest = plain.getLatestBars(List.of("SPY", "BAD"));
+
+        assertEquals(List.of("SPY"), List.copyOf(multi.keySet()));
+        assertEquals(List.of("SPY"), List.copyOf(latest.keySet()));
+    }
+}
@@ -0,0 +1,184 @@
+package com.trading.marketdata;
+
+import com.trading.api.BrokerClient;
+import com.trading.api.model.Bar;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.MockMakers;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("IncrementalBarHistory — since-last-bar fetching")
+class IncrementalBarHistoryTest {
+
+    private static final Instant T0 = Instant.parse("2026-03-10T14:00:00Z");
+    private static final long STEP = 15 * 60;
+
+    private BrokerClient client;
+    private IncrementalBarHistory history;
+
+    @BeforeEach
+    void setUp() {
+        client = mock(BrokerClient.class, withSettings().mockMaker(MockMakers.SUBCLASS));
+        history = new IncrementalBarHistory(client, 500);
+    }
+
+    private static Bar bar(int index, double close) {
+        return new Bar(at(index), close, close + 1, close - 1, close, 1_000L);
+    }
+
+    private static Instant at(int index) {
+        return T0.plusSeconds(STEP * index);
+    }
+
+    /** Bars with indices [from, to). */
+    private static List<Bar> range(int from, int to) {
+        var list = new ArrayList<Bar>();
+        for (int i = from; i < to; i++) list.add(bar(i, 100 + i));
+        return list;
+    }
+
+    @Test
+    @DisplayName("first request syncs the full window, later ones fetch only the delta")
+    void deltaAfterFirstSync() throws Exception {
+        when(client.getBars("SPY", "15Min", 50)).thenReturn(range(0, 50));
+        when(client.getBarsSince(eq("SPY"), eq("15Min"), eq(at(49)), anyInt()))
+            .thenReturn(List.of(bar(49, 200), bar(50, 201)));
+
+        history.getBars("SPY", "15Min", 50);
+        var bars = history.getBars("SPY", "15Min", 50);
+
+        verify(client, times(1)).getBars("SPY", "15Min", 50);
+        assertEquals(50, bars.size());
+        assertEquals(bar(1, 101), bars.get(0));
+        assertEquals(200, bars.get(48).close(), 1e-9, "still-forming bar is replaced by its revision");
+        assertEquals(bar(50, 201), bars.get(49));
+        assertEquals(1, history.getStats().deltaFetches());
+    }
+
+    @Test
+    @DisplayName("unchanged market returns the same window with a one-bar delta")
+    void noNewBars() throws Exception {
+        when(client.getBars("SPY", "1Day", 20)).thenReturn(range(0, 20));
+        when(client.getBarsSince(eq("SPY"), eq("1Day"), any(), anyInt())).thenReturn(List.of(bar(19, 119)));
+
+        var first = history.getBars("SPY", "1Day", 20);
+        var second = history.getBars("SPY", "1Day", 20);
+
+        assertEquals(first, second);
+        assertEquals(1, history.getStats().fullSyncs());
+    }
+
+    @Test
+    @DisplayName("a delta that does not start at the held bar triggers a full re-sync")
+    void gapTriggersResync() throws Exception {
+        when(client.getBars("QQQ", "15Min", 10)).thenReturn(range(0, 10)).thenReturn(range(5, 15));
+        when(client.getBarsSince(eq("QQQ"), eq("15Min"), any(), anyInt()))
+            .thenReturn(List.of(bar(12, 112), bar(13, 113)));
+
+        history.getBars("QQQ", "15Min", 10);
+        var bars = history.getBars("QQQ", "15Min", 10);
+
+        verify(client, times(2)).getBars("QQQ", "15Min", 10);
+        assertEquals(range(5, 15), bars);
+        assertEquals(1, history.getStats().gapResyncs());
+    }
+
+    @Test
+    @DisplayName("an empty delta is treated as a gap")
+    void emptyDeltaResyncs() throws Exception {
+        when(client.getBars("SPY", "15Min", 10)).thenReturn(range(0, 10));
+        when(client.getBarsSince(eq("SPY"), eq("15Min"), any(), anyInt())).thenReturn(List.of());
+
+        history.getBars("SPY", "15Min", 10);
+        history.getBars("SPY", "15Min", 10);
+
+        verify(client, times(2)).getBars("SPY", "15Min", 10);
+        assertEquals(1, history.getStats().gapResyncs());
+    }
+
+    @Test
+    @DisplayName("asking for more bars than the window holds re-syncs with the larger limit")
+    void largerLimitResyncs() throws Exception {
+        when(client.getBars("SPY", "1Day", 20)).thenReturn(range(80, 100));
+        when(client.getBars("SPY", "1Day", 100)).thenReturn(range(0, 100));
+
+        history.getBars("SPY", "1Day", 20);
+        var bars = history.getBars("SPY", "1Day", 100);
+
+        assertEquals(100, bars.size());
+        verify(client, never()).getBarsSince(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("a request above the window cap goes to the broker in full instead of being cut to the cap")
+    void oversizedRequestPassesThrough() throws Exception {
+        var small = new IncrementalBarHistory(client, 50);
+        when(client.getBars("SPY", "1Day", 80)).thenReturn(range(0, 80));
+
+        assertEquals(range(0, 80), small.getBars("SPY", "1Day", 80));
+        assertEquals(range(0, 80), small.getBars("SPY", "1Day", 80));
+
+        verify(client, times(2)).getBars("SPY", "1Day", 80);
+        verify(client, never()).getBarsSince(any(), any(), any(), anyInt());
+        assertEquals(2, small.getStats().passThroughs());
+        assertEquals(0, small.getStats().series());
+    }
+
+    @Test
+    @DisplayName("the window is bounded to the largest limit requested")
+    void windowIsBounded() throws Exception {
+        when(client.getBars("SPY", "15Min", 10)).thenReturn(range(0, 10));
+        when(client.getBarsSince(eq("SPY"), eq("15Min"), any(), anyInt()))
+            .thenReturn(range(9, 15));
+
+        history.getBars("SPY", "15Min", 10);
+        var bars = history.getBars("SPY", "15Min", 5);
+
+        assertEquals(range(10, 15), bars);
+        // Another request for the full 10 is still served incrementally from the trimmed window
+        when(client.getBarsSince(eq("SPY"), eq("15Min"), eq(at(14)), anyInt()))
+            .thenReturn(List.of(bar(14, 114)));
+        assertEquals(range(5, 15), history.getBars("SPY", "15Min", 10));
+        assertEquals(1, history.getStats().fullSyncs());
+    }
+
+    @Test
+    @DisplayName("after a restart the first request is seeded from the archive and fetches only the delta")
+    void warmStartFromArchive(@TempDir Path dir) throws Exception {
+        var archive = new BarArchive(dir, Clock.systemUTC());
+        archive.record("SPY", "15Min", range(0, 60));
+        var warm = new IncrementalBarHistory(client, 500, archive);
+        when(client.getBarsSince(eq("SPY"), eq("15Min"), eq(at(59)), anyInt()))
+            .thenReturn(List.of(bar(59, 159), bar(60, 160)));
+
+        var bars = warm.getBars("SPY", "15Min", 50);
+
+        verify(client, never()).getBars(any(), any(), anyInt());
+        assertEquals(range(11, 61), bars);
+        assertEquals(1, warm.getStats().archiveSeeds());
+        archive.close();
+    }
+
+    @Test
+    @DisplayName("default getBarsSince filters a regular getBars window")
+    void defaultGetBarsSinceFilters() throws Exception {
+        BrokerClient plain = mock(BrokerClient.class,
+            withSettings().mockMaker(MockMakers.SUBCLASS).defaultAnswer(CALLS_REAL_METHODS));
+        doReturn(range(0, 10)).when(plain).getBars("SPY", "15Min", 10);
+
+        var since = plain.getBarsSince("SPY", "15Min", at(7), 10);
+
+        assertEquals(range(7, 10), since);
+    }
+}
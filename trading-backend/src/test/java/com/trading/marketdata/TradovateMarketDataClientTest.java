@@ -0,0 +1,169 @@
+package com.trading.marketdata;
+
+import com.trading.api.model.Bar;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tradovate market data")
+class TradovateMarketDataClientTest {
+
+    private static final Instant T0 = Instant.now().truncatedTo(ChronoUnit.MINUTES).minus(Duration.ofHours(2));
+
+    private static void await(BooleanSupplier condition, String what) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) fail("Timed out waiting for " + what);
+            Thread.sleep(10);
+        }
+    }
+
+    private static Bar bar(int index, double close) {
+        return new Bar(T0.plus(Duration.ofMinutes(15L * index)), close - 0.25, close + 0.5, close - 0.5, close, 10L + index);
+    }
+
+    /** Bars with indices [from, to). */
+    private static List<Bar> range(int from, int to) {
+        var list = new ArrayList<Bar>();
+        for (int i = from; i < to; i++) list.add(bar(i, 5_000 + i));
+        return list;
+    }
+
+    @Nested
+    @DisplayName("against the local stand-in server")
+    class Streaming {
+        private TradovateMarketDataStandIn server;
+        private TradovateMarketDataClient client;
+
+        @BeforeEach
+        void setUp() {
+            server = new TradovateMarketDataStandIn();
+            client = new TradovateMarketDataClient(server.uri(), () -> TradovateMarketDataStandIn.TOKEN,
+                symbol -> 42L, new LiveQuoteTable(), Duration.ofMillis(50), Duration.ofSeconds(5));
+        }
+
+        @AfterEach
+        void tearDown() {
+            client.close();
+            server.close();
+        }
+
+        @Test
+        @DisplayName("authorizes, requests the chart and returns the newest bars of its history")
+        void historyFromChart() throws Exception {
+            server.history("MESM26", range(0, 40));
+
+            var bars = client.getBars("MESM26", "15Min", 20);
+
+            assertEquals(range(20, 40), bars);
+            assertTrue(client.isConnected());
+            var request = server.chartRequests().get(0);
+            assertEquals("MinuteBar", request.path("chartDescription").path("underlyingType").asText());
+            assertEquals(15, request.path("chartDescription").path("elementSize").asInt());
+            assertEquals(20, request.path("timeRange").path("asMuchAsElements").asInt());
+        }
+
+        @Test
+        @DisplayName("real-time chart updates revise the forming bar and append new ones")
+        void realtimeUpdates() throws Exception {
+            server.history("MESM26", range(0, 10));
+            client.getBars("MESM26", "15Min", 10);
+
+            server.publishBars("MESM26", List.of(bar(9, 6_000), bar(10, 6_001)));
+            await(() -> {
+                try {
+                    var bars = client.getBars("MESM26", "15Min", 10);
+                    return bars.get(bars.size() - 1).equals(bar(10, 6_001));
+                } catch (Exception e) {
+                    return false;
+                }
+            }, "real-time bar");
+
+            var bars = client.getBars("MESM26", "15Min", 10);
+            assertEquals(bar(9, 6_000), bars.get(8));
+            assertEquals(bar(1, 5_001), bars.get(0), "window stays bounded to the requested size");
+            assertEquals(1, server.chartRequests().size(), "served from memory after the first request");
+        }
+
+        @Test
+        @DisplayName("asking for more bars than subscribed re-requests the chart with the larger window")
+        void largerWindow() throws Exception {
+            server.history("MESM26", range(0, 60));
+            assertEquals(10, client.getBars("MESM26", "15Min", 10).size());
+            assertEquals(range(10, 60), client.getBars("MESM26", "15Min", 50));
+            assertEquals(2, server.chartRequests().size());
+        }
+
+        @Test
+        @DisplayName("quotes for the resolved contract id feed the latest bar")
+        void quotesFeedLatestBar() throws Exception {
+            client.subscribeQuotes("MESM26");
+            await(() -> server.quoteSubscriptions().contains("MESM26"), "quote subscription");
+
+            var now = Instant.now();
+            server.publish("[{\"e\":\"md\",\"d\":{\"quotes\":[{\"timestamp\":\"" + now + "\",\"contractId\":42,"
+                + "\"entries\":{\"Bid\":{\"price\":5001.25,\"size\":3},\"Offer\":{\"price\":5001.5,\"size\":4},"
+                + "\"Trade\":{\"price\":5001.5,\"size\":2},\"TotalTradeVolume\":{\"size\":100}}}]}}]");
+            await(() -> client.table().latestBar("MESM26", Duration.ofMinutes(2)).isPresent(), "trade");
+
+            var latest = client.getLatestBar("MESM26");
+            assertTrue(latest.isPresent());
+            assertEquals(5001.5, latest.get().close());
+            assertEquals(5001.375, client.table().get("MESM26").get().midPrice(), 1e-9);
+        }
+
+        @Test
+        @DisplayName("after a dropped session it re-authorizes and re-requests its charts, keeping held bars")
+        void reconnects() throws Exception {
+            server.history("MESM26", range(0, 10));
+            client.getBars("MESM26", "15Min", 10);
+
+            server.history("MESM26", range(0, 11));
+            server.dropConnections();
+            await(() -> server.authorizations() >= 2, "re-authorization");
+            await(() -> server.chartRequests().size() >= 2, "chart re-request");
+            await(() -> {
+                try {
+                    return client.getBars("MESM26", "15Min", 10).equals(range(1, 11));
+                } catch (Exception e) {
+                    return false;
+                }
+            }, "history after reconnect");
+        }
+    }
+
+    @Test
+    @DisplayName("a rejected token leaves the client unauthorized and bar requests time out")
+    void rejectedToken() throws Exception {
+        try (var server = new TradovateMarketDataStandIn();
+             var client = new TradovateMarketDataClient(server.uri(), () -> "wrong", null, new LiveQuoteTable(),
+                 Duration.ofMillis(50), Duration.ofMillis(300))) {
+            assertThrows(TimeoutException.class, () -> client.getBars("MESM26", "15Min", 10));
+            assertFalse(client.isConnected());
+            assertTrue(server.chartRequests().isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("timeframes map to Tradovate chart descriptions")
+    void chartDescriptions() {
+        var client = new TradovateMarketDataClient(java.net.URI.create("ws://localhost:1"), () -> "", null,
+            new LiveQuoteTable());
+        assertEquals("DailyBar", client.chartDescription("1Day").path("underlyingType").asText());
+        assertEquals(1, client.chartDescription("1Day").path("elementSize").asInt());
+        assertEquals(60, client.chartDescription("1Hour").path("elementSize").asInt());
+        assertEquals(5, client.chartDescription("5Min").path("elementSize").asInt());
+    }
+}
@@ -0,0 +1,144 @@
+package com.trading.marketdata;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trading.api.model.Bar;
+import io.javalin.Javalin;
+import io.javalin.websocket.WsContext;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for Tradovate's market-data WebSocket, for offline tests.
+ *
+ * Speaks the framed protocol (o / h / a / c), answers {@code authorize}, {@code md/subscribeQuote}
+ * and {@code md/getChart} — replaying whatever history the test loaded with {@link #history}
+ * followed by the end-of-history marker — and lets the test push events with {@link #publish}
+ * or drop every session with {@link #dropConnections}.
+ */
+final class TradovateMarketDataStandIn implements AutoCloseable {
+    static final String TOKEN = "md-token";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final List<WsContext> sessions = new CopyOnWriteArrayList<>();
+    private final Map<String, List<Bar>> history = new ConcurrentHashMap<>();
+    private final Map<String, Long> realtimeIds = new ConcurrentHashMap<>();
+    private final List<JsonNode> chartRequests = new CopyOnWriteArrayList<>();
+    private final Set<String> quoteSubscriptions = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger authorizations = new AtomicInteger();
+    private final AtomicInteger heartbeats = new AtomicInteger();
+    private final AtomicLong subscriptionIds = new AtomicLong(1_000);
+    private final Javalin app;
+
+    TradovateMarketDataStandIn() {
+        app = Javalin.create(config -> config.showJavalinBanner = false);
+        app.ws("/v1/websocket", ws -> {
+            ws.onConnect(ctx -> ctx.send("o"));
+            ws.onMessage(ctx -> onMessage(ctx, ctx.message()));
+            ws.onClose(ctx -> sessions.removeIf(s -> s.sessionId().equals(ctx.sessionId())));
+        });
+        app.start(0);
+    }
+
+    private void onMessage(WsContext ctx, String message) throws Exception {
+        if (message.equals("[]")) {
+            heartbeats.incrementAndGet();
+            return;
+        }
+        String[] parts = message.split("\n", 4);
+        String endpoint = parts[0];
+        int id = Integer.parseInt(parts[1]);
+        String body = parts.length > 3 ? parts[3] : "";
+        switch (endpoint) {
+            case "authorize" -> {
+                if (TOKEN.equals(body)) {
+                    sessions.add(ctx);
+                    authorizations.incrementAndGet();
+                    ctx.send("a[{\"s\":200,\"i\":" + id + "}]");
+                } else {
+                    ctx.send("a[{\"s\":401,\"i\":" + id + ",\"d\":\"Access is denied\"}]");
+                }
+            }
+            case "md/subscribeQuote" -> {
+                quoteSubscriptions.add(mapper.readTree(body).path("symbol").asText());
+                ctx.send("a[{\"s\":200,\"i\":" + id + "}]");
+            }
+            case "md/getChart" -> {
+                var request = mapper.readTree(body);
+                chartRequests.add(request);
+                String symbol = request.path("symbol").asText();
+                long historicalId = subscriptionIds.incrementAndGet();
+                long realtimeId = subscriptionIds.incrementAndGet();
+                realtimeIds.put(symbol, realtimeId);
+                ctx.send("a[{\"s\":200,\"i\":" + id + ",\"d\":{\"historicalId\":" + historicalId
+                    + ",\"realtimeId\":" + realtimeId + "}}]");
+                var bars = history.getOrDefault(symbol, List.of());
+                int elements = request.path("timeRange").path("asMuchAsElements").asInt();
+                var tail = bars.subList(Math.max(0, bars.size() - elements), bars.size());
+                ctx.send("a[" + chartEvent(historicalId, tail) + "]");
+                ctx.send("a[{\"e\":\"chart\",\"d\":{\"charts\":[{\"id\":" + historicalId + ",\"eoh\":true}]}}]");
+            }
+            default -> ctx.send("a[{\"s\":404,\"i\":" + id + ",\"d\":\"Unknown endpoint\"}]");
+        }
+    }
+
+    static String chartEvent(long subscriptionId, List<Bar> bars) {
+        var json = new StringBuilder("{\"e\":\"chart\",\"d\":{\"charts\":[{\"id\":").append(subscriptionId)
+            .append(",\"td\":20260302,\"bars\":[");
+        for (int i = 0; i < bars.size(); i++) {
+            var b = bars.get(i);
+            if (i > 0) json.append(',');
+            json.append("{\"timestamp\":\"").append(b.timestamp()).append("\",\"open\":").append(b.open())
+                .append(",\"high\":").append(b.high()).append(",\"low\":").append(b.low())
+                .append(",\"close\":").append(b.close()).append(",\"upVolume\":").append(b.volume())
+                .append(",\"downVolume\":0,\"upTicks\":1,\"downTicks\":0,\"bidVolume\":0,\"offerVolume\":0}");
+        }
+        return json.append("]}]}}").toString();
+    }
+
+    URI uri() {
+        return URI.create("ws://localhost:" + app.port() + "/v1/websocket");
+    }
+
+    void history(String symbol, List<Bar> bars) {
+        history.put(symbol, bars);
+    }
+
+    /** Push a frame's message array, e.g. {@code [{"e":"md",...}]}, to every authorized session. */
+    void publish(String messagesJson) {
+        sessions.forEach(s -> s.send("a" + messagesJson));
+    }
+
+    void publishBars(String symbol, List<Bar> bars) {
+        publish("[" + chartEvent(realtimeIds.get(symbol), bars) + "]");
+    }
+
+    void dropConnections() {
+        sessions.forEach(WsContext::closeSession);
+        sessions.clear();
+    }
+
+    List<JsonNode> chartRequests() {
+        return chartRequests;
+    }
+
+    Set<String> quoteSubscriptions() {
+        return quoteSubscriptions;
+    }
+
+    int authorizations() {
+        return authorizations.get();
+    }
+
+    @Override
+    public void close() {
+        app.stop();
+    }
+}
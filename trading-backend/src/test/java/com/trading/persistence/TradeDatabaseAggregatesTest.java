@@ -0,0 +1,213 @@
+package com.trading.persistence;
+
+import com.trading.persistence.TradeAggregates.Aggregate;
+import com.trading.persistence.TradeAggregates.Dimension;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.File;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The incrementally maintained statistics must equal the GROUP BY queries they replaced, after
+ * random closes, restarts and a backfill of a database that predates the trade_stats table.
+ */
+@DisplayName("TradeDatabase — incremental trade statistics match SQL")
+class TradeDatabaseAggregatesTest {
+
+    private static final String TEST_DB = "test-trade-aggregates.db";
+    private static final String[] SYMBOLS = {"SPY", "QQQ", "IWM"};
+    private static final String[] STRATEGIES = {"RSI", "MACD", "BOLLINGER"};
+    private static final String[] BROKERS = {"alpaca", "tradier"};
+    private static final double EPSILON = 1e-6;
+
+    private TradeDatabase db;
+
+    private static void deleteFiles() {
+        for (String suffix : new String[]{"", "-wal", "-shm"}) new File(TEST_DB + suffix).delete();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (db != null) db.close();
+        deleteFiles();
+    }
+
+    private static TradeDatabase open(TradeDatabase.Mode mode) {
+        return new TradeDatabase(TEST_DB, mode, 2);
+    }
+
+    private static String keySql(Dimension dimension) {
+        return switch (dimension) {
+            case ALL -> "''";
+            case SYMBOL -> "symbol";
+            case STRATEGY -> "COALESCE(strategy, '')";
+            case BROKER -> "COALESCE(broker, '')";
+            case DAY -> "DATE(exit_time)";
+        };
+    }
+
+    /** The statistics straight from the trades table. */
+    private static Map<String, Aggregate> sqlAggregates(Dimension dimension) throws SQLException {
+        var result = new TreeMap<String, Aggregate>();
+        try (var sql = DriverManager.getConnection("jdbc:sqlite:" + TEST_DB);
+             var stmt = sql.createStatement();
+             var rs = stmt.executeQuery("SELECT " + keySql(dimension) + " AS k, COUNT(*) AS n, " +
+                 "SUM(pnl > 0) AS wins, SUM(pnl < 0) AS losses, SUM(pnl) AS total, SUM(pnl * pnl) AS squares, " +
+                 "SUM(MAX(pnl, 0)) AS gross_win, SUM(MAX(-pnl, 0)) AS gross_loss, MAX(pnl) AS best, MIN(pnl) AS worst " +
+                 "FROM trades WHERE status = 'CLOSED' GROUP BY k")) {
+            while (rs.next()) {
+                result.put(rs.getString("k"), new Aggregate(rs.getInt("n"), rs.getInt("wins"), rs.getInt("losses"),
+                    rs.getDouble("total"), rs.getDouble("squares"), rs.getDouble("gross_win"),
+                    rs.getDouble("gross_loss"), rs.getDouble("best"), rs.getDouble("worst")));
+            }
+        }
+        return result;
+    }
+
+    private void assertMatchesSql(String step) throws SQLException {
+        assertTrue(db.flush(Duration.ofSeconds(5)));
+        for (Dimension dimension : Dimension.values()) {
+            var expected = sqlAggregates(dimension);
+            var actual = db.getAggregates(dimension);
+            assertEquals(expected.keySet(), actual.keySet(), step + " " + dimension + " keys");
+            expected.forEach((key, e) -> {
+                var a = actual.get(key);
+                String where = step + " " + dimension + "/" + key;
+                assertEquals(e.trades(), a.trades(), where + " trades");
+                assertEquals(e.wins(), a.wins(), where + " wins");
+                assertEquals(e.losses(), a.losses(), where + " losses");
+                assertEquals(e.pnl(), a.pnl(), EPSILON, where + " pnl");
+                assertEquals(e.pnlSquares(), a.pnlSquares(), EPSILON, where + " pnlSquares");
+                assertEquals(e.grossWin(), a.grossWin(), EPSILON, where + " grossWin");
+                assertEquals(e.grossLoss(), a.grossLoss(), EPSILON, where + " grossLoss");
+                assertEquals(e.best(), a.best(), EPSILON, where + " best");
+                assertEquals(e.worst(), a.worst(), EPSILON, where + " worst");
+            });
+        }
+
+        var all = sqlAggregates(Dimension.ALL).getOrDefault("", Aggregate.EMPTY);
+        assertEquals(all.trades(), db.getTotalTrades(), step + " getTotalTrades");
+        assertEquals(all.pnl(), db.getTotalPnL(), EPSILON, step + " getTotalPnL");
+        assertEquals(all.winRate(), db.getTradeStatistics().winRate(), EPSILON, step + " winRate");
+        for (String symbol : SYMBOLS) {
+            var e = sqlAggregates(Dimension.SYMBOL).get(symbol);
+            var stats = db.getSymbolStatistics(symbol);
+            if (e == null) {
+                assertNull(stats, step + " getSymbolStatistics " + symbol);
+            } else {
+                assertEquals(e.averageWin(), stats.avgWin(), EPSILON, step + " avgWin " + symbol);
+                assertEquals(e.averageLoss(), stats.avgLoss(), EPSILON, step + " avgLoss " + symbol);
+            }
+        }
+    }
+
+    private static void randomTrades(TradeDatabase db, Random random, Instant base, int count) {
+        for (int i = 0; i < count; i++) {
+            String symbol = SYMBOLS[random.nextInt(SYMBOLS.length)];
+            String broker = BROKERS[random.nextInt(BROKERS.length)];
+            if (random.nextInt(100) < 60) {
+                String strategy = random.nextInt(10) == 0 ? null : STRATEGIES[random.nextInt(STRATEGIES.length)];
+                db.recordTrade(symbol, strategy, "main", broker, base, 100 + random.nextInt(10),
+                    1 + random.nextInt(3), 95, 110);
+            } else {
+                // Spread exits over three UTC days; whole-dollar prices give wins, losses and flats
+                Instant exit = base.minus(random.nextInt(72), ChronoUnit.HOURS);
+                db.closeTrade(symbol, exit, 100 + random.nextInt(11) - 2, 0, broker);
+            }
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @EnumSource(TradeDatabase.Mode.class)
+    @DisplayName("randomized entries, exits and restarts")
+    void randomizedCloses(TradeDatabase.Mode mode) throws Exception {
+        deleteFiles();
+        db = open(mode);
+        var random = new Random(7);
+        Instant base = Instant.now().truncatedTo(ChronoUnit.HOURS);
+
+        for (int round = 0; round < 6; round++) {
+            randomTrades(db, random, base, 60);
+            assertMatchesSql("round " + round);
+            if (round % 2 == 1) {
+                db.close();
+                db = open(mode);
+                assertMatchesSql("round " + round + " after restart");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("a database without trade_stats is backfilled from its closed trades")
+    void backfillsExistingHistory() throws Exception {
+        deleteFiles();
+        db = open(TradeDatabase.Mode.PERFORMANCE);
+        randomTrades(db, new Random(11), Instant.now().truncatedTo(ChronoUnit.HOURS), 200);
+        db.close();
+        try (var sql = DriverManager.getConnection("jdbc:sqlite:" + TEST_DB);
+             var stmt = sql.createStatement()) {
+            stmt.execute("DROP TABLE trade_stats");
+            stmt.execute("DELETE FROM bot_state WHERE key = '" + TradeDatabase.STATS_BACKFILL_MARKER + "'");
+        }
+
+        db = open(TradeDatabase.Mode.PERFORMANCE);
+        assertTrue(db.getTotalTrades() > 0);
+        assertMatchesSql("after backfill");
+    }
+
+    @Test
+    @DisplayName("a backfill that never completed is redone at the next open")
+    void redoesIncompleteBackfill() throws Exception {
+        deleteFiles();
+        db = open(TradeDatabase.Mode.SINGLE_CONNECTION);
+        randomTrades(db, new Random(12), Instant.now().truncatedTo(ChronoUnit.HOURS), 200);
+        db.close();
+        // As left by a backfill that stopped after the first dimension: partial rows, no marker
+        try (var sql = DriverManager.getConnection("jdbc:sqlite:" + TEST_DB);
+             var stmt = sql.createStatement()) {
+            stmt.execute("DELETE FROM trade_stats WHERE dimension <> 'ALL'");
+            stmt.execute("DELETE FROM bot_state WHERE key = '" + TradeDatabase.STATS_BACKFILL_MARKER + "'");
+        }
+
+        db = open(TradeDatabase.Mode.SINGLE_CONNECTION);
+        assertMatchesSql("after redone backfill");
+        try (var sql = DriverManager.getConnection("jdbc:sqlite:" + TEST_DB);
+             var stmt = sql.createStatement();
+             var rs = stmt.executeQuery("SELECT COUNT(*) FROM bot_state WHERE key = '"
+                 + TradeDatabase.STATS_BACKFILL_MARKER + "'")) {
+            assertEquals(1, rs.getInt(1));
+        }
+    }
+
+    @Test
+    @DisplayName("today's P&L counts only trades closed on the current UTC date")
+    void todayPnl() {
+        deleteFiles();
+        db = open(TradeDatabase.Mode.SINGLE_CONNECTION);
+        Instant now = Instant.now();
+        db.recordTrade("SPY", "RSI", "main", "alpaca", now, 100, 2, 95, 110);
+        db.closeTrade("SPY", now, 103, 0, "alpaca");
+        db.recordTrade("QQQ", "RSI", "main", "alpaca", now, 100, 1, 95, 110);
+        db.closeTrade("QQQ", now.minus(2, ChronoUnit.DAYS), 90, 0, "alpaca");
+
+        assertEquals(6.0, db.getTodayPnL(), EPSILON);
+        assertEquals(-4.0, db.getTotalPnL(), EPSILON);
+        var rsi = db.getAggregate(Dimension.STRATEGY, "RSI");
+        assertEquals(2, rsi.trades());
+        assertEquals(0.5, rsi.winRate(), EPSILON);
+        assertEquals(0.6, rsi.profitFactor(), EPSILON);
+    }
+}
@@ -0,0 +1,133 @@
+package com.trading.persistence;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.File;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Read/write throughput of the single-connection layout against performance mode, under the
+ * bot's access pattern: one trading thread writing (entries, stop updates, exits, bot state)
+ * while cycle threads and the dashboard read. Runs twice: with the writer unthrottled, and
+ * with it paced to the same rate in both layouts so reads are compared under equal write load.
+ *
+ * Run with {@code mvn test -Dtest=TradeDatabaseBenchmark -Dbenchmark=true}.
+ */
+@DisplayName("TradeDatabase — throughput benchmark")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class TradeDatabaseBenchmark {
+
+    private static final String[] SYMBOLS = {"SPY", "QQQ", "IWM", "DIA", "XLF", "XLE", "XLK", "XLV"};
+    private static final int READERS = 6;
+    private static final long WARMUP_MS = 1_000;
+    private static final long MEASURE_MS = 5_000;
+    private static final int PACED_WRITES_PER_SEC = 20;
+
+    record Result(TradeDatabase.Mode mode, double writesPerSec, double readsPerSec, double exportsPerSec) {}
+
+    @Test
+    @DisplayName("single connection vs WAL + reader pool")
+    void compare() throws Exception {
+        report("writer unthrottled", 0);
+        report("writer paced at " + PACED_WRITES_PER_SEC + " writes/s", PACED_WRITES_PER_SEC);
+    }
+
+    private void report(String title, int writesPerSec) throws Exception {
+        var single = run(TradeDatabase.Mode.SINGLE_CONNECTION, writesPerSec);
+        var perf = run(TradeDatabase.Mode.PERFORMANCE, writesPerSec);
+        System.out.println("== " + title);
+        for (var r : new Result[]{single, perf}) {
+            System.out.printf("%-18s writes %,10.0f/s   point reads %,10.0f/s   exports %,8.0f/s%n",
+                r.mode(), r.writesPerSec(), r.readsPerSec(), r.exportsPerSec());
+        }
+        System.out.printf("speed-up            writes %9.2fx   point reads %9.2fx   exports %7.2fx%n",
+            perf.writesPerSec() / single.writesPerSec(),
+            perf.readsPerSec() / single.readsPerSec(),
+            perf.exportsPerSec() / single.exportsPerSec());
+    }
+
+    private Result run(TradeDatabase.Mode mode, int writesPerSec) throws Exception {
+        String path = "bench-" + mode.name().toLowerCase() + ".db";
+        for (String suffix : new String[]{"", "-wal", "-shm"}) new File(path + suffix).delete();
+        var db = new TradeDatabase(path, mode, READERS + 1);
+
+        // Seed a history so exports and aggregates have real work to do
+        Instant start = Instant.now().minusSeconds(86_400);
+        for (int i = 0; i < 2_000; i++) {
+            String symbol = SYMBOLS[i % SYMBOLS.length];
+            db.recordTrade(symbol, "MACD", "main", "alpaca", start.plusSeconds(i), 100 + i % 7, 1, 95, 110);
+            db.closeTrade(symbol, start.plusSeconds(i + 30), 101 + i % 5, 0, "alpaca");
+        }
+
+        var writes = new LongAdder();
+        var reads = new LongAdder();
+        var exports = new LongAdder();
+        var measuring = new AtomicBoolean(false);
+        var running = new AtomicBoolean(true);
+        var done = new CountDownLatch(READERS + 2);
+        var threads = new ArrayList<Thread>();
+
+        threads.add(Thread.ofPlatform().name("bench-writer").start(() -> {
+            int i = 0;
+            long intervalNanos = writesPerSec > 0 ? TimeUnit.SECONDS.toNanos(4) / writesPerSec : 0;
+            long next = System.nanoTime();
+            while (running.get()) {
+                String symbol = SYMBOLS[i++ % SYMBOLS.length];
+                db.recordTrade(symbol, "MACD", "main", "alpaca", Instant.now(), 100, 1, 95, 110);
+                db.updateStop(symbol, "alpaca", 96);
+                db.saveBotState("cooldown:" + symbol, Long.toString(i));
+                db.closeTrade(symbol, Instant.now(), 101, 1, "alpaca");
+                if (measuring.get()) writes.add(4);
+                if (intervalNanos > 0) {
+                    next += intervalNanos;
+                    long wait = next - System.nanoTime();
+                    if (wait > 0) java.util.concurrent.locks.LockSupport.parkNanos(wait);
+                }
+            }
+            done.countDown();
+        }));
+        for (int r = 0; r < READERS; r++) {
+            int offset = r;
+            threads.add(Thread.ofPlatform().name("bench-reader-" + r).start(() -> {
+                int i = offset;
+                while (running.get()) {
+                    String symbol = SYMBOLS[i++ % SYMBOLS.length];
+                    db.hasOpenTrade(symbol, "alpaca");
+                    db.countOpenTrades(symbol, "alpaca");
+                    db.wasRecentlyClosed(symbol, "alpaca", 900_000);
+                    db.loadBotState("cooldown:" + symbol);
+                    if (measuring.get()) reads.add(4);
+                }
+                done.countDown();
+            }));
+        }
+        threads.add(Thread.ofPlatform().name("bench-dashboard").start(() -> {
+            while (running.get()) {
+                db.exportTrades(null);
+                db.getTradeStatistics();
+                if (measuring.get()) exports.increment();
+            }
+            done.countDown();
+        }));
+
+        Thread.sleep(WARMUP_MS);
+        measuring.set(true);
+        long t0 = System.nanoTime();
+        Thread.sleep(MEASURE_MS);
+        measuring.set(false);
+        double seconds = (System.nanoTime() - t0) / 1e9;
+        running.set(false);
+        done.await(30, TimeUnit.SECONDS);
+
+        db.close();
+        for (String suffix : new String[]{"", "-wal", "-shm"}) new File(path + suffix).delete();
+        return new Result(mode, writes.sum() / seconds, reads.sum() / seconds, exports.sum() / seconds);
+    }
+}
@@ -0,0 +1,61 @@
+package com.trading.persistence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TradeDatabase.getClosedTradePnls(), the sample the Monte Carlo
+ * resampler draws from.
+ */
+@DisplayName("TradeDatabase.getClosedTradePnls")
+class TradeDatabaseClosedPnlsTest {
+
+    private static final String TEST_DB = "test-closed-pnls.db";
+    private static final Instant START = Instant.parse("2024-05-01T14:00:00Z");
+    private TradeDatabase db;
+
+    @BeforeEach
+    void setUp() {
+        new File(TEST_DB).delete();
+        db = new TradeDatabase(TEST_DB);
+    }
+
+    @AfterEach
+    void tearDown() {
+        db.close();
+        new File(TEST_DB).delete();
+    }
+
+    private void openAndClose(String symbol, String broker, int exitDay, double pnl) {
+        db.recordTrade(symbol, "TEST", "main", broker, START, 100.0, 1.0, 98.0, 103.0);
+        db.closeTrade(symbol, START.plusSeconds(exitDay * 86_400L), 100.0 + pnl, pnl, broker);
+    }
+
+    @Test
+    @DisplayName("returns closed P&L in exit order, not insertion order")
+    void exitOrder() {
+        openAndClose("NVDA", "alpaca", 3, 5.0);
+        openAndClose("AAPL", "alpaca", 1, -2.0);
+        openAndClose("MSFT", "tradier", 2, 1.5);
+
+        assertArrayEquals(new double[] {-2.0, 1.5, 5.0}, db.getClosedTradePnls(null), 1e-9);
+    }
+
+    @Test
+    @DisplayName("filters by broker and skips open trades")
+    void brokerFilter() {
+        openAndClose("NVDA", "alpaca", 3, 5.0);
+        openAndClose("MSFT", "tradier", 2, 1.5);
+        db.recordTrade("SPY", "TEST", "main", "alpaca", START, 100.0, 1.0, 98.0, 103.0);
+
+        assertArrayEquals(new double[] {5.0}, db.getClosedTradePnls("alpaca"), 1e-9);
+        assertEquals(0, db.getClosedTradePnls("ibkr").length);
+    }
+}
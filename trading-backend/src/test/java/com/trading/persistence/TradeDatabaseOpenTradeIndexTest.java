@@ -0,0 +1,172 @@
+package com.trading.persistence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The in-memory open-trade index must give the same answers as the SQL it replaced, over
+ * random sequences of entries, exits, orphan sweeps and restarts.
+ */
+@DisplayName("TradeDatabase — open-trade index matches SQL")
+class TradeDatabaseOpenTradeIndexTest {
+
+    private static final String TEST_DB = "test-open-trade-index.db";
+    private static final String[] SYMBOLS = {"SPY", "QQQ", "IWM"};
+    private static final String[] BROKERS = {"alpaca", "tradier"};
+    private static final int[] WINDOW_MINUTES = {0, 5, 15, 30};
+
+    private TradeDatabase db;
+
+    private static void deleteFiles() {
+        for (String suffix : new String[]{"", "-wal", "-shm"}) new File(TEST_DB + suffix).delete();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (db != null) db.close();
+        deleteFiles();
+    }
+
+    private static TradeDatabase open(TradeDatabase.Mode mode) {
+        return new TradeDatabase(TEST_DB, mode, 2);
+    }
+
+    /** The queries hasOpenTrade / countOpenTrades / wasRecentlyClosed used to run. */
+    private static int sqlOpenLots(Connection sql, String symbol, String broker) throws SQLException {
+        try (var ps = sql.prepareStatement(
+                "SELECT COUNT(*) FROM trades WHERE symbol = ? AND broker = ? AND status = 'OPEN'")) {
+            ps.setString(1, symbol);
+            ps.setString(2, broker);
+            try (var rs = ps.executeQuery()) {
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    private static boolean sqlRecentlyClosed(Connection sql, String symbol, String broker, long withinMillis)
+            throws SQLException {
+        // Compared as instants: as text, "…:40:00Z" sorts after a cutoff of "…:40:00.123Z"
+        Instant cutoff = Instant.now().minusMillis(withinMillis);
+        try (var ps = sql.prepareStatement("SELECT exit_time FROM trades WHERE symbol = ? AND broker = ? " +
+                                           "AND status = 'CLOSED' AND exit_time IS NOT NULL")) {
+            ps.setString(1, symbol);
+            ps.setString(2, broker);
+            try (var rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    if (!Instant.parse(rs.getString(1)).isBefore(cutoff)) return true;
+                }
+                return false;
+            }
+        }
+    }
+
+    private void assertMatchesSql(String step) throws SQLException {
+        assertTrue(db.flush(Duration.ofSeconds(5)));
+        try (var sql = DriverManager.getConnection("jdbc:sqlite:" + TEST_DB)) {
+            for (String broker : BROKERS) {
+                for (String symbol : SYMBOLS) {
+                    int lots = sqlOpenLots(sql, symbol, broker);
+                    assertEquals(lots, db.countOpenTrades(symbol, broker), step + " countOpenTrades " + broker + "/" + symbol);
+                    assertEquals(lots > 0, db.hasOpenTrade(symbol, broker), step + " hasOpenTrade " + broker + "/" + symbol);
+                    for (int minutes : WINDOW_MINUTES) {
+                        // Windows end 30s past a whole minute; exits sit on whole minutes, so no boundary ties.
+                        // Both sides read the wall clock, so the window may still slide past an exit between
+                        // the reference query and the index: accept the answer at either end of the call.
+                        long within = Duration.ofMinutes(minutes).plusSeconds(30).toMillis();
+                        boolean before = sqlRecentlyClosed(sql, symbol, broker, within);
+                        boolean indexed = db.wasRecentlyClosed(symbol, broker, within);
+                        boolean after = sqlRecentlyClosed(sql, symbol, broker, within);
+                        assertTrue(indexed == before || indexed == after,
+                            step + " wasRecentlyClosed(" + minutes + "m) " + broker + "/" + symbol
+                                + " expected " + before + " but was " + indexed);
+                    }
+                }
+            }
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @EnumSource(TradeDatabase.Mode.class)
+    @DisplayName("randomized entries, exits, orphan sweeps and restarts")
+    void randomizedOperations(TradeDatabase.Mode mode) throws Exception {
+        for (long seed = 1; seed <= 3; seed++) {
+            deleteFiles();
+            db = open(mode);
+            var random = new Random(seed);
+            Instant base = Instant.now().truncatedTo(ChronoUnit.MINUTES);
+
+            for (int step = 0; step < 250; step++) {
+                String symbol = SYMBOLS[random.nextInt(SYMBOLS.length)];
+                String broker = BROKERS[random.nextInt(BROKERS.length)];
+                int op = random.nextInt(100);
+                String label = "seed " + seed + " step " + step;
+                if (op < 45) {
+                    db.recordTrade(symbol, "TEST", "main", broker,
+                        base.minus(random.nextInt(120), ChronoUnit.MINUTES), 100 + random.nextInt(10), 1 + random.nextInt(3), 95, 110);
+                    label += " recordTrade";
+                } else if (op < 75) {
+                    Instant exit = base.minus(random.nextInt(40), ChronoUnit.MINUTES);
+                    db.closeTrade(symbol, exit, 101, 0, broker);
+                    label += " closeTrade";
+                } else if (op < 85) {
+                    var live = new HashSet<String>();
+                    for (String s : SYMBOLS) if (random.nextBoolean()) live.add(s);
+                    db.closeOrphanedOpenTrades(broker, live, 0);
+                    label += " closeOrphanedOpenTrades " + live;
+                } else if (op < 92) {
+                    db.updateStop(symbol, broker, 96);
+                    label += " updateStop";
+                } else {
+                    db.close();
+                    db = open(mode);
+                    label += " restart";
+                }
+                assertMatchesSql(label);
+            }
+            db.close();
+            db = null;
+        }
+    }
+
+    @Test
+    @DisplayName("two profiles writing the same symbol concurrently leave the index equal to SQL")
+    void concurrentProfiles() throws Exception {
+        deleteFiles();
+        db = open(TradeDatabase.Mode.PERFORMANCE);
+        var start = new CountDownLatch(1);
+        Runnable profile = () -> {
+            try {
+                start.await();
+            } catch (InterruptedException e) {
+                return;
+            }
+            for (int i = 0; i < 200; i++) {
+                db.recordTrade("SPY", "TEST", "main", "alpaca", Instant.now(), 100, 1, 95, 110);
+                if (i % 3 == 0) db.closeTrade("SPY", Instant.now().truncatedTo(ChronoUnit.SECONDS), 101, 0, "alpaca");
+            }
+        };
+        var main = Thread.ofPlatform().start(profile);
+        var experimental = Thread.ofPlatform().start(profile);
+        start.countDown();
+        main.join();
+        experimental.join();
+
+        assertMatchesSql("after concurrent profiles");
+    }
+}
@@ -0,0 +1,194 @@
+package com.trading.persistence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.sql.DriverManager;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Performance mode: WAL writer, read-only connection pool and cached statements must answer
+ * exactly as the single-connection layout does, and reads must not wait on a writer.
+ */
+@DisplayName("TradeDatabase — performance mode")
+class TradeDatabasePerformanceModeTest {
+
+    private static final String PERF_DB = "test-perf-mode.db";
+    private static final String SINGLE_DB = "test-single-mode.db";
+
+    private TradeDatabase perf;
+    private TradeDatabase single;
+
+    private static void deleteFiles(String path) {
+        for (String suffix : new String[]{"", "-wal", "-shm"}) new File(path + suffix).delete();
+    }
+
+    @BeforeEach
+    void setUp() {
+        deleteFiles(PERF_DB);
+        deleteFiles(SINGLE_DB);
+        perf = new TradeDatabase(PERF_DB, TradeDatabase.Mode.PERFORMANCE, 2);
+        single = new TradeDatabase(SINGLE_DB, TradeDatabase.Mode.SINGLE_CONNECTION);
+    }
+
+    @AfterEach
+    void tearDown() {
+        perf.close();
+        single.close();
+        deleteFiles(PERF_DB);
+        deleteFiles(SINGLE_DB);
+    }
+
+    private static void script(TradeDatabase db, Instant now) {
+        Instant t0 = now.minusSeconds(600);
+        db.recordTrade("SPY", "MACD", "main", "alpaca", t0, 500.0, 2.0, 490.0, 520.0);
+        db.recordTrade("SPY", "MACD", "main", "alpaca", t0.plusSeconds(60), 502.0, 1.0, 492.0, 522.0);
+        db.recordTrade("QQQ", "RSI", "main", "alpaca", t0.plusSeconds(120), 400.0, 3.0, 390.0, 420.0);
+        db.updateStop("QQQ", "alpaca", 395.0);
+        db.updatePartialExits("QQQ", "alpaca", 1);
+        db.closeTrade("SPY", now.minusSeconds(30), 510.0, 0.0, "alpaca");
+        db.saveBotState("cooldown:SPY", "1700000000000");
+        db.saveBotState("cooldown:QQQ", "1700000000001");
+        db.deleteBotState("cooldown:QQQ");
+        db.closeOrphanedOpenTrades("alpaca", Set.of("QQQ"), 0);
+    }
+
+    @Test
+    @DisplayName("every query answers the same as the single-connection layout")
+    void matchesSingleConnection() {
+        Instant now = Instant.now();
+        script(perf, now);
+        script(single, now);
+
+        assertEquals(TradeDatabase.Mode.PERFORMANCE, perf.getMode());
+        assertEquals(single.countOpenTrades("QQQ", "alpaca"), perf.countOpenTrades("QQQ", "alpaca"));
+        assertEquals(single.hasOpenTrade("SPY", "alpaca"), perf.hasOpenTrade("SPY", "alpaca"));
+        assertTrue(perf.wasRecentlyClosed("SPY", "alpaca", 60_000));
+        assertEquals(single.getOpenTradeRecords("alpaca"), perf.getOpenTradeRecords("alpaca"));
+        assertEquals(single.getTradeStatistics(), perf.getTradeStatistics());
+        assertEquals(single.getSymbolStatistics("SPY"), perf.getSymbolStatistics("SPY"));
+        assertEquals(single.getTodayPnL(), perf.getTodayPnL(), 1e-9);
+        assertEquals(single.getRecentClosedTrades(10), perf.getRecentClosedTrades(10));
+        assertEquals(single.getRecentTrades(10).size(), perf.getRecentTrades(10).size());
+        assertEquals(single.loadBotStateWithPrefix("cooldown:"), perf.loadBotStateWithPrefix("cooldown:"));
+        assertEquals("1700000000000", perf.loadBotState("cooldown:SPY"));
+        assertNull(perf.loadBotState("cooldown:QQQ"));
+
+        // Cached statements are reused across calls with fresh parameters
+        for (int i = 0; i < 50; i++) {
+            assertEquals(1, perf.countOpenTrades("QQQ", "alpaca"));
+            assertEquals(0, perf.countOpenTrades("SPY", "alpaca"));
+        }
+    }
+
+    @Test
+    @DisplayName("reads see the last commit while another writer holds an open transaction")
+    void readsDoNotWaitForWriters() throws Exception {
+        perf.recordTrade("SPY", "MACD", "main", "alpaca", Instant.now(), 500.0, 1.0, 490.0, 520.0);
+        assertTrue(perf.flush(Duration.ofSeconds(5)));
+
+        try (var external = DriverManager.getConnection("jdbc:sqlite:" + PERF_DB);
+             var stmt = external.createStatement()) {
+            stmt.execute("PRAGMA busy_timeout=5000");
+            stmt.execute("BEGIN IMMEDIATE");
+            stmt.execute("INSERT INTO trades (symbol, broker, entry_time, entry_price, quantity, status) " +
+                         "VALUES ('SPY', 'alpaca', '2026-01-01T00:00:00Z', 1, 1, 'OPEN')");
+
+            var records = CompletableFuture.supplyAsync(() -> perf.getOpenTradeRecords("alpaca"))
+                .get(2, TimeUnit.SECONDS);
+            assertEquals(1.0, records.get(0).quantity(), 1e-9, "the uncommitted insert is invisible, and the read didn't block");
+
+            stmt.execute("COMMIT");
+        }
+        assertEquals(2.0, perf.getOpenTradeRecords("alpaca").get(0).quantity(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("with write-behind, recording a trade doesn't wait for a locked database")
+    void writesDoNotWaitForDisk() throws Exception {
+        assertTrue(perf.isWriteBehind());
+        try (var external = DriverManager.getConnection("jdbc:sqlite:" + PERF_DB);
+             var stmt = external.createStatement()) {
+            stmt.execute("BEGIN IMMEDIATE");
+
+            long start = System.nanoTime();
+            perf.recordTrade("QQQ", "RSI", "main", "alpaca", Instant.now(), 400.0, 1.0, 390.0, 420.0);
+            perf.saveBotState("cooldown:QQQ", "1");
+            perf.updateStop("QQQ", "alpaca", 395.0);
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 500,
+                "queued writes return while another connection holds the write lock");
+            assertFalse(perf.flush(Duration.ofMillis(100)), "nothing can commit yet");
+
+            stmt.execute("COMMIT");
+        }
+        assertTrue(perf.flush(Duration.ofSeconds(5)));
+        assertEquals(1, perf.countOpenTrades("QQQ", "alpaca"));
+        assertEquals(395.0, perf.getOpenTradeRecords("alpaca").get(0).stopLoss(), 1e-9);
+        assertEquals(0, perf.getJournalStats().pending());
+    }
+
+    @Test
+    @DisplayName("with write-behind, a queued trade that fails to insert is retried until it lands, not skipped")
+    void failedIndexedWriteIsRetried() throws Exception {
+        try (var external = DriverManager.getConnection("jdbc:sqlite:" + PERF_DB);
+             var stmt = external.createStatement()) {
+            stmt.execute("CREATE TRIGGER reject_iwm BEFORE INSERT ON trades WHEN NEW.symbol = 'IWM' " +
+                         "BEGIN SELECT RAISE(ABORT, 'rejected'); END");
+
+            perf.recordTrade("IWM", "RSI", "main", "alpaca", Instant.now(), 200.0, 1.0, 195.0, 210.0);
+            perf.saveBotState("cooldown:IWM", "1");
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (perf.isJournalHealthy() && System.nanoTime() < deadline) Thread.sleep(5);
+            assertFalse(perf.isJournalHealthy(), "the failing insert holds the journal");
+            assertFalse(perf.flush(Duration.ofMillis(100)));
+
+            stmt.execute("DROP TRIGGER reject_iwm");
+        }
+        assertTrue(perf.flush(Duration.ofSeconds(10)));
+        assertTrue(perf.isJournalHealthy());
+        assertEquals(1, perf.countOpenTrades("IWM", "alpaca"));
+        assertEquals(1, perf.getOpenTradeRecords("alpaca").size(), "the index and the file agree");
+        assertEquals("1", perf.loadBotState("cooldown:IWM"));
+    }
+
+    @Test
+    @DisplayName("without write-behind, a trade whose commit fails never reaches the open-trade index")
+    void failedCommitLeavesIndexUnchanged() throws Exception {
+        try (var reader = DriverManager.getConnection("jdbc:sqlite:" + SINGLE_DB)) {
+            // An open read transaction holds a shared lock, so the writer's COMMIT gets SQLITE_BUSY
+            reader.setAutoCommit(false);
+            try (var rs = reader.createStatement().executeQuery("SELECT COUNT(*) FROM trades")) {
+                assertTrue(rs.next());
+                assertThrows(RuntimeException.class, () -> single.recordTrade(
+                    "IWM", "RSI", "main", "alpaca", Instant.now(), 200.0, 1.0, 195.0, 210.0));
+            }
+            reader.rollback();
+        }
+
+        assertFalse(single.hasOpenTrade("IWM", "alpaca"));
+        assertEquals(0, single.getOpenTradeRecords("alpaca").size());
+    }
+
+    @Test
+    @DisplayName("WAL is on and closing checkpoints it away")
+    void walLifecycle() throws Exception {
+        try (var probe = DriverManager.getConnection("jdbc:sqlite:" + PERF_DB);
+             var rs = probe.createStatement().executeQuery("PRAGMA journal_mode")) {
+            assertEquals("wal", rs.getString(1));
+        }
+        perf.saveBotState("circuit:alpaca", "0.02");
+        perf.close();
+        assertFalse(new File(PERF_DB + "-wal").exists());
+
+        assertEquals(TradeDatabase.Mode.SINGLE_CONNECTION, new TradeDatabase(":memory:").getMode());
+    }
+}
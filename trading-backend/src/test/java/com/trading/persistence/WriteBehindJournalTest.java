@@ -0,0 +1,163 @@
+package com.trading.persistence;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("WriteBehindJournal — queued group commits")
+class WriteBehindJournalTest {
+
+    @Test
+    @DisplayName("entries from many producers commit once each, in per-producer order, in groups")
+    void orderingAndGrouping() throws Exception {
+        var committed = new CopyOnWriteArrayList<int[]>();
+        var batches = new AtomicInteger();
+        try (var journal = new WriteBehindJournal<int[]>("test", 64, Duration.ofMillis(2), batch -> {
+            batches.incrementAndGet();
+            committed.addAll(batch);
+        })) {
+            int producers = 4, perProducer = 2_000;
+            var start = new CountDownLatch(1);
+            var threads = new ArrayList<Thread>();
+            for (int p = 0; p < producers; p++) {
+                int producer = p;
+                threads.add(Thread.ofPlatform().start(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < perProducer; i++) journal.append(new int[]{producer, i});
+                }));
+            }
+            start.countDown();
+            for (Thread t : threads) t.join();
+            journal.flush();
+
+            assertEquals(producers * perProducer, committed.size());
+            int[] next = new int[producers];
+            for (int[] entry : committed) {
+                assertEquals(next[entry[0]]++, entry[1], "producer " + entry[0] + " out of order");
+            }
+            assertTrue(batches.get() < committed.size(), "entries were grouped: " + batches.get() + " commits");
+            assertEquals(0, journal.getStats().pending());
+        }
+    }
+
+    @Test
+    @DisplayName("flush is a barrier: it returns only after earlier entries are committed")
+    void flushBarrier() throws Exception {
+        var release = new CountDownLatch(1);
+        var committed = new CopyOnWriteArrayList<String>();
+        try (var journal = new WriteBehindJournal<String>("test", 16, Duration.ofMillis(50), batch -> {
+            release.await();
+            committed.addAll(batch);
+        })) {
+            long seq = journal.append("a");
+            journal.append("b");
+            assertFalse(journal.flush(Duration.ofMillis(100)));
+            assertTrue(journal.hasPending());
+
+            release.countDown();
+            journal.awaitCommitted(seq);
+            assertTrue(committed.contains("a"));
+            journal.flush();
+            assertEquals(List.of("a", "b"), committed);
+        }
+    }
+
+    @Test
+    @DisplayName("a failed commit is retried with the same group before later entries")
+    void retriesFailedCommit() throws Exception {
+        var attempts = new AtomicInteger();
+        var committed = new CopyOnWriteArrayList<String>();
+        try (var journal = new WriteBehindJournal<String>("test", 16, Duration.ZERO, batch -> {
+            if (attempts.incrementAndGet() == 1) throw new java.sql.SQLException("database is locked");
+            committed.addAll(batch);
+        })) {
+            journal.append("first");
+            assertTrue(journal.flush(Duration.ofSeconds(5)));
+            journal.append("second");
+            journal.flush();
+
+            assertEquals(List.of("first", "second"), committed);
+            assertEquals(1, journal.getStats().failedCommits());
+        }
+    }
+
+    @Test
+    @DisplayName("a group that keeps failing is never dropped: later entries wait behind it until it commits")
+    void neverDropsFailingGroup() throws Exception {
+        var failures = new AtomicInteger(4);
+        var committed = new CopyOnWriteArrayList<String>();
+        try (var journal = new WriteBehindJournal<String>("test", 16, Duration.ZERO, batch -> {
+            if (batch.contains("first") && failures.getAndDecrement() > 0) {
+                throw new java.sql.SQLException("disk full");
+            }
+            committed.addAll(batch);
+        })) {
+            long first = journal.append("first");
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (journal.getStats().consecutiveFailures() < 2 && System.nanoTime() < deadline) Thread.sleep(1);
+            assertFalse(journal.isHealthy());
+            long next = journal.append("next");
+            assertFalse(journal.isCommitted(next), "nothing commits ahead of the failing group");
+
+            assertTrue(journal.flush(Duration.ofSeconds(5)));
+            assertTrue(journal.isCommitted(first));
+            assertTrue(journal.isHealthy());
+            assertEquals("first", committed.getFirst());
+            assertTrue(committed.contains("next"));
+            assertEquals(4, journal.getStats().failedCommits());
+        }
+    }
+
+    @Test
+    @DisplayName("close gives up on a writer stuck in a commit once its deadline passes")
+    void boundedClose() throws Exception {
+        var stuck = new CountDownLatch(1);
+        var journal = new WriteBehindJournal<String>("test", 16, Duration.ZERO, batch -> stuck.await());
+        journal.append("a");
+
+        long start = System.nanoTime();
+        journal.close(Duration.ofMillis(200));
+
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(7));
+        assertTrue(journal.hasPending());
+        stuck.countDown();
+    }
+
+    @Test
+    @DisplayName("a full queue makes producers wait instead of dropping entries; close drains it")
+    void backPressureAndClose() throws Exception {
+        var gate = new CountDownLatch(1);
+        var committed = new CopyOnWriteArrayList<Integer>();
+        var journal = new WriteBehindJournal<Integer>("test", 4, Duration.ZERO, batch -> {
+            gate.await();
+            committed.addAll(batch);
+        });
+
+        var producer = Thread.ofPlatform().start(() -> {
+            for (int i = 0; i < 20; i++) journal.append(i);
+        });
+        producer.join(200);
+        assertTrue(producer.isAlive(), "producer is held back by the full ring");
+
+        gate.countDown();
+        producer.join(TimeUnit.SECONDS.toMillis(5));
+        journal.close();
+
+        assertEquals(20, committed.size());
+        for (int i = 0; i < 20; i++) assertEquals(i, committed.get(i));
+        assertThrows(IllegalStateException.class, () -> journal.append(99));
+    }
+}
@@ -0,0 +1,93 @@
+package com.trading.portfolio;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trading.api.ResilientBrokerClient;
+import com.trading.api.model.Position;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("BrokerSnapshot — per-cycle broker state")
+class BrokerSnapshotTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private ResilientBrokerClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        client = mock(ResilientBrokerClient.class, withSettings().mockMaker(org.mockito.MockMakers.SUBCLASS));
+        when(client.getAccount()).thenReturn(MAPPER.readTree("{\"equity\":\"1000\",\"buying_power\":\"500\"}"));
+        when(client.getPositions()).thenReturn(List.of(
+            new Position("SPY", 2, 1000, 480, 40), new Position("QQQ", 1, 400, 410, -10)));
+    }
+
+    @Test
+    @DisplayName("open orders are indexed by symbol; symbols without orders get an empty array")
+    void indexesOpenOrders() throws Exception {
+        when(client.getAllOpenOrders()).thenReturn(MAPPER.readTree("""
+            [{"id":"1","symbol":"SPY","type":"stop"},
+             {"id":"2","symbol":"SPY","type":"limit"},
+             {"id":"3","symbol":"QQQ","type":"market"}]"""));
+
+        var snapshot = BrokerSnapshot.fetch(client);
+
+        assertEquals(2, snapshot.openOrders("SPY").size());
+        assertEquals("3", snapshot.openOrders("QQQ").get(0).path("id").asText());
+        assertTrue(snapshot.openOrders("AAPL").isArray());
+        assertEquals(0, snapshot.openOrders("AAPL").size());
+        assertEquals(1000.0, snapshot.account().get("equity").asDouble());
+        assertEquals(410.0, snapshot.position("QQQ").orElseThrow().avgEntryPrice());
+    }
+
+    @Test
+    @DisplayName("a broker without a one-call open-order listing leaves callers to ask per symbol")
+    void noOpenOrderListing() throws Exception {
+        when(client.getAllOpenOrders()).thenReturn(null);
+        assertNull(BrokerSnapshot.fetch(client).openOrders("SPY"));
+    }
+
+    @Test
+    @DisplayName("a failed part rethrows when read; the other parts are still served")
+    void failedPartRethrows() throws Exception {
+        when(client.getPositions()).thenThrow(new RuntimeException("positions down"));
+
+        var snapshot = BrokerSnapshot.fetch(client);
+
+        var error = assertThrows(RuntimeException.class, snapshot::positions);
+        assertEquals("positions down", error.getMessage());
+        assertEquals(500.0, snapshot.account().get("buying_power").asDouble());
+    }
+
+    @Test
+    @DisplayName("the three requests are in flight at the same time")
+    void fetchesConcurrently() throws Exception {
+        var allStarted = new CountDownLatch(3);
+        when(client.getAccount()).thenAnswer(inv -> {
+            allStarted.countDown();
+            return allStarted.await(5, TimeUnit.SECONDS) ? MAPPER.createObjectNode() : null;
+        });
+        when(client.getPositions()).thenAnswer(inv -> {
+            allStarted.countDown();
+            return allStarted.await(5, TimeUnit.SECONDS) ? List.of() : null;
+        });
+        when(client.getAllOpenOrders()).thenAnswer(inv -> {
+            allStarted.countDown();
+            return allStarted.await(5, TimeUnit.SECONDS) ? MAPPER.createArrayNode() : null;
+        });
+
+        var snapshot = BrokerSnapshot.fetch(client);
+
+        assertNotNull(snapshot.account());
+        assertNotNull(snapshot.positions());
+        assertNotNull(snapshot.openOrders("SPY"));
+        verify(client, never()).getClock();
+    }
+}
@@ -151,6 +151,19 @@ class ProfileManagerEodExitTest {
         return new Position("AAPL", 2.0, 600.0, 300.0, 0.0);
     }
 
+    /**
+     * Broker positions that stay until their sell is placed, like market orders filling at once.
+     * Returns the live map so a test can change a position behind the bot's back.
+     */
+    private java.util.Map<String, Position> positionsFilledOnSell(Position... held) {
+        var open = new java.util.LinkedHashMap<String, Position>();
+        for (var position : held) open.put(position.symbol(), position);
+        when(mockClient.getPositions()).thenAnswer(inv -> List.copyOf(open.values()));
+        doAnswer(inv -> open.remove(inv.<String>getArgument(0)))
+            .when(mockClient).placeOrder(anyString(), anyDouble(), eq("sell"), any(), any(), any());
+        return open;
+    }
+
     @BeforeEach
     void setUp() throws Exception {
         profileManager = allocateProfileManager();
@@ -159,6 +172,7 @@ class ProfileManagerEodExitTest {
         mockConfig = createMockConfig("15:30");
         mockDatabase = mock(TradeDatabase.class, withSettings()
                 .mockMaker(org.mockito.MockMakers.SUBCLASS));
+        when(mockDatabase.isJournalHealthy()).thenReturn(true);
 
         portfolio = new PortfolioManager(List.of("AAPL", "QQQ"), 100_000.0);
 
@@ -230,9 +244,7 @@ class ProfileManagerEodExitTest {
     @DisplayName("EOD exit fires and sells all positions when time is past 15:30")
     void eodExitFiresWhenTimePassed() throws Exception {
         when(mockConfig.getEodExitTime()).thenReturn("00:00"); // always past
-        when(mockClient.getPositions())
-                .thenReturn(List.of(aaplPosition()))   // first call: positions present
-                .thenReturn(List.of());                // second call: verify closure
+        positionsFilledOnSell(aaplPosition());
         when(mockClient.getOpenOrders("AAPL")).thenReturn(emptyOrders());
 
         invokePrivate("checkAndExecuteEodExit", new Class[]{String.class}, "[MAIN]");
@@ -317,9 +329,7 @@ class ProfileManagerEodExitTest {
     @DisplayName("EOD exit calls database.closeTrade() immediately — no re-entry window")
     void eodExitClosesDbRecordImmediately() throws Exception {
         when(mockConfig.getEodExitTime()).thenReturn("00:00");
-        when(mockClient.getPositions())
-                .thenReturn(List.of(aaplPosition()))
-                .thenReturn(List.of());
+        positionsFilledOnSell(aaplPosition());
         when(mockClient.getOpenOrders("AAPL")).thenReturn(emptyOrders());
 
         invokePrivate("checkAndExecuteEodExit", new Class[]{String.class}, "[MAIN]");
@@ -377,9 +387,7 @@ class ProfileManagerEodExitTest {
         when(mockConfig.getEodExitTime()).thenReturn("00:00");
 
         var qqq = new Position("QQQ", 1.5, 1110.0, 740.0, 0.0);
-        when(mockClient.getPositions())
-                .thenReturn(List.of(aaplPosition(), qqq))
-                .thenReturn(List.of());
+        positionsFilledOnSell(aaplPosition(), qqq);
         when(mockClient.getOpenOrders(anyString())).thenReturn(emptyOrders());
 
         invokePrivate("checkAndExecuteEodExit", new Class[]{String.class}, "[MAIN]");
@@ -395,13 +403,30 @@ class ProfileManagerEodExitTest {
     void eodExitUsesAbsoluteQty() throws Exception {
         when(mockConfig.getEodExitTime()).thenReturn("00:00");
         var shortPos = new Position("SQQQ", -3.0, 120.0, 40.0, 0.0); // short = negative qty
-        when(mockClient.getPositions())
-                .thenReturn(List.of(shortPos))
-                .thenReturn(List.of());
+        positionsFilledOnSell(shortPos);
         when(mockClient.getOpenOrders("SQQQ")).thenReturn(emptyOrders());
 
         invokePrivate("checkAndExecuteEodExit", new Class[]{String.class}, "[MAIN]");
 
         verify(mockClient).placeOrder("SQQQ", 3.0, "sell", "market", "day", null);
     }
+
+    @Test
+    @DisplayName("EOD exit sizes the sell from the broker's live position, not the cycle-start read")
+    void eodExitSellsLiveQty() throws Exception {
+        when(mockConfig.getEodExitTime()).thenReturn("00:00");
+        var open = positionsFilledOnSell(aaplPosition(), new Position("QQQ", 1.5, 1110.0, 740.0, 0.0));
+        // After the positions were read, the other profile sells 1.5 AAPL and QQQ is stopped out server-side
+        when(mockClient.getOpenOrders("AAPL")).thenAnswer(inv -> {
+            open.put("AAPL", new Position("AAPL", 0.5, 150.0, 300.0, 0.0));
+            open.remove("QQQ");
+            return emptyOrders();
+        });
+        when(mockClient.getOpenOrders("QQQ")).thenReturn(emptyOrders());
+
+        invokePrivate("checkAndExecuteEodExit", new Class[]{String.class}, "[MAIN]");
+
+        verify(mockClient).placeOrder("AAPL", 0.5, "sell", "market", "day", null);
+        verify(mockClient, never()).placeOrder(eq("QQQ"), anyDouble(), any(), any(), any(), any());
+    }
 }
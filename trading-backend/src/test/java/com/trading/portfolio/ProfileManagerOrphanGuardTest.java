@@ -128,6 +128,7 @@ class ProfileManagerOrphanGuardTest {
         mockConfig = createMockConfig();
         mockDatabase = mock(TradeDatabase.class, withSettings()
             .mockMaker(org.mockito.MockMakers.SUBCLASS));
+        when(mockDatabase.isJournalHealthy()).thenReturn(true);
 
         portfolio = new PortfolioManager(List.of("AAPL", "NVDA", "IWM"), 100_000.0);
 
@@ -175,6 +175,7 @@ class ProfileManagerPDTAndCooldownTest {
         mockClient        = createMockClient();
         mockConfig        = createMockConfig();
         mockDatabase      = mock(TradeDatabase.class, withSettings().mockMaker(org.mockito.MockMakers.SUBCLASS));
+        when(mockDatabase.isJournalHealthy()).thenReturn(true);
         realPDTProtection = createPDTProtection(0); // default: 0 day trades
 
         var portfolio = new PortfolioManager(List.of("SPY","QQQ","DIA"), 10_000.0);
@@ -226,6 +226,7 @@ class ProfileManagerSellOrderTest {
         mockConfig = createMockConfig();
         mockDatabase = mock(TradeDatabase.class, withSettings()
                 .mockMaker(org.mockito.MockMakers.SUBCLASS));
+        when(mockDatabase.isJournalHealthy()).thenReturn(true);
 
         // Create a real ExitStrategyManager with our mock config
         mockExitStrategyManager = new ExitStrategyManager(mockConfig);
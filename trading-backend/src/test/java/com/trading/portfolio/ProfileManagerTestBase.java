@@ -128,6 +128,7 @@ abstract class ProfileManagerTestBase {
         mockConfig  = mockConfig();
         mockDatabase = mock(TradeDatabase.class, withSettings()
             .mockMaker(org.mockito.MockMakers.SUBCLASS));
+        when(mockDatabase.isJournalHealthy()).thenReturn(true);
 
         portfolio = new PortfolioManager(List.of("SPY", "QQQ", "AAPL", "NVDA"), 100_000.0);
 
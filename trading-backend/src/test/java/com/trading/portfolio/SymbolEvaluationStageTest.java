@@ -0,0 +1,84 @@
+package com.trading.portfolio;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SymbolEvaluationStage — concurrent per-symbol evaluation")
+class SymbolEvaluationStageTest {
+
+    private static final List<String> SYMBOLS = List.of("SPY", "QQQ", "AAPL", "MSFT", "NVDA", "IWM", "GLD", "TLT");
+
+    @Test
+    @DisplayName("outcomes come back in input order even when later symbols finish first")
+    void preservesOrder() throws Exception {
+        var outcomes = SymbolEvaluationStage.run(SYMBOLS, SYMBOLS.size(), symbol -> {
+            // Earlier symbols take longer
+            Thread.sleep(5L * (SYMBOLS.size() - SYMBOLS.indexOf(symbol)));
+            return symbol.toLowerCase();
+        });
+
+        assertEquals(SYMBOLS, outcomes.stream().map(SymbolEvaluationStage.Outcome::symbol).toList());
+        assertEquals("spy", outcomes.get(0).value());
+        assertTrue(outcomes.get(0).elapsedNanos() >= TimeUnit.MILLISECONDS.toNanos(40));
+    }
+
+    @Test
+    @DisplayName("evaluations overlap, but never more than the stage width at once")
+    void boundedConcurrency() throws Exception {
+        var inFlight = new AtomicInteger();
+        var maxInFlight = new AtomicInteger();
+        var outcomes = SymbolEvaluationStage.run(SYMBOLS, 3, symbol -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            inFlight.decrementAndGet();
+            return symbol;
+        });
+
+        assertEquals(SYMBOLS.size(), outcomes.size());
+        assertEquals(3, maxInFlight.get());
+    }
+
+    @Test
+    @DisplayName("a symbol's exception is captured in its outcome without affecting the others")
+    void capturesFailures() throws Exception {
+        var outcomes = SymbolEvaluationStage.run(List.of("SPY", "BAD", "QQQ"), 2, symbol -> {
+            if (symbol.equals("BAD")) throw new IllegalStateException("no bars for " + symbol);
+            return 1.0;
+        });
+
+        assertFalse(outcomes.get(0).failed());
+        assertTrue(outcomes.get(1).failed());
+        assertEquals("no bars for BAD", outcomes.get(1).error().getMessage());
+        assertEquals(1.0, outcomes.get(2).value());
+    }
+
+    @Test
+    @DisplayName("all evaluations run concurrently when the width allows")
+    void runsConcurrently() throws Exception {
+        var allStarted = new CountDownLatch(SYMBOLS.size());
+        var outcomes = SymbolEvaluationStage.run(SYMBOLS, SYMBOLS.size(), symbol -> {
+            allStarted.countDown();
+            // Only completes if every evaluation is in flight together
+            return allStarted.await(5, TimeUnit.SECONDS);
+        });
+
+        assertTrue(outcomes.stream().allMatch(o -> Boolean.TRUE.equals(o.value())));
+    }
+
+    @Test
+    @DisplayName("width is the configured maximum, narrowed to the request budget after the reserve")
+    void widthFromBudget() {
+        assertEquals(8, SymbolEvaluationStage.width(8, 150, 20, 3));
+        assertEquals(5, SymbolEvaluationStage.width(8, 35, 20, 3));
+        assertEquals(1, SymbolEvaluationStage.width(8, 10, 20, 3), "never below one");
+        assertEquals(8, SymbolEvaluationStage.width(8, -1, 20, 3), "unknown budget");
+        assertEquals(1, SymbolEvaluationStage.width(0, 150, 20, 3));
+    }
+}
@@ -36,6 +36,7 @@ class PDTProtectionTest {
     @AfterEach
     void tearDown() {
         // Clean up test database
+        database.close();
         new File(TEST_DB_PATH).delete();
     }
     
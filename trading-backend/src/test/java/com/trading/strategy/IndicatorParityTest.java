@@ -0,0 +1,149 @@
+package com.trading.strategy;
+
+import com.trading.analysis.AtrCalculator;
+import com.trading.api.model.Bar;
+import com.trading.api.model.BarSeries;
+import com.trading.indicators.IndicatorRegistry;
+import com.trading.indicators.IndicatorSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The running indicators must reproduce the batch calculations exactly — not within a
+ * tolerance — while bars stream in through 100-bar windows and the forming bar is revised.
+ */
+@DisplayName("Incremental indicators match batch calculations bit-for-bit")
+class IndicatorParityTest {
+    private static final Instant T0 = Instant.parse("2025-01-02T05:00:00Z");
+    private static final int WINDOW = 100;
+    private static final int BARS = 320;
+
+    private final List<Bar> bars = new ArrayList<>();
+    private final Random random = new Random(42);
+    private IndicatorSet indicators;
+
+    @BeforeEach
+    void setUp() {
+        indicators = new IndicatorRegistry(512).get("alpaca", "SPY", "1Day");
+    }
+
+    private Bar randomBar(int i, double prevClose) {
+        double close = Math.max(1.0, prevClose * (1 + (random.nextDouble() - 0.5) * 0.04));
+        double high = Math.max(prevClose, close) * (1 + random.nextDouble() * 0.01);
+        double low = Math.min(prevClose, close) * (1 - random.nextDouble() * 0.01);
+        return new Bar(T0.plusSeconds(86_400L * i), prevClose, high, low, close, 1_000 + random.nextInt(5_000));
+    }
+
+    private List<Bar> window() {
+        return bars.subList(Math.max(0, bars.size() - WINDOW), bars.size());
+    }
+
+    /** Stream BARS bars, revising about a third of them once before they close. */
+    private void stream(Runnable check) {
+        double close = 100.0;
+        for (int i = 0; i < BARS; i++) {
+            if (random.nextDouble() < 0.3) {
+                bars.add(randomBar(i, close));
+                indicators.sync(window());
+                check.run();
+                bars.remove(bars.size() - 1);
+            }
+            Bar bar = randomBar(i, close);
+            bars.add(bar);
+            close = bar.close();
+            indicators.sync(window());
+            check.run();
+        }
+    }
+
+    @Test
+    @DisplayName("RSI matches RSIStrategy.calculateRSI for the last bar and the one before")
+    void rsi() {
+        stream(() -> {
+            var history = BarSeries.of(window());
+            var reading = indicators.rsi(14);
+            assertEquals(RSIStrategy.calculateRSI(history, 14), reading.value());
+            if (history.size() > 1) {
+                assertEquals(RSIStrategy.calculateRSI(history.dropLast(1), 14), reading.previous());
+            }
+        });
+    }
+
+    @Test
+    @DisplayName("MACD and signal match MACDStrategy at the last two bars")
+    void macd() {
+        var strategy = new MACDStrategy();
+        stream(() -> {
+            var history = BarSeries.of(window());
+            var reading = strategy.reading(indicators);
+            if (history.size() <= 35) return;
+            double[] current = strategy.calculateMACD(history, history.size() - 1);
+            double[] previous = strategy.calculateMACD(history, history.size() - 2);
+            assertTrue(reading.isReady());
+            assertEquals(current[0], reading.macd());
+            assertEquals(current[1], reading.signal());
+            assertEquals(previous[0], reading.previousMacd());
+            assertEquals(previous[1], reading.previousSignal());
+        });
+    }
+
+    @Test
+    @DisplayName("SMA matches a left-to-right window sum for the last bar and the one before")
+    void sma() {
+        stream(() -> {
+            var history = BarSeries.of(window());
+            int n = history.size();
+            for (int period : new int[] {10, 20, 50}) {
+                var reading = indicators.sma(period);
+                if (n < period + 1) continue;
+                assertEquals(plainMean(history, n - period, n), reading.value());
+                assertEquals(plainMean(history, n - period - 1, n - 1), reading.previous());
+            }
+        });
+    }
+
+    @Test
+    @DisplayName("Bollinger bands match MeanReversionStrategy's mean and deviation")
+    void bollinger() {
+        stream(() -> {
+            var history = BarSeries.of(window());
+            int n = history.size();
+            var bands = indicators.bollinger(20, 2.5);
+            if (n < 20) return;
+            double sma = history.closes(n - 20, n).average().orElse(0.0);
+            double stdDev = Math.sqrt(history.closes(n - 20, n).map(p -> Math.pow(p - sma, 2)).sum() / 20);
+            assertEquals(sma, bands.middle());
+            assertEquals(stdDev, bands.stdDev());
+            assertEquals(sma + (2.5 * stdDev), bands.upper());
+            assertEquals(sma - (2.5 * stdDev), bands.lower());
+        });
+    }
+
+    @Test
+    @DisplayName("ATR matches AtrCalculator.atr over the period + 5 bar window ProfileManager fetches")
+    void atr() {
+        int window = 14 + 5;
+        stream(() -> {
+            var reading = indicators.atr(14, window);
+            int n = bars.size();
+            assertEquals(AtrCalculator.atr(bars.subList(Math.max(0, n - window), n), 14), reading.value());
+            if (n > 1) {
+                assertEquals(AtrCalculator.atr(bars.subList(Math.max(0, n - 1 - window), n - 1), 14), reading.previous());
+            }
+        });
+    }
+
+    private static double plainMean(BarSeries closes, int from, int to) {
+        double sum = 0;
+        for (int i = from; i < to; i++) sum += closes.close(i);
+        return sum / (to - from);
+    }
+}